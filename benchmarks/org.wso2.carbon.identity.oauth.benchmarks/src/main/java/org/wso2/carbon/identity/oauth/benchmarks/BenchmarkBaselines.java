@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Runs the benchmarks and records their scores as a baseline, or compares the scores against a recorded baseline.
+ * <p>
+ * Usage: {@code BenchmarkBaselines [--record] [--baseline <file>] [--threshold <percent>] [<include regex>]}
+ * <p>
+ * A baseline is a sorted properties file keyed by the benchmark and its parameters. Baselines are only comparable
+ * when recorded on the same hardware and JVM, hence the file records both. The benchmarks measure the average time
+ * of an operation, so a score is reported as a regression when it exceeds the baseline by more than the threshold,
+ * after allowing for the error margin of the measurement. The process exits with a non-zero status if a benchmark
+ * regressed. Comparing is skipped, without running the benchmarks, when the baseline does not exist or has no
+ * recorded scores, and benchmarks without a recorded score are reported as skipped.
+ */
+public final class BenchmarkBaselines {
+
+    private static final String DEFAULT_BASELINE = "benchmarks/org.wso2.carbon.identity.oauth.benchmarks/baselines/" +
+            "baseline.properties";
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+    private static final String ENVIRONMENT_PREFIX = "environment.";
+    private static final String SCORE_SUFFIX = ".score";
+    private static final String UNIT_SUFFIX = ".unit";
+
+    private BenchmarkBaselines() {
+
+    }
+
+    public static void main(String[] args) throws IOException, RunnerException {
+
+        boolean record = false;
+        Path baseline = Paths.get(DEFAULT_BASELINE);
+        double thresholdPercent = DEFAULT_THRESHOLD_PERCENT;
+        String include = ".*";
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--record":
+                    record = true;
+                    break;
+                case "--baseline":
+                    baseline = Paths.get(args[++i]);
+                    break;
+                case "--threshold":
+                    thresholdPercent = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    include = args[i];
+            }
+        }
+
+        if (record) {
+            Collection<RunResult> results = new Runner(new OptionsBuilder().include(include).build()).run();
+            writeBaseline(baseline, results);
+            System.out.println("Recorded the baseline of " + results.size() + " benchmark(s) in: " + baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("Skipping the comparison, baseline: " + baseline + " does not exist. Record it with " +
+                    "--record on the reference environment first.");
+            return;
+        }
+        Properties recordedBaseline = readBaseline(baseline);
+        if (!hasScores(recordedBaseline)) {
+            System.out.println("Skipping the comparison, baseline: " + baseline + " has no recorded scores. Record " +
+                    "it with --record on the reference environment first.");
+            return;
+        }
+        Collection<RunResult> results = new Runner(new OptionsBuilder().include(include).build()).run();
+        List<String> failures = compare(recordedBaseline, results, thresholdPercent);
+        if (!failures.isEmpty()) {
+            failures.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.out.println("No regressions against the baseline: " + baseline);
+    }
+
+    private static List<String> compare(Properties baseline, Collection<RunResult> results, double thresholdPercent) {
+
+        List<String> failures = new ArrayList<>();
+        Map<String, String> environment = describeEnvironment();
+        for (Map.Entry<String, String> entry : environment.entrySet()) {
+            String recorded = baseline.getProperty(ENVIRONMENT_PREFIX + entry.getKey());
+            if (recorded == null) {
+                System.err.println("Baseline does not record the " + entry.getKey() + " it was recorded with.");
+            } else if (!entry.getValue().equals(recorded)) {
+                // Scores of a different environment are not comparable, but are still reported to give an indication.
+                System.err.println("Baseline was recorded with " + entry.getKey() + ": " + recorded + ", but the " +
+                        "benchmarks ran with: " + entry.getValue());
+            }
+        }
+        for (RunResult result : results) {
+            String key = toKey(result.getParams());
+            Result<?> primaryResult = result.getPrimaryResult();
+            String recordedScore = baseline.getProperty(key + SCORE_SUFFIX);
+            if (recordedScore == null) {
+                // A benchmark added after the baseline was recorded is only compared once the baseline is recorded
+                // again.
+                System.out.println("Skipping benchmark: " + key + ", it has no recorded score.");
+                continue;
+            }
+            if (!primaryResult.getScoreUnit().equals(baseline.getProperty(key + UNIT_SUFFIX))) {
+                failures.add("Unit of benchmark: " + key + " changed from: " + baseline.getProperty(key + UNIT_SUFFIX)
+                        + " to: " + primaryResult.getScoreUnit() + ". Record the baseline again.");
+                continue;
+            }
+            double allowed = Double.parseDouble(recordedScore) * (1 + thresholdPercent / 100);
+            double error = Double.isNaN(primaryResult.getScoreError()) ? 0 : primaryResult.getScoreError();
+            if (primaryResult.getScore() - error > allowed) {
+                failures.add(String.format(Locale.ENGLISH, "Benchmark: %s regressed. Score: %.3f +/- %.3f %s, " +
+                                "baseline: %s %s, threshold: %.1f%%", key, primaryResult.getScore(), error,
+                        primaryResult.getScoreUnit(), recordedScore, primaryResult.getScoreUnit(), thresholdPercent));
+            }
+        }
+        return failures;
+    }
+
+    private static String toKey(BenchmarkParams params) {
+
+        StringBuilder key = new StringBuilder(params.getBenchmark());
+        // Parameter keys are sorted by JMH, which keeps the keys stable between runs.
+        for (String paramKey : params.getParamsKeys()) {
+            key.append('.').append(paramKey).append('-').append(params.getParam(paramKey));
+        }
+        return key.toString();
+    }
+
+    private static boolean hasScores(Properties baseline) {
+
+        for (String key : baseline.stringPropertyNames()) {
+            if (key.endsWith(SCORE_SUFFIX)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Properties readBaseline(Path baseline) throws IOException {
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(baseline, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    private static void writeBaseline(Path baseline, Collection<RunResult> results) throws IOException {
+
+        // Properties#store does not keep an order, hence the sorted entries are written directly to keep the diffs
+        // of a re-recorded baseline readable.
+        Map<String, String> entries = new TreeMap<>();
+        for (Map.Entry<String, String> entry : describeEnvironment().entrySet()) {
+            entries.put(ENVIRONMENT_PREFIX + entry.getKey(), entry.getValue());
+        }
+        for (RunResult result : results) {
+            String key = toKey(result.getParams());
+            entries.put(key + SCORE_SUFFIX, String.format(Locale.ENGLISH, "%.3f", result.getPrimaryResult()
+                    .getScore()));
+            entries.put(key + UNIT_SUFFIX, result.getPrimaryResult().getScoreUnit());
+        }
+        if (baseline.getParent() != null) {
+            Files.createDirectories(baseline.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(baseline, StandardCharsets.UTF_8)) {
+            writer.write("# Baseline of the OAuth benchmarks. Re-record with: BenchmarkBaselines --record\n");
+            for (Map.Entry<String, String> entry : entries.entrySet()) {
+                writer.write(escape(entry.getKey()) + "=" + escape(entry.getValue()) + "\n");
+            }
+        }
+    }
+
+    private static Map<String, String> describeEnvironment() {
+
+        Map<String, String> environment = new TreeMap<>();
+        environment.put("java.vm.name", System.getProperty("java.vm.name"));
+        environment.put("java.version", System.getProperty("java.version"));
+        environment.put("os.arch", System.getProperty("os.arch"));
+        environment.put("processors", String.valueOf(Runtime.getRuntime().availableProcessors()));
+        return environment;
+    }
+
+    private static String escape(String value) {
+
+        return value.replace("\\", "\\\\").replace(":", "\\:").replace("=", "\\=");
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks;
+
+import org.h2.jdbcx.JdbcConnectionPool;
+import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.application.authentication.framework.internal.impl.AuthenticationMethodNameTranslatorImpl;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.application.common.model.IdentityProvider;
+import org.wso2.carbon.identity.application.common.model.ServiceProvider;
+import org.wso2.carbon.identity.application.common.util.IdentityApplicationConstants;
+import org.wso2.carbon.identity.application.mgt.ApplicationManagementService;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.oauth.OAuthAdminServiceImpl;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
+import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
+import org.wso2.carbon.identity.oauth2.keyidprovider.DefaultKeyIDProviderImpl;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.openidconnect.OpenIDConnectClaimFilterImpl;
+import org.wso2.carbon.identity.openidconnect.OpenIDConnectSystemClaimImpl;
+import org.wso2.carbon.identity.openidconnect.RequestObjectService;
+import org.wso2.carbon.identity.openidconnect.dao.ScopeClaimMappingDAOImpl;
+import org.wso2.carbon.identity.openidconnect.internal.OpenIDConnectServiceComponentHolder;
+import org.wso2.carbon.idp.mgt.IdentityProviderManager;
+import org.wso2.carbon.idp.mgt.internal.IdpMgtServiceComponentHolder;
+import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserRealm;
+import org.wso2.carbon.user.core.UserStoreManager;
+import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.user.core.tenant.TenantManager;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.Key;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.Context;
+import javax.naming.InitialContext;
+import javax.naming.Name;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingException;
+import javax.naming.spi.InitialContextFactory;
+import javax.sql.DataSource;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Bootstraps a super tenant environment for the benchmarks without an OSGi runtime, the same way the component
+ * tests do. The Carbon home and the identity database schema of the OAuth component tests are reused. The
+ * database is an in-memory H2 database exposed through JNDI under the data source name of identity.xml, so that
+ * the DAOs run their real queries. The services of other components are replaced by in-memory stand-ins, and
+ * the signing key and certificate are loaded from the test key store.
+ * <p>
+ * The caches are disabled in the identity.xml of the tests. Hence the benchmarks measure the uncached paths.
+ */
+public final class BenchmarkEnvironment {
+
+    public static final String CLIENT_ID = "b3nchm4rkc1i3nt1d0000000000000a";
+    public static final String APP_NAME = "benchmark-app";
+    public static final String USER_NAME = "benchmark-user";
+    public static final String USER_STORE_DOMAIN = "PRIMARY";
+    public static final String SUPER_TENANT_DOMAIN = MultitenantConstants.SUPER_TENANT_DOMAIN_NAME;
+    public static final int SUPER_TENANT_ID = MultitenantConstants.SUPER_TENANT_ID;
+
+    private static final String[] USER_ROLES = {"Internal/everyone", "orders_viewer"};
+    private static final String[] ACCESS_TOKEN_SCOPES = {"orders:read", "orders:write"};
+    private static final long ACCESS_TOKEN_VALIDITY_IN_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final String[] OIDC_SCOPES = {"openid", "profile", "email", "address", "phone"};
+
+    private static final String IDENTITY_DATA_SOURCE = "jdbc/WSO2IdentityDB";
+    private static final String CARBON_HOME_RESOURCES = "carbon-home/";
+    private static final String[] CARBON_HOME_FILES = {
+            "repository/conf/carbon.xml",
+            "repository/conf/identity/identity.xml",
+            "repository/conf/identity/EndpointConfig.properties",
+            "repository/conf/identity/oidc-scope-config.xml",
+            "repository/resources/security/wso2carbon.jks",
+            "repository/resources/security/client-truststore.jks"
+    };
+    private static final String[] DB_SCRIPTS = {"dbScripts/identity.sql", "dbScripts/benchmark_data.sql"};
+    private static final String KEY_STORE = "repository/resources/security/wso2carbon.jks";
+    private static final String KEY_STORE_PASSWORD = "wso2carbon";
+    private static final String KEY_ALIAS = "wso2carbon";
+
+    private static boolean initialized;
+
+    private BenchmarkEnvironment() {
+
+    }
+
+    /**
+     * Initialize the environment. Subsequent invocations have no effect, hence every benchmark can call this from
+     * its setup method.
+     *
+     * @throws Exception If the environment cannot be initialized.
+     */
+    public static synchronized void initialize() throws Exception {
+
+        if (initialized) {
+            return;
+        }
+        Path carbonHome = extractCarbonHome();
+        System.setProperty("carbon.home", carbonHome.toString());
+        System.setProperty("carbon.config.dir.path", carbonHome.resolve("repository").resolve("conf").toString());
+        initializeDatabase();
+        startSuperTenantFlow();
+        initializeServices();
+        initializeResidentIdP();
+        initializeKeys(carbonHome.resolve(KEY_STORE));
+        initialized = true;
+    }
+
+    /**
+     * Start a super tenant flow on the current thread. JMH may run the setup and the benchmark methods on different
+     * threads, hence thread scoped states call this before the measurement starts.
+     */
+    public static void startSuperTenantFlow() {
+
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        carbonContext.setTenantId(SUPER_TENANT_ID);
+        carbonContext.setTenantDomain(SUPER_TENANT_DOMAIN);
+    }
+
+    /**
+     * Build a local user of the primary user store of the super tenant.
+     *
+     * @param userName User name.
+     * @return Authenticated user.
+     */
+    public static AuthenticatedUser buildLocalUser(String userName) {
+
+        AuthenticatedUser user = new AuthenticatedUser();
+        user.setUserName(userName);
+        user.setUserStoreDomain(USER_STORE_DOMAIN);
+        user.setTenantDomain(SUPER_TENANT_DOMAIN);
+        user.setAuthenticatedSubjectIdentifier(userName);
+        return user;
+    }
+
+    /**
+     * Build a federated user. The claims of federated users are taken from the request rather than a user store,
+     * which keeps the user store stand-in out of the measured path.
+     *
+     * @param userName User name.
+     * @return Authenticated user.
+     */
+    public static AuthenticatedUser buildFederatedUser(String userName) {
+
+        AuthenticatedUser user = buildLocalUser(userName);
+        user.setFederatedUser(true);
+        return user;
+    }
+
+    /**
+     * Build an active bearer access token of the benchmark application. The token identifier and the token itself
+     * are random, hence tokens built for distinct users can be persisted side by side.
+     *
+     * @param user Authorized user.
+     * @return Access token data object.
+     */
+    public static AccessTokenDO buildAccessToken(AuthenticatedUser user) {
+
+        Timestamp issuedTime = new Timestamp(System.currentTimeMillis());
+        AccessTokenDO accessTokenDO = new AccessTokenDO(CLIENT_ID, user, ACCESS_TOKEN_SCOPES, issuedTime, issuedTime,
+                ACCESS_TOKEN_VALIDITY_IN_MILLIS, ACCESS_TOKEN_VALIDITY_IN_MILLIS,
+                OAuthConstants.UserType.APPLICATION_USER);
+        accessTokenDO.setTokenId(UUID.randomUUID().toString());
+        accessTokenDO.setAccessToken(UUID.randomUUID().toString());
+        accessTokenDO.setRefreshToken(UUID.randomUUID().toString());
+        accessTokenDO.setTokenState(OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        accessTokenDO.setGrantType(OAuthConstants.GrantTypes.PASSWORD);
+        accessTokenDO.setTenantID(SUPER_TENANT_ID);
+        return accessTokenDO;
+    }
+
+    private static Path extractCarbonHome() throws Exception {
+
+        Path carbonHome = Files.createTempDirectory("oauth-benchmarks");
+        for (String file : CARBON_HOME_FILES) {
+            Path target = carbonHome.resolve(file);
+            Files.createDirectories(target.getParent());
+            try (InputStream inputStream = getResource(CARBON_HOME_RESOURCES + file)) {
+                Files.copy(inputStream, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return carbonHome;
+    }
+
+    private static void initializeDatabase() throws Exception {
+
+        JdbcConnectionPool dataSource = JdbcConnectionPool.create("jdbc:h2:mem:benchmarks;DB_CLOSE_DELAY=-1",
+                "username", "password");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String script : DB_SCRIPTS) {
+                statement.executeUpdate("RUNSCRIPT FROM 'classpath:/" + script + "'");
+            }
+        }
+        BenchmarkContextFactory.bind(IDENTITY_DATA_SOURCE, dataSource);
+        System.setProperty(Context.INITIAL_CONTEXT_FACTORY, BenchmarkContextFactory.class.getName());
+    }
+
+    private static void initializeServices() throws Exception {
+
+        RealmService realmService = standIn(RealmService.class);
+        TenantManager tenantManager = standIn(TenantManager.class);
+        UserRealm userRealm = standIn(UserRealm.class);
+        UserStoreManager userStoreManager = standIn(UserStoreManager.class);
+        when(realmService.getTenantManager()).thenReturn(tenantManager);
+        when(realmService.getTenantUserRealm(SUPER_TENANT_ID)).thenReturn(userRealm);
+        when(realmService.getBootstrapRealmConfiguration()).thenReturn(new RealmConfiguration());
+        when(tenantManager.getTenantId(SUPER_TENANT_DOMAIN)).thenReturn(SUPER_TENANT_ID);
+        when(tenantManager.getDomain(SUPER_TENANT_ID)).thenReturn(SUPER_TENANT_DOMAIN);
+        when(userRealm.getUserStoreManager()).thenReturn(userStoreManager);
+        when(userStoreManager.getRoleListOfUser(anyString())).thenReturn(USER_ROLES);
+        IdentityTenantUtil.setRealmService(realmService);
+        OAuthComponentServiceHolder.getInstance().setRealmService(realmService);
+        IdpMgtServiceComponentHolder.getInstance().setRealmService(realmService);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setUserRealm(userRealm);
+
+        ServiceProvider serviceProvider = new ServiceProvider();
+        serviceProvider.setApplicationName(APP_NAME);
+        ApplicationManagementService applicationMgtService = standIn(ApplicationManagementService.class);
+        when(applicationMgtService.getServiceProviderNameByClientId(anyString(), anyString(), anyString()))
+                .thenReturn(APP_NAME);
+        when(applicationMgtService.getServiceProviderByClientId(anyString(), anyString(), anyString()))
+                .thenReturn(serviceProvider);
+        when(applicationMgtService.getApplicationExcludingFileBasedSPs(anyString(), anyString()))
+                .thenReturn(serviceProvider);
+        OAuth2ServiceComponentHolder.setApplicationMgtService(applicationMgtService);
+
+        OAuthAdminServiceImpl oAuthAdminService = standIn(OAuthAdminServiceImpl.class);
+        when(oAuthAdminService.getScopeNames()).thenReturn(OIDC_SCOPES);
+        OAuth2ServiceComponentHolder.getInstance().setOAuthAdminService(oAuthAdminService);
+        OAuth2ServiceComponentHolder.getInstance().setScopeClaimMappingDAO(new ScopeClaimMappingDAOImpl());
+        OAuth2ServiceComponentHolder.setAuthenticationMethodNameTranslator(
+                new AuthenticationMethodNameTranslatorImpl());
+        OAuth2ServiceComponentHolder.setKeyIDProvider(new DefaultKeyIDProviderImpl());
+
+        RequestObjectService requestObjectService = standIn(RequestObjectService.class);
+        when(requestObjectService.getRequestedClaimsForIDToken(anyString())).thenReturn(Collections.emptyList());
+        when(requestObjectService.getRequestedClaimsForUserInfo(anyString())).thenReturn(Collections.emptyList());
+        OpenIDConnectServiceComponentHolder.setRequestObjectService(requestObjectService);
+        OpenIDConnectServiceComponentHolder.getInstance().getOpenIDConnectClaimFilters()
+                .add(new OpenIDConnectClaimFilterImpl());
+        OpenIDConnectServiceComponentHolder.getInstance().getClaimProviders().add(new OpenIDConnectSystemClaimImpl());
+    }
+
+    private static void initializeResidentIdP() throws Exception {
+
+        IdentityProvider residentIdP = new IdentityProvider();
+        residentIdP.setIdentityProviderName(IdentityApplicationConstants.RESIDENT_IDP_RESERVED_NAME);
+        residentIdP.setEnable(true);
+        IdentityProviderManager.getInstance().addResidentIdP(residentIdP, SUPER_TENANT_DOMAIN);
+    }
+
+    private static void initializeKeys(Path keyStorePath) throws Exception {
+
+        KeyStore keyStore = KeyStore.getInstance("JKS");
+        try (InputStream inputStream = Files.newInputStream(keyStorePath)) {
+            keyStore.load(inputStream, KEY_STORE_PASSWORD.toCharArray());
+        }
+        // The key store manager needs the registry. OAuth2Util caches the key and the certificate per tenant, hence
+        // seeding its caches avoids the registry altogether.
+        Map<Integer, Key> privateKeys = getStaticMap("privateKeys");
+        privateKeys.put(SUPER_TENANT_ID, keyStore.getKey(KEY_ALIAS, KEY_STORE_PASSWORD.toCharArray()));
+        Map<Integer, Certificate> publicCerts = getStaticMap("publicCerts");
+        publicCerts.put(SUPER_TENANT_ID, keyStore.getCertificate(KEY_ALIAS));
+    }
+
+    /**
+     * Create a stand-in of a service. Stand-ins do not record their invocations, which would otherwise accumulate for
+     * the whole benchmark run.
+     */
+    private static <T> T standIn(Class<T> serviceClass) {
+
+        return mock(serviceClass, withSettings().stubOnly());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Map<K, V> getStaticMap(String fieldName) throws ReflectiveOperationException {
+
+        Field field = OAuth2Util.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return (Map<K, V>) field.get(null);
+    }
+
+    private static InputStream getResource(String name) {
+
+        InputStream inputStream = BenchmarkEnvironment.class.getClassLoader().getResourceAsStream(name);
+        if (inputStream == null) {
+            throw new IllegalStateException("Benchmark resource: " + name + " is not available in the class path.");
+        }
+        return inputStream;
+    }
+
+    /**
+     * JNDI context factory serving the data sources of the benchmark environment.
+     */
+    public static class BenchmarkContextFactory implements InitialContextFactory {
+
+        private static final Map<String, Object> BINDINGS = new ConcurrentHashMap<>();
+
+        static void bind(String name, DataSource dataSource) {
+
+            BINDINGS.put(name, dataSource);
+        }
+
+        @Override
+        public Context getInitialContext(Hashtable<?, ?> environment) throws NamingException {
+
+            return new InitialContext(true) {
+
+                @Override
+                public Object lookup(String name) throws NamingException {
+
+                    Object bound = BINDINGS.get(name);
+                    if (bound == null) {
+                        throw new NameNotFoundException(name);
+                    }
+                    return bound;
+                }
+
+                @Override
+                public Object lookup(Name name) throws NamingException {
+
+                    return lookup(name.toString());
+                }
+            };
+        }
+    }
+}
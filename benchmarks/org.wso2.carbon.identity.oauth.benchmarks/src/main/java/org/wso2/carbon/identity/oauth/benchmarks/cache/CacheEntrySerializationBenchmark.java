@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.benchmarks.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.oauth.benchmarks.BenchmarkEnvironment;
+import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantCacheEntry;
+import org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil;
+import org.wso2.carbon.identity.oauth.cache.SessionDataCacheEntry;
+import org.wso2.carbon.identity.oauth.dao.OAuthAppDO;
+import org.wso2.carbon.identity.oauth.util.UserClaims;
+import org.wso2.carbon.identity.oauth2.model.OAuth2Parameters;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks serializing and deserializing the cache entries that are replicated across a cluster, with the default
+ * Java serialization and with their compact forms. The serialized size of each entry and format is printed when a
+ * trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class CacheEntrySerializationBenchmark {
+
+    @Param({"AccessTokenDO", "AuthorizationGrantCacheEntry", "SessionDataCacheEntry", "OAuthAppDO", "UserClaims"})
+    private String entry;
+
+    @Param({"java", "compact"})
+    private String format;
+
+    private Object cacheEntry;
+    private byte[] serializedEntry;
+
+    @Setup
+    public void setup() throws Exception {
+
+        // The flag is read once from identity.xml. It is set directly, as both formats are measured in one JVM.
+        Field enabled = CompactSerializationUtil.class.getDeclaredField("compactSerializationEnabled");
+        enabled.setAccessible(true);
+        enabled.set(null, "compact".equals(format));
+
+        AuthenticatedUser user = BenchmarkEnvironment.buildLocalUser(BenchmarkEnvironment.USER_NAME);
+        switch (entry) {
+            case "AccessTokenDO":
+                cacheEntry = BenchmarkEnvironment.buildAccessToken(user);
+                break;
+            case "AuthorizationGrantCacheEntry":
+                cacheEntry = buildAuthorizationGrantCacheEntry();
+                break;
+            case "SessionDataCacheEntry":
+                cacheEntry = buildSessionDataCacheEntry(user);
+                break;
+            case "OAuthAppDO":
+                cacheEntry = buildOAuthAppDO(user);
+                break;
+            default:
+                cacheEntry = new UserClaims(buildClaims());
+        }
+        serializedEntry = serialize();
+        System.out.println("Serialized size of " + entry + " in the " + format + " format: " +
+                serializedEntry.length + " bytes");
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(cacheEntry);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serializedEntry))) {
+            return in.readObject();
+        }
+    }
+
+    private static AuthorizationGrantCacheEntry buildAuthorizationGrantCacheEntry() {
+
+        Map<ClaimMapping, String> userAttributes = new LinkedHashMap<>();
+        for (Map.Entry<String, String> claim : buildClaims().entrySet()) {
+            userAttributes.put(ClaimMapping.build(claim.getKey(), claim.getKey(), null, false), claim.getValue());
+        }
+        AuthorizationGrantCacheEntry grantCacheEntry = new AuthorizationGrantCacheEntry(userAttributes);
+        grantCacheEntry.setCodeId("3f1b2c4d-5e6f-4a7b-8c9d-0e1f2a3b4c5d");
+        grantCacheEntry.setAuthorizationCode("9a8b7c6d-5e4f-3a2b-1c0d-e9f8a7b6c5d4");
+        grantCacheEntry.setNonceValue("n-0S6_WzA2Mj");
+        grantCacheEntry.setAuthTime(1666000000000L);
+        grantCacheEntry.setMaxAge(3600L);
+        grantCacheEntry.setSubjectClaim(BenchmarkEnvironment.USER_NAME);
+        grantCacheEntry.setAcrValue(new LinkedHashSet<>(Arrays.asList("urn:mace:incommon:iap:silver")));
+        grantCacheEntry.addAmr("BasicAuthenticator");
+        return grantCacheEntry;
+    }
+
+    private static SessionDataCacheEntry buildSessionDataCacheEntry(AuthenticatedUser user) {
+
+        OAuth2Parameters parameters = new OAuth2Parameters();
+        parameters.setApplicationName(BenchmarkEnvironment.APP_NAME);
+        parameters.setClientId(BenchmarkEnvironment.CLIENT_ID);
+        parameters.setRedirectURI("https://localhost/callback");
+        parameters.setResponseType("code");
+        parameters.setScopes(new LinkedHashSet<>(Arrays.asList("openid", "profile", "email")));
+        parameters.setState("af0ifjsldkj");
+        parameters.setNonce("n-0S6_WzA2Mj");
+        parameters.setPkceCodeChallenge("E9Melhoa2OwvFrEMTJguCHaoeK1t8URWbuGJSstw-cM");
+        parameters.setPkceCodeChallengeMethod("S256");
+        parameters.setTenantDomain(BenchmarkEnvironment.SUPER_TENANT_DOMAIN);
+        parameters.setLoginTenantDomain(BenchmarkEnvironment.SUPER_TENANT_DOMAIN);
+        parameters.setMaxAge(3600L);
+
+        SessionDataCacheEntry sessionDataCacheEntry = new SessionDataCacheEntry();
+        sessionDataCacheEntry.setoAuth2Parameters(parameters);
+        sessionDataCacheEntry.setLoggedInUser(user);
+        sessionDataCacheEntry.setAuthTime(1666000000000L);
+        sessionDataCacheEntry.setAuthenticatedIdPs("LOCAL");
+        sessionDataCacheEntry.setQueryString("response_type=code&client_id=" + BenchmarkEnvironment.CLIENT_ID +
+                "&scope=openid%20profile%20email&state=af0ifjsldkj");
+        sessionDataCacheEntry.getParamMap().put("response_type", new String[]{"code"});
+        sessionDataCacheEntry.getParamMap().put("client_id", new String[]{BenchmarkEnvironment.CLIENT_ID});
+        sessionDataCacheEntry.getParamMap().put("scope", new String[]{"openid profile email"});
+        return sessionDataCacheEntry;
+    }
+
+    private static OAuthAppDO buildOAuthAppDO(AuthenticatedUser user) {
+
+        OAuthAppDO app = new OAuthAppDO();
+        app.setId(1);
+        app.setOauthConsumerKey(BenchmarkEnvironment.CLIENT_ID);
+        app.setOauthConsumerSecret("b3nchm4rks3cr3t0000000000000000a");
+        app.setApplicationName(BenchmarkEnvironment.APP_NAME);
+        app.setCallbackUrl("https://localhost/callback");
+        app.setOauthVersion("OAuth-2.0");
+        app.setGrantTypes("authorization_code password refresh_token client_credentials");
+        app.setState("ACTIVE");
+        app.setUserAccessTokenExpiryTime(3600L);
+        app.setApplicationAccessTokenExpiryTime(3600L);
+        app.setRefreshTokenExpiryTime(86400L);
+        app.setIdTokenExpiryTime(3600L);
+        app.setTokenType("Default");
+        app.setAppOwner(user);
+        return app;
+    }
+
+    private static SortedMap<String, String> buildClaims() {
+
+        SortedMap<String, String> claims = new TreeMap<>();
+        claims.put("http://wso2.org/claims/emailaddress", "benchmark-user@wso2.com");
+        claims.put("http://wso2.org/claims/givenname", "Benchmark");
+        claims.put("http://wso2.org/claims/lastname", "User");
+        claims.put("http://wso2.org/claims/role", "Internal/everyone,orders_viewer");
+        claims.put("http://wso2.org/claims/username", BenchmarkEnvironment.USER_NAME);
+        return claims;
+    }
+}
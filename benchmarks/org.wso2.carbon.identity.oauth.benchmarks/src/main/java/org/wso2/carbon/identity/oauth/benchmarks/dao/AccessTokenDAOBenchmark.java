@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks.dao;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.oauth.benchmarks.BenchmarkEnvironment;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.AccessTokenDAO;
+import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks persisting and reading access tokens through the access token DAO against the in-memory database.
+ * Every insert is made for a distinct user, since an application keeps a single active token per user, scope and
+ * binding.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class AccessTokenDAOBenchmark {
+
+    private AccessTokenDAO accessTokenDAO;
+    private String persistedAccessToken;
+    private long userCounter;
+
+    @Setup
+    public void setup() throws Exception {
+
+        BenchmarkEnvironment.initialize();
+        BenchmarkEnvironment.startSuperTenantFlow();
+        accessTokenDAO = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO();
+
+        AccessTokenDO accessTokenDO = BenchmarkEnvironment.buildAccessToken(nextUser());
+        accessTokenDAO.insertAccessToken(accessTokenDO.getAccessToken(), BenchmarkEnvironment.CLIENT_ID,
+                accessTokenDO, BenchmarkEnvironment.USER_STORE_DOMAIN);
+        persistedAccessToken = accessTokenDO.getAccessToken();
+    }
+
+    @Benchmark
+    public void insertAccessToken() throws IdentityOAuth2Exception {
+
+        AccessTokenDO accessTokenDO = BenchmarkEnvironment.buildAccessToken(nextUser());
+        accessTokenDAO.insertAccessToken(accessTokenDO.getAccessToken(), BenchmarkEnvironment.CLIENT_ID,
+                accessTokenDO, BenchmarkEnvironment.USER_STORE_DOMAIN);
+    }
+
+    @Benchmark
+    public AccessTokenDO getAccessToken() throws IdentityOAuth2Exception {
+
+        return accessTokenDAO.getAccessToken(persistedAccessToken, false);
+    }
+
+    private AuthenticatedUser nextUser() {
+
+        return BenchmarkEnvironment.buildLocalUser("dao-user-" + Thread.currentThread().getId() + "-"
+                + userCounter++);
+    }
+}
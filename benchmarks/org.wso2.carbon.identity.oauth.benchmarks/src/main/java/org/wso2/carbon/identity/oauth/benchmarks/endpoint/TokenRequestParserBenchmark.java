@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks.endpoint;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.oauth.endpoint.exception.TokenEndpointBadRequestException;
+import org.wso2.carbon.identity.oauth.endpoint.util.EndpointUtil;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks parsing of JSON token request payloads of the common shapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class TokenRequestParserBenchmark {
+
+    private static final String CLIENT_CREDENTIALS = "{\"grant_type\":\"client_credentials\"," +
+            "\"scope\":\"internal_login openid\"}";
+    private static final String AUTHORIZATION_CODE = "{\"grant_type\":\"authorization_code\"," +
+            "\"code\":\"8f9e2a6c-4c1b-3d7e-9b5a-1f2e3d4c5b6a\",\"redirect_uri\":\"https://app.example.com/callback\"," +
+            "\"client_id\":\"s6BhdRkqt3gnRbwHbiY3fvJiZWwa\",\"code_verifier\":" +
+            "\"dBjftJeZ4CVP-mB92K27uhbUJU1p1r_wW1gFWFOEjXk\"}";
+    private static final String TOKEN_EXCHANGE = "{\"grant_type\":" +
+            "\"urn:ietf:params:oauth:grant-type:token-exchange\",\"subject_token\":\"eyJhbGciOiJSUzI1NiJ9." +
+            "eyJzdWIiOiJhbGljZSIsImF1ZCI6InJlc291cmNlIn0.c2lnbmF0dXJl\",\"subject_token_type\":" +
+            "\"urn:ietf:params:oauth:token-type:jwt\",\"audience\":[\"orders\",\"payments\"]," +
+            "\"authorization_details\":[{\"type\":\"payment_initiation\",\"actions\":[\"initiate\",\"status\"]," +
+            "\"instructedAmount\":{\"currency\":\"EUR\",\"amount\":\"123.50\"}}]}";
+
+    @Param({"client_credentials", "authorization_code", "token_exchange"})
+    private String shape;
+
+    private String payload;
+
+    @Setup
+    public void setup() {
+
+        switch (shape) {
+            case "client_credentials":
+                payload = CLIENT_CREDENTIALS;
+                break;
+            case "authorization_code":
+                payload = AUTHORIZATION_CODE;
+                break;
+            default:
+                payload = TOKEN_EXCHANGE;
+        }
+    }
+
+    @Benchmark
+    public Map<String, List<String>> parseJsonTokenRequest() throws TokenEndpointBadRequestException {
+
+        return EndpointUtil.parseJsonTokenRequest(payload);
+    }
+}
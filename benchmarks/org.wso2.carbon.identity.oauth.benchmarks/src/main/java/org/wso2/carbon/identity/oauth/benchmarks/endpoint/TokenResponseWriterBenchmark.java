@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks.endpoint;
+
+import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.oauth.endpoint.util.JsonResponseWriter;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks writing of the token, error and introspection response bodies of the common shapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class TokenResponseWriterBenchmark {
+
+    private static final String OPAQUE_TOKEN = "4c5b6a8f-9e2a-3d7e-9b5a-1f2e3d6c8f9e";
+    private static final String JWT_TOKEN = "eyJ4NXQiOiJNell4TW1Ga09HWXdNV0kwWldObU5EY3hOR1l3WW1NNFpUQTNNV0kyTkRB" +
+            "ek5HUXpOR00wWkdSbE5qSmtPREZrWkRSaU9URmtNV0ZoTXpVMlpHVmxOZyIsImFsZyI6IlJTMjU2In0.eyJzdWIiOiJhbGljZSIs" +
+            "ImF1dCI6IkFQUExJQ0FUSU9OX1VTRVIiLCJhdWQiOiJzNkJoZFJrcXQzZ25SYndIYmlZM2Z2SmlaV3dhIiwibmJmIjoxNjY2MDAw" +
+            "MDAwLCJhenAiOiJzNkJoZFJrcXQzIiwic2NvcGUiOiJvcGVuaWQiLCJpc3MiOiJodHRwczovL2xvY2FsaG9zdDo5NDQzL29hdXRo" +
+            "Mi90b2tlbiIsImV4cCI6MTY2NjAwMzYwMCwiaWF0IjoxNjY2MDAwMDAwLCJqdGkiOiIxMjM0NTY3OCJ9.c2lnbmF0dXJl";
+
+    @Param({"client_credentials", "authorization_code", "custom_parameters"})
+    private String shape;
+
+    private OAuth2AccessTokenRespDTO tokenResp;
+    private Map<String, Object> introspectionFields;
+
+    @Setup
+    public void setup() {
+
+        tokenResp = new OAuth2AccessTokenRespDTO();
+        tokenResp.setTokenType("Bearer");
+        tokenResp.setExpiresIn(3600);
+        switch (shape) {
+            case "client_credentials":
+                tokenResp.setAccessToken(OPAQUE_TOKEN);
+                tokenResp.setAuthorizedScopes("default");
+                break;
+            case "authorization_code":
+                tokenResp.setAccessToken(JWT_TOKEN);
+                tokenResp.setRefreshToken(OPAQUE_TOKEN);
+                tokenResp.setAuthorizedScopes("openid email profile");
+                tokenResp.setIDToken(JWT_TOKEN);
+                break;
+            default:
+                tokenResp.setAccessToken(JWT_TOKEN);
+                tokenResp.setRefreshToken(OPAQUE_TOKEN);
+                tokenResp.setAuthorizedScopes("openid payments");
+                tokenResp.addParameter("issued_token_type", "urn:ietf:params:oauth:token-type:access_token");
+                Map<String, Object> amount = new HashMap<>();
+                amount.put("currency", "EUR");
+                amount.put("amount", "123.50");
+                Map<String, Object> authorizationDetail = new HashMap<>();
+                authorizationDetail.put("type", "payment_initiation");
+                authorizationDetail.put("actions", Arrays.asList("initiate", "status"));
+                authorizationDetail.put("instructedAmount", amount);
+                tokenResp.addParameterObject("authorization_details",
+                        Collections.singletonList(authorizationDetail));
+        }
+
+        introspectionFields = new HashMap<>();
+        introspectionFields.put("active", true);
+        introspectionFields.put("token_type", "Bearer");
+        introspectionFields.put("client_id", "s6BhdRkqt3gnRbwHbiY3fvJiZWwa");
+        introspectionFields.put("username", "alice@carbon.super");
+        introspectionFields.put("scope", tokenResp.getAuthorizedScopes());
+        introspectionFields.put("iat", 1666000000L);
+        introspectionFields.put("nbf", 1666000000L);
+        introspectionFields.put("exp", 1666003600L);
+        introspectionFields.put("aut", "APPLICATION_USER");
+    }
+
+    @Benchmark
+    public String writeTokenResponse() throws OAuthSystemException {
+
+        return JsonResponseWriter.writeTokenResponse(tokenResp);
+    }
+
+    @Benchmark
+    public String writeErrorResponse() throws OAuthSystemException {
+
+        return JsonResponseWriter.writeErrorResponse("invalid_grant", "Provided Authorization Grant is invalid");
+    }
+
+    @Benchmark
+    public String writeIntrospectionResponse() throws OAuthSystemException {
+
+        return JsonResponseWriter.writeJson(introspectionFields);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks.openidconnect;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.oauth.benchmarks.BenchmarkEnvironment;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenReqDTO;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
+import org.wso2.carbon.identity.oauth2.token.OAuthTokenReqMessageContext;
+import org.wso2.carbon.identity.openidconnect.DefaultIDTokenBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks building and signing the ID token of a token response, including the resolution of the OIDC claims
+ * of the requested scopes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class DefaultIDTokenBuilderBenchmark {
+
+    private DefaultIDTokenBuilder idTokenBuilder;
+    private OAuthTokenReqMessageContext tokenReqMessageContext;
+    private OAuth2AccessTokenRespDTO tokenRespDTO;
+
+    @Setup
+    public void setup() throws Exception {
+
+        BenchmarkEnvironment.initialize();
+        BenchmarkEnvironment.startSuperTenantFlow();
+        idTokenBuilder = new DefaultIDTokenBuilder();
+
+        OAuth2AccessTokenReqDTO tokenReqDTO = new OAuth2AccessTokenReqDTO();
+        tokenReqDTO.setClientId(BenchmarkEnvironment.CLIENT_ID);
+        tokenReqDTO.setTenantDomain(BenchmarkEnvironment.SUPER_TENANT_DOMAIN);
+        tokenReqDTO.setGrantType("password");
+        tokenReqMessageContext = new OAuthTokenReqMessageContext(tokenReqDTO);
+        tokenReqMessageContext.setAuthorizedUser(
+                BenchmarkEnvironment.buildFederatedUser(BenchmarkEnvironment.USER_NAME));
+        tokenReqMessageContext.setScope(new String[]{"openid", "profile", "email"});
+
+        tokenRespDTO = new OAuth2AccessTokenRespDTO();
+        tokenRespDTO.setAccessToken("4c5b6a8f-9e2a-3d7e-9b5a-1f2e3d6c8f9e");
+    }
+
+    @Benchmark
+    public String buildIDToken() throws IdentityOAuth2Exception {
+
+        return idTokenBuilder.buildIDToken(tokenReqMessageContext, tokenRespDTO);
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks.token;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.oauth.benchmarks.BenchmarkEnvironment;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.authz.OAuthAuthzReqMessageContext;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenReqDTO;
+import org.wso2.carbon.identity.oauth2.token.JWTTokenIssuer;
+import org.wso2.carbon.identity.oauth2.token.OAuthTokenReqMessageContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks issuing of self contained access tokens. {@code buildJWTToken} covers building the claim set, which
+ * loads the application and resolves the subject, together with signing. {@code signJWT} covers the RSA signature
+ * alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JWTTokenIssuerBenchmark {
+
+    private BenchmarkJWTTokenIssuer tokenIssuer;
+    private OAuthTokenReqMessageContext tokenReqMessageContext;
+    private JWTClaimsSet claimsSet;
+
+    @Setup
+    public void setup() throws Exception {
+
+        BenchmarkEnvironment.initialize();
+        BenchmarkEnvironment.startSuperTenantFlow();
+        tokenIssuer = new BenchmarkJWTTokenIssuer();
+
+        OAuth2AccessTokenReqDTO tokenReqDTO = new OAuth2AccessTokenReqDTO();
+        tokenReqDTO.setClientId(BenchmarkEnvironment.CLIENT_ID);
+        tokenReqDTO.setTenantDomain(BenchmarkEnvironment.SUPER_TENANT_DOMAIN);
+        tokenReqDTO.setGrantType("client_credentials");
+        tokenReqMessageContext = new OAuthTokenReqMessageContext(tokenReqDTO);
+        tokenReqMessageContext.setAuthorizedUser(
+                BenchmarkEnvironment.buildFederatedUser(BenchmarkEnvironment.USER_NAME));
+        tokenReqMessageContext.setScope(new String[]{"orders:read", "orders:write"});
+        tokenReqMessageContext.setValidityPeriod(3600000L);
+        claimsSet = tokenIssuer.createClaimSet(tokenReqMessageContext);
+    }
+
+    @Benchmark
+    public String buildJWTToken() throws IdentityOAuth2Exception {
+
+        return tokenIssuer.buildJWTToken(tokenReqMessageContext);
+    }
+
+    @Benchmark
+    public String signJWT() throws IdentityOAuth2Exception {
+
+        return tokenIssuer.signJWT(claimsSet, tokenReqMessageContext, null);
+    }
+
+    /**
+     * Exposes the protected steps of the token issuer to the benchmark.
+     */
+    private static class BenchmarkJWTTokenIssuer extends JWTTokenIssuer {
+
+        BenchmarkJWTTokenIssuer() throws IdentityOAuth2Exception {
+
+            super();
+        }
+
+        JWTClaimsSet createClaimSet(OAuthTokenReqMessageContext request) throws IdentityOAuth2Exception {
+
+            return createJWTClaimSet(null, request, request.getOauth2AccessTokenReqDTO().getClientId());
+        }
+
+        @Override
+        protected String buildJWTToken(OAuthTokenReqMessageContext request) throws IdentityOAuth2Exception {
+
+            return super.buildJWTToken(request);
+        }
+
+        @Override
+        protected String signJWT(JWTClaimsSet jwtClaimsSet, OAuthTokenReqMessageContext tokenContext,
+                                 OAuthAuthzReqMessageContext authorizationContext) throws IdentityOAuth2Exception {
+
+            return super.signJWT(jwtClaimsSet, tokenContext, authorizationContext);
+        }
+    }
+}
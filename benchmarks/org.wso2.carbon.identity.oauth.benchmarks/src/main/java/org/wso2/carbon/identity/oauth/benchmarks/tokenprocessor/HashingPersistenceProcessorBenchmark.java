@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks.tokenprocessor;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.oauth.benchmarks.BenchmarkEnvironment;
+import org.wso2.carbon.identity.oauth.tokenprocessor.HashingPersistenceProcessor;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks hashing of access token identifiers before they are persisted or looked up, for an opaque token and
+ * for a JWT token of a typical length.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class HashingPersistenceProcessorBenchmark {
+
+    private static final String OPAQUE_TOKEN = "4c5b6a8f-9e2a-3d7e-9b5a-1f2e3d6c8f9e";
+    private static final String JWT_TOKEN = "eyJ4NXQiOiJNell4TW1Ga09HWXdNV0kwWldObU5EY3hOR1l3WW1NNFpUQTNNV0kyTkRB" +
+            "ek5HUXpOR00wWkdSbE5qSmtPREZrWkRSaU9URmtNV0ZoTXpVMlpHVmxOZyIsImFsZyI6IlJTMjU2In0.eyJzdWIiOiJhbGljZSIs" +
+            "ImF1dCI6IkFQUExJQ0FUSU9OX1VTRVIiLCJhdWQiOiJzNkJoZFJrcXQzZ25SYndIYmlZM2Z2SmlaV3dhIiwibmJmIjoxNjY2MDAw" +
+            "MDAwLCJhenAiOiJzNkJoZFJrcXQzIiwic2NvcGUiOiJvcGVuaWQiLCJpc3MiOiJodHRwczovL2xvY2FsaG9zdDo5NDQzL29hdXRo" +
+            "Mi90b2tlbiIsImV4cCI6MTY2NjAwMzYwMCwiaWF0IjoxNjY2MDAwMDAwLCJqdGkiOiIxMjM0NTY3OCJ9.c2lnbmF0dXJl";
+
+    @Param({"opaque", "jwt"})
+    private String tokenType;
+
+    private HashingPersistenceProcessor processor;
+    private String token;
+
+    @Setup
+    public void setup() throws Exception {
+
+        BenchmarkEnvironment.initialize();
+        processor = new HashingPersistenceProcessor();
+        token = "jwt".equals(tokenType) ? JWT_TOKEN : OPAQUE_TOKEN;
+    }
+
+    @Benchmark
+    public String hashAccessTokenIdentifier() throws IdentityOAuth2Exception {
+
+        return processor.getProcessedAccessTokenIdentifier(token);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.oauth.benchmarks.BenchmarkEnvironment;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks resolving an opaque access token through the configured token issuers, which is the first step of
+ * token validation and introspection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class FindAccessTokenBenchmark {
+
+    private String accessToken;
+
+    @Setup
+    public void setup() throws Exception {
+
+        BenchmarkEnvironment.initialize();
+        BenchmarkEnvironment.startSuperTenantFlow();
+        AccessTokenDO accessTokenDO = BenchmarkEnvironment.buildAccessToken(
+                BenchmarkEnvironment.buildLocalUser("lookup-user-" + Thread.currentThread().getId()));
+        OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO().insertAccessToken(
+                accessTokenDO.getAccessToken(), BenchmarkEnvironment.CLIENT_ID, accessTokenDO,
+                BenchmarkEnvironment.USER_STORE_DOMAIN);
+        accessToken = accessTokenDO.getAccessToken();
+    }
+
+    @Benchmark
+    public AccessTokenDO findAccessToken() throws IdentityOAuth2Exception {
+
+        return OAuth2Util.findAccessToken(accessToken, false);
+    }
+}
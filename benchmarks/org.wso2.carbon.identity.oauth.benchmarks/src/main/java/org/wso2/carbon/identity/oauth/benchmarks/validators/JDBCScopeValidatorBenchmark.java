@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks.validators;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.oauth.benchmarks.BenchmarkEnvironment;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenReqDTO;
+import org.wso2.carbon.identity.oauth2.token.OAuthTokenReqMessageContext;
+import org.wso2.carbon.identity.oauth2.validators.JDBCScopeValidator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks role based scope validation of a token request. The {@code oidc} shape only requests OIDC scopes,
+ * which are filtered out before the roles of the user are resolved. The {@code role_bound} shape requests scopes
+ * bound to roles, which resolves the roles of the user and reads the scope bindings from the database.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class JDBCScopeValidatorBenchmark {
+
+    @Param({"oidc", "role_bound"})
+    private String shape;
+
+    private JDBCScopeValidator scopeValidator;
+    private OAuthTokenReqMessageContext tokenReqMessageContext;
+
+    @Setup
+    public void setup() throws Exception {
+
+        BenchmarkEnvironment.initialize();
+        BenchmarkEnvironment.startSuperTenantFlow();
+        scopeValidator = new JDBCScopeValidator();
+
+        OAuth2AccessTokenReqDTO tokenReqDTO = new OAuth2AccessTokenReqDTO();
+        tokenReqDTO.setClientId(BenchmarkEnvironment.CLIENT_ID);
+        tokenReqDTO.setTenantDomain(BenchmarkEnvironment.SUPER_TENANT_DOMAIN);
+        tokenReqMessageContext = new OAuthTokenReqMessageContext(tokenReqDTO);
+        tokenReqMessageContext.setAuthorizedUser(BenchmarkEnvironment.buildLocalUser(BenchmarkEnvironment.USER_NAME));
+        if ("oidc".equals(shape)) {
+            tokenReqMessageContext.setScope(new String[]{"openid", "profile", "email"});
+        } else {
+            tokenReqMessageContext.setScope(new String[]{"openid", "orders:read", "payments:read"});
+        }
+    }
+
+    @Benchmark
+    public boolean validateScope() throws Exception {
+
+        return scopeValidator.validateScope(tokenReqMessageContext);
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.benchmarks.validators;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wso2.carbon.identity.application.common.model.FederatedAuthenticatorConfig;
+import org.wso2.carbon.identity.application.common.model.IdentityProvider;
+import org.wso2.carbon.identity.application.common.util.IdentityApplicationConstants;
+import org.wso2.carbon.identity.application.common.util.IdentityApplicationManagementUtil;
+import org.wso2.carbon.identity.oauth.benchmarks.BenchmarkEnvironment;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2TokenValidationRequestDTO;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2TokenValidationResponseDTO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.validators.OAuth2JWTTokenValidator;
+import org.wso2.carbon.identity.oauth2.validators.OAuth2TokenValidationMessageContext;
+import org.wso2.carbon.idp.mgt.IdentityProviderManager;
+
+import java.security.interfaces.RSAPrivateKey;
+import java.util.Collections;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks validation of a self contained access token: parsing, resolving the resident identity provider of the
+ * issuer, verifying the RSA signature and checking the validity period.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class OAuth2JWTTokenValidatorBenchmark {
+
+    private static final long TOKEN_LIFETIME_IN_MILLIS = TimeUnit.DAYS.toMillis(1);
+
+    private OAuth2JWTTokenValidator tokenValidator;
+    private OAuth2TokenValidationRequestDTO validationRequestDTO;
+
+    @Setup
+    public void setup() throws Exception {
+
+        BenchmarkEnvironment.initialize();
+        BenchmarkEnvironment.startSuperTenantFlow();
+        tokenValidator = new OAuth2JWTTokenValidator();
+
+        // The token is issued once and outlives the measurement, hence every invocation validates the same token.
+        long now = System.currentTimeMillis();
+        JWTClaimsSet claimsSet = new JWTClaimsSet.Builder()
+                .issuer(getResidentIdPEntityId())
+                .subject(BenchmarkEnvironment.USER_NAME)
+                .audience(BenchmarkEnvironment.CLIENT_ID)
+                .jwtID(UUID.randomUUID().toString())
+                .issueTime(new Date(now))
+                .notBeforeTime(new Date(now))
+                .expirationTime(new Date(now + TOKEN_LIFETIME_IN_MILLIS))
+                .claim("azp", BenchmarkEnvironment.CLIENT_ID)
+                .claim("scope", "orders:read orders:write")
+                .claim(OAuthConstants.OIDCClaims.REALM, Collections.singletonMap(
+                        OAuthConstants.OIDCClaims.SIGNING_TENANT, BenchmarkEnvironment.SUPER_TENANT_DOMAIN))
+                .build();
+        SignedJWT signedJWT = new SignedJWT(new JWSHeader(JWSAlgorithm.RS256), claimsSet);
+        signedJWT.sign(new RSASSASigner((RSAPrivateKey) OAuth2Util.getPrivateKey(
+                BenchmarkEnvironment.SUPER_TENANT_DOMAIN, BenchmarkEnvironment.SUPER_TENANT_ID)));
+
+        validationRequestDTO = new OAuth2TokenValidationRequestDTO();
+        OAuth2TokenValidationRequestDTO.OAuth2AccessToken accessToken = validationRequestDTO.new OAuth2AccessToken();
+        accessToken.setIdentifier(signedJWT.serialize());
+        accessToken.setTokenType("bearer");
+        validationRequestDTO.setAccessToken(accessToken);
+    }
+
+    @Benchmark
+    public boolean validateAccessToken() throws IdentityOAuth2Exception {
+
+        return tokenValidator.validateAccessToken(new OAuth2TokenValidationMessageContext(validationRequestDTO,
+                new OAuth2TokenValidationResponseDTO()));
+    }
+
+    private static String getResidentIdPEntityId() throws Exception {
+
+        IdentityProvider residentIdP = IdentityProviderManager.getInstance()
+                .getResidentIdP(BenchmarkEnvironment.SUPER_TENANT_DOMAIN);
+        FederatedAuthenticatorConfig oidcConfig = IdentityApplicationManagementUtil.getFederatedAuthenticator(
+                residentIdP.getFederatedAuthenticatorConfigs(), IdentityApplicationConstants.Authenticator.OIDC.NAME);
+        return IdentityApplicationManagementUtil.getProperty(oidcConfig.getProperties(), "IdPEntityId").getValue();
+    }
+}
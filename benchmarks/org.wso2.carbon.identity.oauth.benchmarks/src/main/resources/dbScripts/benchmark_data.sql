@@ -0,0 +1,28 @@
+CREATE TABLE IF NOT EXISTS IDN_OIDC_SCOPE_CLAIM_MAPPING (
+            ID INTEGER NOT NULL AUTO_INCREMENT,
+            SCOPE_ID INTEGER,
+            EXTERNAL_CLAIM_ID INTEGER,
+            TENANT_ID INTEGER DEFAULT -1,
+            PRIMARY KEY (SCOPE_ID,EXTERNAL_CLAIM_ID),
+            FOREIGN KEY (SCOPE_ID) REFERENCES IDN_OAUTH2_SCOPE(SCOPE_ID) ON DELETE CASCADE
+);
+
+INSERT INTO IDN_OAUTH_CONSUMER_APPS (CONSUMER_KEY, CONSUMER_SECRET, USERNAME, TENANT_ID, USER_DOMAIN, APP_NAME,
+            OAUTH_VERSION, CALLBACK_URL, GRANT_TYPES, APP_STATE) VALUES
+            ('b3nchm4rkc1i3nt1d0000000000000a', 'b3nchm4rks3cr3t000000000000000a', 'admin', -1234, 'PRIMARY',
+            'benchmark-app', 'OAuth-2.0', 'https://localhost/callback',
+            'refresh_token password client_credentials authorization_code', 'ACTIVE');
+
+INSERT INTO IDN_OAUTH2_SCOPE (NAME, DISPLAY_NAME, DESCRIPTION, TENANT_ID, SCOPE_TYPE) VALUES
+            ('orders:read', 'Read orders', 'Read the orders of the user', -1234, 'OAUTH2');
+INSERT INTO IDN_OAUTH2_SCOPE (NAME, DISPLAY_NAME, DESCRIPTION, TENANT_ID, SCOPE_TYPE) VALUES
+            ('orders:write', 'Write orders', 'Create and update the orders of the user', -1234, 'OAUTH2');
+INSERT INTO IDN_OAUTH2_SCOPE (NAME, DISPLAY_NAME, DESCRIPTION, TENANT_ID, SCOPE_TYPE) VALUES
+            ('payments:read', 'Read payments', 'Read the payments of the user', -1234, 'OAUTH2');
+
+INSERT INTO IDN_OAUTH2_SCOPE_BINDING (SCOPE_ID, SCOPE_BINDING, BINDING_TYPE)
+            SELECT SCOPE_ID, 'orders_viewer', 'DEFAULT' FROM IDN_OAUTH2_SCOPE WHERE NAME = 'orders:read';
+INSERT INTO IDN_OAUTH2_SCOPE_BINDING (SCOPE_ID, SCOPE_BINDING, BINDING_TYPE)
+            SELECT SCOPE_ID, 'orders_admin', 'DEFAULT' FROM IDN_OAUTH2_SCOPE WHERE NAME = 'orders:write';
+INSERT INTO IDN_OAUTH2_SCOPE_BINDING (SCOPE_ID, SCOPE_BINDING, BINDING_TYPE)
+            SELECT SCOPE_ID, 'Internal/everyone', 'DEFAULT' FROM IDN_OAUTH2_SCOPE WHERE NAME = 'payments:read';
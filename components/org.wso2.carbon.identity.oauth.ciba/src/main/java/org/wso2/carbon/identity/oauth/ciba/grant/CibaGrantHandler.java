@@ -31,6 +31,7 @@ import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
 import org.wso2.carbon.identity.oauth2.model.RequestParameter;
 import org.wso2.carbon.identity.oauth2.token.OAuthTokenReqMessageContext;
+import org.wso2.carbon.identity.oauth2.token.ParkedTokenRequestRegistry;
 import org.wso2.carbon.identity.oauth2.token.handlers.grant.AbstractAuthorizationGrantHandler;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 
@@ -116,8 +117,12 @@ public class CibaGrantHandler extends AbstractAuthorizationGrantHandler {
                 throw new IdentityOAuth2Exception(ACCESS_DENIED, "User denied authentication");
             }
 
-            // Validate whether polling is under proper rate limiting.
-            validatePollingFrequency(cibaAuthCodeDO);
+            // Validate whether polling is under proper rate limiting. Requests re-processed after being parked at
+            // the token endpoint are not client driven polls, hence not rate limited.
+            if (!ParkedTokenRequestRegistry.isResumedRequest(
+                    tokReqMsgCtx.getOauth2AccessTokenReqDTO().getHttpServletRequestWrapper())) {
+                validatePollingFrequency(cibaAuthCodeDO);
+            }
 
             // Validate whether user is authenticated.
             if (isAuthorizationPending(cibaAuthCodeDO)) {
@@ -34,6 +34,7 @@ import org.wso2.carbon.identity.oauth2.authz.handlers.AbstractResponseTypeHandle
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AuthorizeReqDTO;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AuthorizeRespDTO;
 import org.wso2.carbon.identity.oauth2.model.OAuth2Parameters;
+import org.wso2.carbon.identity.oauth2.token.ParkedTokenRequestRegistry;
 
 /**
  * Handles authorize requests with CibaAuthCode as response type.
@@ -60,6 +61,7 @@ public class CibaResponseTypeHandler extends AbstractResponseTypeHandler {
             // Update successful authentication.
             CibaDAOFactory.getInstance().getCibaAuthMgtDAO()
                     .persistAuthenticationSuccess(authCodeKey, cibaAuthenticatedUser);
+            notifyParkedTokenRequests(authorizationReqDTO.getNonce());
 
             // Building custom CallBack URL.
             String callbackURL = authorizationReqDTO.getCallbackUrl() + "?authenticationStatus=" + authenticationStatus;
@@ -82,6 +84,7 @@ public class CibaResponseTypeHandler extends AbstractResponseTypeHandler {
 
             // Update authenticationStatus when user denied the consent.
             CibaDAOFactory.getInstance().getCibaAuthMgtDAO().updateStatus(authCodeKey, AuthReqStatus.CONSENT_DENIED);
+            notifyParkedTokenRequests(authReqID);
 
             oAuthErrorDTO.setErrorDescription("User denied the consent.");
             return oAuthErrorDTO;
@@ -103,6 +106,7 @@ public class CibaResponseTypeHandler extends AbstractResponseTypeHandler {
         try {
             authCodeKey = CibaDAOFactory.getInstance().getCibaAuthMgtDAO().getCibaAuthCodeKey(authReqID);
             CibaDAOFactory.getInstance().getCibaAuthMgtDAO().updateStatus(authCodeKey, AuthReqStatus.FAILED);
+            notifyParkedTokenRequests(authReqID);
             oAuthErrorDTO.setErrorDescription("Authentication failed.");
             return oAuthErrorDTO;
         } catch (CibaCoreException e) {
@@ -149,4 +153,14 @@ public class CibaResponseTypeHandler extends AbstractResponseTypeHandler {
         }
         return true;
     }
+
+    /**
+     * Wake up token requests parked at the token endpoint for the given authentication request.
+     *
+     * @param authReqId Authentication request identifier.
+     */
+    private void notifyParkedTokenRequests(String authReqId) {
+
+        ParkedTokenRequestRegistry.getInstance().notifyCompletion(CibaConstants.OAUTH_CIBA_GRANT_TYPE, authReqId);
+    }
 }
@@ -144,6 +144,7 @@ public final class OAuthConstants {
 
     public static final String RESPONSE_HEADERS_PROPERTY = "RESPONSE_HEADERS";
     public static final String CLIENT_AUTHN_CONTEXT = "oauth.client.authentication.context";
+    public static final String SERVICE_PROVIDER_PROPERTY = "ServiceProvider";
 
     //Constants used for multiple scopes
     public static final String OIDC_SCOPE_CONFIG_PATH = "oidc-scope-config.xml";
@@ -92,6 +92,7 @@ import org.wso2.carbon.identity.oauth2.IdentityOAuth2UnauthorizedScopeException;
 import org.wso2.carbon.identity.oauth2.OAuth2Service;
 import org.wso2.carbon.identity.oauth2.RequestObjectException;
 import org.wso2.carbon.identity.oauth2.authz.OAuthAuthzReqMessageContext;
+import org.wso2.carbon.identity.oauth2.device.util.DeviceFlowUtil;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AuthorizeReqDTO;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AuthorizeRespDTO;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2ClientValidationResponseDTO;
@@ -174,6 +175,7 @@ import static org.wso2.carbon.identity.oauth.endpoint.util.EndpointUtil.getOAuth
 import static org.wso2.carbon.identity.oauth.endpoint.util.EndpointUtil.getSSOConsentService;
 import static org.wso2.carbon.identity.oauth.endpoint.util.EndpointUtil.retrieveStateForErrorURL;
 import static org.wso2.carbon.identity.oauth.endpoint.util.EndpointUtil.validateParams;
+import static org.wso2.carbon.identity.oauth2.device.constants.Constants.RESPONSE_TYPE_DEVICE;
 import static org.wso2.carbon.identity.openidconnect.model.Constants.AUTH_TIME;
 import static org.wso2.carbon.identity.openidconnect.model.Constants.DISPLAY;
 import static org.wso2.carbon.identity.openidconnect.model.Constants.ID_TOKEN_HINT;
@@ -808,6 +810,10 @@ public class OAuth2AuthzEndpoint {
         OpenIDConnectUserRPStore.getInstance().putUserRPToStore(getLoggedInUser(oAuthMessage),
                 getOauth2Params(oAuthMessage).getApplicationName(), false, oauth2Params.getClientId());
 
+        if (StringUtils.contains(oauth2Params.getResponseType(), RESPONSE_TYPE_DEVICE)) {
+            denyDeviceAuthorization(oauth2Params.getNonce());
+        }
+
         OAuthErrorDTO oAuthErrorDTO = EndpointUtil.getOAuth2Service().handleUserConsentDenial(oauth2Params);
         OAuthProblemException consentDenialException = buildConsentDenialException(oAuthErrorDTO);
 
@@ -819,6 +825,21 @@ public class OAuth2AuthzEndpoint {
         return Response.status(HttpServletResponse.SC_FOUND).location(new URI(denyResponse)).build();
     }
 
+    /**
+     * Mark the device authorization as denied, so that the token requests of the device, including the ones parked at
+     * the token endpoint, fail with access_denied instead of polling until the device code expires.
+     *
+     * @param userCode User code of the device, sent as the nonce of the authorization request.
+     */
+    private void denyDeviceAuthorization(String userCode) {
+
+        try {
+            DeviceFlowUtil.denyAuthorization(userCode);
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while denying the device authorization of the user code.", e);
+        }
+    }
+
     private OAuthProblemException buildConsentDenialException(OAuthErrorDTO oAuthErrorDTO) {
 
         String errorDescription = DEFAULT_ERROR_DESCRIPTION;
@@ -18,9 +18,10 @@
 package org.wso2.carbon.identity.oauth.endpoint.introspection;
 
 import org.apache.commons.lang.StringUtils;
-import org.apache.oltu.oauth2.common.utils.JSONUtils;
+import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
 import org.json.JSONException;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.endpoint.util.JsonResponseWriter;
 
 import java.util.HashMap;
 import java.util.List;
@@ -46,7 +47,11 @@ public class IntrospectionResponseBuilder {
         for (String claim : filteredClaims) {
             parameters.remove(claim);
         }
-        return JSONUtils.buildJSON(parameters);
+        try {
+            return JsonResponseWriter.writeJson(parameters);
+        } catch (OAuthSystemException e) {
+            throw new JSONException(e);
+        }
     }
 
     /**
@@ -30,6 +30,8 @@ import org.wso2.carbon.identity.discovery.OIDCProcessor;
 import org.wso2.carbon.identity.discovery.builders.OIDProviderResponseBuilder;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.endpoint.util.EndpointUtil;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCacheEntry;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -38,6 +40,7 @@ import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 /**
@@ -49,6 +52,8 @@ public class OIDCDiscoveryEndpoint {
     private static final Log log = LogFactory.getLog(OIDCDiscoveryEndpoint.class);
     private static final String DISCOVERY_ENDPOINT_PATH_COMPONENT_VALUE_TOKEN = "token";
     private static final String DISCOVERY_ENDPOINT_PATH_COMPONENT_VALUE_OIDCDISCOVERY = "oidcdiscovery";
+    private static final String WEAK_ENTITY_TAG_PREFIX = "W/";
+    private static final String ANY_ENTITY_TAG = "*";
     private OIDProviderResponseBuilder oidProviderResponseBuilder;
 
     @GET
@@ -96,21 +101,56 @@ public class OIDCDiscoveryEndpoint {
 
     private Response getResponse(HttpServletRequest request, String tenant) {
 
-        String response;
-        OIDCProcessor processor = EndpointUtil.getOIDCService();
-        try {
-            OIDProviderResponseBuilder responseBuilder = getOidProviderResponseBuilder();
-            response = responseBuilder.getOIDProviderConfigString(processor.getResponse(request, tenant));
-        } catch (OIDCDiscoveryEndPointException e) {
-            Response.ResponseBuilder errorResponse = Response.status(processor.handleError(e));
-            return errorResponse.entity(e.getMessage()).build();
-        } catch (ServerConfigurationException e) {
-            log.error("Server Configuration error occurred.", e);
-            Response.ResponseBuilder errorResponse = Response.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-            return errorResponse.entity("Error in reading configuration.").build();
+        OIDCDiscoveryDocumentCache discoveryDocumentCache = OIDCDiscoveryDocumentCache.getInstance();
+        OIDCDiscoveryDocumentCacheEntry discoveryDocument = discoveryDocumentCache.getDiscoveryDocument(tenant);
+        if (discoveryDocument == null) {
+            OIDCProcessor processor = EndpointUtil.getOIDCService();
+            try {
+                OIDProviderResponseBuilder responseBuilder = getOidProviderResponseBuilder();
+                discoveryDocument = new OIDCDiscoveryDocumentCacheEntry(
+                        responseBuilder.getOIDProviderConfigString(processor.getResponse(request, tenant)));
+            } catch (OIDCDiscoveryEndPointException e) {
+                Response.ResponseBuilder errorResponse = Response.status(processor.handleError(e));
+                return errorResponse.entity(e.getMessage()).build();
+            } catch (ServerConfigurationException e) {
+                log.error("Server Configuration error occurred.", e);
+                Response.ResponseBuilder errorResponse = Response.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                return errorResponse.entity("Error in reading configuration.").build();
+            }
+            discoveryDocumentCache.addDiscoveryDocument(tenant, discoveryDocument);
+        }
+        if (isNotModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), discoveryDocument.getEntityTag())) {
+            return Response.status(HttpServletResponse.SC_NOT_MODIFIED)
+                    .header(HttpHeaders.ETAG, discoveryDocument.getEntityTag()).build();
         }
         Response.ResponseBuilder responseBuilder = Response.status(HttpServletResponse.SC_OK);
-        return responseBuilder.entity(response).build();
+        return responseBuilder.entity(discoveryDocument.getDiscoveryDocument())
+                .header(HttpHeaders.ETAG, discoveryDocument.getEntityTag()).build();
+    }
+
+    /**
+     * Check whether the client already has the current discovery document.
+     *
+     * @param ifNoneMatch Value of the If-None-Match header of the request.
+     * @param entityTag   Entity tag of the current discovery document.
+     * @return true if the If-None-Match header matches the entity tag.
+     */
+    private boolean isNotModified(String ifNoneMatch, String entityTag) {
+
+        if (StringUtils.isBlank(ifNoneMatch)) {
+            return false;
+        }
+        for (String requestedEntityTag : ifNoneMatch.split(",")) {
+            requestedEntityTag = requestedEntityTag.trim();
+            // Weak comparison is used for If-None-Match.
+            if (requestedEntityTag.startsWith(WEAK_ENTITY_TAG_PREFIX)) {
+                requestedEntityTag = requestedEntityTag.substring(WEAK_ENTITY_TAG_PREFIX.length());
+            }
+            if (ANY_ENTITY_TAG.equals(requestedEntityTag) || entityTag.equals(requestedEntityTag)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Autowired
@@ -23,14 +23,15 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.cxf.interceptor.InInterceptors;
-import org.apache.oltu.oauth2.as.response.OAuthASResponse;
+import org.apache.oltu.oauth2.common.OAuth;
 import org.apache.oltu.oauth2.common.error.OAuthError;
 import org.apache.oltu.oauth2.common.exception.OAuthProblemException;
 import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
-import org.apache.oltu.oauth2.common.message.OAuthResponse;
 import org.apache.oltu.oauth2.common.message.types.GrantType;
 import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.central.log.mgt.utils.LoggerUtils;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.ciba.common.CibaConstants;
 import org.wso2.carbon.identity.oauth.client.authn.filter.OAuthClientAuthenticatorProxy;
 import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
@@ -39,16 +40,19 @@ import org.wso2.carbon.identity.oauth.endpoint.exception.InvalidApplicationClien
 import org.wso2.carbon.identity.oauth.endpoint.exception.InvalidRequestParentException;
 import org.wso2.carbon.identity.oauth.endpoint.exception.TokenEndpointBadRequestException;
 import org.wso2.carbon.identity.oauth.endpoint.util.EndpointUtil;
+import org.wso2.carbon.identity.oauth.endpoint.util.JsonResponseWriter;
 import org.wso2.carbon.identity.oauth2.ResponseHeader;
 import org.wso2.carbon.identity.oauth2.bean.OAuthClientAuthnContext;
+import org.wso2.carbon.identity.oauth2.device.constants.Constants;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenReqDTO;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
 import org.wso2.carbon.identity.oauth2.model.CarbonOAuthTokenRequest;
-import org.wso2.carbon.identity.oauth2.token.handlers.response.OAuth2TokenResponse;
+import org.wso2.carbon.identity.oauth2.token.ParkedTokenRequestRegistry;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
@@ -57,6 +61,8 @@ import javax.ws.rs.Consumes;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.Suspended;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
@@ -79,42 +85,45 @@ public class OAuth2TokenEndpoint {
     private static final Log log = LogFactory.getLog(OAuth2TokenEndpoint.class);
     public static final String BEARER = "Bearer";
     private static final String SQL_ERROR = "sql_error";
+    private static final String AUTHORIZATION_PENDING = "authorization_pending";
+    private static final String TOKEN_RESPONSE_ERROR_CODE = "TokenResponseErrorCode";
 
     @POST
     @Path("/")
     @Consumes("application/json")
     @Produces("application/json")
-    public Response issueAccessToken(@Context HttpServletRequest request, String payload) throws
-            OAuthSystemException, InvalidRequestParentException {
+    public void issueAccessToken(@Context HttpServletRequest request, String payload,
+                                 @Suspended AsyncResponse asyncResponse) {
 
-        Map<String, List<String>> paramMap;
         try {
-            startSuperTenantFlow();
-            paramMap = parseJsonTokenRequest(payload);
-            if (LoggerUtils.isDiagnosticLogsEnabled()) {
-                Map<String, Object> params = new HashMap<>();
-                if (MapUtils.isNotEmpty(paramMap)) {
-                    paramMap.forEach(params::put);
-                }
-                LoggerUtils.triggerDiagnosticLogEvent(OAuthConstants.LogConstants.OAUTH_INBOUND_SERVICE, null,
-                        OAuthConstants.LogConstants.SUCCESS, "Successfully received token request.",
-                        "receive-token-request", null);
-            }
-        } catch (TokenEndpointBadRequestException e) {
-            triggerOnTokenExceptionListeners(e, request, null);
-            throw e;
-        } finally {
-            PrivilegedCarbonContext.endTenantFlow();
+            Map<String, List<String>> paramMap = parseJsonPayload(request, payload);
+            processTokenRequest(request, paramMap, asyncResponse, () -> issueAccessToken(request, paramMap));
+        } catch (OAuthSystemException | InvalidRequestParentException e) {
+            asyncResponse.resume(e);
         }
-        return issueAccessToken(request, paramMap);
+    }
+
+    public Response issueAccessToken(HttpServletRequest request, String payload) throws
+            OAuthSystemException, InvalidRequestParentException {
+
+        return issueAccessToken(request, parseJsonPayload(request, payload));
     }
 
     @POST
     @Path("/")
     @Consumes("application/x-www-form-urlencoded")
     @Produces("application/json")
-    public Response issueAccessToken(@Context HttpServletRequest request,
-                                     MultivaluedMap<String, String> paramMap)
+    public void issueAccessToken(@Context HttpServletRequest request, MultivaluedMap<String, String> paramMap,
+                                 @Suspended AsyncResponse asyncResponse) {
+
+        try {
+            processTokenRequest(request, paramMap, asyncResponse, () -> issueAccessToken(request, paramMap));
+        } catch (OAuthSystemException e) {
+            asyncResponse.resume(e);
+        }
+    }
+
+    public Response issueAccessToken(HttpServletRequest request, MultivaluedMap<String, String> paramMap)
             throws OAuthSystemException, InvalidRequestParentException {
 
         if (LoggerUtils.isDiagnosticLogsEnabled()) {
@@ -140,6 +149,7 @@ public class OAuth2TokenEndpoint {
             CarbonOAuthTokenRequest oauthRequest = buildCarbonOAuthTokenRequest(httpRequest);
             validateOAuthApplication(oauthRequest.getoAuthClientAuthnContext());
             OAuth2AccessTokenRespDTO oauth2AccessTokenResp = issueAccessToken(oauthRequest, httpRequest);
+            request.setAttribute(TOKEN_RESPONSE_ERROR_CODE, oauth2AccessTokenResp.getErrorCode());
 
             if (oauth2AccessTokenResp.getErrorMsg() != null) {
                 return handleErrorResponse(oauth2AccessTokenResp);
@@ -155,6 +165,147 @@ public class OAuth2TokenEndpoint {
         }
     }
 
+    /**
+     * Process the token request in the bulkhead of its grant type, or on the container thread if the grant type does
+     * not have a bulkhead. The token request is rejected with temporarily_unavailable if the bulkhead is full.
+     *
+     * @param request       Http servlet request.
+     * @param paramMap      Token request parameters.
+     * @param asyncResponse Async response of the token request.
+     * @param tokenRequest  Processing of the token request.
+     */
+    private void processTokenRequest(HttpServletRequest request, Map<String, List<String>> paramMap,
+                                     AsyncResponse asyncResponse, TokenRequest tokenRequest)
+            throws OAuthSystemException {
+
+        String grantType = getFirstParameter(paramMap, OAuth.OAUTH_GRANT_TYPE);
+        boolean accepted = TokenEndpointBulkheads.getInstance().execute(grantType, () -> {
+            try {
+                resumeOrPark(request, paramMap, tokenRequest.issue(), asyncResponse);
+            } catch (OAuthSystemException | InvalidRequestParentException e) {
+                asyncResponse.resume(e);
+            } catch (Throwable e) {
+                // The request may be processed on a bulkhead thread, where nothing else would resume the response.
+                log.error("Error while processing the token request of grant type: " + grantType, e);
+                asyncResponse.resume(e);
+            }
+        });
+        if (!accepted) {
+            asyncResponse.resume(handleTemporarilyUnavailable());
+        }
+    }
+
+    private Map<String, List<String>> parseJsonPayload(HttpServletRequest request, String payload)
+            throws TokenEndpointBadRequestException {
+
+        Map<String, List<String>> paramMap;
+        try {
+            startSuperTenantFlow();
+            paramMap = parseJsonTokenRequest(payload);
+            if (LoggerUtils.isDiagnosticLogsEnabled()) {
+                Map<String, Object> params = new HashMap<>();
+                if (MapUtils.isNotEmpty(paramMap)) {
+                    paramMap.forEach(params::put);
+                }
+                LoggerUtils.triggerDiagnosticLogEvent(OAuthConstants.LogConstants.OAUTH_INBOUND_SERVICE, null,
+                        OAuthConstants.LogConstants.SUCCESS, "Successfully received token request.",
+                        "receive-token-request", null);
+            }
+        } catch (TokenEndpointBadRequestException e) {
+            triggerOnTokenExceptionListeners(e, request, null);
+            throw e;
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        return paramMap;
+    }
+
+    /**
+     * Resume the token request with the given response, unless the request is for a decoupled grant (device flow,
+     * CIBA) whose authorization is still pending and long polling is enabled. In that case the request is parked
+     * without holding a container thread, until the grant completes or the long polling timeout elapses.
+     *
+     * @param request       Http servlet request.
+     * @param paramMap      Token request parameters.
+     * @param response      Response of the token request.
+     * @param asyncResponse Async response of the token request.
+     */
+    private void resumeOrPark(HttpServletRequest request, Map<String, List<String>> paramMap, Response response,
+                              AsyncResponse asyncResponse) {
+
+        ParkedTokenRequestRegistry parkedTokenRequestRegistry = ParkedTokenRequestRegistry.getInstance();
+        if (parkedTokenRequestRegistry.isEnabled() && AUTHORIZATION_PENDING.equals(
+                request.getAttribute(TOKEN_RESPONSE_ERROR_CODE))) {
+            String grantType = getFirstParameter(paramMap, OAuth.OAUTH_GRANT_TYPE);
+            String grantKey = null;
+            if (Constants.DEVICE_FLOW_GRANT_TYPE.equals(grantType)) {
+                grantKey = getFirstParameter(paramMap, Constants.DEVICE_CODE);
+            } else if (CibaConstants.OAUTH_CIBA_GRANT_TYPE.equals(grantType)) {
+                grantKey = getFirstParameter(paramMap, CibaConstants.AUTH_REQ_ID);
+            }
+            if (grantKey != null && park(request, paramMap, grantType, grantKey, asyncResponse)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Authorization is pending. Parked the token request of grant type: " + grantType);
+                }
+                return;
+            }
+        }
+        asyncResponse.resume(response);
+    }
+
+    private boolean park(HttpServletRequest request, Map<String, List<String>> paramMap, String grantType,
+                         String grantKey, AsyncResponse asyncResponse) {
+
+        ParkedTokenRequestRegistry parkedTokenRequestRegistry = ParkedTokenRequestRegistry.getInstance();
+        // Parked requests are re-processed on the wake up or timeout threads. Properties set on the current thread by
+        // the valves, e.g. the tenant of the request, are carried over to them.
+        Map<String, Object> threadLocalProperties = new HashMap<>(IdentityUtil.threadLocalProperties.get());
+        Runnable onWakeup = () -> reissueAccessToken(request, paramMap, threadLocalProperties, asyncResponse);
+        if (!parkedTokenRequestRegistry.park(grantType, grantKey, onWakeup)) {
+            return false;
+        }
+        asyncResponse.setTimeoutHandler(timedOutResponse -> {
+            if (parkedTokenRequestRegistry.unpark(grantType, grantKey, onWakeup)) {
+                // The grant may have completed on another node, hence re-process before responding.
+                reissueAccessToken(request, paramMap, threadLocalProperties, timedOutResponse);
+            } else {
+                // Already woken up. Give the wake up some more time to resume the response.
+                timedOutResponse.setTimeout(parkedTokenRequestRegistry.getTimeoutInMillis(), TimeUnit.MILLISECONDS);
+            }
+        });
+        asyncResponse.setTimeout(parkedTokenRequestRegistry.getTimeoutInMillis(), TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    private void reissueAccessToken(HttpServletRequest request, Map<String, List<String>> paramMap,
+                                    Map<String, Object> threadLocalProperties, AsyncResponse asyncResponse) {
+
+        request.setAttribute(ParkedTokenRequestRegistry.RESUMED_REQUEST_ATTRIBUTE, Boolean.TRUE);
+        // The wake up may run on the thread that completed the grant when the wake up pool is saturated, hence the
+        // properties of the thread are restored rather than removed.
+        Map<String, Object> currentThreadLocalProperties = IdentityUtil.threadLocalProperties.get();
+        IdentityUtil.threadLocalProperties.set(new HashMap<>(threadLocalProperties));
+        try {
+            asyncResponse.resume(issueAccessToken(request, paramMap));
+        } catch (OAuthSystemException | InvalidRequestParentException e) {
+            asyncResponse.resume(e);
+        } catch (Throwable e) {
+            log.error("Error while re-processing the parked token request.", e);
+            asyncResponse.resume(e);
+        } finally {
+            IdentityUtil.threadLocalProperties.set(currentThreadLocalProperties);
+        }
+    }
+
+    private String getFirstParameter(Map<String, List<String>> paramMap, String name) {
+
+        List<String> values = paramMap.get(name);
+        if (values == null || values.isEmpty() || StringUtils.isBlank(values.get(0))) {
+            return null;
+        }
+        return values.get(0);
+    }
+
     private CarbonOAuthTokenRequest buildCarbonOAuthTokenRequest(HttpServletRequestWrapper httpRequest)
             throws OAuthSystemException, TokenEndpointBadRequestException {
 
@@ -211,33 +362,9 @@ public class OAuth2TokenEndpoint {
             oauth2AccessTokenResp.setTokenType(BEARER);
         }
 
-        OAuth2TokenResponse.OAuthTokenResponseBuilder oAuthRespBuilder = OAuth2TokenResponse
-                .tokenResponse(HttpServletResponse.SC_OK)
-                .setAccessToken(oauth2AccessTokenResp.getAccessToken())
-                .setRefreshToken(oauth2AccessTokenResp.getRefreshToken())
-                .setExpiresIn(Long.toString(oauth2AccessTokenResp.getExpiresIn()))
-                .setTokenType(oauth2AccessTokenResp.getTokenType());
-
-        oAuthRespBuilder.setScope(oauth2AccessTokenResp.getAuthorizedScopes());
-
-        if (oauth2AccessTokenResp.getIDToken() != null) {
-            oAuthRespBuilder.setParam(OAuthConstants.ID_TOKEN, oauth2AccessTokenResp.getIDToken());
-        }
-
-        // Set custom parameters in token response if supported
-        if (MapUtils.isNotEmpty(oauth2AccessTokenResp.getParameters())) {
-            oauth2AccessTokenResp.getParameters().forEach(oAuthRespBuilder::setParam);
-        }
-
-        // Set custom parameters in token response if supported.
-        if (MapUtils.isNotEmpty(oauth2AccessTokenResp.getParameterObjects())) {
-            oauth2AccessTokenResp.getParameterObjects().forEach(oAuthRespBuilder::setParam);
-        }
-
-        OAuthResponse response = oAuthRespBuilder.buildJSONMessage();
         ResponseHeader[] headers = oauth2AccessTokenResp.getResponseHeaders();
         ResponseBuilder respBuilder = Response
-                .status(response.getResponseStatus())
+                .status(HttpServletResponse.SC_OK)
                 .header(OAuthConstants.HTTP_RESP_HEADER_CACHE_CONTROL,
                         OAuthConstants.HTTP_RESP_HEADER_VAL_CACHE_CONTROL_NO_STORE)
                 .header(OAuthConstants.HTTP_RESP_HEADER_PRAGMA,
@@ -251,7 +378,7 @@ public class OAuth2TokenEndpoint {
             }
         }
 
-        return respBuilder.entity(response.getBody()).build();
+        return respBuilder.entity(JsonResponseWriter.writeTokenResponse(oauth2AccessTokenResp)).build();
     }
 
     private Response handleErrorResponse(OAuth2AccessTokenRespDTO oauth2AccessTokenResp) throws OAuthSystemException {
@@ -265,14 +392,8 @@ public class OAuth2TokenEndpoint {
             return handleServerError();
         } else {
             // Otherwise send back HTTP 400 Status Code
-            OAuthResponse response = OAuthASResponse
-                    .errorResponse(HttpServletResponse.SC_BAD_REQUEST)
-                    .setError(oauth2AccessTokenResp.getErrorCode())
-                    .setErrorDescription(oauth2AccessTokenResp.getErrorMsg())
-                    .buildJSONMessage();
-
             ResponseHeader[] headers = oauth2AccessTokenResp.getResponseHeaders();
-            ResponseBuilder respBuilder = Response.status(response.getResponseStatus());
+            ResponseBuilder respBuilder = Response.status(HttpServletResponse.SC_BAD_REQUEST);
 
             if (headers != null) {
                 for (ResponseHeader header : headers) {
@@ -281,7 +402,8 @@ public class OAuth2TokenEndpoint {
                     }
                 }
             }
-            return respBuilder.entity(response.getBody()).build();
+            return respBuilder.entity(JsonResponseWriter.writeErrorResponse(oauth2AccessTokenResp.getErrorCode(),
+                    oauth2AccessTokenResp.getErrorMsg())).build();
         }
     }
 
@@ -291,33 +413,33 @@ public class OAuth2TokenEndpoint {
             errorMessage = "Client Authentication failed.";
         }
 
-        OAuthResponse response = OAuthASResponse.errorResponse(HttpServletResponse.SC_UNAUTHORIZED)
-                .setError(OAuth2ErrorCodes.INVALID_CLIENT)
-                .setErrorDescription(errorMessage).buildJSONMessage();
-        return Response.status(response.getResponseStatus())
+        return Response.status(HttpServletResponse.SC_UNAUTHORIZED)
                 .header(OAuthConstants.HTTP_RESP_HEADER_AUTHENTICATE, EndpointUtil.getRealmInfo())
-                .entity(response.getBody()).build();
+                .entity(JsonResponseWriter.writeErrorResponse(OAuth2ErrorCodes.INVALID_CLIENT, errorMessage)).build();
     }
 
     private Response handleServerError() throws OAuthSystemException {
 
-        OAuthResponse response = OAuthASResponse.errorResponse(HttpServletResponse.SC_INTERNAL_SERVER_ERROR).
-                setError(OAuth2ErrorCodes.SERVER_ERROR).setErrorDescription("Internal Server Error.")
-                .buildJSONMessage();
+        return Response.status(HttpServletResponse.SC_INTERNAL_SERVER_ERROR)
+                .header(OAuthConstants.HTTP_RESP_HEADER_AUTHENTICATE, EndpointUtil.getRealmInfo())
+                .entity(JsonResponseWriter.writeErrorResponse(OAuth2ErrorCodes.SERVER_ERROR,
+                        "Internal Server Error.")).build();
+
+    }
 
-        return Response.status(response.getResponseStatus()).header(OAuthConstants.HTTP_RESP_HEADER_AUTHENTICATE,
-                EndpointUtil.getRealmInfo()).entity(response.getBody()).build();
+    private Response handleTemporarilyUnavailable() throws OAuthSystemException {
 
+        return Response.status(HttpServletResponse.SC_SERVICE_UNAVAILABLE)
+                .entity(JsonResponseWriter.writeErrorResponse(OAuth2ErrorCodes.TEMPORARY_UNAVAILABLE,
+                        "The server is temporarily unable to handle the request.")).build();
     }
 
     private Response handleSQLError() throws OAuthSystemException {
 
-        OAuthResponse response = OAuthASResponse.errorResponse(HttpServletResponse.SC_BAD_GATEWAY).
-                setError(OAuth2ErrorCodes.SERVER_ERROR).setErrorDescription("Service Unavailable Error.")
-                .buildJSONMessage();
-
-        return Response.status(response.getResponseStatus()).header(OAuthConstants.HTTP_RESP_HEADER_AUTHENTICATE,
-                EndpointUtil.getRealmInfo()).entity(response.getBody()).build();
+        return Response.status(HttpServletResponse.SC_BAD_GATEWAY)
+                .header(OAuthConstants.HTTP_RESP_HEADER_AUTHENTICATE, EndpointUtil.getRealmInfo())
+                .entity(JsonResponseWriter.writeErrorResponse(OAuth2ErrorCodes.SERVER_ERROR,
+                        "Service Unavailable Error.")).build();
     }
 
     private OAuth2AccessTokenRespDTO issueAccessToken(CarbonOAuthTokenRequest oauthRequest,
@@ -365,4 +487,12 @@ public class OAuth2TokenEndpoint {
         tokenReqDTO.addAuthenticationMethodReference(grantType);
         return tokenReqDTO;
     }
+
+    /**
+     * Processing of a token request, which may run on a bulkhead thread.
+     */
+    private interface TokenRequest {
+
+        Response issue() throws OAuthSystemException, InvalidRequestParentException;
+    }
 }
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.endpoint.token;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Bounded pools of threads dedicated to the token requests of individual grant types. Token requests of a grant type
+ * with a bulkhead are processed on its pool instead of the container thread, so that a slow grant (e.g. a password
+ * grant waiting on an LDAP bind) can only exhaust its own threads. When both the threads and the queue of a bulkhead
+ * are busy, the token request is rejected right away rather than queued behind the slow requests.
+ * <p>
+ * Bulkheads are configured per grant type under the SupportedGrantType element of identity.xml. Grant types without a
+ * bulkhead are processed on the container thread as before.
+ */
+public class TokenEndpointBulkheads implements TokenEndpointBulkheadsMXBean {
+
+    private static final Log log = LogFactory.getLog(TokenEndpointBulkheads.class);
+    private static final String OBJECT_NAME = "org.wso2.carbon.identity.oauth2:type=TokenEndpointBulkheads";
+    private static final String THREAD_NAME_PREFIX = "TokenEndpointBulkhead-";
+
+    private static volatile TokenEndpointBulkheads instance;
+
+    static {
+        OAuthServerConfiguration.addListener((previousConfiguration, configuration) -> reload(configuration));
+    }
+
+    private final Map<String, Integer> poolSizes;
+    private final Map<String, Integer> queueSizes;
+    private final Map<String, ThreadPoolExecutor> bulkheads;
+    private final ConcurrentMap<String, LongAdder> rejectedRequests = new ConcurrentHashMap<>();
+
+    TokenEndpointBulkheads(Map<String, Integer> poolSizes, Map<String, Integer> queueSizes) {
+
+        this.poolSizes = new HashMap<>(poolSizes);
+        this.queueSizes = new HashMap<>(queueSizes);
+        Map<String, ThreadPoolExecutor> executors = new HashMap<>();
+        for (Map.Entry<String, Integer> poolSize : poolSizes.entrySet()) {
+            String grantType = poolSize.getKey();
+            executors.put(grantType, createExecutor(grantType, poolSize.getValue(), queueSizes.get(grantType)));
+        }
+        this.bulkheads = Collections.unmodifiableMap(executors);
+    }
+
+    public static TokenEndpointBulkheads getInstance() {
+
+        if (instance == null) {
+            synchronized (TokenEndpointBulkheads.class) {
+                if (instance == null) {
+                    instance = create(OAuthServerConfiguration.getInstance());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Replace the bulkheads when the pool or queue sizes of the reloaded configuration differ. The previous bulkheads
+     * complete the token requests already handed to them.
+     *
+     * @param configuration Reloaded OAuth server configuration.
+     */
+    private static void reload(OAuthServerConfiguration configuration) {
+
+        synchronized (TokenEndpointBulkheads.class) {
+            TokenEndpointBulkheads previous = instance;
+            if (previous == null) {
+                // Not used yet. Created from the configuration in effect on first use.
+                return;
+            }
+            if (previous.poolSizes.equals(configuration.getTokenEndpointBulkheadPoolSizes()) &&
+                    previous.queueSizes.equals(configuration.getTokenEndpointBulkheadQueueSizes())) {
+                return;
+            }
+            previous.shutdown();
+            instance = create(configuration);
+        }
+    }
+
+    /**
+     * Shut down the bulkheads and unregister their MBean. Invoked when the token endpoint is undeployed, so that the
+     * bulkhead threads and the MBean do not outlive the web application.
+     */
+    public static void shutdownInstance() {
+
+        synchronized (TokenEndpointBulkheads.class) {
+            if (instance != null) {
+                instance.shutdown();
+                instance = null;
+            }
+        }
+    }
+
+    private static TokenEndpointBulkheads create(OAuthServerConfiguration configuration) {
+
+        TokenEndpointBulkheads tokenEndpointBulkheads = new TokenEndpointBulkheads(
+                configuration.getTokenEndpointBulkheadPoolSizes(),
+                configuration.getTokenEndpointBulkheadQueueSizes());
+        if (!tokenEndpointBulkheads.bulkheads.isEmpty()) {
+            log.info("Token endpoint bulkheads are enabled for grant types: " +
+                    tokenEndpointBulkheads.bulkheads.keySet());
+            tokenEndpointBulkheads.register();
+        }
+        return tokenEndpointBulkheads;
+    }
+
+    /**
+     * Process a token request in the bulkhead of its grant type. The request is processed on the calling thread if
+     * the grant type does not have a bulkhead.
+     *
+     * @param grantType    Grant type of the token request.
+     * @param tokenRequest Task processing the token request and resuming its response.
+     * @return false if the bulkhead of the grant type is full and the token request was not accepted.
+     */
+    public boolean execute(String grantType, Runnable tokenRequest) {
+
+        ThreadPoolExecutor bulkhead = grantType == null ? null : bulkheads.get(grantType);
+        if (bulkhead == null) {
+            tokenRequest.run();
+            return true;
+        }
+        // Properties set on the container thread by the valves, e.g. the tenant of the request, are carried over to
+        // the bulkhead thread.
+        Map<String, Object> threadLocalProperties = new HashMap<>(IdentityUtil.threadLocalProperties.get());
+        try {
+            bulkhead.execute(() -> {
+                IdentityUtil.threadLocalProperties.set(threadLocalProperties);
+                try {
+                    tokenRequest.run();
+                } finally {
+                    IdentityUtil.threadLocalProperties.remove();
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            if (bulkhead.isShutdown()) {
+                // The bulkheads were replaced by a configuration reload after this request looked them up.
+                return getInstance().execute(grantType, tokenRequest);
+            }
+            rejectedRequests.computeIfAbsent(grantType, key -> new LongAdder()).increment();
+            if (log.isDebugEnabled()) {
+                log.debug("Bulkhead of grant type: " + grantType + " is full. Rejecting the token request.");
+            }
+            return false;
+        }
+    }
+
+    @Override
+    public Map<String, Integer> getQueueDepth() {
+
+        return toMap(bulkheads, bulkhead -> bulkhead.getQueue().size());
+    }
+
+    @Override
+    public Map<String, Integer> getActiveCount() {
+
+        return toMap(bulkheads, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @Override
+    public Map<String, Long> getCompletedCount() {
+
+        return toMap(bulkheads, ThreadPoolExecutor::getCompletedTaskCount);
+    }
+
+    @Override
+    public Map<String, Long> getRejectedCount() {
+
+        return toMap(rejectedRequests, LongAdder::sum);
+    }
+
+    private void register() {
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(this, objectName);
+        } catch (JMException e) {
+            log.error("Error while registering the token endpoint bulkheads MBean: " + OBJECT_NAME, e);
+        }
+    }
+
+    void shutdown() {
+
+        bulkheads.values().forEach(ThreadPoolExecutor::shutdown);
+        if (bulkheads.isEmpty()) {
+            return;
+        }
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            log.error("Error while unregistering the token endpoint bulkheads MBean: " + OBJECT_NAME, e);
+        }
+    }
+
+    private static ThreadPoolExecutor createExecutor(String grantType, int poolSize, int queueSize) {
+
+        AtomicInteger threadCount = new AtomicInteger();
+        // The default abort policy rejects token requests when the queue is full, which is what makes the
+        // bulkhead fail fast.
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + grantType + "-" +
+                    threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static <T, V> Map<String, V> toMap(Map<String, T> source, Function<T, V> valueFunction) {
+
+        Map<String, V> values = new TreeMap<>();
+        source.forEach((key, value) -> values.put(key, valueFunction.apply(value)));
+        return values;
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.endpoint.token;
+
+import java.util.Map;
+
+/**
+ * JMX view of the token endpoint bulkheads. All the values are keyed by the grant type of the bulkhead.
+ */
+public interface TokenEndpointBulkheadsMXBean {
+
+    /**
+     * Get the number of token requests waiting for a bulkhead thread.
+     *
+     * @return Map of grant type to queue depth.
+     */
+    Map<String, Integer> getQueueDepth();
+
+    /**
+     * Get the number of token requests being processed by the bulkhead threads.
+     *
+     * @return Map of grant type to active thread count.
+     */
+    Map<String, Integer> getActiveCount();
+
+    /**
+     * Get the number of token requests processed by the bulkhead threads.
+     *
+     * @return Map of grant type to completed request count.
+     */
+    Map<String, Long> getCompletedCount();
+
+    /**
+     * Get the number of token requests rejected because the bulkhead was full.
+     *
+     * @return Map of grant type to rejected request count.
+     */
+    Map<String, Long> getRejectedCount();
+}
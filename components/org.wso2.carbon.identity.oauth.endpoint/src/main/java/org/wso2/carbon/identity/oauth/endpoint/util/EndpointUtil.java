@@ -17,7 +17,6 @@
  */
 package org.wso2.carbon.identity.oauth.endpoint.util;
 
-import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -126,6 +125,8 @@ import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OauthAppState
 public class EndpointUtil {
 
     private static final Log log = LogFactory.getLog(EndpointUtil.class);
+    // Shared by all the token requests. The mapper and its parser factory are thread safe once configured.
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
     private static final String OAUTH2 = "oauth2";
     private static final String OPENID = "openid";
     private static final String OIDC = "oidc";
@@ -1203,10 +1204,8 @@ public class EndpointUtil {
     public static Map<String, List<String>> parseJsonTokenRequest(String jsonPayload) throws
             TokenEndpointBadRequestException {
 
-        JsonFactory factory = new JsonFactory();
         Map<String, List<String>> requestParams = new HashMap<>();
-        try {
-            JsonParser parser  = factory.createParser(jsonPayload);
+        try (JsonParser parser = JSON_MAPPER.getFactory().createParser(jsonPayload)) {
             // Skip the first START_OBJECT token. i.e the beginning of the payload: '{'.
             parser.nextToken();
             while (!parser.isClosed()) {
@@ -1223,7 +1222,7 @@ public class EndpointUtil {
                     // If the current token is a complex value (array or object), flatten the value and add it to map
                     // with the corresponding json key.
                     String key = parser.currentName();
-                    String value = (new ObjectMapper()).readTree(parser).toString();
+                    String value = JSON_MAPPER.readTree(parser).toString();
                     requestParams.computeIfAbsent(key, val -> new ArrayList<>()).add(value);
                 }
             }
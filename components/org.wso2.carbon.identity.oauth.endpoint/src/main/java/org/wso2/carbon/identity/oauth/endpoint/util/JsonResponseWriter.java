@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.endpoint.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.apache.oltu.oauth2.common.OAuth;
+import org.apache.oltu.oauth2.common.error.OAuthError;
+import org.apache.oltu.oauth2.common.exception.OAuthSystemException;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Map;
+
+/**
+ * Writes the JSON bodies of the token, introspection and error responses straight to a streaming generator, instead
+ * of collecting the fields in a map and converting it to a JSON string. The field values are written the same way
+ * as the OAuth response builders do: fields with a null or empty value are omitted, and values other than strings,
+ * booleans and integral numbers are serialized as {@link JSONObject} would.
+ */
+public final class JsonResponseWriter {
+
+    // Jackson factories are thread safe once configured, hence shared by all the requests.
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int INITIAL_BUFFER_SIZE = 512;
+
+    private JsonResponseWriter() {
+
+    }
+
+    /**
+     * Write the body of a successful token response.
+     *
+     * @param tokenResp Token response. The token type must be set.
+     * @return Token response JSON.
+     * @throws OAuthSystemException If the response cannot be written.
+     */
+    public static String writeTokenResponse(OAuth2AccessTokenRespDTO tokenResp) throws OAuthSystemException {
+
+        Map<String, String> parameters = tokenResp.getParameters();
+        Map<String, Object> parameterObjects = tokenResp.getParameterObjects();
+        StringWriter writer = new StringWriter(INITIAL_BUFFER_SIZE);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.writeStartObject();
+            // Custom parameters take precedence over the standard fields with the same name, and parameter objects
+            // over the string parameters, as they did when the fields were collected in a map.
+            writeStandardField(generator, OAuth.OAUTH_ACCESS_TOKEN, tokenResp.getAccessToken(), parameters,
+                    parameterObjects);
+            writeStandardField(generator, OAuth.OAUTH_REFRESH_TOKEN, tokenResp.getRefreshToken(), parameters,
+                    parameterObjects);
+            writeStandardField(generator, OAuth.OAUTH_EXPIRES_IN, tokenResp.getExpiresIn(), parameters,
+                    parameterObjects);
+            writeStandardField(generator, OAuth.OAUTH_TOKEN_TYPE, tokenResp.getTokenType(), parameters,
+                    parameterObjects);
+            writeStandardField(generator, OAuth.OAUTH_SCOPE, tokenResp.getAuthorizedScopes(), parameters,
+                    parameterObjects);
+            writeStandardField(generator, OAuthConstants.ID_TOKEN, tokenResp.getIDToken(), parameters,
+                    parameterObjects);
+            for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+                if (!parameterObjects.containsKey(parameter.getKey())) {
+                    writeField(generator, parameter.getKey(), parameter.getValue());
+                }
+            }
+            for (Map.Entry<String, Object> parameterObject : parameterObjects.entrySet()) {
+                writeField(generator, parameterObject.getKey(), parameterObject.getValue());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new OAuthSystemException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Write the body of an error response.
+     *
+     * @param error            Error code.
+     * @param errorDescription Error description. Omitted if null or empty.
+     * @return Error response JSON.
+     * @throws OAuthSystemException If the response cannot be written.
+     */
+    public static String writeErrorResponse(String error, String errorDescription) throws OAuthSystemException {
+
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.writeStartObject();
+            writeField(generator, OAuthError.OAUTH_ERROR, error);
+            writeField(generator, OAuthError.OAUTH_ERROR_DESCRIPTION, errorDescription);
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new OAuthSystemException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Write the given fields as a JSON object. Used for the responses whose fields are collected by a builder, such
+     * as the introspection response.
+     *
+     * @param fields Fields of the response.
+     * @return Response JSON.
+     * @throws OAuthSystemException If the response cannot be written.
+     */
+    public static String writeJson(Map<String, Object> fields) throws OAuthSystemException {
+
+        StringWriter writer = new StringWriter(INITIAL_BUFFER_SIZE);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.writeStartObject();
+            for (Map.Entry<String, Object> field : fields.entrySet()) {
+                writeField(generator, field.getKey(), field.getValue());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new OAuthSystemException(e);
+        }
+        return writer.toString();
+    }
+
+    private static void writeStandardField(JsonGenerator generator, String name, Object value,
+                                           Map<String, String> parameters, Map<String, Object> parameterObjects)
+            throws IOException {
+
+        if (!parameters.containsKey(name) && !parameterObjects.containsKey(name)) {
+            writeField(generator, name, value);
+        }
+    }
+
+    private static void writeField(JsonGenerator generator, String name, Object value) throws IOException {
+
+        if (name == null || name.isEmpty() || value == null || "".equals(value)) {
+            return;
+        }
+        if (value instanceof String) {
+            generator.writeStringField(name, (String) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBooleanField(name, (Boolean) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short ||
+                value instanceof Byte) {
+            generator.writeNumberField(name, ((Number) value).longValue());
+        } else {
+            // Nested and other values keep the representation of the previous JSON builder.
+            String json;
+            try {
+                json = JSONObject.valueToString(value);
+            } catch (JSONException e) {
+                throw new IOException("Error while writing the value of field: " + name, e);
+            }
+            generator.writeFieldName(name);
+            generator.writeRawValue(json);
+        }
+    }
+}
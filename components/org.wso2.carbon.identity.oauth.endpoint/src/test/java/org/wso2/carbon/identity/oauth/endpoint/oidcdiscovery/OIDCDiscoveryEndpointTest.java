@@ -40,6 +40,7 @@ import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 
 import static org.mockito.Matchers.any;
@@ -130,6 +131,29 @@ public class OIDCDiscoveryEndpointTest extends PowerMockIdentityBaseTest {
         threadLocalProperties.get().remove(OAuthConstants.TENANT_NAME_FROM_CONTEXT);
     }
 
+    @Test
+    public void testGetOIDProviderConfigurationNotModified() throws Exception {
+
+        mockStatic(EndpointUtil.class);
+        when(EndpointUtil.getOIDCService()).thenReturn(defaultOIDCProcessor);
+        when(defaultOIDCProcessor.getResponse(any(HttpServletRequest.class), any(String.class)))
+                .thenReturn(oidProviderConfigResponse);
+        when(oidProviderConfigResponse.getConfigMap()).thenReturn(getSampleConfigMap());
+        oidcDiscoveryEndpoint.setOidProviderResponseBuilder(new OIDProviderJSONResponseBuilder());
+
+        when(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn(null);
+        Response response = oidcDiscoveryEndpoint.getOIDProviderConfiguration("token", httpServletRequest);
+        Assert.assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+        Object entityTag = response.getMetadata().getFirst(HttpHeaders.ETAG);
+        Assert.assertNotNull(entityTag);
+
+        when(httpServletRequest.getHeader(HttpHeaders.IF_NONE_MATCH)).thenReturn("\"outdated\", W/" + entityTag);
+        response = oidcDiscoveryEndpoint.getOIDProviderConfiguration("token", httpServletRequest);
+        Assert.assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+        Assert.assertEquals(entityTag, response.getMetadata().getFirst(HttpHeaders.ETAG));
+        Assert.assertNull(response.getEntity());
+    }
+
     private Map<String, Object> getSampleConfigMap() {
 
         Map<String, Object> configMap = new HashMap<>();
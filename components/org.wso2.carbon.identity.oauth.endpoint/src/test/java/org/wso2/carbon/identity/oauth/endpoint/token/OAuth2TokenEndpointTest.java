@@ -26,11 +26,13 @@ import org.apache.oltu.oauth2.as.validator.RefreshTokenValidator;
 import org.apache.oltu.oauth2.common.OAuth;
 import org.apache.oltu.oauth2.common.message.types.GrantType;
 import org.apache.oltu.oauth2.common.validators.OAuthValidator;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mock;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.reflect.internal.WhiteboxImpl;
 import org.testng.annotations.AfterTest;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
@@ -40,6 +42,7 @@ import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.identity.central.log.mgt.utils.LoggerUtils;
 import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.common.NTLMAuthenticationValidator;
 import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
@@ -52,9 +55,11 @@ import org.wso2.carbon.identity.oauth.endpoint.util.TestOAuthEndpointBase;
 import org.wso2.carbon.identity.oauth.tokenprocessor.TokenPersistenceProcessor;
 import org.wso2.carbon.identity.oauth2.OAuth2Service;
 import org.wso2.carbon.identity.oauth2.ResponseHeader;
+import org.wso2.carbon.identity.oauth2.device.grant.DeviceFlowGrantValidator;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenReqDTO;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
 import org.wso2.carbon.identity.oauth2.model.CarbonOAuthTokenRequest;
+import org.wso2.carbon.identity.oauth2.token.ParkedTokenRequestRegistry;
 
 import java.lang.reflect.Method;
 import java.nio.file.Paths;
@@ -64,17 +69,24 @@ import java.util.HashMap;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletRequestWrapper;
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.HttpMethod;
+import javax.ws.rs.container.AsyncResponse;
+import javax.ws.rs.container.TimeoutHandler;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
 import static org.powermock.api.mockito.PowerMockito.doAnswer;
 import static org.powermock.api.mockito.PowerMockito.doReturn;
 import static org.powermock.api.mockito.PowerMockito.mock;
@@ -84,6 +96,8 @@ import static org.powermock.api.mockito.PowerMockito.when;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.oauth2.device.constants.Constants.DEVICE_CODE;
+import static org.wso2.carbon.identity.oauth2.device.constants.Constants.DEVICE_FLOW_GRANT_TYPE;
 
 @PrepareForTest({EndpointUtil.class, IdentityDatabaseUtil.class, OAuthServerConfiguration.class,
         CarbonOAuthTokenRequest.class, LoggerUtils.class, IdentityTenantUtil.class})
@@ -119,6 +133,9 @@ public class OAuth2TokenEndpointTest extends TestOAuthEndpointBase {
     private static final String APP_REDIRECT_URL = "http://localhost:8080/redirect";
     private static final String ACCESS_TOKEN = "1234-542230-45220-54245";
     private static final String REFRESH_TOKEN = "1234-542230-45220-54245";
+    private static final String DEVICE_CODE_VALUE = "6c5b4a3f-2e1d-4c0b-9a8f-7e6d5c4b3a21";
+    private static final String AUTHORIZATION_PENDING = "authorization_pending";
+    private static final String TENANT_DOMAIN = "wso2.com";
     private static final String AUTHORIZATION_HEADER =
             "Basic " + Base64Utils.encode((CLIENT_ID_VALUE + ":" + SECRET).getBytes());
 
@@ -488,6 +505,154 @@ public class OAuth2TokenEndpointTest extends TestOAuthEndpointBase {
         }
     }
 
+    @Test(groups = "testWithConnection")
+    public void testIssueAccessTokenAsync() throws Exception {
+
+        MultivaluedMap<String, String> paramMap = new MultivaluedHashMap<>();
+        paramMap.add(OAuth.OAUTH_GRANT_TYPE, DEVICE_FLOW_GRANT_TYPE);
+        paramMap.add(DEVICE_CODE, DEVICE_CODE_VALUE);
+        HttpServletRequest request = mockDeviceFlowTokenRequest();
+        when(oAuth2Service.issueAccessToken(any(OAuth2AccessTokenReqDTO.class)))
+                .thenReturn(buildAccessTokenResponse());
+
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        oAuth2TokenEndpoint.issueAccessToken(request, paramMap, asyncResponse);
+
+        ArgumentCaptor<Object> response = ArgumentCaptor.forClass(Object.class);
+        verify(asyncResponse).resume(response.capture());
+        assertEquals(((Response) response.getValue()).getStatus(), HttpServletResponse.SC_OK);
+        assertTrue(((Response) response.getValue()).getEntity().toString().contains(ACCESS_TOKEN));
+    }
+
+    @Test(groups = "testWithConnection")
+    public void testParkedTokenRequestResumedOnCompletion() throws Exception {
+
+        ParkedTokenRequestRegistry registry = enableLongPolling();
+        try {
+            AtomicReference<Object> resumedTenant = new AtomicReference<>();
+            AsyncResponse asyncResponse = parkDeviceFlowTokenRequest(resumedTenant);
+
+            registry.notifyCompletion(DEVICE_FLOW_GRANT_TYPE, DEVICE_CODE_VALUE);
+
+            ArgumentCaptor<Object> response = ArgumentCaptor.forClass(Object.class);
+            verify(asyncResponse, timeout(5000)).resume(response.capture());
+            assertEquals(((Response) response.getValue()).getStatus(), HttpServletResponse.SC_OK);
+            assertEquals(resumedTenant.get(), TENANT_DOMAIN, "Thread local properties of the parked request " +
+                    "are not available when it is resumed.");
+        } finally {
+            WhiteboxImpl.setInternalState(ParkedTokenRequestRegistry.class, "instance",
+                    (ParkedTokenRequestRegistry) null);
+        }
+    }
+
+    @Test(groups = "testWithConnection")
+    public void testParkedTokenRequestResumedOnTimeout() throws Exception {
+
+        enableLongPolling();
+        try {
+            AtomicReference<Object> resumedTenant = new AtomicReference<>();
+            AsyncResponse asyncResponse = parkDeviceFlowTokenRequest(resumedTenant);
+            ArgumentCaptor<TimeoutHandler> timeoutHandler = ArgumentCaptor.forClass(TimeoutHandler.class);
+            verify(asyncResponse).setTimeoutHandler(timeoutHandler.capture());
+
+            // Timeouts are handled on a container thread which does not have the properties of the request.
+            Thread timeoutThread = new Thread(() -> timeoutHandler.getValue().handleTimeout(asyncResponse));
+            timeoutThread.start();
+            timeoutThread.join(5000);
+
+            ArgumentCaptor<Object> response = ArgumentCaptor.forClass(Object.class);
+            verify(asyncResponse).resume(response.capture());
+            assertEquals(((Response) response.getValue()).getStatus(), HttpServletResponse.SC_OK);
+            assertEquals(resumedTenant.get(), TENANT_DOMAIN, "Thread local properties of the parked request " +
+                    "are not available when it times out.");
+        } finally {
+            WhiteboxImpl.setInternalState(ParkedTokenRequestRegistry.class, "instance",
+                    (ParkedTokenRequestRegistry) null);
+        }
+    }
+
+    private ParkedTokenRequestRegistry enableLongPolling() throws Exception {
+
+        ParkedTokenRequestRegistry registry = WhiteboxImpl.invokeConstructor(ParkedTokenRequestRegistry.class,
+                new Class[]{boolean.class, long.class, int.class, int.class}, new Object[]{true, 60000L, 10, 1});
+        WhiteboxImpl.setInternalState(ParkedTokenRequestRegistry.class, "instance", registry);
+        return registry;
+    }
+
+    /**
+     * Send a device flow token request whose authorization is pending, so that it is parked. The token request
+     * succeeds when it is re-processed, recording the tenant of the thread local properties it is re-processed with.
+     */
+    private AsyncResponse parkDeviceFlowTokenRequest(AtomicReference<Object> resumedTenant) throws Exception {
+
+        MultivaluedMap<String, String> paramMap = new MultivaluedHashMap<>();
+        paramMap.add(OAuth.OAUTH_GRANT_TYPE, DEVICE_FLOW_GRANT_TYPE);
+        paramMap.add(DEVICE_CODE, DEVICE_CODE_VALUE);
+        HttpServletRequest request = mockDeviceFlowTokenRequest();
+
+        AtomicInteger tokenRequestCount = new AtomicInteger();
+        when(oAuth2Service.issueAccessToken(any(OAuth2AccessTokenReqDTO.class))).thenAnswer(invocation -> {
+            if (tokenRequestCount.getAndIncrement() == 0) {
+                OAuth2AccessTokenRespDTO pendingResponse = new OAuth2AccessTokenRespDTO();
+                pendingResponse.setError(true);
+                pendingResponse.setErrorCode(AUTHORIZATION_PENDING);
+                pendingResponse.setErrorMsg("Precondition required");
+                return pendingResponse;
+            }
+            resumedTenant.set(IdentityUtil.threadLocalProperties.get().get(OAuthConstants.TENANT_NAME_FROM_CONTEXT));
+            return buildAccessTokenResponse();
+        });
+
+        AsyncResponse asyncResponse = mock(AsyncResponse.class);
+        IdentityUtil.threadLocalProperties.get().put(OAuthConstants.TENANT_NAME_FROM_CONTEXT, TENANT_DOMAIN);
+        try {
+            oAuth2TokenEndpoint.issueAccessToken(request, paramMap, asyncResponse);
+        } finally {
+            IdentityUtil.threadLocalProperties.remove();
+        }
+        verify(asyncResponse, never()).resume(any(Object.class));
+        return asyncResponse;
+    }
+
+    private HttpServletRequest mockDeviceFlowTokenRequest() throws Exception {
+
+        Map<String, String[]> requestParams = new HashMap<>();
+        requestParams.put(OAuth.OAUTH_GRANT_TYPE, new String[]{DEVICE_FLOW_GRANT_TYPE});
+        requestParams.put(DEVICE_CODE, new String[]{DEVICE_CODE_VALUE});
+
+        mockStatic(LoggerUtils.class);
+        when(LoggerUtils.isDiagnosticLogsEnabled()).thenReturn(false);
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantId(anyString())).thenReturn(-1234);
+        HttpServletRequest request = mockHttpRequest(requestParams, new HashMap<String, Object>());
+        when(request.getHeader(OAuthConstants.HTTP_REQ_HEADER_AUTHZ)).thenReturn(AUTHORIZATION_HEADER);
+        when(request.getHeaderNames()).thenReturn(
+                Collections.enumeration(Collections.singletonList(OAuthConstants.HTTP_REQ_HEADER_AUTHZ)));
+
+        spy(EndpointUtil.class);
+        doReturn(REALM).when(EndpointUtil.class, "getRealmInfo");
+        doReturn(oAuth2Service).when(EndpointUtil.class, "getOAuth2Service");
+
+        mockOAuthServerConfiguration();
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection()).thenReturn(connection);
+
+        Map<String, Class<? extends OAuthValidator<HttpServletRequest>>> grantTypeValidators = new Hashtable<>();
+        grantTypeValidators.put(DEVICE_FLOW_GRANT_TYPE, DeviceFlowGrantValidator.class);
+        when(oAuthServerConfiguration.getSupportedGrantTypeValidators()).thenReturn(grantTypeValidators);
+        when(oAuth2Service.getOauthApplicationState(CLIENT_ID_VALUE)).thenReturn("ACTIVE");
+        return request;
+    }
+
+    private OAuth2AccessTokenRespDTO buildAccessTokenResponse() {
+
+        OAuth2AccessTokenRespDTO accessTokenResponse = new OAuth2AccessTokenRespDTO();
+        accessTokenResponse.setAccessToken(ACCESS_TOKEN);
+        accessTokenResponse.setTokenType(OAuth2TokenEndpoint.BEARER);
+        accessTokenResponse.setExpiresIn(3600L);
+        return accessTokenResponse;
+    }
+
     private HttpServletRequest mockHttpRequest(final Map<String, String[]> requestParams,
                                                final Map<String, Object> requestAttributes) {
 
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.endpoint.token;
+
+import org.powermock.reflect.Whitebox;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class TokenEndpointBulkheadsTest {
+
+    private static final String PASSWORD_GRANT = "password";
+    private static final String CLIENT_CREDENTIALS_GRANT = "client_credentials";
+    private static final String TENANT_PROPERTY = "TenantNameFromContext";
+
+    @Test
+    public void testExecuteWithoutBulkhead() {
+
+        TokenEndpointBulkheads bulkheads = new TokenEndpointBulkheads(Collections.singletonMap(PASSWORD_GRANT, 1),
+                Collections.singletonMap(PASSWORD_GRANT, 1));
+        AtomicReference<Thread> executingThread = new AtomicReference<>();
+        assertTrue(bulkheads.execute(CLIENT_CREDENTIALS_GRANT, () -> executingThread.set(Thread.currentThread())));
+        assertEquals(executingThread.get(), Thread.currentThread());
+        assertTrue(bulkheads.execute(null, () -> executingThread.set(null)));
+        assertEquals(executingThread.get(), null);
+    }
+
+    @Test
+    public void testExecuteInBulkhead() throws Exception {
+
+        TokenEndpointBulkheads bulkheads = new TokenEndpointBulkheads(Collections.singletonMap(PASSWORD_GRANT, 1),
+                Collections.singletonMap(PASSWORD_GRANT, 1));
+        AtomicReference<Thread> executingThread = new AtomicReference<>();
+        AtomicReference<Object> tenant = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        IdentityUtil.threadLocalProperties.get().put(TENANT_PROPERTY, "carbon.super");
+        try {
+            assertTrue(bulkheads.execute(PASSWORD_GRANT, () -> {
+                executingThread.set(Thread.currentThread());
+                tenant.set(IdentityUtil.threadLocalProperties.get().get(TENANT_PROPERTY));
+                latch.countDown();
+            }));
+        } finally {
+            IdentityUtil.threadLocalProperties.remove();
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertNotEquals(executingThread.get(), Thread.currentThread());
+        assertEquals(tenant.get(), "carbon.super");
+    }
+
+    @Test
+    public void testRejectWhenBulkheadIsFull() throws Exception {
+
+        TokenEndpointBulkheads bulkheads = new TokenEndpointBulkheads(Collections.singletonMap(PASSWORD_GRANT, 1),
+                Collections.singletonMap(PASSWORD_GRANT, 1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        assertTrue(bulkheads.execute(PASSWORD_GRANT, () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(bulkheads.execute(PASSWORD_GRANT, () -> { }));
+        assertEquals(bulkheads.getQueueDepth(), Collections.singletonMap(PASSWORD_GRANT, 1));
+        assertEquals(bulkheads.getActiveCount(), Collections.singletonMap(PASSWORD_GRANT, 1));
+
+        // Neither a thread nor a queue slot is available.
+        assertFalse(bulkheads.execute(PASSWORD_GRANT, () -> { }));
+        assertEquals(bulkheads.getRejectedCount(), Collections.singletonMap(PASSWORD_GRANT, 1L));
+
+        // Other grant types are not affected by the full bulkhead.
+        assertTrue(bulkheads.execute(CLIENT_CREDENTIALS_GRANT, () -> { }));
+        release.countDown();
+    }
+
+    @Test
+    public void testShutdownInstance() {
+
+        TokenEndpointBulkheads bulkheads = new TokenEndpointBulkheads(Collections.singletonMap(PASSWORD_GRANT, 1),
+                Collections.singletonMap(PASSWORD_GRANT, 1));
+        Map<String, ThreadPoolExecutor> executors = Whitebox.getInternalState(bulkheads, "bulkheads");
+        Whitebox.setInternalState(TokenEndpointBulkheads.class, "instance", bulkheads);
+
+        TokenEndpointBulkheads.shutdownInstance();
+        assertTrue(executors.get(PASSWORD_GRANT).isShutdown());
+        assertNull(Whitebox.getInternalState(TokenEndpointBulkheads.class, "instance"));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.endpoint.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class JsonResponseWriterTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    public void testWriteTokenResponse() throws Exception {
+
+        OAuth2AccessTokenRespDTO tokenResp = new OAuth2AccessTokenRespDTO();
+        tokenResp.setAccessToken("access-token");
+        tokenResp.setExpiresIn(3600);
+        tokenResp.setTokenType("Bearer");
+        tokenResp.setAuthorizedScopes("openid email");
+        tokenResp.setIDToken("id.token.value");
+
+        JsonNode response = OBJECT_MAPPER.readTree(JsonResponseWriter.writeTokenResponse(tokenResp));
+        assertEquals(response.size(), 5);
+        assertEquals(response.get("access_token").asText(), "access-token");
+        assertTrue(response.get("expires_in").isIntegralNumber());
+        assertEquals(response.get("expires_in").asLong(), 3600L);
+        assertEquals(response.get("token_type").asText(), "Bearer");
+        assertEquals(response.get("scope").asText(), "openid email");
+        assertEquals(response.get("id_token").asText(), "id.token.value");
+        // Fields without a value are omitted.
+        assertFalse(response.has("refresh_token"));
+    }
+
+    @Test
+    public void testWriteTokenResponseWithCustomParameters() throws Exception {
+
+        OAuth2AccessTokenRespDTO tokenResp = new OAuth2AccessTokenRespDTO();
+        tokenResp.setAccessToken("access-token");
+        tokenResp.setRefreshToken("refresh-token");
+        tokenResp.setTokenType("Bearer");
+        tokenResp.addParameter("token_type", "DPoP");
+        tokenResp.addParameter("custom", "string-value");
+        tokenResp.addParameter("overridden", "string-value");
+        Map<String, Object> nested = new HashMap<>();
+        nested.put("enabled", true);
+        tokenResp.addParameterObject("overridden", nested);
+        tokenResp.addParameterObject("authorization_details", Arrays.asList("read", "write"));
+        tokenResp.addParameterObject("count", 2);
+        tokenResp.addParameterObject("empty", "");
+
+        JsonNode response = OBJECT_MAPPER.readTree(JsonResponseWriter.writeTokenResponse(tokenResp));
+        assertEquals(response.get("token_type").asText(), "DPoP");
+        assertEquals(response.get("refresh_token").asText(), "refresh-token");
+        assertEquals(response.get("custom").asText(), "string-value");
+        assertTrue(response.get("overridden").get("enabled").asBoolean());
+        assertEquals(response.get("authorization_details").size(), 2);
+        assertEquals(response.get("authorization_details").get(1).asText(), "write");
+        assertEquals(response.get("count").asInt(), 2);
+        assertFalse(response.has("empty"));
+    }
+
+    @Test
+    public void testWriteErrorResponse() throws Exception {
+
+        JsonNode response = OBJECT_MAPPER.readTree(JsonResponseWriter.writeErrorResponse("invalid_grant",
+                "Invalid \"grant\" provided."));
+        assertEquals(response.size(), 2);
+        assertEquals(response.get("error").asText(), "invalid_grant");
+        assertEquals(response.get("error_description").asText(), "Invalid \"grant\" provided.");
+
+        assertEquals(JsonResponseWriter.writeErrorResponse("server_error", null), "{\"error\":\"server_error\"}");
+    }
+
+    @Test
+    public void testWriteJson() throws Exception {
+
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("active", true);
+        fields.put("exp", 1700000000L);
+        fields.put("client_id", "client");
+        fields.put("aud", Collections.singletonList("audience"));
+        fields.put("nbf", null);
+
+        JsonNode response = OBJECT_MAPPER.readTree(JsonResponseWriter.writeJson(fields));
+        assertEquals(response.size(), 4);
+        assertTrue(response.get("active").asBoolean());
+        assertEquals(response.get("exp").asLong(), 1700000000L);
+        assertEquals(response.get("client_id").asText(), "client");
+        assertEquals(response.get("aud").get(0).asText(), "audience");
+    }
+}
@@ -28,6 +28,7 @@ import org.wso2.carbon.identity.application.authentication.framework.model.Authe
 import org.wso2.carbon.identity.application.common.IdentityApplicationManagementException;
 import org.wso2.carbon.identity.application.common.model.User;
 import org.wso2.carbon.identity.application.mgt.ApplicationManagementService;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.cache.AppInfoCache;
 import org.wso2.carbon.identity.oauth.cache.OAuthCache;
@@ -58,6 +59,9 @@ import org.wso2.carbon.identity.oauth2.authz.handlers.ResponseTypeHandler;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.AuthorizedAppDO;
+import org.wso2.carbon.identity.oauth2.model.TokenRevocationJobDO;
+import org.wso2.carbon.identity.oauth2.revocation.TokenRevocationJobManager;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.oauth2.validators.OAuth2ScopeValidator;
@@ -103,6 +107,7 @@ public class OAuthAdminServiceImpl {
     protected static final Log LOG = LogFactory.getLog(OAuthAdminServiceImpl.class);
     private static final String SCOPE_VALIDATION_REGEX = "^[^?#/()]*$";
     private static final int MAX_RETRY_ATTEMPTS = 3;
+    private static final int AUTHORIZED_APPS_PAGE_SIZE = 100;
 
     /**
      * Registers an consumer secret against the logged in user. A given user can only have a single
@@ -142,11 +147,38 @@ public class OAuthAdminServiceImpl {
      */
     public OAuthConsumerAppDTO[] getAllOAuthApplicationData() throws IdentityOAuthAdminException {
 
-        String userName;
-        OAuthConsumerAppDTO[] dtos = new OAuthConsumerAppDTO[0];
+        String userName = getLoggedInUsername();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        OAuthAppDAO dao = new OAuthAppDAO();
+        return buildConsumerAppDTOs(dao.getOAuthConsumerAppsOfUser(userName, tenantId));
+    }
+
+    /**
+     * Get a page of the registered OAuth applications of the logged in user, ordered by consumer key. Unlike
+     * {@link #getAllOAuthApplicationData()}, only the requested page is loaded into memory.
+     *
+     * @param afterConsumerKey Consumer key of the last application of the previous page, or null for the first page.
+     * @param limit            Maximum number of applications to return.
+     * @return An array of <code>OAuthConsumerAppDTO</code> objecting containing the application information.
+     * @throws IdentityOAuthAdminException Error when reading the data from the persistence store.
+     */
+    public OAuthConsumerAppDTO[] getAllOAuthApplicationData(String afterConsumerKey, int limit)
+            throws IdentityOAuthAdminException {
+
+        if (limit <= 0) {
+            throw handleClientError(INVALID_REQUEST, "Limit should be a positive number. Value : " + limit);
+        }
+        String userName = getLoggedInUsername();
+        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
+        OAuthAppDAO dao = new OAuthAppDAO();
+        return buildConsumerAppDTOs(dao.getOAuthConsumerAppsOfUser(userName, tenantId, afterConsumerKey, limit));
+    }
+
+    private String getLoggedInUsername() throws IdentityOAuthAdminException {
+
         try {
             String tenantDomain = CarbonContext.getThreadLocalCarbonContext().getTenantDomain();
-            userName = OAuthUtil.getUsername(tenantDomain);
+            return OAuthUtil.getUsername(tenantDomain);
         } catch (IdentityApplicationManagementException e) {
             String msg = "User not logged in to get all registered OAuth Applications.";
             if (LOG.isDebugEnabled()) {
@@ -154,10 +186,11 @@ public class OAuthAdminServiceImpl {
             }
             throw handleClientError(AUTHENTICATED_USER_NOT_FOUND, msg, e);
         }
+    }
 
-        int tenantId = CarbonContext.getThreadLocalCarbonContext().getTenantId();
-        OAuthAppDAO dao = new OAuthAppDAO();
-        OAuthAppDO[] apps = dao.getOAuthConsumerAppsOfUser(userName, tenantId);
+    private OAuthConsumerAppDTO[] buildConsumerAppDTOs(OAuthAppDO[] apps) {
+
+        OAuthConsumerAppDTO[] dtos = new OAuthConsumerAppDTO[0];
         if (apps != null && apps.length > 0) {
             dtos = new OAuthConsumerAppDTO[apps.length];
             OAuthAppDO app;
@@ -1003,6 +1036,78 @@ public class OAuthAdminServiceImpl {
      */
     public OAuthConsumerAppDTO[] getAppsAuthorizedByUser() throws IdentityOAuthAdminException {
 
+        AuthenticatedUser loggedInUser = getLoggedInUser();
+        String userStoreDomain = getTokenPartitionUserStoreDomain(loggedInUser);
+
+        List<OAuthConsumerAppDTO> appDTOs = new ArrayList<>();
+        List<OAuthConsumerAppDTO> page;
+        String afterConsumerKey = null;
+        do {
+            page = getAppsAuthorizedByUser(loggedInUser, userStoreDomain, afterConsumerKey,
+                    AUTHORIZED_APPS_PAGE_SIZE);
+            appDTOs.addAll(page);
+            if (!page.isEmpty()) {
+                afterConsumerKey = page.get(page.size() - 1).getOauthConsumerKey();
+            }
+        } while (page.size() == AUTHORIZED_APPS_PAGE_SIZE);
+        return appDTOs.toArray(new OAuthConsumerAppDTO[0]);
+    }
+
+    /**
+     * Get a page of apps that are authorized by the given user, ordered by consumer key.
+     *
+     * @param afterConsumerKey Consumer key of the last app of the previous page, or null for the first page.
+     * @param limit            Maximum number of apps to return.
+     * @return OAuth applications authorized by the user that have tokens in ACTIVE or EXPIRED state
+     */
+    public OAuthConsumerAppDTO[] getAppsAuthorizedByUser(String afterConsumerKey, int limit)
+            throws IdentityOAuthAdminException {
+
+        if (limit <= 0) {
+            throw handleClientError(INVALID_REQUEST, "Limit should be a positive number. Value : " + limit);
+        }
+        AuthenticatedUser loggedInUser = getLoggedInUser();
+        return getAppsAuthorizedByUser(loggedInUser, getTokenPartitionUserStoreDomain(loggedInUser),
+                afterConsumerKey, limit).toArray(new OAuthConsumerAppDTO[0]);
+    }
+
+    private List<OAuthConsumerAppDTO> getAppsAuthorizedByUser(AuthenticatedUser loggedInUser, String userStoreDomain,
+                                                              String afterConsumerKey, int limit)
+            throws IdentityOAuthAdminException {
+
+        String username = loggedInUser.getUsernameAsSubjectIdentifier(true, true);
+        List<AuthorizedAppDO> authorizedApps;
+        try {
+            // A single query returns the latest token of each distinct app and scope combination of the user.
+            authorizedApps = OAuthTokenPersistenceFactory.getInstance().getTokenManagementDAO()
+                    .getAppsAuthorizedByUser(loggedInUser, userStoreDomain, afterConsumerKey, limit);
+        } catch (IdentityOAuth2Exception e) {
+            String errorMsg = "Error occurred while retrieving apps authorized by User ID : " + username;
+            throw handleError(errorMsg, e);
+        }
+
+        List<OAuthConsumerAppDTO> appDTOs = new ArrayList<>();
+        String previousConsumerKey = null;
+        for (AuthorizedAppDO authorizedApp : authorizedApps) {
+            // Entries of the same app are adjacent since they are ordered by consumer key.
+            if (authorizedApp.getConsumerKey().equals(previousConsumerKey)) {
+                continue;
+            }
+            previousConsumerKey = authorizedApp.getConsumerKey();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Found App: " + authorizedApp.getApplicationName() + " for user: " + username);
+            }
+            // The app name is returned by the same query, hence the apps are not loaded one by one.
+            OAuthConsumerAppDTO appDTO = new OAuthConsumerAppDTO();
+            appDTO.setOauthConsumerKey(authorizedApp.getConsumerKey());
+            appDTO.setApplicationName(authorizedApp.getApplicationName());
+            appDTOs.add(appDTO);
+        }
+        return appDTOs;
+    }
+
+    private AuthenticatedUser getLoggedInUser() throws IdentityOAuthAdminException {
+
         String tenantDomain = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain();
         String tenantAwareLoggedInUserName = PrivilegedCarbonContext.getThreadLocalCarbonContext().getUsername();
         AuthenticatedUser loggedInUser = null;
@@ -1018,8 +1123,12 @@ public class OAuthAdminServiceImpl {
         } catch (IdentityApplicationManagementException e) {
             throw handleClientError(AUTHENTICATED_USER_NOT_FOUND, "Error resolving user.", e);
         }
+        return loggedInUser;
+    }
+
+    private String getTokenPartitionUserStoreDomain(AuthenticatedUser loggedInUser)
+            throws IdentityOAuthAdminException {
 
-        String username = loggedInUser.getUsernameAsSubjectIdentifier(true, true);
         String userStoreDomain = null;
         if (OAuth2Util.checkAccessTokenPartitioningEnabled() && OAuth2Util.checkUserNameAssertionEnabled()) {
             try {
@@ -1029,53 +1138,7 @@ public class OAuthAdminServiceImpl {
                 throw handleError(errorMsg, e);
             }
         }
-
-        Set<String> clientIds;
-        try {
-            clientIds = OAuthTokenPersistenceFactory.getInstance().getTokenManagementDAO()
-                    .getAllTimeAuthorizedClientIds(loggedInUser);
-        } catch (IdentityOAuth2Exception e) {
-            String errorMsg = "Error occurred while retrieving apps authorized by User ID : " + username;
-            throw handleError(errorMsg, e);
-        }
-        Set<OAuthConsumerAppDTO> appDTOs = new HashSet<OAuthConsumerAppDTO>();
-        for (String clientId : clientIds) {
-            Set<AccessTokenDO> accessTokenDOs;
-            try {
-                accessTokenDOs = OAuthTokenPersistenceFactory.getInstance()
-                        .getAccessTokenDAO().getAccessTokens(
-                                clientId, loggedInUser, userStoreDomain, true);
-            } catch (IdentityOAuth2Exception e) {
-                String errorMsg = "Error occurred while retrieving access tokens issued for " +
-                        "Client ID : " + clientId + ", User ID : " + username;
-                throw handleError(errorMsg, e);
-            }
-            if (!accessTokenDOs.isEmpty()) {
-                Set<String> distinctClientUserScopeCombo = new HashSet<String>();
-                for (AccessTokenDO accessTokenDO : accessTokenDOs) {
-                    AccessTokenDO scopedToken;
-                    String scopeString = buildScopeString(accessTokenDO.getScope());
-                    try {
-                        scopedToken = OAuthTokenPersistenceFactory.getInstance().
-                                getAccessTokenDAO().getLatestAccessToken(clientId, loggedInUser, userStoreDomain,
-                                scopeString, true);
-                        if (scopedToken != null && !distinctClientUserScopeCombo.contains(clientId + ":" + username)) {
-                            OAuthAppDO appDO = getOAuthAppDO(scopedToken.getConsumerKey());
-                            if (LOG.isDebugEnabled()) {
-                                LOG.debug("Found App: " + appDO.getApplicationName() + " for user: " + username);
-                            }
-                            appDTOs.add(OAuthUtil.buildConsumerAppDTO(appDO));
-                            distinctClientUserScopeCombo.add(clientId + ":" + username);
-                        }
-                    } catch (IdentityOAuth2Exception e) {
-                        String errorMsg = "Error occurred while retrieving latest access token issued for Client ID :" +
-                                " " + clientId + ", User ID : " + username + " and Scope : " + scopeString;
-                        throw handleError(errorMsg, e);
-                    }
-                }
-            }
-        }
-        return appDTOs.toArray(new OAuthConsumerAppDTO[0]);
+        return userStoreDomain;
     }
 
     private OAuthAppDO getOAuthAppDO(String consumerKey) throws IdentityOAuthAdminException {
@@ -1127,9 +1190,16 @@ public class OAuthAdminServiceImpl {
                 }
             }
             OAuthConsumerAppDTO[] appDTOs = getAppsAuthorizedByUser();
+            boolean isRevocationJobEnabled = TokenRevocationJobManager.getInstance().isEnabled();
             for (String appName : revokeRequestDTO.getApps()) {
                 for (OAuthConsumerAppDTO appDTO : appDTOs) {
                     if (appDTO.getApplicationName().equals(appName)) {
+                        if (isRevocationJobEnabled) {
+                            // The job revokes the tokens and the consent, and triggers the post listeners with the
+                            // tokens it has revoked.
+                            submitResourceOwnerRevocationJob(user, appDTO.getOauthConsumerKey());
+                            continue;
+                        }
                         Set<AccessTokenDO> accessTokenDOs;
                         try {
                             // Retrieve all ACTIVE or EXPIRED access tokens for particular client authorized by this
@@ -1242,6 +1312,13 @@ public class OAuthAdminServiceImpl {
 
         String tenantDomain = getTenantDomain(consumerKey);
         String applicationName = getApplicationName(consumerKey, tenantDomain);
+        if (TokenRevocationJobManager.getInstance().isEnabled()) {
+            // Tokens are revoked in the background, and the job triggers the post listeners with each chunk of
+            // tokens it revokes.
+            revokeRespDTO.setRevocationJobId(submitTokenRevocationJob(consumerKey, tenantDomain).getJobId());
+            revokeOAuthConsentsForApplication(applicationName, tenantDomain);
+            return revokeRespDTO;
+        }
         List<AccessTokenDO> accessTokenDOs = getActiveAccessTokensByConsumerKey(consumerKey);
         if (accessTokenDOs.size() > 0) {
             String[] accessTokens = new String[accessTokenDOs.size()];
@@ -1264,6 +1341,54 @@ public class OAuthAdminServiceImpl {
         return revokeRespDTO;
     }
 
+    /**
+     * Get the state of a job revoking tokens in the background, of the tenant of the logged in user.
+     *
+     * @param jobId Id of the token revocation job.
+     * @return Token revocation job.
+     * @throws IdentityOAuthAdminException If the job does not exist or cannot be retrieved.
+     */
+    public TokenRevocationJobDO getTokenRevocationJob(String jobId) throws IdentityOAuthAdminException {
+
+        int tenantId = IdentityTenantUtil.getTenantId(
+                PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain());
+        TokenRevocationJobDO job;
+        try {
+            job = TokenRevocationJobManager.getInstance().getJob(jobId, tenantId);
+        } catch (IdentityOAuth2Exception e) {
+            throw handleError("Error occurred while retrieving token revocation job: " + jobId, e);
+        }
+        if (job == null) {
+            throw handleClientError(INVALID_REQUEST, "Cannot find a token revocation job with id: " + jobId);
+        }
+        return job;
+    }
+
+    private TokenRevocationJobDO submitTokenRevocationJob(String consumerKey, String tenantDomain)
+            throws IdentityOAuthAdminException {
+
+        try {
+            return TokenRevocationJobManager.getInstance().submitApplicationJob(consumerKey,
+                    IdentityTenantUtil.getTenantId(tenantDomain));
+        } catch (IdentityOAuth2Exception e) {
+            String errorMsg = String.format("Error occurred while submitting token revocation job for OAuth app in " +
+                    "tenant domain: %s with consumer key: %s.", tenantDomain, consumerKey);
+            throw handleError(errorMsg, e);
+        }
+    }
+
+    private TokenRevocationJobDO submitResourceOwnerRevocationJob(AuthenticatedUser user, String consumerKey)
+            throws IdentityOAuthAdminException {
+
+        try {
+            return TokenRevocationJobManager.getInstance().submitResourceOwnerJob(user, consumerKey);
+        } catch (IdentityOAuth2Exception e) {
+            String errorMsg = String.format("Error occurred while submitting token revocation job for OAuth app " +
+                    "with consumer key: %s and user: %s.", consumerKey, user.getLoggableUserId());
+            throw handleError(errorMsg, e);
+        }
+    }
+
     /**
      * Revoke approve always of the consent for OAuth apps by resource owners
      *
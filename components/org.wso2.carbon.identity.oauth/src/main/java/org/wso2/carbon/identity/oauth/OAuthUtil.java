@@ -47,6 +47,7 @@ import org.wso2.carbon.identity.oauth2.IdentityOAuth2ServerException;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCUserClaimsCache;
 import org.wso2.carbon.identity.organization.management.service.exception.OrganizationManagementException;
 import org.wso2.carbon.registry.core.utils.UUIDGenerator;
 import org.wso2.carbon.user.api.Tenant;
@@ -511,9 +512,28 @@ public final class OAuthUtil {
         if (cacheKey != null) {
             claimCache.clearCacheEntry(cacheKey, userStoreManager.getTenantId());
         }
+        removeOIDCUserClaimsFromCache(userName, userStoreManager);
         return true;
     }
 
+    /**
+     * Remove the claims of the user cached to build ID tokens and JWT access tokens.
+     *
+     * @param userName         Username of the user.
+     * @param userStoreManager User store manager of the user.
+     * @throws UserStoreException If an error occurs while reading the user store configuration.
+     */
+    public static void removeOIDCUserClaimsFromCache(String userName, UserStoreManager userStoreManager)
+            throws UserStoreException {
+
+        OIDCUserClaimsCache userClaimsCache = OIDCUserClaimsCache.getInstance();
+        if (userClaimsCache.isUserClaimsCachingEnabled()) {
+            userClaimsCache.clearUserClaims(userName,
+                    UserCoreUtil.getDomainName(userStoreManager.getRealmConfiguration()),
+                    IdentityTenantUtil.getTenantDomain(userStoreManager.getTenantId()));
+        }
+    }
+
     /**
      * This method will revoke the accesstokens of user.
      * @param username username.
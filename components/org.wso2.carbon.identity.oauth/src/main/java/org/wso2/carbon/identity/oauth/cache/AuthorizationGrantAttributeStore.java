@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.cache;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.AuthorizationGrantAttributeDAO;
+import org.wso2.carbon.identity.oauth2.dao.AuthorizationGrantCacheEntryCodec;
+import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
+import org.wso2.carbon.identity.oauth2.model.AuthorizationGrantAttributesDO;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.wso2.carbon.identity.oauth2.util.OAuth2ConfigUtil.readConfigValue;
+
+/**
+ * Persistent store backing the {@link AuthorizationGrantCache}, used instead of the session data store when
+ * {@code OAuth.AuthorizationGrantCache.AttributeStore.Enable} is set.
+ * <p>
+ * Entries are keyed by the SHA-256 hash of the access token or the authorization code, so no token or code id has to
+ * be looked up before the store is accessed. The leading bits of the hash assign each key to one of a fixed number of
+ * partitions. Entries are encoded with {@link AuthorizationGrantCacheEntryCodec} and carry the time they expire at,
+ * derived from the validity of the token or code. Expired entries are never served and are deleted partition by
+ * partition in the background.
+ * <p>
+ * Writes and removals are buffered and persisted in batches. Reads on this node see buffered writes. Another node of
+ * a cluster sees a write once its batch has been persisted, i.e. after at most the flush interval.
+ */
+public class AuthorizationGrantAttributeStore {
+
+    private static final Log log = LogFactory.getLog(AuthorizationGrantAttributeStore.class);
+
+    private static final String ATTRIBUTE_STORE_ENABLE = "OAuth.AuthorizationGrantCache.AttributeStore.Enable";
+    private static final String ATTRIBUTE_STORE_PARTITION_COUNT =
+            "OAuth.AuthorizationGrantCache.AttributeStore.PartitionCount";
+    private static final String ATTRIBUTE_STORE_BATCH_SIZE = "OAuth.AuthorizationGrantCache.AttributeStore.BatchSize";
+    private static final String ATTRIBUTE_STORE_FLUSH_INTERVAL =
+            "OAuth.AuthorizationGrantCache.AttributeStore.FlushInterval";
+    private static final String ATTRIBUTE_STORE_CLEANUP_INTERVAL =
+            "OAuth.AuthorizationGrantCache.AttributeStore.CleanupInterval";
+
+    private static final int DEFAULT_PARTITION_COUNT = 16;
+    private static final int DEFAULT_BATCH_SIZE = 100;
+    private static final long DEFAULT_FLUSH_INTERVAL_IN_MILLIS = 100;
+    private static final long DEFAULT_CLEANUP_INTERVAL_IN_SECONDS = 300;
+    // Callers flush on their own thread once this many batches are pending, which bounds the buffer when the
+    // database falls behind.
+    private static final int MAX_PENDING_BATCHES = 10;
+    private static final int PARTITION_PREFIX_LENGTH = 8;
+
+    private static volatile AuthorizationGrantAttributeStore instance;
+
+    private final AuthorizationGrantAttributeDAO authorizationGrantAttributeDAO;
+    private final boolean enabled;
+    private final int partitionCount;
+    private final int batchSize;
+    private final ConcurrentMap<String, AuthorizationGrantAttributesDO> pendingWrites = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService executor;
+
+    AuthorizationGrantAttributeStore(AuthorizationGrantAttributeDAO authorizationGrantAttributeDAO, boolean enabled,
+                                     int partitionCount, int batchSize, long flushIntervalInMillis,
+                                     long cleanupIntervalInSeconds) {
+
+        this.authorizationGrantAttributeDAO = authorizationGrantAttributeDAO;
+        this.enabled = enabled;
+        this.partitionCount = partitionCount;
+        this.batchSize = batchSize;
+        if (enabled) {
+            ScheduledThreadPoolExecutor scheduledExecutor = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "AuthorizationGrantAttributeStore");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduledExecutor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+            scheduledExecutor.scheduleWithFixedDelay(this::flushQuietly, flushIntervalInMillis,
+                    flushIntervalInMillis, TimeUnit.MILLISECONDS);
+            scheduledExecutor.scheduleWithFixedDelay(this::removeExpiredAttributes, cleanupIntervalInSeconds,
+                    cleanupIntervalInSeconds, TimeUnit.SECONDS);
+            this.executor = scheduledExecutor;
+        } else {
+            this.executor = null;
+        }
+    }
+
+    public static AuthorizationGrantAttributeStore getInstance() {
+
+        if (instance == null) {
+            synchronized (AuthorizationGrantAttributeStore.class) {
+                if (instance == null) {
+                    instance = new AuthorizationGrantAttributeStore(
+                            OAuthTokenPersistenceFactory.getInstance().getAuthorizationGrantAttributeDAO(),
+                            Boolean.parseBoolean(IdentityUtil.getProperty(ATTRIBUTE_STORE_ENABLE)),
+                            readConfigValue(ATTRIBUTE_STORE_PARTITION_COUNT, DEFAULT_PARTITION_COUNT),
+                            readConfigValue(ATTRIBUTE_STORE_BATCH_SIZE, DEFAULT_BATCH_SIZE),
+                            readConfigValue(ATTRIBUTE_STORE_FLUSH_INTERVAL, DEFAULT_FLUSH_INTERVAL_IN_MILLIS),
+                            readConfigValue(ATTRIBUTE_STORE_CLEANUP_INTERVAL, DEFAULT_CLEANUP_INTERVAL_IN_SECONDS));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether the authorization grant cache is backed by this store.
+     *
+     * @return true if the store is enabled.
+     */
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Store a cache entry against an access token or an authorization code.
+     *
+     * @param key        Access token or authorization code.
+     * @param entry      Cache entry.
+     * @param expiryTime Time in milliseconds since the epoch after which the entry is no longer served.
+     */
+    public void store(String key, AuthorizationGrantCacheEntry entry, long expiryTime) {
+
+        byte[] attributes;
+        try {
+            attributes = AuthorizationGrantCacheEntryCodec.encode(entry);
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while encoding the authorization grant cache entry. The entry will only be available " +
+                    "in the cache.", e);
+            return;
+        }
+        String keyHash = hash(key);
+        enqueue(new AuthorizationGrantAttributesDO(keyHash, getPartition(keyHash), attributes, expiryTime));
+    }
+
+    /**
+     * Retrieve the cache entry stored against an access token or an authorization code.
+     *
+     * @param key Access token or authorization code.
+     * @return Cache entry, or null if there is no live entry for the key.
+     */
+    public AuthorizationGrantCacheEntry get(String key) {
+
+        String keyHash = hash(key);
+        long currentTime = System.currentTimeMillis();
+        byte[] attributes;
+        AuthorizationGrantAttributesDO pendingWrite = pendingWrites.get(keyHash);
+        try {
+            if (pendingWrite != null) {
+                if (pendingWrite.isRemoval() || pendingWrite.getExpiryTime() <= currentTime) {
+                    return null;
+                }
+                attributes = pendingWrite.getAttributes();
+            } else {
+                attributes = authorizationGrantAttributeDAO.getGrantAttributes(keyHash, getPartition(keyHash),
+                        currentTime);
+                if (attributes == null) {
+                    return null;
+                }
+            }
+            return AuthorizationGrantCacheEntryCodec.decode(attributes);
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while retrieving the authorization grant cache entry from the attribute store.", e);
+            return null;
+        }
+    }
+
+    /**
+     * Remove the cache entry stored against an access token or an authorization code.
+     *
+     * @param key Access token or authorization code.
+     */
+    public void remove(String key) {
+
+        if (StringUtils.isBlank(key)) {
+            return;
+        }
+        String keyHash = hash(key);
+        enqueue(new AuthorizationGrantAttributesDO(keyHash, getPartition(keyHash), null, 0));
+    }
+
+    /**
+     * Persist the buffered writes and removals.
+     *
+     * @throws IdentityOAuth2Exception If a batch cannot be persisted. The batch stays buffered and is retried.
+     */
+    public void flush() throws IdentityOAuth2Exception {
+
+        if (!enabled) {
+            return;
+        }
+        synchronized (flushLock) {
+            List<AuthorizationGrantAttributesDO> storedAttributes = new ArrayList<>(batchSize);
+            List<AuthorizationGrantAttributesDO> removedAttributes = new ArrayList<>();
+            for (AuthorizationGrantAttributesDO pendingWrite : pendingWrites.values()) {
+                if (pendingWrite.isRemoval()) {
+                    removedAttributes.add(pendingWrite);
+                } else {
+                    storedAttributes.add(pendingWrite);
+                }
+                if (storedAttributes.size() + removedAttributes.size() >= batchSize) {
+                    persist(storedAttributes, removedAttributes);
+                    storedAttributes.clear();
+                    removedAttributes.clear();
+                }
+            }
+            persist(storedAttributes, removedAttributes);
+        }
+    }
+
+    /**
+     * Persist the buffered writes and stop the background tasks.
+     */
+    public void shutdown() {
+
+        if (!enabled) {
+            return;
+        }
+        executor.shutdown();
+        flushQuietly();
+    }
+
+    /**
+     * Remove the expired entries of every partition.
+     */
+    void removeExpiredAttributes() {
+
+        long currentTime = System.currentTimeMillis();
+        int removedCount = 0;
+        for (int partition = 0; partition < partitionCount; partition++) {
+            try {
+                removedCount += authorizationGrantAttributeDAO.removeExpiredGrantAttributes(partition, currentTime);
+            } catch (IdentityOAuth2Exception e) {
+                log.error("Error while removing expired authorization grant attributes of partition: " + partition,
+                        e);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Removed " + removedCount + " expired authorization grant attributes.");
+        }
+    }
+
+    int getPartition(String keyHash) {
+
+        return (int) (Long.parseLong(keyHash.substring(0, PARTITION_PREFIX_LENGTH), 16) % partitionCount);
+    }
+
+    int getPendingWriteCount() {
+
+        return pendingWrites.size();
+    }
+
+    private void enqueue(AuthorizationGrantAttributesDO attributes) {
+
+        // A later write or removal of the same key supersedes the buffered one.
+        pendingWrites.put(attributes.getKeyHash(), attributes);
+        int pendingWriteCount = pendingWrites.size();
+        if (pendingWriteCount >= batchSize * MAX_PENDING_BATCHES) {
+            flushQuietly();
+        } else if (pendingWriteCount >= batchSize && flushScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(() -> {
+                    flushScheduled.set(false);
+                    flushQuietly();
+                });
+            } catch (RejectedExecutionException e) {
+                flushScheduled.set(false);
+                flushQuietly();
+            }
+        }
+    }
+
+    private void persist(List<AuthorizationGrantAttributesDO> storedAttributes,
+                         List<AuthorizationGrantAttributesDO> removedAttributes) throws IdentityOAuth2Exception {
+
+        if (storedAttributes.isEmpty() && removedAttributes.isEmpty()) {
+            return;
+        }
+        authorizationGrantAttributeDAO.persistGrantAttributes(storedAttributes, removedAttributes);
+        // Only the persisted instances are dropped from the buffer, writes made in the meantime stay buffered.
+        for (AuthorizationGrantAttributesDO attributes : storedAttributes) {
+            pendingWrites.remove(attributes.getKeyHash(), attributes);
+        }
+        for (AuthorizationGrantAttributesDO attributes : removedAttributes) {
+            pendingWrites.remove(attributes.getKeyHash(), attributes);
+        }
+    }
+
+    private void flushQuietly() {
+
+        try {
+            flush();
+        } catch (IdentityOAuth2Exception e) {
+            int pendingWriteCount = pendingWrites.size();
+            if (pendingWriteCount >= batchSize * MAX_PENDING_BATCHES) {
+                // The entries are still served from the cache of this node until they are evicted.
+                pendingWrites.clear();
+                log.error("Error while persisting buffered authorization grant attribute writes. Dropped " +
+                        pendingWriteCount + " buffered writes.", e);
+            } else {
+                log.error("Error while persisting " + pendingWriteCount + " buffered authorization grant " +
+                        "attribute writes. They will be retried.", e);
+            }
+        }
+    }
+
+    private static String hash(String key) {
+
+        return DigestUtils.sha256Hex(key);
+    }
+}
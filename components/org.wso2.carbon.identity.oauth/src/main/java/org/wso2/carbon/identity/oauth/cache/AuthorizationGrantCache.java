@@ -36,6 +36,9 @@ import java.util.concurrent.TimeUnit;
 /**
  * Stores authenticated user attributes and OpenID Connect specific attributes during OIDC Authorization request
  * processing. Those values are later required to serve OIDC Token request and build IDToken.
+ * <p>
+ * Entries are persisted to the session data store, or to the {@link AuthorizationGrantAttributeStore} when it is
+ * enabled.
  */
 public class AuthorizationGrantCache extends
         AuthenticationBaseCache<AuthorizationGrantCacheKey, AuthorizationGrantCacheEntry> {
@@ -76,6 +79,11 @@ public class AuthorizationGrantCache extends
      */
     public void addToCacheByToken(AuthorizationGrantCacheKey key, AuthorizationGrantCacheEntry entry) {
         super.addToCache(key, entry);
+        if (isAttributeStoreEnabled()) {
+            AuthorizationGrantAttributeStore.getInstance().store(key.getUserAttributesId(), entry,
+                    getTokenExpiryTime(entry));
+            return;
+        }
         String tokenId = entry.getTokenId();
         if (tokenId == null) {
             tokenId = replaceFromTokenId(key.getUserAttributesId());
@@ -96,6 +104,9 @@ public class AuthorizationGrantCache extends
 
         AuthorizationGrantCacheEntry cacheEntry = super.getValueFromCache(key);
         if (cacheEntry == null) {
+            if (isAttributeStoreEnabled()) {
+                return AuthorizationGrantAttributeStore.getInstance().get(key.getUserAttributesId());
+            }
             if (log.isDebugEnabled()) {
                 log.debug("Getting cache entry from session store using tokenId: " + tokenId);
             }
@@ -113,6 +124,9 @@ public class AuthorizationGrantCache extends
     public AuthorizationGrantCacheEntry getValueFromCacheByToken(AuthorizationGrantCacheKey key) {
         AuthorizationGrantCacheEntry cacheEntry = super.getValueFromCache(key);
         if (cacheEntry == null) {
+            if (isAttributeStoreEnabled()) {
+                return AuthorizationGrantAttributeStore.getInstance().get(key.getUserAttributesId());
+            }
             if (log.isDebugEnabled()) {
                 if (IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.ACCESS_TOKEN)) {
                     log.debug("Getting cache entry from session store using access token(hashed): "
@@ -133,6 +147,10 @@ public class AuthorizationGrantCache extends
      */
     public void clearCacheEntryByToken(AuthorizationGrantCacheKey key) {
         super.clearCacheEntry(key);
+        if (isAttributeStoreEnabled()) {
+            AuthorizationGrantAttributeStore.getInstance().remove(key.getUserAttributesId());
+            return;
+        }
         clearFromSessionStore(replaceFromTokenId(key.getUserAttributesId()));
     }
 
@@ -143,6 +161,10 @@ public class AuthorizationGrantCache extends
      */
     public void clearCacheEntryByTokenId(AuthorizationGrantCacheKey key, String tokenId) {
         super.clearCacheEntry(key);
+        if (isAttributeStoreEnabled()) {
+            AuthorizationGrantAttributeStore.getInstance().remove(key.getUserAttributesId());
+            return;
+        }
         clearFromSessionStore(tokenId);
     }
 
@@ -157,6 +179,11 @@ public class AuthorizationGrantCache extends
         long validityPeriodNano = TimeUnit.SECONDS.toNanos(
                 OAuthServerConfiguration.getInstance().getAuthorizationCodeValidityPeriodInSeconds());
         entry.setValidityPeriod(validityPeriodNano);
+        if (isAttributeStoreEnabled()) {
+            AuthorizationGrantAttributeStore.getInstance().store(key.getUserAttributesId(), entry,
+                    getExpiryTime(TimeUnit.NANOSECONDS.toMillis(validityPeriodNano)));
+            return;
+        }
         storeToSessionStore(entry.getCodeId(), entry);
     }
 
@@ -169,6 +196,9 @@ public class AuthorizationGrantCache extends
     public AuthorizationGrantCacheEntry getValueFromCacheByCode(AuthorizationGrantCacheKey key) {
         AuthorizationGrantCacheEntry cacheEntry = super.getValueFromCache(key);
         if (cacheEntry == null) {
+            if (isAttributeStoreEnabled()) {
+                return AuthorizationGrantAttributeStore.getInstance().get(key.getUserAttributesId());
+            }
             if (log.isDebugEnabled()) {
                 if (IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.AUTHORIZATION_CODE)) {
                     log.debug("Getting cache entry from session store using authorization code(hashed): "
@@ -190,6 +220,11 @@ public class AuthorizationGrantCache extends
      */
     public void clearCacheEntryByCode(AuthorizationGrantCacheKey key) {
 
+        if (isAttributeStoreEnabled()) {
+            super.clearCacheEntry(key);
+            AuthorizationGrantAttributeStore.getInstance().remove(key.getUserAttributesId());
+            return;
+        }
         AuthorizationGrantCacheEntry valueFromCacheByCode = super.getValueFromCache(key);
         String codeId;
         if (valueFromCacheByCode != null) {
@@ -210,9 +245,59 @@ public class AuthorizationGrantCache extends
     public void clearCacheEntryByCodeId(AuthorizationGrantCacheKey key, String authzCodeId) {
 
         super.clearCacheEntry(key);
+        if (isAttributeStoreEnabled()) {
+            AuthorizationGrantAttributeStore.getInstance().remove(key.getUserAttributesId());
+            return;
+        }
         clearFromSessionStore(authzCodeId);
     }
 
+    private boolean isAttributeStoreEnabled() {
+
+        return AuthorizationGrantAttributeStore.getInstance().isEnabled();
+    }
+
+    /**
+     * Get the time the attributes of an access token expire at in the attribute store. The attributes are read again
+     * when the refresh token of the access token is used, hence they are kept for as long as the refresh token may be
+     * valid. The validity of the refresh token is that of the application, when it is set on the entry, and the server
+     * wide validity otherwise.
+     *
+     * @param entry Cache entry of the access token.
+     * @return Expiry time in milliseconds since the epoch.
+     */
+    private long getTokenExpiryTime(AuthorizationGrantCacheEntry entry) {
+
+        long entryValidityPeriod = TimeUnit.NANOSECONDS.toMillis(entry.getValidityPeriod());
+        if (entry.getRefreshTokenValidityPeriodInMillis() != 0) {
+            long refreshTokenValidityPeriod = entry.getRefreshTokenValidityPeriodInMillis();
+            if (entryValidityPeriod < 0 || refreshTokenValidityPeriod < 0) {
+                return Long.MAX_VALUE;
+            }
+            return getExpiryTime(Math.max(entryValidityPeriod, refreshTokenValidityPeriod));
+        }
+
+        OAuthServerConfiguration configuration = OAuthServerConfiguration.getInstance();
+        long refreshTokenValidityPeriod =
+                TimeUnit.SECONDS.toMillis(configuration.getRefreshTokenValidityPeriodInSeconds());
+        long userAccessTokenValidityPeriod =
+                TimeUnit.SECONDS.toMillis(configuration.getUserAccessTokenValidityPeriodInSeconds());
+        if (entryValidityPeriod < 0 || refreshTokenValidityPeriod < 0 || userAccessTokenValidityPeriod < 0) {
+            return Long.MAX_VALUE;
+        }
+        return getExpiryTime(Math.max(entryValidityPeriod,
+                Math.max(refreshTokenValidityPeriod, userAccessTokenValidityPeriod)));
+    }
+
+    private long getExpiryTime(long validityPeriodInMillis) {
+
+        long currentTime = System.currentTimeMillis();
+        if (validityPeriodInMillis < 0 || validityPeriodInMillis > Long.MAX_VALUE - currentTime) {
+            return Long.MAX_VALUE;
+        }
+        return currentTime + validityPeriodInMillis;
+    }
+
     /**
      * Retrieve the authorization code id using the authorization code
      * @param authzCode Authorization code
@@ -19,8 +19,13 @@
 package org.wso2.carbon.identity.oauth.cache;
 
 import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.oauth2.dao.AuthorizationGrantCacheEntryCodec;
 import org.wso2.carbon.identity.openidconnect.model.RequestObject;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedHashSet;
@@ -78,6 +83,8 @@ public class AuthorizationGrantCacheEntry extends CacheEntry {
 
     private boolean isRequestObjectFlow;
 
+    private long refreshTokenValidityPeriodInMillis;
+
     public String getSubjectClaim() {
         return subjectClaim;
     }
@@ -285,6 +292,26 @@ public class AuthorizationGrantCacheEntry extends CacheEntry {
         return oidcSessionId;
     }
 
+    /**
+     * Get the validity period of the refresh token issued along with the access token of this entry.
+     *
+     * @return Validity period in milliseconds, or 0 if not known.
+     */
+    public long getRefreshTokenValidityPeriodInMillis() {
+
+        return refreshTokenValidityPeriodInMillis;
+    }
+
+    /**
+     * Set the validity period of the refresh token issued along with the access token of this entry.
+     *
+     * @param refreshTokenValidityPeriodInMillis Validity period in milliseconds.
+     */
+    public void setRefreshTokenValidityPeriodInMillis(long refreshTokenValidityPeriodInMillis) {
+
+        this.refreshTokenValidityPeriodInMillis = refreshTokenValidityPeriodInMillis;
+    }
+
     public void setAuthorizationCode(String code) {
 
         this.authorizationCode = code;
@@ -314,4 +341,49 @@ public class AuthorizationGrantCacheEntry extends CacheEntry {
 
         this.isRequestObjectFlow = isRequestObjectFlow;
     }
+
+    private Object writeReplace() {
+
+        if (CompactSerializationUtil.isCompactSerializationEnabled()) {
+            return new SerializedForm(this);
+        }
+        return this;
+    }
+
+    /**
+     * Compact serialized form of an authorization grant cache entry. Uses the same encoding as the authorization
+     * grant attribute store.
+     */
+    private static final class SerializedForm implements Externalizable {
+
+        private static final long serialVersionUID = -2210594178336029176L;
+
+        private AuthorizationGrantCacheEntry entry;
+
+        public SerializedForm() {
+
+        }
+
+        SerializedForm(AuthorizationGrantCacheEntry entry) {
+
+            this.entry = entry;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+
+            AuthorizationGrantCacheEntryCodec.write(out, entry);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+
+            entry = AuthorizationGrantCacheEntryCodec.read(in);
+        }
+
+        private Object readResolve() {
+
+            return entry;
+        }
+    }
 }
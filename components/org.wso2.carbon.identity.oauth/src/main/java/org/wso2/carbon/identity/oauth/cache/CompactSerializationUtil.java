@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.cache;
+
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Helpers for the compact serialized forms of the cache entries that are replicated across a cluster and persisted
+ * in the session data store: {@code AccessTokenDO}, {@code AuthorizationGrantCacheEntry},
+ * {@code SessionDataCacheEntry}, {@code OAuthAppDO} and {@code UserClaims}.
+ * <p>
+ * When {@code OAuth.CacheSerialization.Compact.Enable} is set, each of those classes replaces itself on serialization
+ * with an {@link java.io.Externalizable} form that writes its fields one by one, prefixed with a version, and resolves
+ * back to the entry on deserialization. Entries serialized before the compact forms were enabled are still read with
+ * the default Java serialization. Every node of a cluster must run a version that knows the compact forms before they
+ * are enabled.
+ * <p>
+ * A field added to one of those classes must also be added to its compact form, behind a new version.
+ */
+public final class CompactSerializationUtil {
+
+    private static final String COMPACT_SERIALIZATION_ENABLE = "OAuth.CacheSerialization.Compact.Enable";
+    private static final int NULL_LENGTH = -1;
+
+    private static volatile Boolean compactSerializationEnabled;
+
+    private CompactSerializationUtil() {
+
+    }
+
+    /**
+     * Check whether cache entries are serialized in their compact forms.
+     *
+     * @return true if the compact forms are enabled.
+     */
+    public static boolean isCompactSerializationEnabled() {
+
+        Boolean enabled = compactSerializationEnabled;
+        if (enabled == null) {
+            enabled = Boolean.parseBoolean(IdentityUtil.getProperty(COMPACT_SERIALIZATION_ENABLE));
+            compactSerializationEnabled = enabled;
+        }
+        return enabled;
+    }
+
+    /**
+     * Read the version of a compact form and check that it can be read by this node.
+     *
+     * @param in               Input.
+     * @param supportedVersion Latest version known to this node.
+     * @param type             Type of the serialized entry, used in the error message.
+     * @return Version of the compact form.
+     * @throws IOException If the version cannot be read or is not supported.
+     */
+    public static byte readVersion(DataInput in, byte supportedVersion, String type) throws IOException {
+
+        byte version = in.readByte();
+        if (version < 1 || version > supportedVersion) {
+            throw new InvalidObjectException("Unsupported version: " + version + " of the compact form of: " + type);
+        }
+        return version;
+    }
+
+    // Strings are length prefixed rather than written with writeUTF, which is limited to 64 KB. Claim values and the
+    // essential claims of a request can exceed that.
+    public static void writeString(DataOutput out, String value) throws IOException {
+
+        if (value == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(DataInput in) throws IOException {
+
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static void writeStringArray(DataOutput out, String[] values) throws IOException {
+
+        if (values == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(values.length);
+        for (String value : values) {
+            writeString(out, value);
+        }
+    }
+
+    public static String[] readStringArray(DataInput in) throws IOException {
+
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        String[] values = new String[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = readString(in);
+        }
+        return values;
+    }
+
+    /**
+     * Write a collection of strings. Elements that are not strings are written as their string representation.
+     *
+     * @param out    Output.
+     * @param values Values, may be null.
+     * @throws IOException If the values cannot be written.
+     */
+    public static void writeStrings(DataOutput out, Collection<?> values) throws IOException {
+
+        if (values == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(values.size());
+        for (Object value : values) {
+            writeString(out, value != null ? value.toString() : null);
+        }
+    }
+
+    /**
+     * Read a collection of strings written with {@link #writeStrings(DataOutput, Collection)}.
+     *
+     * @param in      Input.
+     * @param factory Creates the collection, given the number of elements.
+     * @return Collection of the values, or null if a null collection was written.
+     * @throws IOException If the values cannot be read.
+     */
+    public static <C extends Collection<String>> C readStrings(DataInput in, IntFunction<C> factory)
+            throws IOException {
+
+        int size = in.readInt();
+        if (size == NULL_LENGTH) {
+            return null;
+        }
+        C values = factory.apply(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    public static void writeStringMap(DataOutput out, Map<String, String> values) throws IOException {
+
+        if (values == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(values.size());
+        for (Map.Entry<String, String> value : values.entrySet()) {
+            writeString(out, value.getKey());
+            writeString(out, value.getValue());
+        }
+    }
+
+    public static <M extends Map<String, String>> M readStringMap(DataInput in, IntFunction<M> factory)
+            throws IOException {
+
+        int size = in.readInt();
+        if (size == NULL_LENGTH) {
+            return null;
+        }
+        M values = factory.apply(size);
+        for (int i = 0; i < size; i++) {
+            values.put(readString(in), readString(in));
+        }
+        return values;
+    }
+
+    public static void writeTimestamp(DataOutput out, Timestamp timestamp) throws IOException {
+
+        out.writeBoolean(timestamp != null);
+        if (timestamp != null) {
+            out.writeLong(timestamp.getTime());
+            out.writeInt(timestamp.getNanos());
+        }
+    }
+
+    public static Timestamp readTimestamp(DataInput in) throws IOException {
+
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Timestamp timestamp = new Timestamp(in.readLong());
+        timestamp.setNanos(in.readInt());
+        return timestamp;
+    }
+}
@@ -25,6 +25,7 @@ import org.wso2.carbon.identity.application.authentication.framework.cache.Authe
 import org.wso2.carbon.identity.core.cache.AbstractCacheListener;
 import org.wso2.carbon.identity.oauth.listener.OAuthCacheRemoveListener;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
 import org.wso2.carbon.utils.CarbonUtils;
 
 import java.util.ArrayList;
@@ -109,6 +110,7 @@ public class OAuthCache extends AuthenticationBaseCache<OAuthCacheKey, CacheEntr
         } else {
             cacheEntry = super.getValueFromCache(key);
         }
+        TokenIssuanceMetrics.countCacheLookup(cacheEntry != null);
         if (LOG.isDebugEnabled() && cacheEntry != null) {
             LOG.debug("Successfully retrieved cache entry from OauthCache for tenant domain: " + tenantDomain);
         }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.cache;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.identity.application.authentication.framework.cache.AuthenticationBaseCache;
+import org.wso2.carbon.utils.CarbonUtils;
+
+/**
+ * Caches the validation data of the latest active token issued for a refresh token, so that a refresh grant does
+ * not need to read the token tables before issuing the new token. Entries are only a hint. The refresh grant
+ * handler invalidates the previous token with a state guarded update and falls back to the database validation if
+ * the cached token is no longer active.
+ */
+public class RefreshTokenValidationCache
+        extends AuthenticationBaseCache<RefreshTokenValidationCacheKey, RefreshTokenValidationCacheEntry> {
+
+    private static final String REFRESH_TOKEN_VALIDATION_CACHE_NAME = "RefreshTokenValidationCache";
+
+    private static volatile RefreshTokenValidationCache instance;
+
+    private RefreshTokenValidationCache() {
+
+        super(REFRESH_TOKEN_VALIDATION_CACHE_NAME);
+    }
+
+    public static RefreshTokenValidationCache getInstance() {
+
+        CarbonUtils.checkSecurity();
+        if (instance == null) {
+            synchronized (RefreshTokenValidationCache.class) {
+                if (instance == null) {
+                    instance = new RefreshTokenValidationCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Remove the cached validation data of a refresh token.
+     *
+     * @param clientId     Client id the refresh token is issued to.
+     * @param refreshToken Refresh token.
+     */
+    public void clearCacheEntry(String clientId, String refreshToken) {
+
+        if (StringUtils.isNotBlank(clientId) && StringUtils.isNotBlank(refreshToken)) {
+            super.clearCacheEntry(new RefreshTokenValidationCacheKey(clientId, refreshToken));
+        }
+    }
+}
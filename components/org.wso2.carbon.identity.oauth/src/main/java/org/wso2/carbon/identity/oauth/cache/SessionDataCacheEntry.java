@@ -22,12 +22,27 @@ import org.wso2.carbon.identity.application.authentication.framework.model.Authe
 import org.wso2.carbon.identity.oauth2.authz.OAuthAuthzReqMessageContext;
 import org.wso2.carbon.identity.oauth2.model.OAuth2Parameters;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readString;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readStringArray;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readStrings;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readVersion;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeString;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeStringArray;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeStrings;
+
 /**
  * Session data cache entry.
  */
@@ -136,4 +151,173 @@ public class SessionDataCacheEntry extends CacheEntry {
 
         this.sessionContextIdentifier = sessionContextIdentifier;
     }
+
+    private Object writeReplace() {
+
+        if (CompactSerializationUtil.isCompactSerializationEnabled()) {
+            return new SerializedForm(this);
+        }
+        return this;
+    }
+
+    /**
+     * Compact serialized form of a session data cache entry. The authenticated user, the authorization request
+     * message context and the endpoint parameters are still written with Java serialization.
+     */
+    private static final class SerializedForm implements Externalizable {
+
+        private static final long serialVersionUID = 6931467206310722035L;
+        private static final byte VERSION = 1;
+
+        private SessionDataCacheEntry entry;
+
+        public SerializedForm() {
+
+        }
+
+        SerializedForm(SessionDataCacheEntry entry) {
+
+            this.entry = entry;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+
+            out.writeByte(VERSION);
+            out.writeLong(entry.getValidityPeriod());
+            out.writeLong(entry.authTime);
+            writeString(out, entry.authenticatedIdPs);
+            writeString(out, entry.essentialClaims);
+            writeString(out, entry.sessionContextIdentifier);
+            writeString(out, entry.queryString);
+            writeParamMap(out, entry.paramMap);
+            writeOAuth2Parameters(out, entry.oAuth2Parameters);
+            out.writeObject(entry.loggedInUser);
+            out.writeObject(entry.authzReqMsgCtx);
+            out.writeInt(entry.endpointParams.size());
+            for (Map.Entry<String, Serializable> endpointParam : entry.endpointParams.entrySet()) {
+                writeString(out, endpointParam.getKey());
+                out.writeObject(endpointParam.getValue());
+            }
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+
+            readVersion(in, VERSION, SessionDataCacheEntry.class.getName());
+            SessionDataCacheEntry sessionDataCacheEntry = new SessionDataCacheEntry();
+            sessionDataCacheEntry.setValidityPeriod(in.readLong());
+            sessionDataCacheEntry.authTime = in.readLong();
+            sessionDataCacheEntry.authenticatedIdPs = readString(in);
+            sessionDataCacheEntry.essentialClaims = readString(in);
+            sessionDataCacheEntry.sessionContextIdentifier = readString(in);
+            sessionDataCacheEntry.queryString = readString(in);
+            sessionDataCacheEntry.paramMap = readParamMap(in);
+            sessionDataCacheEntry.oAuth2Parameters = readOAuth2Parameters(in);
+            sessionDataCacheEntry.loggedInUser = (AuthenticatedUser) in.readObject();
+            sessionDataCacheEntry.authzReqMsgCtx = (OAuthAuthzReqMessageContext) in.readObject();
+            int endpointParamCount = in.readInt();
+            for (int i = 0; i < endpointParamCount; i++) {
+                sessionDataCacheEntry.endpointParams.put(readString(in), (Serializable) in.readObject());
+            }
+            entry = sessionDataCacheEntry;
+        }
+
+        private Object readResolve() {
+
+            return entry;
+        }
+
+        private static void writeParamMap(DataOutput out, ConcurrentMap<String, String[]> paramMap)
+                throws IOException {
+
+            if (paramMap == null) {
+                out.writeInt(-1);
+                return;
+            }
+            out.writeInt(paramMap.size());
+            for (Map.Entry<String, String[]> param : paramMap.entrySet()) {
+                writeString(out, param.getKey());
+                writeStringArray(out, param.getValue());
+            }
+        }
+
+        private static ConcurrentMap<String, String[]> readParamMap(DataInput in) throws IOException {
+
+            int size = in.readInt();
+            if (size < 0) {
+                return null;
+            }
+            ConcurrentMap<String, String[]> paramMap = new ConcurrentHashMap<>();
+            for (int i = 0; i < size; i++) {
+                paramMap.put(readString(in), readStringArray(in));
+            }
+            return paramMap;
+        }
+
+        private static void writeOAuth2Parameters(DataOutput out, OAuth2Parameters parameters) throws IOException {
+
+            out.writeBoolean(parameters != null);
+            if (parameters == null) {
+                return;
+            }
+            out.writeBoolean(parameters.isRequestObjectFlow());
+            writeString(out, parameters.getApplicationName());
+            writeString(out, parameters.getRedirectURI());
+            writeStrings(out, parameters.getScopes());
+            writeStrings(out, parameters.getConsentRequiredScopes());
+            writeString(out, parameters.getState());
+            writeString(out, parameters.getResponseType());
+            writeString(out, parameters.getClientId());
+            writeString(out, parameters.getNonce());
+            writeString(out, parameters.getDisplay());
+            writeString(out, parameters.getPrompt());
+            writeString(out, parameters.getIDTokenHint());
+            writeString(out, parameters.getLoginHint());
+            writeString(out, parameters.getPkceCodeChallenge());
+            writeString(out, parameters.getPkceCodeChallengeMethod());
+            writeStrings(out, parameters.getACRValues());
+            writeString(out, parameters.getTenantDomain());
+            out.writeLong(parameters.getAuthTime());
+            out.writeLong(parameters.getMaxAge());
+            writeString(out, parameters.getResponseMode());
+            writeString(out, parameters.getEssentialClaims());
+            writeString(out, parameters.getDisplayName());
+            writeString(out, parameters.getSessionDataKey());
+            writeString(out, parameters.getLoginTenantDomain());
+        }
+
+        private static OAuth2Parameters readOAuth2Parameters(DataInput in) throws IOException {
+
+            if (!in.readBoolean()) {
+                return null;
+            }
+            OAuth2Parameters parameters = new OAuth2Parameters();
+            parameters.setRequestObjectFlow(in.readBoolean());
+            parameters.setApplicationName(readString(in));
+            parameters.setRedirectURI(readString(in));
+            parameters.setScopes(readStrings(in, LinkedHashSet::new));
+            parameters.setConsentRequiredScopes(readStrings(in, LinkedHashSet::new));
+            parameters.setState(readString(in));
+            parameters.setResponseType(readString(in));
+            parameters.setClientId(readString(in));
+            parameters.setNonce(readString(in));
+            parameters.setDisplay(readString(in));
+            parameters.setPrompt(readString(in));
+            parameters.setIDTokenHint(readString(in));
+            parameters.setLoginHint(readString(in));
+            parameters.setPkceCodeChallenge(readString(in));
+            parameters.setPkceCodeChallengeMethod(readString(in));
+            parameters.setACRValues(readStrings(in, LinkedHashSet::new));
+            parameters.setTenantDomain(readString(in));
+            parameters.setAuthTime(in.readLong());
+            parameters.setMaxAge(in.readLong());
+            parameters.setResponseMode(readString(in));
+            parameters.setEssentialClaims(readString(in));
+            parameters.setDisplayName(readString(in));
+            parameters.setSessionDataKey(readString(in));
+            parameters.setLoginTenantDomain(readString(in));
+            return parameters;
+        }
+    }
 }
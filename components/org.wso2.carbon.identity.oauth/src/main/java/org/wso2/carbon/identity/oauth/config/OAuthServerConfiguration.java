@@ -19,6 +19,7 @@
 package org.wso2.carbon.identity.oauth.config;
 
 import org.apache.axiom.om.OMElement;
+import org.apache.axiom.om.impl.builder.StAXOMBuilder;
 import org.apache.axis2.util.JavaUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -66,6 +67,10 @@ import org.wso2.carbon.identity.openidconnect.RequestObjectValidator;
 import org.wso2.carbon.identity.openidconnect.RequestObjectValidatorImpl;
 import org.wso2.carbon.utils.CarbonUtils;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
@@ -79,17 +84,27 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 /**
  * Runtime representation of the OAuth Configuration as configured through
  * identity.xml
+ * <p>
+ * An instance is a snapshot of the configuration. {@link #reload()} compiles a new snapshot, instantiating every
+ * configured handler up front, and swaps it in atomically; callers that look the configuration up through
+ * {@link #getInstance()} per request see either the previous or the new snapshot, never a mix of both. Components
+ * that keep values beyond a request refresh them through an {@link OAuthServerConfigurationListener}.
  */
 public class OAuthServerConfiguration {
 
     private static final String CONFIG_ELEM_OAUTH = "OAuth";
+    private static final String IDENTITY_CONFIG_FILE = "identity.xml";
     // Grant Handler Classes
     private static final String AUTHORIZATION_CODE_GRANT_HANDLER_CLASS =
             "org.wso2.carbon.identity.oauth2.token.handlers.grant.AuthorizationCodeGrantHandler";
@@ -112,24 +127,30 @@ public class OAuthServerConfiguration {
     private static final String JWT_TOKEN_ISSUER_CLASS =
             "org.wso2.carbon.identity.oauth2.token.JWTTokenIssuer";
     private static final String REQUEST_PARAM_VALUE_BUILDER = "request_param_value_builder";
+    private static final int DEFAULT_TOKEN_ENDPOINT_BULKHEAD_QUEUE_SIZE = 100;
     private static final Log log = LogFactory.getLog(OAuthServerConfiguration.class);
-    private static OAuthServerConfiguration instance;
-    private static String oauth1RequestTokenUrl = null;
-    private static String oauth1AuthorizeUrl = null;
-    private static String oauth1AccessTokenUrl = null;
-    private static String oauth2AuthzEPUrl = null;
-    private static String oauth2TokenEPUrl = null;
-    private static String oauth2UserInfoEPUrl = null;
-    private static String oauth2RevocationEPUrl = null;
-    private static String oauth2IntrospectionEPUrl = null;
-    private static String oidcConsentPageUrl = null;
-    private static String oauth2DCREPUrl = null;
-    private static String oauth2JWKSPageUrl = null;
-    private static String oidcWebFingerEPUrl = null;
-    private static String oidcDiscoveryUrl = null;
-    private static String oauth2ConsentPageUrl = null;
-    private static String oauth2ErrorPageUrl = null;
-    private static boolean isOAuthResponseJspPageAvailable = false;
+    private static volatile OAuthServerConfiguration instance;
+    // Set while reload() compiles a new configuration. Handlers instantiated while compiling look the configuration
+    // up through getInstance(), hence the compiling thread is served the configuration under compilation.
+    private static volatile boolean compiling;
+    private static final ThreadLocal<OAuthServerConfiguration> compilingConfiguration = new ThreadLocal<>();
+    private static final List<OAuthServerConfigurationListener> listeners = new CopyOnWriteArrayList<>();
+    private String oauth1RequestTokenUrl = null;
+    private String oauth1AuthorizeUrl = null;
+    private String oauth1AccessTokenUrl = null;
+    private String oauth2AuthzEPUrl = null;
+    private String oauth2TokenEPUrl = null;
+    private String oauth2UserInfoEPUrl = null;
+    private String oauth2RevocationEPUrl = null;
+    private String oauth2IntrospectionEPUrl = null;
+    private String oidcConsentPageUrl = null;
+    private String oauth2DCREPUrl = null;
+    private String oauth2JWKSPageUrl = null;
+    private String oidcWebFingerEPUrl = null;
+    private String oidcDiscoveryUrl = null;
+    private String oauth2ConsentPageUrl = null;
+    private String oauth2ErrorPageUrl = null;
+    private boolean isOAuthResponseJspPageAvailable = false;
     private long authorizationCodeValidityPeriodInSeconds = 300;
     private long userAccessTokenValidityPeriodInSeconds = 3600;
     private long applicationAccessTokenValidityPeriodInSeconds = 3600;
@@ -138,13 +159,13 @@ public class OAuthServerConfiguration {
     private String tokenPersistenceProcessorClassName =
             "org.wso2.carbon.identity.oauth.tokenprocessor.PlainTextPersistenceProcessor";
     private String oauthTokenGeneratorClassName;
-    private OAuthIssuer oauthTokenGenerator;
+    private volatile OAuthIssuer oauthTokenGenerator;
     private String oauthIdentityTokenGeneratorClassName;
     private String clientIdValidationRegex = "[a-zA-Z0-9_]{15,30}";
     private String persistAccessTokenAlias;
     private String retainOldAccessTokens;
     private String tokenCleanupFeatureEnable;
-    private OauthTokenIssuer oauthIdentityTokenGenerator;
+    private volatile OauthTokenIssuer oauthIdentityTokenGenerator;
     private boolean scopeValidationConfigValue = true;
     private boolean cacheEnabled = false;
     private boolean isTokenRenewalPerRequestEnabled = false;
@@ -155,21 +176,23 @@ public class OAuthServerConfiguration {
     private boolean redirectToRequestedRedirectUriEnabled = true;
     private boolean allowCrossTenantIntrospection = true;
     private String accessTokenPartitioningDomains = null;
-    private TokenPersistenceProcessor persistenceProcessor = null;
+    private volatile TokenPersistenceProcessor persistenceProcessor = null;
     private Set<OAuthCallbackHandlerMetaData> callbackHandlerMetaData = new HashSet<>();
     private Map<String, String> supportedGrantTypeClassNames = new HashMap<>();
     private Map<String, Boolean> refreshTokenAllowedGrantTypes = new HashMap<>();
     private Map<String, String> idTokenAllowedForGrantTypesMap = new HashMap<>();
     private Set<String> idTokenNotAllowedGrantTypesSet = new HashSet<>();
+    private Map<String, Integer> tokenEndpointBulkheadPoolSizes = new HashMap<>();
+    private Map<String, Integer> tokenEndpointBulkheadQueueSizes = new HashMap<>();
     private Set<String> userConsentEnabledGrantTypes = new HashSet<>();
-    private Map<String, AuthorizationGrantHandler> supportedGrantTypes;
-    private Map<String, RequestObjectBuilder> requestObjectBuilder;
+    private volatile Map<String, AuthorizationGrantHandler> supportedGrantTypes;
+    private volatile Map<String, RequestObjectBuilder> requestObjectBuilder;
     private Map<String, String> supportedGrantTypeValidatorNames = new HashMap<>();
-    private Map<String, Class<? extends OAuthValidator<HttpServletRequest>>> supportedGrantTypeValidators;
+    private volatile Map<String, Class<? extends OAuthValidator<HttpServletRequest>>> supportedGrantTypeValidators;
     private Map<String, String> supportedResponseTypeClassNames = new HashMap<>();
-    private Map<String, ResponseTypeHandler> supportedResponseTypes;
+    private volatile Map<String, ResponseTypeHandler> supportedResponseTypes;
     private Map<String, String> supportedResponseTypeValidatorNames = new HashMap<>();
-    private Map<String, Class<? extends OAuthValidator<HttpServletRequest>>> supportedResponseTypeValidators;
+    private volatile Map<String, Class<? extends OAuthValidator<HttpServletRequest>>> supportedResponseTypeValidators;
     private Map<String, TokenIssuerDO> supportedTokenIssuers = new HashMap<>();
     private List<String> supportedTokenTypes = new ArrayList<>();
     private Map<String, OauthTokenIssuer> oauthTokenIssuerMap = new HashMap<>();
@@ -181,7 +204,7 @@ public class OAuthServerConfiguration {
     private String saml2BearerTokenUserType;
     private boolean saml2UserIdFromClaims = false;
     private boolean mapFederatedUsersToLocal = false;
-    private SAML2TokenCallbackHandler saml2TokenCallbackHandler = null;
+    private volatile SAML2TokenCallbackHandler saml2TokenCallbackHandler = null;
     private Map<String, String> tokenValidatorClassNames = new HashMap();
     private boolean isAuthContextTokGenEnabled = false;
     private String tokenGeneratorImplClass = "org.wso2.carbon.identity.oauth2.token.JWTTokenGenerator";
@@ -216,11 +239,11 @@ public class OAuthServerConfiguration {
     public static final String DEFAULT_OAUTH_AUTHZ_REQUEST_CLASSNAME = CarbonOAuthAuthzRequest.class.getName();
     private String openIDConnectIDTokenCustomClaimsHanlderClassName =
             "org.wso2.carbon.identity.openidconnect.SAMLAssertionClaimsCallback";
-    private IDTokenBuilder openIDConnectIDTokenBuilder = null;
+    private volatile IDTokenBuilder openIDConnectIDTokenBuilder = null;
     private Map<String, String> requestObjectBuilderClassNames = new HashMap<>();
     private volatile RequestObjectValidator requestObjectValidator = null;
     private volatile RequestObjectValidator cibaRequestObjectValidator = null;
-    private CustomClaimsCallbackHandler openidConnectIDTokenCustomClaimsCallbackHandler = null;
+    private volatile CustomClaimsCallbackHandler openidConnectIDTokenCustomClaimsCallbackHandler = null;
     private String openIDConnectIDTokenIssuerIdentifier = null;
     private String openIDConnectIDTokenSubClaim = "http://wso2.org/claims/fullname";
     private Boolean openIDConnectSkipUserConsent = true;
@@ -264,7 +287,7 @@ public class OAuthServerConfiguration {
     private boolean useSPTenantDomainValue;
 
     // Property added to customize the token valued generation method. (IDENTITY-6139)
-    private ValueGenerator tokenValueGenerator;
+    private volatile ValueGenerator tokenValueGenerator;
 
     private String tokenValueGeneratorClassName;
     //property to define hashing algorithm when enabling hashing of tokens and authorization codes.
@@ -294,25 +317,152 @@ public class OAuthServerConfiguration {
     private String deviceAuthzEPUrl = null;
 
     private OAuthServerConfiguration() {
-        buildOAuthServerConfiguration();
+        this(IdentityConfigParser.getInstance().getConfigElement(CONFIG_ELEM_OAUTH));
+    }
+
+    private OAuthServerConfiguration(OMElement oauthElem) {
+        buildOAuthServerConfiguration(oauthElem);
     }
 
     public static OAuthServerConfiguration getInstance() {
         CarbonUtils.checkSecurity();
-        if (instance == null) {
+        if (compiling) {
+            OAuthServerConfiguration configuration = compilingConfiguration.get();
+            if (configuration != null) {
+                return configuration;
+            }
+        }
+        OAuthServerConfiguration configuration = instance;
+        if (configuration == null) {
             synchronized (OAuthServerConfiguration.class) {
                 if (instance == null) {
                     instance = new OAuthServerConfiguration();
                 }
+                configuration = instance;
             }
         }
-        return instance;
+        return configuration;
     }
 
-    private void buildOAuthServerConfiguration() {
+    /**
+     * Reload the configuration from the OAuth element of identity.xml. The file is parsed again, hence changes made
+     * to it since the server started are picked up.
+     *
+     * @return Configuration in effect after the reload.
+     * @throws IdentityOAuth2Exception If identity.xml cannot be read or the new configuration cannot be compiled.
+     *                                 The previous configuration stays in effect.
+     */
+    public static OAuthServerConfiguration reload() throws IdentityOAuth2Exception {
+
+        return reload(readOAuthConfigElement());
+    }
 
-        IdentityConfigParser configParser = IdentityConfigParser.getInstance();
-        OMElement oauthElem = configParser.getConfigElement(CONFIG_ELEM_OAUTH);
+    /**
+     * Compile a new configuration from the given OAuth configuration element and swap it in. Every configured
+     * handler of the new configuration is instantiated before the swap, and the listeners are notified after it.
+     *
+     * @param oauthConfigElem OAuth element of identity.xml.
+     * @return Configuration in effect after the reload.
+     * @throws IdentityOAuth2Exception If the new configuration cannot be compiled. The previous configuration stays
+     *                                 in effect.
+     */
+    public static OAuthServerConfiguration reload(OMElement oauthConfigElem) throws IdentityOAuth2Exception {
+
+        CarbonUtils.checkSecurity();
+        synchronized (OAuthServerConfiguration.class) {
+            OAuthServerConfiguration configuration;
+            compiling = true;
+            try {
+                configuration = new OAuthServerConfiguration(oauthConfigElem);
+                compilingConfiguration.set(configuration);
+                configuration.compileHandlers();
+                configuration.populateOAuthTokenIssuerMap();
+            } finally {
+                compilingConfiguration.remove();
+                compiling = false;
+            }
+            OAuthServerConfiguration previousConfiguration = instance;
+            instance = configuration;
+            // Listeners are notified while holding the lock so that they observe the reloads in order.
+            for (OAuthServerConfigurationListener listener : listeners) {
+                try {
+                    listener.onReload(previousConfiguration, configuration);
+                } catch (RuntimeException e) {
+                    log.error("Error while notifying the listener: " + listener.getClass().getName() +
+                            " of the OAuth server configuration reload.", e);
+                }
+            }
+            log.info("OAuth server configuration reloaded.");
+            return configuration;
+        }
+    }
+
+    private static OMElement readOAuthConfigElement() throws IdentityOAuth2Exception {
+
+        File configFile = Paths.get(IdentityUtil.getIdentityConfigDirPath(), IDENTITY_CONFIG_FILE).toFile();
+        XMLStreamReader parser = null;
+        try (InputStream stream = new FileInputStream(configFile)) {
+            parser = XMLInputFactory.newInstance().createXMLStreamReader(stream);
+            OMElement documentElement = new StAXOMBuilder(parser).getDocumentElement();
+            // The builder is lazy. Build the whole tree before the stream is closed.
+            documentElement.build();
+            OMElement oauthConfigElem = documentElement.getFirstChildWithName(
+                    new QName(IdentityCoreConstants.IDENTITY_DEFAULT_NAMESPACE, CONFIG_ELEM_OAUTH));
+            if (oauthConfigElem == null) {
+                throw new IdentityOAuth2Exception("OAuth element is not available in: " + configFile.getPath());
+            }
+            return oauthConfigElem;
+        } catch (IOException | XMLStreamException e) {
+            throw new IdentityOAuth2Exception("Error while reading the OAuth configuration from: " +
+                    configFile.getPath(), e);
+        } finally {
+            if (parser != null) {
+                try {
+                    parser.close();
+                } catch (XMLStreamException e) {
+                    log.error("Error while closing XML stream", e);
+                }
+            }
+        }
+    }
+
+    public static void addListener(OAuthServerConfigurationListener listener) {
+
+        listeners.add(listener);
+    }
+
+    public static void removeListener(OAuthServerConfigurationListener listener) {
+
+        listeners.remove(listener);
+    }
+
+    /**
+     * Instantiate every configured handler, so that looking them up on the request path is a plain field read.
+     * Called by {@link #reload(OMElement)}, and for the configuration loaded at startup once the OAuth2 component is
+     * activated, as handler init() can depend on OSGi services. Handlers looked up before that are instantiated on
+     * first use.
+     *
+     * @throws IdentityOAuth2Exception If the token persistence processor cannot be instantiated.
+     */
+    public void compileHandlers() throws IdentityOAuth2Exception {
+
+        getTokenValueGenerator();
+        getOAuthTokenGenerator();
+        getIdentityOauthTokenIssuer();
+        getPersistenceProcessor();
+        getSupportedGrantTypes();
+        getSupportedGrantTypeValidators();
+        getSupportedResponseTypes();
+        getSupportedResponseTypeValidators();
+        getRequestObjectBuilders();
+        getRequestObjectValidator();
+        getCIBARequestObjectValidator();
+        getSAML2TokenCallbackHandler();
+        getOpenIDConnectIDTokenBuilder();
+        getOpenIDConnectCustomClaimsCallbackHandler();
+    }
+
+    private void buildOAuthServerConfiguration(OMElement oauthElem) {
 
         if (oauthElem == null) {
             warnOnFaultyConfiguration("OAuth element is not available.");
@@ -1194,6 +1344,27 @@ public class OAuthServerConfiguration {
         return idTokenNotAllowedGrantTypesSet;
     }
 
+    /**
+     * Get the number of threads dedicated to the token requests of each grant type which has a token endpoint
+     * bulkhead configured. Token requests of the other grant types are processed on the container thread.
+     *
+     * @return Map of grant type to bulkhead pool size.
+     */
+    public Map<String, Integer> getTokenEndpointBulkheadPoolSizes() {
+
+        return tokenEndpointBulkheadPoolSizes;
+    }
+
+    /**
+     * Get the maximum number of token requests of each grant type which may wait for a bulkhead thread.
+     *
+     * @return Map of grant type to bulkhead queue size.
+     */
+    public Map<String, Integer> getTokenEndpointBulkheadQueueSizes() {
+
+        return tokenEndpointBulkheadQueueSizes;
+    }
+
     public boolean isRedirectToRequestedRedirectUriEnabled() {
 
         return redirectToRequestedRedirectUriEnabled;
@@ -2214,6 +2385,10 @@ public class OAuthServerConfiguration {
                     idTokenAllowed = idTokenAllowedElement.getText();
                 }
 
+                if (StringUtils.isNotEmpty(grantTypeName)) {
+                    parseTokenEndpointBulkheadConfig(supportedGrantTypeElement, grantTypeName);
+                }
+
                 if (StringUtils.isNotEmpty(grantTypeName) && StringUtils.isNotEmpty(idTokenAllowed)) {
                     idTokenAllowedForGrantTypesMap.put(grantTypeName, idTokenAllowed);
 
@@ -2271,6 +2446,51 @@ public class OAuthServerConfiguration {
         }
     }
 
+    /**
+     * Parse the token endpoint bulkhead of a grant type. The token requests of the grant type are processed by a
+     * dedicated bounded pool of threads, so that a slow grant (e.g. a password grant waiting on a user store) cannot
+     * exhaust the container threads serving the other grant types.
+     *
+     * @param supportedGrantTypeElement SupportedGrantType element.
+     * @param grantTypeName             Name of the grant type.
+     */
+    private void parseTokenEndpointBulkheadConfig(OMElement supportedGrantTypeElement, String grantTypeName) {
+
+        OMElement bulkheadElem = supportedGrantTypeElement
+                .getFirstChildWithName(getQNameWithIdentityNS(ConfigElements.TOKEN_ENDPOINT_BULKHEAD));
+        if (bulkheadElem == null) {
+            return;
+        }
+        int poolSize = parseBulkheadSize(bulkheadElem, ConfigElements.TOKEN_ENDPOINT_BULKHEAD_POOL_SIZE,
+                grantTypeName);
+        if (poolSize <= 0) {
+            log.warn("Bulkhead of grant type: " + grantTypeName + " does not define a valid " +
+                    ConfigElements.TOKEN_ENDPOINT_BULKHEAD_POOL_SIZE + ". Token requests of the grant type will be " +
+                    "processed without a bulkhead.");
+            return;
+        }
+        int queueSize = parseBulkheadSize(bulkheadElem, ConfigElements.TOKEN_ENDPOINT_BULKHEAD_QUEUE_SIZE,
+                grantTypeName);
+        tokenEndpointBulkheadPoolSizes.put(grantTypeName, poolSize);
+        tokenEndpointBulkheadQueueSizes.put(grantTypeName,
+                queueSize > 0 ? queueSize : DEFAULT_TOKEN_ENDPOINT_BULKHEAD_QUEUE_SIZE);
+    }
+
+    private int parseBulkheadSize(OMElement bulkheadElem, String elementName, String grantTypeName) {
+
+        OMElement sizeElem = bulkheadElem.getFirstChildWithName(getQNameWithIdentityNS(elementName));
+        if (sizeElem == null || StringUtils.isBlank(sizeElem.getText())) {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(sizeElem.getText().trim());
+        } catch (NumberFormatException e) {
+            log.error("Provided value for " + elementName + " of grant type: " + grantTypeName + " should be a " +
+                    "positive number. Value : " + sizeElem.getText());
+            return 0;
+        }
+    }
+
     private void parseSupportedTokenTypesConfig(OMElement oauthConfigElem) {
 
         OMElement supportedTokenTypesElem = oauthConfigElem
@@ -3224,7 +3444,7 @@ public class OAuthServerConfiguration {
         return allowCrossTenantIntrospection;
     }
 
-    private static void setOAuthResponseJspPageAvailable() {
+    private void setOAuthResponseJspPageAvailable() {
 
         java.nio.file.Path path = Paths.get(CarbonUtils.getCarbonHome(), "repository", "deployment",
                 "server", "webapps", "authenticationendpoint", "oauth_response.jsp");
@@ -3395,6 +3615,9 @@ public class OAuthServerConfiguration {
         private static final String SUPPORTED_GRANT_TYPES = "SupportedGrantTypes";
         private static final String SUPPORTED_GRANT_TYPE = "SupportedGrantType";
         private static final String GRANT_TYPE_NAME = "GrantTypeName";
+        private static final String TOKEN_ENDPOINT_BULKHEAD = "Bulkhead";
+        private static final String TOKEN_ENDPOINT_BULKHEAD_POOL_SIZE = "PoolSize";
+        private static final String TOKEN_ENDPOINT_BULKHEAD_QUEUE_SIZE = "QueueSize";
 
         //Supported Token Types
         private static final String SUPPORTED_TOKEN_TYPES = "SupportedTokenTypes";
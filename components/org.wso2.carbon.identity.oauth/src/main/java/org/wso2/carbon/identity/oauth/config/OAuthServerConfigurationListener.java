@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.config;
+
+/**
+ * Listener notified when the OAuth server configuration is reloaded. Components that keep values or handlers read
+ * from {@link OAuthServerConfiguration} beyond a single request should refresh them from the new configuration.
+ * <p>
+ * Listeners are registered as OSGi services, or through {@link OAuthServerConfiguration#addListener}. They are
+ * invoked in registration order on the thread performing the reload, hence implementations should only swap the
+ * values and return.
+ */
+public interface OAuthServerConfigurationListener {
+
+    /**
+     * Invoked once the new configuration is in effect.
+     *
+     * @param previousConfiguration Configuration that has been replaced. Null if no configuration was loaded.
+     * @param configuration         Configuration in effect.
+     */
+    void onReload(OAuthServerConfiguration previousConfiguration, OAuthServerConfiguration configuration);
+}
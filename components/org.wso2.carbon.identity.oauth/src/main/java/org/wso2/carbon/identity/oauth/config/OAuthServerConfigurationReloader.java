@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.config;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Exposes {@link OAuthServerConfiguration#reload()} over JMX, so that changes made to identity.xml can be applied
+ * without restarting the server. Registered while the OAuth2 component is active.
+ */
+public class OAuthServerConfigurationReloader implements OAuthServerConfigurationReloaderMXBean {
+
+    private static final Log log = LogFactory.getLog(OAuthServerConfigurationReloader.class);
+    private static final String OBJECT_NAME = "org.wso2.carbon.identity.oauth2:type=OAuthServerConfiguration";
+
+    private volatile long lastReloadTime;
+
+    @Override
+    public void reload() {
+
+        try {
+            OAuthServerConfiguration.reload();
+            lastReloadTime = System.currentTimeMillis();
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while reloading the OAuth server configuration.", e);
+            // Only the message is passed on, as the JMX client may not have the exception classes.
+            throw new IllegalStateException("OAuth server configuration is not reloaded. " + e.getMessage());
+        }
+    }
+
+    @Override
+    public long getLastReloadTime() {
+
+        return lastReloadTime;
+    }
+
+    /**
+     * Register the reload operation with the platform MBean server.
+     */
+    public static void register() {
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(new OAuthServerConfigurationReloader(), objectName);
+        } catch (JMException e) {
+            log.error("Error while registering the OAuth server configuration MBean: " + OBJECT_NAME, e);
+        }
+    }
+
+    /**
+     * Unregister the reload operation from the platform MBean server.
+     */
+    public static void unregister() {
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            log.error("Error while unregistering the OAuth server configuration MBean: " + OBJECT_NAME, e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth.config;
+
+/**
+ * JMX operations of the OAuth server configuration.
+ */
+public interface OAuthServerConfigurationReloaderMXBean {
+
+    /**
+     * Parse identity.xml again and swap in the OAuth server configuration built from it. The previous configuration
+     * stays in effect if the new one cannot be built.
+     */
+    void reload();
+
+    /**
+     * Get the time of the last successful reload.
+     *
+     * @return Milliseconds since the epoch. 0 if the configuration has not been reloaded.
+     */
+    long getLastReloadTime();
+}
@@ -43,8 +43,12 @@ import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
 import org.wso2.carbon.identity.oauth.tokenprocessor.PlainTextPersistenceProcessor;
 import org.wso2.carbon.identity.oauth.tokenprocessor.TokenPersistenceProcessor;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.cache.VerifiedClientSecretCache;
+import org.wso2.carbon.identity.oauth2.dao.routing.DBConnectionRouter;
+import org.wso2.carbon.identity.oauth2.dao.routing.RoutedDataType;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
 import org.wso2.carbon.user.api.UserStoreException;
 import org.wso2.carbon.user.core.service.RealmService;
 import org.wso2.carbon.user.core.util.UserCoreUtil;
@@ -92,22 +96,10 @@ public class OAuthAppDAO {
     private static final String LOWER_USERNAME = "LOWER(USERNAME)";
     private static final String CONSUMER_KEY_CONSTRAINT = "CONSUMER_KEY_CONSTRAINT";
 
-    private TokenPersistenceProcessor persistenceProcessor;
-    private boolean isHashDisabled = OAuth2Util.isHashDisabled();
-
-    public OAuthAppDAO() {
-
-        try {
-            persistenceProcessor = OAuthServerConfiguration.getInstance().getPersistenceProcessor();
-        } catch (IdentityOAuth2Exception e) {
-            LOG.error("Error retrieving TokenPersistenceProcessor. Defaulting to PlainTextPersistenceProcessor");
-            persistenceProcessor = new PlainTextPersistenceProcessor();
-        }
-
-    }
-
     public void addOAuthApplication(OAuthAppDO consumerAppDO) throws IdentityOAuthAdminException {
 
+        TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
+
         AuthenticatedUser appOwner = consumerAppDO.getAppOwner();
         String tenantDomain = CarbonContext.getThreadLocalCarbonContext().getTenantDomain();
         int spTenantId = IdentityTenantUtil.getTenantId(tenantDomain);
@@ -241,6 +233,36 @@ public class OAuthAppDAO {
     }
 
     public OAuthAppDO[] getOAuthConsumerAppsOfUser(String username, int tenantId) throws IdentityOAuthAdminException {
+
+        return listOAuthConsumerAppsOfUser(username, tenantId, null, 0);
+    }
+
+    /**
+     * Get a page of OAuth applications owned by the given user, ordered by consumer key. Pages are navigated with the
+     * consumer key of the last application of the previous page so that each page is read with a single indexed
+     * query, independent of how many applications precede it.
+     *
+     * @param username         Username of the application owner.
+     * @param tenantId         Tenant id of the user.
+     * @param afterConsumerKey Consumer key of the last application of the previous page, or null for the first page.
+     * @param limit            Maximum number of applications to return.
+     * @return OAuth applications of the user.
+     * @throws IdentityOAuthAdminException Error when reading the applications from the database.
+     */
+    public OAuthAppDO[] getOAuthConsumerAppsOfUser(String username, int tenantId, String afterConsumerKey, int limit)
+            throws IdentityOAuthAdminException {
+
+        if (limit <= 0) {
+            throw handleError("Limit of OAuth consumer apps should be a positive number. Value : " + limit, null);
+        }
+        return listOAuthConsumerAppsOfUser(username, tenantId, afterConsumerKey, limit);
+    }
+
+    private OAuthAppDO[] listOAuthConsumerAppsOfUser(String username, int tenantId, String afterConsumerKey,
+                                                     int limit) throws IdentityOAuthAdminException {
+
+        TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
+
         OAuthAppDO[] oauthAppsOfUser;
 
         try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
@@ -251,6 +273,13 @@ public class OAuthAppDAO {
             boolean isUsernameCaseSensitive = isUsernameCaseSensitive(tenantQualifiedUsername);
 
             String sql = SQLQueries.OAuthAppDAOSQLQueries.GET_CONSUMER_APPS_OF_USER_WITH_PKCE;
+            boolean isPaginated = limit > 0;
+            if (isPaginated) {
+                if (afterConsumerKey != null) {
+                    sql += SQLQueries.OAuthAppDAOSQLQueries.CONSUMER_APPS_OF_USER_AFTER_CONSUMER_KEY;
+                }
+                sql += SQLQueries.OAuthAppDAOSQLQueries.CONSUMER_APPS_OF_USER_ORDER_BY;
+            }
 
             if (!isUsernameCaseSensitive) {
                 sql = sql.replace(USERNAME, LOWER_USERNAME);
@@ -264,10 +293,17 @@ public class OAuthAppDAO {
                 }
                 prepStmt.setString(2, IdentityUtil.extractDomainFromName(tenantAwareUserName));
                 prepStmt.setInt(3, tenantId);
+                if (isPaginated) {
+                    if (afterConsumerKey != null) {
+                        prepStmt.setString(4, persistenceProcessor.getProcessedClientId(afterConsumerKey));
+                    }
+                    // Rows without an app name are skipped, hence the page is bounded while reading the rows.
+                    prepStmt.setFetchSize(limit);
+                }
 
                 try (ResultSet rSet = prepStmt.executeQuery()) {
                     List<OAuthAppDO> oauthApps = new ArrayList<>();
-                    while (rSet.next()) {
+                    while ((!isPaginated || oauthApps.size() < limit) && rSet.next()) {
                         if (rSet.getString(3) != null && rSet.getString(3).length() > 0) {
                             OAuthAppDO oauthApp = new OAuthAppDO();
                             String preprocessedClientId = persistenceProcessor.getPreprocessedClientId(rSet.getString
@@ -276,7 +312,7 @@ public class OAuthAppDAO {
                             oauthApp.setOauthConsumerKey(preprocessedClientId);
                             oauthApp.setOauthConsumerKey(persistenceProcessor.getPreprocessedClientId(rSet.getString
                                     (1)));
-                            if (isHashDisabled) {
+                            if (OAuth2Util.isHashDisabled()) {
                                 oauthApp.setOauthConsumerSecret(persistenceProcessor.getPreprocessedClientSecret(rSet
                                         .getString(2)));
                             }
@@ -319,73 +355,87 @@ public class OAuthAppDAO {
     public OAuthAppDO getAppInformation(String consumerKey) throws
             InvalidOAuthClientException, IdentityOAuth2Exception {
 
-        OAuthAppDO oauthApp = null;
-        try (Connection connection = IdentityDatabaseUtil.getDBConnection()) {
-            String sqlQuery = SQLQueries.OAuthAppDAOSQLQueries.GET_APP_INFO_WITH_PKCE;
+        TokenIssuanceMetrics.countDatabaseCall();
+        Optional<OAuthAppDO> oauthApp;
+        try {
+            /*
+              An application which is not found on the read replica may not have been replicated yet, hence the
+              router retries the lookup on the primary database before the consumer key is considered invalid.
+            */
+            oauthApp = DBConnectionRouter.getInstance().executeRead(RoutedDataType.OAUTH_APP, consumerKey,
+                    connection -> getAppInformation(connection, consumerKey));
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while retrieving the app information", e);
+        }
+        if (oauthApp == null) {
+            handleRequestForANonExistingConsumerKey(consumerKey);
+        }
+        return oauthApp.orElse(null);
+    }
 
-            try (PreparedStatement prepStmt = connection.prepareStatement(sqlQuery)) {
-                String preprocessedClientId = persistenceProcessor.getProcessedClientId(consumerKey);
-                prepStmt.setString(1, preprocessedClientId);
+    /**
+     * Retrieve the application of the given consumer key.
+     *
+     * @return null if there is no application for the consumer key, or an empty Optional if the application exists
+     * but has no OAuth version.
+     */
+    private Optional<OAuthAppDO> getAppInformation(Connection connection, String consumerKey)
+            throws IdentityOAuth2Exception, SQLException {
 
-                try (ResultSet rSet = prepStmt.executeQuery()) {
-                    /*
-                      We need to determine whether the result set has more than 1 row. Meaning, we found an
-                      application for
-                      the given consumer key. There can be situations where a user passed a key which doesn't yet
-                      have an
-                      associated application. We need to barf with a meaningful error message for this case
-                    */
-                    boolean appExists = false;
-                    while (rSet.next()) {
-                        // There is at least one application associated with a given key
-                        appExists = true;
-                        if (rSet.getString(4) != null && rSet.getString(4).length() > 0) {
-                            oauthApp = new OAuthAppDO();
-                            oauthApp.setOauthConsumerKey(consumerKey);
-                            if (isHashDisabled) {
-                                oauthApp.setOauthConsumerSecret(persistenceProcessor.getPreprocessedClientSecret(rSet
-                                        .getString(1)));
-                            } else {
-                                oauthApp.setOauthConsumerSecret(rSet.getString(1));
-                            }
-                            AuthenticatedUser authenticatedUser = new AuthenticatedUser();
-                            authenticatedUser.setUserName(rSet.getString(2));
-                            oauthApp.setApplicationName(rSet.getString(3));
-                            oauthApp.setOauthVersion(rSet.getString(4));
-                            oauthApp.setCallbackUrl(rSet.getString(5));
-                            authenticatedUser.setTenantDomain(IdentityTenantUtil.getTenantDomain(rSet.getInt(6)));
-                            authenticatedUser.setUserStoreDomain(rSet.getString(7));
-                            oauthApp.setUser(authenticatedUser);
-                            oauthApp.setGrantTypes(rSet.getString(8));
-                            oauthApp.setId(rSet.getInt(9));
-                            oauthApp.setPkceMandatory(!"0".equals(rSet.getString(10)));
-                            oauthApp.setPkceSupportPlain(!"0".equals(rSet.getString(11)));
-                            oauthApp.setUserAccessTokenExpiryTime(rSet.getLong(12));
-                            oauthApp.setApplicationAccessTokenExpiryTime(rSet.getLong(13));
-                            oauthApp.setRefreshTokenExpiryTime(rSet.getLong(14));
-                            oauthApp.setIdTokenExpiryTime(rSet.getLong(15));
-                            oauthApp.setState(rSet.getString(16));
+        TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
 
-                            String spTenantDomain = authenticatedUser.getTenantDomain();
-                            handleSpOIDCProperties(connection, preprocessedClientId, spTenantDomain, oauthApp);
-                            oauthApp.setScopeValidators(getScopeValidators(connection, oauthApp.getId()));
-                        }
-                    }
+        boolean appExists = false;
+        OAuthAppDO oauthApp = null;
+        String sqlQuery = SQLQueries.OAuthAppDAOSQLQueries.GET_APP_INFO_WITH_PKCE;
+        try (PreparedStatement prepStmt = connection.prepareStatement(sqlQuery)) {
+            String preprocessedClientId = persistenceProcessor.getProcessedClientId(consumerKey);
+            prepStmt.setString(1, preprocessedClientId);
 
-                    if (!appExists) {
-                        handleRequestForANonExistingConsumerKey(consumerKey);
+            try (ResultSet rSet = prepStmt.executeQuery()) {
+                while (rSet.next()) {
+                    // There is at least one application associated with a given key
+                    appExists = true;
+                    if (rSet.getString(4) != null && rSet.getString(4).length() > 0) {
+                        oauthApp = new OAuthAppDO();
+                        oauthApp.setOauthConsumerKey(consumerKey);
+                        if (OAuth2Util.isHashDisabled()) {
+                            oauthApp.setOauthConsumerSecret(persistenceProcessor.getPreprocessedClientSecret(rSet
+                                    .getString(1)));
+                        } else {
+                            oauthApp.setOauthConsumerSecret(rSet.getString(1));
+                        }
+                        AuthenticatedUser authenticatedUser = new AuthenticatedUser();
+                        authenticatedUser.setUserName(rSet.getString(2));
+                        oauthApp.setApplicationName(rSet.getString(3));
+                        oauthApp.setOauthVersion(rSet.getString(4));
+                        oauthApp.setCallbackUrl(rSet.getString(5));
+                        authenticatedUser.setTenantDomain(IdentityTenantUtil.getTenantDomain(rSet.getInt(6)));
+                        authenticatedUser.setUserStoreDomain(rSet.getString(7));
+                        oauthApp.setUser(authenticatedUser);
+                        oauthApp.setGrantTypes(rSet.getString(8));
+                        oauthApp.setId(rSet.getInt(9));
+                        oauthApp.setPkceMandatory(!"0".equals(rSet.getString(10)));
+                        oauthApp.setPkceSupportPlain(!"0".equals(rSet.getString(11)));
+                        oauthApp.setUserAccessTokenExpiryTime(rSet.getLong(12));
+                        oauthApp.setApplicationAccessTokenExpiryTime(rSet.getLong(13));
+                        oauthApp.setRefreshTokenExpiryTime(rSet.getLong(14));
+                        oauthApp.setIdTokenExpiryTime(rSet.getLong(15));
+                        oauthApp.setState(rSet.getString(16));
+
+                        String spTenantDomain = authenticatedUser.getTenantDomain();
+                        handleSpOIDCProperties(connection, preprocessedClientId, spTenantDomain, oauthApp);
+                        oauthApp.setScopeValidators(getScopeValidators(connection, oauthApp.getId()));
                     }
-                    connection.commit();
                 }
             }
-        } catch (SQLException e) {
-            throw new IdentityOAuth2Exception("Error while retrieving the app information", e);
         }
-        return oauthApp;
+        return appExists ? Optional.ofNullable(oauthApp) : null;
     }
 
     public OAuthAppDO getAppInformationByAppName(String appName) throws
             InvalidOAuthClientException, IdentityOAuth2Exception {
+        TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
+
         OAuthAppDO oauthApp;
 
         try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
@@ -412,7 +462,7 @@ public class OAuthAppDAO {
                         // There is at least one application associated with a given key
                         appExists = true;
                         if (rSet.getString(4) != null && rSet.getString(4).length() > 0) {
-                            if (isHashDisabled) {
+                            if (OAuth2Util.isHashDisabled()) {
                                 oauthApp.setOauthConsumerSecret(persistenceProcessor.getPreprocessedClientSecret(rSet
                                         .getString(1)));
                             } else {
@@ -475,6 +525,7 @@ public class OAuthAppDAO {
 
                 addOrUpdateOIDCSpProperty(oauthAppDO, connection);
                 IdentityDatabaseUtil.commitTransaction(connection);
+                markAppWrite(oauthAppDO.getOauthConsumerKey());
             } catch (SQLException e1) {
                 IdentityDatabaseUtil.rollbackTransaction(connection);
                 throw handleError("Error when updating OAuth application", e1);
@@ -547,6 +598,8 @@ public class OAuthAppDAO {
     private void setValuesToStatementWithPKCEAndOwnerUpdate(OAuthAppDO oauthAppDO, PreparedStatement prepStmt)
             throws SQLException, IdentityOAuth2Exception {
 
+        TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
+
         prepStmt.setString(4, oauthAppDO.isPkceMandatory() ? "1" : "0");
         prepStmt.setString(5, oauthAppDO.isPkceSupportPlain() ? "1" : "0");
         prepStmt.setLong(6, oauthAppDO.getUserAccessTokenExpiryTime());
@@ -561,6 +614,8 @@ public class OAuthAppDAO {
     private void setValuesToStatementWithPKCENoOwnerUpdate(OAuthAppDO oauthAppDO, PreparedStatement prepStmt)
             throws SQLException, IdentityOAuth2Exception {
 
+        TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
+
         prepStmt.setString(4, oauthAppDO.isPkceMandatory() ? "1" : "0");
         prepStmt.setString(5, oauthAppDO.isPkceSupportPlain() ? "1" : "0");
         prepStmt.setLong(6, oauthAppDO.getUserAccessTokenExpiryTime());
@@ -573,6 +628,8 @@ public class OAuthAppDAO {
     private void addOrUpdateOIDCSpProperty(OAuthAppDO oauthAppDO,
                                            Connection connection) throws IdentityOAuth2Exception, SQLException {
 
+        TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
+
         String preprocessedClientId = persistenceProcessor.getPreprocessedClientId(oauthAppDO.getOauthConsumerKey());
         String spTenantDomain = oauthAppDO.getUser().getTenantDomain();
         int spTenantId = IdentityTenantUtil.getTenantId(spTenantDomain);
@@ -743,6 +800,8 @@ public class OAuthAppDAO {
                     removeOauthOIDCPropertyTable(connection, tenantDomain, consumerKey);
                 }
                 IdentityDatabaseUtil.commitTransaction(connection);
+                markAppWrite(consumerKey);
+                VerifiedClientSecretCache.getInstance().clearVerifiedSecret(consumerKey);
             }
         } catch (SQLException e) {
             throw handleError("Error when executing the SQL : " + SQLQueries.OAuthAppDAOSQLQueries
@@ -776,6 +835,7 @@ public class OAuthAppDAO {
             }
 
             IdentityDatabaseUtil.commitTransaction(connection);
+            markAppWrite(null);
 
         } catch (SQLException e) {
             throw handleError("Error when deleting consumer apps of the tenant: " + tenantId, e);
@@ -799,6 +859,7 @@ public class OAuthAppDAO {
                 statement.setString(2, consumerKey);
                 statement.execute();
                 IdentityDatabaseUtil.commitTransaction(connection);
+                markAppWrite(consumerKey);
             } catch (SQLException e1) {
                 IdentityDatabaseUtil.rollbackTransaction(connection);
                 throw new IdentityApplicationManagementException("Error while executing the SQL statement.", e1);
@@ -829,6 +890,7 @@ public class OAuthAppDAO {
                      statement.setString(4, consumerKey);
                      statement.execute();
                      IdentityDatabaseUtil.commitTransaction(connection);
+                     markAppWrite(consumerKey);
                  } catch (SQLException e1) {
                      IdentityDatabaseUtil.rollbackTransaction(connection);
                      throw new IdentityApplicationManagementException("Error while executing the SQL statement.", e1);
@@ -873,6 +935,7 @@ public class OAuthAppDAO {
                 statement.setString(2, consumerKey);
                 statement.execute();
                 IdentityDatabaseUtil.commitTransaction(connection);
+                markAppWrite(consumerKey);
             } catch (SQLException e1) {
                 IdentityDatabaseUtil.rollbackTransaction(connection);
                 throw new IdentityApplicationManagementException("Error while executing the SQL statement.", e1);
@@ -919,6 +982,8 @@ public class OAuthAppDAO {
 
     public boolean isDuplicateConsumer(String consumerKey) throws IdentityOAuthAdminException {
 
+        TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
+
         boolean isDuplicateConsumer = false;
 
         try (Connection connection = IdentityDatabaseUtil.getDBConnection(false); PreparedStatement
@@ -1159,6 +1224,8 @@ public class OAuthAppDAO {
     private int getAppIdByClientId(Connection connection, String clientId)
             throws SQLException, InvalidOAuthClientException, IdentityOAuth2Exception {
 
+        TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
+
         int appId = 0;
         try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.OAuthAppDAOSQLQueries
                 .GET_APP_ID_BY_CONSUMER_KEY)) {
@@ -1358,6 +1425,17 @@ public class OAuthAppDAO {
         return OAuth2ServiceComponentHolder.isAudienceEnabled();
     }
 
+    /**
+     * Record a write to an OAuth application so that its reads are served by the primary database until the write
+     * has been replicated.
+     *
+     * @param consumerKey Consumer key of the application, or null if any application could be affected.
+     */
+    private void markAppWrite(String consumerKey) {
+
+        DBConnectionRouter.getInstance().markWrite(RoutedDataType.OAUTH_APP, consumerKey);
+    }
+
     private void handleRequestForANonExistingConsumerKey(String consumerKey) throws InvalidOAuthClientException {
         String message = "application.not.found";
         if (LOG.isDebugEnabled()) {
@@ -1373,4 +1451,19 @@ public class OAuthAppDAO {
         }
         throw new InvalidOAuthClientException(message);
     }
+
+    /**
+     * Resolved on each call, so that a reloaded OAuth server configuration takes effect.
+     *
+     * @return Token persistence processor of the configuration in effect.
+     */
+    private TokenPersistenceProcessor getPersistenceProcessor() {
+
+        try {
+            return OAuthServerConfiguration.getInstance().getPersistenceProcessor();
+        } catch (IdentityOAuth2Exception e) {
+            LOG.error("Error retrieving TokenPersistenceProcessor. Defaulting to PlainTextPersistenceProcessor");
+            return new PlainTextPersistenceProcessor();
+        }
+    }
 }
@@ -18,7 +18,12 @@
 package org.wso2.carbon.identity.oauth.dao;
 
 import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 
 import javax.xml.bind.annotation.XmlAccessType;
@@ -28,6 +33,12 @@ import javax.xml.bind.annotation.XmlElementWrapper;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
 
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readString;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readStringArray;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readVersion;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeString;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeStringArray;
+
 /**
  * OAuth application data object.
  */
@@ -334,4 +345,122 @@ public class OAuthAppDO implements Serializable {
 
         this.tokenBindingValidationEnabled = tokenBindingValidationEnabled;
     }
+
+    private Object writeReplace() {
+
+        if (CompactSerializationUtil.isCompactSerializationEnabled()) {
+            return new SerializedForm(this);
+        }
+        return this;
+    }
+
+    /**
+     * Compact serialized form of an OAuth application. The application owner is still written with Java
+     * serialization.
+     */
+    private static final class SerializedForm implements Externalizable {
+
+        private static final long serialVersionUID = 1764285321497056213L;
+        private static final byte VERSION = 1;
+
+        private static final int PKCE_SUPPORT_PLAIN = 1;
+        private static final int PKCE_MANDATORY = 1 << 1;
+        private static final int BYPASS_CLIENT_CREDENTIALS = 1 << 2;
+        private static final int REQUEST_OBJECT_SIGNATURE_VALIDATION_ENABLED = 1 << 3;
+        private static final int ID_TOKEN_ENCRYPTION_ENABLED = 1 << 4;
+        private static final int TOKEN_REVOCATION_WITH_IDP_SESSION_TERMINATION_ENABLED = 1 << 5;
+        private static final int TOKEN_BINDING_VALIDATION_ENABLED = 1 << 6;
+
+        private OAuthAppDO oAuthAppDO;
+
+        public SerializedForm() {
+
+        }
+
+        SerializedForm(OAuthAppDO oAuthAppDO) {
+
+            this.oAuthAppDO = oAuthAppDO;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+
+            OAuthAppDO app = oAuthAppDO;
+            out.writeByte(VERSION);
+            out.writeByte((app.pkceSupportPlain ? PKCE_SUPPORT_PLAIN : 0) |
+                    (app.pkceMandatory ? PKCE_MANDATORY : 0) |
+                    (app.bypassClientCredentials ? BYPASS_CLIENT_CREDENTIALS : 0) |
+                    (app.requestObjectSignatureValidationEnabled ? REQUEST_OBJECT_SIGNATURE_VALIDATION_ENABLED : 0) |
+                    (app.idTokenEncryptionEnabled ? ID_TOKEN_ENCRYPTION_ENABLED : 0) |
+                    (app.tokenRevocationWithIDPSessionTerminationEnabled ?
+                            TOKEN_REVOCATION_WITH_IDP_SESSION_TERMINATION_ENABLED : 0) |
+                    (app.tokenBindingValidationEnabled ? TOKEN_BINDING_VALIDATION_ENABLED : 0));
+            out.writeInt(app.id);
+            writeString(out, app.oauthConsumerKey);
+            writeString(out, app.oauthConsumerSecret);
+            writeString(out, app.applicationName);
+            writeString(out, app.callbackUrl);
+            writeString(out, app.oauthVersion);
+            writeString(out, app.grantTypes);
+            writeStringArray(out, app.scopeValidators);
+            writeString(out, app.state);
+            out.writeLong(app.userAccessTokenExpiryTime);
+            out.writeLong(app.applicationAccessTokenExpiryTime);
+            out.writeLong(app.refreshTokenExpiryTime);
+            out.writeLong(app.idTokenExpiryTime);
+            writeStringArray(out, app.audiences);
+            writeString(out, app.renewRefreshTokenEnabled);
+            writeString(out, app.idTokenEncryptionAlgorithm);
+            writeString(out, app.idTokenEncryptionMethod);
+            writeString(out, app.backChannelLogoutUrl);
+            writeString(out, app.frontchannelLogoutUrl);
+            writeString(out, app.tokenType);
+            writeString(out, app.tokenBindingType);
+            out.writeObject(app.appOwner);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+
+            readVersion(in, VERSION, OAuthAppDO.class.getName());
+            OAuthAppDO app = new OAuthAppDO();
+            int flags = in.readByte();
+            app.pkceSupportPlain = (flags & PKCE_SUPPORT_PLAIN) != 0;
+            app.pkceMandatory = (flags & PKCE_MANDATORY) != 0;
+            app.bypassClientCredentials = (flags & BYPASS_CLIENT_CREDENTIALS) != 0;
+            app.requestObjectSignatureValidationEnabled = (flags & REQUEST_OBJECT_SIGNATURE_VALIDATION_ENABLED) != 0;
+            app.idTokenEncryptionEnabled = (flags & ID_TOKEN_ENCRYPTION_ENABLED) != 0;
+            app.tokenRevocationWithIDPSessionTerminationEnabled =
+                    (flags & TOKEN_REVOCATION_WITH_IDP_SESSION_TERMINATION_ENABLED) != 0;
+            app.tokenBindingValidationEnabled = (flags & TOKEN_BINDING_VALIDATION_ENABLED) != 0;
+            app.id = in.readInt();
+            app.oauthConsumerKey = readString(in);
+            app.oauthConsumerSecret = readString(in);
+            app.applicationName = readString(in);
+            app.callbackUrl = readString(in);
+            app.oauthVersion = readString(in);
+            app.grantTypes = readString(in);
+            app.scopeValidators = readStringArray(in);
+            app.state = readString(in);
+            app.userAccessTokenExpiryTime = in.readLong();
+            app.applicationAccessTokenExpiryTime = in.readLong();
+            app.refreshTokenExpiryTime = in.readLong();
+            app.idTokenExpiryTime = in.readLong();
+            app.audiences = readStringArray(in);
+            app.renewRefreshTokenEnabled = readString(in);
+            app.idTokenEncryptionAlgorithm = readString(in);
+            app.idTokenEncryptionMethod = readString(in);
+            app.backChannelLogoutUrl = readString(in);
+            app.frontchannelLogoutUrl = readString(in);
+            app.tokenType = readString(in);
+            app.tokenBindingType = readString(in);
+            app.appOwner = (AuthenticatedUser) in.readObject();
+            oAuthAppDO = app;
+        }
+
+        private Object readResolve() {
+
+            return oAuthAppDO;
+        }
+    }
 }
@@ -29,6 +29,9 @@ import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
 import org.wso2.carbon.identity.oauth.tokenprocessor.PlainTextPersistenceProcessor;
 import org.wso2.carbon.identity.oauth.tokenprocessor.TokenPersistenceProcessor;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.cache.VerifiedClientSecretCache;
+import org.wso2.carbon.identity.oauth2.dao.routing.DBConnectionRouter;
+import org.wso2.carbon.identity.oauth2.dao.routing.RoutedDataType;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 
 import java.sql.Connection;
@@ -43,19 +46,6 @@ public class OAuthConsumerDAO {
 
     public static final Log LOG = LogFactory.getLog(OAuthConsumerDAO.class);
     public static final String OUT_OF_BAND = "oob";
-    private TokenPersistenceProcessor persistenceProcessor;
-    private boolean isHashDisabled = OAuth2Util.isHashDisabled();
-
-    public OAuthConsumerDAO() {
-
-        try {
-            persistenceProcessor = OAuthServerConfiguration.getInstance().getPersistenceProcessor();
-        } catch (IdentityOAuth2Exception e) {
-            LOG.error("Error retrieving TokenPersistenceProcessor. Defaulting to PlainTextProcessor", e);
-            persistenceProcessor = new PlainTextPersistenceProcessor();
-        }
-
-    }
 
     /**
      * Returns the consumer secret corresponding to a given consumer key
@@ -66,18 +56,18 @@ public class OAuthConsumerDAO {
      */
     public String getOAuthConsumerSecret(String consumerKey) throws IdentityOAuthAdminException {
         String consumerSecret = null;
-        if (isHashDisabled) {
+        if (OAuth2Util.isHashDisabled()) {
             Connection connection = IdentityDatabaseUtil.getDBConnection(false);
             PreparedStatement prepStmt = null;
             ResultSet resultSet = null;
 
             try {
                 prepStmt = connection.prepareStatement(SQLQueries.OAuthConsumerDAOSQLQueries.GET_CONSUMER_SECRET);
-                prepStmt.setString(1, persistenceProcessor.getProcessedClientId(consumerKey));
+                prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
                 resultSet = prepStmt.executeQuery();
 
                 if (resultSet.next()) {
-                        consumerSecret = persistenceProcessor.getPreprocessedClientSecret(resultSet.getString(1));
+                        consumerSecret = getPersistenceProcessor().getPreprocessedClientSecret(resultSet.getString(1));
                 } else {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("Invalid Consumer Key : " + consumerKey);
@@ -118,9 +108,9 @@ public class OAuthConsumerDAO {
         Connection connection = null;
         try {
             connection = IdentityDatabaseUtil.getDBConnection(false);
-            String consumerSecretHash = persistenceProcessor.getProcessedClientSecret(consumerSecret);
+            String consumerSecretHash = getPersistenceProcessor().getProcessedClientSecret(consumerSecret);
             prepStmt = connection.prepareStatement(SQLQueries.OAuthConsumerDAOSQLQueries.EXISTENCE_OF_CONSUMER_SECRET);
-            prepStmt.setString(1, persistenceProcessor.getProcessedClientId(consumerKey));
+            prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
             prepStmt.setString(2, consumerSecretHash);
             resultSet = prepStmt.executeQuery();
 
@@ -155,6 +145,8 @@ public class OAuthConsumerDAO {
             statement.setString(2, consumerKey);
             statement.execute();
             IdentityDatabaseUtil.commitTransaction(connection);
+            DBConnectionRouter.getInstance().markWrite(RoutedDataType.OAUTH_APP, consumerKey);
+            VerifiedClientSecretCache.getInstance().clearVerifiedSecret(consumerKey);
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
             throw new IdentityApplicationManagementException("Error while executing the SQL statement.", e);
@@ -483,4 +475,13 @@ public class OAuthConsumerDAO {
         return callbackURL;
     }
 
+    private TokenPersistenceProcessor getPersistenceProcessor() {
+
+        try {
+            return OAuthServerConfiguration.getInstance().getPersistenceProcessor();
+        } catch (IdentityOAuth2Exception e) {
+            LOG.error("Error retrieving TokenPersistenceProcessor. Defaulting to PlainTextProcessor", e);
+            return new PlainTextPersistenceProcessor();
+        }
+    }
 }
@@ -85,6 +85,10 @@ public class SQLQueries {
                 "FROM IDN_OAUTH_CONSUMER_APPS" +
                 " WHERE USERNAME=? AND USER_DOMAIN=? AND TENANT_ID=?";
 
+        public static final String CONSUMER_APPS_OF_USER_AFTER_CONSUMER_KEY = " AND CONSUMER_KEY > ?";
+
+        public static final String CONSUMER_APPS_OF_USER_ORDER_BY = " ORDER BY CONSUMER_KEY";
+
         public static final String GET_APP_INFO = "SELECT CONSUMER_SECRET, USERNAME, APP_NAME, OAUTH_VERSION, " +
                 "CALLBACK_URL, TENANT_ID, USER_DOMAIN, GRANT_TYPES, ID, USER_ACCESS_TOKEN_EXPIRE_TIME," +
                 " APP_ACCESS_TOKEN_EXPIRE_TIME, REFRESH_TOKEN_EXPIRE_TIME, ID_TOKEN_EXPIRE_TIME," +
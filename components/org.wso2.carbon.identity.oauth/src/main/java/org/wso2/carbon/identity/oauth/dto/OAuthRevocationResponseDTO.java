@@ -29,6 +29,8 @@ public class OAuthRevocationResponseDTO {
 
     private String errorMsg;
 
+    private String revocationJobId;
+
     public String getErrorCode() {
         return errorCode;
     }
@@ -52,4 +54,17 @@ public class OAuthRevocationResponseDTO {
     public void setErrorMsg(String errorMsg) {
         this.errorMsg = errorMsg;
     }
+
+    /**
+     * Get the id of the job revoking the tokens in the background, if the tokens are not revoked within the request.
+     *
+     * @return Token revocation job id, or null if the tokens have been revoked within the request.
+     */
+    public String getRevocationJobId() {
+        return revocationJobId;
+    }
+
+    public void setRevocationJobId(String revocationJobId) {
+        this.revocationJobId = revocationJobId;
+    }
 }
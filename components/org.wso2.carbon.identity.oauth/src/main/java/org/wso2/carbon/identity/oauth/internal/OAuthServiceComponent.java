@@ -34,6 +34,7 @@ import org.wso2.carbon.identity.oauth.cache.OAuthCache;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.token.bindings.TokenBinderInfo;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfigurationListener;
 import org.wso2.carbon.identity.oauth.event.OAuthEventInterceptor;
 import org.wso2.carbon.identity.oauth.listener.IdentityOathEventListener;
 import org.wso2.carbon.identity.oauth.listener.IdentityOauthEventHandler;
@@ -189,6 +190,29 @@ public class OAuthServiceComponent {
         OAuthComponentServiceHolder.getInstance().setOauth2ScopeService(null);
     }
 
+    @Reference(
+            name = "oauth.server.configuration.listener",
+            service = OAuthServerConfigurationListener.class,
+            cardinality = ReferenceCardinality.MULTIPLE,
+            policy = ReferencePolicy.DYNAMIC,
+            unbind = "removeOAuthServerConfigurationListener"
+    )
+    protected void addOAuthServerConfigurationListener(OAuthServerConfigurationListener listener) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Adding the OAuth server configuration listener: " + listener.getClass().getName());
+        }
+        OAuthServerConfiguration.addListener(listener);
+    }
+
+    protected void removeOAuthServerConfigurationListener(OAuthServerConfigurationListener listener) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Removing the OAuth server configuration listener: " + listener.getClass().getName());
+        }
+        OAuthServerConfiguration.removeListener(listener);
+    }
+
     @Reference(
             name = "org.wso2.carbon.identity.oauth.event.OAuthEventInterceptor",
             service = OAuthEventInterceptor.class,
@@ -86,6 +86,7 @@ public class IdentityOathEventListener extends AbstractIdentityUserOperationEven
         }
 
         removeClaimCacheEntry(username, userStoreManager);
+        OAuthUtil.removeOIDCUserClaimsFromCache(username, userStoreManager);
 
         return OAuthUtil.revokeTokens(username, userStoreManager);
 
@@ -120,6 +121,7 @@ public class IdentityOathEventListener extends AbstractIdentityUserOperationEven
         if (!isEnable()) {
             return true;
         }
+        OAuthUtil.removeOIDCUserClaimsFromCache(userName, userStoreManager);
         return true;
     }
 
@@ -130,6 +132,7 @@ public class IdentityOathEventListener extends AbstractIdentityUserOperationEven
         if (!isEnable()) {
             return true;
         }
+        OAuthUtil.removeOIDCUserClaimsFromCache(userName, userStoreManager);
         return true;
     }
 
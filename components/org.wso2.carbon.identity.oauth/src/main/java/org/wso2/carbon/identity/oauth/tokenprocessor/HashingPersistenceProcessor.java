@@ -29,6 +29,9 @@ import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * An implementation of <Code>TokenPersistenceProcessor</Code>
@@ -101,6 +104,32 @@ public class HashingPersistenceProcessor implements TokenPersistenceProcessor {
         return processedRefreshToken;
     }
 
+    /**
+     * Hash a collection of access token identifiers. The message digest is resolved once and reused for all the
+     * identifiers instead of being looked up for each of them as in {@link #getProcessedAccessTokenIdentifier(String)}.
+     *
+     * @param accessTokenIdentifiers Plain text access token identifiers.
+     * @return Hashed value of each distinct identifier, in the iteration order of the given collection.
+     * @throws IdentityOAuth2Exception If an identifier is empty or the hash algorithm is not supported.
+     */
+    public Map<String, String> getProcessedAccessTokenIdentifiers(Collection<String> accessTokenIdentifiers)
+            throws IdentityOAuth2Exception {
+
+        Map<String, String> processedAccessTokenIdentifiers = new LinkedHashMap<>();
+        if (accessTokenIdentifiers == null || accessTokenIdentifiers.isEmpty()) {
+            return processedAccessTokenIdentifiers;
+        }
+        String hashAlgorithm = OAuthServerConfiguration.getInstance().getHashAlgorithm();
+        MessageDigest messageDigest = getMessageDigest(hashAlgorithm);
+        for (String accessTokenIdentifier : accessTokenIdentifiers) {
+            if (!processedAccessTokenIdentifiers.containsKey(accessTokenIdentifier)) {
+                processedAccessTokenIdentifiers.put(accessTokenIdentifier,
+                        hash(accessTokenIdentifier, messageDigest, hashAlgorithm));
+            }
+        }
+        return processedAccessTokenIdentifiers;
+    }
+
     /**
      * Method to generate hash value
      *
@@ -109,26 +138,34 @@ public class HashingPersistenceProcessor implements TokenPersistenceProcessor {
      */
     private String hash(String plainText) throws IdentityOAuth2Exception {
 
+        String hashAlgorithm = OAuthServerConfiguration.getInstance().getHashAlgorithm();
+        return hash(plainText, getMessageDigest(hashAlgorithm), hashAlgorithm);
+    }
+
+    private String hash(String plainText, MessageDigest messageDigest, String hashAlgorithm)
+            throws IdentityOAuth2Exception {
+
         if (StringUtils.isEmpty(plainText)) {
             throw new IdentityOAuth2Exception("plainText value is null or empty to be hash.");
         }
 
-        MessageDigest messageDigest = null;
-        byte[] hash = null;
-        String hashAlgorithm = OAuthServerConfiguration.getInstance().getHashAlgorithm();
-        try {
-            messageDigest = MessageDigest.getInstance(hashAlgorithm);
-            messageDigest.update(plainText.getBytes(StandardCharsets.UTF_8));
-            hash = messageDigest.digest();
+        // digest() resets the message digest, hence it can be reused for the next value.
+        messageDigest.update(plainText.getBytes(StandardCharsets.UTF_8));
+        byte[] hash = messageDigest.digest();
+        JSONObject object = new JSONObject();
+        object.put(ALGORITHM, hashAlgorithm);
+        object.put(HASH, bytesToHex(hash));
+        return object.toString();
+    }
+
+    private MessageDigest getMessageDigest(String hashAlgorithm) throws IdentityOAuth2Exception {
 
+        try {
+            return MessageDigest.getInstance(hashAlgorithm);
         } catch (NoSuchAlgorithmException e) {
             throw new IdentityOAuth2Exception(
                     "Error while retrieving MessageDigest for the provided hash algorithm: " + hashAlgorithm, e);
         }
-        JSONObject object = new JSONObject();
-        object.put(ALGORITHM, hashAlgorithm);
-        object.put(HASH, bytesToHex(hash));
-        return object.toString();
     }
 
     private static String bytesToHex(byte[] bytes) {
@@ -19,8 +19,19 @@
 package org.wso2.carbon.identity.oauth.util;
 
 import org.wso2.carbon.identity.oauth.cache.CacheEntry;
+import org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Comparator;
 import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readStringMap;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readVersion;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeStringMap;
 
 /**
  * User claims cache entry.
@@ -40,4 +51,66 @@ public class UserClaims extends CacheEntry {
     public void setClaimValues(SortedMap<String, String> claimValues) {
         this.claimValues = claimValues;
     }
+
+    private Object writeReplace() {
+
+        if (CompactSerializationUtil.isCompactSerializationEnabled()) {
+            return new SerializedForm(this);
+        }
+        return this;
+    }
+
+    /**
+     * Compact serialized form of the user claims. The comparator of the claim map, if any, is still written with
+     * Java serialization.
+     */
+    private static final class SerializedForm implements Externalizable {
+
+        private static final long serialVersionUID = -5036482101893642570L;
+        private static final byte VERSION = 1;
+
+        private UserClaims userClaims;
+
+        public SerializedForm() {
+
+        }
+
+        SerializedForm(UserClaims userClaims) {
+
+            this.userClaims = userClaims;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+
+            SortedMap<String, String> claimValues = userClaims.claimValues;
+            out.writeByte(VERSION);
+            out.writeLong(userClaims.getValidityPeriod());
+            out.writeBoolean(claimValues != null);
+            if (claimValues != null) {
+                out.writeObject(claimValues.comparator());
+                writeStringMap(out, claimValues);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+
+            readVersion(in, VERSION, UserClaims.class.getName());
+            long validityPeriod = in.readLong();
+            SortedMap<String, String> claimValues = null;
+            if (in.readBoolean()) {
+                Comparator<? super String> comparator = (Comparator<? super String>) in.readObject();
+                claimValues = readStringMap(in, size -> new TreeMap<>(comparator));
+            }
+            userClaims = new UserClaims(claimValues);
+            userClaims.setValidityPeriod(validityPeriod);
+        }
+
+        private Object readResolve() {
+
+            return userClaims;
+        }
+    }
 }
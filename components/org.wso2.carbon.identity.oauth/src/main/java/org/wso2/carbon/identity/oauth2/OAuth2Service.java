@@ -28,6 +28,7 @@ import org.wso2.carbon.identity.base.IdentityException;
 import org.wso2.carbon.identity.central.log.mgt.utils.LoggerUtils;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.oauth.OAuthUtil;
+import org.wso2.carbon.identity.oauth.cache.RefreshTokenValidationCache;
 import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
@@ -614,6 +615,8 @@ public class OAuth2Service extends AbstractAdmin {
                             OAuth2Util.buildScopeString(refreshTokenDO.getScope()));
                     OAuthUtil.clearOAuthCache(revokeRequestDTO.getConsumerKey(), refreshTokenDO.getAuthorizedUser());
                     OAuthUtil.clearOAuthCache(refreshTokenDO.getAccessToken());
+                    RefreshTokenValidationCache.getInstance().clearCacheEntry(revokeRequestDTO.getConsumerKey(),
+                            revokeRequestDTO.getToken());
                     OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
                             .revokeAccessTokens(new String[] { refreshTokenDO.getAccessToken() });
                     addRevokeResponseHeaders(revokeResponseDTO,
@@ -657,6 +660,8 @@ public class OAuth2Service extends AbstractAdmin {
                                 OAuth2Util.buildScopeString(accessTokenDO.getScope()));
                         OAuthUtil.clearOAuthCache(revokeRequestDTO.getConsumerKey(), accessTokenDO.getAuthzUser());
                         OAuthUtil.clearOAuthCache(accessTokenDO);
+                        RefreshTokenValidationCache.getInstance().clearCacheEntry(revokeRequestDTO.getConsumerKey(),
+                                accessTokenDO.getRefreshToken());
                         String scope = OAuth2Util.buildScopeString(accessTokenDO.getScope());
                         String userId = accessTokenDO.getAuthzUser().getUserId();
                         synchronized ((revokeRequestDTO.getConsumerKey() + ":" + userId + ":" + scope + ":"
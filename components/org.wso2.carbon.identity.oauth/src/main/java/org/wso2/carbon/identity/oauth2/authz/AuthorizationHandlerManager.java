@@ -72,10 +72,12 @@ public class AuthorizationHandlerManager {
 
     private static AuthorizationHandlerManager instance;
 
-    private Map<String, ResponseTypeHandler> responseHandlers;
+    private volatile Map<String, ResponseTypeHandler> responseHandlers;
 
     private AuthorizationHandlerManager() throws IdentityOAuth2Exception {
         responseHandlers = OAuthServerConfiguration.getInstance().getSupportedResponseTypes();
+        OAuthServerConfiguration.addListener((previousConfiguration, configuration) ->
+                responseHandlers = configuration.getSupportedResponseTypes());
 
         if (AppInfoCache.getInstance() != null) {
             if (log.isDebugEnabled() && AppInfoCache.getInstance().isEnabled()) {
@@ -558,6 +558,8 @@ public class TokenResponseTypeHandler extends AbstractResponseTypeHandler {
             }
             authorizationGrantCacheEntry
                     .setValidityPeriod(TimeUnit.MILLISECONDS.toNanos(accessTokenDO.getValidityPeriodInMillis()));
+            authorizationGrantCacheEntry
+                    .setRefreshTokenValidityPeriodInMillis(accessTokenDO.getRefreshTokenValidityPeriodInMillis());
             AuthorizationGrantCache.getInstance().addToCacheByToken(authorizationGrantCacheKey,
                     authorizationGrantCacheEntry);
         }
@@ -74,7 +74,6 @@ import static org.wso2.carbon.identity.oauth.common.OAuthConstants.TokenStates.T
 public class ResponseTypeHandlerUtil {
     public static final int SECOND_TO_MILLISECONDS_FACTOR = 1000;
     private static final Log log = LogFactory.getLog(ResponseTypeHandlerUtil.class);
-    private static boolean isHashDisabled = OAuth2Util.isHashDisabled();
 
     public static void triggerPreListeners(OAuthAuthzReqMessageContext oauthAuthzMsgCtx) {
         OAuthEventInterceptor oAuthEventInterceptorProxy = OAuthComponentServiceHolder.getInstance()
@@ -447,6 +446,8 @@ public class ResponseTypeHandlerUtil {
 
         authorizationGrantCacheEntry
                 .setValidityPeriod(TimeUnit.MILLISECONDS.toNanos(accessTokenDO.getValidityPeriodInMillis()));
+        authorizationGrantCacheEntry
+                .setRefreshTokenValidityPeriodInMillis(accessTokenDO.getRefreshTokenValidityPeriodInMillis());
         AuthorizationGrantCache.getInstance().addToCacheByToken(authorizationGrantCacheKey,
                 authorizationGrantCacheEntry);
     }
@@ -580,7 +581,7 @@ public class ResponseTypeHandlerUtil {
         persistAccessTokenInDB(oauthAuthzMsgCtx, existingTokenBean, newTokenBean);
         deactivateCurrentAuthorizationCode(newTokenBean.getAuthorizationCode(), newTokenBean.getTokenId());
         //update cache with newly added token
-        if (isHashDisabled && cacheEnabled) {
+        if (OAuth2Util.isHashDisabled() && cacheEnabled) {
             addTokenToCache(getOAuthCacheKey(consumerKey, scope, authorizedUserId, authenticatedIDP),
                     newTokenBean);
         }
@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.cache.BaseCache;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.utils.CarbonUtils;
+
+/**
+ * Cache of the active state of tenants, used when authenticating OAuth clients. Entries are keyed by the tenant
+ * domain and are cleared when a tenant is activated, deactivated or deleted.
+ * <p>
+ * Caching is disabled by default and can be enabled with {@code OAuth.TenantStatusCache.Enable}.
+ */
+public class TenantStatusCache extends BaseCache<String, TenantStatusCacheEntry> {
+
+    private static final Log log = LogFactory.getLog(TenantStatusCache.class);
+
+    public static final String TENANT_STATUS_CACHE = "OAuthTenantStatusCache";
+    private static final String TENANT_STATUS_CACHE_ENABLE = "OAuth.TenantStatusCache.Enable";
+
+    private static volatile TenantStatusCache instance;
+
+    private final boolean tenantStatusCachingEnabled;
+
+    private TenantStatusCache() {
+
+        super(TENANT_STATUS_CACHE);
+        this.tenantStatusCachingEnabled = Boolean.parseBoolean(IdentityUtil.getProperty(TENANT_STATUS_CACHE_ENABLE));
+    }
+
+    public static TenantStatusCache getInstance() {
+
+        CarbonUtils.checkSecurity();
+        if (instance == null) {
+            synchronized (TenantStatusCache.class) {
+                if (instance == null) {
+                    instance = new TenantStatusCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether tenant states are cached.
+     *
+     * @return true if caching of tenant states is enabled.
+     */
+    public boolean isTenantStatusCachingEnabled() {
+
+        return tenantStatusCachingEnabled;
+    }
+
+    public void addTenantStatus(String tenantDomain, boolean active) {
+
+        if (tenantStatusCachingEnabled) {
+            super.addToCache(tenantDomain, new TenantStatusCacheEntry(active), tenantDomain);
+        }
+    }
+
+    /**
+     * Get the cached state of the tenant.
+     *
+     * @param tenantDomain Tenant domain.
+     * @return Cached state, or null if the state of the tenant is not cached.
+     */
+    public Boolean getTenantStatus(String tenantDomain) {
+
+        if (!tenantStatusCachingEnabled) {
+            return null;
+        }
+        TenantStatusCacheEntry entry = super.getValueFromCache(tenantDomain, tenantDomain);
+        return entry == null ? null : entry.isActive();
+    }
+
+    public void clearTenantStatus(int tenantId) {
+
+        if (!tenantStatusCachingEnabled) {
+            return;
+        }
+        String tenantDomain = IdentityTenantUtil.getTenantDomain(tenantId);
+        super.clearCacheEntry(tenantDomain, tenantDomain);
+        if (log.isDebugEnabled()) {
+            log.debug("Cleared the cached state of tenant: " + tenantDomain);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+
+/**
+ * Cache entry which will be used in {@link TenantStatusCache}. Holds whether the tenant is active.
+ */
+public class TenantStatusCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = 6307716284715925142L;
+
+    private final boolean active;
+
+    public TenantStatusCacheEntry(boolean active) {
+
+        this.active = active;
+    }
+
+    public boolean isActive() {
+
+        return active;
+    }
+}
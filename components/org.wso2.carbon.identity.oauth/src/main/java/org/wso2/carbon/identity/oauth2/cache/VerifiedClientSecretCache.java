@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.cache;
+
+import org.apache.commons.lang.StringUtils;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2ConfigUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Node local cache of the last client secret verified for each OAuth client. Repeated authentications of a client
+ * with the same secret are verified against this cache instead of converting the provided secret to the processed
+ * form stored in the database, which can be expensive with hashing persistence processors.
+ * <p>
+ * The secret itself is never kept. Each entry is a keyed hash (HMAC-SHA256) of the provided secret bound to the
+ * stored secret of the application, computed with a random key generated when the node starts. Regenerating the
+ * client secret therefore invalidates the entry, and the entry is also cleared when the secret is regenerated or
+ * revoked and when the application is deleted. At most {@code OAuth.VerifiedClientSecretCache.MaxEntries} entries
+ * are kept, evicting the least recently used entry.
+ * <p>
+ * Caching is disabled by default and can be enabled with {@code OAuth.VerifiedClientSecretCache.Enable}.
+ */
+public class VerifiedClientSecretCache {
+
+    private static final String VERIFIED_CLIENT_SECRET_CACHE_ENABLE = "OAuth.VerifiedClientSecretCache.Enable";
+    private static final String VERIFIED_CLIENT_SECRET_CACHE_MAX_ENTRIES =
+            "OAuth.VerifiedClientSecretCache.MaxEntries";
+    private static final int DEFAULT_MAX_ENTRIES = 10000;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final int KEY_LENGTH_IN_BYTES = 32;
+
+    private static volatile VerifiedClientSecretCache instance;
+
+    private final boolean enabled;
+    private final SecretKeySpec macKey;
+    private final Map<String, byte[]> verifiedSecrets;
+
+    VerifiedClientSecretCache(boolean enabled, int maxEntries) {
+
+        this.enabled = enabled;
+        this.verifiedSecrets = Collections.synchronizedMap(new LinkedHashMap<String, byte[]>(16, 0.75f, true) {
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+
+                return size() > maxEntries;
+            }
+        });
+        byte[] key = new byte[KEY_LENGTH_IN_BYTES];
+        new SecureRandom().nextBytes(key);
+        this.macKey = new SecretKeySpec(key, HMAC_ALGORITHM);
+    }
+
+    public static VerifiedClientSecretCache getInstance() {
+
+        if (instance == null) {
+            synchronized (VerifiedClientSecretCache.class) {
+                if (instance == null) {
+                    instance = new VerifiedClientSecretCache(
+                            Boolean.parseBoolean(IdentityUtil.getProperty(VERIFIED_CLIENT_SECRET_CACHE_ENABLE)),
+                            OAuth2ConfigUtil.readConfigValue(VERIFIED_CLIENT_SECRET_CACHE_MAX_ENTRIES,
+                                    DEFAULT_MAX_ENTRIES));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether verified client secrets are cached.
+     *
+     * @return true if caching of verified client secrets is enabled.
+     */
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Check whether the provided secret is the last secret successfully verified for the client, against the
+     * currently stored secret of the application.
+     *
+     * @param clientId       Client id.
+     * @param storedSecret   Processed client secret stored for the application.
+     * @param providedSecret Client secret provided in the request.
+     * @return true if the provided secret has already been verified.
+     */
+    public boolean isVerified(String clientId, String storedSecret, String providedSecret) {
+
+        if (!enabled || clientId == null || StringUtils.isEmpty(storedSecret) || providedSecret == null) {
+            return false;
+        }
+        byte[] verifiedSecret = verifiedSecrets.get(clientId);
+        return verifiedSecret != null && MessageDigest.isEqual(verifiedSecret, mac(storedSecret, providedSecret));
+    }
+
+    /**
+     * Record the provided secret as successfully verified for the client. Must only be called after the secret has
+     * been verified against the stored secret of the application.
+     *
+     * @param clientId       Client id.
+     * @param storedSecret   Processed client secret stored for the application.
+     * @param providedSecret Client secret provided in the request.
+     */
+    public void addVerifiedSecret(String clientId, String storedSecret, String providedSecret) {
+
+        if (!enabled || clientId == null || StringUtils.isEmpty(storedSecret) || providedSecret == null) {
+            return;
+        }
+        verifiedSecrets.put(clientId, mac(storedSecret, providedSecret));
+    }
+
+    /**
+     * Clear the verified secret of the client. Must be called when the client secret is regenerated or revoked, or
+     * the application is deleted.
+     *
+     * @param clientId Client id.
+     */
+    public void clearVerifiedSecret(String clientId) {
+
+        if (enabled && clientId != null) {
+            verifiedSecrets.remove(clientId);
+        }
+    }
+
+    private byte[] mac(String storedSecret, String providedSecret) {
+
+        try {
+            // Mac instances are not thread safe, hence a new instance is used for each computation.
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(macKey);
+            mac.update(storedSecret.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(providedSecret.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            // HmacSHA256 is available in every Java platform.
+            throw new IllegalStateException("Error while computing the keyed hash of the client secret.", e);
+        }
+    }
+}
@@ -29,6 +29,7 @@ import org.wso2.carbon.identity.oauth.tokenprocessor.HashingPersistenceProcessor
 import org.wso2.carbon.identity.oauth.tokenprocessor.PlainTextPersistenceProcessor;
 import org.wso2.carbon.identity.oauth.tokenprocessor.TokenPersistenceProcessor;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.util.OAuth2ConfigUtil;
 
 import java.sql.Connection;
 
@@ -48,23 +49,30 @@ abstract class AbstractOAuthDAO {
     private static final String OAUTH_TOKEN_PERSISTENCE_ENABLE = "OAuth.TokenPersistence.Enable";
     // We read from these properties for the sake of backward compatibility
     private static final String FRAMEWORK_PERSISTENCE_ENABLE = "JDBCPersistenceManager.SessionDataPersist.Enable";
+    private static final String STREAMING_QUERY_FETCH_SIZE = "OAuth.StreamingQuery.FetchSize";
+    private static final int DEFAULT_STREAMING_QUERY_FETCH_SIZE = 1000;
 
     protected static final String UTC = "UTC";
     protected static final String AUTHZ_USER = "AUTHZ_USER";
     protected static final String LOWER_AUTHZ_USER = "LOWER(AUTHZ_USER)";
 
-    private TokenPersistenceProcessor persistenceProcessor, hashingPersistenceProcessor;
+    private TokenPersistenceProcessor hashingPersistenceProcessor;
 
     public AbstractOAuthDAO() {
 
-        persistenceProcessor = createPersistenceProcessor();
         hashingPersistenceProcessor = new HashingPersistenceProcessor();
 
     }
 
+    /**
+     * Get the token persistence processor of the OAuth server configuration in effect. It is not kept by the DAO, as
+     * the configuration can be reloaded.
+     *
+     * @return Token persistence processor.
+     */
     protected TokenPersistenceProcessor getPersistenceProcessor() {
 
-        return persistenceProcessor;
+        return createPersistenceProcessor();
     }
 
     /**
@@ -96,6 +104,16 @@ abstract class AbstractOAuthDAO {
         return DEFAULT_PERSIST_ENABLED;
     }
 
+    /**
+     * Get the JDBC fetch size used by queries that stream their results instead of loading them into memory.
+     *
+     * @return Number of rows fetched from the database per round trip.
+     */
+    protected int getStreamingFetchSize() {
+
+        return OAuth2ConfigUtil.readConfigValue(STREAMING_QUERY_FETCH_SIZE, DEFAULT_STREAMING_QUERY_FETCH_SIZE);
+    }
+
     protected Connection getConnection() {
 
         return IdentityDatabaseUtil.getDBConnection();
@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.tokenprocessor.HashingPersistenceProcessor;
+import org.wso2.carbon.identity.oauth.tokenprocessor.TokenPersistenceProcessor;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.sharding.AccessTokenShardRouter;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenRevocationResult;
+import org.wso2.carbon.identity.oauth2.util.OAuth2ConfigUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2TokenUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revokes access tokens in bulk. Tokens are hashed once, grouped by the access token table they are stored in when
+ * access token partitioning or sharding is enabled, and revoked with one multi-row UPDATE per chunk of tokens instead
+ * of one statement per token. Each chunk is committed on its own so that revoking a large number of tokens, e.g. when
+ * all sessions of a user are terminated, does not hold row locks over the whole set.
+ */
+class AccessTokenBulkRevoker {
+
+    private static final Log log = LogFactory.getLog(AccessTokenBulkRevoker.class);
+
+    private static final String REVOCATION_BATCH_SIZE = "OAuth.TokenRevocation.BatchSize";
+    private static final int DEFAULT_REVOCATION_BATCH_SIZE = 100;
+    // Keeps the IN lists within the limits of all the supported databases.
+    private static final int MAX_REVOCATION_BATCH_SIZE = 1000;
+
+    private final TokenPersistenceProcessor hashingPersistenceProcessor;
+    private final OldTokensCleanDAO oldTokensCleanDAO;
+    private final int batchSize;
+
+    /**
+     * @param hashingPersistenceProcessor Processor used to hash the plain text tokens.
+     * @param oldTokensCleanDAO           DAO used to clean up the revoked tokens, or null if token cleanup is disabled.
+     */
+    AccessTokenBulkRevoker(TokenPersistenceProcessor hashingPersistenceProcessor,
+                           OldTokensCleanDAO oldTokensCleanDAO) {
+
+        this(hashingPersistenceProcessor, oldTokensCleanDAO, readBatchSize());
+    }
+
+    AccessTokenBulkRevoker(TokenPersistenceProcessor hashingPersistenceProcessor,
+                           OldTokensCleanDAO oldTokensCleanDAO, int batchSize) {
+
+        this.hashingPersistenceProcessor = hashingPersistenceProcessor;
+        this.oldTokensCleanDAO = oldTokensCleanDAO;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Revoke the given access tokens.
+     *
+     * @param tokens        Tokens to revoke.
+     * @param isHashedToken Whether the given tokens are already hashed.
+     * @return Outcome of each token.
+     * @throws IdentityOAuth2Exception If an error occurs while revoking the tokens. Chunks processed before the
+     *                                 failure remain revoked.
+     */
+    AccessTokenRevocationResult revoke(String[] tokens, boolean isHashedToken) throws IdentityOAuth2Exception {
+
+        AccessTokenRevocationResult result = new AccessTokenRevocationResult();
+        if (tokens == null || tokens.length == 0) {
+            return result;
+        }
+
+        Map<String, String> tokenHashes = hashTokens(tokens, isHashedToken);
+        for (List<String> partitionTokens : groupByPartition(tokenHashes).values()) {
+            for (int fromIndex = 0; fromIndex < partitionTokens.size(); fromIndex += batchSize) {
+                List<String> chunk = partitionTokens.subList(fromIndex,
+                        Math.min(fromIndex + batchSize, partitionTokens.size()));
+                revokeChunk(chunk, tokenHashes, result);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Revoked " + result.getRevokedTokenCount() + " out of " + tokenHashes.size() +
+                    " access tokens in bulk mode.");
+        }
+        return result;
+    }
+
+    /**
+     * Map each distinct token to the value stored in the ACCESS_TOKEN_HASH column.
+     */
+    private Map<String, String> hashTokens(String[] tokens, boolean isHashedToken) throws IdentityOAuth2Exception {
+
+        if (hashingPersistenceProcessor instanceof HashingPersistenceProcessor && !isHashedToken) {
+            return ((HashingPersistenceProcessor) hashingPersistenceProcessor)
+                    .getProcessedAccessTokenIdentifiers(Arrays.asList(tokens));
+        }
+        Map<String, String> tokenHashes = new LinkedHashMap<>();
+        for (String token : tokens) {
+            if (!tokenHashes.containsKey(token)) {
+                tokenHashes.put(token, isHashedToken ? token :
+                        hashingPersistenceProcessor.getProcessedAccessTokenIdentifier(token));
+            }
+        }
+        return tokenHashes;
+    }
+
+    /**
+     * Group the tokens by the access token table they are stored in. The shard of a token cannot be derived from its
+     * hash, hence sharded tokens are kept in a single group and looked up in all the shards.
+     */
+    private Map<String, List<String>> groupByPartition(Map<String, String> tokenHashes)
+            throws IdentityOAuth2Exception {
+
+        Map<String, List<String>> tokensByTable = new LinkedHashMap<>();
+        boolean isPartitioningEnabled = OAuth2Util.checkAccessTokenPartitioningEnabled() &&
+                OAuth2Util.checkUserNameAssertionEnabled();
+        for (Map.Entry<String, String> tokenHash : tokenHashes.entrySet()) {
+            String accessTokenTable = OAuthConstants.ACCESS_TOKEN_STORE_TABLE;
+            if (isPartitioningEnabled) {
+                accessTokenTable = OAuth2Util.getTokenPartitionedSqlByToken(accessTokenTable, tokenHash.getKey());
+            }
+            tokensByTable.computeIfAbsent(accessTokenTable, table -> new ArrayList<>()).add(tokenHash.getKey());
+        }
+        return tokensByTable;
+    }
+
+    private void revokeChunk(List<String> tokens, Map<String, String> tokenHashes,
+                             AccessTokenRevocationResult result) throws IdentityOAuth2Exception {
+
+        List<String> hashes = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            hashes.add(tokenHashes.get(token));
+        }
+        String placeholders = String.join(", ", Collections.nCopies(hashes.size(), "?"));
+        // All the tokens of the chunk are stored in the same table, hence any of them resolves the partition.
+        String partitionToken = tokens.get(0);
+        AccessTokenShardRouter shardRouter = AccessTokenShardRouter.getInstance();
+        List<Integer> shards = shardRouter.getAllShards();
+
+        Map<String, String> tokenIdsByHash = new HashMap<>();
+        Connection connection = IdentityDatabaseUtil.getDBConnection(true);
+        try {
+            for (int shard : shards) {
+                Map<String, String> shardTokenIdsByHash = getTokenIds(connection, hashes, placeholders,
+                        partitionToken, shard);
+                if (shardTokenIdsByHash.isEmpty()) {
+                    continue;
+                }
+                tokenIdsByHash.putAll(shardTokenIdsByHash);
+                String sql = shardRouter.getShardedSql(OAuth2Util.getTokenPartitionedSqlByToken(SQLQueries
+                        .REVOKE_ACCESS_TOKENS_BY_ACCESS_TOKEN_HASH.replace(SQLQueries
+                                .ACCESS_TOKEN_HASH_LIST_PLACEHOLDER, placeholders), partitionToken), shard);
+                try (PreparedStatement prepStmt = connection.prepareStatement(sql)) {
+                    prepStmt.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+                    int parameterIndex = 2;
+                    for (String hash : hashes) {
+                        prepStmt.setString(parameterIndex++, hash);
+                    }
+                    int count = prepStmt.executeUpdate();
+                    if (log.isDebugEnabled()) {
+                        log.debug("Number of rows being updated : " + count);
+                    }
+                }
+            }
+            if (!tokenIdsByHash.isEmpty()) {
+                if (oldTokensCleanDAO != null) {
+                    oldTokensCleanDAO.cleanupTokensByTokenIds(new ArrayList<>(tokenIdsByHash.values()), connection);
+                }
+            }
+            IdentityDatabaseUtil.commitTransaction(connection);
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            throw new IdentityOAuth2Exception("Error occurred while revoking " + tokens.size() + " access tokens.", e);
+        } finally {
+            IdentityDatabaseUtil.closeConnection(connection);
+        }
+
+        List<String> revokedTokenIds = new ArrayList<>(tokenIdsByHash.size());
+        for (String token : tokens) {
+            String tokenId = tokenIdsByHash.get(tokenHashes.get(token));
+            if (StringUtils.isNotEmpty(tokenId)) {
+                result.addRevokedToken(token, tokenId);
+                revokedTokenIds.add(tokenId);
+            } else {
+                result.addNotFoundToken(token);
+            }
+        }
+        // To revoke request objects which have persisted against the access token.
+        if (!revokedTokenIds.isEmpty()) {
+            OAuth2TokenUtil.postUpdateAccessTokens(revokedTokenIds, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+        }
+    }
+
+    private Map<String, String> getTokenIds(Connection connection, List<String> hashes, String placeholders,
+                                            String partitionToken, int shard)
+            throws SQLException, IdentityOAuth2Exception {
+
+        String sql = AccessTokenShardRouter.getInstance().getShardedSql(OAuth2Util.getTokenPartitionedSqlByToken(
+                SQLQueries.RETRIEVE_TOKEN_IDS_BY_ACCESS_TOKEN_HASH.replace(SQLQueries
+                        .ACCESS_TOKEN_HASH_LIST_PLACEHOLDER, placeholders), partitionToken), shard);
+        Map<String, String> tokenIdsByHash = new HashMap<>();
+        try (PreparedStatement prepStmt = connection.prepareStatement(sql)) {
+            int parameterIndex = 1;
+            for (String hash : hashes) {
+                prepStmt.setString(parameterIndex++, hash);
+            }
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    tokenIdsByHash.put(resultSet.getString(1), resultSet.getString(2));
+                }
+            }
+        }
+        return tokenIdsByHash;
+    }
+
+    static int readBatchSize() {
+
+        return Math.min(OAuth2ConfigUtil.readConfigValue(REVOCATION_BATCH_SIZE, DEFAULT_REVOCATION_BATCH_SIZE),
+                MAX_REVOCATION_BATCH_SIZE);
+    }
+}
@@ -23,6 +23,7 @@ package org.wso2.carbon.identity.oauth2.dao;
 import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenRevocationResult;
 
 import java.util.Collections;
 import java.util.List;
@@ -106,6 +107,40 @@ public interface AccessTokenDAO {
     Set<AccessTokenDO> getAccessTokensOfUserStore(int tenantId, String userStoreDomain) throws
             IdentityOAuth2Exception;
 
+    /**
+     * Stream the ACTIVE and EXPIRED access tokens of the given tenant to the handler without loading them all into
+     * memory.
+     *
+     * @param tenantId Tenant id.
+     * @param handler  Handler invoked once for each access token.
+     * @throws IdentityOAuth2Exception If an error occurs while reading the tokens or from the handler.
+     */
+    default void streamAccessTokensByTenant(int tenantId, StreamingResultHandler<AccessTokenDO> handler)
+            throws IdentityOAuth2Exception {
+
+        for (AccessTokenDO accessTokenDO : getAccessTokensByTenant(tenantId)) {
+            handler.handle(accessTokenDO);
+        }
+    }
+
+    /**
+     * Stream the ACTIVE and EXPIRED access tokens of the given user store to the handler without loading them all
+     * into memory.
+     *
+     * @param tenantId        Tenant id.
+     * @param userStoreDomain User store domain.
+     * @param handler         Handler invoked once for each access token.
+     * @throws IdentityOAuth2Exception If an error occurs while reading the tokens or from the handler.
+     */
+    default void streamAccessTokensOfUserStore(int tenantId, String userStoreDomain,
+                                               StreamingResultHandler<AccessTokenDO> handler)
+            throws IdentityOAuth2Exception {
+
+        for (AccessTokenDO accessTokenDO : getAccessTokensOfUserStore(tenantId, userStoreDomain)) {
+            handler.handle(accessTokenDO);
+        }
+    }
+
     /**
      * This method is to revoke specific tokens where tokens should be plain text tokens.
      *
@@ -153,6 +188,21 @@ public interface AccessTokenDAO {
     default void revokeAccessTokensIndividually(String[] tokens, boolean isHashedToken) throws IdentityOAuth2Exception {
     }
 
+    /**
+     * Revoke the access token(s) in bulk and report the outcome of each token.
+     *
+     * @param tokens        Tokens that need to be revoked.
+     * @param isHashedToken Given tokens are hashed tokens or plain text.
+     * @return Outcome of each token, or null if the DAO does not report per token outcomes.
+     * @throws IdentityOAuth2Exception If failed to revoke the access tokens.
+     */
+    default AccessTokenRevocationResult revokeAccessTokensInBulk(String[] tokens, boolean isHashedToken)
+            throws IdentityOAuth2Exception {
+
+        revokeAccessTokens(tokens, isHashedToken);
+        return null;
+    }
+
     void revokeAccessToken(String tokenId, String userId) throws IdentityOAuth2Exception;
 
     void invalidateAndCreateNewAccessToken(String oldAccessTokenId, String tokenState, String consumerKey,
@@ -167,6 +217,29 @@ public interface AccessTokenDAO {
                 userStoreDomain);
     }
 
+    /**
+     * Invalidate the existing token and create a new token within one DB transaction, only if the existing token is
+     * still active. Used when the existing token was not read from the database for the current request.
+     *
+     * @param oldAccessTokenId Id of the existing token.
+     * @param tokenState       State to set on the existing token.
+     * @param consumerKey      Consumer key of the existing token.
+     * @param tokenStateId     New token state id of the existing token.
+     * @param accessTokenDO    New access token.
+     * @param userStoreDomain  User store domain of the token owner.
+     * @param grantType        Grant type of the existing token.
+     * @return true if the new token was created, false if the existing token is not active or the operation is not
+     * supported by the implementation.
+     * @throws IdentityOAuth2Exception If an error occurs while updating the tokens.
+     */
+    default boolean invalidateActiveAndCreateNewAccessToken(String oldAccessTokenId, String tokenState,
+                                                            String consumerKey, String tokenStateId,
+                                                            AccessTokenDO accessTokenDO, String userStoreDomain,
+                                                            String grantType) throws IdentityOAuth2Exception {
+
+        return false;
+    }
+
     void updateUserStoreDomain(int tenantId, String currentUserStoreDomain,
                                String newUserStoreDomain) throws IdentityOAuth2Exception;
 
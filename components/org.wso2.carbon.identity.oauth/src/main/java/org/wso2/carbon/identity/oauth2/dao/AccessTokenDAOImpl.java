@@ -39,11 +39,14 @@ import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.sharding.AccessTokenShardRouter;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenRevocationResult;
 import org.wso2.carbon.identity.oauth2.token.OAuthTokenReqMessageContext;
 import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
 import org.wso2.carbon.identity.oauth2.util.OAuth2TokenUtil;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 
@@ -89,6 +92,8 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
 
     private static final Log log = LogFactory.getLog(AccessTokenDAOImpl.class);
     OldTokensCleanDAO oldTokenCleanupObject = new OldTokensCleanDAO();
+    private final AccessTokenBulkRevoker accessTokenBulkRevoker = new AccessTokenBulkRevoker(
+            getHashingPersistenceProcessor(), isTokenCleanupFeatureEnabled ? oldTokenCleanupObject : null);
 
     @Override
     public void insertAccessToken(String accessToken, String consumerKey, AccessTokenDO accessTokenDO,
@@ -115,6 +120,8 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             return;
         }
 
+        TokenIssuanceMetrics.countDatabaseCall();
+
         if (accessTokenDO == null) {
             throw new IdentityOAuth2Exception(
                     "Access token data object should be available for further execution.");
@@ -189,6 +196,17 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 userDomain);
 
         try {
+            String processedAccessTokenHash = getHashingPersistenceProcessor()
+                    .getProcessedAccessTokenIdentifier(accessTokenHash);
+            int tenantId = OAuth2Util.getTenantId(accessTokenDO.getAuthzUser().getTenantDomain());
+            AccessTokenShardRouter shardRouter = AccessTokenShardRouter.getInstance();
+            if (shardRouter.isEnabled()) {
+                // Tokens sharing the CON_APP_KEY columns must be stored in the same table for the unique key to hold.
+                int shard = shardRouter.getShard(getPersistenceProcessor().getProcessedClientId(consumerKey),
+                        accessTokenDO.getAuthzUser().getUserName(), tenantId);
+                sql = shardRouter.getShardedSql(sql, shard);
+                sqlAddScopes = shardRouter.getShardedSql(sqlAddScopes, shard);
+            }
             insertTokenPrepStmt = connection.prepareStatement(sql);
             insertTokenPrepStmt.setString(1, getPersistenceProcessor().getProcessedAccessTokenIdentifier(
                     accessTokenHash));
@@ -201,7 +219,6 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             }
 
             insertTokenPrepStmt.setString(3, accessTokenDO.getAuthzUser().getUserName());
-            int tenantId = OAuth2Util.getTenantId(accessTokenDO.getAuthzUser().getTenantDomain());
             insertTokenPrepStmt.setInt(4, tenantId);
             insertTokenPrepStmt.setString(5, OAuth2Util.getSanitizedUserStoreDomain(userDomain));
             insertTokenPrepStmt
@@ -216,8 +233,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             insertTokenPrepStmt.setString(13, accessTokenDO.getTokenId());
             insertTokenPrepStmt.setString(14, accessTokenDO.getGrantType());
             insertTokenPrepStmt.setString(15, accessTokenDO.getAuthzUser().getAuthenticatedSubjectIdentifier());
-            insertTokenPrepStmt
-                    .setString(16, getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(accessTokenHash));
+            insertTokenPrepStmt.setString(16, processedAccessTokenHash);
             if (accessTokenDO.getRefreshToken() != null) {
                 insertTokenPrepStmt.setString(17,
                         getHashingPersistenceProcessor().getProcessedRefreshToken(accessTokenDO.getRefreshToken()));
@@ -410,6 +426,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                                               String scope, String tokenBindingReference, boolean includeExpiredTokens)
             throws IdentityOAuth2Exception {
 
+        TokenIssuanceMetrics.countDatabaseCall();
         if (log.isDebugEnabled()) {
             log.debug("Retrieving latest access token for client: " + consumerKey + " user: "
                     + authzUser.getLoggableUserId() + " scope: " + scope);
@@ -423,8 +440,6 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         String authenticatedIDP = OAuth2Util.getAuthenticatedIDP(authzUser);
 
         Connection connection = IdentityDatabaseUtil.getDBConnection(false);
-        PreparedStatement prepStmt = null;
-        ResultSet resultSet = null;
         try {
 
             String sql = getLatestAccessTokenQuerySQL(connection);
@@ -444,31 +459,46 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 sql = sql.replace("TOKEN_SCOPE_HASH=?", "TOKEN_SCOPE_HASH IS NULL");
             }
 
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
-            if (isUsernameCaseSensitive) {
-                prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain);
-            } else {
-                prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain.toLowerCase());
-            }
-            prepStmt.setInt(3, tenantId);
-            prepStmt.setString(4, userDomain);
+            // When the tokens are sharded, the latest token of each shard is read and the latest of them is picked.
+            AccessTokenDO latestAccessTokenDO = null;
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                try (PreparedStatement prepStmt = connection.prepareStatement(shardedSql)) {
+                    prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
+                    if (isUsernameCaseSensitive) {
+                        prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain);
+                    } else {
+                        prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain.toLowerCase());
+                    }
+                    prepStmt.setInt(3, tenantId);
+                    prepStmt.setString(4, userDomain);
 
-            if (hashedScope != null) {
-                prepStmt.setString(5, hashedScope);
-            }
+                    if (hashedScope != null) {
+                        prepStmt.setString(5, hashedScope);
+                    }
 
-            prepStmt.setString(6, tokenBindingReference);
+                    prepStmt.setString(6, tokenBindingReference);
 
-            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                prepStmt.setString(7, authenticatedIDP);
-            }
+                    if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                        prepStmt.setString(7, authenticatedIDP);
+                    }
 
-            resultSet = prepStmt.executeQuery();
+                    try (ResultSet resultSet = prepStmt.executeQuery()) {
+                        if (resultSet.next()) {
+                            AccessTokenDO accessTokenDO = buildLatestAccessTokenDO(resultSet, consumerKey,
+                                    tenantAwareUsernameWithNoUserDomain, userDomain, tenantDomain, authenticatedIDP,
+                                    scope);
+                            if (latestAccessTokenDO == null || accessTokenDO.getIssuedTime().after(
+                                    latestAccessTokenDO.getIssuedTime())) {
+                                latestAccessTokenDO = accessTokenDO;
+                            }
+                        }
+                    }
+                }
+            }
 
-            if (resultSet.next()) {
+            if (latestAccessTokenDO != null) {
                 boolean returnToken = false;
-                String tokenState = resultSet.getString(7);
+                String tokenState = latestAccessTokenDO.getTokenState();
                 if (includeExpiredTokens) {
                     if (OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE.equals(tokenState) ||
                             OAuthConstants.TokenStates.TOKEN_STATE_EXPIRED.equals(tokenState)) {
@@ -480,53 +510,18 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                     }
                 }
                 if (returnToken) {
-                    String accessToken = getPersistenceProcessor()
-                            .getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
-                    String refreshToken = null;
-                    if (resultSet.getString(2) != null) {
-                        refreshToken = getPersistenceProcessor().getPreprocessedRefreshToken(resultSet.getString(2));
-                    }
-                    long issuedTime = resultSet.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone(UTC)))
-                            .getTime();
-                    long refreshTokenIssuedTime = resultSet.getTimestamp(4, Calendar.getInstance(TimeZone.getTimeZone
-                            (UTC))).getTime();
-                    long validityPeriodInMillis = resultSet.getLong(5);
-                    long refreshTokenValidityPeriodInMillis = resultSet.getLong(6);
-
-                    String userType = resultSet.getString(8);
-                    String tokenId = resultSet.getString(9);
-                    String subjectIdentifier = resultSet.getString(10);
-                    String grantType = resultSet.getString(11);
-                    String isConsentedToken = StringUtils.EMPTY;
-                    if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
-                        isConsentedToken = resultSet.getString(12);
-                    }
-                    // data loss at dividing the validity period but can be neglected
-                    AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(tenantAwareUsernameWithNoUserDomain,
-                            userDomain, tenantDomain, authenticatedIDP);
-
-                    user.setAuthenticatedSubjectIdentifier(subjectIdentifier);
-                    AccessTokenDO accessTokenDO = new AccessTokenDO(consumerKey, user, OAuth2Util.buildScopeArray
-                            (scope), new Timestamp(issuedTime), new Timestamp(refreshTokenIssuedTime)
-                            , validityPeriodInMillis, refreshTokenValidityPeriodInMillis, userType);
-                    accessTokenDO.setAccessToken(accessToken);
-                    accessTokenDO.setRefreshToken(refreshToken);
-                    accessTokenDO.setTokenState(tokenState);
-                    accessTokenDO.setTokenId(tokenId);
-                    accessTokenDO.setGrantType(grantType);
-                    if (StringUtils.isNotEmpty(isConsentedToken)) {
-                        accessTokenDO.setIsConsentedToken(Boolean.parseBoolean(isConsentedToken));
-                    }
                     if (StringUtils.isNotBlank(tokenBindingReference) && !NONE.equals(tokenBindingReference)) {
-                        setTokenBindingToAccessTokenDO(accessTokenDO, connection, tokenId);
+                        setTokenBindingToAccessTokenDO(latestAccessTokenDO, connection,
+                                latestAccessTokenDO.getTokenId());
                     }
                     if (log.isDebugEnabled() && IdentityUtil
                             .isTokenLoggable(IdentityConstants.IdentityTokens.ACCESS_TOKEN)) {
-                        log.debug("Retrieved latest access token(hashed): " + DigestUtils.sha256Hex(accessToken)
-                                + " for client: " + consumerKey + " user: " + authzUser.getLoggableUserId()
-                                + " scope: " + scope + " token binding reference: " + tokenBindingReference);
+                        log.debug("Retrieved latest access token(hashed): " + DigestUtils.sha256Hex(
+                                latestAccessTokenDO.getAccessToken()) + " for client: " + consumerKey + " user: " +
+                                authzUser.getLoggableUserId() + " scope: " + scope + " token binding reference: " +
+                                tokenBindingReference);
                     }
-                    return accessTokenDO;
+                    return latestAccessTokenDO;
                 }
             }
             return null;
@@ -539,10 +534,56 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             }
             throw new IdentityOAuth2Exception(errorMsg, e);
         } finally {
-            IdentityDatabaseUtil.closeAllConnections(connection, resultSet, prepStmt);
+            IdentityDatabaseUtil.closeConnection(connection);
         }
     }
 
+    private AccessTokenDO buildLatestAccessTokenDO(ResultSet resultSet, String consumerKey,
+                                                   String tenantAwareUsernameWithNoUserDomain, String userDomain,
+                                                   String tenantDomain, String authenticatedIDP, String scope)
+            throws SQLException, IdentityOAuth2Exception {
+
+        String tokenState = resultSet.getString(7);
+        String accessToken = getPersistenceProcessor()
+                .getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
+        String refreshToken = null;
+        if (resultSet.getString(2) != null) {
+            refreshToken = getPersistenceProcessor().getPreprocessedRefreshToken(resultSet.getString(2));
+        }
+        long issuedTime = resultSet.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone(UTC)))
+                .getTime();
+        long refreshTokenIssuedTime = resultSet.getTimestamp(4, Calendar.getInstance(TimeZone.getTimeZone
+                (UTC))).getTime();
+        long validityPeriodInMillis = resultSet.getLong(5);
+        long refreshTokenValidityPeriodInMillis = resultSet.getLong(6);
+
+        String userType = resultSet.getString(8);
+        String tokenId = resultSet.getString(9);
+        String subjectIdentifier = resultSet.getString(10);
+        String grantType = resultSet.getString(11);
+        String isConsentedToken = StringUtils.EMPTY;
+        if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
+            isConsentedToken = resultSet.getString(12);
+        }
+        // data loss at dividing the validity period but can be neglected
+        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(tenantAwareUsernameWithNoUserDomain,
+                userDomain, tenantDomain, authenticatedIDP);
+
+        user.setAuthenticatedSubjectIdentifier(subjectIdentifier);
+        AccessTokenDO accessTokenDO = new AccessTokenDO(consumerKey, user, OAuth2Util.buildScopeArray
+                (scope), new Timestamp(issuedTime), new Timestamp(refreshTokenIssuedTime)
+                , validityPeriodInMillis, refreshTokenValidityPeriodInMillis, userType);
+        accessTokenDO.setAccessToken(accessToken);
+        accessTokenDO.setRefreshToken(refreshToken);
+        accessTokenDO.setTokenState(tokenState);
+        accessTokenDO.setTokenId(tokenId);
+        accessTokenDO.setGrantType(grantType);
+        if (StringUtils.isNotEmpty(isConsentedToken)) {
+            accessTokenDO.setIsConsentedToken(Boolean.parseBoolean(isConsentedToken));
+        }
+        return accessTokenDO;
+    }
+
     private String getLatestAccessTokenQuerySQL(Connection connection) throws SQLException {
 
         String sql;
@@ -652,8 +693,6 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         String userDomain = OAuth2Util.getUserStoreDomain(authzUser);
         String authenticatedIDP = OAuth2Util.getAuthenticatedIDP(authzUser);
 
-        PreparedStatement prepStmt = null;
-        ResultSet resultSet = null;
         try {
 
             String sql;
@@ -756,62 +795,39 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 sql = sql.replace("TOKEN_SCOPE_HASH=?", "TOKEN_SCOPE_HASH IS NULL");
             }
 
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
-            if (isUsernameCaseSensitive) {
-                prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain);
-            } else {
-                prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain.toLowerCase());
-            }
-            prepStmt.setInt(3, tenantId);
-            prepStmt.setString(4, userDomain);
-
-            if (hashedScope != null) {
-                prepStmt.setString(5, hashedScope);
-            }
+            // When the tokens are sharded, the latest token of each shard is read and the latest of them is picked.
+            AccessTokenDO accessTokenDO = null;
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                try (PreparedStatement prepStmt = connection.prepareStatement(shardedSql)) {
+                    prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
+                    if (isUsernameCaseSensitive) {
+                        prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain);
+                    } else {
+                        prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain.toLowerCase());
+                    }
+                    prepStmt.setInt(3, tenantId);
+                    prepStmt.setString(4, userDomain);
 
-            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                prepStmt.setString(6, authenticatedIDP);
-            }
+                    if (hashedScope != null) {
+                        prepStmt.setString(5, hashedScope);
+                    }
 
-            resultSet = prepStmt.executeQuery();
-            AccessTokenDO accessTokenDO = null;
+                    if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                        prepStmt.setString(6, authenticatedIDP);
+                    }
 
-            if (resultSet.next()) {
-                String accessToken = getPersistenceProcessor()
-                        .getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
-                String refreshToken = null;
-                if (resultSet.getString(2) != null) {
-                    refreshToken = getPersistenceProcessor().getPreprocessedRefreshToken(resultSet.getString(2));
-                }
-                long issuedTime = resultSet.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone("UTC")))
-                        .getTime();
-                long refreshTokenIssuedTime = resultSet.getTimestamp(4, Calendar.getInstance(TimeZone.getTimeZone
-                        ("UTC"))).getTime();
-                long validityPeriodInMillis = resultSet.getLong(5);
-                long refreshTokenValidityPeriodInMillis = resultSet.getLong(6);
-
-                String userType = resultSet.getString(7);
-                String tokenId = resultSet.getString(8);
-                String subjectIdentifier = resultSet.getString(9);
-                // data loss at dividing the validity period but can be neglected
-                AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(tenantAwareUsernameWithNoUserDomain,
-                        userDomain, tenantDomain, authenticatedIDP);
-                ServiceProvider serviceProvider;
-                try {
-                    serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
-                            getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2, tenantDomain);
-                } catch (IdentityApplicationManagementException e) {
-                    throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application data for " +
-                            "client id " + consumerKey, e);
+                    try (ResultSet resultSet = prepStmt.executeQuery()) {
+                        if (resultSet.next()) {
+                            AccessTokenDO shardAccessTokenDO = buildLatestAccessTokenDOByState(resultSet,
+                                    consumerKey, tenantAwareUsernameWithNoUserDomain, userDomain, tenantDomain,
+                                    authenticatedIDP, scope);
+                            if (accessTokenDO == null || shardAccessTokenDO.getIssuedTime().after(
+                                    accessTokenDO.getIssuedTime())) {
+                                accessTokenDO = shardAccessTokenDO;
+                            }
+                        }
+                    }
                 }
-                user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
-                accessTokenDO = new AccessTokenDO(consumerKey, user, OAuth2Util.buildScopeArray(scope),
-                        new Timestamp(issuedTime), new Timestamp(refreshTokenIssuedTime),
-                        validityPeriodInMillis, refreshTokenValidityPeriodInMillis, userType);
-                accessTokenDO.setAccessToken(accessToken);
-                accessTokenDO.setRefreshToken(refreshToken);
-                accessTokenDO.setTokenId(tokenId);
             }
             return accessTokenDO;
 
@@ -825,11 +841,52 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             }
             throw new IdentityOAuth2Exception(errorMsg, e);
 
-        } finally {
-            IdentityDatabaseUtil.closeAllConnections(null, resultSet, prepStmt);
         }
     }
 
+    private AccessTokenDO buildLatestAccessTokenDOByState(ResultSet resultSet, String consumerKey,
+                                                          String tenantAwareUsernameWithNoUserDomain,
+                                                          String userDomain, String tenantDomain,
+                                                          String authenticatedIDP, String scope)
+            throws SQLException, IdentityOAuth2Exception {
+
+        String accessToken = getPersistenceProcessor()
+                .getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
+        String refreshToken = null;
+        if (resultSet.getString(2) != null) {
+            refreshToken = getPersistenceProcessor().getPreprocessedRefreshToken(resultSet.getString(2));
+        }
+        long issuedTime = resultSet.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone("UTC")))
+                .getTime();
+        long refreshTokenIssuedTime = resultSet.getTimestamp(4, Calendar.getInstance(TimeZone.getTimeZone
+                ("UTC"))).getTime();
+        long validityPeriodInMillis = resultSet.getLong(5);
+        long refreshTokenValidityPeriodInMillis = resultSet.getLong(6);
+
+        String userType = resultSet.getString(7);
+        String tokenId = resultSet.getString(8);
+        String subjectIdentifier = resultSet.getString(9);
+        // data loss at dividing the validity period but can be neglected
+        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(tenantAwareUsernameWithNoUserDomain,
+                userDomain, tenantDomain, authenticatedIDP);
+        ServiceProvider serviceProvider;
+        try {
+            serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
+                    getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2, tenantDomain);
+        } catch (IdentityApplicationManagementException e) {
+            throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application data for " +
+                    "client id " + consumerKey, e);
+        }
+        user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
+        AccessTokenDO accessTokenDO = new AccessTokenDO(consumerKey, user, OAuth2Util.buildScopeArray(scope),
+                new Timestamp(issuedTime), new Timestamp(refreshTokenIssuedTime),
+                validityPeriodInMillis, refreshTokenValidityPeriodInMillis, userType);
+        accessTokenDO.setAccessToken(accessToken);
+        accessTokenDO.setRefreshToken(refreshToken);
+        accessTokenDO.setTokenId(tokenId);
+        return accessTokenDO;
+    }
+
     @Override
     public Set<AccessTokenDO> getAccessTokens(String consumerKey, AuthenticatedUser userName,
                                               String userStoreDomain, boolean includeExpired)
@@ -875,63 +932,69 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 sql = sql.replace(AUTHZ_USER, LOWER_AUTHZ_USER);
             }
 
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
-            if (isUsernameCaseSensitive) {
-                prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain);
-            } else {
-                prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain.toLowerCase());
-            }
-            prepStmt.setInt(3, tenantId);
-            prepStmt.setString(4, userDomain);
-            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                prepStmt.setString(5, authenticatedIDP);
-            }
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                prepStmt = connection.prepareStatement(shardedSql);
+                prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
+                if (isUsernameCaseSensitive) {
+                    prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain);
+                } else {
+                    prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain.toLowerCase());
+                }
+                prepStmt.setInt(3, tenantId);
+                prepStmt.setString(4, userDomain);
+                if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                    prepStmt.setString(5, authenticatedIDP);
+                }
 
-            resultSet = prepStmt.executeQuery();
+                resultSet = prepStmt.executeQuery();
 
-            while (resultSet.next()) {
-                String accessToken = getPersistenceProcessor()
-                        .getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
-                if (accessTokenDOMap.get(accessToken) == null) {
-                    String refreshToken = getPersistenceProcessor().getPreprocessedRefreshToken(resultSet.getString(2));
-                    Timestamp issuedTime = resultSet.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                    Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(4, Calendar.getInstance(TimeZone
-                            .getTimeZone(UTC)));
-                    long validityPeriodInMillis = resultSet.getLong(5);
-                    long refreshTokenValidityPeriodMillis = resultSet.getLong(6);
-                    String tokenType = resultSet.getString(7);
-                    String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(8));
-                    String tokenId = resultSet.getString(9);
-                    String subjectIdentifier = resultSet.getString(10);
-                    String tokenBindingReference = resultSet.getString(11);
-
-                    AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(tenantAwareUsernameWithNoUserDomain,
-                            userDomain, tenantDomain, authenticatedIDP);
-                    ServiceProvider serviceProvider;
-                    try {
-                        serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
-                                getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2, tenantDomain);
-                    } catch (IdentityApplicationManagementException e) {
-                        throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application data " +
-                                "for client id " + consumerKey, e);
-                    }
-                    user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
-                    AccessTokenDO dataDO = new AccessTokenDO(consumerKey, user, scope, issuedTime,
-                            refreshTokenIssuedTime, validityPeriodInMillis,
-                            refreshTokenValidityPeriodMillis, tokenType);
-                    dataDO.setAccessToken(accessToken);
-                    dataDO.setRefreshToken(refreshToken);
-                    dataDO.setTokenId(tokenId);
-                    if (StringUtils.isNotBlank(tokenBindingReference) && !NONE.equals(tokenBindingReference)) {
-                        setTokenBindingToAccessTokenDO(dataDO, connection, tokenId);
+                while (resultSet.next()) {
+                    String accessToken = getPersistenceProcessor()
+                            .getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
+                    if (accessTokenDOMap.get(accessToken) == null) {
+                        String refreshToken = getPersistenceProcessor()
+                                .getPreprocessedRefreshToken(resultSet.getString(2));
+                        Timestamp issuedTime = resultSet.getTimestamp(3,
+                                Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                        Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(4, Calendar.getInstance(TimeZone
+                                .getTimeZone(UTC)));
+                        long validityPeriodInMillis = resultSet.getLong(5);
+                        long refreshTokenValidityPeriodMillis = resultSet.getLong(6);
+                        String tokenType = resultSet.getString(7);
+                        String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(8));
+                        String tokenId = resultSet.getString(9);
+                        String subjectIdentifier = resultSet.getString(10);
+                        String tokenBindingReference = resultSet.getString(11);
+
+                        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(tenantAwareUsernameWithNoUserDomain,
+                                userDomain, tenantDomain, authenticatedIDP);
+                        ServiceProvider serviceProvider;
+                        try {
+                            serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
+                                    getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2,
+                                            tenantDomain);
+                        } catch (IdentityApplicationManagementException e) {
+                            throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application " +
+                                    "data for client id " + consumerKey, e);
+                        }
+                        user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
+                        AccessTokenDO dataDO = new AccessTokenDO(consumerKey, user, scope, issuedTime,
+                                refreshTokenIssuedTime, validityPeriodInMillis,
+                                refreshTokenValidityPeriodMillis, tokenType);
+                        dataDO.setAccessToken(accessToken);
+                        dataDO.setRefreshToken(refreshToken);
+                        dataDO.setTokenId(tokenId);
+                        if (StringUtils.isNotBlank(tokenBindingReference) && !NONE.equals(tokenBindingReference)) {
+                            setTokenBindingToAccessTokenDO(dataDO, connection, tokenId);
+                        }
+                        accessTokenDOMap.put(accessToken, dataDO);
+                    } else {
+                        String scope = resultSet.getString(8).trim();
+                        AccessTokenDO accessTokenDO = accessTokenDOMap.get(accessToken);
+                        accessTokenDO.setScope((String[]) ArrayUtils.add(accessTokenDO.getScope(), scope));
                     }
-                    accessTokenDOMap.put(accessToken, dataDO);
-                } else {
-                    String scope = resultSet.getString(8).trim();
-                    AccessTokenDO accessTokenDO = accessTokenDOMap.get(accessToken);
-                    accessTokenDO.setScope((String[]) ArrayUtils.add(accessTokenDO.getScope(), scope));
                 }
+                IdentityDatabaseUtil.closeAllConnections(null, resultSet, prepStmt);
             }
         } catch (SQLException e) {
             String errorMsg = "Error occurred while retrieving 'ACTIVE' access tokens for " +
@@ -951,127 +1014,145 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     public AccessTokenDO getAccessToken(String accessTokenIdentifier, boolean includeExpired)
             throws IdentityOAuth2Exception {
 
+        TokenIssuanceMetrics.countDatabaseCall();
         if (log.isDebugEnabled() && IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.ACCESS_TOKEN)) {
             log.debug("Retrieving information of access token(hashed): " + DigestUtils.sha256Hex
                     (accessTokenIdentifier));
         }
 
-        AccessTokenDO dataDO = null;
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
-        PreparedStatement prepStmt = null;
-        ResultSet resultSet = null;
-        try {
-            String sql;
-            boolean isConsentedColumnDataFetched = false;
-            if (includeExpired) {
-                if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                        sql = SQLQueries.RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKEN_IDP_NAME;
+        // The token state is used to validate and introspect the token, hence it is always read from the primary
+        // database. A replica could still return a token which has already been revoked.
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
+            return getAccessToken(connection, accessTokenIdentifier, includeExpired);
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error when retrieving Access Token" + e);
+        }
+    }
+
+    private AccessTokenDO getAccessToken(Connection connection, String accessTokenIdentifier, boolean includeExpired)
+            throws IdentityOAuth2Exception, SQLException {
+
+        String sql;
+        boolean isConsentedColumnDataFetched = false;
+        if (includeExpired) {
+            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                sql = SQLQueries.RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKEN_IDP_NAME;
+            } else {
+                sql = SQLQueries.RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKEN;
+            }
+        } else {
+            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
+                    sql = SQLQueries.RETRIEVE_ACTIVE_ACCESS_TOKEN_IDP_NAME_WITH_CONSENTED_TOKEN;
+                    isConsentedColumnDataFetched = true;
                 } else {
-                        sql = SQLQueries.RETRIEVE_ACTIVE_EXPIRED_ACCESS_TOKEN;
+                    sql = SQLQueries.RETRIEVE_ACTIVE_ACCESS_TOKEN_IDP_NAME;
                 }
             } else {
-                if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                        if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
-                            sql = SQLQueries.RETRIEVE_ACTIVE_ACCESS_TOKEN_IDP_NAME_WITH_CONSENTED_TOKEN;
-                            isConsentedColumnDataFetched = true;
-                        } else {
-                            sql = SQLQueries.RETRIEVE_ACTIVE_ACCESS_TOKEN_IDP_NAME;
-                        }
+                if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
+                    sql = SQLQueries.RETRIEVE_ACTIVE_ACCESS_TOKEN_WITH_CONSENTED_TOKEN;
+                    isConsentedColumnDataFetched = true;
                 } else {
-                        if (OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled()) {
-                            sql = SQLQueries.RETRIEVE_ACTIVE_ACCESS_TOKEN_WITH_CONSENTED_TOKEN;
-                            isConsentedColumnDataFetched = true;
-                        } else {
-                            sql = SQLQueries.RETRIEVE_ACTIVE_ACCESS_TOKEN;
-                        }
+                    sql = SQLQueries.RETRIEVE_ACTIVE_ACCESS_TOKEN;
                 }
             }
+        }
 
-            sql = OAuth2Util.getTokenPartitionedSqlByToken(sql, accessTokenIdentifier);
-
-            prepStmt = connection.prepareStatement(sql);
+        sql = OAuth2Util.getTokenPartitionedSqlByToken(sql, accessTokenIdentifier);
+        String tokenHash = getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(accessTokenIdentifier);
+        AccessTokenShardRouter shardRouter = AccessTokenShardRouter.getInstance();
+        for (int shard : shardRouter.getAllShards()) {
+            AccessTokenDO dataDO = getAccessToken(connection, shardRouter.getShardedSql(sql, shard),
+                    accessTokenIdentifier, tokenHash, isConsentedColumnDataFetched);
+            if (dataDO != null) {
+                return dataDO;
+            }
+        }
+        return null;
+    }
 
-            prepStmt.setString(1,
-                    getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(accessTokenIdentifier));
-            resultSet = prepStmt.executeQuery();
+    private AccessTokenDO getAccessToken(Connection connection, String sql, String accessTokenIdentifier,
+                                         String tokenHash, boolean isConsentedColumnDataFetched)
+            throws IdentityOAuth2Exception, SQLException {
 
-            int iterateId = 0;
-            List<String> scopes = new ArrayList<>();
-            while (resultSet.next()) {
+        AccessTokenDO dataDO = null;
+        try (PreparedStatement prepStmt = connection.prepareStatement(sql)) {
+            prepStmt.setString(1, tokenHash);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                int iterateId = 0;
+                List<String> scopes = new ArrayList<>();
+                while (resultSet.next()) {
 
-                if (iterateId == 0) {
-
-                    String consumerKey = getPersistenceProcessor().getPreprocessedClientId(resultSet.getString(1));
-                    String authorizedUser = resultSet.getString(2);
-                    int tenantId = resultSet.getInt(3);
-                    String tenantDomain = OAuth2Util.getTenantDomain(tenantId);
-                    String userDomain = resultSet.getString(4);
-                    String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(5));
-                    Timestamp issuedTime = resultSet.getTimestamp(6, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                    Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(7,
-                            Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                    long validityPeriodInMillis = resultSet.getLong(8);
-                    long refreshTokenValidityPeriodMillis = resultSet.getLong(9);
-                    String tokenType = resultSet.getString(10);
-                    String refreshToken = resultSet.getString(11);
-                    String tokenId = resultSet.getString(12);
-                    String grantType = resultSet.getString(13);
-                    String subjectIdentifier = resultSet.getString(14);
-                    String authenticatedIDP = null;
-                    String tokenBindingReference = resultSet.getString(15);
-                    if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                        authenticatedIDP = resultSet.getString(16);
-                    }
+                    if (iterateId == 0) {
+
+                        String consumerKey = getPersistenceProcessor().getPreprocessedClientId(resultSet.getString(1));
+                        String authorizedUser = resultSet.getString(2);
+                        int tenantId = resultSet.getInt(3);
+                        String tenantDomain = OAuth2Util.getTenantDomain(tenantId);
+                        String userDomain = resultSet.getString(4);
+                        String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(5));
+                        Timestamp issuedTime = resultSet.getTimestamp(6,
+                                Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                        Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(7,
+                                Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                        long validityPeriodInMillis = resultSet.getLong(8);
+                        long refreshTokenValidityPeriodMillis = resultSet.getLong(9);
+                        String tokenType = resultSet.getString(10);
+                        String refreshToken = resultSet.getString(11);
+                        String tokenId = resultSet.getString(12);
+                        String grantType = resultSet.getString(13);
+                        String subjectIdentifier = resultSet.getString(14);
+                        String authenticatedIDP = null;
+                        String tokenBindingReference = resultSet.getString(15);
+                        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                            authenticatedIDP = resultSet.getString(16);
+                        }
 
-                    boolean isConsentedToken = false;
-                    if (isConsentedColumnDataFetched) {
-                        int consentedTokenColumnIndex = resultSet.findColumn(CONSENTED_TOKEN_COLUMN_NAME);
-                        isConsentedToken = resultSet.getBoolean(consentedTokenColumnIndex);
-                    }
+                        boolean isConsentedToken = false;
+                        if (isConsentedColumnDataFetched) {
+                            int consentedTokenColumnIndex = resultSet.findColumn(CONSENTED_TOKEN_COLUMN_NAME);
+                            isConsentedToken = resultSet.getBoolean(consentedTokenColumnIndex);
+                        }
 
-                    AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authorizedUser,
-                            userDomain, tenantDomain, authenticatedIDP);
-                    ServiceProvider serviceProvider;
-                    try {
-                        serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
-                                getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2, tenantDomain);
-                    } catch (IdentityApplicationManagementException e) {
-                        throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application data " +
-                                "for client id " + consumerKey, e);
-                    }
+                        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authorizedUser,
+                                userDomain, tenantDomain, authenticatedIDP);
+                        ServiceProvider serviceProvider;
+                        try {
+                            serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService()
+                                    .getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2,
+                                            tenantDomain);
+                        } catch (IdentityApplicationManagementException e) {
+                            throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application " +
+                                    "data for client id " + consumerKey, e);
+                        }
 
-                    user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
+                        user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
 
-                    dataDO = new AccessTokenDO(consumerKey, user, scope, issuedTime, refreshTokenIssuedTime,
-                            validityPeriodInMillis, refreshTokenValidityPeriodMillis, tokenType);
-                    dataDO.setAccessToken(accessTokenIdentifier);
-                    dataDO.setRefreshToken(refreshToken);
-                    dataDO.setTokenId(tokenId);
-                    dataDO.setGrantType(grantType);
-                    dataDO.setTenantID(tenantId);
-                    dataDO.setIsConsentedToken(isConsentedToken);
+                        dataDO = new AccessTokenDO(consumerKey, user, scope, issuedTime, refreshTokenIssuedTime,
+                                validityPeriodInMillis, refreshTokenValidityPeriodMillis, tokenType);
+                        dataDO.setAccessToken(accessTokenIdentifier);
+                        dataDO.setRefreshToken(refreshToken);
+                        dataDO.setTokenId(tokenId);
+                        dataDO.setGrantType(grantType);
+                        dataDO.setTenantID(tenantId);
+                        dataDO.setIsConsentedToken(isConsentedToken);
 
-                    if (StringUtils.isNotBlank(tokenBindingReference) && !NONE.equals(tokenBindingReference)) {
-                        setTokenBindingToAccessTokenDO(dataDO, connection, tokenId);
+                        if (StringUtils.isNotBlank(tokenBindingReference) && !NONE.equals(tokenBindingReference)) {
+                            setTokenBindingToAccessTokenDO(dataDO, connection, tokenId);
+                        }
+                    } else {
+                        scopes.add(resultSet.getString(5));
                     }
-                } else {
-                    scopes.add(resultSet.getString(5));
-                }
 
-                iterateId++;
-            }
+                    iterateId++;
+                }
 
-            if (scopes.size() > 0 && dataDO != null) {
-                dataDO.setScope((String[]) ArrayUtils.addAll(dataDO.getScope(),
-                        scopes.toArray(new String[scopes.size()])));
+                if (scopes.size() > 0 && dataDO != null) {
+                    dataDO.setScope((String[]) ArrayUtils.addAll(dataDO.getScope(),
+                            scopes.toArray(new String[scopes.size()])));
+                }
             }
-
-        } catch (SQLException e) {
-            throw new IdentityOAuth2Exception("Error when retrieving Access Token" + e);
-        } finally {
-            IdentityDatabaseUtil.closeAllConnections(connection, resultSet, prepStmt);
         }
-
         return dataDO;
     }
 
@@ -1190,13 +1271,18 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 log.debug("Changing status of access token with id: " + tokenId + " to: " + tokenState);
             }
 
-            String sql = SQLQueries.UPDATE_TOKEN_STATE;
-            try (PreparedStatement prepStmt = connection.prepareStatement(sql)) {
-
-                prepStmt.setString(1, tokenState);
-                prepStmt.setString(2, UUID.randomUUID().toString());
-                prepStmt.setString(3, tokenId);
-                prepStmt.executeUpdate();
+            String tokenStateId = UUID.randomUUID().toString();
+            try {
+                // The token is only known by its id, hence it is updated in all the shards.
+                for (String sql : AccessTokenShardRouter.getInstance()
+                        .getAllShardedSqls(SQLQueries.UPDATE_TOKEN_STATE)) {
+                    try (PreparedStatement prepStmt = connection.prepareStatement(sql)) {
+                        prepStmt.setString(1, tokenState);
+                        prepStmt.setString(2, tokenStateId);
+                        prepStmt.setString(3, tokenId);
+                        prepStmt.executeUpdate();
+                    }
+                }
                 tokenUpdateSuccessful = true;
 
                 if (isTokenCleanupFeatureEnabled && !OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE.equals(tokenState)) {
@@ -1228,12 +1314,14 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             throws SQLException {
 
         String sql = SQLQueries.GET_TOKEN_IS_CONSENTED_OR_NOT;
-        PreparedStatement prepStmt = connection.prepareStatement(sql);
-        prepStmt.setString(1, tokenId);
-        ResultSet resultSet = prepStmt.executeQuery();
         String initialGrant = StringUtils.EMPTY;
-        while (resultSet.next()) {
-            initialGrant = resultSet.getString(1);
+        for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+            PreparedStatement prepStmt = connection.prepareStatement(shardedSql);
+            prepStmt.setString(1, tokenId);
+            ResultSet resultSet = prepStmt.executeQuery();
+            while (resultSet.next()) {
+                initialGrant = resultSet.getString(1);
+            }
         }
         return Boolean.parseBoolean(initialGrant);
     }
@@ -1251,11 +1339,14 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
 
             String sql = SQLQueries.UPDATE_TOKEN_STATE;
             sql = OAuth2Util.getTokenPartitionedSqlByUserStore(sql, userStoreDomain);
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setString(1, tokenState);
-            prepStmt.setString(2, tokenStateId);
-            prepStmt.setString(3, tokenId);
-            prepStmt.executeUpdate();
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                prepStmt = connection.prepareStatement(shardedSql);
+                prepStmt.setString(1, tokenState);
+                prepStmt.setString(2, tokenStateId);
+                prepStmt.setString(3, tokenId);
+                prepStmt.executeUpdate();
+                IdentityDatabaseUtil.closeStatement(prepStmt);
+            }
             if (StringUtils.equals(grantType, OAuthConstants.GrantTypes.CLIENT_CREDENTIALS) ||
                     StringUtils.equals(grantType, OAuthConstants.GrantTypes.PASSWORD)) {
                 OAuth2TokenUtil.postUpdateAccessToken(tokenId, tokenState, false);
@@ -1272,6 +1363,44 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         }
     }
 
+    private boolean updateAccessTokenState(Connection connection, String tokenId, String expectedTokenState,
+                                           String tokenState, String tokenStateId, String userStoreDomain,
+                                           String grantType) throws IdentityOAuth2Exception, SQLException {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Changing status of access token with id: " + tokenId + " from: " + expectedTokenState +
+                    " to: " + tokenState + " userStoreDomain: " + userStoreDomain);
+        }
+        String sql = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.UPDATE_TOKEN_STATE_IF_IN_STATE,
+                userStoreDomain);
+        try {
+            int updatedRows = 0;
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                try (PreparedStatement prepStmt = connection.prepareStatement(shardedSql)) {
+                    prepStmt.setString(1, tokenState);
+                    prepStmt.setString(2, tokenStateId);
+                    prepStmt.setString(3, tokenId);
+                    prepStmt.setString(4, expectedTokenState);
+                    updatedRows += prepStmt.executeUpdate();
+                }
+            }
+            if (updatedRows == 0) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Access token with id: " + tokenId + " is not in the state: " + expectedTokenState);
+                }
+                return false;
+            }
+        } catch (SQLException e) {
+            IdentityDatabaseUtil.rollbackTransaction(connection);
+            throw new IdentityOAuth2Exception("Error while updating Access Token with ID : " +
+                    tokenId + " to Token State : " + tokenState, e);
+        }
+        OAuth2TokenUtil.postUpdateAccessToken(tokenId, tokenState,
+                !StringUtils.equals(grantType, OAuthConstants.GrantTypes.CLIENT_CREDENTIALS) &&
+                        !StringUtils.equals(grantType, OAuthConstants.GrantTypes.PASSWORD));
+        return true;
+    }
+
     /**
      * This method is to revoke specific tokens where tokens should be plain text tokens.
      *
@@ -1281,11 +1410,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     @Override
     public void revokeAccessTokens(String[] tokens) throws IdentityOAuth2Exception {
 
-        if (OAuth2Util.checkAccessTokenPartitioningEnabled() && OAuth2Util.checkUserNameAssertionEnabled()) {
-            revokeAccessTokensIndividually(tokens);
-        } else {
-            revokeAccessTokensInBatch(tokens);
-        }
+        revokeAccessTokensInBulk(tokens, false);
     }
 
     /**
@@ -1303,17 +1428,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     @Override
     public void revokeAccessTokens(String[] tokens, boolean isHashedToken) throws IdentityOAuth2Exception {
 
-        if (isHashedToken) {
-            // Token is hashed, no need to hash it again.
-            if (OAuth2Util.checkAccessTokenPartitioningEnabled() && OAuth2Util.checkUserNameAssertionEnabled()) {
-                revokeAccessTokensIndividually(tokens, true);
-            } else {
-                revokeAccessTokensInBatch(tokens, true);
-            }
-        } else {
-            // Token is plain token, hence pass it to default revokeAccessTokens method.
-            revokeAccessTokens(tokens);
-        }
+        revokeAccessTokensInBulk(tokens, isHashedToken);
     }
 
     /**
@@ -1338,90 +1453,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     @Override
     public void revokeAccessTokensInBatch(String[] tokens, boolean isHashedToken) throws IdentityOAuth2Exception {
 
-        if (ArrayUtils.isEmpty(tokens)) {
-            if (log.isDebugEnabled()) {
-                log.debug("No tokens to revoke in batch mode. Therefore not continuing further in revocation.");
-            }
-            return;
-        }
-
-        if (log.isDebugEnabled()) {
-            if (IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.ACCESS_TOKEN)) {
-                StringBuilder stringBuilder = new StringBuilder();
-                for (String token : tokens) {
-                    stringBuilder.append(DigestUtils.sha256Hex(token)).append(" ");
-                }
-                log.debug("Revoking access tokens(hashed): " + stringBuilder.toString());
-            } else {
-                log.debug("Revoking access tokens in batch mode");
-            }
-        }
-        String accessTokenStoreTable = OAuthConstants.ACCESS_TOKEN_STORE_TABLE;
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
-        PreparedStatement ps = null;
-        if (tokens.length > 1) {
-            try {
-                List<String> oldTokens = new ArrayList<>();
-                String sqlQuery = SQLQueries.REVOKE_ACCESS_TOKEN.replace(IDN_OAUTH2_ACCESS_TOKEN,
-                        accessTokenStoreTable);
-                ps = connection.prepareStatement(sqlQuery);
-                for (String token : tokens) {
-                    ps.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
-                    ps.setString(2, UUID.randomUUID().toString());
-                    if (isHashedToken) {
-                        ps.setString(3, token);
-                    } else {
-                        ps.setString(3, getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token));
-                    }
-                    ps.addBatch();
-                    oldTokens.add(getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token));
-                }
-                ps.executeBatch();
-                IdentityDatabaseUtil.commitTransaction(connection);
-                // To revoke request objects which have persisted against the access token.
-                OAuth2TokenUtil.postUpdateAccessTokens(Arrays.asList(tokens), OAuthConstants.TokenStates.
-                        TOKEN_STATE_REVOKED);
-                if (isTokenCleanupFeatureEnabled) {
-                    oldTokenCleanupObject.cleanupTokensInBatch(oldTokens, connection);
-                }
-            } catch (SQLException e) {
-                IdentityDatabaseUtil.rollbackTransaction(connection);
-                throw new IdentityOAuth2Exception("Error occurred while revoking Access Tokens : " +
-                        Arrays.toString(tokens), e);
-            } finally {
-                IdentityDatabaseUtil.closeAllConnections(connection, null, ps);
-            }
-        }
-        if (tokens.length == 1) {
-            try {
-                connection.setAutoCommit(true);
-                String sqlQuery = SQLQueries.REVOKE_ACCESS_TOKEN.replace(IDN_OAUTH2_ACCESS_TOKEN,
-                        accessTokenStoreTable);
-                ps = connection.prepareStatement(sqlQuery);
-                ps.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
-                ps.setString(2, UUID.randomUUID().toString());
-                if (isHashedToken) {
-                    ps.setString(3, tokens[0]);
-                } else {
-                    ps.setString(3, getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(tokens[0]));
-                }
-                ps.executeUpdate();
-
-                // To revoke request objects which have persisted against the access token.
-                OAuth2TokenUtil.postUpdateAccessTokens(Arrays.asList(tokens), OAuthConstants.TokenStates.
-                        TOKEN_STATE_REVOKED);
-                if (isTokenCleanupFeatureEnabled) {
-                    oldTokenCleanupObject.cleanupTokenByTokenValue(
-                            getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(tokens[0]), connection);
-                }
-            } catch (SQLException e) {
-                // IdentityDatabaseUtil.rollbackTransaction(connection);
-                throw new IdentityOAuth2Exception("Error occurred while revoking Access Token : " +
-                        Arrays.toString(tokens), e);
-            } finally {
-                IdentityDatabaseUtil.closeAllConnections(connection, null, ps);
-            }
-        }
+        revokeAccessTokensInBulk(tokens, isHashedToken);
     }
 
     /**
@@ -1437,7 +1469,8 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     }
 
     /**
-     * Revoke the access token(s) individually.
+     * Revoke the access token(s) individually. Tokens are revoked in bulk as well, since the bulk revocation
+     * resolves the partitioned access token table of each token.
      *
      * @param tokens        Token that needs to be revoked.
      * @param isHashedToken Given token is hashed token or plain text.
@@ -1446,7 +1479,29 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     @Override
     public void revokeAccessTokensIndividually(String[] tokens, boolean isHashedToken) throws IdentityOAuth2Exception {
 
-        List<String> accessTokenId = new ArrayList<>();
+        revokeAccessTokensInBulk(tokens, isHashedToken);
+    }
+
+    /**
+     * Revoke the access token(s) in bulk. Tokens are hashed once, grouped by the partitioned access token table they
+     * are stored in and revoked in chunks with multi-row updates.
+     *
+     * @param tokens        Tokens that need to be revoked.
+     * @param isHashedToken Given tokens are hashed tokens or plain text.
+     * @return Outcome of each token.
+     * @throws IdentityOAuth2Exception If failed to revoke the access tokens.
+     */
+    @Override
+    public AccessTokenRevocationResult revokeAccessTokensInBulk(String[] tokens, boolean isHashedToken)
+            throws IdentityOAuth2Exception {
+
+        if (ArrayUtils.isEmpty(tokens)) {
+            if (log.isDebugEnabled()) {
+                log.debug("No tokens to revoke in bulk mode. Therefore not continuing further in revocation.");
+            }
+            return new AccessTokenRevocationResult();
+        }
+
         if (log.isDebugEnabled()) {
             if (IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.ACCESS_TOKEN)) {
                 StringBuilder stringBuilder = new StringBuilder();
@@ -1455,49 +1510,10 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 }
                 log.debug("Revoking access tokens(hashed): " + stringBuilder.toString());
             } else {
-                log.debug("Revoking access tokens in individual mode");
+                log.debug("Revoking access tokens in bulk mode");
             }
         }
-
-        Connection connection = IdentityDatabaseUtil.getDBConnection();
-        PreparedStatement ps = null;
-        try {
-            for (String token : tokens) {
-                String sqlQuery = OAuth2Util.getTokenPartitionedSqlByToken(SQLQueries.REVOKE_ACCESS_TOKEN, token);
-                ps = connection.prepareStatement(sqlQuery);
-                ps.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
-                ps.setString(2, UUID.randomUUID().toString());
-                if (isHashedToken) {
-                    ps.setString(3, token);
-                } else {
-                    ps.setString(3, getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token));
-                }
-                int count = ps.executeUpdate();
-                if (log.isDebugEnabled()) {
-                    log.debug("Number of rows being updated : " + count);
-                }
-                accessTokenId.add(getTokenIdByAccessToken(token));
-            }
-            // To revoke request objects which have persisted against the access token.
-            if (accessTokenId.size() > 0) {
-                OAuth2TokenUtil.postUpdateAccessTokens(accessTokenId, OAuthConstants.TokenStates.
-                        TOKEN_STATE_REVOKED);
-            }
-
-            if (isTokenCleanupFeatureEnabled) {
-                for (String token : tokens) {
-                    oldTokenCleanupObject.cleanupTokenByTokenValue(
-                            getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token), connection);
-                }
-            }
-            IdentityDatabaseUtil.commitTransaction(connection);
-        } catch (SQLException e) {
-            IdentityDatabaseUtil.rollbackTransaction(connection);
-            throw new IdentityOAuth2Exception("Error occurred while revoking Access Token : " +
-                    Arrays.toString(tokens), e);
-        } finally {
-            IdentityDatabaseUtil.closeAllConnections(connection, null, ps);
-        }
+        return accessTokenBulkRevoker.revoke(tokens, isHashedToken);
     }
 
     /**
@@ -1518,11 +1534,16 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         try {
             String sqlQuery = OAuth2Util.getTokenPartitionedSqlByUserId(SQLQueries.REVOKE_ACCESS_TOKEN_BY_TOKEN_ID,
                     userId);
-            ps = connection.prepareStatement(sqlQuery);
-            ps.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
-            ps.setString(2, UUID.randomUUID().toString());
-            ps.setString(3, tokenId);
-            int count = ps.executeUpdate();
+            String tokenStateId = UUID.randomUUID().toString();
+            int count = 0;
+            for (String shardedSqlQuery : AccessTokenShardRouter.getInstance().getAllShardedSqls(sqlQuery)) {
+                ps = connection.prepareStatement(shardedSqlQuery);
+                ps.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+                ps.setString(2, tokenStateId);
+                ps.setString(3, tokenId);
+                count += ps.executeUpdate();
+                IdentityDatabaseUtil.closeStatement(ps);
+            }
             if (log.isDebugEnabled()) {
                 log.debug("Number of rows being updated : " + count);
             }
@@ -1572,32 +1593,36 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             if (!isUsernameCaseSensitive) {
                 sqlQuery = sqlQuery.replace(AUTHZ_USER, LOWER_AUTHZ_USER);
             }
-            ps = connection.prepareStatement(sqlQuery);
-            if (isUsernameCaseSensitive) {
-                ps.setString(1, authenticatedUser.getUserName());
-            } else {
-                ps.setString(1, authenticatedUser.getUserName().toLowerCase());
-            }
-            ps.setInt(2, OAuth2Util.getTenantId(authenticatedUser.getTenantDomain()));
-            ps.setString(3, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
-            ps.setString(4, authenticatedUser.getUserStoreDomain());
-            rs = ps.executeQuery();
-            while (rs.next()) {
-                String accessToken = getPersistenceProcessor().getPreprocessedAccessTokenIdentifier(rs.getString(1));
-                String tokenUserType = rs.getString(2);
-
-                // Tokens returned by this method will be used to clear claims cached against the tokens,
-                // we will only return tokens that would contain such cached clams in order to improve performance.
-                if (isApplicationUserToken(tokenUserType)) {
-                    // Tokens issued for a user can contain cached claims against them.
-                    accessTokens.add(accessToken);
+            for (String shardedSqlQuery : AccessTokenShardRouter.getInstance().getAllShardedSqls(sqlQuery)) {
+                ps = connection.prepareStatement(shardedSqlQuery);
+                if (isUsernameCaseSensitive) {
+                    ps.setString(1, authenticatedUser.getUserName());
                 } else {
-                    if (isIdTokenIssuedForClientCredentialsGrant) {
-                        // If id_token is issued for client_credentials grant type, such application tokens could
-                        // also contain claims cached against them.
+                    ps.setString(1, authenticatedUser.getUserName().toLowerCase());
+                }
+                ps.setInt(2, OAuth2Util.getTenantId(authenticatedUser.getTenantDomain()));
+                ps.setString(3, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+                ps.setString(4, authenticatedUser.getUserStoreDomain());
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    String accessToken = getPersistenceProcessor()
+                            .getPreprocessedAccessTokenIdentifier(rs.getString(1));
+                    String tokenUserType = rs.getString(2);
+
+                    // Tokens returned by this method will be used to clear claims cached against the tokens, we
+                    // will only return tokens that would contain such cached clams in order to improve performance.
+                    if (isApplicationUserToken(tokenUserType)) {
+                        // Tokens issued for a user can contain cached claims against them.
                         accessTokens.add(accessToken);
+                    } else {
+                        if (isIdTokenIssuedForClientCredentialsGrant) {
+                            // If id_token is issued for client_credentials grant type, such application tokens
+                            // could also contain claims cached against them.
+                            accessTokens.add(accessToken);
+                        }
                     }
                 }
+                IdentityDatabaseUtil.closeStatement(ps);
             }
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
@@ -1638,22 +1663,26 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             if (!isUsernameCaseSensitive) {
                 sqlQuery = sqlQuery.replace(AUTHZ_USER, LOWER_AUTHZ_USER);
             }
-            ps = connection.prepareStatement(sqlQuery);
-            if (isUsernameCaseSensitive) {
-                ps.setString(1, authenticatedUser.getUserName());
-            } else {
-                ps.setString(1, authenticatedUser.getUserName().toLowerCase());
-            }
-            ps.setInt(2, OAuth2Util.getTenantId(authenticatedUser.getTenantDomain()));
-            ps.setString(3, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
-            ps.setString(4, authenticatedUser.getUserStoreDomain());
-            ps.setString(5, OAuthConstants.Scope.OPENID);
-            rs = ps.executeQuery();
+            accessTokens = new HashSet<>();
+            for (String shardedSqlQuery : AccessTokenShardRouter.getInstance().getAllShardedSqls(sqlQuery)) {
+                ps = connection.prepareStatement(shardedSqlQuery);
+                if (isUsernameCaseSensitive) {
+                    ps.setString(1, authenticatedUser.getUserName());
+                } else {
+                    ps.setString(1, authenticatedUser.getUserName().toLowerCase());
+                }
+                ps.setInt(2, OAuth2Util.getTenantId(authenticatedUser.getTenantDomain()));
+                ps.setString(3, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+                ps.setString(4, authenticatedUser.getUserStoreDomain());
+                ps.setString(5, OAuthConstants.Scope.OPENID);
+                rs = ps.executeQuery();
 
-            Map<String, AccessTokenDO> tokenMap = getAccessTokenDOMapFromResultSet(authenticatedUser, rs);
+                Map<String, AccessTokenDO> tokenMap = getAccessTokenDOMapFromResultSet(authenticatedUser, rs);
+                accessTokens.addAll(tokenMap.values());
+                IdentityDatabaseUtil.closeStatement(ps);
+            }
 
             connection.commit();
-            accessTokens = new HashSet<>(tokenMap.values());
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollBack(connection);
             throw new IdentityOAuth2Exception("Error occurred while revoking access token with username : " +
@@ -1778,14 +1807,17 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         try {
             String sqlQuery = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.
                     GET_ACCESS_TOKENS_FOR_CONSUMER_KEY, userStoreDomain);
-            ps = connection.prepareStatement(sqlQuery);
-            ps.setString(1, consumerKey);
-            ps.setString(2, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
-            rs = ps.executeQuery();
+            for (String shardedSqlQuery : AccessTokenShardRouter.getInstance().getAllShardedSqls(sqlQuery)) {
+                ps = connection.prepareStatement(shardedSqlQuery);
+                ps.setString(1, consumerKey);
+                ps.setString(2, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+                rs = ps.executeQuery();
 
-            while (rs.next()) {
-                accessTokens.add(getPersistenceProcessor().getPreprocessedAccessTokenIdentifier(rs.getString(1)));
+                while (rs.next()) {
+                    accessTokens.add(getPersistenceProcessor().getPreprocessedAccessTokenIdentifier(rs.getString(1)));
 
+                }
+                IdentityDatabaseUtil.closeAllConnections(null, rs, ps);
             }
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
@@ -1850,38 +1882,41 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             }
             sqlQuery = OAuth2Util.getTokenPartitionedSqlByUserStore(sqlQuery, userStoreDomain);
 
-            ps = connection.prepareStatement(sqlQuery);
-            ps.setString(1, consumerKey);
-            ps.setString(2, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
-            rs = ps.executeQuery();
-            while (rs.next()) {
-                String token = rs.getString(2);
-                if (tokenMap.containsKey(token)) {
-                    AccessTokenDO tokenObj = tokenMap.get(token);
-                    String[] previousScope = tokenObj.getScope();
-                    String[] newSope = new String[tokenObj.getScope().length + 1];
-                    System.arraycopy(previousScope, 0, newSope, 0, previousScope.length);
-                    newSope[previousScope.length] = rs.getString(5);
-                    tokenObj.setScope(newSope);
-                } else {
-                    String authzUser = rs.getString(1);
-                    int tenentId = rs.getInt(3);
-                    String userDomain = rs.getString(4);
-                    String tokenSope = rs.getString(5);
-                    String authenticatedIDP = null;
-                    if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                        authenticatedIDP = rs.getString(6);
+            for (String shardedSqlQuery : AccessTokenShardRouter.getInstance().getAllShardedSqls(sqlQuery)) {
+                ps = connection.prepareStatement(shardedSqlQuery);
+                ps.setString(1, consumerKey);
+                ps.setString(2, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    String token = rs.getString(2);
+                    if (tokenMap.containsKey(token)) {
+                        AccessTokenDO tokenObj = tokenMap.get(token);
+                        String[] previousScope = tokenObj.getScope();
+                        String[] newSope = new String[tokenObj.getScope().length + 1];
+                        System.arraycopy(previousScope, 0, newSope, 0, previousScope.length);
+                        newSope[previousScope.length] = rs.getString(5);
+                        tokenObj.setScope(newSope);
+                    } else {
+                        String authzUser = rs.getString(1);
+                        int tenentId = rs.getInt(3);
+                        String userDomain = rs.getString(4);
+                        String tokenSope = rs.getString(5);
+                        String authenticatedIDP = null;
+                        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                            authenticatedIDP = rs.getString(6);
+                        }
+                        String[] scope = OAuth2Util.buildScopeArray(tokenSope);
+                        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authzUser,
+                                userDomain, OAuth2Util.getTenantDomain(tenentId), authenticatedIDP);
+                        AccessTokenDO aTokenDetail = new AccessTokenDO();
+                        aTokenDetail.setAccessToken(token);
+                        aTokenDetail.setConsumerKey(consumerKey);
+                        aTokenDetail.setScope(scope);
+                        aTokenDetail.setAuthzUser(user);
+                        tokenMap.put(token, aTokenDetail);
                     }
-                    String[] scope = OAuth2Util.buildScopeArray(tokenSope);
-                    AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authzUser,
-                            userDomain, OAuth2Util.getTenantDomain(tenentId), authenticatedIDP);
-                    AccessTokenDO aTokenDetail = new AccessTokenDO();
-                    aTokenDetail.setAccessToken(token);
-                    aTokenDetail.setConsumerKey(consumerKey);
-                    aTokenDetail.setScope(scope);
-                    aTokenDetail.setAuthzUser(user);
-                    tokenMap.put(token, aTokenDetail);
                 }
+                IdentityDatabaseUtil.closeAllConnections(null, rs, ps);
             }
             activeDetailedTokens = new HashSet<>(tokenMap.values());
         } catch (SQLException e) {
@@ -1935,6 +1970,41 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                                                   AccessTokenDO accessTokenDO, String userStoreDomain, String grantType)
             throws IdentityOAuth2Exception {
 
+        invalidateAndCreateNewAccessToken(oldAccessTokenId, tokenState, consumerKey, tokenStateId, accessTokenDO,
+                userStoreDomain, grantType, null);
+    }
+
+    /**
+     * This method is used invalidate the existing token and generate a new token within one DB transaction, only if
+     * the existing token is still in the active state.
+     *
+     * @param oldAccessTokenId access token need to be updated.
+     * @param tokenState       token state before generating new token.
+     * @param consumerKey      consumer key of the existing token
+     * @param tokenStateId     new token state id to be updated
+     * @param accessTokenDO    new access token details
+     * @param userStoreDomain  user store domain which is related to this consumer
+     * @param grantType        grant type of the old access token
+     * @return true if the new token was created, false if the existing token was not active.
+     * @throws IdentityOAuth2Exception
+     */
+    @Override
+    public boolean invalidateActiveAndCreateNewAccessToken(String oldAccessTokenId, String tokenState,
+                                                           String consumerKey, String tokenStateId,
+                                                           AccessTokenDO accessTokenDO, String userStoreDomain,
+                                                           String grantType) throws IdentityOAuth2Exception {
+
+        return invalidateAndCreateNewAccessToken(oldAccessTokenId, tokenState, consumerKey, tokenStateId,
+                accessTokenDO, userStoreDomain, grantType, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+    }
+
+    private boolean invalidateAndCreateNewAccessToken(String oldAccessTokenId, String tokenState,
+                                                      String consumerKey, String tokenStateId,
+                                                      AccessTokenDO accessTokenDO, String userStoreDomain,
+                                                      String grantType, String expectedTokenState)
+            throws IdentityOAuth2Exception {
+
+        TokenIssuanceMetrics.countDatabaseCall();
         if (log.isDebugEnabled()) {
             if (IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.ACCESS_TOKEN)) {
                 log.debug("Invalidating access token with id: " + oldAccessTokenId + " and creating new access token" +
@@ -1955,8 +2025,16 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 boolean isPreviousTokenConsented = isPreviousTokenConsented(connection, oldAccessTokenId);
                 accessTokenDO.setIsConsentedToken(isPreviousTokenConsented);
             }
-            // update existing token as inactive
-            updateAccessTokenState(connection, oldAccessTokenId, tokenState, tokenStateId, userStoreDomain, grantType);
+            if (expectedTokenState == null) {
+                // update existing token as inactive
+                updateAccessTokenState(connection, oldAccessTokenId, tokenState, tokenStateId, userStoreDomain,
+                        grantType);
+            } else if (!updateAccessTokenState(connection, oldAccessTokenId, expectedTokenState, tokenState,
+                    tokenStateId, userStoreDomain, grantType)) {
+                // The existing token has been invalidated in the meantime, no new token should be created for it.
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                return false;
+            }
 
             String newAccessToken = accessTokenDO.getAccessToken();
             // store new token in the DB
@@ -1987,6 +2065,7 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 OAuth2TokenUtil.postRefreshAccessToken(oldAccessTokenId, accessTokenDO.getTokenId(), tokenState, true);
             }
         }
+        return tokenUpdateSuccessful;
     }
 
     /**
@@ -1999,171 +2078,194 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
     @Override
     public Set<AccessTokenDO> getAccessTokensByTenant(int tenantId) throws IdentityOAuth2Exception {
 
+        Set<AccessTokenDO> accessTokenDOs = new HashSet<>();
+        streamAccessTokensByTenant(tenantId, accessTokenDOs::add);
+        return accessTokenDOs;
+    }
+
+    @Override
+    public void streamAccessTokensByTenant(int tenantId, StreamingResultHandler<AccessTokenDO> handler)
+            throws IdentityOAuth2Exception {
+
         if (log.isDebugEnabled()) {
             log.debug("Retrieving all access tokens of tenant id: " + tenantId);
         }
 
-        Set<AccessTokenDO> accessTokenDOs = getAccessTokensByTenant(tenantId, IdentityUtil.getPrimaryDomainName());
+        streamAccessTokensByTenant(tenantId, IdentityUtil.getPrimaryDomainName(), handler);
 
         if (OAuth2Util.checkAccessTokenPartitioningEnabled() && OAuth2Util.checkUserNameAssertionEnabled()) {
             Map<String, String> availableDomainMappings = OAuth2Util.getAvailableUserStoreDomainMappings();
             for (Map.Entry<String, String> availableDomainMapping : availableDomainMappings.entrySet()) {
-                accessTokenDOs.addAll(getAccessTokensByTenant(tenantId, availableDomainMapping.getKey()));
+                streamAccessTokensByTenant(tenantId, availableDomainMapping.getKey(), handler);
             }
         }
-        return accessTokenDOs;
     }
 
     /**
-     * Retrieves AccessTokenDOs of specified user store of the given tenant.
+     * Streams AccessTokenDOs of specified user store of the given tenant.
      *
      * @param tenantId
      * @param userStoreDomain
-     * @return
+     * @param handler
      * @throws IdentityOAuth2Exception
      */
-    private Set<AccessTokenDO> getAccessTokensByTenant(int tenantId, String userStoreDomain)
+    private void streamAccessTokensByTenant(int tenantId, String userStoreDomain,
+                                            StreamingResultHandler<AccessTokenDO> handler)
             throws IdentityOAuth2Exception {
 
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
-        PreparedStatement prepStmt = null;
-        ResultSet resultSet = null;
-        Map<String, AccessTokenDO> accessTokenDOMap = new HashMap<>();
+        String sql;
+        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+            sql = SQLQueries.LIST_ALL_TOKENS_IN_TENANT_IDP_NAME;
+        } else {
+            sql = SQLQueries.LIST_ALL_TOKENS_IN_TENANT;
+        }
+        sql = OAuth2Util.getTokenPartitionedSqlByUserStore(sql + SQLQueries.LIST_ALL_TOKENS_ORDER_BY_TOKEN_ID,
+                userStoreDomain);
         try {
-            String sql;
-            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                sql = SQLQueries.LIST_ALL_TOKENS_IN_TENANT_IDP_NAME;
-            } else {
-                sql = SQLQueries.LIST_ALL_TOKENS_IN_TENANT;
-            }
-            sql = OAuth2Util.getTokenPartitionedSqlByUserStore(sql, userStoreDomain);
-
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setInt(1, tenantId);
-            resultSet = prepStmt.executeQuery();
-
-            while (resultSet.next()) {
-                String accessToken = getPersistenceProcessor().
-                        getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
-                if (accessTokenDOMap.get(accessToken) == null) {
-                    String refreshToken = getPersistenceProcessor().getPreprocessedRefreshToken(resultSet.getString(2));
-                    Timestamp issuedTime = resultSet.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                    Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(4, Calendar.getInstance(TimeZone
-                            .getTimeZone(UTC)));
-                    long validityPeriodInMillis = resultSet.getLong(5);
-                    long refreshTokenValidityPeriodMillis = resultSet.getLong(6);
-                    String tokenType = resultSet.getString(7);
-                    String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(8));
-                    String tokenId = resultSet.getString(9);
-                    String authzUser = resultSet.getString(10);
-                    userStoreDomain = resultSet.getString(11);
-                    String consumerKey = resultSet.getString(12);
-                    String authenticatedIDP = null;
-                    if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                        authenticatedIDP = resultSet.getString(13);
-                    }
-
-                    AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authzUser, userStoreDomain,
-                            OAuth2Util.getTenantDomain(tenantId), authenticatedIDP);
-                    AccessTokenDO dataDO = new AccessTokenDO(consumerKey, user, scope, issuedTime,
-                            refreshTokenIssuedTime, validityPeriodInMillis,
-                            refreshTokenValidityPeriodMillis, tokenType);
-                    dataDO.setAccessToken(accessToken);
-                    dataDO.setRefreshToken(refreshToken);
-                    dataDO.setTokenId(tokenId);
-                    dataDO.setTenantID(tenantId);
-                    accessTokenDOMap.put(accessToken, dataDO);
-                } else {
-                    String scope = resultSet.getString(8).trim();
-                    AccessTokenDO accessTokenDO = accessTokenDOMap.get(accessToken);
-                    accessTokenDO.setScope((String[]) ArrayUtils.add(accessTokenDO.getScope(), scope));
-                }
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                streamAccessTokens(shardedSql, tenantId, null, handler);
             }
         } catch (SQLException e) {
             String errorMsg = "Error occurred while retrieving 'ACTIVE or EXPIRED' access tokens for " +
                     "user  tenant id : " + tenantId;
             throw new IdentityOAuth2Exception(errorMsg, e);
-        } finally {
-            IdentityDatabaseUtil.closeAllConnections(connection, resultSet, prepStmt);
         }
-
-        return new HashSet<>(accessTokenDOMap.values());
     }
 
     @Override
     public Set<AccessTokenDO> getAccessTokensOfUserStore(int tenantId, String userStoreDomain) throws
             IdentityOAuth2Exception {
 
+        Set<AccessTokenDO> accessTokenDOs = new HashSet<>();
+        streamAccessTokensOfUserStore(tenantId, userStoreDomain, accessTokenDOs::add);
+        return accessTokenDOs;
+    }
+
+    @Override
+    public void streamAccessTokensOfUserStore(int tenantId, String userStoreDomain,
+                                              StreamingResultHandler<AccessTokenDO> handler)
+            throws IdentityOAuth2Exception {
+
         if (log.isDebugEnabled()) {
             log.debug("Retrieving all ACTIVE and EXPIRED access tokens of userstore: " + userStoreDomain + " tenant " +
                     "id: " + tenantId);
         }
         // we do not support access token partitioning here
-        Connection connection = IdentityDatabaseUtil.getDBConnection(false);
-
         userStoreDomain = OAuth2Util.getSanitizedUserStoreDomain(userStoreDomain);
-        PreparedStatement prepStmt = null;
-        ResultSet resultSet = null;
-        Map<String, AccessTokenDO> accessTokenDOMap = new HashMap<>();
+        String sql;
+        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+            sql = SQLQueries.LIST_ALL_TOKENS_IN_USER_STORE_IDP_NAME;
+        } else {
+            sql = SQLQueries.LIST_ALL_TOKENS_IN_USER_STORE;
+        }
+        sql = OAuth2Util.getTokenPartitionedSqlByUserStore(sql + SQLQueries.LIST_ALL_TOKENS_ORDER_BY_TOKEN_ID,
+                userStoreDomain);
         try {
-            String sql;
-            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                sql = SQLQueries.LIST_ALL_TOKENS_IN_USER_STORE_IDP_NAME;
-            } else {
-                sql = SQLQueries.LIST_ALL_TOKENS_IN_USER_STORE;
-            }
-            sql = OAuth2Util.getTokenPartitionedSqlByUserStore(sql, userStoreDomain);
-
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setInt(1, tenantId);
-            prepStmt.setString(2, userStoreDomain);
-            resultSet = prepStmt.executeQuery();
-
-            while (resultSet.next()) {
-                String accessToken =
-                        getPersistenceProcessor().getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
-                if (accessTokenDOMap.get(accessToken) == null) {
-                    String refreshToken = getPersistenceProcessor().getPreprocessedRefreshToken(resultSet.getString(2));
-                    Timestamp issuedTime = resultSet.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                    Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(4, Calendar.getInstance(TimeZone
-                            .getTimeZone(UTC)));
-                    long validityPeriodInMillis = resultSet.getLong(5);
-                    long refreshTokenValidityPeriodMillis = resultSet.getLong(6);
-                    String tokenType = resultSet.getString(7);
-                    String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(8));
-                    String tokenId = resultSet.getString(9);
-                    String authzUser = resultSet.getString(10);
-                    String consumerKey = resultSet.getString(11);
-                    String authenticatedIDP = null;
-                    if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                        authenticatedIDP = resultSet.getString(12);
-                    }
-
-                    AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authzUser, userStoreDomain,
-                            OAuth2Util.getTenantDomain(tenantId), authenticatedIDP);
-                    AccessTokenDO dataDO = new AccessTokenDO(consumerKey, user, scope, issuedTime,
-                            refreshTokenIssuedTime, validityPeriodInMillis,
-                            refreshTokenValidityPeriodMillis, tokenType);
-                    dataDO.setAccessToken(accessToken);
-                    dataDO.setRefreshToken(refreshToken);
-                    dataDO.setTokenId(tokenId);
-                    dataDO.setTenantID(tenantId);
-                    accessTokenDOMap.put(accessToken, dataDO);
-                } else {
-                    String scope = resultSet.getString(8).trim();
-                    AccessTokenDO accessTokenDO = accessTokenDOMap.get(accessToken);
-                    accessTokenDO.setScope((String[]) ArrayUtils.add(accessTokenDO.getScope(), scope));
-                }
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                streamAccessTokens(shardedSql, tenantId, userStoreDomain, handler);
             }
         } catch (SQLException e) {
             String errorMsg = "Error occurred while retrieving 'ACTIVE or EXPIRED' access tokens for " +
                     "user in store domain : " + userStoreDomain + " and tenant id : " + tenantId;
             throw new IdentityOAuth2Exception(errorMsg, e);
-        } finally {
-            IdentityDatabaseUtil.closeAllConnections(connection, resultSet, prepStmt);
         }
+    }
 
-        return new HashSet<>(accessTokenDOMap.values());
+    /**
+     * Run one of the LIST_ALL_TOKENS queries and hand over each access token to the handler as soon as all of its
+     * scope rows are read. The query must be ordered by the token id so that the scope rows of a token are adjacent,
+     * which allows the result set to be read with a JDBC fetch size while only the current token is kept in memory.
+     *
+     * @param sql             LIST_ALL_TOKENS_IN_TENANT or LIST_ALL_TOKENS_IN_USER_STORE query.
+     * @param tenantId        Tenant id.
+     * @param userStoreDomain User store domain to filter by, or null to read the user store domain of each token.
+     * @param handler         Handler invoked once for each access token.
+     */
+    private void streamAccessTokens(String sql, int tenantId, String userStoreDomain,
+                                    StreamingResultHandler<AccessTokenDO> handler)
+            throws SQLException, IdentityOAuth2Exception {
+
+        boolean filterByUserStore = userStoreDomain != null;
+        boolean isIDPIdColumnEnabled = OAuth2ServiceComponentHolder.isIDPIdColumnEnabled();
+        String tenantDomain = OAuth2Util.getTenantDomain(tenantId);
+        int streamedTokenCount = 0;
+
+        // A transactional connection is used since some drivers only honour the fetch size when auto commit is off.
+        // The transaction is ended once the tokens are read, so that the connection is not returned to the pool with
+        // an open transaction.
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY)) {
+                prepStmt.setFetchSize(getStreamingFetchSize());
+                prepStmt.setInt(1, tenantId);
+                if (filterByUserStore) {
+                    prepStmt.setString(2, userStoreDomain);
+                }
+
+                try (ResultSet resultSet = prepStmt.executeQuery()) {
+                    AccessTokenDO currentToken = null;
+                    while (resultSet.next()) {
+                        String tokenId = resultSet.getString(9);
+                        if (currentToken != null && currentToken.getTokenId().equals(tokenId)) {
+                            String scope = resultSet.getString(8);
+                            if (scope != null) {
+                                currentToken.setScope((String[]) ArrayUtils.add(currentToken.getScope(),
+                                        scope.trim()));
+                            }
+                            continue;
+                        }
+                        if (currentToken != null) {
+                            handler.handle(currentToken);
+                            streamedTokenCount++;
+                        }
+
+                        String accessToken = getPersistenceProcessor().
+                                getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
+                        String refreshToken = getPersistenceProcessor().getPreprocessedRefreshToken(
+                                resultSet.getString(2));
+                        Timestamp issuedTime = resultSet.getTimestamp(3, Calendar.getInstance(
+                                TimeZone.getTimeZone(UTC)));
+                        Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(4, Calendar.getInstance(TimeZone
+                                .getTimeZone(UTC)));
+                        long validityPeriodInMillis = resultSet.getLong(5);
+                        long refreshTokenValidityPeriodMillis = resultSet.getLong(6);
+                        String tokenType = resultSet.getString(7);
+                        String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(8));
+                        String authzUser = resultSet.getString(10);
+                        int columnIndex = 11;
+                        String userDomain = filterByUserStore ? userStoreDomain :
+                                resultSet.getString(columnIndex++);
+                        String consumerKey = resultSet.getString(columnIndex++);
+                        String authenticatedIDP = null;
+                        if (isIDPIdColumnEnabled) {
+                            authenticatedIDP = resultSet.getString(columnIndex);
+                        }
+
+                        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authzUser, userDomain,
+                                tenantDomain, authenticatedIDP);
+                        currentToken = new AccessTokenDO(consumerKey, user, scope, issuedTime,
+                                refreshTokenIssuedTime, validityPeriodInMillis,
+                                refreshTokenValidityPeriodMillis, tokenType);
+                        currentToken.setAccessToken(accessToken);
+                        currentToken.setRefreshToken(refreshToken);
+                        currentToken.setTokenId(tokenId);
+                        currentToken.setTenantID(tenantId);
+                    }
+                    if (currentToken != null) {
+                        handler.handle(currentToken);
+                        streamedTokenCount++;
+                    }
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException | IdentityOAuth2Exception | RuntimeException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Streamed " + streamedTokenCount + " 'ACTIVE or EXPIRED' access tokens of tenant id: " +
+                    tenantId);
+        }
     }
 
     @Override
@@ -2182,11 +2284,15 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         try {
 
             String sqlQuery = SQLQueries.RENAME_USER_STORE_IN_ACCESS_TOKENS_TABLE;
-            ps = connection.prepareStatement(sqlQuery);
-            ps.setString(1, newUserStoreDomain);
-            ps.setInt(2, tenantId);
-            ps.setString(3, currentUserStoreDomain);
-            int count = ps.executeUpdate();
+            int count = 0;
+            for (String shardedSqlQuery : AccessTokenShardRouter.getInstance().getAllShardedSqls(sqlQuery)) {
+                ps = connection.prepareStatement(shardedSqlQuery);
+                ps.setString(1, newUserStoreDomain);
+                ps.setInt(2, tenantId);
+                ps.setString(3, currentUserStoreDomain);
+                count += ps.executeUpdate();
+                IdentityDatabaseUtil.closeStatement(ps);
+            }
             if (log.isDebugEnabled()) {
                 log.debug("Number of rows being updated : " + count);
             }
@@ -2248,12 +2354,17 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             String sql = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.RETRIEVE_TOKEN_ID_BY_TOKEN,
                     userStoreDomain);
 
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setString(1, getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token));
-            resultSet = prepStmt.executeQuery();
+            String tokenHash = getHashingPersistenceProcessor().getProcessedAccessTokenIdentifier(token);
+            AccessTokenShardRouter shardRouter = AccessTokenShardRouter.getInstance();
+            for (int shard : shardRouter.getAllShards()) {
+                prepStmt = connection.prepareStatement(shardRouter.getShardedSql(sql, shard));
+                prepStmt.setString(1, tokenHash);
+                resultSet = prepStmt.executeQuery();
 
-            if (resultSet.next()) {
-                return resultSet.getString("TOKEN_ID");
+                if (resultSet.next()) {
+                    return resultSet.getString("TOKEN_ID");
+                }
+                IdentityDatabaseUtil.closeAllConnections(null, resultSet, prepStmt);
             }
             return null;
 
@@ -2307,13 +2418,16 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
             String sql = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.RETRIEVE_TOKEN_BY_TOKEN_ID,
                     userStoreDomain);
 
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setString(1, tokenId);
-            resultSet = prepStmt.executeQuery();
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                prepStmt = connection.prepareStatement(shardedSql);
+                prepStmt.setString(1, tokenId);
+                resultSet = prepStmt.executeQuery();
 
-            if (resultSet.next()) {
-                String persistedAccessToken = resultSet.getString("ACCESS_TOKEN");
-                return getPersistenceProcessor().getPreprocessedAccessTokenIdentifier(persistedAccessToken);
+                if (resultSet.next()) {
+                    String persistedAccessToken = resultSet.getString("ACCESS_TOKEN");
+                    return getPersistenceProcessor().getPreprocessedAccessTokenIdentifier(persistedAccessToken);
+                }
+                IdentityDatabaseUtil.closeAllConnections(null, resultSet, prepStmt);
             }
             return null;
 
@@ -2578,80 +2692,95 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                 sql = sql.replace("TOKEN_SCOPE_HASH=?", "TOKEN_SCOPE_HASH IS NULL");
             }
 
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
-            if (isUsernameCaseSensitive) {
-                prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain);
-            } else {
-                prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain.toLowerCase());
-            }
-            prepStmt.setInt(3, tenantId);
-            prepStmt.setString(4, userDomain);
-
-            if (hashedScope != null) {
-                prepStmt.setString(5, hashedScope);
-            }
+            List<AccessTokenDO> accessTokenDOs = new ArrayList<>();
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                prepStmt = connection.prepareStatement(shardedSql);
+                prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
+                if (isUsernameCaseSensitive) {
+                    prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain);
+                } else {
+                    prepStmt.setString(2, tenantAwareUsernameWithNoUserDomain.toLowerCase());
+                }
+                prepStmt.setInt(3, tenantId);
+                prepStmt.setString(4, userDomain);
 
-            prepStmt.setString(6, tokenBindingReference);
+                if (hashedScope != null) {
+                    prepStmt.setString(5, hashedScope);
+                }
 
-            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                prepStmt.setString(7, authenticatedIDP);
-            }
+                prepStmt.setString(6, tokenBindingReference);
 
-            resultSet = prepStmt.executeQuery();
-            long latestIssuedTime = new Date().getTime();
-            List<AccessTokenDO> accessTokenDOs = new ArrayList<>();
-            int iterationCount = 0;
-            while (resultSet.next()) {
-                long issuedTime = resultSet.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone("UTC")))
-                        .getTime();
-                if (iterationCount == 0) {
-                    latestIssuedTime = issuedTime;
+                if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                    prepStmt.setString(7, authenticatedIDP);
                 }
 
-                if (latestIssuedTime == issuedTime) {
-                    String tokenState = resultSet.getString(7);
-                    String accessToken = getPersistenceProcessor()
-                            .getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
-                    String refreshToken = null;
-                    if (resultSet.getString(2) != null) {
-                        refreshToken = getPersistenceProcessor().getPreprocessedRefreshToken(resultSet.getString(2));
+                resultSet = prepStmt.executeQuery();
+                long latestIssuedTime = new Date().getTime();
+                List<AccessTokenDO> shardAccessTokenDOs = new ArrayList<>();
+                int iterationCount = 0;
+                while (resultSet.next()) {
+                    long issuedTime = resultSet.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone("UTC")))
+                            .getTime();
+                    if (iterationCount == 0) {
+                        latestIssuedTime = issuedTime;
                     }
-                    long refreshTokenIssuedTime = resultSet.getTimestamp(4, Calendar.getInstance(TimeZone.getTimeZone
-                            ("UTC"))).getTime();
-                    long validityPeriodInMillis = resultSet.getLong(5);
-                    long refreshTokenValidityPeriodInMillis = resultSet.getLong(6);
-
-                    String userType = resultSet.getString(8);
-                    String tokenId = resultSet.getString(9);
-                    String subjectIdentifier = resultSet.getString(10);
-                    String grantType = resultSet.getString(11);
-                    // data loss at dividing the validity period but can be neglected
-                    AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(tenantAwareUsernameWithNoUserDomain,
-                            userDomain, tenantDomain, authenticatedIDP);
-
-                    ServiceProvider serviceProvider;
-                    try {
-                        serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
-                                getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2, tenantDomain);
-                    } catch (IdentityApplicationManagementException e) {
-                        throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application data " +
-                                "for client id " + consumerKey, e);
+
+                    if (latestIssuedTime == issuedTime) {
+                        String tokenState = resultSet.getString(7);
+                        String accessToken = getPersistenceProcessor()
+                                .getPreprocessedAccessTokenIdentifier(resultSet.getString(1));
+                        String refreshToken = null;
+                        if (resultSet.getString(2) != null) {
+                            refreshToken = getPersistenceProcessor()
+                                    .getPreprocessedRefreshToken(resultSet.getString(2));
+                        }
+                        long refreshTokenIssuedTime = resultSet.getTimestamp(4,
+                                Calendar.getInstance(TimeZone.getTimeZone("UTC"))).getTime();
+                        long validityPeriodInMillis = resultSet.getLong(5);
+                        long refreshTokenValidityPeriodInMillis = resultSet.getLong(6);
+
+                        String userType = resultSet.getString(8);
+                        String tokenId = resultSet.getString(9);
+                        String subjectIdentifier = resultSet.getString(10);
+                        String grantType = resultSet.getString(11);
+                        // data loss at dividing the validity period but can be neglected
+                        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(tenantAwareUsernameWithNoUserDomain,
+                                userDomain, tenantDomain, authenticatedIDP);
+
+                        ServiceProvider serviceProvider;
+                        try {
+                            serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
+                                    getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2,
+                                            tenantDomain);
+                        } catch (IdentityApplicationManagementException e) {
+                            throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application " +
+                                    "data for client id " + consumerKey, e);
+                        }
+                        user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
+                        AccessTokenDO accessTokenDO = new AccessTokenDO(consumerKey, user, OAuth2Util.buildScopeArray
+                                (scope), new Timestamp(issuedTime), new Timestamp(refreshTokenIssuedTime)
+                                , validityPeriodInMillis, refreshTokenValidityPeriodInMillis, userType);
+                        accessTokenDO.setAccessToken(accessToken);
+                        accessTokenDO.setRefreshToken(refreshToken);
+                        accessTokenDO.setTokenState(tokenState);
+                        accessTokenDO.setTokenId(tokenId);
+                        accessTokenDO.setGrantType(grantType);
+                        shardAccessTokenDOs.add(accessTokenDO);
+                    } else {
+                        break;
+                    }
+                    iterationCount++;
+                }
+                // Keep the tokens with the latest issued time among all the shards.
+                if (!shardAccessTokenDOs.isEmpty()) {
+                    if (accessTokenDOs.isEmpty() ||
+                            latestIssuedTime > accessTokenDOs.get(0).getIssuedTime().getTime()) {
+                        accessTokenDOs = shardAccessTokenDOs;
+                    } else if (latestIssuedTime == accessTokenDOs.get(0).getIssuedTime().getTime()) {
+                        accessTokenDOs.addAll(shardAccessTokenDOs);
                     }
-                    user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
-                    AccessTokenDO accessTokenDO = new AccessTokenDO(consumerKey, user, OAuth2Util.buildScopeArray
-                            (scope), new Timestamp(issuedTime), new Timestamp(refreshTokenIssuedTime)
-                            , validityPeriodInMillis, refreshTokenValidityPeriodInMillis, userType);
-                    accessTokenDO.setAccessToken(accessToken);
-                    accessTokenDO.setRefreshToken(refreshToken);
-                    accessTokenDO.setTokenState(tokenState);
-                    accessTokenDO.setTokenId(tokenId);
-                    accessTokenDO.setGrantType(grantType);
-                    accessTokenDOs.add(accessTokenDO);
-                } else {
-                    return accessTokenDOs;
                 }
-                iterationCount++;
+                IdentityDatabaseUtil.closeAllConnections(null, resultSet, prepStmt);
             }
             return accessTokenDOs;
         } catch (SQLException e) {
@@ -2731,26 +2860,30 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         try {
             String sqlQuery = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.
                     GET_ACCESS_TOKENS_AND_TOKEN_IDS_FOR_CONSUMER_KEY, userStoreDomain);
-            ps = connection.prepareStatement(sqlQuery);
-            ps.setString(1, consumerKey);
-            ps.setString(2, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
-            ps.setString(3, OAuthConstants.Scope.OPENID);
-            rs = ps.executeQuery();
-
-            while (rs.next()) {
-                String accessToken = getPersistenceProcessor().getPreprocessedAccessTokenIdentifier(rs.getString(1));
-                String tokenId = rs.getString(2);
-                Timestamp timeCreated = rs.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                long issuedTimeInMillis = timeCreated.getTime();
-                long validityPeriodInMillis = rs.getLong(4);
-
-                if (!isAccessTokenExpired(issuedTimeInMillis, validityPeriodInMillis)) {
-                    AccessTokenDO accessTokenDO = new AccessTokenDO();
-                    accessTokenDO.setAccessToken(accessToken);
-                    accessTokenDO.setTokenId(tokenId);
-                    accessTokens.add(accessTokenDO);
-                }
+            for (String shardedSqlQuery : AccessTokenShardRouter.getInstance().getAllShardedSqls(sqlQuery)) {
+                ps = connection.prepareStatement(shardedSqlQuery);
+                ps.setString(1, consumerKey);
+                ps.setString(2, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+                ps.setString(3, OAuthConstants.Scope.OPENID);
+                rs = ps.executeQuery();
+
+                while (rs.next()) {
+                    String accessToken = getPersistenceProcessor()
+                            .getPreprocessedAccessTokenIdentifier(rs.getString(1));
+                    String tokenId = rs.getString(2);
+                    Timestamp timeCreated = rs.getTimestamp(3, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                    long issuedTimeInMillis = timeCreated.getTime();
+                    long validityPeriodInMillis = rs.getLong(4);
 
+                    if (!isAccessTokenExpired(issuedTimeInMillis, validityPeriodInMillis)) {
+                        AccessTokenDO accessTokenDO = new AccessTokenDO();
+                        accessTokenDO.setAccessToken(accessToken);
+                        accessTokenDO.setTokenId(tokenId);
+                        accessTokens.add(accessTokenDO);
+                    }
+
+                }
+                IdentityDatabaseUtil.closeAllConnections(null, rs, ps);
             }
             connection.commit();
         } catch (SQLException e) {
@@ -2789,55 +2922,58 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
                     .GET_ACCESS_TOKENS_BY_BINDING_REFERENCE_AND_USER, user.getUserStoreDomain());
             int tenantId = OAuth2Util.getTenantId(user.getTenantDomain());
             Map<String, AccessTokenDO> tokenMap = new HashMap<>();
-            jdbcTemplate.executeQuery(sqlQuery,
-                    rethrowRowMapper((resultSet, i) -> {
-                        String token = getPersistenceProcessor()
-                                .getPreprocessedAccessTokenIdentifier(resultSet.getString("ACCESS_TOKEN"));
-                        AccessTokenDO accessTokenDO = new AccessTokenDO();
-                        if (tokenMap.containsKey(token)) {
-                            AccessTokenDO tokenObj = tokenMap.get(token);
-                            String[] previousScope = tokenObj.getScope();
-                            String[] newSope = new String[tokenObj.getScope().length + 1];
-                            System.arraycopy(previousScope, 0, newSope, 0, previousScope.length);
-                            newSope[previousScope.length] = resultSet.getString(2);
-                            tokenObj.setScope(newSope);
-                        } else {
-                            String consumerKey = resultSet.getString("CONSUMER_KEY");
-                            String tokenScope = resultSet.getString("TOKEN_SCOPE");
-                            String refreshToken = resultSet.getString("REFRESH_TOKEN");
-                            String tokenId = resultSet.getString("TOKEN_ID");
-                            Timestamp issuedTime = resultSet
-                                    .getTimestamp("TIME_CREATED", Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                            Timestamp refreshTokenIssuedTime =
-                                    resultSet.getTimestamp("REFRESH_TOKEN_TIME_CREATED", Calendar.getInstance(TimeZone
-                                            .getTimeZone(UTC)));
-                            long validityPeriodInMillis = resultSet.getLong("VALIDITY_PERIOD");
-                            long refreshTokenValidityPeriodMillis = resultSet.getLong("REFRESH_TOKEN_VALIDITY_PERIOD");
-                            String tokenType = resultSet.getString("USER_TYPE");
-
-                            String[] scope = OAuth2Util.buildScopeArray(tokenScope);
-                            accessTokenDO.setAccessToken(token);
-                            accessTokenDO.setConsumerKey(consumerKey);
-                            accessTokenDO.setScope(scope);
-                            accessTokenDO.setAuthzUser(user);
-                            accessTokenDO.setTenantID(tenantId);
-                            accessTokenDO.setRefreshToken(refreshToken);
-                            accessTokenDO.setTokenId(tokenId);
-                            accessTokenDO.setIssuedTime(issuedTime);
-                            accessTokenDO.setRefreshTokenIssuedTime(refreshTokenIssuedTime);
-                            accessTokenDO.setValidityPeriod(validityPeriodInMillis);
-                            accessTokenDO.setRefreshTokenValidityPeriod(refreshTokenValidityPeriodMillis);
-                            accessTokenDO.setTokenType(tokenType);
-                            tokenMap.put(token, accessTokenDO);
-                        }
-                        return null;
-                    }),
-                    (PreparedStatement preparedStatement) -> {
-                        preparedStatement.setString(1, user.getUserName());
-                        preparedStatement.setInt(2, tenantId);
-                        preparedStatement.setString(3, user.getUserStoreDomain());
-                        preparedStatement.setString(4, bindingRef);
-                    });
+            for (String shardedSqlQuery : AccessTokenShardRouter.getInstance().getAllShardedSqls(sqlQuery)) {
+                jdbcTemplate.executeQuery(shardedSqlQuery,
+                        rethrowRowMapper((resultSet, i) -> {
+                            String token = getPersistenceProcessor()
+                                    .getPreprocessedAccessTokenIdentifier(resultSet.getString("ACCESS_TOKEN"));
+                            AccessTokenDO accessTokenDO = new AccessTokenDO();
+                            if (tokenMap.containsKey(token)) {
+                                AccessTokenDO tokenObj = tokenMap.get(token);
+                                String[] previousScope = tokenObj.getScope();
+                                String[] newSope = new String[tokenObj.getScope().length + 1];
+                                System.arraycopy(previousScope, 0, newSope, 0, previousScope.length);
+                                newSope[previousScope.length] = resultSet.getString(2);
+                                tokenObj.setScope(newSope);
+                            } else {
+                                String consumerKey = resultSet.getString("CONSUMER_KEY");
+                                String tokenScope = resultSet.getString("TOKEN_SCOPE");
+                                String refreshToken = resultSet.getString("REFRESH_TOKEN");
+                                String tokenId = resultSet.getString("TOKEN_ID");
+                                Timestamp issuedTime = resultSet
+                                        .getTimestamp("TIME_CREATED", Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                                Timestamp refreshTokenIssuedTime =
+                                        resultSet.getTimestamp("REFRESH_TOKEN_TIME_CREATED",
+                                                Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                                long validityPeriodInMillis = resultSet.getLong("VALIDITY_PERIOD");
+                                long refreshTokenValidityPeriodMillis =
+                                        resultSet.getLong("REFRESH_TOKEN_VALIDITY_PERIOD");
+                                String tokenType = resultSet.getString("USER_TYPE");
+
+                                String[] scope = OAuth2Util.buildScopeArray(tokenScope);
+                                accessTokenDO.setAccessToken(token);
+                                accessTokenDO.setConsumerKey(consumerKey);
+                                accessTokenDO.setScope(scope);
+                                accessTokenDO.setAuthzUser(user);
+                                accessTokenDO.setTenantID(tenantId);
+                                accessTokenDO.setRefreshToken(refreshToken);
+                                accessTokenDO.setTokenId(tokenId);
+                                accessTokenDO.setIssuedTime(issuedTime);
+                                accessTokenDO.setRefreshTokenIssuedTime(refreshTokenIssuedTime);
+                                accessTokenDO.setValidityPeriod(validityPeriodInMillis);
+                                accessTokenDO.setRefreshTokenValidityPeriod(refreshTokenValidityPeriodMillis);
+                                accessTokenDO.setTokenType(tokenType);
+                                tokenMap.put(token, accessTokenDO);
+                            }
+                            return null;
+                        }),
+                        (PreparedStatement preparedStatement) -> {
+                            preparedStatement.setString(1, user.getUserName());
+                            preparedStatement.setInt(2, tenantId);
+                            preparedStatement.setString(3, user.getUserStoreDomain());
+                            preparedStatement.setString(4, bindingRef);
+                        });
+            }
             return new HashSet<>(tokenMap.values());
         } catch (DataAccessException e) {
             throw new IdentityOAuth2Exception("Error occurred while retrieving access tokens.", e);
@@ -2855,60 +2991,63 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
         try {
             String sqlQuery = GET_ACCESS_TOKENS_BY_BINDING_REFERENCE;
             Map<String, AccessTokenDO> tokenMap = new HashMap<>();
-            jdbcTemplate.executeQuery(sqlQuery,
-                    rethrowRowMapper((resultSet, i) -> {
-                        String token = getPersistenceProcessor()
-                                .getPreprocessedAccessTokenIdentifier(resultSet.getString("ACCESS_TOKEN"));
-                        AccessTokenDO accessTokenDO = new AccessTokenDO();
-                        if (tokenMap.containsKey(token)) {
-                            AccessTokenDO tokenObj = tokenMap.get(token);
-                            String[] previousScope = tokenObj.getScope();
-                            String[] newScope = new String[tokenObj.getScope().length + 1];
-                            System.arraycopy(previousScope, 0, newScope, 0, previousScope.length);
-                            newScope[previousScope.length] = resultSet.getString("TOKEN_SCOPE");
-                            tokenObj.setScope(newScope);
-                        } else {
-                            String consumerKey = resultSet.getString("CONSUMER_KEY");
-                            String tokenScope = resultSet.getString("TOKEN_SCOPE");
-                            String refreshToken = resultSet.getString("REFRESH_TOKEN");
-                            String tokenId = resultSet.getString("TOKEN_ID");
-                            int tenantId = resultSet.getInt("TENANT_ID");
-                            String authzUser = resultSet.getString("AUTHZ_USER");
-                            String subjectIdentifier = resultSet.getString("SUBJECT_IDENTIFIER");
-                            String userDomain = resultSet.getString("USER_DOMAIN");
-                            String authenticatedIDPName = resultSet.getString("NAME");
-                            AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authzUser,
-                                    userDomain, OAuth2Util.getTenantDomain(tenantId), authenticatedIDPName);
-                            user.setAuthenticatedSubjectIdentifier(subjectIdentifier);
-                            Timestamp issuedTime = resultSet
-                                    .getTimestamp("TIME_CREATED", Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                            Timestamp refreshTokenIssuedTime =
-                                    resultSet.getTimestamp("REFRESH_TOKEN_TIME_CREATED", Calendar.getInstance(TimeZone
-                                            .getTimeZone(UTC)));
-                            long validityPeriodInMillis = resultSet.getLong("VALIDITY_PERIOD");
-                            long refreshTokenValidityPeriodMillis = resultSet.getLong("REFRESH_TOKEN_VALIDITY_PERIOD");
-                            String tokenType = resultSet.getString("USER_TYPE");
-
-                            String[] scope = OAuth2Util.buildScopeArray(tokenScope);
-                            accessTokenDO.setAccessToken(token);
-                            accessTokenDO.setConsumerKey(consumerKey);
-                            accessTokenDO.setScope(scope);
-                            accessTokenDO.setAuthzUser(user);
-                            accessTokenDO.setTenantID(tenantId);
-                            accessTokenDO.setRefreshToken(refreshToken);
-                            accessTokenDO.setTokenId(tokenId);
-                            accessTokenDO.setIssuedTime(issuedTime);
-                            accessTokenDO.setRefreshTokenIssuedTime(refreshTokenIssuedTime);
-                            accessTokenDO.setValidityPeriod(validityPeriodInMillis);
-                            accessTokenDO.setRefreshTokenValidityPeriod(refreshTokenValidityPeriodMillis);
-                            accessTokenDO.setTokenType(tokenType);
-                            tokenMap.put(token, accessTokenDO);
-                        }
-                        return Collections.emptySet();
-                    }),
-                    (PreparedStatement preparedStatement) -> {
-                        preparedStatement.setString(1, bindingRef);
-                    });
+            for (String shardedSqlQuery : AccessTokenShardRouter.getInstance().getAllShardedSqls(sqlQuery)) {
+                jdbcTemplate.executeQuery(shardedSqlQuery,
+                        rethrowRowMapper((resultSet, i) -> {
+                            String token = getPersistenceProcessor()
+                                    .getPreprocessedAccessTokenIdentifier(resultSet.getString("ACCESS_TOKEN"));
+                            AccessTokenDO accessTokenDO = new AccessTokenDO();
+                            if (tokenMap.containsKey(token)) {
+                                AccessTokenDO tokenObj = tokenMap.get(token);
+                                String[] previousScope = tokenObj.getScope();
+                                String[] newScope = new String[tokenObj.getScope().length + 1];
+                                System.arraycopy(previousScope, 0, newScope, 0, previousScope.length);
+                                newScope[previousScope.length] = resultSet.getString("TOKEN_SCOPE");
+                                tokenObj.setScope(newScope);
+                            } else {
+                                String consumerKey = resultSet.getString("CONSUMER_KEY");
+                                String tokenScope = resultSet.getString("TOKEN_SCOPE");
+                                String refreshToken = resultSet.getString("REFRESH_TOKEN");
+                                String tokenId = resultSet.getString("TOKEN_ID");
+                                int tenantId = resultSet.getInt("TENANT_ID");
+                                String authzUser = resultSet.getString("AUTHZ_USER");
+                                String subjectIdentifier = resultSet.getString("SUBJECT_IDENTIFIER");
+                                String userDomain = resultSet.getString("USER_DOMAIN");
+                                String authenticatedIDPName = resultSet.getString("NAME");
+                                AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authzUser,
+                                        userDomain, OAuth2Util.getTenantDomain(tenantId), authenticatedIDPName);
+                                user.setAuthenticatedSubjectIdentifier(subjectIdentifier);
+                                Timestamp issuedTime = resultSet
+                                        .getTimestamp("TIME_CREATED", Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                                Timestamp refreshTokenIssuedTime =
+                                        resultSet.getTimestamp("REFRESH_TOKEN_TIME_CREATED",
+                                                Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                                long validityPeriodInMillis = resultSet.getLong("VALIDITY_PERIOD");
+                                long refreshTokenValidityPeriodMillis =
+                                        resultSet.getLong("REFRESH_TOKEN_VALIDITY_PERIOD");
+                                String tokenType = resultSet.getString("USER_TYPE");
+
+                                String[] scope = OAuth2Util.buildScopeArray(tokenScope);
+                                accessTokenDO.setAccessToken(token);
+                                accessTokenDO.setConsumerKey(consumerKey);
+                                accessTokenDO.setScope(scope);
+                                accessTokenDO.setAuthzUser(user);
+                                accessTokenDO.setTenantID(tenantId);
+                                accessTokenDO.setRefreshToken(refreshToken);
+                                accessTokenDO.setTokenId(tokenId);
+                                accessTokenDO.setIssuedTime(issuedTime);
+                                accessTokenDO.setRefreshTokenIssuedTime(refreshTokenIssuedTime);
+                                accessTokenDO.setValidityPeriod(validityPeriodInMillis);
+                                accessTokenDO.setRefreshTokenValidityPeriod(refreshTokenValidityPeriodMillis);
+                                accessTokenDO.setTokenType(tokenType);
+                                tokenMap.put(token, accessTokenDO);
+                            }
+                            return Collections.emptySet();
+                        }),
+                        (PreparedStatement preparedStatement) -> {
+                            preparedStatement.setString(1, bindingRef);
+                        });
+            }
             return new HashSet<>(tokenMap.values());
         } catch (DataAccessException e) {
             throw new IdentityOAuth2Exception("Error occurred while retrieving access tokens.", e);
@@ -2926,10 +3065,14 @@ public class AccessTokenDAOImpl extends AbstractOAuthDAO implements AccessTokenD
 
             String sql = SQLQueries.UPDATE_TOKEN_CONSENTED_TOKEN;
             try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
-                try (PreparedStatement prepStmt = connection.prepareStatement(sql)) {
-                    prepStmt.setString(1, Boolean.toString(isConsentedGrant));
-                    prepStmt.setString(2, tokenId);
-                    prepStmt.executeUpdate();
+                try {
+                    for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                        try (PreparedStatement prepStmt = connection.prepareStatement(shardedSql)) {
+                            prepStmt.setString(1, Boolean.toString(isConsentedGrant));
+                            prepStmt.setString(2, tokenId);
+                            prepStmt.executeUpdate();
+                        }
+                    }
                     IdentityDatabaseUtil.commitTransaction(connection);
                 } catch (SQLException e) {
                     IdentityDatabaseUtil.rollbackTransaction(connection); // ToDo add the exception here
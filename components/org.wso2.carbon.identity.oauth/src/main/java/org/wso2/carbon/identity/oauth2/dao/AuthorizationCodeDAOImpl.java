@@ -35,6 +35,7 @@ import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
 import org.wso2.carbon.identity.oauth2.util.OAuth2TokenUtil;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 
@@ -185,6 +186,7 @@ public class AuthorizationCodeDAOImpl extends AbstractOAuthDAO implements Author
     public AuthorizationCodeValidationResult validateAuthorizationCode(String consumerKey, String authorizationKey)
             throws IdentityOAuth2Exception {
 
+        TokenIssuanceMetrics.countDatabaseCall();
         if (log.isDebugEnabled()) {
             if (IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.AUTHORIZATION_CODE)) {
                 log.debug("Validating authorization code(hashed): " + DigestUtils.sha256Hex(authorizationKey)
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.model.AuthorizationGrantAttributesDO;
+
+import java.util.Collection;
+
+/**
+ * Data access layer of the authorization grant attribute store, which backs the authorization grant cache. Rows are
+ * keyed by the hash of the access token or the authorization code and carry the time they expire at, so they are
+ * never looked up through the token or code id.
+ */
+public interface AuthorizationGrantAttributeDAO {
+
+    /**
+     * Persist a batch of attribute writes and removals in a single transaction. Attributes already stored against a
+     * key are replaced.
+     *
+     * @param storedAttributes  Attributes to store.
+     * @param removedAttributes Attributes to remove. Only the key hash and the partition are used.
+     * @throws IdentityOAuth2Exception If an error occurs while persisting the batch.
+     */
+    void persistGrantAttributes(Collection<AuthorizationGrantAttributesDO> storedAttributes,
+                                Collection<AuthorizationGrantAttributesDO> removedAttributes)
+            throws IdentityOAuth2Exception;
+
+    /**
+     * Retrieve the encoded attributes stored against a key, unless they have expired.
+     *
+     * @param keyHash     Hash of the access token or the authorization code.
+     * @param partition   Partition of the key.
+     * @param currentTime Current time in milliseconds since the epoch.
+     * @return Encoded attributes, or null if there are no live attributes for the key.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the attributes.
+     */
+    byte[] getGrantAttributes(String keyHash, int partition, long currentTime) throws IdentityOAuth2Exception;
+
+    /**
+     * Remove the attributes of a partition that expired before the given time.
+     *
+     * @param partition     Partition to clean up.
+     * @param expiredBefore Time in milliseconds since the epoch.
+     * @return Number of rows removed.
+     * @throws IdentityOAuth2Exception If an error occurs while removing the attributes.
+     */
+    int removeExpiredGrantAttributes(int partition, long expiredBefore) throws IdentityOAuth2Exception;
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.model.AuthorizationGrantAttributesDO;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+
+/**
+ * JDBC based implementation of {@link AuthorizationGrantAttributeDAO}. Every statement filters on the key partition
+ * as well as the key, so that a deployment which partitions IDN_OAUTH2_GRANT_ATTRIBUTES by KEY_PARTITION only touches
+ * a single partition per statement.
+ */
+public class AuthorizationGrantAttributeDAOImpl implements AuthorizationGrantAttributeDAO {
+
+    private static final Log log = LogFactory.getLog(AuthorizationGrantAttributeDAOImpl.class);
+
+    @Override
+    public void persistGrantAttributes(Collection<AuthorizationGrantAttributesDO> storedAttributes,
+                                       Collection<AuthorizationGrantAttributesDO> removedAttributes)
+            throws IdentityOAuth2Exception {
+
+        if (storedAttributes.isEmpty() && removedAttributes.isEmpty()) {
+            return;
+        }
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try {
+                // Stored keys are deleted as well, which turns the inserts into replacements.
+                try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.DELETE_GRANT_ATTRIBUTES)) {
+                    addDeleteBatch(prepStmt, storedAttributes);
+                    addDeleteBatch(prepStmt, removedAttributes);
+                    prepStmt.executeBatch();
+                }
+                if (!storedAttributes.isEmpty()) {
+                    try (PreparedStatement prepStmt =
+                                 connection.prepareStatement(SQLQueries.INSERT_GRANT_ATTRIBUTES)) {
+                        for (AuthorizationGrantAttributesDO attributes : storedAttributes) {
+                            prepStmt.setString(1, attributes.getKeyHash());
+                            prepStmt.setInt(2, attributes.getPartition());
+                            prepStmt.setBytes(3, attributes.getAttributes());
+                            prepStmt.setLong(4, attributes.getExpiryTime());
+                            prepStmt.addBatch();
+                        }
+                        prepStmt.executeBatch();
+                    }
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while persisting " + storedAttributes.size() + " and removing " +
+                    removedAttributes.size() + " authorization grant attributes.", e);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Persisted " + storedAttributes.size() + " and removed " + removedAttributes.size() +
+                    " authorization grant attributes.");
+        }
+    }
+
+    @Override
+    public byte[] getGrantAttributes(String keyHash, int partition, long currentTime)
+            throws IdentityOAuth2Exception {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.RETRIEVE_GRANT_ATTRIBUTES)) {
+            prepStmt.setInt(1, partition);
+            prepStmt.setString(2, keyHash);
+            prepStmt.setLong(3, currentTime);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                if (resultSet.next()) {
+                    return resultSet.getBytes(1);
+                }
+                return null;
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while retrieving authorization grant attributes from " +
+                    "partition: " + partition, e);
+        }
+    }
+
+    @Override
+    public int removeExpiredGrantAttributes(int partition, long expiredBefore) throws IdentityOAuth2Exception {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (PreparedStatement prepStmt =
+                         connection.prepareStatement(SQLQueries.DELETE_EXPIRED_GRANT_ATTRIBUTES)) {
+                prepStmt.setInt(1, partition);
+                prepStmt.setLong(2, expiredBefore);
+                int removedCount = prepStmt.executeUpdate();
+                IdentityDatabaseUtil.commitTransaction(connection);
+                return removedCount;
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while removing expired authorization grant attributes from " +
+                    "partition: " + partition, e);
+        }
+    }
+
+    private void addDeleteBatch(PreparedStatement prepStmt, Collection<AuthorizationGrantAttributesDO> attributes)
+            throws SQLException {
+
+        for (AuthorizationGrantAttributesDO attribute : attributes) {
+            prepStmt.setInt(1, attribute.getPartition());
+            prepStmt.setString(2, attribute.getKeyHash());
+            prepStmt.addBatch();
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.wso2.carbon.identity.application.common.model.Claim;
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantCacheEntry;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.openidconnect.model.RequestObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readString;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readStrings;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readVersion;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeString;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeStrings;
+
+/**
+ * Converts an {@link AuthorizationGrantCacheEntry} to and from the compact binary form kept in the authorization grant
+ * attribute store. Strings and claim mappings are written field by field instead of through Java serialization, which
+ * avoids the class descriptors that dominate the size of a serialized entry. The request object, which is only
+ * present for request object flows, is still written with Java serialization. The same form is used by the compact
+ * serialized form of the entry when it is replicated across a cluster.
+ */
+public final class AuthorizationGrantCacheEntryCodec {
+
+    private static final byte VERSION = 1;
+
+    private static final int HAS_NON_OIDC_CLAIMS = 1;
+    private static final int REQUEST_OBJECT_FLOW = 1 << 1;
+    private static final int REQUESTED = 1;
+    private static final int MANDATORY = 1 << 1;
+    private static final int NULL_LENGTH = -1;
+
+    private AuthorizationGrantCacheEntryCodec() {
+
+    }
+
+    /**
+     * Encode an authorization grant cache entry.
+     *
+     * @param entry Cache entry.
+     * @return Encoded entry.
+     * @throws IdentityOAuth2Exception If the entry cannot be encoded.
+     */
+    public static byte[] encode(AuthorizationGrantCacheEntry entry) throws IdentityOAuth2Exception {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            write(out, entry);
+        } catch (IOException e) {
+            throw new IdentityOAuth2Exception("Error while encoding the authorization grant cache entry.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode an authorization grant cache entry.
+     *
+     * @param encodedEntry Encoded entry.
+     * @return Cache entry.
+     * @throws IdentityOAuth2Exception If the entry cannot be decoded.
+     */
+    public static AuthorizationGrantCacheEntry decode(byte[] encodedEntry) throws IdentityOAuth2Exception {
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encodedEntry))) {
+            return read(in);
+        } catch (IOException | ClassNotFoundException e) {
+            throw new IdentityOAuth2Exception("Error while decoding the authorization grant cache entry.", e);
+        }
+    }
+
+    /**
+     * Write an authorization grant cache entry, prefixed with the version of the encoding.
+     *
+     * @param out   Output.
+     * @param entry Cache entry.
+     * @throws IOException If the entry cannot be written.
+     */
+    public static void write(DataOutput out, AuthorizationGrantCacheEntry entry) throws IOException {
+
+        out.writeByte(VERSION);
+        out.writeByte((entry.isHasNonOIDCClaims() ? HAS_NON_OIDC_CLAIMS : 0) |
+                (entry.isRequestObjectFlow() ? REQUEST_OBJECT_FLOW : 0));
+        writeString(out, entry.getCodeId());
+        writeString(out, entry.getAuthorizationCode());
+        writeString(out, entry.getTokenId());
+        writeString(out, entry.getNonceValue());
+        writeString(out, entry.getPkceCodeChallenge());
+        writeString(out, entry.getPkceCodeChallengeMethod());
+        writeString(out, entry.getSelectedAcrValue());
+        writeString(out, entry.getEssentialClaims());
+        writeString(out, entry.getSubjectClaim());
+        writeString(out, entry.getTokenBindingValue());
+        writeString(out, entry.getSessionContextIdentifier());
+        writeString(out, entry.getOidcSessionId());
+        out.writeLong(entry.getAuthTime());
+        out.writeLong(entry.getMaxAge());
+        out.writeLong(entry.getValidityPeriod());
+        writeUserAttributes(out, entry.getUserAttributes());
+        writeStrings(out, entry.getAcrValue());
+        writeStrings(out, entry.getAmrList());
+        writeRequestObject(out, entry.getRequestObject());
+    }
+
+    /**
+     * Read an authorization grant cache entry written with {@link #write(DataOutput, AuthorizationGrantCacheEntry)}.
+     *
+     * @param in Input.
+     * @return Cache entry.
+     * @throws IOException            If the entry cannot be read or was written with an unsupported version.
+     * @throws ClassNotFoundException If the class of the request object cannot be found.
+     */
+    public static AuthorizationGrantCacheEntry read(DataInput in) throws IOException, ClassNotFoundException {
+
+        readVersion(in, VERSION, AuthorizationGrantCacheEntry.class.getName());
+        int flags = in.readByte();
+        String codeId = readString(in);
+        String authorizationCode = readString(in);
+        String tokenId = readString(in);
+        String nonceValue = readString(in);
+        String pkceCodeChallenge = readString(in);
+        String pkceCodeChallengeMethod = readString(in);
+        String selectedAcrValue = readString(in);
+        String essentialClaims = readString(in);
+        String subjectClaim = readString(in);
+        String tokenBindingValue = readString(in);
+        String sessionContextIdentifier = readString(in);
+        String oidcSessionId = readString(in);
+        long authTime = in.readLong();
+        long maxAge = in.readLong();
+        long validityPeriod = in.readLong();
+
+        AuthorizationGrantCacheEntry entry = new AuthorizationGrantCacheEntry(readUserAttributes(in));
+        entry.setHasNonOIDCClaims((flags & HAS_NON_OIDC_CLAIMS) != 0);
+        entry.setRequestObjectFlow((flags & REQUEST_OBJECT_FLOW) != 0);
+        entry.setCodeId(codeId);
+        entry.setAuthorizationCode(authorizationCode);
+        entry.setTokenId(tokenId);
+        entry.setNonceValue(nonceValue);
+        entry.setPkceCodeChallenge(pkceCodeChallenge);
+        entry.setPkceCodeChallengeMethod(pkceCodeChallengeMethod);
+        entry.setSelectedAcrValue(selectedAcrValue);
+        entry.setEssentialClaims(essentialClaims);
+        entry.setSubjectClaim(subjectClaim);
+        entry.setTokenBindingValue(tokenBindingValue);
+        entry.setSessionContextIdentifier(sessionContextIdentifier);
+        entry.setOidcSessionId(oidcSessionId);
+        entry.setAuthTime(authTime);
+        entry.setMaxAge(maxAge);
+        entry.setValidityPeriod(validityPeriod);
+
+        LinkedHashSet<String> acrValue = readStrings(in, LinkedHashSet::new);
+        if (acrValue != null) {
+            entry.setAcrValue(acrValue);
+        }
+        List<String> amrList = readStrings(in, ArrayList::new);
+        if (amrList != null) {
+            for (String amr : amrList) {
+                entry.addAmr(amr);
+            }
+        }
+        entry.setRequestObject(readRequestObject(in));
+        return entry;
+    }
+
+    private static void writeUserAttributes(DataOutput out, Map<ClaimMapping, String> userAttributes)
+            throws IOException {
+
+        if (userAttributes == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(userAttributes.size());
+        for (Map.Entry<ClaimMapping, String> userAttribute : userAttributes.entrySet()) {
+            ClaimMapping claimMapping = userAttribute.getKey();
+            out.writeByte((claimMapping.isRequested() ? REQUESTED : 0) |
+                    (claimMapping.isMandatory() ? MANDATORY : 0));
+            writeClaim(out, claimMapping.getLocalClaim());
+            writeClaim(out, claimMapping.getRemoteClaim());
+            writeString(out, claimMapping.getDefaultValue());
+            writeString(out, userAttribute.getValue());
+        }
+    }
+
+    private static Map<ClaimMapping, String> readUserAttributes(DataInput in) throws IOException {
+
+        int count = in.readInt();
+        if (count == NULL_LENGTH) {
+            return null;
+        }
+        Map<ClaimMapping, String> userAttributes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            int flags = in.readByte();
+            ClaimMapping claimMapping = new ClaimMapping();
+            claimMapping.setRequested((flags & REQUESTED) != 0);
+            claimMapping.setMandatory((flags & MANDATORY) != 0);
+            claimMapping.setLocalClaim(readClaim(in));
+            claimMapping.setRemoteClaim(readClaim(in));
+            claimMapping.setDefaultValue(readString(in));
+            userAttributes.put(claimMapping, readString(in));
+        }
+        return userAttributes;
+    }
+
+    private static void writeClaim(DataOutput out, Claim claim) throws IOException {
+
+        out.writeBoolean(claim != null);
+        if (claim != null) {
+            writeString(out, claim.getClaimUri());
+            out.writeInt(claim.getClaimId());
+        }
+    }
+
+    private static Claim readClaim(DataInput in) throws IOException {
+
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Claim claim = new Claim();
+        claim.setClaimUri(readString(in));
+        claim.setClaimId(in.readInt());
+        return claim;
+    }
+
+    private static void writeRequestObject(DataOutput out, RequestObject requestObject) throws IOException {
+
+        if (requestObject == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(bytes)) {
+            objectOut.writeObject(requestObject);
+        }
+        out.writeInt(bytes.size());
+        out.write(bytes.toByteArray());
+    }
+
+    private static RequestObject readRequestObject(DataInput in) throws IOException, ClassNotFoundException {
+
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        try (ObjectInputStream objectIn = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return (RequestObject) objectIn.readObject();
+        }
+    }
+}
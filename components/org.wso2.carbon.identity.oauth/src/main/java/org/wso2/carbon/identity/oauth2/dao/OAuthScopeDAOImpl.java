@@ -31,6 +31,8 @@ import org.wso2.carbon.identity.oauth2.IdentityOAuth2ScopeServerException;
 import org.wso2.carbon.identity.oauth2.Oauth2ScopeConstants;
 import org.wso2.carbon.identity.oauth2.bean.Scope;
 import org.wso2.carbon.identity.oauth2.bean.ScopeBinding;
+import org.wso2.carbon.identity.oauth2.dao.routing.DBConnectionRouter;
+import org.wso2.carbon.identity.oauth2.dao.routing.RoutedDataType;
 import org.wso2.carbon.identity.oauth2.util.NamedPreparedStatement;
 import org.wso2.carbon.identity.oauth2.util.Oauth2ScopeUtils;
 import org.wso2.carbon.utils.DBUtils;
@@ -94,6 +96,7 @@ public class OAuthScopeDAOImpl implements OAuthScopeDAO {
             try {
                 addScope(scope, conn, tenantID);
                 IdentityDatabaseUtil.commitTransaction(conn);
+                markScopeWrite();
             } catch (SQLException e1) {
                 IdentityDatabaseUtil.rollbackTransaction(conn);
                 String msg = "SQL error occurred while creating scope :" + scope.getName();
@@ -564,48 +567,54 @@ public class OAuthScopeDAOImpl implements OAuthScopeDAO {
             log.debug("Get scope by name called for scope name:" + name);
         }
 
+        try {
+            return DBConnectionRouter.getInstance().executeRead(RoutedDataType.SCOPE, null,
+                    conn -> getScopeByName(conn, name, tenantID));
+        } catch (SQLException e) {
+            String msg = "Error occurred while getting scope by ID ";
+            throw new IdentityOAuth2ScopeServerException(msg, e);
+        }
+    }
+
+    private Scope getScopeByName(Connection conn, String name, int tenantID) throws SQLException {
+
         Scope scope = null;
         String sql;
-        try (Connection conn = IdentityDatabaseUtil.getDBConnection(false)) {
-            if (conn.getMetaData().getDriverName().contains(Oauth2ScopeConstants.DataBaseType.ORACLE)) {
-                sql = SQLQueries.RETRIEVE_SCOPE_BY_NAME_ORACLE;
-            } else {
-                sql = SQLQueries.RETRIEVE_SCOPE_BY_NAME;
-            }
-            try (PreparedStatement ps = conn.prepareStatement(sql)) {
-                ps.setString(1, name);
-                ps.setInt(2, tenantID);
-                ps.setString(3, Oauth2ScopeConstants.SCOPE_TYPE_OAUTH2);
-                try (ResultSet rs = ps.executeQuery()) {
+        if (conn.getMetaData().getDriverName().contains(Oauth2ScopeConstants.DataBaseType.ORACLE)) {
+            sql = SQLQueries.RETRIEVE_SCOPE_BY_NAME_ORACLE;
+        } else {
+            sql = SQLQueries.RETRIEVE_SCOPE_BY_NAME;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.setString(1, name);
+            ps.setInt(2, tenantID);
+            ps.setString(3, Oauth2ScopeConstants.SCOPE_TYPE_OAUTH2);
+            try (ResultSet rs = ps.executeQuery()) {
 
-                    String description = null;
-                    String displayName = null;
+                String description = null;
+                String displayName = null;
 
-                    while (rs.next()) {
-                        if (StringUtils.isBlank(description)) {
-                            description = rs.getString(3);
-                        }
-                        if (StringUtils.isBlank(displayName)) {
-                            displayName = rs.getString(2);
-                        }
+                while (rs.next()) {
+                    if (StringUtils.isBlank(description)) {
+                        description = rs.getString(3);
+                    }
+                    if (StringUtils.isBlank(displayName)) {
+                        displayName = rs.getString(2);
+                    }
 
-                        String bindingType = rs.getString(5);
-                        if (bindingType == null) {
-                            bindingType = DEFAULT_SCOPE_BINDING;
-                        }
+                    String bindingType = rs.getString(5);
+                    if (bindingType == null) {
+                        bindingType = DEFAULT_SCOPE_BINDING;
+                    }
 
-                        if (scope == null) {
-                            scope = new Scope(name, displayName, new ArrayList<>(), description);
-                        }
-                        scope.addScopeBinding(bindingType, rs.getString(4));
+                    if (scope == null) {
+                        scope = new Scope(name, displayName, new ArrayList<>(), description);
                     }
+                    scope.addScopeBinding(bindingType, rs.getString(4));
                 }
             }
-            return scope;
-        } catch (SQLException e) {
-            String msg = "Error occurred while getting scope by ID ";
-            throw new IdentityOAuth2ScopeServerException(msg, e);
         }
+        return scope;
     }
 
     /**
@@ -752,6 +761,7 @@ public class OAuthScopeDAOImpl implements OAuthScopeDAO {
             try {
                 deleteScope(name, tenantID, conn);
                 IdentityDatabaseUtil.commitTransaction(conn);
+                markScopeWrite();
             } catch (SQLException e1) {
                 IdentityDatabaseUtil.rollbackTransaction(conn);
                 String msg = "Error occurred while deleting scopes ";
@@ -785,6 +795,7 @@ public class OAuthScopeDAOImpl implements OAuthScopeDAO {
                     deleteBindings(scopeId, conn);
                     addScopeBinding(updatedScope, conn, scopeId);
                     IdentityDatabaseUtil.commitTransaction(conn);
+                    markScopeWrite();
                 }
             } catch (SQLException e1) {
                 IdentityDatabaseUtil.rollbackTransaction(conn);
@@ -927,28 +938,39 @@ public class OAuthScopeDAOImpl implements OAuthScopeDAO {
         if (log.isDebugEnabled()) {
             log.debug("Retrieving scope for resource: " + resourceUri);
         }
-        String sql;
-        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
-            if (connection.getMetaData().getDriverName().contains(Oauth2ScopeConstants.DataBaseType.ORACLE)) {
-                sql = SQLQueries.RETRIEVE_SCOPE_NAME_FOR_RESOURCE_ORACLE;
-            } else {
-                sql = SQLQueries.RETRIEVE_SCOPE_NAME_FOR_RESOURCE;
-            }
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                ps.setString(1, resourceUri);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        return rs.getString("NAME");
+        try {
+            return DBConnectionRouter.getInstance().executeRead(RoutedDataType.SCOPE, null, connection -> {
+                String sql;
+                if (connection.getMetaData().getDriverName().contains(Oauth2ScopeConstants.DataBaseType.ORACLE)) {
+                    sql = SQLQueries.RETRIEVE_SCOPE_NAME_FOR_RESOURCE_ORACLE;
+                } else {
+                    sql = SQLQueries.RETRIEVE_SCOPE_NAME_FOR_RESOURCE;
+                }
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    ps.setString(1, resourceUri);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            return rs.getString("NAME");
+                        }
                     }
+                    return null;
                 }
-                return null;
-            }
+            });
         } catch (SQLException e) {
             String errorMsg = "Error getting scopes for resource - " + resourceUri + " : " + e.getMessage();
             throw new IdentityOAuth2Exception(errorMsg, e);
         }
     }
 
+    /**
+     * Record a scope write so that the scope reads are served by the primary database until the write has been
+     * replicated.
+     */
+    private void markScopeWrite() {
+
+        DBConnectionRouter.getInstance().markWrite(RoutedDataType.SCOPE, null);
+    }
+
     @Override
     public boolean validateScope(Connection connection, String accessToken, String resourceUri) {
 
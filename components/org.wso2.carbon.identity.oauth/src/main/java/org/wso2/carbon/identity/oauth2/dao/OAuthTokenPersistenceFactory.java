@@ -21,6 +21,7 @@
 package org.wso2.carbon.identity.oauth2.dao;
 
 import org.wso2.carbon.identity.openidconnect.dao.CacheBackedScopeClaimMappingDAOImpl;
+import org.wso2.carbon.identity.openidconnect.dao.CompactRequestObjectDAOImpl;
 import org.wso2.carbon.identity.openidconnect.dao.RequestObjectDAO;
 import org.wso2.carbon.identity.openidconnect.dao.RequestObjectDAOImpl;
 import org.wso2.carbon.identity.openidconnect.dao.ScopeClaimMappingDAO;
@@ -39,6 +40,8 @@ public class OAuthTokenPersistenceFactory {
     private ScopeClaimMappingDAO scopeClaimMappingDAO;
     private TokenBindingMgtDAO tokenBindingMgtDAO;
     private OAuthUserConsentedScopesDAO oauthUserConsentedScopesDAO;
+    private TokenRevocationJobDAO tokenRevocationJobDAO;
+    private AuthorizationGrantAttributeDAO authorizationGrantAttributeDAO;
 
     public OAuthTokenPersistenceFactory() {
 
@@ -46,10 +49,16 @@ public class OAuthTokenPersistenceFactory {
         this.tokenDAO = new AccessTokenDAOImpl();
         this.scopeDAO = new OAuthScopeDAOImpl();
         this.managementDAO = new TokenManagementDAOImpl();
-        this.requestObjectDAO = new RequestObjectDAOImpl();
+        if (CompactRequestObjectDAOImpl.isCompactClaimStorageEnabled()) {
+            this.requestObjectDAO = new CompactRequestObjectDAOImpl();
+        } else {
+            this.requestObjectDAO = new RequestObjectDAOImpl();
+        }
         this.scopeClaimMappingDAO = new CacheBackedScopeClaimMappingDAOImpl();
         this.tokenBindingMgtDAO = new TokenBindingMgtDAOImpl();
         this.oauthUserConsentedScopesDAO = new CacheBackedOAuthUserConsentedScopesDAOImpl();
+        this.tokenRevocationJobDAO = new TokenRevocationJobDAOImpl();
+        this.authorizationGrantAttributeDAO = new AuthorizationGrantAttributeDAOImpl();
     }
 
     public static OAuthTokenPersistenceFactory getInstance() {
@@ -96,4 +105,14 @@ public class OAuthTokenPersistenceFactory {
 
         return oauthUserConsentedScopesDAO;
     }
+
+    public TokenRevocationJobDAO getTokenRevocationJobDAO() {
+
+        return tokenRevocationJobDAO;
+    }
+
+    public AuthorizationGrantAttributeDAO getAuthorizationGrantAttributeDAO() {
+
+        return authorizationGrantAttributeDAO;
+    }
 }
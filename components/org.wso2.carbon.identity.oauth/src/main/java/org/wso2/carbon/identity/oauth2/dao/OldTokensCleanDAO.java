@@ -21,6 +21,7 @@ package org.wso2.carbon.identity.oauth2.dao;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.dao.sharding.AccessTokenShardRouter;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.OldAccessTokenDO;
 
@@ -29,6 +30,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -51,10 +53,12 @@ public class OldTokensCleanDAO {
                 } else {
                     sql = SQLQueries.RETRIEVE_AND_STORE_IN_AUDIT;
                 }
-                PreparedStatement prepStmt = connection.prepareStatement(sql);
-                prepStmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
-                prepStmt.setString(2, tokenId);
-                prepStmt.executeUpdate();
+                for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                    PreparedStatement prepStmt = connection.prepareStatement(shardedSql);
+                    prepStmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+                    prepStmt.setString(2, tokenId);
+                    prepStmt.executeUpdate();
+                }
             }
             removeTokenFromMainTable(tokenId, connection);
             connection.commit();
@@ -74,11 +78,18 @@ public class OldTokensCleanDAO {
             sql = SQLQueries.RETRIEVE_OLD_TOKEN_BY_TOKEN_HASH;
         }
 
-        PreparedStatement prepStmt = connection.prepareStatement(sql);
-        prepStmt.setString(1, token);
-        ResultSet resultSet = prepStmt.executeQuery();
+        ResultSet resultSet = null;
+        for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+            PreparedStatement prepStmt = connection.prepareStatement(shardedSql);
+            prepStmt.setString(1, token);
+            resultSet = prepStmt.executeQuery();
+            if (resultSet.next()) {
+                break;
+            }
+            resultSet = null;
+        }
         //iterate result set and insert to AccessTokenDO object.
-        if (resultSet.next()) {
+        if (resultSet != null) {
             oldAccessTokenObject.setTokenId(resultSet.getString(1));
             oldAccessTokenObject.setAccessToken(resultSet.getString(2));
             oldAccessTokenObject.setRefreshToken(resultSet.getString(3));
@@ -153,10 +164,12 @@ public class OldTokensCleanDAO {
 
         connection.setAutoCommit(false);
         try {
-            PreparedStatement deletefromaccesstokentable =
-                    connection.prepareStatement(SQLQueries.DELETE_OLD_TOKEN_BY_ID);
-            deletefromaccesstokentable.setString(1, oldAccessTokenID);
-            deletefromaccesstokentable.executeUpdate();
+            for (String sql : AccessTokenShardRouter.getInstance()
+                    .getAllShardedSqls(SQLQueries.DELETE_OLD_TOKEN_BY_ID)) {
+                PreparedStatement deletefromaccesstokentable = connection.prepareStatement(sql);
+                deletefromaccesstokentable.setString(1, oldAccessTokenID);
+                deletefromaccesstokentable.executeUpdate();
+            }
             if (log.isDebugEnabled()) {
                 log.debug(
                         "Successfully old access token deleted from access token table. Token ID: " + oldAccessTokenID);
@@ -173,4 +186,55 @@ public class OldTokensCleanDAO {
             cleanupTokenByTokenValue(token, connection);
         }
     }
+
+    /**
+     * Move the given tokens to the audit table, when old tokens are retained, and remove them from the access token
+     * table with a single statement for each step. Unlike the other cleanup methods the transaction is not committed
+     * here, so that the cleanup is committed together with the state change of the tokens by the caller.
+     *
+     * @param tokenIds   Ids of the tokens to clean up.
+     * @param connection Database connection.
+     * @throws SQLException If an error occurs while cleaning up the tokens.
+     */
+    public void cleanupTokensByTokenIds(List<String> tokenIds, Connection connection) throws SQLException {
+
+        if (tokenIds.isEmpty()) {
+            return;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(tokenIds.size(), "?"));
+        if (OAuthServerConfiguration.getInstance().useRetainOldAccessTokens()) {
+            String sql;
+            if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                sql = SQLQueries.RETRIEVE_AND_STORE_IN_AUDIT_BY_TOKEN_IDS_WITH_IDP_NAME;
+            } else {
+                sql = SQLQueries.RETRIEVE_AND_STORE_IN_AUDIT_BY_TOKEN_IDS;
+            }
+            sql = sql.replace(SQLQueries.TOKEN_ID_LIST_PLACEHOLDER, placeholders);
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                try (PreparedStatement prepStmt = connection.prepareStatement(shardedSql)) {
+                    prepStmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()));
+                    int parameterIndex = 2;
+                    for (String tokenId : tokenIds) {
+                        prepStmt.setString(parameterIndex++, tokenId);
+                    }
+                    prepStmt.executeUpdate();
+                }
+            }
+        }
+        String deleteSql = SQLQueries.DELETE_OLD_TOKENS_BY_TOKEN_IDS.replace(SQLQueries.TOKEN_ID_LIST_PLACEHOLDER,
+                placeholders);
+        int count = 0;
+        for (String shardedDeleteSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(deleteSql)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(shardedDeleteSql)) {
+                int parameterIndex = 1;
+                for (String tokenId : tokenIds) {
+                    prepStmt.setString(parameterIndex++, tokenId);
+                }
+                count += prepStmt.executeUpdate();
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Successfully deleted " + count + " old access tokens from access token table.");
+        }
+    }
 }
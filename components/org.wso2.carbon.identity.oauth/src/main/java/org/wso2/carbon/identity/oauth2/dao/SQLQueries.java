@@ -442,6 +442,9 @@ public class SQLQueries {
     public static final String UPDATE_TOKEN_STATE = "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET TOKEN_STATE=?, " +
             "TOKEN_STATE_ID=? WHERE TOKEN_ID=?";
 
+    public static final String UPDATE_TOKEN_STATE_IF_IN_STATE = "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET " +
+            "TOKEN_STATE=?, TOKEN_STATE_ID=? WHERE TOKEN_ID=? AND TOKEN_STATE=?";
+
     public static final String UPDATE_TOKEN_CONSENTED_TOKEN = "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET " +
             "CONSENTED_TOKEN=? WHERE TOKEN_ID=?";
     @Deprecated
@@ -548,6 +551,38 @@ public class SQLQueries {
             "ID WHERE AUTHZ_USER=? AND IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID=? AND IDN_OAUTH2_ACCESS_TOKEN.USER_DOMAIN=? " +
             "AND (TOKEN_STATE='ACTIVE' OR TOKEN_STATE='EXPIRED')";
 
+    public static final String GET_APPS_AUTHORIZED_BY_USER = "SELECT CONSUMER_KEY, APP_NAME, " +
+            "ACCESS_TOKEN_TABLE.TOKEN_ID, ACCESS_TOKEN_TABLE.TOKEN_SCOPE_HASH, ACCESS_TOKEN_TABLE.TIME_CREATED, " +
+            "TOKEN_SCOPE FROM IDN_OAUTH2_ACCESS_TOKEN ACCESS_TOKEN_TABLE JOIN (SELECT CONSUMER_KEY_ID, " +
+            "TOKEN_SCOPE_HASH, MAX(TIME_CREATED) AS LATEST_TIME_CREATED FROM IDN_OAUTH2_ACCESS_TOKEN WHERE " +
+            "AUTHZ_USER=? AND TENANT_ID=? AND USER_DOMAIN=? AND (TOKEN_STATE='ACTIVE' OR TOKEN_STATE='EXPIRED') " +
+            "GROUP BY CONSUMER_KEY_ID, TOKEN_SCOPE_HASH) LATEST_TOKEN ON ACCESS_TOKEN_TABLE.CONSUMER_KEY_ID = " +
+            "LATEST_TOKEN.CONSUMER_KEY_ID AND ACCESS_TOKEN_TABLE.TOKEN_SCOPE_HASH = LATEST_TOKEN.TOKEN_SCOPE_HASH AND " +
+            "ACCESS_TOKEN_TABLE.TIME_CREATED = LATEST_TOKEN.LATEST_TIME_CREATED JOIN IDN_OAUTH_CONSUMER_APPS ON " +
+            "ACCESS_TOKEN_TABLE.CONSUMER_KEY_ID = IDN_OAUTH_CONSUMER_APPS.ID LEFT JOIN IDN_OAUTH2_ACCESS_TOKEN_SCOPE " +
+            "ON ACCESS_TOKEN_TABLE.TOKEN_ID = IDN_OAUTH2_ACCESS_TOKEN_SCOPE.TOKEN_ID WHERE AUTHZ_USER=? AND " +
+            "ACCESS_TOKEN_TABLE.TENANT_ID=? AND ACCESS_TOKEN_TABLE.USER_DOMAIN=? AND (TOKEN_STATE='ACTIVE' OR " +
+            "TOKEN_STATE='EXPIRED')";
+
+    public static final String GET_APPS_AUTHORIZED_BY_USER_IDP_NAME = "SELECT CONSUMER_KEY, APP_NAME, " +
+            "ACCESS_TOKEN_TABLE.TOKEN_ID, ACCESS_TOKEN_TABLE.TOKEN_SCOPE_HASH, ACCESS_TOKEN_TABLE.TIME_CREATED, " +
+            "TOKEN_SCOPE FROM IDN_OAUTH2_ACCESS_TOKEN ACCESS_TOKEN_TABLE JOIN (SELECT CONSUMER_KEY_ID, " +
+            "TOKEN_SCOPE_HASH, MAX(TIME_CREATED) AS LATEST_TIME_CREATED FROM IDN_OAUTH2_ACCESS_TOKEN WHERE " +
+            "AUTHZ_USER=? AND TENANT_ID=? AND USER_DOMAIN=? AND (TOKEN_STATE='ACTIVE' OR TOKEN_STATE='EXPIRED') " +
+            "AND IDP_ID=(SELECT ID FROM IDP WHERE NAME=? AND TENANT_ID=IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID) " +
+            "GROUP BY CONSUMER_KEY_ID, TOKEN_SCOPE_HASH) LATEST_TOKEN ON ACCESS_TOKEN_TABLE.CONSUMER_KEY_ID = " +
+            "LATEST_TOKEN.CONSUMER_KEY_ID AND ACCESS_TOKEN_TABLE.TOKEN_SCOPE_HASH = LATEST_TOKEN.TOKEN_SCOPE_HASH AND " +
+            "ACCESS_TOKEN_TABLE.TIME_CREATED = LATEST_TOKEN.LATEST_TIME_CREATED JOIN IDN_OAUTH_CONSUMER_APPS ON " +
+            "ACCESS_TOKEN_TABLE.CONSUMER_KEY_ID = IDN_OAUTH_CONSUMER_APPS.ID LEFT JOIN IDN_OAUTH2_ACCESS_TOKEN_SCOPE " +
+            "ON ACCESS_TOKEN_TABLE.TOKEN_ID = IDN_OAUTH2_ACCESS_TOKEN_SCOPE.TOKEN_ID WHERE AUTHZ_USER=? AND " +
+            "ACCESS_TOKEN_TABLE.TENANT_ID=? AND ACCESS_TOKEN_TABLE.USER_DOMAIN=? AND (TOKEN_STATE='ACTIVE' OR " +
+            "TOKEN_STATE='EXPIRED')";
+
+    public static final String APPS_AUTHORIZED_BY_USER_AFTER_CONSUMER_KEY = " AND CONSUMER_KEY > ?";
+
+    public static final String APPS_AUTHORIZED_BY_USER_ORDER_BY = " ORDER BY CONSUMER_KEY, " +
+            "ACCESS_TOKEN_TABLE.TOKEN_SCOPE_HASH, ACCESS_TOKEN_TABLE.TOKEN_ID";
+
     public static final String RETRIEVE_ACCESS_TOKEN_VALIDATION_DATA_MYSQL = "SELECT ACCESS_TOKEN, AUTHZ_USER, " +
             "ACCESS_TOKEN_SELECTED.TENANT_ID, USER_DOMAIN, TOKEN_SCOPE, TOKEN_STATE, REFRESH_TOKEN_TIME_CREATED, " +
             "REFRESH_TOKEN_VALIDITY_PERIOD, ACCESS_TOKEN_SELECTED.TOKEN_ID, GRANT_TYPE, SUBJECT_IDENTIFIER, " +
@@ -857,6 +892,8 @@ public class SQLQueries {
             "IDN_OAUTH2_ACCESS_TOKEN_SCOPE ON ACCESS_TOKEN_TABLE.TOKEN_ID = IDN_OAUTH2_ACCESS_TOKEN_SCOPE.TOKEN_ID " +
             "JOIN IDP ON IDP.ID=IDP_ID";
 
+    public static final String LIST_ALL_TOKENS_ORDER_BY_TOKEN_ID = " ORDER BY ACCESS_TOKEN_TABLE.TOKEN_ID";
+
     public static final String LIST_LATEST_AUTHZ_CODES_IN_USER_DOMAIN = "SELECT CODE_ID, AUTHORIZATION_CODE, " +
             "CONSUMER_KEY, IDN_OAUTH2_AUTHORIZATION_CODE.AUTHZ_USER, IDN_OAUTH2_AUTHORIZATION_CODE.SCOPE, " +
             "TIME_CREATED, VALIDITY_PERIOD, IDN_OAUTH2_AUTHORIZATION_CODE.CALLBACK_URL FROM (SELECT " +
@@ -1485,6 +1522,118 @@ public class SQLQueries {
     public static final String GET_CONSENT_ID_FOR_CONSENT = "SELECT CONSENT_ID FROM IDN_OAUTH2_USER_CONSENT WHERE " +
             "USER_ID = ? AND APP_ID = ? AND TENANT_ID = ?";
 
+    public static final String TOKEN_ID_LIST_PLACEHOLDER = "_TOKEN_ID_LIST_";
+
+    public static final String INSERT_TOKEN_REVOCATION_JOB = "INSERT INTO IDN_OAUTH2_TOKEN_REVOCATION_JOB (JOB_ID, " +
+            "TENANT_ID, TYPE, CONSUMER_KEY, AUTHZ_USER, USER_DOMAIN, TOKEN_BINDING_REF, STATUS, REVOKED_TOKEN_COUNT, " +
+            "TIME_CREATED, LAST_UPDATED) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    public static final String CLAIM_TOKEN_REVOCATION_JOB = "UPDATE IDN_OAUTH2_TOKEN_REVOCATION_JOB SET " +
+            "STATUS='RUNNING', LAST_UPDATED=? WHERE JOB_ID=? AND (STATUS='PENDING' OR (STATUS='RUNNING' AND " +
+            "LAST_UPDATED < ?))";
+
+    public static final String UPDATE_TOKEN_REVOCATION_JOB = "UPDATE IDN_OAUTH2_TOKEN_REVOCATION_JOB SET STATUS=?, " +
+            "REVOKED_TOKEN_COUNT=?, ERROR_MESSAGE=?, LAST_UPDATED=? WHERE JOB_ID=?";
+
+    public static final String RETRIEVE_TOKEN_REVOCATION_JOB = "SELECT JOB_ID, TENANT_ID, TYPE, CONSUMER_KEY, " +
+            "AUTHZ_USER, USER_DOMAIN, TOKEN_BINDING_REF, STATUS, REVOKED_TOKEN_COUNT, ERROR_MESSAGE, TIME_CREATED, " +
+            "LAST_UPDATED FROM IDN_OAUTH2_TOKEN_REVOCATION_JOB WHERE JOB_ID=? AND TENANT_ID=?";
+
+    public static final String RETRIEVE_INCOMPLETE_TOKEN_REVOCATION_JOBS = "SELECT JOB_ID, TENANT_ID, TYPE, " +
+            "CONSUMER_KEY, AUTHZ_USER, USER_DOMAIN, TOKEN_BINDING_REF, STATUS, REVOKED_TOKEN_COUNT, ERROR_MESSAGE, " +
+            "TIME_CREATED, LAST_UPDATED FROM IDN_OAUTH2_TOKEN_REVOCATION_JOB WHERE STATUS='PENDING' OR " +
+            "STATUS='RUNNING'";
+
+    public static final String RETRIEVE_ACTIVE_TOKENS_TO_REVOKE = "SELECT IDN_OAUTH2_ACCESS_TOKEN.TOKEN_ID, " +
+            "ACCESS_TOKEN, AUTHZ_USER, IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID, IDN_OAUTH2_ACCESS_TOKEN.USER_DOMAIN, " +
+            "TOKEN_BINDING_REF, CONSUMER_KEY, SUBJECT_IDENTIFIER FROM IDN_OAUTH2_ACCESS_TOKEN JOIN " +
+            "IDN_OAUTH_CONSUMER_APPS ON IDN_OAUTH2_ACCESS_TOKEN.CONSUMER_KEY_ID = IDN_OAUTH_CONSUMER_APPS.ID WHERE " +
+            "TOKEN_STATE='ACTIVE'";
+
+    public static final String RETRIEVE_ACTIVE_TOKENS_TO_REVOKE_IDP_NAME = "SELECT " +
+            "IDN_OAUTH2_ACCESS_TOKEN.TOKEN_ID, ACCESS_TOKEN, AUTHZ_USER, IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID, " +
+            "IDN_OAUTH2_ACCESS_TOKEN.USER_DOMAIN, TOKEN_BINDING_REF, CONSUMER_KEY, SUBJECT_IDENTIFIER, IDP.NAME " +
+            "FROM IDN_OAUTH2_ACCESS_TOKEN JOIN IDN_OAUTH_CONSUMER_APPS ON IDN_OAUTH2_ACCESS_TOKEN.CONSUMER_KEY_ID = " +
+            "IDN_OAUTH_CONSUMER_APPS.ID LEFT JOIN IDP ON IDN_OAUTH2_ACCESS_TOKEN.IDP_ID = IDP.ID WHERE " +
+            "TOKEN_STATE='ACTIVE'";
+
+    public static final String ACTIVE_TOKENS_TO_REVOKE_BY_CONSUMER_KEY = " AND CONSUMER_KEY=?";
+
+    public static final String ACTIVE_TOKENS_TO_REVOKE_BY_USER = " AND AUTHZ_USER=? AND " +
+            "IDN_OAUTH2_ACCESS_TOKEN.TENANT_ID=? AND IDN_OAUTH2_ACCESS_TOKEN.USER_DOMAIN=?";
+
+    public static final String ACTIVE_TOKENS_TO_REVOKE_BY_BINDING_REF = " AND TOKEN_BINDING_REF=?";
+
+    public static final String RETRIEVE_SCOPES_OF_TOKENS_TO_REVOKE = "SELECT TOKEN_ID, TOKEN_SCOPE FROM " +
+            "IDN_OAUTH2_ACCESS_TOKEN_SCOPE WHERE TOKEN_ID IN (" + TOKEN_ID_LIST_PLACEHOLDER + ")";
+
+    public static final String REVOKE_ACTIVE_TOKENS_BY_TOKEN_ID = "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET " +
+            "TOKEN_STATE='REVOKED', TOKEN_STATE_ID=TOKEN_ID WHERE TOKEN_STATE='ACTIVE' AND TOKEN_ID IN (" +
+            TOKEN_ID_LIST_PLACEHOLDER + ")";
+
+    public static final String RETRIEVE_TOKENS_REVOKED_BY_JOB = "SELECT TOKEN_ID FROM IDN_OAUTH2_ACCESS_TOKEN " +
+            "WHERE TOKEN_STATE='REVOKED' AND TOKEN_STATE_ID=TOKEN_ID AND TOKEN_ID IN (" + TOKEN_ID_LIST_PLACEHOLDER +
+            ")";
+
+    public static final String ACCESS_TOKEN_HASH_LIST_PLACEHOLDER = "_ACCESS_TOKEN_HASH_LIST_";
+
+    public static final String RETRIEVE_TOKEN_IDS_BY_ACCESS_TOKEN_HASH = "SELECT ACCESS_TOKEN_HASH, TOKEN_ID FROM " +
+            "IDN_OAUTH2_ACCESS_TOKEN WHERE ACCESS_TOKEN_HASH IN (" + ACCESS_TOKEN_HASH_LIST_PLACEHOLDER + ")";
+
+    public static final String REVOKE_ACCESS_TOKENS_BY_ACCESS_TOKEN_HASH = "UPDATE IDN_OAUTH2_ACCESS_TOKEN SET " +
+            "TOKEN_STATE=?, TOKEN_STATE_ID=TOKEN_ID WHERE ACCESS_TOKEN_HASH IN (" +
+            ACCESS_TOKEN_HASH_LIST_PLACEHOLDER + ")";
+
+    public static final String RETRIEVE_AND_STORE_IN_AUDIT_BY_TOKEN_IDS =
+            "INSERT INTO IDN_OAUTH2_ACCESS_TOKEN_AUDIT (TOKEN_ID, ACCESS_TOKEN, REFRESH_TOKEN, CONSUMER_KEY_ID, " +
+                    "AUTHZ_USER, TENANT_ID, USER_DOMAIN, USER_TYPE, GRANT_TYPE, TIME_CREATED, " +
+                    "REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, " +
+                    "TOKEN_SCOPE_HASH, TOKEN_STATE, TOKEN_STATE_ID, SUBJECT_IDENTIFIER, ACCESS_TOKEN_HASH, " +
+                    "REFRESH_TOKEN_HASH, INVALIDATED_TIME) SELECT TOKEN_ID, ACCESS_TOKEN, REFRESH_TOKEN, " +
+                    "CONSUMER_KEY_ID, AUTHZ_USER, TENANT_ID, USER_DOMAIN, USER_TYPE, GRANT_TYPE, TIME_CREATED, " +
+                    "REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, TOKEN_SCOPE_HASH, " +
+                    "TOKEN_STATE, TOKEN_STATE_ID, SUBJECT_IDENTIFIER, ACCESS_TOKEN_HASH, REFRESH_TOKEN_HASH, ? " +
+                    "FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID IN (" + TOKEN_ID_LIST_PLACEHOLDER + ")";
+
+    public static final String RETRIEVE_AND_STORE_IN_AUDIT_BY_TOKEN_IDS_WITH_IDP_NAME = "INSERT INTO " +
+            "IDN_OAUTH2_ACCESS_TOKEN_AUDIT (TOKEN_ID, ACCESS_TOKEN, REFRESH_TOKEN, CONSUMER_KEY_ID, AUTHZ_USER, " +
+            "TENANT_ID, USER_DOMAIN, USER_TYPE, GRANT_TYPE, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, " +
+            "VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, TOKEN_SCOPE_HASH, TOKEN_STATE, TOKEN_STATE_ID, " +
+            "SUBJECT_IDENTIFIER, ACCESS_TOKEN_HASH, REFRESH_TOKEN_HASH, INVALIDATED_TIME, IDP_ID) SELECT TOKEN_ID, " +
+            "ACCESS_TOKEN, REFRESH_TOKEN, CONSUMER_KEY_ID, AUTHZ_USER, TENANT_ID, USER_DOMAIN, USER_TYPE, " +
+            "GRANT_TYPE, TIME_CREATED, REFRESH_TOKEN_TIME_CREATED, VALIDITY_PERIOD, REFRESH_TOKEN_VALIDITY_PERIOD, " +
+            "TOKEN_SCOPE_HASH, TOKEN_STATE, TOKEN_STATE_ID, SUBJECT_IDENTIFIER, ACCESS_TOKEN_HASH, " +
+            "REFRESH_TOKEN_HASH, ?, IDP_ID FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID IN (" +
+            TOKEN_ID_LIST_PLACEHOLDER + ")";
+
+    public static final String DELETE_OLD_TOKENS_BY_TOKEN_IDS = "DELETE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID " +
+            "IN (" + TOKEN_ID_LIST_PLACEHOLDER + ")";
+
+    public static final String LIST_TOKEN_SHARD_KEYS_FOR_RESHARDING = "SELECT T.TOKEN_ID, A.CONSUMER_KEY, " +
+            "T.AUTHZ_USER, T.TENANT_ID, T.TOKEN_STATE_ID FROM IDN_OAUTH2_ACCESS_TOKEN T INNER JOIN " +
+            "IDN_OAUTH_CONSUMER_APPS A ON T.CONSUMER_KEY_ID = A.ID WHERE T.TOKEN_ID > ? ORDER BY T.TOKEN_ID";
+
+    // Shard tables have the same structure as the unsharded tables, hence the rows are copied as they are.
+    public static final String COPY_TOKEN_ROWS_FOR_RESHARDING = "INSERT INTO %s SELECT * FROM %s WHERE TOKEN_ID = ?";
+
+    public static final String DELETE_TOKEN_IF_STATE_ID_UNCHANGED = "DELETE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE " +
+            "TOKEN_ID = ? AND TOKEN_STATE_ID = ?";
+
+    public static final String DELETE_TOKEN_SCOPES_BY_TOKEN_ID = "DELETE FROM IDN_OAUTH2_ACCESS_TOKEN_SCOPE WHERE " +
+            "TOKEN_ID = ?";
+
+    public static final String DELETE_GRANT_ATTRIBUTES = "DELETE FROM IDN_OAUTH2_GRANT_ATTRIBUTES WHERE " +
+            "KEY_PARTITION = ? AND KEY_HASH = ?";
+
+    public static final String INSERT_GRANT_ATTRIBUTES = "INSERT INTO IDN_OAUTH2_GRANT_ATTRIBUTES (KEY_HASH, " +
+            "KEY_PARTITION, ATTRIBUTES, EXPIRY_TIME) VALUES (?, ?, ?, ?)";
+
+    public static final String RETRIEVE_GRANT_ATTRIBUTES = "SELECT ATTRIBUTES FROM IDN_OAUTH2_GRANT_ATTRIBUTES WHERE " +
+            "KEY_PARTITION = ? AND KEY_HASH = ? AND EXPIRY_TIME > ?";
+
+    public static final String DELETE_EXPIRED_GRANT_ATTRIBUTES = "DELETE FROM IDN_OAUTH2_GRANT_ATTRIBUTES WHERE " +
+            "KEY_PARTITION = ? AND EXPIRY_TIME < ?";
+
     private SQLQueries() {
 
     }
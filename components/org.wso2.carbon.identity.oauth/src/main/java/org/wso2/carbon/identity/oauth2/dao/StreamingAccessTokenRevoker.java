@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.wso2.carbon.identity.oauth.OAuthUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Revokes the access tokens handed over by a streaming DAO method in batches of
+ * {@code OAuth.TokenRevocation.BatchSize}, clearing the cache entries of each token as it is streamed. At most one
+ * batch of tokens is kept in memory, regardless of the number of tokens streamed.
+ * <p>
+ * {@link #flush()} must be called once the streaming query has completed, to revoke the last batch.
+ */
+public class StreamingAccessTokenRevoker implements StreamingResultHandler<AccessTokenDO> {
+
+    private final int batchSize;
+    private final List<String> tokensToRevoke;
+
+    public StreamingAccessTokenRevoker() {
+
+        this(AccessTokenBulkRevoker.readBatchSize());
+    }
+
+    StreamingAccessTokenRevoker(int batchSize) {
+
+        this.batchSize = batchSize;
+        this.tokensToRevoke = new ArrayList<>(batchSize);
+    }
+
+    @Override
+    public void handle(AccessTokenDO accessTokenDO) throws IdentityOAuth2Exception {
+
+        OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser(),
+                OAuth2Util.buildScopeString(accessTokenDO.getScope()));
+        OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser());
+        OAuthUtil.clearOAuthCache(accessTokenDO);
+
+        tokensToRevoke.add(accessTokenDO.getAccessToken());
+        if (tokensToRevoke.size() >= batchSize) {
+            flush();
+        }
+    }
+
+    /**
+     * Revoke the tokens streamed since the last batch was revoked.
+     *
+     * @throws IdentityOAuth2Exception If an error occurs while revoking the tokens.
+     */
+    public void flush() throws IdentityOAuth2Exception {
+
+        if (tokensToRevoke.isEmpty()) {
+            return;
+        }
+        OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
+                .revokeAccessTokens(tokensToRevoke.toArray(new String[0]), OAuth2Util.isHashEnabled());
+        tokensToRevoke.clear();
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+
+/**
+ * Callback used by the streaming DAO methods to process results one at a time, while the underlying result set is
+ * still being read, instead of collecting every row in memory.
+ * <p>
+ * The handler is invoked while the database connection of the streaming query is held open. Implementations should
+ * therefore keep the processing light and must not rely on the data written by the handler being visible to the
+ * remaining rows of the same query.
+ *
+ * @param <T> Type of the streamed result.
+ */
+@FunctionalInterface
+public interface StreamingResultHandler<T> {
+
+    /**
+     * Process a single result.
+     *
+     * @param result Result read from the database.
+     * @throws IdentityOAuth2Exception If the result cannot be processed. This stops the streaming query.
+     */
+    void handle(T result) throws IdentityOAuth2Exception;
+}
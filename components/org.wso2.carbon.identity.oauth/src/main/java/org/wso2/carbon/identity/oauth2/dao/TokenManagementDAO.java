@@ -25,8 +25,10 @@ import org.wso2.carbon.identity.application.authentication.framework.model.Authe
 import org.wso2.carbon.identity.application.common.IdentityApplicationManagementException;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.AuthorizedAppDO;
 import org.wso2.carbon.identity.oauth2.model.RefreshTokenValidationDataDO;
 
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
 
@@ -73,4 +75,19 @@ public interface TokenManagementDAO {
             IdentityOAuth2Exception;
 
     Set<String> getAllTimeAuthorizedClientIds(AuthenticatedUser authzUser) throws IdentityOAuth2Exception;
+
+    /**
+     * Get the applications authorized by the user, with one entry per distinct set of scopes carrying the latest
+     * active or expired access token issued for it. Entries are ordered by the consumer key as stored in the database
+     * and paginated by application.
+     *
+     * @param authzUser         Authorized user.
+     * @param userStoreDomain   User store domain used to resolve the token partition.
+     * @param afterConsumerKey  Consumer key of the last application of the previous page, or null for the first page.
+     * @param limit             Maximum number of applications to return.
+     * @return Authorized applications of the page.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the authorized applications.
+     */
+    List<AuthorizedAppDO> getAppsAuthorizedByUser(AuthenticatedUser authzUser, String userStoreDomain,
+                                                  String afterConsumerKey, int limit) throws IdentityOAuth2Exception;
 }
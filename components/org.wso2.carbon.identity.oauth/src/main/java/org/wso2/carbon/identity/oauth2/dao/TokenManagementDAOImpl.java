@@ -22,6 +22,7 @@ package org.wso2.carbon.identity.oauth2.dao;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.lang.ArrayUtils;
+import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -35,9 +36,15 @@ import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.Oauth2ScopeConstants;
+import org.wso2.carbon.identity.oauth2.cache.VerifiedClientSecretCache;
+import org.wso2.carbon.identity.oauth2.dao.routing.DBConnectionRouter;
+import org.wso2.carbon.identity.oauth2.dao.routing.RoutedDataType;
+import org.wso2.carbon.identity.oauth2.dao.sharding.AccessTokenShardRouter;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.AuthorizedAppDO;
 import org.wso2.carbon.identity.oauth2.model.RefreshTokenValidationDataDO;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 
 import java.sql.Connection;
@@ -47,6 +54,8 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -80,6 +89,7 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
     public RefreshTokenValidationDataDO validateRefreshToken(String consumerKey, String refreshToken)
             throws IdentityOAuth2Exception {
 
+        TokenIssuanceMetrics.countDatabaseCall();
         if (log.isDebugEnabled()) {
             if (IdentityUtil.isTokenLoggable(IdentityConstants.IdentityTokens.REFRESH_TOKEN)) {
                 log.debug("Validating refresh token(hashed): " + DigestUtils.sha256Hex(refreshToken) + " client: " +
@@ -139,57 +149,65 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
                 sql = sql.replace("REFRESH_TOKEN = ?", "REFRESH_TOKEN IS NULL");
             }
 
-            prepStmt = connection.prepareStatement(sql);
+            int iterateId = 0;
+            List<String> scopes = new ArrayList<>();
+            // Refresh tokens are not routed by the access token hash, hence the shards are looked up in turn until
+            // the token is found.
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                if (iterateId > 0) {
+                    break;
+                }
+                IdentityDatabaseUtil.closeStatement(prepStmt);
+                prepStmt = connection.prepareStatement(shardedSql);
 
-            prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
-            if (refreshToken != null) {
-                prepStmt.setString(2, getHashingPersistenceProcessor().getProcessedRefreshToken(refreshToken));
-            }
+                prepStmt.setString(1, getPersistenceProcessor().getProcessedClientId(consumerKey));
+                if (refreshToken != null) {
+                    prepStmt.setString(2, getHashingPersistenceProcessor().getProcessedRefreshToken(refreshToken));
+                }
 
-            resultSet = prepStmt.executeQuery();
+                resultSet = prepStmt.executeQuery();
 
-            int iterateId = 0;
-            List<String> scopes = new ArrayList<>();
-            while (resultSet.next()) {
+                while (resultSet.next()) {
+
+                    if (iterateId == 0) {
+                        if (isHashDisabled) {
+                            validationDataDO.setAccessToken(getPersistenceProcessor()
+                                    .getPreprocessedAccessTokenIdentifier(resultSet.getString(1)));
+                        } else {
+                            validationDataDO.setAccessToken(resultSet.getString(1));
+                        }
+                        String userName = resultSet.getString(2);
+                        int tenantId = resultSet.getInt(3);
+                        String userDomain = resultSet.getString(4);
+                        String tenantDomain = OAuth2Util.getTenantDomain(tenantId);
+
+                        validationDataDO.setScope(OAuth2Util.buildScopeArray(resultSet.getString(5)));
+                        validationDataDO.setRefreshTokenState(resultSet.getString(6));
+                        validationDataDO.setIssuedTime(
+                                resultSet.getTimestamp(7, Calendar.getInstance(TimeZone.getTimeZone(UTC))));
+                        validationDataDO.setValidityPeriodInMillis(resultSet.getLong(8));
+                        validationDataDO.setTokenId(resultSet.getString(9));
+                        validationDataDO.setGrantType(resultSet.getString(10));
+                        String subjectIdentifier = resultSet.getString(11);
+                        validationDataDO.setTokenBindingReference(resultSet.getString(12));
+                        validationDataDO.setAccessTokenIssuedTime(
+                                resultSet.getTimestamp(13, Calendar.getInstance(TimeZone.getTimeZone(UTC))));
+                        validationDataDO.setAccessTokenValidityInMillis(resultSet.getLong(14));
+                        String authenticatedIDP = null;
+                        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                            authenticatedIDP = resultSet.getString(15);
+                        }
+                        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(userName, userDomain, tenantDomain,
+                                authenticatedIDP);
+                        user.setAuthenticatedSubjectIdentifier(subjectIdentifier);
+                        validationDataDO.setAuthorizedUser(user);
 
-                if (iterateId == 0) {
-                    if (isHashDisabled) {
-                        validationDataDO.setAccessToken(getPersistenceProcessor().getPreprocessedAccessTokenIdentifier(
-                                resultSet.getString(1)));
                     } else {
-                        validationDataDO.setAccessToken(resultSet.getString(1));
-                    }
-                    String userName = resultSet.getString(2);
-                    int tenantId = resultSet.getInt(3);
-                    String userDomain = resultSet.getString(4);
-                    String tenantDomain = OAuth2Util.getTenantDomain(tenantId);
-
-                    validationDataDO.setScope(OAuth2Util.buildScopeArray(resultSet.getString(5)));
-                    validationDataDO.setRefreshTokenState(resultSet.getString(6));
-                    validationDataDO.setIssuedTime(
-                            resultSet.getTimestamp(7, Calendar.getInstance(TimeZone.getTimeZone(UTC))));
-                    validationDataDO.setValidityPeriodInMillis(resultSet.getLong(8));
-                    validationDataDO.setTokenId(resultSet.getString(9));
-                    validationDataDO.setGrantType(resultSet.getString(10));
-                    String subjectIdentifier = resultSet.getString(11);
-                    validationDataDO.setTokenBindingReference(resultSet.getString(12));
-                    validationDataDO.setAccessTokenIssuedTime(
-                            resultSet.getTimestamp(13, Calendar.getInstance(TimeZone.getTimeZone(UTC))));
-                    validationDataDO.setAccessTokenValidityInMillis(resultSet.getLong(14));
-                    String authenticatedIDP = null;
-                    if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                        authenticatedIDP = resultSet.getString(15);
+                        scopes.add(resultSet.getString(5));
                     }
-                    AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(userName, userDomain, tenantDomain,
-                            authenticatedIDP);
-                    user.setAuthenticatedSubjectIdentifier(subjectIdentifier);
-                    validationDataDO.setAuthorizedUser(user);
 
-                } else {
-                    scopes.add(resultSet.getString(5));
+                    iterateId++;
                 }
-
-                iterateId++;
             }
 
             if (scopes.size() > 0 && validationDataDO != null) {
@@ -229,61 +247,68 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
 
         try {
             sql = OAuth2Util.getTokenPartitionedSqlByToken(sql, refreshToken);
-            prepStmt = connection.prepareStatement(sql);
-            prepStmt.setString(1, getHashingPersistenceProcessor().getProcessedRefreshToken(refreshToken));
-            resultSet = prepStmt.executeQuery();
-
             int iterateId = 0;
             List<String> scopes = new ArrayList<>();
-            while (resultSet.next()) {
-                if (iterateId == 0) {
-                    String consumerKey = getPersistenceProcessor().getPreprocessedClientId(resultSet.getString(1));
-                    String authorizedUser = resultSet.getString(2);
-                    int tenantId = resultSet.getInt(3);
-                    String tenantDomain = OAuth2Util.getTenantDomain(tenantId);
-                    String userDomain = resultSet.getString(4);
-                    String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(5));
-                    Timestamp accessTokenIssuedTime = resultSet
-                            .getTimestamp(6, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                    Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(7,
-                            Calendar.getInstance(TimeZone.getTimeZone(UTC)));
-                    long validityPeriodInMillis = resultSet.getLong(8);
-                    long refreshTokenValidityPeriodMillis = resultSet.getLong(9);
-                    String tokenType = resultSet.getString(10);
-                    String accessTokenIdentifier = resultSet.getString(11);
-                    String tokenId = resultSet.getString(12);
-                    String grantType = resultSet.getString(13);
-                    String subjectIdentifier = resultSet.getString(14);
-                    String authenticatedIDP = null;
-                    if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
-                        authenticatedIDP = resultSet.getString(15);
-                    }
-
-                    AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authorizedUser, userDomain,
-                            tenantDomain, authenticatedIDP);
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                if (iterateId > 0) {
+                    break;
+                }
+                IdentityDatabaseUtil.closeStatement(prepStmt);
+                prepStmt = connection.prepareStatement(shardedSql);
+                prepStmt.setString(1, getHashingPersistenceProcessor().getProcessedRefreshToken(refreshToken));
+                resultSet = prepStmt.executeQuery();
+
+                while (resultSet.next()) {
+                    if (iterateId == 0) {
+                        String consumerKey = getPersistenceProcessor().getPreprocessedClientId(resultSet.getString(1));
+                        String authorizedUser = resultSet.getString(2);
+                        int tenantId = resultSet.getInt(3);
+                        String tenantDomain = OAuth2Util.getTenantDomain(tenantId);
+                        String userDomain = resultSet.getString(4);
+                        String[] scope = OAuth2Util.buildScopeArray(resultSet.getString(5));
+                        Timestamp accessTokenIssuedTime = resultSet
+                                .getTimestamp(6, Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                        Timestamp refreshTokenIssuedTime = resultSet.getTimestamp(7,
+                                Calendar.getInstance(TimeZone.getTimeZone(UTC)));
+                        long validityPeriodInMillis = resultSet.getLong(8);
+                        long refreshTokenValidityPeriodMillis = resultSet.getLong(9);
+                        String tokenType = resultSet.getString(10);
+                        String accessTokenIdentifier = resultSet.getString(11);
+                        String tokenId = resultSet.getString(12);
+                        String grantType = resultSet.getString(13);
+                        String subjectIdentifier = resultSet.getString(14);
+                        String authenticatedIDP = null;
+                        if (OAuth2ServiceComponentHolder.isIDPIdColumnEnabled()) {
+                            authenticatedIDP = resultSet.getString(15);
+                        }
 
-                    ServiceProvider serviceProvider;
-                    try {
-                        serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
-                                getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2, tenantDomain);
-                    } catch (IdentityApplicationManagementException e) {
-                        throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application data " +
-                                "for client id " + consumerKey, e);
-                    }
+                        AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(authorizedUser, userDomain,
+                                tenantDomain, authenticatedIDP);
+
+                        ServiceProvider serviceProvider;
+                        try {
+                            serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().
+                                    getServiceProviderByClientId(consumerKey, OAuthConstants.Scope.OAUTH2,
+                                            tenantDomain);
+                        } catch (IdentityApplicationManagementException e) {
+                            throw new IdentityOAuth2Exception("Error occurred while retrieving OAuth2 application " +
+                                    "data for client id " + consumerKey, e);
+                        }
 
-                    user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
+                        user.setAuthenticatedSubjectIdentifier(subjectIdentifier, serviceProvider);
 
-                    validationDataDO = new AccessTokenDO(consumerKey, user, scope, accessTokenIssuedTime,
-                            refreshTokenIssuedTime, validityPeriodInMillis, refreshTokenValidityPeriodMillis,
-                            tokenType);
-                    validationDataDO.setAccessToken(accessTokenIdentifier);
-                    validationDataDO.setTokenId(tokenId);
-                    validationDataDO.setGrantType(grantType);
-                    validationDataDO.setTenantID(tenantId);
-                } else {
-                    scopes.add(resultSet.getString(5));
+                        validationDataDO = new AccessTokenDO(consumerKey, user, scope, accessTokenIssuedTime,
+                                refreshTokenIssuedTime, validityPeriodInMillis, refreshTokenValidityPeriodMillis,
+                                tokenType);
+                        validationDataDO.setAccessToken(accessTokenIdentifier);
+                        validationDataDO.setTokenId(tokenId);
+                        validationDataDO.setGrantType(grantType);
+                        validationDataDO.setTenantID(tenantId);
+                    } else {
+                        scopes.add(resultSet.getString(5));
+                    }
+                    iterateId++;
                 }
-                iterateId++;
             }
             if (scopes.size() > 0 && validationDataDO != null) {
                 validationDataDO.setScope((String[]) ArrayUtils.addAll(validationDataDO.getScope(),
@@ -310,34 +335,40 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
         if (log.isDebugEnabled()) {
             log.debug("Retrieving tenant and scope for resource: " + resourceUri);
         }
-        String sql;
-        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
+        try {
+            return DBConnectionRouter.getInstance().executeRead(RoutedDataType.SCOPE, null,
+                    connection -> findTenantAndScopeOfResource(connection, resourceUri));
+        } catch (SQLException e) {
+            String errorMsg = "Error getting scopes for resource - " + resourceUri;
+            throw new IdentityOAuth2Exception(errorMsg, e);
+        }
+    }
 
-            if (connection.getMetaData().getDriverName().contains(Oauth2ScopeConstants.DataBaseType.ORACLE)) {
-                sql = SQLQueries.RETRIEVE_SCOPE_WITH_TENANT_FOR_RESOURCE_ORACLE;
-            } else {
-                sql = SQLQueries.RETRIEVE_SCOPE_WITH_TENANT_FOR_RESOURCE;
-            }
+    private Pair<String, Integer> findTenantAndScopeOfResource(Connection connection, String resourceUri)
+            throws SQLException {
 
-            try (PreparedStatement ps = connection.prepareStatement(sql)) {
-                ps.setString(1, resourceUri);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        String scopeName = rs.getString("NAME");
-                        int tenantId = rs.getInt("TENANT_ID");
-                        if (log.isDebugEnabled()) {
-                            log.debug("Found tenant id: " + tenantId + " and scope: " + scopeName + " for resource: " +
-                                    resourceUri);
-                        }
-                        return Pair.of(scopeName, tenantId);
+        String sql;
+        if (connection.getMetaData().getDriverName().contains(Oauth2ScopeConstants.DataBaseType.ORACLE)) {
+            sql = SQLQueries.RETRIEVE_SCOPE_WITH_TENANT_FOR_RESOURCE_ORACLE;
+        } else {
+            sql = SQLQueries.RETRIEVE_SCOPE_WITH_TENANT_FOR_RESOURCE;
+        }
+
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            ps.setString(1, resourceUri);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next()) {
+                    String scopeName = rs.getString("NAME");
+                    int tenantId = rs.getInt("TENANT_ID");
+                    if (log.isDebugEnabled()) {
+                        log.debug("Found tenant id: " + tenantId + " and scope: " + scopeName + " for resource: " +
+                                resourceUri);
                     }
+                    return Pair.of(scopeName, tenantId);
                 }
             }
-            return null;
-        } catch (SQLException e) {
-            String errorMsg = "Error getting scopes for resource - " + resourceUri;
-            throw new IdentityOAuth2Exception(errorMsg, e);
         }
+        return null;
     }
 
     /**
@@ -605,12 +636,16 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
                         }
                     }
                 } else {
-                    revokeActiveTokensStatement = connection.prepareStatement(SQLQueries.REVOKE_APP_ACCESS_TOKEN);
-                    revokeActiveTokensStatement.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
-                    revokeActiveTokensStatement.setString(2, UUID.randomUUID().toString());
-                    revokeActiveTokensStatement.setString(3, consumerKey);
-                    revokeActiveTokensStatement.setString(4, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
-                    revokeActiveTokensStatement.execute();
+                    for (String sqlQuery : AccessTokenShardRouter.getInstance()
+                            .getAllShardedSqls(SQLQueries.REVOKE_APP_ACCESS_TOKEN)) {
+                        IdentityDatabaseUtil.closeStatement(revokeActiveTokensStatement);
+                        revokeActiveTokensStatement = connection.prepareStatement(sqlQuery);
+                        revokeActiveTokensStatement.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+                        revokeActiveTokensStatement.setString(2, UUID.randomUUID().toString());
+                        revokeActiveTokensStatement.setString(3, consumerKey);
+                        revokeActiveTokensStatement.setString(4, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+                        revokeActiveTokensStatement.execute();
+                    }
                 }
             }
 
@@ -622,6 +657,9 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
             deactivateActiveCodesStatement.executeUpdate();
 
             IdentityDatabaseUtil.commitTransaction(connection);
+            // The client secret is regenerated or the app is revoked, hence the verified secret is no longer valid.
+            VerifiedClientSecretCache.getInstance().clearVerifiedSecret(consumerKey);
+            DBConnectionRouter.getInstance().markWrite(RoutedDataType.OAUTH_APP, consumerKey);
 
         } catch (SQLException e) {
             IdentityDatabaseUtil.rollbackTransaction(connection);
@@ -683,13 +721,16 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
         try {
             String sql = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.REVOKE_SAAS_TOKENS_OF_OTHER_TENANTS,
                     userStoreDomain);
-            ps = connection.prepareStatement(sql);
-            ps.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
-            ps.setString(2, UUID.randomUUID().toString());
-            ps.setString(3, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
-            ps.setString(4, consumerKey);
-            ps.setInt(5, tenantId);
-            ps.executeUpdate();
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                IdentityDatabaseUtil.closeStatement(ps);
+                ps = connection.prepareStatement(shardedSql);
+                ps.setString(1, OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+                ps.setString(2, UUID.randomUUID().toString());
+                ps.setString(3, OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+                ps.setString(4, consumerKey);
+                ps.setInt(5, tenantId);
+                ps.executeUpdate();
+            }
             IdentityDatabaseUtil.commitTransaction(connection);
         } catch (SQLException e) {
             String errorMsg = "Error revoking access tokens for client ID: "
@@ -733,18 +774,21 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
             if (!isUsernameCaseSensitive) {
                 sqlQuery = sqlQuery.replace(AUTHZ_USER, LOWER_AUTHZ_USER);
             }
-            ps = connection.prepareStatement(sqlQuery);
-            if (isUsernameCaseSensitive) {
-                ps.setString(1, tenantAwareUsernameWithNoUserDomain);
-            } else {
-                ps.setString(1, tenantAwareUsernameWithNoUserDomain.toLowerCase());
-            }
-            ps.setInt(2, tenantId);
-            ps.setString(3, userDomain);
-            rs = ps.executeQuery();
-            while (rs.next()) {
-                String consumerKey = getPersistenceProcessor().getPreprocessedClientId(rs.getString(1));
-                distinctConsumerKeys.add(consumerKey);
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sqlQuery)) {
+                IdentityDatabaseUtil.closeStatement(ps);
+                ps = connection.prepareStatement(shardedSql);
+                if (isUsernameCaseSensitive) {
+                    ps.setString(1, tenantAwareUsernameWithNoUserDomain);
+                } else {
+                    ps.setString(1, tenantAwareUsernameWithNoUserDomain.toLowerCase());
+                }
+                ps.setInt(2, tenantId);
+                ps.setString(3, userDomain);
+                rs = ps.executeQuery();
+                while (rs.next()) {
+                    String consumerKey = getPersistenceProcessor().getPreprocessedClientId(rs.getString(1));
+                    distinctConsumerKeys.add(consumerKey);
+                }
             }
         } catch (SQLException e) {
             throw new IdentityOAuth2Exception(
@@ -763,4 +807,195 @@ public class TokenManagementDAOImpl extends AbstractOAuthDAO implements TokenMan
         return distinctConsumerKeys;
     }
 
+    @Override
+    public List<AuthorizedAppDO> getAppsAuthorizedByUser(AuthenticatedUser authzUser, String userStoreDomain,
+                                                         String afterConsumerKey, int limit)
+            throws IdentityOAuth2Exception {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Retrieving " + limit + " apps authorized by user: " + authzUser.toString() +
+                    " after client: " + afterConsumerKey);
+        }
+        if (limit <= 0) {
+            throw new IdentityOAuth2Exception("Limit of apps authorized by user should be a positive number. " +
+                    "Value : " + limit);
+        }
+
+        String tenantAwareUsernameWithNoUserDomain = authzUser.getUserName();
+        String userDomain = OAuth2Util.getUserStoreDomain(authzUser);
+        int tenantId = OAuth2Util.getTenantId(authzUser.getTenantDomain());
+        boolean isUsernameCaseSensitive = IdentityUtil.isUserStoreCaseSensitive(authzUser.getUserStoreDomain(),
+                tenantId);
+        String username = isUsernameCaseSensitive ? tenantAwareUsernameWithNoUserDomain :
+                tenantAwareUsernameWithNoUserDomain.toLowerCase();
+        boolean isIDPIdColumnEnabled = OAuth2ServiceComponentHolder.isIDPIdColumnEnabled();
+
+        String sql = isIDPIdColumnEnabled ? SQLQueries.GET_APPS_AUTHORIZED_BY_USER_IDP_NAME :
+                SQLQueries.GET_APPS_AUTHORIZED_BY_USER;
+        if (afterConsumerKey != null) {
+            sql += SQLQueries.APPS_AUTHORIZED_BY_USER_AFTER_CONSUMER_KEY;
+        }
+        sql += SQLQueries.APPS_AUTHORIZED_BY_USER_ORDER_BY;
+        sql = OAuth2Util.getTokenPartitionedSqlByUserStore(sql,
+                OAuth2Util.getSanitizedUserStoreDomain(userStoreDomain));
+        if (!isUsernameCaseSensitive) {
+            sql = sql.replace(AUTHZ_USER, LOWER_AUTHZ_USER);
+        }
+        // Apps are ordered by the consumer key as stored in the database, hence the cursor is compared in that form.
+        String storedAfterConsumerKey = afterConsumerKey == null ? null :
+                getPersistenceProcessor().getProcessedClientId(afterConsumerKey);
+
+        List<AuthorizedAppBuilder> appBuilders = new ArrayList<>();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                try (PreparedStatement prepStmt = connection.prepareStatement(shardedSql)) {
+                    int parameterIndex = 1;
+                    prepStmt.setString(parameterIndex++, username);
+                    prepStmt.setInt(parameterIndex++, tenantId);
+                    prepStmt.setString(parameterIndex++, userDomain);
+                    if (isIDPIdColumnEnabled) {
+                        prepStmt.setString(parameterIndex++, OAuth2Util.getAuthenticatedIDP(authzUser));
+                    }
+                    prepStmt.setString(parameterIndex++, username);
+                    prepStmt.setInt(parameterIndex++, tenantId);
+                    prepStmt.setString(parameterIndex++, userDomain);
+                    if (storedAfterConsumerKey != null) {
+                        prepStmt.setString(parameterIndex, storedAfterConsumerKey);
+                    }
+                    appBuilders.addAll(readAuthorizedApps(prepStmt, limit));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while retrieving apps authorized by User ID : " +
+                    authzUser, e);
+        }
+        List<AuthorizedAppDO> authorizedApps = new ArrayList<>();
+        for (AuthorizedAppBuilder appBuilder : mergeShardedApps(appBuilders, limit)) {
+            authorizedApps.add(appBuilder.build());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Found " + authorizedApps.size() + " authorized app scope combinations for user: " +
+                    authzUser.toString());
+        }
+        return authorizedApps;
+    }
+
+    private List<AuthorizedAppBuilder> readAuthorizedApps(PreparedStatement prepStmt, int limit)
+            throws SQLException, IdentityOAuth2Exception {
+
+        List<AuthorizedAppBuilder> appBuilders = new ArrayList<>();
+        try (ResultSet resultSet = prepStmt.executeQuery()) {
+            AuthorizedAppBuilder currentApp = null;
+            int appCount = 0;
+            while (resultSet.next()) {
+                String storedConsumerKey = resultSet.getString(1);
+                String tokenId = resultSet.getString(3);
+                String scopeHash = resultSet.getString(4);
+                if (currentApp != null && currentApp.isSameScopeGroup(storedConsumerKey, scopeHash)) {
+                    // Tokens issued at the same instant for the same scopes are not distinguishable by the
+                    // issued time, only the scopes of the first such token are collected.
+                    currentApp.addScope(tokenId, resultSet.getString(6));
+                    continue;
+                }
+                if (currentApp != null) {
+                    appBuilders.add(currentApp);
+                }
+                if (currentApp == null || !currentApp.storedConsumerKey.equals(storedConsumerKey)) {
+                    if (appCount == limit) {
+                        currentApp = null;
+                        break;
+                    }
+                    appCount++;
+                }
+                currentApp = new AuthorizedAppBuilder(storedConsumerKey,
+                        getPersistenceProcessor().getPreprocessedClientId(storedConsumerKey), resultSet.getString(2),
+                        tokenId, scopeHash, resultSet.getTimestamp(5, Calendar.getInstance(TimeZone.getTimeZone(UTC))));
+                currentApp.addScope(tokenId, resultSet.getString(6));
+            }
+            if (currentApp != null) {
+                appBuilders.add(currentApp);
+            }
+        }
+        return appBuilders;
+    }
+
+    /**
+     * Merge the pages of authorized apps read from each access token shard. The same application and scope
+     * combination can have tokens in more than one shard, in which case only the latest one is kept. The merged apps
+     * are ordered by the stored consumer key, as each shard orders them.
+     */
+    private static List<AuthorizedAppBuilder> mergeShardedApps(List<AuthorizedAppBuilder> appBuilders, int limit) {
+
+        if (!AccessTokenShardRouter.getInstance().isEnabled()) {
+            return appBuilders;
+        }
+        Map<String, AuthorizedAppBuilder> latestApps = new HashMap<>();
+        for (AuthorizedAppBuilder appBuilder : appBuilders) {
+            latestApps.merge(appBuilder.storedConsumerKey + ":" + appBuilder.scopeHash, appBuilder,
+                    (existing, candidate) -> candidate.issuedTime.after(existing.issuedTime) ? candidate : existing);
+        }
+        List<AuthorizedAppBuilder> mergedApps = new ArrayList<>(latestApps.values());
+        mergedApps.sort(Comparator.comparing((AuthorizedAppBuilder appBuilder) -> appBuilder.storedConsumerKey)
+                .thenComparing(appBuilder -> StringUtils.defaultString(appBuilder.scopeHash)));
+
+        List<AuthorizedAppBuilder> page = new ArrayList<>();
+        String lastConsumerKey = null;
+        int appCount = 0;
+        for (AuthorizedAppBuilder appBuilder : mergedApps) {
+            if (!appBuilder.storedConsumerKey.equals(lastConsumerKey)) {
+                if (appCount == limit) {
+                    break;
+                }
+                appCount++;
+                lastConsumerKey = appBuilder.storedConsumerKey;
+            }
+            page.add(appBuilder);
+        }
+        return page;
+    }
+
+    /**
+     * Collects the scopes of the latest token of a distinct application and scope combination, which are spread
+     * across multiple rows of the result set.
+     */
+    private static class AuthorizedAppBuilder {
+
+        private final String storedConsumerKey;
+        private final String consumerKey;
+        private final String applicationName;
+        private final String tokenId;
+        private final String scopeHash;
+        private final Timestamp issuedTime;
+        private final List<String> scopes = new ArrayList<>();
+
+        AuthorizedAppBuilder(String storedConsumerKey, String consumerKey, String applicationName, String tokenId,
+                             String scopeHash, Timestamp issuedTime) {
+
+            this.storedConsumerKey = storedConsumerKey;
+            this.consumerKey = consumerKey;
+            this.applicationName = applicationName;
+            this.tokenId = tokenId;
+            this.scopeHash = scopeHash;
+            this.issuedTime = issuedTime;
+        }
+
+        boolean isSameScopeGroup(String storedConsumerKey, String scopeHash) {
+
+            return this.storedConsumerKey.equals(storedConsumerKey) && StringUtils.equals(this.scopeHash, scopeHash);
+        }
+
+        void addScope(String tokenId, String scope) {
+
+            if (this.tokenId.equals(tokenId) && scope != null) {
+                scopes.add(scope);
+            }
+        }
+
+        AuthorizedAppDO build() {
+
+            return new AuthorizedAppDO(consumerKey, applicationName, scopes.toArray(new String[0]), tokenId,
+                    issuedTime);
+        }
+    }
+
 }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.TokenRevocationJobDO;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Data access layer of token revocation jobs. Besides persisting the state of the jobs, this revokes the tokens
+ * targeted by a job in chunks using set based updates.
+ */
+public interface TokenRevocationJobDAO {
+
+    /**
+     * Persist a new token revocation job.
+     *
+     * @param job Token revocation job.
+     * @throws IdentityOAuth2Exception If an error occurs while persisting the job.
+     */
+    void addJob(TokenRevocationJobDO job) throws IdentityOAuth2Exception;
+
+    /**
+     * Claim a job for processing. A job can be claimed if it is pending, or if it is running but has not made any
+     * progress since the given time, which happens when the node processing it went down.
+     *
+     * @param jobId       Job id.
+     * @param staleBefore Running jobs last updated before this time are considered abandoned.
+     * @return true if the job was claimed by the caller.
+     * @throws IdentityOAuth2Exception If an error occurs while claiming the job.
+     */
+    boolean claimJob(String jobId, Timestamp staleBefore) throws IdentityOAuth2Exception;
+
+    /**
+     * Update the state and the progress of a job.
+     *
+     * @param jobId             Job id.
+     * @param status            Job status.
+     * @param revokedTokenCount Number of tokens revoked by the job so far.
+     * @param errorMessage      Error message if the job failed.
+     * @throws IdentityOAuth2Exception If an error occurs while updating the job.
+     */
+    void updateJob(String jobId, TokenRevocationJobDO.Status status, int revokedTokenCount, String errorMessage)
+            throws IdentityOAuth2Exception;
+
+    /**
+     * Get a token revocation job of a tenant.
+     *
+     * @param jobId    Job id.
+     * @param tenantId Tenant id.
+     * @return Token revocation job, or null if there is no such job.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the job.
+     */
+    TokenRevocationJobDO getJob(String jobId, int tenantId) throws IdentityOAuth2Exception;
+
+    /**
+     * Get the jobs that are either pending or running.
+     *
+     * @return Incomplete token revocation jobs.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the jobs.
+     */
+    List<TokenRevocationJobDO> getIncompleteJobs() throws IdentityOAuth2Exception;
+
+    /**
+     * Get a chunk of the active tokens targeted by a job from the token partition of the given user store. The
+     * returned tokens carry the data required to clear them from the caches.
+     *
+     * @param job             Token revocation job.
+     * @param userStoreDomain User store domain used to resolve the token partition.
+     * @param limit           Maximum number of tokens to return.
+     * @return Active tokens targeted by the job.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the tokens.
+     */
+    List<AccessTokenDO> getActiveTokensToRevoke(TokenRevocationJobDO job, String userStoreDomain, int limit)
+            throws IdentityOAuth2Exception;
+
+    /**
+     * Revoke the given tokens, if they are still active, with a single update per token partition. All partitions
+     * are updated within one transaction.
+     *
+     * @param tokenIds        Ids of the tokens to revoke.
+     * @param userStoreDomain User store domain used to resolve the token partition.
+     * @return Ids of the tokens revoked by this call. Tokens which were no longer active are left out.
+     * @throws IdentityOAuth2Exception If an error occurs while revoking the tokens.
+     */
+    List<String> revokeTokens(List<String> tokenIds, String userStoreDomain) throws IdentityOAuth2Exception;
+}
@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.sharding.AccessTokenShardRouter;
+import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.TokenRevocationJobDO;
+import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * JDBC based implementation of {@link TokenRevocationJobDAO}.
+ */
+public class TokenRevocationJobDAOImpl extends AbstractOAuthDAO implements TokenRevocationJobDAO {
+
+    private static final Log log = LogFactory.getLog(TokenRevocationJobDAOImpl.class);
+
+    private static final String UTC = "UTC";
+
+    @Override
+    public void addJob(TokenRevocationJobDO job) throws IdentityOAuth2Exception {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Adding token revocation job: " + job.getJobId() + " for client: " + job.getConsumerKey() +
+                    " user: " + job.getAuthzUser());
+        }
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true);
+             PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.INSERT_TOKEN_REVOCATION_JOB)) {
+            prepStmt.setString(1, job.getJobId());
+            prepStmt.setInt(2, job.getTenantId());
+            prepStmt.setString(3, job.getType().name());
+            prepStmt.setString(4, job.getConsumerKey() == null ? null :
+                    getPersistenceProcessor().getProcessedClientId(job.getConsumerKey()));
+            prepStmt.setString(5, job.getAuthzUser());
+            prepStmt.setString(6, job.getUserDomain());
+            prepStmt.setString(7, job.getTokenBindingReference());
+            prepStmt.setString(8, job.getStatus().name());
+            prepStmt.setInt(9, job.getRevokedTokenCount());
+            prepStmt.setTimestamp(10, job.getTimeCreated(), getUTCCalendar());
+            prepStmt.setTimestamp(11, job.getLastUpdated(), getUTCCalendar());
+            prepStmt.executeUpdate();
+            IdentityDatabaseUtil.commitTransaction(connection);
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while adding token revocation job: " + job.getJobId(), e);
+        }
+    }
+
+    @Override
+    public boolean claimJob(String jobId, Timestamp staleBefore) throws IdentityOAuth2Exception {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true);
+             PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.CLAIM_TOKEN_REVOCATION_JOB)) {
+            prepStmt.setTimestamp(1, new Timestamp(System.currentTimeMillis()), getUTCCalendar());
+            prepStmt.setString(2, jobId);
+            prepStmt.setTimestamp(3, staleBefore, getUTCCalendar());
+            boolean claimed = prepStmt.executeUpdate() > 0;
+            IdentityDatabaseUtil.commitTransaction(connection);
+            return claimed;
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while claiming token revocation job: " + jobId, e);
+        }
+    }
+
+    @Override
+    public void updateJob(String jobId, TokenRevocationJobDO.Status status, int revokedTokenCount,
+                          String errorMessage) throws IdentityOAuth2Exception {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true);
+             PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.UPDATE_TOKEN_REVOCATION_JOB)) {
+            prepStmt.setString(1, status.name());
+            prepStmt.setInt(2, revokedTokenCount);
+            prepStmt.setString(3, StringUtils.abbreviate(errorMessage, 1024));
+            prepStmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()), getUTCCalendar());
+            prepStmt.setString(5, jobId);
+            prepStmt.executeUpdate();
+            IdentityDatabaseUtil.commitTransaction(connection);
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while updating token revocation job: " + jobId, e);
+        }
+    }
+
+    @Override
+    public TokenRevocationJobDO getJob(String jobId, int tenantId) throws IdentityOAuth2Exception {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.RETRIEVE_TOKEN_REVOCATION_JOB)) {
+            prepStmt.setString(1, jobId);
+            prepStmt.setInt(2, tenantId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                if (resultSet.next()) {
+                    return buildJob(resultSet);
+                }
+                return null;
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while retrieving token revocation job: " + jobId, e);
+        }
+    }
+
+    @Override
+    public List<TokenRevocationJobDO> getIncompleteJobs() throws IdentityOAuth2Exception {
+
+        List<TokenRevocationJobDO> jobs = new ArrayList<>();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt =
+                     connection.prepareStatement(SQLQueries.RETRIEVE_INCOMPLETE_TOKEN_REVOCATION_JOBS);
+             ResultSet resultSet = prepStmt.executeQuery()) {
+            while (resultSet.next()) {
+                jobs.add(buildJob(resultSet));
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while retrieving incomplete token revocation jobs.", e);
+        }
+        return jobs;
+    }
+
+    @Override
+    public List<AccessTokenDO> getActiveTokensToRevoke(TokenRevocationJobDO job, String userStoreDomain, int limit)
+            throws IdentityOAuth2Exception {
+
+        boolean isIDPIdColumnEnabled = OAuth2ServiceComponentHolder.isIDPIdColumnEnabled();
+        String sql = isIDPIdColumnEnabled ? SQLQueries.RETRIEVE_ACTIVE_TOKENS_TO_REVOKE_IDP_NAME :
+                SQLQueries.RETRIEVE_ACTIVE_TOKENS_TO_REVOKE;
+        boolean isUsernameCaseSensitive = true;
+        if (job.getConsumerKey() != null) {
+            sql += SQLQueries.ACTIVE_TOKENS_TO_REVOKE_BY_CONSUMER_KEY;
+        }
+        if (job.getAuthzUser() != null) {
+            isUsernameCaseSensitive = IdentityUtil.isUserStoreCaseSensitive(job.getUserDomain(), job.getTenantId());
+            String userCondition = SQLQueries.ACTIVE_TOKENS_TO_REVOKE_BY_USER;
+            if (!isUsernameCaseSensitive) {
+                userCondition = userCondition.replace(AUTHZ_USER, LOWER_AUTHZ_USER);
+            }
+            sql += userCondition;
+        }
+        if (job.getTokenBindingReference() != null) {
+            sql += SQLQueries.ACTIVE_TOKENS_TO_REVOKE_BY_BINDING_REF;
+        }
+        sql = OAuth2Util.getTokenPartitionedSqlByUserStore(sql, userStoreDomain);
+
+        Map<String, AccessTokenDO> tokens = new LinkedHashMap<>();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false)) {
+            for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+                if (tokens.size() >= limit) {
+                    break;
+                }
+                try (PreparedStatement prepStmt = connection.prepareStatement(shardedSql)) {
+                    int parameterIndex = 1;
+                    if (job.getConsumerKey() != null) {
+                        prepStmt.setString(parameterIndex++,
+                                getPersistenceProcessor().getProcessedClientId(job.getConsumerKey()));
+                    }
+                    if (job.getAuthzUser() != null) {
+                        prepStmt.setString(parameterIndex++, isUsernameCaseSensitive ? job.getAuthzUser() :
+                                job.getAuthzUser().toLowerCase());
+                        prepStmt.setInt(parameterIndex++, job.getTenantId());
+                        prepStmt.setString(parameterIndex++, job.getUserDomain());
+                    }
+                    if (job.getTokenBindingReference() != null) {
+                        prepStmt.setString(parameterIndex, job.getTokenBindingReference());
+                    }
+                    prepStmt.setMaxRows(limit - tokens.size());
+                    try (ResultSet resultSet = prepStmt.executeQuery()) {
+                        while (resultSet.next()) {
+                            String tokenId = resultSet.getString(1);
+                            String tenantDomain = OAuth2Util.getTenantDomain(resultSet.getInt(4));
+                            AuthenticatedUser user = OAuth2Util.createAuthenticatedUser(resultSet.getString(3),
+                                    resultSet.getString(5), tenantDomain,
+                                    isIDPIdColumnEnabled ? resultSet.getString(9) : null);
+                            user.setAuthenticatedSubjectIdentifier(resultSet.getString(8));
+
+                            AccessTokenDO accessTokenDO = new AccessTokenDO();
+                            accessTokenDO.setTokenId(tokenId);
+                            accessTokenDO.setAccessToken(getPersistenceProcessor()
+                                    .getPreprocessedAccessTokenIdentifier(resultSet.getString(2)));
+                            accessTokenDO.setAuthzUser(user);
+                            accessTokenDO.setTenantID(resultSet.getInt(4));
+                            accessTokenDO.setConsumerKey(getPersistenceProcessor()
+                                    .getPreprocessedClientId(resultSet.getString(7)));
+                            TokenBinding tokenBinding = new TokenBinding();
+                            tokenBinding.setBindingReference(resultSet.getString(6));
+                            accessTokenDO.setTokenBinding(tokenBinding);
+                            accessTokenDO.setScope(new String[0]);
+                            tokens.put(tokenId, accessTokenDO);
+                        }
+                    }
+                }
+            }
+            if (!tokens.isEmpty()) {
+                setScopes(connection, tokens, userStoreDomain);
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while retrieving active tokens of token revocation job: " +
+                    job.getJobId(), e);
+        }
+        return new ArrayList<>(tokens.values());
+    }
+
+    @Override
+    public List<String> revokeTokens(List<String> tokenIds, String userStoreDomain) throws IdentityOAuth2Exception {
+
+        if (tokenIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String placeholders = buildPlaceholders(tokenIds.size());
+        String revokeSql = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.REVOKE_ACTIVE_TOKENS_BY_TOKEN_ID
+                .replace(SQLQueries.TOKEN_ID_LIST_PLACEHOLDER, placeholders), userStoreDomain);
+        String revokedSql = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.RETRIEVE_TOKENS_REVOKED_BY_JOB
+                .replace(SQLQueries.TOKEN_ID_LIST_PLACEHOLDER, placeholders), userStoreDomain);
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try {
+                int revokedTokenCount = 0;
+                for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(revokeSql)) {
+                    try (PreparedStatement prepStmt = connection.prepareStatement(shardedSql)) {
+                        setTokenIds(prepStmt, tokenIds);
+                        revokedTokenCount += prepStmt.executeUpdate();
+                    }
+                }
+                // The update sets the token id as the token state id. Tokens of the chunk revoked in the meantime
+                // by an explicit revocation keep their own state id and are not reported, while a bulk revocation
+                // of the same token at the same time may be.
+                List<String> revokedTokenIds = new ArrayList<>(revokedTokenCount);
+                if (revokedTokenCount > 0) {
+                    for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(revokedSql)) {
+                        try (PreparedStatement prepStmt = connection.prepareStatement(shardedSql)) {
+                            setTokenIds(prepStmt, tokenIds);
+                            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                                while (resultSet.next()) {
+                                    revokedTokenIds.add(resultSet.getString(1));
+                                }
+                            }
+                        }
+                    }
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+                return revokedTokenIds;
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while revoking " + tokenIds.size() + " tokens.", e);
+        }
+    }
+
+    private void setTokenIds(PreparedStatement prepStmt, List<String> tokenIds) throws SQLException {
+
+        for (int i = 0; i < tokenIds.size(); i++) {
+            prepStmt.setString(i + 1, tokenIds.get(i));
+        }
+    }
+
+    private void setScopes(Connection connection, Map<String, AccessTokenDO> tokens, String userStoreDomain)
+            throws SQLException, IdentityOAuth2Exception {
+
+        String sql = OAuth2Util.getTokenPartitionedSqlByUserStore(SQLQueries.RETRIEVE_SCOPES_OF_TOKENS_TO_REVOKE
+                .replace(SQLQueries.TOKEN_ID_LIST_PLACEHOLDER, buildPlaceholders(tokens.size())), userStoreDomain);
+        Map<String, List<String>> scopes = new HashMap<>();
+        for (String shardedSql : AccessTokenShardRouter.getInstance().getAllShardedSqls(sql)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(shardedSql)) {
+                int parameterIndex = 1;
+                for (String tokenId : tokens.keySet()) {
+                    prepStmt.setString(parameterIndex++, tokenId);
+                }
+                try (ResultSet resultSet = prepStmt.executeQuery()) {
+                    while (resultSet.next()) {
+                        scopes.computeIfAbsent(resultSet.getString(1), tokenId -> new ArrayList<>())
+                                .add(resultSet.getString(2));
+                    }
+                }
+            }
+        }
+        for (Map.Entry<String, List<String>> tokenScopes : scopes.entrySet()) {
+            AccessTokenDO accessTokenDO = tokens.get(tokenScopes.getKey());
+            if (accessTokenDO != null) {
+                accessTokenDO.setScope(tokenScopes.getValue().toArray(new String[0]));
+            }
+        }
+    }
+
+    private TokenRevocationJobDO buildJob(ResultSet resultSet) throws SQLException, IdentityOAuth2Exception {
+
+        TokenRevocationJobDO job = new TokenRevocationJobDO();
+        job.setJobId(resultSet.getString(1));
+        job.setTenantId(resultSet.getInt(2));
+        job.setType(TokenRevocationJobDO.Type.valueOf(resultSet.getString(3)));
+        String consumerKey = resultSet.getString(4);
+        job.setConsumerKey(consumerKey == null ? null : getPersistenceProcessor().getPreprocessedClientId(consumerKey));
+        job.setAuthzUser(resultSet.getString(5));
+        job.setUserDomain(resultSet.getString(6));
+        job.setTokenBindingReference(resultSet.getString(7));
+        job.setStatus(TokenRevocationJobDO.Status.valueOf(resultSet.getString(8)));
+        job.setRevokedTokenCount(resultSet.getInt(9));
+        job.setErrorMessage(resultSet.getString(10));
+        job.setTimeCreated(resultSet.getTimestamp(11, getUTCCalendar()));
+        job.setLastUpdated(resultSet.getTimestamp(12, getUTCCalendar()));
+        return job;
+    }
+
+    private static String buildPlaceholders(int count) {
+
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Calendar getUTCCalendar() {
+
+        return Calendar.getInstance(TimeZone.getTimeZone(UTC));
+    }
+}
@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao.routing;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+
+import static org.wso2.carbon.identity.oauth2.util.OAuth2ConfigUtil.readConfigValue;
+
+/**
+ * Routes the read operations of the OAuth DAOs either to the primary identity database or to a read replica.
+ * <p>
+ * Reads are sent to the replica configured with {@code OAuth.ReadReplica.DataSource} (JNDI name) unless the data has
+ * been written on this node within the read-your-writes window. Writes are recorded against a routing key (e.g. the
+ * consumer key of an application) or, when the affected rows are not known by key, against the whole data type. A
+ * read that finds nothing on the replica, or fails on it, is retried on the primary database, so data which has not
+ * yet been replicated is still found.
+ * <p>
+ * The window should be larger than the replication lag of the replica. Writes done on another node of a cluster are
+ * not tracked, therefore only reads which tolerate that lag should be routed.
+ */
+public class DBConnectionRouter {
+
+    private static final Log log = LogFactory.getLog(DBConnectionRouter.class);
+
+    private static final String READ_REPLICA_ENABLE = "OAuth.ReadReplica.Enable";
+    private static final String READ_REPLICA_DATA_SOURCE = "OAuth.ReadReplica.DataSource";
+    private static final String READ_YOUR_WRITES_WINDOW = "OAuth.ReadReplica.ReadYourWritesWindow";
+    private static final String MAX_TRACKED_WRITES = "OAuth.ReadReplica.MaxTrackedWrites";
+
+    private static final long DEFAULT_READ_YOUR_WRITES_WINDOW_IN_MILLIS = 2000;
+    private static final int DEFAULT_MAX_TRACKED_WRITES = 10000;
+    private static final String KEY_SEPARATOR = ":";
+
+    private static volatile DBConnectionRouter instance;
+
+    private final DataSource replicaDataSource;
+    private final long readYourWritesWindowInNanos;
+    private final int maxTrackedWrites;
+    private final ConcurrentMap<String, Long> lastWriteTimes = new ConcurrentHashMap<>();
+    private final JMXDBConnectionRoutingMetrics metrics = new JMXDBConnectionRoutingMetrics();
+
+    /**
+     * Database a read is executed on.
+     */
+    enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    /**
+     * Reason for retrying a replica read on the primary database.
+     */
+    enum FallbackReason {
+        MISS,
+        ERROR
+    }
+
+    DBConnectionRouter(DataSource replicaDataSource, long readYourWritesWindowInMillis, int maxTrackedWrites) {
+
+        this.replicaDataSource = replicaDataSource;
+        this.readYourWritesWindowInNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesWindowInMillis);
+        this.maxTrackedWrites = maxTrackedWrites;
+    }
+
+    public static DBConnectionRouter getInstance() {
+
+        if (instance == null) {
+            synchronized (DBConnectionRouter.class) {
+                if (instance == null) {
+                    DataSource replicaDataSource = null;
+                    if (Boolean.parseBoolean(IdentityUtil.getProperty(READ_REPLICA_ENABLE))) {
+                        replicaDataSource = lookupReplicaDataSource();
+                    }
+                    DBConnectionRouter router = new DBConnectionRouter(replicaDataSource,
+                            readConfigValue(READ_YOUR_WRITES_WINDOW, DEFAULT_READ_YOUR_WRITES_WINDOW_IN_MILLIS),
+                            readConfigValue(MAX_TRACKED_WRITES, DEFAULT_MAX_TRACKED_WRITES));
+                    if (router.isReplicaEnabled()) {
+                        router.metrics.register();
+                    }
+                    instance = router;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether reads are routed to a read replica.
+     *
+     * @return true if a read replica is configured and available.
+     */
+    public boolean isReplicaEnabled() {
+
+        return replicaDataSource != null;
+    }
+
+    /**
+     * Execute a read operation on the read replica when possible, otherwise on the primary database. The read is
+     * retried on the primary database if the replica returns no result or fails.
+     *
+     * @param dataType   Type of the data read by the operation.
+     * @param routingKey Key identifying the data read by the operation. Can be null.
+     * @param operation  Read operation.
+     * @param <T>        Type of the result.
+     * @param <E>        Type of the checked exception thrown by the operation.
+     * @return Result of the read operation.
+     * @throws SQLException If the read fails on the primary database.
+     * @throws E            If the read operation fails.
+     */
+    public <T, E extends Exception> T executeRead(RoutedDataType dataType, String routingKey,
+                                                  RoutedReadOperation<T, E> operation) throws SQLException, E {
+
+        if (!isReplicaEnabled()) {
+            return executeOnPrimary(operation);
+        }
+        if (isRecentlyWritten(dataType, routingKey)) {
+            metrics.countReadYourWrites(dataType);
+        } else {
+            try (Connection connection = replicaDataSource.getConnection()) {
+                metrics.countRead(Route.REPLICA, dataType);
+                T result = operation.execute(connection);
+                if (result != null) {
+                    return result;
+                }
+                metrics.countFallback(dataType, FallbackReason.MISS);
+            } catch (Exception e) {
+                // Any failure on the replica, e.g. a schema not yet migrated there, is retried on the primary.
+                log.warn("Error while reading " + dataType + " data from the read replica. Retrying on the " +
+                        "primary database.", e);
+                metrics.countFallback(dataType, FallbackReason.ERROR);
+            }
+        }
+        metrics.countRead(Route.PRIMARY, dataType);
+        return executeOnPrimary(operation);
+    }
+
+    /**
+     * Record a write so that the reads of the written data are served by the primary database until the
+     * read-your-writes window elapses.
+     *
+     * @param dataType   Type of the written data.
+     * @param routingKey Key identifying the written data, or null if any data of the given type could be affected.
+     */
+    public void markWrite(RoutedDataType dataType, String routingKey) {
+
+        if (!isReplicaEnabled()) {
+            return;
+        }
+        metrics.countWrite(dataType);
+        long now = System.nanoTime();
+        if (routingKey != null && lastWriteTimes.size() >= maxTrackedWrites) {
+            removeExpiredWrites(now);
+            if (lastWriteTimes.size() >= maxTrackedWrites) {
+                // Too many individual writes to track. Pin every read of the data type instead.
+                routingKey = null;
+            }
+        }
+        lastWriteTimes.put(buildKey(dataType, routingKey), now);
+    }
+
+    /**
+     * Get the routing metrics.
+     *
+     * @return Routing metrics.
+     */
+    public DBConnectionRoutingMetricsMXBean getMetrics() {
+
+        return metrics;
+    }
+
+    /**
+     * Get a connection to the primary database for a read.
+     *
+     * @return Database connection.
+     * @throws SQLException If the connection cannot be obtained.
+     */
+    Connection getPrimaryConnection() throws SQLException {
+
+        return IdentityDatabaseUtil.getDBConnection(false);
+    }
+
+    private <T, E extends Exception> T executeOnPrimary(RoutedReadOperation<T, E> operation)
+            throws SQLException, E {
+
+        try (Connection connection = getPrimaryConnection()) {
+            return operation.execute(connection);
+        }
+    }
+
+    private boolean isRecentlyWritten(RoutedDataType dataType, String routingKey) {
+
+        long now = System.nanoTime();
+        return isWithinWindow(buildKey(dataType, null), now) ||
+                (routingKey != null && isWithinWindow(buildKey(dataType, routingKey), now));
+    }
+
+    private boolean isWithinWindow(String key, long now) {
+
+        Long lastWriteTime = lastWriteTimes.get(key);
+        if (lastWriteTime == null) {
+            return false;
+        }
+        if (now - lastWriteTime < readYourWritesWindowInNanos) {
+            return true;
+        }
+        lastWriteTimes.remove(key, lastWriteTime);
+        return false;
+    }
+
+    private void removeExpiredWrites(long now) {
+
+        lastWriteTimes.values().removeIf(lastWriteTime -> now - lastWriteTime >= readYourWritesWindowInNanos);
+    }
+
+    private static String buildKey(RoutedDataType dataType, String routingKey) {
+
+        return routingKey == null ? dataType.name() : dataType.name() + KEY_SEPARATOR + routingKey;
+    }
+
+    private static DataSource lookupReplicaDataSource() {
+
+        String dataSourceName = IdentityUtil.getProperty(READ_REPLICA_DATA_SOURCE);
+        if (StringUtils.isBlank(dataSourceName)) {
+            log.error("Read replica routing is enabled but " + READ_REPLICA_DATA_SOURCE + " is not configured. " +
+                    "All reads will be served by the primary database.");
+            return null;
+        }
+        try {
+            DataSource dataSource = (DataSource) new InitialContext().lookup(dataSourceName.trim());
+            if (log.isDebugEnabled()) {
+                log.debug("Routing the tolerant OAuth reads to the read replica: " + dataSourceName);
+            }
+            return dataSource;
+        } catch (NamingException | ClassCastException e) {
+            log.error("Error while looking up the read replica data source: " + dataSourceName + ". All reads " +
+                    "will be served by the primary database.", e);
+            return null;
+        }
+    }
+}
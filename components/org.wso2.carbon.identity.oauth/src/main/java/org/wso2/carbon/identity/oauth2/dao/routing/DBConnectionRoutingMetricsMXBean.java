@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao.routing;
+
+import java.util.Map;
+
+/**
+ * JMX view of the database connection routing. Read counts are keyed by route and data type
+ * ({@code <route>.<data type>}), fallback counts by data type and reason ({@code <data type>.<reason>}) and the
+ * remaining counts by data type.
+ */
+public interface DBConnectionRoutingMetricsMXBean {
+
+    Map<String, Long> getReadCount();
+
+    Map<String, Long> getFallbackCount();
+
+    Map<String, Long> getReadYourWritesCount();
+
+    Map<String, Long> getWriteCount();
+
+    /**
+     * Reset all the collected metrics.
+     */
+    void reset();
+}
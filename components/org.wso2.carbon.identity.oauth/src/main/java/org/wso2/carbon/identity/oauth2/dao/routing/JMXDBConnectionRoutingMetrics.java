@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao.routing;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Aggregates the database connection routing metrics in memory and exposes them over JMX.
+ */
+class JMXDBConnectionRoutingMetrics implements DBConnectionRoutingMetricsMXBean {
+
+    private static final Log log = LogFactory.getLog(JMXDBConnectionRoutingMetrics.class);
+    private static final String OBJECT_NAME = "org.wso2.carbon.identity.oauth2:type=DBConnectionRoutingMetrics";
+    private static final String KEY_SEPARATOR = ".";
+
+    private final ConcurrentMap<String, LongAdder> reads = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> fallbacks = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> readYourWrites = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> writes = new ConcurrentHashMap<>();
+
+    /**
+     * Register the metrics in the platform MBean server.
+     *
+     * @return true if the MBean was registered.
+     */
+    boolean register() {
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(this, objectName);
+            return true;
+        } catch (JMException e) {
+            log.error("Error while registering the database connection routing metrics MBean: " + OBJECT_NAME, e);
+            return false;
+        }
+    }
+
+    void countRead(DBConnectionRouter.Route route, RoutedDataType dataType) {
+
+        increment(reads, route.name() + KEY_SEPARATOR + dataType.name());
+    }
+
+    void countFallback(RoutedDataType dataType, DBConnectionRouter.FallbackReason reason) {
+
+        increment(fallbacks, dataType.name() + KEY_SEPARATOR + reason.name());
+    }
+
+    void countReadYourWrites(RoutedDataType dataType) {
+
+        increment(readYourWrites, dataType.name());
+    }
+
+    void countWrite(RoutedDataType dataType) {
+
+        increment(writes, dataType.name());
+    }
+
+    @Override
+    public Map<String, Long> getReadCount() {
+
+        return toLongMap(reads);
+    }
+
+    @Override
+    public Map<String, Long> getFallbackCount() {
+
+        return toLongMap(fallbacks);
+    }
+
+    @Override
+    public Map<String, Long> getReadYourWritesCount() {
+
+        return toLongMap(readYourWrites);
+    }
+
+    @Override
+    public Map<String, Long> getWriteCount() {
+
+        return toLongMap(writes);
+    }
+
+    @Override
+    public void reset() {
+
+        reads.clear();
+        fallbacks.clear();
+        readYourWrites.clear();
+        writes.clear();
+    }
+
+    private static void increment(ConcurrentMap<String, LongAdder> counters, String key) {
+
+        counters.computeIfAbsent(key, k -> new LongAdder()).increment();
+    }
+
+    private static Map<String, Long> toLongMap(Map<String, LongAdder> source) {
+
+        Map<String, Long> values = new TreeMap<>();
+        source.forEach((key, value) -> values.put(key, value.sum()));
+        return values;
+    }
+}
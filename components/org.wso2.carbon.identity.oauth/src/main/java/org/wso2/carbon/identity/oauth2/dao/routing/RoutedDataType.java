@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao.routing;
+
+/**
+ * Kind of data read through the {@link DBConnectionRouter}. Writes are tracked per data type so that a write to one
+ * kind of data does not pin the reads of the others to the primary database.
+ * <p>
+ * Access tokens are not routed. Their state decides the outcome of token validation and introspection, hence it is
+ * always read from the primary database.
+ */
+public enum RoutedDataType {
+
+    OAUTH_APP,
+    SCOPE
+}
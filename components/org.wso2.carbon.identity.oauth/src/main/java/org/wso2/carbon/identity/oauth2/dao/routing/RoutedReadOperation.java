@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao.routing;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Read operation executed by the {@link DBConnectionRouter} on the connection selected for it. The operation must not
+ * close the given connection and should return null when the requested data is not found, so that the read can be
+ * retried on the primary database.
+ *
+ * @param <T> Type of the result.
+ * @param <E> Type of the checked exception thrown by the operation.
+ */
+@FunctionalInterface
+public interface RoutedReadOperation<T, E extends Exception> {
+
+    T execute(Connection connection) throws SQLException, E;
+}
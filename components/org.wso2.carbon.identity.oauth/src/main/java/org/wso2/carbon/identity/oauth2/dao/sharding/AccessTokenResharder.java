@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao.sharding;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.SQLQueries;
+import org.wso2.carbon.identity.oauth2.util.PartitionedSqlTemplateRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Moves the access tokens into the shards of the current shard count after the shard count is changed.
+ * <p>
+ * All the tables of the current and the previous shard count are scanned in token id order, and each token which
+ * belongs to another shard is copied to that shard along with its scopes and then deleted from its current table, in
+ * a transaction per batch. A token which is modified while it is being moved is left in place and is moved by the
+ * next run. Since the tokens are looked up in all the shards of the current and the previous shard count, the tool can
+ * be run while the server is serving requests. Foreign keys referencing IDN_OAUTH2_ACCESS_TOKEN (e.g. of the token
+ * binding table) must not cascade deletes, as is already required to store tokens in the shard tables.
+ * <p>
+ * The tool is registered over JMX while resharding. Once a run completes without skipped tokens, the
+ * {@code OAuth.TokenSharding.PreviousShardCount} property can be removed.
+ */
+public class AccessTokenResharder implements AccessTokenResharderMXBean {
+
+    private static final Log log = LogFactory.getLog(AccessTokenResharder.class);
+    private static final String OBJECT_NAME = "org.wso2.carbon.identity.oauth2:type=AccessTokenResharder";
+    private static final String INITIAL_TOKEN_ID = "";
+
+    private final AccessTokenShardRouter shardRouter;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong movedTokenCount = new AtomicLong();
+    private final AtomicLong skippedTokenCount = new AtomicLong();
+
+    AccessTokenResharder(AccessTokenShardRouter shardRouter) {
+
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Register the resharding tool in the platform MBean server.
+     *
+     * @return true if the MBean was registered.
+     */
+    boolean register() {
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(this, objectName);
+            return true;
+        } catch (JMException e) {
+            log.error("Error while registering the access token resharding MBean: " + OBJECT_NAME, e);
+            return false;
+        }
+    }
+
+    @Override
+    public long reshard(int batchSize) {
+
+        try {
+            return moveTokens(batchSize);
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while resharding the access tokens.", e);
+            // The exception class is not available to the JMX clients.
+            throw new IllegalStateException(e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+
+        return running.get();
+    }
+
+    @Override
+    public long getMovedTokenCount() {
+
+        return movedTokenCount.get();
+    }
+
+    @Override
+    public long getSkippedTokenCount() {
+
+        return skippedTokenCount.get();
+    }
+
+    /**
+     * Move the access tokens which are not stored in the shard of the current shard count.
+     *
+     * @param batchSize Number of tokens read and moved in a single transaction.
+     * @return Number of tokens moved.
+     * @throws IdentityOAuth2Exception If a batch of tokens cannot be moved.
+     */
+    public long moveTokens(int batchSize) throws IdentityOAuth2Exception {
+
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size should be a positive number. Value : " + batchSize);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Access tokens are already being resharded.");
+        }
+        try {
+            movedTokenCount.set(0);
+            skippedTokenCount.set(0);
+            log.info("Resharding the access tokens from " + shardRouter.getPreviousShardCount() + " to " +
+                    shardRouter.getShardCount() + " shards.");
+            for (int shard : shardRouter.getAllShards()) {
+                moveTokensOfShard(shard, batchSize);
+            }
+            log.info("Resharding completed. Moved tokens: " + movedTokenCount.get() + ", skipped tokens: " +
+                    skippedTokenCount.get());
+            return movedTokenCount.get();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private void moveTokensOfShard(int shard, int batchSize) throws IdentityOAuth2Exception {
+
+        String lastTokenId = INITIAL_TOKEN_ID;
+        while (true) {
+            List<TokenRow> tokenRows = listTokens(shard, lastTokenId, batchSize);
+            if (tokenRows.isEmpty()) {
+                return;
+            }
+            lastTokenId = tokenRows.get(tokenRows.size() - 1).tokenId;
+
+            Map<Integer, List<TokenRow>> tokensByTargetShard = new HashMap<>();
+            for (TokenRow tokenRow : tokenRows) {
+                int targetShard = shardRouter.getShard(tokenRow.clientId, tokenRow.authorizedUser, tokenRow.tenantId);
+                if (targetShard != shard) {
+                    tokensByTargetShard.computeIfAbsent(targetShard, key -> new ArrayList<>()).add(tokenRow);
+                }
+            }
+            for (Map.Entry<Integer, List<TokenRow>> entry : tokensByTargetShard.entrySet()) {
+                moveTokens(shard, entry.getKey(), entry.getValue());
+            }
+            if (log.isDebugEnabled()) {
+                log.debug("Processed " + tokenRows.size() + " tokens of shard: " + shard + " up to token id: " +
+                        lastTokenId + ". Moved tokens so far: " + movedTokenCount.get());
+            }
+            if (tokenRows.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    private List<TokenRow> listTokens(int shard, String lastTokenId, int batchSize) throws IdentityOAuth2Exception {
+
+        List<TokenRow> tokenRows = new ArrayList<>();
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     shardRouter.getShardedSql(SQLQueries.LIST_TOKEN_SHARD_KEYS_FOR_RESHARDING, shard))) {
+            prepStmt.setMaxRows(batchSize);
+            prepStmt.setString(1, lastTokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    tokenRows.add(new TokenRow(resultSet.getString(1), resultSet.getString(2),
+                            resultSet.getString(3), resultSet.getInt(4), resultSet.getString(5)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while listing the access tokens of shard: " + shard, e);
+        }
+        return tokenRows;
+    }
+
+    private void moveTokens(int sourceShard, int targetShard, List<TokenRow> tokenRows)
+            throws IdentityOAuth2Exception {
+
+        String copyTokensSql = String.format(SQLQueries.COPY_TOKEN_ROWS_FOR_RESHARDING,
+                getTable(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, targetShard),
+                getTable(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, sourceShard));
+        String copyScopesSql = String.format(SQLQueries.COPY_TOKEN_ROWS_FOR_RESHARDING,
+                getTable(PartitionedSqlTemplateRegistry.ACCESS_TOKEN_SCOPE_TABLE, targetShard),
+                getTable(PartitionedSqlTemplateRegistry.ACCESS_TOKEN_SCOPE_TABLE, sourceShard));
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (PreparedStatement copyTokensStmt = connection.prepareStatement(copyTokensSql);
+                 PreparedStatement copyScopesStmt = connection.prepareStatement(copyScopesSql);
+                 PreparedStatement deleteScopesStmt = connection.prepareStatement(shardRouter.getShardedSql(
+                         SQLQueries.DELETE_TOKEN_SCOPES_BY_TOKEN_ID, sourceShard));
+                 PreparedStatement deleteTokensStmt = connection.prepareStatement(shardRouter.getShardedSql(
+                         SQLQueries.DELETE_TOKEN_IF_STATE_ID_UNCHANGED, sourceShard))) {
+                for (TokenRow tokenRow : tokenRows) {
+                    copyTokensStmt.setString(1, tokenRow.tokenId);
+                    copyTokensStmt.addBatch();
+                    copyScopesStmt.setString(1, tokenRow.tokenId);
+                    copyScopesStmt.addBatch();
+                    deleteScopesStmt.setString(1, tokenRow.tokenId);
+                    deleteScopesStmt.addBatch();
+                    deleteTokensStmt.setString(1, tokenRow.tokenId);
+                    deleteTokensStmt.setString(2, tokenRow.tokenStateId);
+                    deleteTokensStmt.addBatch();
+                }
+                copyTokensStmt.executeBatch();
+                copyScopesStmt.executeBatch();
+                deleteScopesStmt.executeBatch();
+                for (int deletedRows : deleteTokensStmt.executeBatch()) {
+                    if (deletedRows == 0) {
+                        // A token state changed after the token was listed. Keep the batch in the source shard.
+                        IdentityDatabaseUtil.rollbackTransaction(connection);
+                        skippedTokenCount.addAndGet(tokenRows.size());
+                        if (log.isDebugEnabled()) {
+                            log.debug("Skipped moving " + tokenRows.size() + " tokens from shard: " + sourceShard +
+                                    " to shard: " + targetShard + " as they were modified concurrently.");
+                        }
+                        return;
+                    }
+                }
+                IdentityDatabaseUtil.commitTransaction(connection);
+                movedTokenCount.addAndGet(tokenRows.size());
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw new IdentityOAuth2Exception("Error while moving access tokens from shard: " + sourceShard +
+                        " to shard: " + targetShard, e);
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error while closing the connection after moving access tokens from " +
+                    "shard: " + sourceShard + " to shard: " + targetShard, e);
+        }
+    }
+
+    private static String getTable(String table, int shard) {
+
+        return PartitionedSqlTemplateRegistry.getShardTable(table, shard);
+    }
+
+    /**
+     * Identifiers and shard key of an access token read for resharding.
+     */
+    private static class TokenRow {
+
+        private final String tokenId;
+        private final String clientId;
+        private final String authorizedUser;
+        private final int tenantId;
+        private final String tokenStateId;
+
+        private TokenRow(String tokenId, String clientId, String authorizedUser, int tenantId, String tokenStateId) {
+
+            this.tokenId = tokenId;
+            this.clientId = clientId;
+            this.authorizedUser = authorizedUser;
+            this.tenantId = tenantId;
+            this.tokenStateId = tokenStateId;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao.sharding;
+
+/**
+ * JMX operations to move the access tokens into the shards of the current shard count.
+ */
+public interface AccessTokenResharderMXBean {
+
+    /**
+     * Move the access tokens which are not stored in the shard of the current shard count.
+     *
+     * @param batchSize Number of tokens read and moved in a single transaction.
+     * @return Number of tokens moved.
+     */
+    long reshard(int batchSize);
+
+    boolean isRunning();
+
+    long getMovedTokenCount();
+
+    long getSkippedTokenCount();
+}
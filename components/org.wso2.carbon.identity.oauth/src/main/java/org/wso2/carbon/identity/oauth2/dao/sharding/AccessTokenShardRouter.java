@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao.sharding;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2ConfigUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.PartitionedSqlTemplateRegistry;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Routes the access token statements to one of N hash sharded access token tables.
+ * <p>
+ * The shard of a token is picked by the hash of its client id, authorized user and tenant, which are columns of the
+ * CON_APP_KEY unique key. All the tokens of a client and user are hence stored in the same table, and the database
+ * keeps enforcing that there is a single active token per client, user, scope and binding. Shard 0 is the existing
+ * IDN_OAUTH2_ACCESS_TOKEN and IDN_OAUTH2_ACCESS_TOKEN_SCOPE tables and shard i is stored in the tables with the
+ * {@code _SHARD_i} suffix, which must be created with the same structure. Other operations, including the look ups by
+ * the token hash, are executed on all the shards.
+ * <p>
+ * While the tokens are moved with {@link AccessTokenResharder} after changing the shard count, the previous shard
+ * count is configured with {@code OAuth.TokenSharding.PreviousShardCount} so that the tokens which are not moved yet
+ * are still found. The unique key is only enforced within a table, hence while resharding, a token issued for a
+ * client and user whose tokens are not moved yet does not replace the active token kept in the previous shard.
+ * Sharding cannot be combined with the user store based access token partitioning.
+ */
+public class AccessTokenShardRouter {
+
+    private static final Log log = LogFactory.getLog(AccessTokenShardRouter.class);
+
+    private static final String TOKEN_SHARDING_ENABLE = "OAuth.TokenSharding.Enable";
+    private static final String SHARD_COUNT = "OAuth.TokenSharding.ShardCount";
+    private static final String PREVIOUS_SHARD_COUNT = "OAuth.TokenSharding.PreviousShardCount";
+
+    private static final int DEFAULT_SHARD_COUNT = 1;
+    private static final int HASH_PREFIX_LENGTH = 8;
+    private static final int HEX_RADIX = 16;
+    // Persisted token hashes are JSON objects holding the hex encoded hash along with the algorithm.
+    private static final String HASH_VALUE_MARKER = "\"hash\":\"";
+    private static final char SHARD_KEY_SEPARATOR = '\n';
+
+    private static volatile AccessTokenShardRouter instance;
+
+    private final int shardCount;
+    private final int previousShardCount;
+    private final List<Integer> allShards;
+
+    AccessTokenShardRouter(int shardCount, int previousShardCount) {
+
+        this.shardCount = shardCount;
+        this.previousShardCount = previousShardCount;
+        List<Integer> shards = new ArrayList<>();
+        for (int shard = 0; shard < Math.max(shardCount, previousShardCount); shard++) {
+            shards.add(shard);
+        }
+        this.allShards = Collections.unmodifiableList(shards);
+    }
+
+    public static AccessTokenShardRouter getInstance() {
+
+        if (instance == null) {
+            synchronized (AccessTokenShardRouter.class) {
+                if (instance == null) {
+                    int shardCount = DEFAULT_SHARD_COUNT;
+                    int previousShardCount = DEFAULT_SHARD_COUNT;
+                    if (Boolean.parseBoolean(IdentityUtil.getProperty(TOKEN_SHARDING_ENABLE))) {
+                        if (OAuth2Util.checkAccessTokenPartitioningEnabled() &&
+                                OAuth2Util.checkUserNameAssertionEnabled()) {
+                            log.error("Access token sharding cannot be used along with the user store based access " +
+                                    "token partitioning. Access token sharding is disabled.");
+                        } else {
+                            shardCount = OAuth2ConfigUtil.readConfigValue(SHARD_COUNT, DEFAULT_SHARD_COUNT);
+                            previousShardCount = OAuth2ConfigUtil.readConfigValue(PREVIOUS_SHARD_COUNT, shardCount);
+                            log.info("Access tokens are sharded into " + shardCount + " tables.");
+                        }
+                    }
+                    AccessTokenShardRouter router = new AccessTokenShardRouter(shardCount, previousShardCount);
+                    if (router.isResharding()) {
+                        new AccessTokenResharder(router).register();
+                    }
+                    instance = router;
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether the access tokens are stored in more than one table.
+     *
+     * @return true if access token sharding is enabled.
+     */
+    public boolean isEnabled() {
+
+        return allShards.size() > 1;
+    }
+
+    /**
+     * Check whether the tokens are being moved from the previous shard count to the current one.
+     *
+     * @return true if the previous shard count differs from the current shard count.
+     */
+    public boolean isResharding() {
+
+        return previousShardCount != shardCount;
+    }
+
+    public int getShardCount() {
+
+        return shardCount;
+    }
+
+    public int getPreviousShardCount() {
+
+        return previousShardCount;
+    }
+
+    /**
+     * Get the shard the access tokens of a client and user are stored in.
+     *
+     * @param processedClientId Client id as stored in the CONSUMER_KEY column of IDN_OAUTH_CONSUMER_APPS.
+     * @param authorizedUser    Value of the AUTHZ_USER column.
+     * @param tenantId          Value of the TENANT_ID column.
+     * @return Index of the shard.
+     */
+    public int getShard(String processedClientId, String authorizedUser, int tenantId) {
+
+        return getShard(getShardKeyHash(processedClientId, authorizedUser, tenantId), shardCount);
+    }
+
+    /**
+     * Get all the shards which may hold access tokens. Used to fan out the operations which are not keyed by the
+     * client and user of the tokens.
+     *
+     * @return Indexes of all the shards.
+     */
+    public List<Integer> getAllShards() {
+
+        return allShards;
+    }
+
+    /**
+     * Get the given statement with the access token tables replaced by the tables of the given shard.
+     *
+     * @param sql   SQL statement on the unsharded access token tables.
+     * @param shard Index of the shard.
+     * @return Sharded SQL statement.
+     */
+    public String getShardedSql(String sql, int shard) {
+
+        return PartitionedSqlTemplateRegistry.getInstance().getShardedSql(sql, shard);
+    }
+
+    /**
+     * Get the given statement for each of the shards which may hold access tokens.
+     *
+     * @param sql SQL statement on the unsharded access token tables.
+     * @return Sharded SQL statements.
+     */
+    public List<String> getAllShardedSqls(String sql) {
+
+        if (!isEnabled()) {
+            return Collections.singletonList(sql);
+        }
+        List<String> shardedSqls = new ArrayList<>(allShards.size());
+        for (int shard : allShards) {
+            shardedSqls.add(getShardedSql(sql, shard));
+        }
+        return shardedSqls;
+    }
+
+    /**
+     * Get the hex encoded hash the shard of the access tokens of a client and user is picked by. The user name is
+     * lower cased, so that the tokens of a user are kept together irrespective of the case sensitivity of the user
+     * store.
+     *
+     * @param processedClientId Client id as stored in the CONSUMER_KEY column of IDN_OAUTH_CONSUMER_APPS.
+     * @param authorizedUser    Value of the AUTHZ_USER column.
+     * @param tenantId          Value of the TENANT_ID column.
+     * @return Hex encoded SHA-256 hash of the shard key.
+     */
+    static String getShardKeyHash(String processedClientId, String authorizedUser, int tenantId) {
+
+        String user = authorizedUser == null ? StringUtils.EMPTY : authorizedUser.toLowerCase(Locale.ENGLISH);
+        return DigestUtils.sha256Hex(processedClientId + SHARD_KEY_SEPARATOR + user + SHARD_KEY_SEPARATOR + tenantId);
+    }
+
+    /**
+     * Get the shard for the given number of shards, from the first characters of a hex encoded hash. Hashes which
+     * are not hex encoded are mapped by the hash code of their prefix.
+     *
+     * @param tokenHash  Hex encoded hash, optionally wrapped in a JSON object with the algorithm.
+     * @param shardCount Number of shards.
+     * @return Index of the shard.
+     */
+    static int getShard(String tokenHash, int shardCount) {
+
+        if (shardCount <= 1 || StringUtils.isEmpty(tokenHash)) {
+            return 0;
+        }
+        String hash = tokenHash;
+        int hashValueIndex = tokenHash.indexOf(HASH_VALUE_MARKER);
+        if (hashValueIndex >= 0) {
+            hash = tokenHash.substring(hashValueIndex + HASH_VALUE_MARKER.length());
+        }
+        String prefix = hash.substring(0, Math.min(HASH_PREFIX_LENGTH, hash.length()));
+        try {
+            return (int) Math.floorMod(Long.parseLong(prefix, HEX_RADIX), (long) shardCount);
+        } catch (NumberFormatException e) {
+            return Math.floorMod(prefix.hashCode(), shardCount);
+        }
+    }
+}
@@ -44,6 +44,7 @@ public class Constants {
     public static final String LAST_POLL_TIME = "LAST_POLL_TIME";
     public static final String POLL_TIME = "POLL_TIME";
     public static final String EXPIRED = "EXPIRED";
+    public static final String DENIED = "DENIED";
     public static final String NONCE = "nonce";
     public static final String REDIRECTION_URI = "redirect_uri";
     public static final String UTC = "UTC";
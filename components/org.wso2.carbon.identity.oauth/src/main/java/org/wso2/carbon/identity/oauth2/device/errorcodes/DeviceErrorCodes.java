@@ -39,6 +39,7 @@ public class DeviceErrorCodes {
         public static final String SLOW_DOWN = "slow_down";
         public static final String AUTHORIZATION_PENDING = "authorization_pending";
         public static final String EXPIRED_TOKEN = "expired_token";
+        public static final String ACCESS_DENIED = "access_denied";
 
     }
 
@@ -50,6 +51,7 @@ public class DeviceErrorCodes {
         public static final String SLOW_DOWN = "Forbidden";
         public static final String AUTHORIZATION_PENDING = "Precondition required";
         public static final String EXPIRED_TOKEN = "Forbidden";
+        public static final String ACCESS_DENIED = "The authorization request was denied";
 
     }
 }
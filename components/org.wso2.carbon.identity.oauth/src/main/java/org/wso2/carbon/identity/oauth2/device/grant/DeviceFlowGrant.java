@@ -30,6 +30,7 @@ import org.wso2.carbon.identity.oauth2.device.model.DeviceFlowDO;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
 import org.wso2.carbon.identity.oauth2.model.RequestParameter;
 import org.wso2.carbon.identity.oauth2.token.OAuthTokenReqMessageContext;
+import org.wso2.carbon.identity.oauth2.token.ParkedTokenRequestRegistry;
 import org.wso2.carbon.identity.oauth2.token.handlers.grant.AbstractAuthorizationGrantHandler;
 
 import java.sql.Timestamp;
@@ -74,12 +75,15 @@ public class DeviceFlowGrant extends AbstractAuthorizationGrantHandler {
         }
         Timestamp newPollTime = new Timestamp(date.getTime());
         DeviceFlowPersistenceFactory.getInstance().getDeviceFlowDAO().setLastPollTime(deviceCode, newPollTime);
-        if (!isWithinValidPollInterval(newPollTime, deviceFlowDO)) {
+        if (!isResumedRequest(oAuthTokenReqMessageContext) && !isWithinValidPollInterval(newPollTime, deviceFlowDO)) {
             throw new IdentityOAuth2Exception(DeviceErrorCodes.SubDeviceErrorCodes.SLOW_DOWN,
                     DeviceErrorCodes.SubDeviceErrorCodesDescriptions.SLOW_DOWN);
         } else if (Constants.EXPIRED.equals(deviceStatus) || isExpiredDeviceCode(deviceFlowDO, date)) {
             throw new IdentityOAuth2Exception(DeviceErrorCodes.SubDeviceErrorCodes.EXPIRED_TOKEN,
                     DeviceErrorCodes.SubDeviceErrorCodesDescriptions.EXPIRED_TOKEN);
+        } else if (Constants.DENIED.equals(deviceStatus)) {
+            throw new IdentityOAuth2Exception(DeviceErrorCodes.SubDeviceErrorCodes.ACCESS_DENIED,
+                    DeviceErrorCodes.SubDeviceErrorCodesDescriptions.ACCESS_DENIED);
         } else if (Constants.AUTHORIZED.equals(deviceStatus)) {
             authStatus = true;
             DeviceFlowPersistenceFactory.getInstance().getDeviceFlowDAO().setDeviceCodeExpired(deviceCode,
@@ -112,6 +116,19 @@ public class DeviceFlowGrant extends AbstractAuthorizationGrantHandler {
         return super.issue(tokReqMsgCtx);
     }
 
+    /**
+     * Check whether the token request is re-processed after being parked at the token endpoint. Such requests are
+     * not subject to the polling interval since the server decided when to re-process them.
+     *
+     * @param tokReqMsgCtx Token request message context.
+     * @return true if the request has been resumed.
+     */
+    private static boolean isResumedRequest(OAuthTokenReqMessageContext tokReqMsgCtx) {
+
+        return ParkedTokenRequestRegistry.isResumedRequest(
+                tokReqMsgCtx.getOauth2AccessTokenReqDTO().getHttpServletRequestWrapper());
+    }
+
     /**
      * This method use to check whether device code is expired or not.
      *
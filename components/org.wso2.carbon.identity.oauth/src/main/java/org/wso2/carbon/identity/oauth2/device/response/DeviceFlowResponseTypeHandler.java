@@ -29,6 +29,7 @@ import org.wso2.carbon.identity.oauth2.authz.OAuthAuthzReqMessageContext;
 import org.wso2.carbon.identity.oauth2.authz.handlers.AbstractResponseTypeHandler;
 import org.wso2.carbon.identity.oauth2.device.constants.Constants;
 import org.wso2.carbon.identity.oauth2.device.dao.DeviceFlowPersistenceFactory;
+import org.wso2.carbon.identity.oauth2.device.util.DeviceFlowUtil;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AuthorizeReqDTO;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AuthorizeRespDTO;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
@@ -57,6 +58,7 @@ public class DeviceFlowResponseTypeHandler extends AbstractResponseTypeHandler {
         String userCode = authzReqDTO.getNonce();
         DeviceFlowPersistenceFactory.getInstance().getDeviceFlowDAO().setAuthzUserAndStatus(userCode,
                 Constants.AUTHORIZED, authenticatedUser);
+        DeviceFlowUtil.notifyParkedTokenRequests(userCode);
         OAuthAppDO oAuthAppDO = (OAuthAppDO) oauthAuthzMsgCtx.getProperty("OAuthAppDO");
         String redirectionURI = OAuth2Util.getDeviceFlowCompletionPageURI(oAuthAppDO.getApplicationName(),
                 oauthAuthzMsgCtx.getAuthorizationReqDTO().getTenantDomain());
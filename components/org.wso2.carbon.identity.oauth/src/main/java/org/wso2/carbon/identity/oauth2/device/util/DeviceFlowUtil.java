@@ -23,7 +23,11 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.device.constants.Constants;
+import org.wso2.carbon.identity.oauth2.device.dao.DeviceFlowPersistenceFactory;
+import org.wso2.carbon.identity.oauth2.device.model.DeviceFlowDO;
+import org.wso2.carbon.identity.oauth2.token.ParkedTokenRequestRegistry;
 
 /**
  * Util class which contains common methods used in Device Flow Grant.
@@ -56,4 +60,44 @@ public class DeviceFlowUtil {
 
         return (OAuthServerConfiguration.getInstance().getDeviceCodePollingInterval() / 1000);
     }
+
+    /**
+     * Wake up token requests of the device which are parked at the token endpoint waiting for the user to authorize.
+     *
+     * @param userCode User code of the device.
+     * @throws IdentityOAuth2Exception Error while retrieving the device code.
+     */
+    public static void notifyParkedTokenRequests(String userCode) throws IdentityOAuth2Exception {
+
+        ParkedTokenRequestRegistry parkedTokenRequestRegistry = ParkedTokenRequestRegistry.getInstance();
+        if (!parkedTokenRequestRegistry.hasParkedRequests()) {
+            return;
+        }
+        DeviceFlowDO deviceFlowDO = DeviceFlowPersistenceFactory.getInstance().getDeviceFlowDAO()
+                .getDetailsForUserCode(userCode);
+        if (deviceFlowDO != null) {
+            parkedTokenRequestRegistry.notifyCompletion(Constants.DEVICE_FLOW_GRANT_TYPE,
+                    deviceFlowDO.getDeviceCode());
+        }
+    }
+
+    /**
+     * Mark the pending authorization of a device as denied by the user, so that the token requests of the device
+     * fail with access_denied, and wake up the token requests parked on it.
+     *
+     * @param userCode User code of the device.
+     * @throws IdentityOAuth2Exception Error while updating the status of the device code.
+     */
+    public static void denyAuthorization(String userCode) throws IdentityOAuth2Exception {
+
+        DeviceFlowDO deviceFlowDO = DeviceFlowPersistenceFactory.getInstance().getDeviceFlowDAO()
+                .getDetailsForUserCode(userCode);
+        if (deviceFlowDO == null || !Constants.PENDING.equals(deviceFlowDO.getStatus())) {
+            return;
+        }
+        DeviceFlowPersistenceFactory.getInstance().getDeviceFlowDAO().setDeviceCodeExpired(
+                deviceFlowDO.getDeviceCode(), Constants.DENIED);
+        ParkedTokenRequestRegistry.getInstance().notifyCompletion(Constants.DEVICE_FLOW_GRANT_TYPE,
+                deviceFlowDO.getDeviceCode());
+    }
 }
@@ -38,11 +38,14 @@ import org.wso2.carbon.identity.application.mgt.ApplicationManagementService;
 import org.wso2.carbon.identity.application.mgt.listener.ApplicationMgtListener;
 import org.wso2.carbon.identity.core.util.IdentityCoreInitializedEvent;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantAttributeStore;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.token.bindings.TokenBinderInfo;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfigurationReloader;
 import org.wso2.carbon.identity.oauth.dto.ScopeDTO;
 import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.OAuth2ScopeService;
 import org.wso2.carbon.identity.oauth2.OAuth2Service;
 import org.wso2.carbon.identity.oauth2.OAuth2TokenValidationService;
@@ -60,11 +63,14 @@ import org.wso2.carbon.identity.oauth2.device.response.DeviceFlowResponseTypeReq
 import org.wso2.carbon.identity.oauth2.keyidprovider.DefaultKeyIDProviderImpl;
 import org.wso2.carbon.identity.oauth2.keyidprovider.KeyIDProvider;
 import org.wso2.carbon.identity.oauth2.listener.TenantCreationEventListener;
+import org.wso2.carbon.identity.oauth2.revocation.TokenRevocationJobManager;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinder;
 import org.wso2.carbon.identity.oauth2.token.bindings.handlers.TokenBindingExpiryEventHandler;
 import org.wso2.carbon.identity.oauth2.token.bindings.impl.CookieBasedTokenBinder;
 import org.wso2.carbon.identity.oauth2.token.bindings.impl.DeviceFlowTokenBinder;
 import org.wso2.carbon.identity.oauth2.token.bindings.impl.SSOSessionBasedTokenBinder;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetricsPublisher;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.oauth2.validators.scope.ScopeValidator;
 import org.wso2.carbon.identity.openidconnect.OpenIDConnectClaimFilter;
@@ -142,19 +148,26 @@ public class OAuth2ServiceComponent {
 
     protected void activate(ComponentContext context) {
 
+        StartupPipeline startup = StartupPipeline.create("OAuth2ServiceComponent");
         try {
             if (OAuth2ServiceComponentHolder.getInstance().getScopeClaimMappingDAO() == null) {
                 OAuth2ServiceComponentHolder.getInstance()
                         .setScopeClaimMappingDAO(new ScopeClaimMappingDAOImpl());
             }
-            loadScopeConfigFile();
-            loadOauthScopeBinding();
+            // Configuration files and the database probes do not depend on each other.
+            startup.submit("oauth-server-configuration", OAuthServerConfiguration::getInstance);
+            startup.submit("oidc-scope-configuration", OAuth2ServiceComponent::loadScopeConfigFile);
+            startup.submit("oauth-scope-binding-configuration", OAuth2ServiceComponent::loadOauthScopeBinding);
+            startup.submit("idp-id-column-probe", OAuth2ServiceComponent::probeIDPIdColumn);
+            startup.submit("consented-token-column-probe", OAuth2ServiceComponent::probeConsentedTokenColumn);
+            startup.run("token-issuance-metrics", TokenIssuanceMetrics::init);
+            startup.await();
+
+            // OIDC scopes and OAuth scopes are seeded from the configuration files loaded above. They are distinct
+            // scopes, hence are seeded in parallel while the services are registered.
             int tenantId = PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId();
-            boolean isRecordExist = OAuthTokenPersistenceFactory.getInstance().getScopeClaimMappingDAO().
-                    hasScopesPopulated(tenantId);
-            if (!isRecordExist) {
-                OAuth2Util.initiateOIDCScopes(tenantId);
-            }
+            startup.submit("oidc-scope-seeding", () -> initiateOIDCScopes(tenantId));
+            startup.submit("oauth-scope-seeding", () -> OAuth2Util.initiateOAuthScopePermissionsBindings(tenantId));
             TenantCreationEventListener scopeTenantMgtListener = new TenantCreationEventListener();
             bundleContext = context.getBundleContext();
             //Registering TenantCreationEventListener
@@ -167,8 +180,6 @@ public class OAuth2ServiceComponent {
             } else {
                 log.error("TenantMgtListener could not be registered");
             }
-            // iniating oauth scopes
-            OAuth2Util.initiateOAuthScopePermissionsBindings(tenantId);
             // exposing server configuration as a service
             OAuthServerConfiguration oauthServerConfig = OAuthServerConfiguration.getInstance();
             bundleContext.registerService(OAuthServerConfiguration.class.getName(), oauthServerConfig, null);
@@ -269,6 +280,22 @@ public class OAuth2ServiceComponent {
                 log.debug("TokenBindingExpiryEventHandler is successfully registered.");
             }
 
+            // Resume the token revocation jobs left incomplete when the server was stopped.
+            TokenRevocationJobManager.getInstance().resumeIncompleteJobs();
+
+            // Scopes should be seeded before the services are exposed.
+            startup.complete();
+
+            // Instantiate the configured handlers before the services are exposed, so that token requests do not
+            // race to instantiate them.
+            try {
+                oauthServerConfig.compileHandlers();
+            } catch (IdentityOAuth2Exception e) {
+                log.error("Error while instantiating the handlers of the OAuth server configuration. They will be " +
+                        "instantiated on first use.", e);
+            }
+            OAuthServerConfigurationReloader.register();
+
             // Registering OAuth2Service as a OSGIService
             bundleContext.registerService(OAuth2Service.class.getName(), new OAuth2Service(), null);
             // Registering OAuth2ScopeService as a OSGIService
@@ -280,6 +307,8 @@ public class OAuth2ServiceComponent {
             String errMsg = "Error while activating OAuth2ServiceComponent.";
             log.error(errMsg, e);
             throw new RuntimeException(errMsg, e);
+        } finally {
+            startup.shutdown();
         }
         if (checkAudienceEnabled()) {
             if (log.isDebugEnabled()) {
@@ -292,30 +321,15 @@ public class OAuth2ServiceComponent {
             }
             OAuth2ServiceComponentHolder.setAudienceEnabled(false);
         }
-        if (checkIDPIdColumnAvailable()) {
-            if (log.isDebugEnabled()) {
-                log.debug("IDP_ID column is available in all relevant tables. " +
-                        "Setting isIDPIdColumnEnabled to true.");
-            }
-            OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(true);
-        } else {
-            if (log.isDebugEnabled()) {
-                log.debug("IDP_ID column is not available in all relevant tables. " +
-                        "Setting isIDPIdColumnEnabled to false.");
-            }
-            OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(false);
-        }
+    }
 
-        boolean isConsentedTokenColumnAvailable = checkConsentedTokenColumnAvailable();
-        OAuth2ServiceComponentHolder.setConsentedTokenColumnEnabled(isConsentedTokenColumnAvailable);
+    protected void deactivate(ComponentContext context) {
+
+        // Persist the authorization grant attributes still buffered for a batched write.
+        AuthorizationGrantAttributeStore.getInstance().shutdown();
+        OAuthServerConfigurationReloader.unregister();
         if (log.isDebugEnabled()) {
-            if (isConsentedTokenColumnAvailable) {
-                log.debug("CONSENTED_TOKEN column is available in IDN_OAUTH2_ACCESS_TOKEN table. Hence setting " +
-                        "consentedColumnAvailable to true.");
-            } else {
-                log.debug("CONSENTED_TOKEN column is not available in IDN_OAUTH2_ACCESS_TOKEN table. Hence " +
-                        "setting consentedColumnAvailable to false.");
-            }
+            log.debug("Identity OAuth bundle is deactivated");
         }
     }
 
@@ -633,6 +647,97 @@ public class OAuth2ServiceComponent {
         OAuth2ServiceComponentHolder.setOrganizationUserResidentResolverService(null);
     }
 
+    @Reference(
+            name = "token.issuance.metrics.publisher",
+            service = TokenIssuanceMetricsPublisher.class,
+            cardinality = ReferenceCardinality.MULTIPLE,
+            policy = ReferencePolicy.DYNAMIC,
+            unbind = "removeTokenIssuanceMetricsPublisher"
+    )
+    protected void addTokenIssuanceMetricsPublisher(TokenIssuanceMetricsPublisher publisher) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Adding the token issuance metrics publisher: " + publisher.getClass().getName());
+        }
+        TokenIssuanceMetrics.addPublisher(publisher);
+    }
+
+    protected void removeTokenIssuanceMetricsPublisher(TokenIssuanceMetricsPublisher publisher) {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Removing the token issuance metrics publisher: " + publisher.getClass().getName());
+        }
+        TokenIssuanceMetrics.removePublisher(publisher);
+    }
+
+    private static void initiateOIDCScopes(int tenantId) {
+
+        try {
+            boolean isRecordExist = OAuthTokenPersistenceFactory.getInstance().getScopeClaimMappingDAO().
+                    hasScopesPopulated(tenantId);
+            if (!isRecordExist) {
+                OAuth2Util.initiateOIDCScopes(tenantId);
+            }
+        } catch (IdentityOAuth2Exception e) {
+            throw new IllegalStateException("Error while checking the OIDC scopes of tenant: " + tenantId, e);
+        }
+    }
+
+    /**
+     * Probe the IDP_ID column. The probe is best effort: a failure disables the column instead of failing the
+     * activation.
+     */
+    private static void probeIDPIdColumn() {
+
+        boolean isIDPIdColumnAvailable;
+        try {
+            isIDPIdColumnAvailable = checkIDPIdColumnAvailable();
+        } catch (RuntimeException e) {
+            log.error("Error while checking the availability of the IDP_ID column. Setting isIDPIdColumnEnabled " +
+                    "to false.", e);
+            isIDPIdColumnAvailable = false;
+        }
+        if (isIDPIdColumnAvailable) {
+            if (log.isDebugEnabled()) {
+                log.debug("IDP_ID column is available in all relevant tables. " +
+                        "Setting isIDPIdColumnEnabled to true.");
+            }
+            OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(true);
+        } else {
+            if (log.isDebugEnabled()) {
+                log.debug("IDP_ID column is not available in all relevant tables. " +
+                        "Setting isIDPIdColumnEnabled to false.");
+            }
+            OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(false);
+        }
+    }
+
+    /**
+     * Probe the CONSENTED_TOKEN column. The probe is best effort: a failure disables the column instead of failing
+     * the activation.
+     */
+    private static void probeConsentedTokenColumn() {
+
+        boolean isConsentedTokenColumnAvailable;
+        try {
+            isConsentedTokenColumnAvailable = checkConsentedTokenColumnAvailable();
+        } catch (RuntimeException e) {
+            log.error("Error while checking the availability of the CONSENTED_TOKEN column. Setting " +
+                    "consentedColumnAvailable to false.", e);
+            isConsentedTokenColumnAvailable = false;
+        }
+        OAuth2ServiceComponentHolder.setConsentedTokenColumnEnabled(isConsentedTokenColumnAvailable);
+        if (log.isDebugEnabled()) {
+            if (isConsentedTokenColumnAvailable) {
+                log.debug("CONSENTED_TOKEN column is available in IDN_OAUTH2_ACCESS_TOKEN table. Hence setting " +
+                        "consentedColumnAvailable to true.");
+            } else {
+                log.debug("CONSENTED_TOKEN column is not available in IDN_OAUTH2_ACCESS_TOKEN table. Hence " +
+                        "setting consentedColumnAvailable to false.");
+            }
+        }
+    }
+
     private static void loadScopeConfigFile() {
 
         List<ScopeDTO> listOIDCScopesClaims = new ArrayList<>();
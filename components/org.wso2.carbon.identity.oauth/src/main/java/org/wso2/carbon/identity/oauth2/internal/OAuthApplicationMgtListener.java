@@ -61,6 +61,7 @@ import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
 import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCUserClaimsCache;
 
 import java.io.ByteArrayInputStream;
 import java.io.StringWriter;
@@ -147,6 +148,8 @@ public class OAuthApplicationMgtListener extends AbstractApplicationMgtListener
             removeEntriesFromCache(serviceProvider, tenantDomain);
         }
         threadLocalForClaimConfigUpdates.remove();
+        // Cached user claims depend on the role mappings as well as the claim configuration of the application.
+        OIDCUserClaimsCache.getInstance().clearUserClaimsOfTenant(tenantDomain);
         return true;
     }
 
@@ -174,6 +177,7 @@ public class OAuthApplicationMgtListener extends AbstractApplicationMgtListener
                             + " in tenantDomain: " + tenantDomain + " during application delete.");
                 }
                 deleteAssociatedOAuthApps(serviceProvider, tenantDomain);
+                OIDCUserClaimsCache.getInstance().clearUserClaimsOfTenant(tenantDomain);
             } catch (IdentityOAuthAdminException | IdentityOAuth2Exception e) {
                 throw new IdentityApplicationManagementException("Error while cleaning up oauth application data " +
                         "associated with service provider: " + applicationName + " of tenantDomain: " + tenantDomain,
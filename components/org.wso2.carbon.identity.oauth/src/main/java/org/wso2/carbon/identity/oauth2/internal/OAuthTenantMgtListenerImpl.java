@@ -22,16 +22,11 @@ import org.wso2.carbon.identity.core.AbstractIdentityTenantMgtListener;
 import org.wso2.carbon.identity.oauth.OAuthUtil;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
-import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.dao.StreamingAccessTokenRevoker;
 import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
-import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.stratos.common.exception.StratosException;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Tenant management listener for OAuth related functionality.
@@ -53,35 +48,11 @@ public class OAuthTenantMgtListenerImpl extends AbstractIdentityTenantMgtListene
     private void clearTokenData(int tenantId) throws StratosException {
 
         try {
-            Set<AccessTokenDO> accessTokenDOs = OAuthTokenPersistenceFactory.getInstance()
-                    .getAccessTokenDAO().getAccessTokensByTenant(tenantId);
-            Map<String, AccessTokenDO> latestAccessTokens = new HashMap<>();
-            for (AccessTokenDO accessTokenDO : accessTokenDOs) {
-                String keyString = accessTokenDO.getConsumerKey() + ":" + accessTokenDO.getAuthzUser() + ":" +
-                        OAuth2Util.buildScopeString(accessTokenDO.getScope()) + ":"
-                        + accessTokenDO.getAuthzUser().getFederatedIdPName();
-                AccessTokenDO accessTokenDOFromMap = latestAccessTokens.get(keyString);
-                if (accessTokenDOFromMap != null) {
-                    if (accessTokenDOFromMap.getIssuedTime().before(accessTokenDO.getIssuedTime())) {
-                        latestAccessTokens.put(keyString, accessTokenDO);
-                    }
-                } else {
-                    latestAccessTokens.put(keyString, accessTokenDO);
-                }
-
-                //Clear cache
-                OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser(),
-                        OAuth2Util.buildScopeString(accessTokenDO.getScope()));
-                OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser());
-                OAuthUtil.clearOAuthCache(accessTokenDO);
-            }
-            ArrayList<String> tokensToRevoke = new ArrayList<>();
-            for (Map.Entry entry : latestAccessTokens.entrySet()) {
-                tokensToRevoke.add(((AccessTokenDO) entry.getValue()).getAccessToken());
-            }
+            // Tokens are revoked in batches while they are streamed, instead of collecting all tokens of the tenant.
+            StreamingAccessTokenRevoker tokenRevoker = new StreamingAccessTokenRevoker();
             OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
-                    .revokeAccessTokens(tokensToRevoke.toArray(new String[tokensToRevoke.size()]),
-                            OAuth2Util.isHashEnabled());
+                    .streamAccessTokensByTenant(tenantId, tokenRevoker);
+            tokenRevoker.flush();
             List<AuthzCodeDO> latestAuthzCodes = OAuthTokenPersistenceFactory.getInstance()
                     .getAuthorizationCodeDAO().getLatestAuthorizationCodesByTenant(tenantId);
             for (AuthzCodeDO authzCodeDO : latestAuthzCodes) {
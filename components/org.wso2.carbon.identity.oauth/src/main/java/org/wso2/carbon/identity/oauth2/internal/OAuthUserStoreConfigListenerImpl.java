@@ -22,17 +22,14 @@ import org.wso2.carbon.identity.core.util.IdentityCoreConstants.UserStoreState;
 import org.wso2.carbon.identity.oauth.OAuthUtil;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
-import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.dao.StreamingAccessTokenRevoker;
 import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.PartitionedSqlTemplateRegistry;
 import org.wso2.carbon.identity.user.store.configuration.listener.AbstractUserStoreConfigListener;
 import org.wso2.carbon.user.api.UserStoreException;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * Userstore config listener for OAuth related functionality.
@@ -43,19 +40,20 @@ public class OAuthUserStoreConfigListenerImpl extends AbstractUserStoreConfigLis
     public void onUserStoreNamePreUpdate(int tenantId, String currentUserStoreName, String newUserStoreName) throws
             UserStoreException {
         try {
-            Set<AccessTokenDO> accessTokenDOs = OAuthTokenPersistenceFactory.getInstance()
-                    .getAccessTokenDAO().getAccessTokensOfUserStore(tenantId, currentUserStoreName);
-            for (AccessTokenDO accessTokenDO : accessTokenDOs) {
-                //Clear cache
-                OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser(),
-                        OAuth2Util.buildScopeString(accessTokenDO.getScope()));
-                OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser());
-                OAuthUtil.clearOAuthCache(accessTokenDO);
-            }
+            // Tokens are streamed so that renaming a large user store does not load all of its tokens into memory.
+            OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
+                    .streamAccessTokensOfUserStore(tenantId, currentUserStoreName, accessTokenDO -> {
+                        //Clear cache
+                        OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser(),
+                                OAuth2Util.buildScopeString(accessTokenDO.getScope()));
+                        OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser());
+                        OAuthUtil.clearOAuthCache(accessTokenDO);
+                    });
             OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
                     .updateUserStoreDomain(tenantId, currentUserStoreName, newUserStoreName);
             OAuthTokenPersistenceFactory.getInstance().getAuthorizationCodeDAO()
                     .updateUserStoreDomain(tenantId, currentUserStoreName, newUserStoreName);
+            PartitionedSqlTemplateRegistry.getInstance().invalidate();
         } catch (IdentityOAuth2Exception e) {
             throw new UserStoreException("Error occurred while renaming user store : " + currentUserStoreName +
                     " in tenant :" + tenantId, e);
@@ -66,6 +64,7 @@ public class OAuthUserStoreConfigListenerImpl extends AbstractUserStoreConfigLis
     public void onUserStorePreDelete(int tenantId, String userStoreName) throws UserStoreException {
 
         revokeTokens(tenantId, userStoreName);
+        PartitionedSqlTemplateRegistry.getInstance().invalidate();
     }
 
     @Override
@@ -80,38 +79,12 @@ public class OAuthUserStoreConfigListenerImpl extends AbstractUserStoreConfigLis
     private void revokeTokens(int tenantId, String userStoreName) throws UserStoreException {
 
         try {
-            Set<AccessTokenDO> accessTokenDOs = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
-                    .getAccessTokensOfUserStore(tenantId, userStoreName);
-            Map<String, AccessTokenDO> latestAccessTokens = new HashMap<>();
-            for (AccessTokenDO accessTokenDO : accessTokenDOs) {
-                String keyString = accessTokenDO.getConsumerKey() + ":" + accessTokenDO.getAuthzUser() + ":" +
-                        OAuth2Util.buildScopeString(accessTokenDO.getScope()) + ":"
-                        + accessTokenDO.getAuthzUser().getFederatedIdPName();
-                AccessTokenDO accessTokenDOFromMap = latestAccessTokens.get(keyString);
-                if (accessTokenDOFromMap != null) {
-                    if (accessTokenDOFromMap.getIssuedTime().before(accessTokenDO.getIssuedTime())) {
-                        latestAccessTokens.put(keyString, accessTokenDO);
-                    }
-                } else {
-                    latestAccessTokens.put(keyString, accessTokenDO);
-                }
-
-                //Clear cache
-                OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser(),
-                        OAuth2Util.buildScopeString(accessTokenDO.getScope()));
-                OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser());
-                OAuthUtil.clearOAuthCache(accessTokenDO);
-            }
-            ArrayList<String> tokensToRevoke = new ArrayList<>();
-            for (Map.Entry entry : latestAccessTokens.entrySet()) {
-                tokensToRevoke.add(((AccessTokenDO) entry.getValue()).getAccessToken());
-            }
-
-            if (!tokensToRevoke.isEmpty()) {
-                OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
-                        .revokeAccessTokens(tokensToRevoke.toArray(new String[tokensToRevoke.size()]),
-                                OAuth2Util.isHashEnabled());
-            }
+            // Tokens are revoked in batches while they are streamed, instead of collecting all tokens of the user
+            // store.
+            StreamingAccessTokenRevoker tokenRevoker = new StreamingAccessTokenRevoker();
+            OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
+                    .streamAccessTokensOfUserStore(tenantId, userStoreName, tokenRevoker);
+            tokenRevoker.flush();
 
             List<AuthzCodeDO> latestAuthzCodes = OAuthTokenPersistenceFactory.getInstance()
                     .getAuthorizationCodeDAO().getLatestAuthorizationCodesByUserStore(tenantId, userStoreName);
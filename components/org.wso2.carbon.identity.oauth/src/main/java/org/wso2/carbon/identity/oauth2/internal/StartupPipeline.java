@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.internal;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.oauth2.util.OAuth2ConfigUtil;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the phases of a component activation and records the time spent on each of them. Phases that do not depend
+ * on each other, such as parsing independent configuration files, database probes and seeding the scopes of a
+ * tenant, are submitted to a small pool and run in parallel; the activation waits for them with {@link #await()}
+ * before proceeding to the phases that depend on them.
+ * <p>
+ * Parallel phases run with the tenant and the context class loader of the activating thread. Setting the
+ * parallelism to 1 runs every phase on the activating thread, in the order it was submitted.
+ */
+public class StartupPipeline {
+
+    private static final Log log = LogFactory.getLog(StartupPipeline.class);
+
+    private static final String STARTUP_PARALLELISM = "OAuth.Startup.Parallelism";
+    private static final int MAX_DEFAULT_PARALLELISM = 4;
+    private static final long SHUTDOWN_TIMEOUT_IN_SECONDS = 10;
+
+    private final String componentName;
+    private final long startTime = System.nanoTime();
+    private final Map<String, Long> phaseTimes = new LinkedHashMap<>();
+    private final List<PendingPhase> pendingPhases = new ArrayList<>();
+    private final ExecutorService executor;
+    private final int tenantId;
+    private final String tenantDomain;
+    private final ClassLoader contextClassLoader;
+
+    StartupPipeline(String componentName, int parallelism) {
+
+        this.componentName = componentName;
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        this.tenantId = carbonContext.getTenantId();
+        this.tenantDomain = carbonContext.getTenantDomain();
+        this.contextClassLoader = Thread.currentThread().getContextClassLoader();
+        if (parallelism > 1) {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, componentName + "StartupWorker-" +
+                        threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * Create a startup pipeline with the configured parallelism. Defaults to the number of processors, up to 4.
+     *
+     * @param componentName Name of the activating component, used in the startup report.
+     * @return Startup pipeline.
+     */
+    public static StartupPipeline create(String componentName) {
+
+        int parallelism = OAuth2ConfigUtil.readConfigValue(STARTUP_PARALLELISM,
+                Math.min(Runtime.getRuntime().availableProcessors(), MAX_DEFAULT_PARALLELISM));
+        return new StartupPipeline(componentName, parallelism);
+    }
+
+    /**
+     * Run a phase on the activating thread.
+     *
+     * @param phase Name of the phase.
+     * @param task  Phase to run.
+     */
+    public void run(String phase, Runnable task) {
+
+        long phaseStartTime = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            recordPhase(phase, System.nanoTime() - phaseStartTime);
+        }
+    }
+
+    /**
+     * Submit a phase that does not depend on the other pending phases. The phase runs on the activating thread if
+     * the startup is not parallel.
+     *
+     * @param phase Name of the phase.
+     * @param task  Phase to run.
+     */
+    public void submit(String phase, Runnable task) {
+
+        if (executor == null) {
+            run(phase, task);
+            return;
+        }
+        pendingPhases.add(new PendingPhase(phase, executor.submit(() -> runInActivationContext(phase, task))));
+    }
+
+    /**
+     * Wait for the submitted phases to complete.
+     *
+     * @throws IllegalStateException If a phase failed or the activating thread was interrupted while waiting.
+     */
+    public void await() {
+
+        List<PendingPhase> phases = new ArrayList<>(pendingPhases);
+        pendingPhases.clear();
+        IllegalStateException failure = null;
+        // Wait for every phase, even after a failure, so that no phase is still running when activation fails.
+        for (PendingPhase pendingPhase : phases) {
+            try {
+                pendingPhase.future.get();
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("Startup phase: " + pendingPhase.phase + " of " +
+                            componentName + " failed.", e.getCause());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for the startup phase: " +
+                        pendingPhase.phase + " of " + componentName, e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Wait for the submitted phases to complete and log the time spent on each phase.
+     */
+    public void complete() {
+
+        await();
+        StringBuilder report = new StringBuilder();
+        synchronized (phaseTimes) {
+            for (Map.Entry<String, Long> phaseTime : phaseTimes.entrySet()) {
+                report.append(report.length() == 0 ? "" : ", ").append(phaseTime.getKey()).append(": ")
+                        .append(TimeUnit.NANOSECONDS.toMillis(phaseTime.getValue())).append(" ms");
+            }
+        }
+        log.info(componentName + " started in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime) +
+                " ms. Phases: " + report);
+    }
+
+    /**
+     * Release the startup threads. Should be invoked once the activation completes or fails. Waits a bounded time
+     * for phases still running, e.g. after a failed activation, to stop.
+     */
+    public void shutdown() {
+
+        if (executor == null) {
+            return;
+        }
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(SHUTDOWN_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Startup phases of " + componentName + " did not stop within " + SHUTDOWN_TIMEOUT_IN_SECONDS +
+                        " seconds.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for the startup phases of " + componentName + " to stop.");
+        }
+    }
+
+    /**
+     * Get the time spent on each completed phase.
+     *
+     * @return Time spent on each phase in nanoseconds, in the order the phases completed.
+     */
+    public Map<String, Long> getPhaseTimes() {
+
+        synchronized (phaseTimes) {
+            return new LinkedHashMap<>(phaseTimes);
+        }
+    }
+
+    private void runInActivationContext(String phase, Runnable task) {
+
+        Thread currentThread = Thread.currentThread();
+        ClassLoader threadClassLoader = currentThread.getContextClassLoader();
+        currentThread.setContextClassLoader(contextClassLoader);
+        PrivilegedCarbonContext.startTenantFlow();
+        try {
+            PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+            carbonContext.setTenantId(tenantId);
+            carbonContext.setTenantDomain(tenantDomain);
+            run(phase, task);
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+            currentThread.setContextClassLoader(threadClassLoader);
+        }
+    }
+
+    private void recordPhase(String phase, long durationInNanos) {
+
+        synchronized (phaseTimes) {
+            phaseTimes.put(phase, durationInNanos);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Startup phase: " + phase + " of " + componentName + " completed in " +
+                    TimeUnit.NANOSECONDS.toMillis(durationInNanos) + " ms.");
+        }
+    }
+
+    private static class PendingPhase {
+
+        private final String phase;
+        private final Future<?> future;
+
+        PendingPhase(String phase, Future<?> future) {
+
+            this.phase = phase;
+            this.future = future;
+        }
+    }
+}
@@ -21,19 +21,17 @@ package org.wso2.carbon.identity.oauth2.listener;
 import org.wso2.carbon.identity.oauth.IdentityOAuthAdminException;
 import org.wso2.carbon.identity.oauth.OAuthUtil;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.cache.TenantStatusCache;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
+import org.wso2.carbon.identity.oauth2.dao.StreamingAccessTokenRevoker;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
-import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
 import org.wso2.carbon.identity.oauth2.model.AuthzCodeDO;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.stratos.common.beans.TenantInfoBean;
 import org.wso2.carbon.stratos.common.exception.StratosException;
 import org.wso2.carbon.stratos.common.listeners.TenantMgtListener;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 
 /**
  * This is an implementation of TenantMgtListener. This uses
@@ -70,13 +68,15 @@ public class TenantCreationEventListener implements TenantMgtListener {
     }
 
     @Override
-    public void onTenantActivation(int i) throws StratosException {
+    public void onTenantActivation(int tenantId) throws StratosException {
 
+        TenantStatusCache.getInstance().clearTenantStatus(tenantId);
     }
 
     @Override
     public void onTenantDeactivation(int tenantId) throws StratosException {
 
+        TenantStatusCache.getInstance().clearTenantStatus(tenantId);
         revokeTokens(tenantId);
     }
 
@@ -94,6 +94,7 @@ public class TenantCreationEventListener implements TenantMgtListener {
     @Override
     public void onPreDelete(int tenantId) throws StratosException {
 
+        TenantStatusCache.getInstance().clearTenantStatus(tenantId);
         revokeTokens(tenantId);
 
         try {
@@ -106,36 +107,11 @@ public class TenantCreationEventListener implements TenantMgtListener {
     private void revokeTokens(int tenantId) throws StratosException {
 
         try {
-            Set<AccessTokenDO> accessTokenDOs = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
-                    .getAccessTokensByTenant(tenantId);
-            Map<String, AccessTokenDO> latestAccessTokens = new HashMap<>();
-
-            for (AccessTokenDO accessTokenDO : accessTokenDOs) {
-                String keyString = accessTokenDO.getConsumerKey() + ":" + accessTokenDO.getAuthzUser() + ":" +
-                        OAuth2Util.buildScopeString(accessTokenDO.getScope()) + ":"
-                        + accessTokenDO.getAuthzUser().getFederatedIdPName();
-                AccessTokenDO accessTokenDOFromMap = latestAccessTokens.get(keyString);
-                if (accessTokenDOFromMap != null) {
-                    if (accessTokenDOFromMap.getIssuedTime().before(accessTokenDO.getIssuedTime())) {
-                        latestAccessTokens.put(keyString, accessTokenDO);
-                    }
-                } else {
-                    latestAccessTokens.put(keyString, accessTokenDO);
-                }
-
-                OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser(),
-                        OAuth2Util.buildScopeString(accessTokenDO.getScope()));
-                OAuthUtil.clearOAuthCache(accessTokenDO.getConsumerKey(), accessTokenDO.getAuthzUser());
-                OAuthUtil.clearOAuthCache(accessTokenDO);
-            }
-
-            OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO().revokeAccessTokens(
-                    latestAccessTokens
-                            .values()
-                            .stream()
-                            .map(AccessTokenDO::getAccessToken)
-                            .toArray(String[]::new),
-                    OAuth2Util.isHashEnabled());
+            // Tokens are revoked in batches while they are streamed, instead of collecting all tokens of the tenant.
+            StreamingAccessTokenRevoker tokenRevoker = new StreamingAccessTokenRevoker();
+            OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
+                    .streamAccessTokensByTenant(tenantId, tokenRevoker);
+            tokenRevoker.flush();
 
             List<AuthzCodeDO> latestAuthzCodes = OAuthTokenPersistenceFactory.getInstance()
                     .getAuthorizationCodeDAO().getLatestAuthorizationCodesByTenant(tenantId);
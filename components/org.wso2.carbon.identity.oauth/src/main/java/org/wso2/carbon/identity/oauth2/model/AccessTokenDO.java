@@ -21,10 +21,23 @@ package org.wso2.carbon.identity.oauth2.model;
 import org.wso2.carbon.base.MultitenantConstants;
 import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
 import org.wso2.carbon.identity.oauth.cache.CacheEntry;
+import org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.sql.Timestamp;
 
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readString;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readStringArray;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readTimestamp;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.readVersion;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeString;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeStringArray;
+import static org.wso2.carbon.identity.oauth.cache.CompactSerializationUtil.writeTimestamp;
+
 /**
  * Access token data object.
  */
@@ -303,4 +316,101 @@ public class AccessTokenDO extends CacheEntry {
 
         this.tokenBinding = tokenBinding;
     }
+
+    // Only replaces instances of this class. Subclasses keep the default Java serialization.
+    private Object writeReplace() {
+
+        if (CompactSerializationUtil.isCompactSerializationEnabled()) {
+            return new SerializedForm(this);
+        }
+        return this;
+    }
+
+    /**
+     * Compact serialized form of an access token.
+     */
+    private static final class SerializedForm implements Externalizable {
+
+        private static final long serialVersionUID = 4382194867153208853L;
+        private static final byte VERSION = 1;
+
+        private AccessTokenDO accessTokenDO;
+
+        public SerializedForm() {
+
+        }
+
+        SerializedForm(AccessTokenDO accessTokenDO) {
+
+            this.accessTokenDO = accessTokenDO;
+        }
+
+        @Override
+        public void writeExternal(ObjectOutput out) throws IOException {
+
+            AccessTokenDO token = accessTokenDO;
+            out.writeByte(VERSION);
+            writeString(out, token.consumerKey);
+            writeStringArray(out, token.scope);
+            writeString(out, token.tokenState);
+            writeString(out, token.refreshToken);
+            writeString(out, token.tokenId);
+            writeString(out, token.accessToken);
+            writeString(out, token.authorizationCode);
+            writeString(out, token.grantType);
+            out.writeBoolean(token.isConsentedToken);
+            writeTimestamp(out, token.issuedTime);
+            writeTimestamp(out, token.refreshTokenIssuedTime);
+            out.writeLong(token.validityPeriod);
+            out.writeLong(token.validityPeriodInMillis);
+            out.writeLong(token.refreshTokenValidityPeriod);
+            out.writeLong(token.refreshTokenValidityPeriodInMillis);
+            out.writeInt(token.tenantID);
+            writeString(out, token.tokenType);
+            TokenBinding binding = token.tokenBinding;
+            out.writeBoolean(binding != null);
+            if (binding != null) {
+                writeString(out, binding.getTokenId());
+                writeString(out, binding.getBindingType());
+                writeString(out, binding.getBindingReference());
+                writeString(out, binding.getBindingValue());
+            }
+            out.writeObject(token.authzUser);
+        }
+
+        @Override
+        public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+
+            readVersion(in, VERSION, AccessTokenDO.class.getName());
+            AccessTokenDO token = new AccessTokenDO();
+            token.consumerKey = readString(in);
+            token.scope = readStringArray(in);
+            token.tokenState = readString(in);
+            token.refreshToken = readString(in);
+            token.tokenId = readString(in);
+            token.accessToken = readString(in);
+            token.authorizationCode = readString(in);
+            token.grantType = readString(in);
+            token.isConsentedToken = in.readBoolean();
+            token.issuedTime = readTimestamp(in);
+            token.refreshTokenIssuedTime = readTimestamp(in);
+            token.validityPeriod = in.readLong();
+            token.validityPeriodInMillis = in.readLong();
+            token.refreshTokenValidityPeriod = in.readLong();
+            token.refreshTokenValidityPeriodInMillis = in.readLong();
+            token.tenantID = in.readInt();
+            token.tokenType = readString(in);
+            if (in.readBoolean()) {
+                token.tokenBinding = new TokenBinding(readString(in), readString(in), readString(in),
+                        readString(in));
+            }
+            token.authzUser = (AuthenticatedUser) in.readObject();
+            accessTokenDO = token;
+        }
+
+        private Object readResolve() {
+
+            return accessTokenDO;
+        }
+    }
 }
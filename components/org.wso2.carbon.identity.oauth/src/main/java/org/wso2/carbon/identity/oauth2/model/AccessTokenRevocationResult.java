@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of revoking a set of access tokens in bulk, reported per token.
+ */
+public class AccessTokenRevocationResult {
+
+    /**
+     * Outcome of revoking a single access token.
+     */
+    public enum Outcome {
+
+        /**
+         * The token was found in the token store and marked as revoked.
+         */
+        REVOKED,
+
+        /**
+         * No token was found in the token store for the given value.
+         */
+        NOT_FOUND
+    }
+
+    private final Map<String, Outcome> outcomes = new LinkedHashMap<>();
+    private final List<String> revokedTokenIds = new ArrayList<>();
+
+    /**
+     * Record a token that has been revoked.
+     *
+     * @param token   Token as given for revocation.
+     * @param tokenId Id of the revoked token.
+     */
+    public void addRevokedToken(String token, String tokenId) {
+
+        outcomes.put(token, Outcome.REVOKED);
+        revokedTokenIds.add(tokenId);
+    }
+
+    /**
+     * Record a token that could not be found in the token store.
+     *
+     * @param token Token as given for revocation.
+     */
+    public void addNotFoundToken(String token) {
+
+        outcomes.put(token, Outcome.NOT_FOUND);
+    }
+
+    /**
+     * Get the outcome of the given token.
+     *
+     * @param token Token as given for revocation.
+     * @return Outcome of the token, or null if the token was not part of the revocation.
+     */
+    public Outcome getOutcome(String token) {
+
+        return outcomes.get(token);
+    }
+
+    public Map<String, Outcome> getOutcomes() {
+
+        return Collections.unmodifiableMap(outcomes);
+    }
+
+    public List<String> getRevokedTokenIds() {
+
+        return Collections.unmodifiableList(revokedTokenIds);
+    }
+
+    public int getRevokedTokenCount() {
+
+        return revokedTokenIds.size();
+    }
+}
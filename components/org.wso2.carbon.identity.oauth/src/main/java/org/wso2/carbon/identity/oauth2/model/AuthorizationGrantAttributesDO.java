@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.model;
+
+/**
+ * Encoded authorization grant attributes of an access token or an authorization code, as kept in the authorization
+ * grant attribute store. Rows are keyed by the hash of the token or code and expire together with it. A pending
+ * removal is represented by an instance without attributes.
+ */
+public class AuthorizationGrantAttributesDO {
+
+    private final String keyHash;
+    private final int partition;
+    private final byte[] attributes;
+    private final long expiryTime;
+
+    public AuthorizationGrantAttributesDO(String keyHash, int partition, byte[] attributes, long expiryTime) {
+
+        this.keyHash = keyHash;
+        this.partition = partition;
+        this.attributes = attributes;
+        this.expiryTime = expiryTime;
+    }
+
+    public String getKeyHash() {
+
+        return keyHash;
+    }
+
+    public int getPartition() {
+
+        return partition;
+    }
+
+    public byte[] getAttributes() {
+
+        return attributes;
+    }
+
+    /**
+     * Get the time after which the attributes are no longer served.
+     *
+     * @return Expiry time in milliseconds since the epoch.
+     */
+    public long getExpiryTime() {
+
+        return expiryTime;
+    }
+
+    /**
+     * Check whether this instance represents the removal of the attributes.
+     *
+     * @return true if the attributes are to be removed.
+     */
+    public boolean isRemoval() {
+
+        return attributes == null;
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.model;
+
+import java.sql.Timestamp;
+
+/**
+ * An application authorized by a user for a distinct set of scopes, together with the latest access token issued
+ * to the user for that set of scopes.
+ */
+public class AuthorizedAppDO {
+
+    private final String consumerKey;
+    private final String applicationName;
+    private final String[] scope;
+    private final String latestTokenId;
+    private final Timestamp latestTokenIssuedTime;
+
+    public AuthorizedAppDO(String consumerKey, String applicationName, String[] scope, String latestTokenId,
+                           Timestamp latestTokenIssuedTime) {
+
+        this.consumerKey = consumerKey;
+        this.applicationName = applicationName;
+        this.scope = scope;
+        this.latestTokenId = latestTokenId;
+        this.latestTokenIssuedTime = latestTokenIssuedTime;
+    }
+
+    public String getConsumerKey() {
+
+        return consumerKey;
+    }
+
+    public String getApplicationName() {
+
+        return applicationName;
+    }
+
+    public String[] getScope() {
+
+        return scope;
+    }
+
+    public String getLatestTokenId() {
+
+        return latestTokenId;
+    }
+
+    public Timestamp getLatestTokenIssuedTime() {
+
+        return latestTokenIssuedTime;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.model;
+
+import java.sql.Timestamp;
+
+/**
+ * A job revoking the active access tokens of an application, of a user for an application, or of a user for an
+ * application bound to a token binding reference. Jobs are persisted so that their progress can be queried and so
+ * that incomplete jobs are resumed after a restart.
+ */
+public class TokenRevocationJobDO {
+
+    /**
+     * States of a token revocation job.
+     */
+    public enum Status {
+        PENDING, RUNNING, COMPLETED, FAILED
+    }
+
+    /**
+     * Reasons for revoking the tokens of a job, which decide the listeners notified of the revoked tokens.
+     */
+    public enum Type {
+        // The tokens of an application are revoked, e.g. when the application is revoked or its secret is renewed.
+        APPLICATION,
+        // A user revoked the authorization given to an application.
+        RESOURCE_OWNER,
+        // The session the tokens are bound to is terminated.
+        TOKEN_BINDING
+    }
+
+    private String jobId;
+    private int tenantId;
+    private Type type;
+    private String consumerKey;
+    private String authzUser;
+    private String userDomain;
+    private String tokenBindingReference;
+    private Status status;
+    private int revokedTokenCount;
+    private String errorMessage;
+    private Timestamp timeCreated;
+    private Timestamp lastUpdated;
+
+    public String getJobId() {
+
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+
+        this.jobId = jobId;
+    }
+
+    public int getTenantId() {
+
+        return tenantId;
+    }
+
+    public void setTenantId(int tenantId) {
+
+        this.tenantId = tenantId;
+    }
+
+    public Type getType() {
+
+        return type;
+    }
+
+    public void setType(Type type) {
+
+        this.type = type;
+    }
+
+    /**
+     * Get the consumer key of the application whose tokens are revoked.
+     *
+     * @return Consumer key.
+     */
+    public String getConsumerKey() {
+
+        return consumerKey;
+    }
+
+    public void setConsumerKey(String consumerKey) {
+
+        this.consumerKey = consumerKey;
+    }
+
+    /**
+     * Get the tenant aware username, without the user store domain, of the user whose tokens are revoked.
+     *
+     * @return Username, or null if the tokens of all users of the application are revoked.
+     */
+    public String getAuthzUser() {
+
+        return authzUser;
+    }
+
+    public void setAuthzUser(String authzUser) {
+
+        this.authzUser = authzUser;
+    }
+
+    public String getUserDomain() {
+
+        return userDomain;
+    }
+
+    public void setUserDomain(String userDomain) {
+
+        this.userDomain = userDomain;
+    }
+
+    /**
+     * Get the token binding reference of the tokens revoked by a {@link Type#TOKEN_BINDING} job.
+     *
+     * @return Token binding reference, or null if the tokens are not selected by their binding.
+     */
+    public String getTokenBindingReference() {
+
+        return tokenBindingReference;
+    }
+
+    public void setTokenBindingReference(String tokenBindingReference) {
+
+        this.tokenBindingReference = tokenBindingReference;
+    }
+
+    public Status getStatus() {
+
+        return status;
+    }
+
+    public void setStatus(Status status) {
+
+        this.status = status;
+    }
+
+    public int getRevokedTokenCount() {
+
+        return revokedTokenCount;
+    }
+
+    public void setRevokedTokenCount(int revokedTokenCount) {
+
+        this.revokedTokenCount = revokedTokenCount;
+    }
+
+    public String getErrorMessage() {
+
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+
+        this.errorMessage = errorMessage;
+    }
+
+    public Timestamp getTimeCreated() {
+
+        return timeCreated;
+    }
+
+    public void setTimeCreated(Timestamp timeCreated) {
+
+        this.timeCreated = timeCreated;
+    }
+
+    public Timestamp getLastUpdated() {
+
+        return lastUpdated;
+    }
+
+    public void setLastUpdated(Timestamp lastUpdated) {
+
+        this.lastUpdated = lastUpdated;
+    }
+}
@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.revocation;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.OAuthUtil;
+import org.wso2.carbon.identity.oauth.cache.OAuthCache;
+import org.wso2.carbon.identity.oauth.cache.OAuthCacheKey;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
+import org.wso2.carbon.identity.oauth.dto.OAuthAppRevocationRequestDTO;
+import org.wso2.carbon.identity.oauth.dto.OAuthRevocationRequestDTO;
+import org.wso2.carbon.identity.oauth.dto.OAuthRevocationResponseDTO;
+import org.wso2.carbon.identity.oauth.event.OAuthEventInterceptor;
+import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
+import org.wso2.carbon.identity.oauth2.dao.TokenRevocationJobDAO;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.TokenRevocationJobDO;
+import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
+import org.wso2.carbon.identity.oauth2.util.OAuth2TokenUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.wso2.carbon.identity.oauth2.util.OAuth2ConfigUtil.readConfigValue;
+import static org.wso2.carbon.identity.oauth2.util.OAuth2Util.buildScopeString;
+
+/**
+ * Revokes the tokens of applications and users in the background. Instead of loading every active token of the
+ * target into memory and revoking them within the request, a job is persisted and processed in chunks: each chunk
+ * of active tokens is revoked with a single set based update, over every token partition the target may have tokens
+ * in, and the revoked tokens are then cleared from the caches. The progress of a job is recorded after each chunk.
+ * <p>
+ * The listeners of the revocation are triggered with each chunk of tokens revoked by the job, depending on the
+ * {@link TokenRevocationJobDO.Type} of the job: the application token revocation listeners, the resource owner
+ * revocation listeners, or the system revocation listeners for tokens revoked on session termination.
+ * <p>
+ * Jobs that were pending or running when a node went down are resumed by any node once they have not made progress
+ * for the stale job timeout. Revocation is idempotent, hence resuming a job only revokes the tokens that are still
+ * active.
+ * <p>
+ * Token revocation jobs are disabled by default and can be enabled with {@code OAuth.TokenRevocationJob.Enable}.
+ */
+public class TokenRevocationJobManager {
+
+    private static final Log log = LogFactory.getLog(TokenRevocationJobManager.class);
+
+    private static final String TOKEN_REVOCATION_JOB_ENABLE = "OAuth.TokenRevocationJob.Enable";
+    private static final String TOKEN_REVOCATION_JOB_CHUNK_SIZE = "OAuth.TokenRevocationJob.ChunkSize";
+    private static final String TOKEN_REVOCATION_JOB_POOL_SIZE = "OAuth.TokenRevocationJob.PoolSize";
+    private static final String TOKEN_REVOCATION_JOB_STALE_JOB_TIMEOUT = "OAuth.TokenRevocationJob.StaleJobTimeout";
+
+    private static final int DEFAULT_CHUNK_SIZE = 500;
+    // Some databases limit the number of elements of an IN list to 1000.
+    private static final int MAX_CHUNK_SIZE = 1000;
+    private static final int DEFAULT_POOL_SIZE = 2;
+    private static final int DEFAULT_STALE_JOB_TIMEOUT_IN_SECONDS = 300;
+    private static final String NONE = "NONE";
+
+    private static volatile TokenRevocationJobManager instance;
+
+    private final boolean enabled;
+    private final int chunkSize;
+    private final long staleJobTimeoutInMillis;
+    private final Executor executor;
+
+    TokenRevocationJobManager(boolean enabled, int chunkSize, long staleJobTimeoutInMillis, Executor executor) {
+
+        this.enabled = enabled;
+        this.chunkSize = chunkSize;
+        this.staleJobTimeoutInMillis = staleJobTimeoutInMillis;
+        this.executor = executor;
+    }
+
+    public static TokenRevocationJobManager getInstance() {
+
+        if (instance == null) {
+            synchronized (TokenRevocationJobManager.class) {
+                if (instance == null) {
+                    boolean enabled = Boolean.parseBoolean(IdentityUtil.getProperty(TOKEN_REVOCATION_JOB_ENABLE));
+                    Executor executor = null;
+                    if (enabled) {
+                        int poolSize = readConfigValue(TOKEN_REVOCATION_JOB_POOL_SIZE, DEFAULT_POOL_SIZE);
+                        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                                new LinkedBlockingQueue<>(), runnable -> {
+                            Thread thread = new Thread(runnable, "TokenRevocationJob");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                    }
+                    instance = new TokenRevocationJobManager(enabled,
+                            Math.min(readConfigValue(TOKEN_REVOCATION_JOB_CHUNK_SIZE, DEFAULT_CHUNK_SIZE),
+                                    MAX_CHUNK_SIZE),
+                            TimeUnit.SECONDS.toMillis(readConfigValue(TOKEN_REVOCATION_JOB_STALE_JOB_TIMEOUT,
+                                    DEFAULT_STALE_JOB_TIMEOUT_IN_SECONDS)), executor);
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether tokens are revoked by background jobs.
+     *
+     * @return true if token revocation jobs are enabled.
+     */
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Submit a job revoking all active tokens of an application.
+     *
+     * @param consumerKey Consumer key of the application.
+     * @param tenantId    Tenant id of the application.
+     * @return Submitted job.
+     * @throws IdentityOAuth2Exception If an error occurs while persisting the job.
+     */
+    public TokenRevocationJobDO submitApplicationJob(String consumerKey, int tenantId)
+            throws IdentityOAuth2Exception {
+
+        return submit(newJob(TokenRevocationJobDO.Type.APPLICATION, tenantId, consumerKey, null, null, null));
+    }
+
+    /**
+     * Submit a job revoking the active tokens a user has authorized an application with. The job also revokes the
+     * OAuth consent the user has given to the application.
+     *
+     * @param user        User whose tokens are revoked.
+     * @param consumerKey Consumer key of the application.
+     * @return Submitted job.
+     * @throws IdentityOAuth2Exception If an error occurs while persisting the job.
+     */
+    public TokenRevocationJobDO submitResourceOwnerJob(AuthenticatedUser user, String consumerKey)
+            throws IdentityOAuth2Exception {
+
+        return submit(newJob(TokenRevocationJobDO.Type.RESOURCE_OWNER,
+                IdentityTenantUtil.getTenantId(user.getTenantDomain()), consumerKey, user.getUserName(),
+                OAuth2Util.getUserStoreDomain(user), null));
+    }
+
+    /**
+     * Submit a job revoking the active tokens of a user for an application, which are bound to the given token
+     * binding reference.
+     *
+     * @param user                  User whose tokens are revoked.
+     * @param consumerKey           Consumer key of the application.
+     * @param tokenBindingReference Token binding reference of the tokens.
+     * @return Submitted job.
+     * @throws IdentityOAuth2Exception If an error occurs while persisting the job.
+     */
+    public TokenRevocationJobDO submitTokenBindingJob(AuthenticatedUser user, String consumerKey,
+                                                      String tokenBindingReference) throws IdentityOAuth2Exception {
+
+        return submit(newJob(TokenRevocationJobDO.Type.TOKEN_BINDING,
+                IdentityTenantUtil.getTenantId(user.getTenantDomain()), consumerKey, user.getUserName(),
+                OAuth2Util.getUserStoreDomain(user), tokenBindingReference));
+    }
+
+    /**
+     * Get the current state of a token revocation job.
+     *
+     * @param jobId    Job id.
+     * @param tenantId Tenant id the job belongs to.
+     * @return Token revocation job, or null if there is no such job in the tenant.
+     * @throws IdentityOAuth2Exception If an error occurs while retrieving the job.
+     */
+    public TokenRevocationJobDO getJob(String jobId, int tenantId) throws IdentityOAuth2Exception {
+
+        return getTokenRevocationJobDAO().getJob(jobId, tenantId);
+    }
+
+    /**
+     * Resume the jobs that are pending or that have been abandoned while running. Jobs that are actively processed
+     * by another node are skipped when they are claimed.
+     */
+    public void resumeIncompleteJobs() {
+
+        if (!enabled) {
+            return;
+        }
+        try {
+            List<TokenRevocationJobDO> jobs = getTokenRevocationJobDAO().getIncompleteJobs();
+            for (TokenRevocationJobDO job : jobs) {
+                executor.execute(() -> process(job));
+            }
+            if (log.isDebugEnabled() && !jobs.isEmpty()) {
+                log.debug("Scheduled " + jobs.size() + " incomplete token revocation job(s) to be resumed.");
+            }
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while resuming incomplete token revocation jobs.", e);
+        }
+    }
+
+    /**
+     * Get the data access object of the token revocation jobs.
+     *
+     * @return Token revocation job DAO.
+     */
+    TokenRevocationJobDAO getTokenRevocationJobDAO() {
+
+        return OAuthTokenPersistenceFactory.getInstance().getTokenRevocationJobDAO();
+    }
+
+    private TokenRevocationJobDO submit(TokenRevocationJobDO job) throws IdentityOAuth2Exception {
+
+        if (!enabled) {
+            throw new IdentityOAuth2Exception("Token revocation jobs are not enabled.");
+        }
+        getTokenRevocationJobDAO().addJob(job);
+        executor.execute(() -> process(job));
+        if (log.isDebugEnabled()) {
+            log.debug("Submitted " + job.getType() + " token revocation job: " + job.getJobId());
+        }
+        return job;
+    }
+
+    private void process(TokenRevocationJobDO job) {
+
+        TokenRevocationJobDAO tokenRevocationJobDAO = getTokenRevocationJobDAO();
+        int revokedTokenCount = job.getRevokedTokenCount();
+        try {
+            Timestamp staleBefore = new Timestamp(System.currentTimeMillis() - staleJobTimeoutInMillis);
+            if (!tokenRevocationJobDAO.claimJob(job.getJobId(), staleBefore)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Token revocation job: " + job.getJobId() + " is processed by another node.");
+                }
+                return;
+            }
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while claiming token revocation job: " + job.getJobId(), e);
+            return;
+        }
+
+        String tenantDomain = IdentityTenantUtil.getTenantDomain(job.getTenantId());
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(tenantDomain, true);
+            for (String userStoreDomain : getTokenPartitions(job)) {
+                revokedTokenCount = revokeTokensOfPartition(job, userStoreDomain, revokedTokenCount);
+            }
+            tokenRevocationJobDAO.updateJob(job.getJobId(), TokenRevocationJobDO.Status.COMPLETED,
+                    revokedTokenCount, null);
+            if (log.isDebugEnabled()) {
+                log.debug("Token revocation job: " + job.getJobId() + " revoked " + revokedTokenCount +
+                        " token(s).");
+            }
+        } catch (IdentityOAuth2Exception | RuntimeException e) {
+            log.error("Error while processing token revocation job: " + job.getJobId(), e);
+            try {
+                tokenRevocationJobDAO.updateJob(job.getJobId(), TokenRevocationJobDO.Status.FAILED,
+                        revokedTokenCount, e.getMessage());
+            } catch (IdentityOAuth2Exception ex) {
+                log.error("Error while marking token revocation job: " + job.getJobId() + " as failed.", ex);
+            }
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private int revokeTokensOfPartition(TokenRevocationJobDO job, String userStoreDomain, int revokedTokenCount)
+            throws IdentityOAuth2Exception {
+
+        TokenRevocationJobDAO tokenRevocationJobDAO = getTokenRevocationJobDAO();
+        List<String> previousTokenIds = Collections.emptyList();
+        while (true) {
+            List<AccessTokenDO> tokens = tokenRevocationJobDAO.getActiveTokensToRevoke(job, userStoreDomain,
+                    chunkSize);
+            if (tokens.isEmpty()) {
+                return revokedTokenCount;
+            }
+            List<String> tokenIds = new ArrayList<>(tokens.size());
+            for (AccessTokenDO token : tokens) {
+                tokenIds.add(token.getTokenId());
+                if (job.getType() == TokenRevocationJobDO.Type.TOKEN_BINDING) {
+                    OAuthUtil.invokePreRevocationBySystemListeners(token, Collections.emptyMap());
+                }
+            }
+            Set<String> revokedTokenIds = new HashSet<>(tokenRevocationJobDAO.revokeTokens(tokenIds,
+                    userStoreDomain));
+            if (revokedTokenIds.isEmpty() && tokenIds.equals(previousTokenIds)) {
+                // The same tokens are reported active but cannot be revoked, stop instead of looping forever.
+                throw new IdentityOAuth2Exception("Unable to revoke " + tokenIds.size() + " active token(s) of " +
+                        "token revocation job: " + job.getJobId());
+            }
+            previousTokenIds = tokenIds;
+
+            // Caches are cleared after the tokens are revoked so that they cannot be cached again in between.
+            List<AccessTokenDO> revokedTokens = new ArrayList<>(revokedTokenIds.size());
+            List<String> revokedAccessTokens = new ArrayList<>(revokedTokenIds.size());
+            for (AccessTokenDO token : tokens) {
+                clearCache(token);
+                if (revokedTokenIds.contains(token.getTokenId())) {
+                    revokedTokens.add(token);
+                    revokedAccessTokens.add(token.getAccessToken());
+                }
+            }
+            if (!revokedTokens.isEmpty()) {
+                OAuth2TokenUtil.postUpdateAccessTokens(revokedAccessTokens,
+                        OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+                triggerPostRevocationListeners(job, revokedTokens);
+            }
+
+            revokedTokenCount += revokedTokens.size();
+            tokenRevocationJobDAO.updateJob(job.getJobId(), TokenRevocationJobDO.Status.RUNNING, revokedTokenCount,
+                    null);
+        }
+    }
+
+    private void triggerPostRevocationListeners(TokenRevocationJobDO job, List<AccessTokenDO> revokedTokens)
+            throws IdentityOAuth2Exception {
+
+        if (job.getType() == TokenRevocationJobDO.Type.TOKEN_BINDING) {
+            for (AccessTokenDO revokedToken : revokedTokens) {
+                OAuthUtil.invokePostRevocationBySystemListeners(revokedToken, Collections.emptyMap());
+            }
+            return;
+        }
+        if (job.getType() == TokenRevocationJobDO.Type.RESOURCE_OWNER) {
+            revokeResourceOwnerConsents(job, revokedTokens);
+        }
+
+        OAuthEventInterceptor oAuthEventInterceptorProxy = OAuthComponentServiceHolder.getInstance()
+                .getOAuthEventInterceptorProxy();
+        if (oAuthEventInterceptorProxy == null || !oAuthEventInterceptorProxy.isEnabled()) {
+            return;
+        }
+        OAuthRevocationResponseDTO revokeRespDTO = new OAuthRevocationResponseDTO();
+        revokeRespDTO.setRevocationJobId(job.getJobId());
+        if (job.getType() == TokenRevocationJobDO.Type.APPLICATION) {
+            OAuthAppRevocationRequestDTO revokeRequestDTO = new OAuthAppRevocationRequestDTO();
+            revokeRequestDTO.setConsumerKey(job.getConsumerKey());
+            try {
+                oAuthEventInterceptorProxy.onPostTokenRevocationByApplication(revokeRequestDTO, revokeRespDTO,
+                        revokedTokens, new HashMap<>());
+            } catch (IdentityOAuth2Exception e) {
+                log.error("Error occurred when triggering post revocation listener of token revocation job: " +
+                        job.getJobId(), e);
+            }
+            return;
+        }
+        OAuthRevocationRequestDTO revokeRequestDTO = new OAuthRevocationRequestDTO();
+        revokeRequestDTO.setConsumerKey(job.getConsumerKey());
+        revokeRequestDTO.setApps(new String[]{getApplicationName(job)});
+        for (AccessTokenDO revokedToken : revokedTokens) {
+            try {
+                oAuthEventInterceptorProxy.onPostTokenRevocationByResourceOwner(revokeRequestDTO, revokeRespDTO,
+                        revokedToken, new HashMap<>());
+            } catch (IdentityOAuth2Exception e) {
+                log.error("Error occurred with post revocation listener of token revocation job: " +
+                        job.getJobId(), e);
+            }
+        }
+    }
+
+    private void revokeResourceOwnerConsents(TokenRevocationJobDO job, List<AccessTokenDO> revokedTokens)
+            throws IdentityOAuth2Exception {
+
+        String applicationName = getApplicationName(job);
+        String tenantDomain = IdentityTenantUtil.getTenantDomain(job.getTenantId());
+        Set<String> subjectIdentifiers = new LinkedHashSet<>();
+        for (AccessTokenDO revokedToken : revokedTokens) {
+            subjectIdentifiers.add(revokedToken.getAuthzUser().getAuthenticatedSubjectIdentifier());
+        }
+        for (String subjectIdentifier : subjectIdentifiers) {
+            OAuthTokenPersistenceFactory.getInstance().getTokenManagementDAO()
+                    .revokeOAuthConsentByApplicationAndUser(subjectIdentifier, tenantDomain, applicationName);
+        }
+    }
+
+    private String getApplicationName(TokenRevocationJobDO job) throws IdentityOAuth2Exception {
+
+        try {
+            return OAuth2Util.getAppInformationByClientId(job.getConsumerKey()).getApplicationName();
+        } catch (InvalidOAuthClientException e) {
+            throw new IdentityOAuth2Exception("Error while retrieving the application of token revocation job: " +
+                    job.getJobId(), e);
+        }
+    }
+
+    private Set<String> getTokenPartitions(TokenRevocationJobDO job) throws IdentityOAuth2Exception {
+
+        Set<String> userStoreDomains = new LinkedHashSet<>();
+        if (job.getAuthzUser() != null) {
+            userStoreDomains.add(job.getUserDomain());
+            return userStoreDomains;
+        }
+        userStoreDomains.add(IdentityUtil.getPrimaryDomainName());
+        if (OAuth2Util.checkAccessTokenPartitioningEnabled() && OAuth2Util.checkUserNameAssertionEnabled()) {
+            userStoreDomains.addAll(OAuth2Util.getAvailableUserStoreDomainMappings().keySet());
+        }
+        return userStoreDomains;
+    }
+
+    private void clearCache(AccessTokenDO accessTokenDO) {
+
+        String consumerKey = accessTokenDO.getConsumerKey();
+        AuthenticatedUser authenticatedUser = accessTokenDO.getAuthzUser();
+        String scope = buildScopeString(accessTokenDO.getScope());
+        TokenBinding tokenBinding = accessTokenDO.getTokenBinding();
+        String tokenBindingReference = (tokenBinding != null &&
+                StringUtils.isNotBlank(tokenBinding.getBindingReference())) ?
+                tokenBinding.getBindingReference() : NONE;
+
+        OAuthCache.getInstance().clearCacheEntry(new OAuthCacheKey(accessTokenDO.getAccessToken()));
+        OAuthUtil.clearOAuthCache(consumerKey, authenticatedUser, scope, tokenBindingReference);
+        OAuthUtil.clearOAuthCache(consumerKey, authenticatedUser, scope);
+        OAuthUtil.clearOAuthCache(consumerKey, authenticatedUser);
+        OAuthUtil.clearOAuthCache(accessTokenDO);
+    }
+
+    private static TokenRevocationJobDO newJob(TokenRevocationJobDO.Type type, int tenantId, String consumerKey,
+                                               String authzUser, String userDomain, String tokenBindingReference) {
+
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        TokenRevocationJobDO job = new TokenRevocationJobDO();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setTenantId(tenantId);
+        job.setType(type);
+        job.setConsumerKey(consumerKey);
+        job.setAuthzUser(authzUser);
+        job.setUserDomain(userDomain);
+        job.setTokenBindingReference(tokenBindingReference);
+        job.setStatus(TokenRevocationJobDO.Status.PENDING);
+        job.setTimeCreated(now);
+        job.setLastUpdated(now);
+        return job;
+    }
+}
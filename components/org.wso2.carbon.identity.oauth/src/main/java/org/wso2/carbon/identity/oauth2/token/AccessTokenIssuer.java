@@ -61,6 +61,9 @@ import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinder;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
 import org.wso2.carbon.identity.oauth2.token.handlers.grant.AuthorizationGrantHandler;
 import org.wso2.carbon.identity.oauth2.token.handlers.response.AccessTokenResponseHandler;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceStage;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenRequestMetrics;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.oauth2.validators.JDBCPermissionBasedInternalScopeValidator;
 import org.wso2.carbon.identity.oauth2.validators.RoleBasedInternalScopeValidator;
@@ -96,7 +99,7 @@ public class AccessTokenIssuer {
 
     private static AccessTokenIssuer instance;
     private static final Log log = LogFactory.getLog(AccessTokenIssuer.class);
-    private Map<String, AuthorizationGrantHandler> authzGrantHandlers;
+    private volatile Map<String, AuthorizationGrantHandler> authzGrantHandlers;
     public static final String OAUTH_APP_DO = "OAuthAppDO";
 
     /**
@@ -105,6 +108,8 @@ public class AccessTokenIssuer {
     private AccessTokenIssuer() throws IdentityOAuth2Exception {
 
         authzGrantHandlers = OAuthServerConfiguration.getInstance().getSupportedGrantTypes();
+        OAuthServerConfiguration.addListener((previousConfiguration, configuration) ->
+                authzGrantHandlers = configuration.getSupportedGrantTypes());
         AppInfoCache appInfoCache = AppInfoCache.getInstance();
         if (appInfoCache != null) {
             if (log.isDebugEnabled()) {
@@ -146,6 +151,19 @@ public class AccessTokenIssuer {
     public OAuth2AccessTokenRespDTO issue(OAuth2AccessTokenReqDTO tokenReqDTO)
             throws IdentityException {
 
+        TokenRequestMetrics metrics = TokenIssuanceMetrics.startRequest(tokenReqDTO.getGrantType());
+        OAuth2AccessTokenRespDTO tokenRespDTO = null;
+        try {
+            tokenRespDTO = issueAccessToken(tokenReqDTO, metrics);
+            return tokenRespDTO;
+        } finally {
+            TokenIssuanceMetrics.endRequest(metrics, tokenRespDTO);
+        }
+    }
+
+    private OAuth2AccessTokenRespDTO issueAccessToken(OAuth2AccessTokenReqDTO tokenReqDTO,
+                                                      TokenRequestMetrics metrics) throws IdentityException {
+
         String grantType = tokenReqDTO.getGrantType();
         OAuth2AccessTokenRespDTO tokenRespDTO = null;
 
@@ -155,6 +173,7 @@ public class AccessTokenIssuer {
         boolean isRefreshRequest = GrantType.REFRESH_TOKEN.toString().equals(grantType);
 
         triggerPreListeners(tokenReqDTO, tokReqMsgCtx, isRefreshRequest);
+        metrics.endStage(TokenIssuanceStage.PRE_LISTENERS);
 
         OAuthClientAuthnContext oAuthClientAuthnContext = tokenReqDTO.getoAuthClientAuthnContext();
 
@@ -290,6 +309,7 @@ public class AccessTokenIssuer {
                     OAuthConstants.LogConstants.FAILED, "System error occurred.", "issue-access-token", null);
             error = e.getMessage();
         }
+        metrics.endStage(TokenIssuanceStage.CLIENT_VALIDATION);
 
         if (!isAuthorizedClient) {
 
@@ -327,6 +347,7 @@ public class AccessTokenIssuer {
                 errorCode = e.getErrorCode();
             }
         }
+        metrics.endStage(TokenIssuanceStage.VALIDATE_GRANT);
 
         AuthenticatedUser authenticatedUser = tokReqMsgCtx.getAuthorizedUser();
         if (authenticatedUser != null && authenticatedUser.isFederatedUser()) {
@@ -351,6 +372,7 @@ public class AccessTokenIssuer {
         }
 
         boolean isAuthorized = authzGrantHandler.authorizeAccessDelegation(tokReqMsgCtx);
+        metrics.endStage(TokenIssuanceStage.AUTHORIZE_ACCESS_DELEGATION);
         if (!isAuthorized) {
             if (log.isDebugEnabled()) {
                 log.debug("Invalid authorization for client Id : " + tokenReqDTO.getClientId());
@@ -363,6 +385,7 @@ public class AccessTokenIssuer {
         }
 
         boolean isValidScope = validateScope(tokReqMsgCtx);
+        metrics.endStage(TokenIssuanceStage.VALIDATE_SCOPE);
         if (!isValidScope) {
             if (log.isDebugEnabled()) {
                 log.debug("Invalid scope provided by client Id: " + tokenReqDTO.getClientId());
@@ -383,6 +406,7 @@ public class AccessTokenIssuer {
         }
 
         handleTokenBinding(tokenReqDTO, grantType, tokReqMsgCtx, oAuthAppDO);
+        metrics.endStage(TokenIssuanceStage.TOKEN_BINDING);
 
         try {
             // set the token request context to be used by downstream handlers. This is introduced as a fix for
@@ -392,16 +416,18 @@ public class AccessTokenIssuer {
             AuthenticatedUser authorizedUser = tokReqMsgCtx.getAuthorizedUser();
             if (authorizedUser.getAuthenticatedSubjectIdentifier() == null) {
                 authorizedUser.setAuthenticatedSubjectIdentifier(
-                        getSubjectClaim(getServiceProvider(tokReqMsgCtx.getOauth2AccessTokenReqDTO()), authorizedUser));
+                        getSubjectClaim(getServiceProvider(tokReqMsgCtx), authorizedUser));
             }
 
             tokenRespDTO = authzGrantHandler.issue(tokReqMsgCtx);
+            metrics.endStage(TokenIssuanceStage.ISSUE);
             if (tokenRespDTO.isError()) {
                 setResponseHeaders(tokReqMsgCtx, tokenRespDTO);
                 return tokenRespDTO;
             }
         } finally {
             triggerPostListeners(tokenReqDTO, tokenRespDTO, tokReqMsgCtx, isRefreshRequest);
+            metrics.endStage(TokenIssuanceStage.POST_LISTENERS);
             // clears the token request context.
             OAuth2Util.clearTokenRequestContext();
         }
@@ -435,7 +461,8 @@ public class AccessTokenIssuer {
 
         if (GrantType.AUTHORIZATION_CODE.toString().equals(grantType)) {
             // Should add user attributes to the cache before building the ID token.
-            addUserAttributesAgainstAccessToken(tokenReqDTO, tokenRespDTO);
+            addUserAttributesAgainstAccessToken(tokenReqDTO, tokenRespDTO, tokReqMsgCtx);
+            metrics.endStage(TokenIssuanceStage.USER_ATTRIBUTES);
         }
         if (tokReqMsgCtx.getScope() != null && OAuth2Util.isOIDCAuthzRequest(tokReqMsgCtx.getScope())) {
             if (log.isDebugEnabled()) {
@@ -452,6 +479,7 @@ public class AccessTokenIssuer {
                             "issue-id-token", null);
                 }
                 tokenRespDTO.setIDToken(idToken);
+                metrics.endStage(TokenIssuanceStage.ID_TOKEN);
             } catch (IDTokenValidationFailureException e) {
                 log.error(e.getMessage());
                 if (LoggerUtils.isDiagnosticLogsEnabled()) {
@@ -477,6 +505,7 @@ public class AccessTokenIssuer {
                 }
             }
         }
+        metrics.endStage(TokenIssuanceStage.RESPONSE_HANDLERS);
 
         if (GrantType.AUTHORIZATION_CODE.toString().equals(grantType)) {
             // Cache entry against the authorization code has no value beyond the token request.
@@ -522,7 +551,7 @@ public class AccessTokenIssuer {
         }
 
         String[] authorizedInternalScopes = new String[0];
-        boolean isManagementApp = getServiceProvider(tokenReqDTO).isManagementApp();
+        boolean isManagementApp = getServiceProvider(tokReqMsgCtx).isManagementApp();
         if (isManagementApp) {
             if (log.isDebugEnabled()) {
                 log.debug("Handling the internal scope validation.");
@@ -589,8 +618,15 @@ public class AccessTokenIssuer {
         return ArrayUtils.isEmpty(scopes) ? Collections.emptyList() : Arrays.asList(scopes);
     }
 
-    private ServiceProvider getServiceProvider(OAuth2AccessTokenReqDTO tokenReq) throws IdentityOAuth2Exception {
-        ServiceProvider serviceProvider;
+    private ServiceProvider getServiceProvider(OAuthTokenReqMessageContext tokReqMsgCtx)
+            throws IdentityOAuth2Exception {
+
+        ServiceProvider serviceProvider =
+                (ServiceProvider) tokReqMsgCtx.getProperty(OAuthConstants.SERVICE_PROVIDER_PROPERTY);
+        if (serviceProvider != null) {
+            return serviceProvider;
+        }
+        OAuth2AccessTokenReqDTO tokenReq = tokReqMsgCtx.getOauth2AccessTokenReqDTO();
         try {
             serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().getServiceProviderByClientId(
                     tokenReq.getClientId(), OAuthConstants.Scope.OAUTH2, tokenReq.getTenantDomain());
@@ -611,6 +647,7 @@ public class AccessTokenIssuer {
                     tokenReq.getTenantDomain());
         }
 
+        tokReqMsgCtx.addProperty(OAuthConstants.SERVICE_PROVIDER_PROPERTY, serviceProvider);
         return serviceProvider;
     }
 
@@ -904,9 +941,11 @@ public class AccessTokenIssuer {
      *
      * @param tokenReqDTO
      * @param tokenRespDTO
+     * @param tokReqMsgCtx
      */
     private void addUserAttributesAgainstAccessToken(OAuth2AccessTokenReqDTO tokenReqDTO,
-                                                     OAuth2AccessTokenRespDTO tokenRespDTO) {
+                                                     OAuth2AccessTokenRespDTO tokenRespDTO,
+                                                     OAuthTokenReqMessageContext tokReqMsgCtx) {
 
         AuthorizationGrantCacheKey oldCacheKey = new AuthorizationGrantCacheKey(getAuthorizationCode(tokenReqDTO));
         //checking getUserAttributesId value of cacheKey before retrieve entry from cache as it causes to NPE
@@ -926,6 +965,8 @@ public class AccessTokenIssuer {
                 }
                 authorizationGrantCacheEntry.setValidityPeriod(
                         TimeUnit.MILLISECONDS.toNanos(tokenRespDTO.getExpiresInMillis()));
+                authorizationGrantCacheEntry.setRefreshTokenValidityPeriodInMillis(
+                        tokReqMsgCtx.getRefreshTokenvalidityPeriod());
                 AuthorizationGrantCache.getInstance().addToCacheByToken(newCacheKey, authorizationGrantCacheEntry);
             }
         }
@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2ConfigUtil;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Keeps track of token requests of decoupled grants (device flow, CIBA) that are parked at the token endpoint while
+ * the user has not yet completed the authorization. When the grant transitions out of the pending state on this
+ * node, {@link #notifyCompletion(String, String)} wakes up the parked requests so that they can be re-processed
+ * immediately instead of waiting for the next client poll.
+ * <p>
+ * The registry is bounded. When the limit is reached, token requests are not parked and the client falls back to the
+ * regular polling behaviour. Completions that happen on another node of a cluster are not propagated; such parked
+ * requests are released when their timeout elapses.
+ */
+public class ParkedTokenRequestRegistry {
+
+    private static final Log log = LogFactory.getLog(ParkedTokenRequestRegistry.class);
+
+    /**
+     * Request attribute set on a token request that is re-processed after being parked. Grant handlers use this to
+     * skip the polling interval check since the server, not the client, decided when to re-process the request.
+     */
+    public static final String RESUMED_REQUEST_ATTRIBUTE = "ParkedTokenRequestResumed";
+
+    private static final String LONG_POLLING_ENABLE = "OAuth.TokenRequestLongPolling.Enable";
+    private static final String LONG_POLLING_TIMEOUT = "OAuth.TokenRequestLongPolling.Timeout";
+    private static final String LONG_POLLING_MAX_PARKED_REQUESTS = "OAuth.TokenRequestLongPolling.MaxParkedRequests";
+    private static final String LONG_POLLING_WAKEUP_POOL_SIZE = "OAuth.TokenRequestLongPolling.WakeupPoolSize";
+
+    private static final long DEFAULT_TIMEOUT_IN_SECONDS = 20;
+    private static final int DEFAULT_MAX_PARKED_REQUESTS = 1000;
+    private static final int DEFAULT_WAKEUP_POOL_SIZE = 4;
+    private static final String KEY_SEPARATOR = ":";
+
+    private static volatile ParkedTokenRequestRegistry instance;
+
+    private final boolean enabled;
+    private final long timeoutInMillis;
+    private final int maxParkedRequests;
+    private final ConcurrentMap<String, Queue<Runnable>> parkedRequests = new ConcurrentHashMap<>();
+    private final AtomicInteger parkedRequestCount = new AtomicInteger();
+    private final ExecutorService wakeupExecutor;
+
+    ParkedTokenRequestRegistry(boolean enabled, long timeoutInMillis, int maxParkedRequests, int wakeupPoolSize) {
+
+        this.enabled = enabled;
+        this.timeoutInMillis = timeoutInMillis;
+        this.maxParkedRequests = maxParkedRequests;
+        if (enabled) {
+            // Wake ups are re-processed outside the thread that completed the grant. When the pool is saturated the
+            // completing thread processes the wake up itself rather than dropping it.
+            this.wakeupExecutor = new ThreadPoolExecutor(wakeupPoolSize, wakeupPoolSize, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(maxParkedRequests), runnable -> {
+                Thread thread = new Thread(runnable, "ParkedTokenRequestWakeup");
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.CallerRunsPolicy());
+        } else {
+            this.wakeupExecutor = null;
+        }
+    }
+
+    public static ParkedTokenRequestRegistry getInstance() {
+
+        if (instance == null) {
+            synchronized (ParkedTokenRequestRegistry.class) {
+                if (instance == null) {
+                    instance = new ParkedTokenRequestRegistry(
+                            Boolean.parseBoolean(IdentityUtil.getProperty(LONG_POLLING_ENABLE)),
+                            TimeUnit.SECONDS.toMillis(OAuth2ConfigUtil.readConfigValue(LONG_POLLING_TIMEOUT,
+                                    DEFAULT_TIMEOUT_IN_SECONDS)),
+                            OAuth2ConfigUtil.readConfigValue(LONG_POLLING_MAX_PARKED_REQUESTS,
+                                    DEFAULT_MAX_PARKED_REQUESTS),
+                            OAuth2ConfigUtil.readConfigValue(LONG_POLLING_WAKEUP_POOL_SIZE, DEFAULT_WAKEUP_POOL_SIZE));
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether token requests of decoupled grants are allowed to be parked.
+     *
+     * @return true if long polling is enabled.
+     */
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Get the maximum time a token request is kept parked.
+     *
+     * @return Timeout in milliseconds.
+     */
+    public long getTimeoutInMillis() {
+
+        return timeoutInMillis;
+    }
+
+    /**
+     * Check whether there are any parked token requests. Callers use this to avoid resolving the grant key of a
+     * completed authorization when nobody is waiting for it.
+     *
+     * @return true if at least one token request is parked.
+     */
+    public boolean hasParkedRequests() {
+
+        return parkedRequestCount.get() > 0;
+    }
+
+    /**
+     * Park a token request until the grant identified by the given key completes.
+     *
+     * @param grantType Grant type of the token request.
+     * @param grantKey  Grant specific identifier (device_code, auth_req_id).
+     * @param onWakeup  Callback to re-process the token request.
+     * @return true if the request was parked, false if parking is disabled or the registry is full.
+     */
+    public boolean park(String grantType, String grantKey, Runnable onWakeup) {
+
+        if (!enabled || StringUtils.isBlank(grantKey)) {
+            return false;
+        }
+        if (parkedRequestCount.incrementAndGet() > maxParkedRequests) {
+            parkedRequestCount.decrementAndGet();
+            if (log.isDebugEnabled()) {
+                log.debug("Maximum number of parked token requests: " + maxParkedRequests + " reached. Token " +
+                        "request of grant type: " + grantType + " will not be parked.");
+            }
+            return false;
+        }
+        parkedRequests.compute(buildKey(grantType, grantKey), (key, callbacks) -> {
+            if (callbacks == null) {
+                callbacks = new ConcurrentLinkedQueue<>();
+            }
+            callbacks.add(onWakeup);
+            return callbacks;
+        });
+        return true;
+    }
+
+    /**
+     * Remove a parked token request without waking it up. Used when the parked request times out.
+     *
+     * @param grantType Grant type of the token request.
+     * @param grantKey  Grant specific identifier (device_code, auth_req_id).
+     * @param onWakeup  Callback registered when parking the request.
+     * @return true if the request was still parked, false if it has already been woken up.
+     */
+    public boolean unpark(String grantType, String grantKey, Runnable onWakeup) {
+
+        boolean[] removed = new boolean[1];
+        parkedRequests.computeIfPresent(buildKey(grantType, grantKey), (key, callbacks) -> {
+            removed[0] = callbacks.remove(onWakeup);
+            return callbacks.isEmpty() ? null : callbacks;
+        });
+        if (removed[0]) {
+            parkedRequestCount.decrementAndGet();
+        }
+        return removed[0];
+    }
+
+    /**
+     * Wake up all token requests parked on the given grant. Should be invoked once the grant leaves the pending state,
+     * either because the user authorized or denied the request.
+     *
+     * @param grantType Grant type of the completed grant.
+     * @param grantKey  Grant specific identifier (device_code, auth_req_id).
+     */
+    public void notifyCompletion(String grantType, String grantKey) {
+
+        if (!enabled || StringUtils.isBlank(grantKey)) {
+            return;
+        }
+        Queue<Runnable> callbacks = parkedRequests.remove(buildKey(grantType, grantKey));
+        if (callbacks == null) {
+            return;
+        }
+        for (Runnable callback : callbacks) {
+            parkedRequestCount.decrementAndGet();
+            wakeupExecutor.execute(callback);
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Woke up " + callbacks.size() + " parked token request(s) of grant type: " + grantType);
+        }
+    }
+
+    /**
+     * Check whether the given request is a token request re-processed after being parked.
+     *
+     * @param request Http servlet request of the token request.
+     * @return true if the request has been resumed.
+     */
+    public static boolean isResumedRequest(HttpServletRequest request) {
+
+        return request != null && Boolean.TRUE.equals(request.getAttribute(RESUMED_REQUEST_ATTRIBUTE));
+    }
+
+    private static String buildKey(String grantType, String grantKey) {
+
+        return grantType + KEY_SEPARATOR + grantKey;
+    }
+}
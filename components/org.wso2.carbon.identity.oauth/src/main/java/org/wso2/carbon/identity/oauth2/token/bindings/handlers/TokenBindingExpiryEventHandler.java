@@ -42,11 +42,13 @@ import org.wso2.carbon.identity.oauth2.OAuth2Constants;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.revocation.TokenRevocationJobManager;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinder;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -299,6 +301,9 @@ public class TokenBindingExpiryEventHandler extends AbstractEventHandler {
         if (log.isDebugEnabled() && CollectionUtils.isEmpty(boundTokens)) {
             log.debug("No bound tokens found for the the provided binding reference: " + tokenBindingReference);
         }
+        boolean isRevocationJobEnabled = TokenRevocationJobManager.getInstance().isEnabled();
+        // Users whose tokens bound to the reference are revoked by a job, by the consumer key of the application.
+        Map<String, AuthenticatedUser> revocationJobUsers = new LinkedHashMap<>();
         for (AccessTokenDO accessTokenDO : boundTokens) {
             String consumerKey = accessTokenDO.getConsumerKey();
             if (OAuth2Util.getAppInformationByClientId(consumerKey).isTokenRevocationWithIDPSessionTerminationEnabled()
@@ -314,9 +319,17 @@ public class TokenBindingExpiryEventHandler extends AbstractEventHandler {
                             && StringUtils.equalsIgnoreCase(
                                     user.getFederatedIdPName(), authenticatedUser.getFederatedIdPName())
                             && StringUtils.equalsIgnoreCase(user.getUserName(), authenticatedUser.getUserName())) {
-                        revokeFederatedTokens(consumerKey, user, accessTokenDO, tokenBindingReference);
+                        if (isRevocationJobEnabled) {
+                            revocationJobUsers.putIfAbsent(consumerKey, authenticatedUser);
+                        } else {
+                            revokeFederatedTokens(consumerKey, user, accessTokenDO, tokenBindingReference);
+                        }
                     } else if (StringUtils.equalsIgnoreCase(userId, authenticatedUser.getUserId())) {
-                        revokeTokens(consumerKey, accessTokenDO, tokenBindingReference);
+                        if (isRevocationJobEnabled) {
+                            revocationJobUsers.putIfAbsent(consumerKey, authenticatedUser);
+                        } else {
+                            revokeTokens(consumerKey, accessTokenDO, tokenBindingReference);
+                        }
                     }
                 } catch (UserIdNotFoundException e) {
                     log.error("User id cannot be found for user: " + authenticatedUser.getLoggableUserId());
@@ -325,6 +338,11 @@ public class TokenBindingExpiryEventHandler extends AbstractEventHandler {
                 }
             }
         }
+        for (Map.Entry<String, AuthenticatedUser> revocationJobUser : revocationJobUsers.entrySet()) {
+            // The job clears the caches and triggers the revocation listeners of the tokens it revokes.
+            TokenRevocationJobManager.getInstance().submitTokenBindingJob(revocationJobUser.getValue(),
+                    revocationJobUser.getKey(), tokenBindingReference);
+        }
     }
 
     /**
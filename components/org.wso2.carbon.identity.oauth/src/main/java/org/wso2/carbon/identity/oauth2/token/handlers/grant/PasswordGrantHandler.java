@@ -94,7 +94,7 @@ public class PasswordGrantHandler extends AbstractAuthorizationGrantHandler {
 
         super.validateGrant(tokReqMsgCtx);
         OAuth2AccessTokenReqDTO tokenReq = tokReqMsgCtx.getOauth2AccessTokenReqDTO();
-        ServiceProvider serviceProvider = getServiceProvider(tokenReq);
+        ServiceProvider serviceProvider = getServiceProvider(tokReqMsgCtx);
 
         // Update resource owner username when tenant qualified URLs enabled.
         if (IdentityTenantUtil.isTenantQualifiedUrlsEnabled()) {
@@ -148,8 +148,15 @@ public class PasswordGrantHandler extends AbstractAuthorizationGrantHandler {
         }
     }
 
-    private ServiceProvider getServiceProvider(OAuth2AccessTokenReqDTO tokenReq) throws IdentityOAuth2Exception {
-        ServiceProvider serviceProvider;
+    private ServiceProvider getServiceProvider(OAuthTokenReqMessageContext tokReqMsgCtx)
+            throws IdentityOAuth2Exception {
+
+        ServiceProvider serviceProvider =
+                (ServiceProvider) tokReqMsgCtx.getProperty(OAuthConstants.SERVICE_PROVIDER_PROPERTY);
+        if (serviceProvider != null) {
+            return serviceProvider;
+        }
+        OAuth2AccessTokenReqDTO tokenReq = tokReqMsgCtx.getOauth2AccessTokenReqDTO();
         try {
             serviceProvider = OAuth2ServiceComponentHolder.getApplicationMgtService().getServiceProviderByClientId(
                     tokenReq.getClientId(), OAuthConstants.Scope.OAUTH2, tokenReq.getTenantDomain());
@@ -169,7 +176,8 @@ public class PasswordGrantHandler extends AbstractAuthorizationGrantHandler {
                     tokenReq.getClientId() + ", scope: " + OAuthConstants.Scope.OAUTH2 + ", tenant: " +
                     tokenReq.getTenantDomain());
         }
-
+        // Keep the service provider in the context so that it is not retrieved again for this token request.
+        tokReqMsgCtx.addProperty(OAuthConstants.SERVICE_PROVIDER_PROPERTY, serviceProvider);
         return serviceProvider;
     }
 
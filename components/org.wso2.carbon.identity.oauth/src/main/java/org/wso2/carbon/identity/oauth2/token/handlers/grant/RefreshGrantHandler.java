@@ -32,6 +32,9 @@ import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantCacheEntry;
 import org.wso2.carbon.identity.oauth.cache.AuthorizationGrantCacheKey;
 import org.wso2.carbon.identity.oauth.cache.OAuthCache;
 import org.wso2.carbon.identity.oauth.cache.OAuthCacheKey;
+import org.wso2.carbon.identity.oauth.cache.RefreshTokenValidationCache;
+import org.wso2.carbon.identity.oauth.cache.RefreshTokenValidationCacheEntry;
+import org.wso2.carbon.identity.oauth.cache.RefreshTokenValidationCacheKey;
 import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
 import org.wso2.carbon.identity.oauth.common.OAuthConstants;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
@@ -49,6 +52,7 @@ import org.wso2.carbon.identity.oauth2.token.OAuthTokenReqMessageContext;
 import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinder;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.openidconnect.OIDCClaimUtil;
 
@@ -75,7 +79,13 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
     public static final int ALLOWED_MINIMUM_VALIDITY_PERIOD = 1000;
     public static final String DEACTIVATED_ACCESS_TOKEN = "DeactivatedAccessToken";
     private static final Log log = LogFactory.getLog(RefreshGrantHandler.class);
+    private static final String VALIDATION_CACHE_ENABLE = "OAuth.RefreshTokenValidationCache.Enable";
+    private static final String VALIDATED_FROM_CACHE = "RefreshTokenValidatedFromCache";
     private boolean isHashDisabled = OAuth2Util.isHashDisabled();
+    // The cached validation data carries the access token identifier as read from the database, which is only known
+    // without a database read when token hashing is disabled.
+    private boolean isValidationCacheEnabled = isHashDisabled &&
+            Boolean.parseBoolean(IdentityUtil.getProperty(VALIDATION_CACHE_ENABLE));
 
     @Override
     public boolean validateGrant(OAuthTokenReqMessageContext tokReqMsgCtx)
@@ -83,11 +93,14 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
 
         super.validateGrant(tokReqMsgCtx);
         OAuth2AccessTokenReqDTO tokenReq = tokReqMsgCtx.getOauth2AccessTokenReqDTO();
-        RefreshTokenValidationDataDO validationBean = OAuthTokenPersistenceFactory.getInstance()
-                .getTokenManagementDAO().validateRefreshToken(tokenReq.getClientId(), tokenReq.getRefreshToken());
-
-        validatePersistedAccessToken(validationBean, tokenReq.getClientId());
-        validateRefreshTokenInRequest(tokenReq, validationBean);
+        RefreshTokenValidationDataDO validationBean = getValidationDataFromCache(tokenReq);
+        if (validationBean != null) {
+            // The cached token is the latest active token of the refresh token. This is verified when the token is
+            // invalidated in persistNewToken().
+            tokReqMsgCtx.addProperty(VALIDATED_FROM_CACHE, true);
+        } else {
+            validationBean = validateRefreshToken(tokenReq);
+        }
         validateTokenBindingReference(tokenReq, validationBean);
 
         if (log.isDebugEnabled()) {
@@ -115,7 +128,17 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
         }
 
         AccessTokenDO accessTokenBean = createAccessTokenBean(tokReqMsgCtx, tokenReq, validationBean);
-        persistNewToken(tokReqMsgCtx, accessTokenBean, tokenReq.getClientId());
+        if (!persistNewToken(tokReqMsgCtx, accessTokenBean, tokenReq.getClientId())) {
+            // The cached token is no longer active. Validate the refresh token against the database and retry.
+            tokReqMsgCtx.addProperty(VALIDATED_FROM_CACHE, false);
+            validationBean = validateRefreshToken(tokenReq);
+            tokReqMsgCtx.addProperty(PREV_ACCESS_TOKEN, validationBean);
+            if (isRefreshTokenExpired(validationBean)) {
+                return handleError(OAuth2ErrorCodes.INVALID_GRANT, "Refresh token is expired.", tokenReq);
+            }
+            accessTokenBean = createAccessTokenBean(tokReqMsgCtx, tokenReq, validationBean);
+            persistNewToken(tokReqMsgCtx, accessTokenBean, tokenReq.getClientId());
+        }
         if (log.isDebugEnabled()) {
             log.debug("Persisted an access token for the refresh token, " +
                     "Client ID : " + tokenReq.getClientId() +
@@ -188,6 +211,62 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
         tokReqMsgCtx.addProperty(PREV_ACCESS_TOKEN, validationBean);
     }
 
+    private RefreshTokenValidationDataDO validateRefreshToken(OAuth2AccessTokenReqDTO tokenReq)
+            throws IdentityOAuth2Exception {
+
+        RefreshTokenValidationDataDO validationBean = OAuthTokenPersistenceFactory.getInstance()
+                .getTokenManagementDAO().validateRefreshToken(tokenReq.getClientId(), tokenReq.getRefreshToken());
+        validatePersistedAccessToken(validationBean, tokenReq.getClientId());
+        validateRefreshTokenInRequest(tokenReq, validationBean);
+        return validationBean;
+    }
+
+    private RefreshTokenValidationDataDO getValidationDataFromCache(OAuth2AccessTokenReqDTO tokenReq) {
+
+        if (!isValidationCacheEnabled || StringUtils.isBlank(tokenReq.getRefreshToken())) {
+            return null;
+        }
+        RefreshTokenValidationCacheEntry cacheEntry = RefreshTokenValidationCache.getInstance().getValueFromCache(
+                new RefreshTokenValidationCacheKey(tokenReq.getClientId(), tokenReq.getRefreshToken()));
+        TokenIssuanceMetrics.countCacheLookup(cacheEntry != null);
+        if (cacheEntry == null) {
+            return null;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Refresh token validation data found in the cache for client: " + tokenReq.getClientId());
+        }
+        return cacheEntry.getValidationData();
+    }
+
+    private void updateValidationCache(OAuth2AccessTokenReqDTO tokenReq, AccessTokenDO accessTokenBean) {
+
+        if (!isValidationCacheEnabled) {
+            return;
+        }
+        RefreshTokenValidationCache.getInstance().clearCacheEntry(tokenReq.getClientId(), tokenReq.getRefreshToken());
+
+        RefreshTokenValidationDataDO validationData = new RefreshTokenValidationDataDO();
+        validationData.setTokenId(accessTokenBean.getTokenId());
+        validationData.setAccessToken(accessTokenBean.getAccessToken());
+        validationData.setAuthorizedUser(accessTokenBean.getAuthzUser());
+        validationData.setScope(accessTokenBean.getScope());
+        validationData.setRefreshTokenState(OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        validationData.setGrantType(accessTokenBean.getGrantType());
+        validationData.setIssuedTime(accessTokenBean.getRefreshTokenIssuedTime());
+        validationData.setValidityPeriodInMillis(accessTokenBean.getRefreshTokenValidityPeriodInMillis());
+        validationData.setAccessTokenIssuedTime(accessTokenBean.getIssuedTime());
+        validationData.setAccessTokenValidityInMillis(accessTokenBean.getValidityPeriodInMillis());
+        if (accessTokenBean.getTokenBinding() != null &&
+                StringUtils.isNotBlank(accessTokenBean.getTokenBinding().getBindingReference())) {
+            validationData.setTokenBindingReference(accessTokenBean.getTokenBinding().getBindingReference());
+        } else {
+            validationData.setTokenBindingReference(NONE);
+        }
+        RefreshTokenValidationCache.getInstance().addToCache(
+                new RefreshTokenValidationCacheKey(tokenReq.getClientId(), accessTokenBean.getRefreshToken()),
+                new RefreshTokenValidationCacheEntry(validationData));
+    }
+
     private boolean validateRefreshTokenInRequest(OAuth2AccessTokenReqDTO tokenReq,
                                                   RefreshTokenValidationDataDO validationBean)
             throws IdentityOAuth2Exception {
@@ -314,8 +393,8 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
         return tokenResp;
     }
 
-    private void persistNewToken(OAuthTokenReqMessageContext tokReqMsgCtx, AccessTokenDO accessTokenBean,
-                                 String clientId) throws IdentityOAuth2Exception {
+    private boolean persistNewToken(OAuthTokenReqMessageContext tokReqMsgCtx, AccessTokenDO accessTokenBean,
+                                    String clientId) throws IdentityOAuth2Exception {
 
         String userStoreDomain = getUserStoreDomain(tokReqMsgCtx.getAuthorizedUser());
         RefreshTokenValidationDataDO oldAccessToken =
@@ -326,11 +405,29 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
             }
         }
         // set the previous access token state to "INACTIVE" and store new access token in single db connection
-        OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
-                .invalidateAndCreateNewAccessToken(oldAccessToken.getTokenId(),
-                        OAuthConstants.TokenStates.TOKEN_STATE_INACTIVE, clientId,
-                        UUID.randomUUID().toString(), accessTokenBean, userStoreDomain, oldAccessToken.getGrantType());
+        if (Boolean.TRUE.equals(tokReqMsgCtx.getProperty(VALIDATED_FROM_CACHE))) {
+            // The previous token was not read from the database, hence only invalidate it if it is still active.
+            if (!OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
+                    .invalidateActiveAndCreateNewAccessToken(oldAccessToken.getTokenId(),
+                            OAuthConstants.TokenStates.TOKEN_STATE_INACTIVE, clientId, UUID.randomUUID().toString(),
+                            accessTokenBean, userStoreDomain, oldAccessToken.getGrantType())) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Cached token of the refresh token is no longer active for client: " + clientId);
+                }
+                RefreshTokenValidationCache.getInstance().clearCacheEntry(clientId,
+                        tokReqMsgCtx.getOauth2AccessTokenReqDTO().getRefreshToken());
+                return false;
+            }
+        } else {
+            OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO()
+                    .invalidateAndCreateNewAccessToken(oldAccessToken.getTokenId(),
+                            OAuthConstants.TokenStates.TOKEN_STATE_INACTIVE, clientId,
+                            UUID.randomUUID().toString(), accessTokenBean, userStoreDomain,
+                            oldAccessToken.getGrantType());
+        }
         updateCacheIfEnabled(tokReqMsgCtx, accessTokenBean, clientId, oldAccessToken);
+        updateValidationCache(tokReqMsgCtx.getOauth2AccessTokenReqDTO(), accessTokenBean);
+        return true;
     }
 
     private void updateCacheIfEnabled(OAuthTokenReqMessageContext tokReqMsgCtx, AccessTokenDO accessTokenBean,
@@ -702,6 +799,8 @@ public class RefreshGrantHandler extends AbstractAuthorizationGrantHandler {
 
             grantCacheEntry.setValidityPeriod(
                     TimeUnit.MILLISECONDS.toNanos(accessTokenBean.getValidityPeriodInMillis()));
+            grantCacheEntry.setRefreshTokenValidityPeriodInMillis(
+                    accessTokenBean.getRefreshTokenValidityPeriodInMillis());
 
             // This new method has introduced in order to resolve a regression occurred : wso2/product-is#4366.
             AuthorizationGrantCache.getInstance().clearCacheEntryByTokenId(oldAuthorizationGrantCacheKey,
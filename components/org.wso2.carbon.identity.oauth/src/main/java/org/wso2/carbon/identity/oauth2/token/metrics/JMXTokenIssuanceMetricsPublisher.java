@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Default token issuance metrics publisher which aggregates the metrics in memory and exposes them over JMX.
+ */
+public class JMXTokenIssuanceMetricsPublisher implements TokenIssuanceMetricsPublisher, TokenIssuanceMetricsMXBean {
+
+    private static final Log log = LogFactory.getLog(JMXTokenIssuanceMetricsPublisher.class);
+    private static final String OBJECT_NAME = "org.wso2.carbon.identity.oauth2:type=TokenIssuanceMetrics";
+    private static final String KEY_SEPARATOR = ".";
+
+    private final ConcurrentMap<String, Timer> requestTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> requestErrors = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> databaseCalls = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> cacheHits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> cacheMisses = new ConcurrentHashMap<>();
+
+    /**
+     * Register this publisher in the platform MBean server.
+     *
+     * @return true if the MBean was registered.
+     */
+    boolean register() {
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (mBeanServer.isRegistered(objectName)) {
+                mBeanServer.unregisterMBean(objectName);
+            }
+            mBeanServer.registerMBean(this, objectName);
+            return true;
+        } catch (JMException e) {
+            log.error("Error while registering the token issuance metrics MBean: " + OBJECT_NAME, e);
+            return false;
+        }
+    }
+
+    @Override
+    public void publishStage(String grantType, TokenIssuanceStage stage, long durationInNanos) {
+
+        stageTimers.computeIfAbsent(grantType + KEY_SEPARATOR + stage.name(), key -> new Timer())
+                .record(durationInNanos);
+    }
+
+    @Override
+    public void publishRequest(TokenRequestMetrics requestMetrics) {
+
+        String grantType = String.valueOf(requestMetrics.getGrantType());
+        requestTimers.computeIfAbsent(grantType, key -> new Timer()).record(requestMetrics.getDurationInNanos());
+        if (!requestMetrics.isSuccess()) {
+            increment(requestErrors, grantType, 1);
+        }
+        increment(databaseCalls, grantType, requestMetrics.getDatabaseCallCount());
+        increment(cacheHits, grantType, requestMetrics.getCacheHitCount());
+        increment(cacheMisses, grantType, requestMetrics.getCacheMissCount());
+    }
+
+    @Override
+    public Map<String, Long> getRequestCount() {
+
+        return toLongMap(requestTimers, timer -> timer.count.sum());
+    }
+
+    @Override
+    public Map<String, Long> getRequestErrorCount() {
+
+        return toLongMap(requestErrors, LongAdder::sum);
+    }
+
+    @Override
+    public Map<String, Double> getRequestTotalTimeInMillis() {
+
+        return toDoubleMap(requestTimers, timer -> toMillis(timer.totalTime.sum()));
+    }
+
+    @Override
+    public Map<String, Double> getRequestMaxTimeInMillis() {
+
+        return toDoubleMap(requestTimers, timer -> toMillis(timer.maxTime.get()));
+    }
+
+    @Override
+    public Map<String, Long> getStageCount() {
+
+        return toLongMap(stageTimers, timer -> timer.count.sum());
+    }
+
+    @Override
+    public Map<String, Double> getStageTotalTimeInMillis() {
+
+        return toDoubleMap(stageTimers, timer -> toMillis(timer.totalTime.sum()));
+    }
+
+    @Override
+    public Map<String, Double> getStageMaxTimeInMillis() {
+
+        return toDoubleMap(stageTimers, timer -> toMillis(timer.maxTime.get()));
+    }
+
+    @Override
+    public Map<String, Long> getDatabaseCallCount() {
+
+        return toLongMap(databaseCalls, LongAdder::sum);
+    }
+
+    @Override
+    public Map<String, Long> getCacheHitCount() {
+
+        return toLongMap(cacheHits, LongAdder::sum);
+    }
+
+    @Override
+    public Map<String, Long> getCacheMissCount() {
+
+        return toLongMap(cacheMisses, LongAdder::sum);
+    }
+
+    @Override
+    public void reset() {
+
+        requestTimers.clear();
+        stageTimers.clear();
+        requestErrors.clear();
+        databaseCalls.clear();
+        cacheHits.clear();
+        cacheMisses.clear();
+    }
+
+    private static void increment(ConcurrentMap<String, LongAdder> counters, String key, long value) {
+
+        if (value > 0) {
+            counters.computeIfAbsent(key, k -> new LongAdder()).add(value);
+        }
+    }
+
+    private static <T> Map<String, Long> toLongMap(Map<String, T> source, ToLongFunction<T> valueFunction) {
+
+        Map<String, Long> values = new TreeMap<>();
+        source.forEach((key, value) -> values.put(key, valueFunction.applyAsLong(value)));
+        return values;
+    }
+
+    private static <T> Map<String, Double> toDoubleMap(Map<String, T> source, ToDoubleFunction<T> valueFunction) {
+
+        Map<String, Double> values = new TreeMap<>();
+        source.forEach((key, value) -> values.put(key, valueFunction.applyAsDouble(value)));
+        return values;
+    }
+
+    private static double toMillis(long nanos) {
+
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    private static class Timer {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalTime = new LongAdder();
+        private final AtomicLong maxTime = new AtomicLong();
+
+        private void record(long durationInNanos) {
+
+            count.increment();
+            totalTime.add(durationInNanos);
+            maxTime.accumulateAndGet(durationInNanos, Math::max);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.common.OAuth2ErrorCodes;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Entry point of the access token issuance metrics. The token issuer starts and ends the metrics of each token
+ * request, and DAOs and caches on the token issuance path count their database calls and cache lookups against the
+ * token request processed by the current thread.
+ * <p>
+ * Metrics are collected only when enabled with {@code OAuth.TokenIssuanceMetrics.Enable} and at least one
+ * {@link TokenIssuanceMetricsPublisher} is registered. Otherwise every call returns after a single flag check.
+ */
+public class TokenIssuanceMetrics {
+
+    private static final Log log = LogFactory.getLog(TokenIssuanceMetrics.class);
+
+    private static final String METRICS_ENABLE = "OAuth.TokenIssuanceMetrics.Enable";
+    private static final String JMX_PUBLISHER_ENABLE = "OAuth.TokenIssuanceMetrics.JMXPublisher.Enable";
+
+    private static final ThreadLocal<TokenRequestMetrics> currentRequest = new ThreadLocal<>();
+    private static final List<TokenIssuanceMetricsPublisher> publishers = new CopyOnWriteArrayList<>();
+    private static volatile boolean enabled;
+
+    private TokenIssuanceMetrics() {
+
+    }
+
+    /**
+     * Read the metrics configuration and register the default JMX publisher if enabled.
+     */
+    public static void init() {
+
+        enabled = Boolean.parseBoolean(IdentityUtil.getProperty(METRICS_ENABLE));
+        if (!enabled) {
+            return;
+        }
+        String jmxPublisherEnabled = IdentityUtil.getProperty(JMX_PUBLISHER_ENABLE);
+        if (jmxPublisherEnabled == null || Boolean.parseBoolean(jmxPublisherEnabled)) {
+            JMXTokenIssuanceMetricsPublisher jmxPublisher = new JMXTokenIssuanceMetricsPublisher();
+            if (jmxPublisher.register()) {
+                addPublisher(jmxPublisher);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Token issuance metrics enabled.");
+        }
+    }
+
+    public static void addPublisher(TokenIssuanceMetricsPublisher publisher) {
+
+        publishers.add(publisher);
+    }
+
+    public static void removePublisher(TokenIssuanceMetricsPublisher publisher) {
+
+        publishers.remove(publisher);
+    }
+
+    /**
+     * Check whether token issuance metrics are collected.
+     *
+     * @return true if metrics are enabled and a publisher is registered.
+     */
+    public static boolean isEnabled() {
+
+        return enabled && !publishers.isEmpty();
+    }
+
+    /**
+     * Start collecting the metrics of a token request processed by the current thread.
+     *
+     * @param grantType Grant type of the token request.
+     * @return Metrics of the token request. Never null.
+     */
+    public static TokenRequestMetrics startRequest(String grantType) {
+
+        if (!isEnabled()) {
+            return TokenRequestMetrics.DISABLED;
+        }
+        TokenRequestMetrics requestMetrics = new TokenRequestMetrics(grantType, publishers);
+        currentRequest.set(requestMetrics);
+        return requestMetrics;
+    }
+
+    /**
+     * End collecting the metrics of a token request and publish them.
+     *
+     * @param requestMetrics Metrics returned when the request was started.
+     * @param tokenRespDTO   Token response, or null if the request failed with an exception.
+     */
+    public static void endRequest(TokenRequestMetrics requestMetrics, OAuth2AccessTokenRespDTO tokenRespDTO) {
+
+        if (!requestMetrics.isEnabled()) {
+            return;
+        }
+        currentRequest.remove();
+        String errorCode = null;
+        if (tokenRespDTO == null) {
+            errorCode = OAuth2ErrorCodes.SERVER_ERROR;
+        } else if (tokenRespDTO.isError()) {
+            errorCode = tokenRespDTO.getErrorCode();
+        }
+        requestMetrics.end(errorCode);
+    }
+
+    /**
+     * Count a database call made while processing the token request of the current thread.
+     */
+    public static void countDatabaseCall() {
+
+        if (enabled) {
+            TokenRequestMetrics requestMetrics = currentRequest.get();
+            if (requestMetrics != null) {
+                requestMetrics.countDatabaseCall();
+            }
+        }
+    }
+
+    /**
+     * Count a cache lookup made while processing the token request of the current thread.
+     *
+     * @param hit Whether the lookup found an entry.
+     */
+    public static void countCacheLookup(boolean hit) {
+
+        if (enabled) {
+            TokenRequestMetrics requestMetrics = currentRequest.get();
+            if (requestMetrics != null) {
+                if (hit) {
+                    requestMetrics.countCacheHit();
+                } else {
+                    requestMetrics.countCacheMiss();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of the token issuance metrics. Timers follow the Micrometer timer model (count, total time and max), keyed
+ * by grant type for requests and by grant type and stage ({@code <grant type>.<stage>}) for stages, so that they can
+ * be bridged to Micrometer or scraped with a JMX exporter without conversion.
+ */
+public interface TokenIssuanceMetricsMXBean {
+
+    Map<String, Long> getRequestCount();
+
+    Map<String, Long> getRequestErrorCount();
+
+    Map<String, Double> getRequestTotalTimeInMillis();
+
+    Map<String, Double> getRequestMaxTimeInMillis();
+
+    Map<String, Long> getStageCount();
+
+    Map<String, Double> getStageTotalTimeInMillis();
+
+    Map<String, Double> getStageMaxTimeInMillis();
+
+    Map<String, Long> getDatabaseCallCount();
+
+    Map<String, Long> getCacheHitCount();
+
+    Map<String, Long> getCacheMissCount();
+
+    /**
+     * Reset all the collected metrics.
+     */
+    void reset();
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.metrics;
+
+/**
+ * Extension point to receive the metrics of access token requests. Publishers are invoked synchronously on the
+ * thread processing the token request, hence implementations should only record the values and return.
+ * <p>
+ * Publishers are registered as OSGi services and are only invoked when token issuance metrics are enabled.
+ */
+public interface TokenIssuanceMetricsPublisher {
+
+    /**
+     * Publish the time spent on a stage of an access token request.
+     *
+     * @param grantType        Grant type of the token request.
+     * @param stage            Completed stage.
+     * @param durationInNanos  Time spent on the stage in nanoseconds.
+     */
+    void publishStage(String grantType, TokenIssuanceStage stage, long durationInNanos);
+
+    /**
+     * Publish the metrics of a completed access token request.
+     *
+     * @param requestMetrics Metrics of the token request.
+     */
+    void publishRequest(TokenRequestMetrics requestMetrics);
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.metrics;
+
+/**
+ * Stages of an access token request processed by the
+ * {@link org.wso2.carbon.identity.oauth2.token.AccessTokenIssuer}.
+ */
+public enum TokenIssuanceStage {
+
+    PRE_LISTENERS,
+    CLIENT_VALIDATION,
+    VALIDATE_GRANT,
+    AUTHORIZE_ACCESS_DELEGATION,
+    VALIDATE_SCOPE,
+    TOKEN_BINDING,
+    ISSUE,
+    POST_LISTENERS,
+    USER_ATTRIBUTES,
+    ID_TOKEN,
+    RESPONSE_HANDLERS
+}
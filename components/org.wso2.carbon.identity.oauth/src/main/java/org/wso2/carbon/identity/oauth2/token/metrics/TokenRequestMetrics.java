@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.metrics;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Metrics of a single access token request. An instance is confined to the thread processing the token request.
+ * When token issuance metrics are disabled a shared disabled instance is used, which ignores all calls.
+ */
+public class TokenRequestMetrics {
+
+    private static final Log log = LogFactory.getLog(TokenRequestMetrics.class);
+
+    static final TokenRequestMetrics DISABLED = new TokenRequestMetrics(null, Collections.emptyList());
+
+    private final String grantType;
+    private final List<TokenIssuanceMetricsPublisher> publishers;
+    private final boolean enabled;
+    private final long startTime;
+    private long stageStartTime;
+    private long durationInNanos;
+    private String errorCode;
+    private int databaseCallCount;
+    private int cacheHitCount;
+    private int cacheMissCount;
+
+    TokenRequestMetrics(String grantType, List<TokenIssuanceMetricsPublisher> publishers) {
+
+        this.grantType = grantType;
+        this.publishers = publishers;
+        this.enabled = !publishers.isEmpty();
+        this.startTime = enabled ? System.nanoTime() : 0;
+        this.stageStartTime = startTime;
+    }
+
+    /**
+     * Mark the end of a stage. The stage is considered to have started when the previous stage ended, or when the
+     * request started for the first stage.
+     *
+     * @param stage Completed stage.
+     */
+    public void endStage(TokenIssuanceStage stage) {
+
+        if (!enabled) {
+            return;
+        }
+        long currentTime = System.nanoTime();
+        long stageDuration = currentTime - stageStartTime;
+        stageStartTime = currentTime;
+        for (TokenIssuanceMetricsPublisher publisher : publishers) {
+            try {
+                publisher.publishStage(grantType, stage, stageDuration);
+            } catch (RuntimeException e) {
+                log.error("Error while publishing token issuance stage metrics using: " +
+                        publisher.getClass().getName(), e);
+            }
+        }
+    }
+
+    void end(String errorCode) {
+
+        if (!enabled) {
+            return;
+        }
+        this.durationInNanos = System.nanoTime() - startTime;
+        this.errorCode = errorCode;
+        for (TokenIssuanceMetricsPublisher publisher : publishers) {
+            try {
+                publisher.publishRequest(this);
+            } catch (RuntimeException e) {
+                log.error("Error while publishing token request metrics using: " + publisher.getClass().getName(), e);
+            }
+        }
+    }
+
+    void countDatabaseCall() {
+
+        databaseCallCount++;
+    }
+
+    void countCacheHit() {
+
+        cacheHitCount++;
+    }
+
+    void countCacheMiss() {
+
+        cacheMissCount++;
+    }
+
+    boolean isEnabled() {
+
+        return enabled;
+    }
+
+    public String getGrantType() {
+
+        return grantType;
+    }
+
+    /**
+     * Get the total time taken to process the token request.
+     *
+     * @return Duration in nanoseconds.
+     */
+    public long getDurationInNanos() {
+
+        return durationInNanos;
+    }
+
+    /**
+     * Get the OAuth error code of the token response.
+     *
+     * @return Error code, or null if a token was issued.
+     */
+    public String getErrorCode() {
+
+        return errorCode;
+    }
+
+    public boolean isSuccess() {
+
+        return errorCode == null;
+    }
+
+    public int getDatabaseCallCount() {
+
+        return databaseCallCount;
+    }
+
+    public int getCacheHitCount() {
+
+        return cacheHitCount;
+    }
+
+    public int getCacheMissCount() {
+
+        return cacheMissCount;
+    }
+}
@@ -652,6 +652,7 @@ public class ClaimsUtil {
 
         long validityPeriod = TimeUnit.MILLISECONDS.toNanos(tokenRespDTO.getExpiresInMillis());
         authorizationGrantCacheEntry.setValidityPeriod(validityPeriod);
+        authorizationGrantCacheEntry.setRefreshTokenValidityPeriodInMillis(msgCtx.getRefreshTokenvalidityPeriod());
         AuthorizationGrantCache.getInstance()
                 .addToCacheByToken(authorizationGrantCacheKey, authorizationGrantCacheEntry);
     }
@@ -22,17 +22,24 @@ import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Prepared statement with named indexes.
+ * Prepared statement with named indexes. Parsed queries are cached, so the named placeholders of a query are only
+ * resolved the first time the query is used.
  */
 public class NamedPreparedStatement {
 
+    private static final int MAX_PARSED_QUERIES = 1000;
+    private static final ConcurrentMap<String, ParsedQuery> parsedQueries = new ConcurrentHashMap<>();
+
     private PreparedStatement preparedStatement;
-    private List<String> fields = new ArrayList<>();
+    private Map<String, Integer> indexes;
 
     /**
      * Create a named prepared statement with repeated indexes.
@@ -45,28 +52,9 @@ public class NamedPreparedStatement {
     public NamedPreparedStatement(Connection connection, String sqlQuery, Map<String, Integer> repetition)
             throws SQLException {
 
-        int pos;
-        while ((pos = sqlQuery.indexOf(":")) != -1) {
-
-            int end = sqlQuery.substring(pos).indexOf(";");
-            if (end == -1) {
-                throw new SQLException("Cannot find the end of the placeholder.");
-            } else {
-                end += pos;
-            }
-
-            fields.add(sqlQuery.substring(pos + 1, end));
-            StringBuilder builder = new StringBuilder("?");
-
-            if (repetition.get(sqlQuery.substring(pos + 1, end)) != null) {
-                for (int i = 0; i < repetition.get(sqlQuery.substring(pos + 1, end)) - 1; i++) {
-                    builder.append(", ?");
-                }
-            }
-
-            sqlQuery = String.format("%s %s %s", sqlQuery.substring(0, pos), builder.toString(),
-                    sqlQuery.substring(end + 1));
-        }
+        ParsedQuery parsedQuery = getParsedQuery(sqlQuery);
+        indexes = parsedQuery.indexes;
+        sqlQuery = parsedQuery.build(repetition);
         preparedStatement = connection.prepareStatement(sqlQuery);
     }
 
@@ -174,6 +162,67 @@ public class NamedPreparedStatement {
 
     private int getIndex(String name) {
 
-        return fields.indexOf(name) + 1;
+        Integer index = indexes.get(name);
+        return index == null ? 0 : index;
+    }
+
+    private static ParsedQuery getParsedQuery(String sqlQuery) throws SQLException {
+
+        ParsedQuery parsedQuery = parsedQueries.get(sqlQuery);
+        if (parsedQuery == null) {
+            parsedQuery = new ParsedQuery(sqlQuery);
+            if (parsedQueries.size() < MAX_PARSED_QUERIES) {
+                parsedQueries.putIfAbsent(sqlQuery, parsedQuery);
+            }
+        }
+        return parsedQuery;
+    }
+
+    /**
+     * Query split at its named placeholders.
+     */
+    private static class ParsedQuery {
+
+        // Text around the placeholders. Always has one more element than the list of fields.
+        private final List<String> segments = new ArrayList<>();
+        private final List<String> fields = new ArrayList<>();
+        // First position of each named placeholder, starting from 1.
+        private final Map<String, Integer> indexes;
+
+        private ParsedQuery(String sqlQuery) throws SQLException {
+
+            Map<String, Integer> fieldIndexes = new HashMap<>();
+            int start = 0;
+            int pos;
+            while ((pos = sqlQuery.indexOf(":", start)) != -1) {
+                int end = sqlQuery.indexOf(";", pos);
+                if (end == -1) {
+                    throw new SQLException("Cannot find the end of the placeholder.");
+                }
+                String field = sqlQuery.substring(pos + 1, end);
+                segments.add(sqlQuery.substring(start, pos));
+                fields.add(field);
+                fieldIndexes.putIfAbsent(field, fields.size());
+                start = end + 1;
+            }
+            segments.add(sqlQuery.substring(start));
+            indexes = Collections.unmodifiableMap(fieldIndexes);
+        }
+
+        private String build(Map<String, Integer> repetition) {
+
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < fields.size(); i++) {
+                builder.append(segments.get(i)).append(" ?");
+                Integer count = repetition.get(fields.get(i));
+                if (count != null) {
+                    for (int j = 0; j < count - 1; j++) {
+                        builder.append(", ?");
+                    }
+                }
+                builder.append(' ');
+            }
+            return builder.append(segments.get(fields.size())).toString();
+        }
     }
 }
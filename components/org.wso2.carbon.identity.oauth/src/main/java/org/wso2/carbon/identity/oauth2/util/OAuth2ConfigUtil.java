@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+
+/**
+ * Utility methods to read the numeric properties of identity.xml.
+ */
+public class OAuth2ConfigUtil {
+
+    private static final Log log = LogFactory.getLog(OAuth2ConfigUtil.class);
+
+    private OAuth2ConfigUtil() {
+
+    }
+
+    /**
+     * Read a positive integer property from identity.xml.
+     *
+     * @param property     Name of the property.
+     * @param defaultValue Value returned if the property is not configured or is not a positive number.
+     * @return Configured value, or the default value.
+     */
+    public static int readConfigValue(String property, int defaultValue) {
+
+        return (int) readConfigValue(property, (long) defaultValue, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Read a positive long property from identity.xml.
+     *
+     * @param property     Name of the property.
+     * @param defaultValue Value returned if the property is not configured or is not a positive number.
+     * @return Configured value, or the default value.
+     */
+    public static long readConfigValue(String property, long defaultValue) {
+
+        return readConfigValue(property, defaultValue, Long.MAX_VALUE);
+    }
+
+    private static long readConfigValue(String property, long defaultValue, long maxValue) {
+
+        String value = IdentityUtil.getProperty(property);
+        if (StringUtils.isNotBlank(value)) {
+            try {
+                long configValue = Long.parseLong(value.trim());
+                if (configValue > 0 && configValue <= maxValue) {
+                    return configValue;
+                }
+                log.error("Provided value for " + property + " should be a positive number. Value : " + value);
+            } catch (NumberFormatException e) {
+                log.error("Provided value for " + property + " should be a positive number. Value : " + value);
+            }
+        }
+        return defaultValue;
+    }
+}
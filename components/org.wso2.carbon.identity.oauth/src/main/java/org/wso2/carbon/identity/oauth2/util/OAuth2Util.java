@@ -111,6 +111,8 @@ import org.wso2.carbon.identity.oauth2.authz.OAuthAuthzReqMessageContext;
 import org.wso2.carbon.identity.oauth2.bean.OAuthClientAuthnContext;
 import org.wso2.carbon.identity.oauth2.bean.Scope;
 import org.wso2.carbon.identity.oauth2.bean.ScopeBinding;
+import org.wso2.carbon.identity.oauth2.cache.TenantStatusCache;
+import org.wso2.carbon.identity.oauth2.cache.VerifiedClientSecretCache;
 import org.wso2.carbon.identity.oauth2.config.SpOAuth2ExpiryTimeConfiguration;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenReqDTO;
@@ -127,6 +129,7 @@ import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinder;
 import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
 import org.wso2.carbon.identity.oauth2.token.handlers.grant.AuthorizationGrantHandler;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
 import org.wso2.carbon.identity.openidconnect.model.Constants;
 import org.wso2.carbon.identity.openidconnect.model.RequestedClaim;
 import org.wso2.carbon.idp.mgt.IdentityProviderManagementException;
@@ -317,7 +320,8 @@ public class OAuth2Util {
     private static final Log diagnosticLog = LogFactory.getLog("diagnostics");
     private static final String INTERNAL_LOGIN_SCOPE = "internal_login";
     public static final String JWT = "JWT";
-    private static long timestampSkew = OAuthServerConfiguration.getInstance().getTimeStampSkewInSeconds() * 1000;
+    private static volatile long timestampSkew =
+            OAuthServerConfiguration.getInstance().getTimeStampSkewInSeconds() * 1000;
     private static ThreadLocal<Integer> clientTenantId = new ThreadLocal<>();
     private static ThreadLocal<OAuthTokenReqMessageContext> tokenRequestContext = new ThreadLocal<>();
     private static ThreadLocal<OAuthAuthzReqMessageContext> authzRequestContext = new ThreadLocal<>();
@@ -359,6 +363,11 @@ public class OAuth2Util {
     public static final String ACCESS_TOKEN_IS_NOT_ACTIVE_ERROR_MESSAGE = "Invalid Access Token. Access token is " +
             "not ACTIVE.";
 
+    static {
+        OAuthServerConfiguration.addListener((previousConfiguration, configuration) ->
+                timestampSkew = configuration.getTimeStampSkewInSeconds() * 1000);
+    }
+
     private OAuth2Util() {
 
     }
@@ -528,6 +537,14 @@ public class OAuth2Util {
                 return false;
             }
         } else {
+            VerifiedClientSecretCache verifiedClientSecretCache = VerifiedClientSecretCache.getInstance();
+            if (verifiedClientSecretCache.isVerified(clientId, appClientSecret, clientSecretProvided)) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Client secret of client id : " + clientId + " was verified from the cache.");
+                }
+                return true;
+            }
+
             TokenPersistenceProcessor persistenceProcessor = getPersistenceProcessor();
             // We convert the provided client_secret to the processed form stored in the DB.
             String processedProvidedClientSecret = persistenceProcessor.getProcessedClientSecret(clientSecretProvided);
@@ -539,6 +556,7 @@ public class OAuth2Util {
                 }
                 return false;
             }
+            verifiedClientSecretCache.addVerifiedSecret(clientId, appClientSecret, clientSecretProvided);
         }
 
         if (log.isDebugEnabled()) {
@@ -549,11 +567,19 @@ public class OAuth2Util {
     }
 
     private static boolean isTenantActive(String tenantDomain) throws IdentityOAuth2Exception {
+
+        TenantStatusCache tenantStatusCache = TenantStatusCache.getInstance();
+        Boolean cachedTenantStatus = tenantStatusCache.getTenantStatus(tenantDomain);
+        if (cachedTenantStatus != null) {
+            return cachedTenantStatus;
+        }
         try {
             TenantManager tenantManager = OAuthComponentServiceHolder.getInstance()
                     .getRealmService().getTenantManager();
             int tenantId = tenantManager.getTenantId(tenantDomain);
-            return tenantManager.isTenantActive(tenantId);
+            boolean tenantActive = tenantManager.isTenantActive(tenantId);
+            tenantStatusCache.addTenantStatus(tenantDomain, tenantActive);
+            return tenantActive;
         } catch (UserStoreException e) {
             String error = "Error in obtaining tenant ID from tenant domain : " + tenantDomain;
             throw new IdentityOAuth2Exception(error, e);
@@ -914,30 +940,8 @@ public class OAuth2Util {
         String partitionedSql = sql;
 
         if (OAuth2Util.checkAccessTokenPartitioningEnabled() && OAuth2Util.checkUserNameAssertionEnabled()) {
-
-            String partitionedAccessTokenTable = OAuth2Util.getPartitionedTableByUserStore(OAuthConstants.
-                    ACCESS_TOKEN_STORE_TABLE, userStoreDomain);
-
-            String accessTokenScopeTable = "IDN_OAUTH2_ACCESS_TOKEN_SCOPE";
-            String partitionedAccessTokenScopeTable = OAuth2Util.getPartitionedTableByUserStore(accessTokenScopeTable,
-                    userStoreDomain);
-
-            if (log.isDebugEnabled()) {
-                log.debug("PartitionedAccessTokenTable: " + partitionedAccessTokenTable +
-                        " & PartitionedAccessTokenScopeTable: " + partitionedAccessTokenScopeTable +
-                        " for user store domain: " + userStoreDomain);
-            }
-
-            String wordBoundaryRegex = "\\b";
-            partitionedSql = sql.replaceAll(wordBoundaryRegex + OAuthConstants.ACCESS_TOKEN_STORE_TABLE
-                    + wordBoundaryRegex, partitionedAccessTokenTable);
-            partitionedSql = partitionedSql.replaceAll(wordBoundaryRegex + accessTokenScopeTable + wordBoundaryRegex,
-                    partitionedAccessTokenScopeTable);
-
-            if (log.isDebugEnabled()) {
-                log.debug("Original SQL: " + sql);
-                log.debug("Partitioned SQL: " + partitionedSql);
-            }
+            // The rewritten statements are cached per user store domain to avoid the regex replacement per call.
+            partitionedSql = PartitionedSqlTemplateRegistry.getInstance().getPartitionedSql(sql, userStoreDomain);
         }
 
         return partitionedSql;
@@ -2137,6 +2141,7 @@ public class OAuth2Util {
             throws IdentityOAuth2Exception, InvalidOAuthClientException {
 
         OAuthAppDO oAuthAppDO = AppInfoCache.getInstance().getValueFromCache(clientId);
+        TokenIssuanceMetrics.countCacheLookup(oAuthAppDO != null);
         if (oAuthAppDO != null) {
             return oAuthAppDO;
         } else {
@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.util;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.SQLQueries;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the access token partition specific variants of the token SQL statements, so that the table names of a
+ * statement are rewritten once per user store domain instead of on every DAO call.
+ * <p>
+ * The variants of the {@link SQLQueries} statements are computed when a user store domain is first seen. Other
+ * statements, e.g. the ones with expanded IN lists, are added on first use up to a bounded number per domain. All
+ * variants are dropped when the access token partitioning domain mappings change. The same is done for the tables of
+ * the hash sharding mode, see {@link #getShardedSql(String, int)}.
+ */
+public class PartitionedSqlTemplateRegistry {
+
+    private static final Log log = LogFactory.getLog(PartitionedSqlTemplateRegistry.class);
+
+    public static final String ACCESS_TOKEN_SCOPE_TABLE = "IDN_OAUTH2_ACCESS_TOKEN_SCOPE";
+    private static final String WORD_BOUNDARY_REGEX = "\\b";
+    private static final Pattern ACCESS_TOKEN_TABLE_PATTERN = Pattern.compile(WORD_BOUNDARY_REGEX +
+            OAuthConstants.ACCESS_TOKEN_STORE_TABLE + WORD_BOUNDARY_REGEX);
+    private static final Pattern ACCESS_TOKEN_SCOPE_TABLE_PATTERN = Pattern.compile(WORD_BOUNDARY_REGEX +
+            ACCESS_TOKEN_SCOPE_TABLE + WORD_BOUNDARY_REGEX);
+    private static final int MAX_STATEMENTS_PER_DOMAIN = 1000;
+    // Key used for statements which are not bound to a user store domain.
+    private static final String NO_USER_STORE_DOMAIN = "";
+    private static final String SHARD_TABLE_SEPARATOR = "_SHARD_";
+
+    private static final PartitionedSqlTemplateRegistry instance = new PartitionedSqlTemplateRegistry();
+
+    private volatile Templates templates = new Templates(null);
+    // Shard tables do not depend on the user store domains, hence they are kept across invalidations.
+    private final ConcurrentMap<Integer, DomainTemplates> shards = new ConcurrentHashMap<>();
+
+    public static PartitionedSqlTemplateRegistry getInstance() {
+
+        return instance;
+    }
+
+    /**
+     * Get the given SQL with the access token tables replaced by the partitioned tables of the given user store
+     * domain. Partitioning must be enabled when calling this method.
+     *
+     * @param sql             SQL statement.
+     * @param userStoreDomain User store domain. Can be null.
+     * @return Partitioned SQL statement.
+     * @throws IdentityOAuth2Exception If the access token partitioning domains are not defined correctly.
+     */
+    public String getPartitionedSql(String sql, String userStoreDomain) throws IdentityOAuth2Exception {
+
+        return getDomainTemplates(userStoreDomain).getStatement(sql);
+    }
+
+    /**
+     * Get the given SQL with the access token tables replaced by the tables of the given hash shard. Shard 0 refers
+     * to the unsharded tables, hence the statement is returned as it is.
+     *
+     * @param sql   SQL statement.
+     * @param shard Index of the access token shard.
+     * @return Sharded SQL statement.
+     */
+    public String getShardedSql(String sql, int shard) {
+
+        if (shard == 0) {
+            return sql;
+        }
+        DomainTemplates shardTemplates = shards.get(shard);
+        if (shardTemplates == null) {
+            shardTemplates = new DomainTemplates(getShardTable(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, shard),
+                    getShardTable(ACCESS_TOKEN_SCOPE_TABLE, shard));
+            shardTemplates.precompute();
+            DomainTemplates existingTemplates = shards.putIfAbsent(shard, shardTemplates);
+            if (existingTemplates != null) {
+                shardTemplates = existingTemplates;
+            }
+        }
+        return shardTemplates.getStatement(sql);
+    }
+
+    /**
+     * Get the name of the given access token table in the given hash shard.
+     *
+     * @param table Name of the unsharded table.
+     * @param shard Index of the access token shard.
+     * @return Name of the sharded table.
+     */
+    public static String getShardTable(String table, int shard) {
+
+        if (shard == 0) {
+            return table;
+        }
+        return table + SHARD_TABLE_SEPARATOR + shard;
+    }
+
+    /**
+     * Drop all the partitioned statements. Should be invoked when the user store domains change.
+     */
+    public void invalidate() {
+
+        templates = new Templates(templates.partitioningDomains);
+        if (log.isDebugEnabled()) {
+            log.debug("Cleared the partitioned SQL templates.");
+        }
+    }
+
+    private DomainTemplates getDomainTemplates(String userStoreDomain) throws IdentityOAuth2Exception {
+
+        String partitioningDomains = OAuth2Util.getAccessTokenPartitioningDomains();
+        Templates currentTemplates = templates;
+        if (!Objects.equals(currentTemplates.partitioningDomains, partitioningDomains)) {
+            currentTemplates = new Templates(partitioningDomains);
+            templates = currentTemplates;
+        }
+
+        String domainKey = userStoreDomain == null ? NO_USER_STORE_DOMAIN : userStoreDomain;
+        DomainTemplates domainTemplates = currentTemplates.domains.get(domainKey);
+        if (domainTemplates == null) {
+            domainTemplates = new DomainTemplates(
+                    OAuth2Util.getPartitionedTableByUserStore(OAuthConstants.ACCESS_TOKEN_STORE_TABLE,
+                            userStoreDomain),
+                    OAuth2Util.getPartitionedTableByUserStore(ACCESS_TOKEN_SCOPE_TABLE, userStoreDomain));
+            if (log.isDebugEnabled()) {
+                log.debug("PartitionedAccessTokenTable: " + domainTemplates.accessTokenTable +
+                        " & PartitionedAccessTokenScopeTable: " + domainTemplates.accessTokenScopeTable +
+                        " for user store domain: " + userStoreDomain);
+            }
+            domainTemplates.precompute();
+            DomainTemplates existingTemplates = currentTemplates.domains.putIfAbsent(domainKey, domainTemplates);
+            if (existingTemplates != null) {
+                domainTemplates = existingTemplates;
+            }
+        }
+        return domainTemplates;
+    }
+
+    /**
+     * Partitioned statements of all the user store domains, computed for a given set of partitioning domain
+     * mappings.
+     */
+    private static class Templates {
+
+        private final String partitioningDomains;
+        private final ConcurrentMap<String, DomainTemplates> domains = new ConcurrentHashMap<>();
+
+        private Templates(String partitioningDomains) {
+
+            this.partitioningDomains = partitioningDomains;
+        }
+    }
+
+    /**
+     * Partitioned statements of a single user store domain.
+     */
+    private static class DomainTemplates {
+
+        private final String accessTokenTable;
+        private final String accessTokenScopeTable;
+        private final String accessTokenTableReplacement;
+        private final String accessTokenScopeTableReplacement;
+        private final ConcurrentMap<String, String> statements = new ConcurrentHashMap<>();
+
+        private DomainTemplates(String accessTokenTable, String accessTokenScopeTable) {
+
+            this.accessTokenTable = accessTokenTable;
+            this.accessTokenScopeTable = accessTokenScopeTable;
+            this.accessTokenTableReplacement = Matcher.quoteReplacement(accessTokenTable);
+            this.accessTokenScopeTableReplacement = Matcher.quoteReplacement(accessTokenScopeTable);
+        }
+
+        private String getStatement(String sql) {
+
+            String partitionedSql = statements.get(sql);
+            if (partitionedSql == null) {
+                partitionedSql = partition(sql);
+                if (statements.size() < MAX_STATEMENTS_PER_DOMAIN) {
+                    statements.putIfAbsent(sql, partitionedSql);
+                }
+                if (log.isDebugEnabled()) {
+                    log.debug("Original SQL: " + sql);
+                    log.debug("Partitioned SQL: " + partitionedSql);
+                }
+            }
+            return partitionedSql;
+        }
+
+        private String partition(String sql) {
+
+            String partitionedSql = ACCESS_TOKEN_TABLE_PATTERN.matcher(sql).replaceAll(accessTokenTableReplacement);
+            return ACCESS_TOKEN_SCOPE_TABLE_PATTERN.matcher(partitionedSql)
+                    .replaceAll(accessTokenScopeTableReplacement);
+        }
+
+        private void precompute() {
+
+            for (Field field : SQLQueries.class.getDeclaredFields()) {
+                int modifiers = field.getModifiers();
+                if (field.getType() != String.class || !Modifier.isStatic(modifiers) ||
+                        !Modifier.isPublic(modifiers)) {
+                    continue;
+                }
+                try {
+                    String sql = (String) field.get(null);
+                    if (sql != null && sql.contains(OAuthConstants.ACCESS_TOKEN_STORE_TABLE)) {
+                        statements.put(sql, partition(sql));
+                    }
+                } catch (IllegalAccessException e) {
+                    // Only public fields are read. The statement is partitioned on first use otherwise.
+                    if (log.isDebugEnabled()) {
+                        log.debug("Cannot read the SQL statement: " + field.getName(), e);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -50,6 +50,8 @@ import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.model.RefreshTokenValidationDataDO;
 import org.wso2.carbon.identity.oauth2.token.OAuthTokenReqMessageContext;
 import org.wso2.carbon.identity.oauth2.token.handlers.grant.RefreshGrantHandler;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCUserClaimsCache;
 import org.wso2.carbon.identity.openidconnect.internal.OpenIDConnectServiceComponentHolder;
 import org.wso2.carbon.identity.openidconnect.model.RequestedClaim;
 import org.wso2.carbon.identity.organization.management.service.exception.OrganizationManagementException;
@@ -527,6 +529,22 @@ public class DefaultOIDCClaimsCallbackHandler implements CustomClaimsCallbackHan
             userTenantDomain = authenticatedUser.getTenantDomain();
             fullQualifiedUsername = authenticatedUser.toFullQualifiedUsername();
         }
+
+        OIDCUserClaimsCache userClaimsCache = OIDCUserClaimsCache.getInstance();
+        String tenantAwareUsername = MultitenantUtils.getTenantAwareUsername(fullQualifiedUsername);
+        if (userClaimsCache.isUserClaimsCachingEnabled()) {
+            Map<String, Object> cachedUserClaims = userClaimsCache.getUserClaims(tenantAwareUsername,
+                    userTenantDomain, clientId, spTenantDomain);
+            TokenIssuanceMetrics.countCacheLookup(cachedUserClaims != null);
+            if (cachedUserClaims != null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Retrieved claims of user: " + fullQualifiedUsername + " from the OIDC user claims " +
+                            "cache for client: " + clientId);
+                }
+                return cachedUserClaims;
+            }
+        }
+
         UserRealm realm = IdentityTenantUtil.getRealm(userTenantDomain, fullQualifiedUsername);
         if (realm == null) {
             log.warn("Invalid tenant domain: " + userTenantDomain + " provided. Cannot get claims for user: "
@@ -557,6 +575,8 @@ public class DefaultOIDCClaimsCallbackHandler implements CustomClaimsCallbackHan
             // Get the user claims in oidc dialect to be returned in the id_token.
             Map<String, Object> userClaimsInOIDCDialect = getUserClaimsInOIDCDialect(spTenantDomain, userClaims);
             userClaimsMappedToOIDCDialect.putAll(userClaimsInOIDCDialect);
+            userClaimsCache.addUserClaims(tenantAwareUsername, userTenantDomain, clientId, spTenantDomain,
+                    userClaimsMappedToOIDCDialect);
         }
 
         return userClaimsMappedToOIDCDialect;
@@ -25,13 +25,14 @@ import org.wso2.carbon.identity.event.IdentityEventConstants;
 import org.wso2.carbon.identity.event.IdentityEventException;
 import org.wso2.carbon.identity.event.event.Event;
 import org.wso2.carbon.identity.event.handler.AbstractEventHandler;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
 import org.wso2.carbon.identity.openidconnect.cache.OIDCScopeClaimCache;
 
 import java.util.Map;
 
 /**
  * This handles the claim metadata operation related events and it will clear the OIDCScopeClaimCache
- * cache when the event is triggered. When these relevant events are fired the cache will be
+ * and the OIDCDiscoveryDocumentCache caches when the event is triggered. When these relevant events are fired the cache will be
  * cleared based on the tenant and the cache will be rebuilt with the next request.
  */
 public class OIDCClaimMetaDataOperationHandler extends AbstractEventHandler {
@@ -58,6 +59,8 @@ public class OIDCClaimMetaDataOperationHandler extends AbstractEventHandler {
         }
         int tenantId = (int) eventProperties.get(IdentityEventConstants.EventProperty.TENANT_ID);
         oidcScopeClaimCache.clearScopeClaimMap(tenantId);
+        // The supported claims are listed in the discovery document.
+        OIDCDiscoveryDocumentCache.getInstance().clearDiscoveryDocument(tenantId);
     }
 
     @Override
@@ -33,11 +33,11 @@ import org.wso2.carbon.identity.claim.metadata.mgt.model.Claim;
 import org.wso2.carbon.identity.claim.metadata.mgt.model.ExternalClaim;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
 import org.wso2.carbon.identity.core.util.IdentityUtil;
-import org.wso2.carbon.identity.oauth.dto.ScopeDTO;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.openidconnect.cache.ScopeClaimIndex;
 import org.wso2.carbon.identity.openidconnect.internal.OpenIDConnectServiceComponentHolder;
 import org.wso2.carbon.identity.openidconnect.model.RequestedClaim;
 import org.wso2.carbon.registry.api.RegistryException;
@@ -100,22 +100,22 @@ public class OpenIDConnectClaimFilterImpl implements OpenIDConnectClaimFilter {
         Map<String, Object> claimsToBeReturned = new HashMap<>();
         Map<String, Object> addressScopeClaims = new HashMap<>();
 
-        Map<String, List<String>> scopeClaimsMap = getOIDCScopeClaimMap(spTenantDomain);
+        ScopeClaimIndex scopeClaimIndex = getOIDCScopeClaimIndex(spTenantDomain);
 
-        if (MapUtils.isNotEmpty(scopeClaimsMap)) {
-            List<String> addressScopeClaimUris = getAddressScopeClaimUris(scopeClaimsMap);
+        if (!scopeClaimIndex.isEmpty()) {
+            Set<String> addressScopeClaimUris = scopeClaimIndex.getClaimSet(ADDRESS_SCOPE);
             // Iterate through scopes requested in the OAuth2/OIDC request to filter claims
             for (String requestedScope : requestedScopes) {
                 // Check if requested scope is a supported OIDC scope value
 
-                if (scopeClaimsMap.containsKey(requestedScope)) {
+                if (scopeClaimIndex.containsScope(requestedScope)) {
                     if (log.isDebugEnabled()) {
                         log.debug("Requested scope: " + requestedScope + " is a defined OIDC Scope in tenantDomain: " +
                                 spTenantDomain + ". Filtering claims based on the permitted claims in the scope.");
                     }
                     // Requested scope is an registered OIDC scope. Filter and return the claims belonging to the scope.
                     Map<String, Object> filteredClaims =
-                            handleRequestedOIDCScope(userClaims, addressScopeClaims, scopeClaimsMap,
+                            handleRequestedOIDCScope(userClaims, addressScopeClaims, scopeClaimIndex,
                                     addressScopeClaimUris, requestedScope);
                     claimsToBeReturned.putAll(filteredClaims);
                 } else {
@@ -148,19 +148,19 @@ public class OpenIDConnectClaimFilterImpl implements OpenIDConnectClaimFilter {
     public List<String> getClaimsFilteredByOIDCScopes(Set<String> requestedScopes, String spTenantDomain) {
 
         List<String> filteredClaims = new ArrayList<>();
-        Map<String, List<String>> scopeClaimsMap = getOIDCScopeClaimMap(spTenantDomain);
+        ScopeClaimIndex scopeClaimIndex = getOIDCScopeClaimIndex(spTenantDomain);
 
-        if (MapUtils.isNotEmpty(scopeClaimsMap)) {
+        if (!scopeClaimIndex.isEmpty()) {
             // Iterate through scopes requested in the OAuth2/OIDC request to filter claims
             for (String requestedScope : requestedScopes) {
                 // Check if requested scope is a supported OIDC scope value
-                if (scopeClaimsMap.containsKey(requestedScope)) {
+                if (scopeClaimIndex.containsScope(requestedScope)) {
                     if (log.isDebugEnabled()) {
                         log.debug("Requested scope: " + requestedScope + " is a defined OIDC Scope in tenantDomain: " +
                                 spTenantDomain + ". Filtering claims based on the permitted claims in the scope.");
                     }
                     // Requested scope is an registered OIDC scope. Filter and return the claims belonging to the scope.
-                    filteredClaims.addAll(getClaimUrisInSupportedOIDCScope(scopeClaimsMap, requestedScope));
+                    filteredClaims.addAll(scopeClaimIndex.getClaims(requestedScope));
                 } else {
                     if (log.isDebugEnabled()) {
                         log.debug("Requested scope: " + requestedScope + " is not a defined OIDC Scope in " +
@@ -233,10 +233,10 @@ public class OpenIDConnectClaimFilterImpl implements OpenIDConnectClaimFilter {
 
         boolean hasAddressClaims = false;
         JSONObject consentedAddressClaims = new JSONObject();
-        Map<String, List<String>> scopeClaimsMap = getOIDCScopeClaimMap(spTenantDomain);
+        ScopeClaimIndex scopeClaimIndex = getOIDCScopeClaimIndex(spTenantDomain);
 
-        if (userClaims.containsKey(ADDRESS) && MapUtils.isNotEmpty(scopeClaimsMap)) {
-            List<String> addressScopeClaimUris = getAddressScopeClaimUris(scopeClaimsMap);
+        if (userClaims.containsKey(ADDRESS) && !scopeClaimIndex.isEmpty()) {
+            List<String> addressScopeClaimUris = scopeClaimIndex.getClaims(ADDRESS_SCOPE);
             consentedAddressClaims = (JSONObject) userClaims.get(ADDRESS);
             for (String addressScopeClaimEntry : addressScopeClaimUris) {
                 if (userConsentClaimUrisInOIDCDialect.contains(addressScopeClaimEntry)) {
@@ -264,23 +264,21 @@ public class OpenIDConnectClaimFilterImpl implements OpenIDConnectClaimFilter {
     }
 
     /**
-     * Retrieve the OIDC scope claim map for the given SP tenant domain.
+     * Retrieve the OIDC scope claim index for the given SP tenant domain.
      *
      * @param spTenantDomain Tenant domain of the SP.
-     * @return OIDC scope claim map for the tenant.
+     * @return OIDC scope claim index for the tenant.
      */
-    private Map<String, List<String>> getOIDCScopeClaimMap(String spTenantDomain) {
+    private ScopeClaimIndex getOIDCScopeClaimIndex(String spTenantDomain) {
 
-        // Map<"openid", "first_name,last_name,username">
-        Map<String, List<String>> scopeClaimsMap = new HashMap<>();
         int tenantId = IdentityTenantUtil.getTenantId(spTenantDomain);
-
         // Load OIDC scopes and mapped claims from the cache or db.
-        List<ScopeDTO> oidcScopesList = getOIDCScopes(tenantId);
-        for (ScopeDTO scope : oidcScopesList) {
-            scopeClaimsMap.put(scope.getName(), Arrays.asList(scope.getClaim()));
+        try {
+            return OAuthTokenPersistenceFactory.getInstance().getScopeClaimMappingDAO().getScopeClaimIndex(tenantId);
+        } catch (IdentityOAuth2Exception e) {
+            log.error("Error while loading oidc scopes and claims for the tenant: " + tenantId);
         }
-        return scopeClaimsMap;
+        return ScopeClaimIndex.empty();
     }
 
     private boolean isConsentManagementServiceDisabled(ServiceProvider serviceProvider) {
@@ -370,25 +368,14 @@ public class OpenIDConnectClaimFilterImpl implements OpenIDConnectClaimFilter {
         return propertiesToReturn;
     }
 
-    private List<ScopeDTO> getOIDCScopes(int tenantId) {
-
-        List<ScopeDTO> oidcScopesList = new ArrayList<>();
-        try {
-            oidcScopesList = OAuthTokenPersistenceFactory.getInstance().getScopeClaimMappingDAO().getScopes(tenantId);
-        } catch (IdentityOAuth2Exception e) {
-            log.error("Error while loading oidc scopes and claims for the tenant: " + tenantId);
-        }
-        return oidcScopesList;
-    }
-
     private Map<String, Object> handleRequestedOIDCScope(Map<String, Object> userClaimsInOIDCDialect,
                                                          Map<String, Object> addressScopeClaims,
-                                                         Map<String, List<String>> scopeClaimsMap,
-                                                         List<String> addressScopeClaimUris,
+                                                         ScopeClaimIndex scopeClaimIndex,
+                                                         Set<String> addressScopeClaimUris,
                                                          String oidcScope) {
 
         Map<String, Object> filteredClaims = new HashMap<>();
-        List<String> claimUrisInRequestedScope = getClaimUrisInSupportedOIDCScope(scopeClaimsMap, oidcScope);
+        List<String> claimUrisInRequestedScope = scopeClaimIndex.getClaims(oidcScope);
         for (String scopeClaim : claimUrisInRequestedScope) {
             String oidcClaimUri = scopeClaim;
             boolean isAddressClaim = false;
@@ -448,26 +435,11 @@ public class OpenIDConnectClaimFilterImpl implements OpenIDConnectClaimFilter {
         }
     }
 
-    private List<String> getAddressScopeClaimUris(Map<String, List<String>> scopeClaimsMap) {
-
-        return getClaimUrisInSupportedOIDCScope(scopeClaimsMap, ADDRESS_SCOPE);
-    }
-
-    private boolean isAddressClaim(String scopeClaim, List<String> addressScopeClaims) {
+    private boolean isAddressClaim(String scopeClaim, Set<String> addressScopeClaims) {
 
         return StringUtils.startsWith(scopeClaim, ADDRESS_PREFIX) || addressScopeClaims.contains(scopeClaim);
     }
 
-    private List<String> getClaimUrisInSupportedOIDCScope(Map<String, List<String>> scopeClaimsMap,
-                                                          String requestedScope) {
-
-        List<String> requestedScopeClaimsList = new ArrayList<>();
-        if (scopeClaimsMap.containsKey(requestedScope)) {
-            requestedScopeClaimsList = scopeClaimsMap.get(requestedScope);
-        }
-        return requestedScopeClaimsList;
-    }
-
     private void handleUpdateAtClaim(Map<String, Object> returnClaims) {
 
         if (returnClaims.containsKey(UPDATED_AT) && returnClaims.get(UPDATED_AT) != null &&
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.cache.BaseCache;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
+import org.wso2.carbon.utils.CarbonUtils;
+
+/**
+ * Cache of the serialized OIDC discovery document of each tenant. The document is built once per tenant and served
+ * from the cache until the OIDC claim dialect or the OIDC scopes of the tenant change, or the OAuth server
+ * configuration is reloaded.
+ * <p>
+ * Caching is disabled by default and can be enabled with {@code OAuth.OIDCDiscoveryDocumentCache.Enable}.
+ */
+public class OIDCDiscoveryDocumentCache extends BaseCache<String, OIDCDiscoveryDocumentCacheEntry> {
+
+    private static final Log log = LogFactory.getLog(OIDCDiscoveryDocumentCache.class);
+
+    public static final String OIDC_DISCOVERY_DOCUMENT_CACHE = "OIDCDiscoveryDocumentCache";
+    private static final String DISCOVERY_DOCUMENT_CACHE_ENABLE = "OAuth.OIDCDiscoveryDocumentCache.Enable";
+
+    private static volatile OIDCDiscoveryDocumentCache instance;
+
+    private final boolean discoveryDocumentCachingEnabled;
+    // Documents built before this time are stale. The cache holds the documents of every tenant, hence they are
+    // dropped on lookup rather than cleared on reload.
+    private volatile long configurationReloadTime;
+
+    private OIDCDiscoveryDocumentCache() {
+
+        super(OIDC_DISCOVERY_DOCUMENT_CACHE);
+        this.discoveryDocumentCachingEnabled =
+                Boolean.parseBoolean(IdentityUtil.getProperty(DISCOVERY_DOCUMENT_CACHE_ENABLE));
+        OAuthServerConfiguration.addListener((previousConfiguration, configuration) ->
+                configurationReloadTime = System.currentTimeMillis());
+    }
+
+    public static OIDCDiscoveryDocumentCache getInstance() {
+
+        CarbonUtils.checkSecurity();
+        if (instance == null) {
+            synchronized (OIDCDiscoveryDocumentCache.class) {
+                if (instance == null) {
+                    instance = new OIDCDiscoveryDocumentCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether discovery documents are cached.
+     *
+     * @return true if caching of discovery documents is enabled.
+     */
+    public boolean isDiscoveryDocumentCachingEnabled() {
+
+        return discoveryDocumentCachingEnabled;
+    }
+
+    public void addDiscoveryDocument(String tenantDomain, OIDCDiscoveryDocumentCacheEntry discoveryDocument) {
+
+        if (discoveryDocumentCachingEnabled) {
+            super.addToCache(tenantDomain, discoveryDocument, tenantDomain);
+        }
+    }
+
+    public OIDCDiscoveryDocumentCacheEntry getDiscoveryDocument(String tenantDomain) {
+
+        if (!discoveryDocumentCachingEnabled) {
+            return null;
+        }
+        OIDCDiscoveryDocumentCacheEntry discoveryDocument = super.getValueFromCache(tenantDomain, tenantDomain);
+        if (discoveryDocument != null && discoveryDocument.getCreatedTime() <= configurationReloadTime) {
+            clearDiscoveryDocument(tenantDomain);
+            return null;
+        }
+        return discoveryDocument;
+    }
+
+    public void clearDiscoveryDocument(String tenantDomain) {
+
+        if (!discoveryDocumentCachingEnabled) {
+            return;
+        }
+        super.clearCacheEntry(tenantDomain, tenantDomain);
+        if (log.isDebugEnabled()) {
+            log.debug("Cleared the cached OIDC discovery document of tenant: " + tenantDomain);
+        }
+    }
+
+    public void clearDiscoveryDocument(int tenantId) {
+
+        if (discoveryDocumentCachingEnabled) {
+            clearDiscoveryDocument(IdentityTenantUtil.getTenantDomain(tenantId));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+/**
+ * Cache entry which will be used in {@link OIDCDiscoveryDocumentCache}. Holds the serialized discovery document of a
+ * tenant together with its entity tag.
+ */
+public class OIDCDiscoveryDocumentCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = -3129837565201938845L;
+
+    private final String discoveryDocument;
+    private final String entityTag;
+    private final long createdTime;
+
+    public OIDCDiscoveryDocumentCacheEntry(String discoveryDocument) {
+
+        this.discoveryDocument = discoveryDocument;
+        this.entityTag = buildEntityTag(discoveryDocument);
+        this.createdTime = System.currentTimeMillis();
+    }
+
+    public String getDiscoveryDocument() {
+
+        return discoveryDocument;
+    }
+
+    /**
+     * Get the strong entity tag of the discovery document, including the surrounding quotes.
+     *
+     * @return Entity tag.
+     */
+    public String getEntityTag() {
+
+        return entityTag;
+    }
+
+    /**
+     * Get the time the discovery document was built.
+     *
+     * @return Milliseconds since the epoch.
+     */
+    public long getCreatedTime() {
+
+        return createdTime;
+    }
+
+    private static String buildEntityTag(String discoveryDocument) {
+
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(discoveryDocument.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is available in every Java platform.
+            throw new IllegalStateException("SHA-256 algorithm is not available.", e);
+        }
+    }
+}
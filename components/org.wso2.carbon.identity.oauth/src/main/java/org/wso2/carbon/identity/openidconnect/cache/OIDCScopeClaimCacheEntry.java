@@ -28,15 +28,25 @@ import java.util.List;
  */
 public class OIDCScopeClaimCacheEntry extends CacheEntry {
 
-    private List<ScopeDTO> scopeList;
+    private ScopeClaimIndex scopeClaimIndex = ScopeClaimIndex.empty();
 
     public List<ScopeDTO> getScopeClaimMapping() {
 
-        return scopeList;
+        return scopeClaimIndex.getScopes();
     }
 
     public void setScopeClaimMapping(List<ScopeDTO> scopeList) {
 
-        this.scopeList = scopeList;
+        this.scopeClaimIndex = new ScopeClaimIndex(scopeList);
+    }
+
+    public ScopeClaimIndex getScopeClaimIndex() {
+
+        return scopeClaimIndex;
+    }
+
+    public void setScopeClaimIndex(ScopeClaimIndex scopeClaimIndex) {
+
+        this.scopeClaimIndex = scopeClaimIndex;
     }
 }
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.cache.BaseCache;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.util.UserCoreUtil;
+import org.wso2.carbon.utils.CarbonUtils;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Cache of user claims in the OIDC dialect used to build ID tokens and JWT access tokens. Claims are retrieved from
+ * the user store, mapped to the service provider roles and to the OIDC dialect once per user and service provider,
+ * and reused by subsequent token requests until the user is updated or the entry expires.
+ * <p>
+ * Caching is disabled by default and can be enabled with {@code OAuth.OIDCUserClaimsCache.Enable}.
+ */
+public class OIDCUserClaimsCache extends BaseCache<OIDCUserClaimsCacheKey, OIDCUserClaimsCacheEntry> {
+
+    private static final Log log = LogFactory.getLog(OIDCUserClaimsCache.class);
+
+    public static final String OIDC_USER_CLAIMS_CACHE = "OIDCUserClaimsCache";
+    private static final String USER_CLAIMS_CACHE_ENABLE = "OAuth.OIDCUserClaimsCache.Enable";
+    private static final String APPLICATION_KEY_SEPARATOR = ":";
+
+    private static volatile OIDCUserClaimsCache instance;
+
+    private final boolean userClaimsCachingEnabled;
+
+    private OIDCUserClaimsCache() {
+
+        super(OIDC_USER_CLAIMS_CACHE);
+        this.userClaimsCachingEnabled = Boolean.parseBoolean(IdentityUtil.getProperty(USER_CLAIMS_CACHE_ENABLE));
+    }
+
+    public static OIDCUserClaimsCache getInstance() {
+
+        CarbonUtils.checkSecurity();
+        if (instance == null) {
+            synchronized (OIDCUserClaimsCache.class) {
+                if (instance == null) {
+                    instance = new OIDCUserClaimsCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Check whether user claims are cached.
+     *
+     * @return true if caching of user claims is enabled.
+     */
+    public boolean isUserClaimsCachingEnabled() {
+
+        return userClaimsCachingEnabled;
+    }
+
+    /**
+     * Get the cached claims of a user for a service provider.
+     *
+     * @param tenantAwareUsername Tenant aware username of the user, with the user store domain.
+     * @param userTenantDomain    Tenant domain of the user.
+     * @param clientId            Client id of the service provider.
+     * @param spTenantDomain      Tenant domain of the service provider.
+     * @return Claims of the user in the OIDC dialect, or null if not cached.
+     */
+    public Map<String, Object> getUserClaims(String tenantAwareUsername, String userTenantDomain, String clientId,
+                                             String spTenantDomain) {
+
+        if (!userClaimsCachingEnabled) {
+            return null;
+        }
+        OIDCUserClaimsCacheEntry cacheEntry = super.getValueFromCache(buildCacheKey(tenantAwareUsername,
+                IdentityUtil.extractDomainFromName(tenantAwareUsername), userTenantDomain), userTenantDomain);
+        if (cacheEntry == null) {
+            return null;
+        }
+        return cacheEntry.getClaims(buildApplicationKey(clientId, spTenantDomain));
+    }
+
+    /**
+     * Cache the claims of a user for a service provider.
+     *
+     * @param tenantAwareUsername Tenant aware username of the user, with the user store domain.
+     * @param userTenantDomain    Tenant domain of the user.
+     * @param clientId            Client id of the service provider.
+     * @param spTenantDomain      Tenant domain of the service provider.
+     * @param claims              Claims of the user in the OIDC dialect.
+     */
+    public void addUserClaims(String tenantAwareUsername, String userTenantDomain, String clientId,
+                              String spTenantDomain, Map<String, Object> claims) {
+
+        if (!userClaimsCachingEnabled) {
+            return;
+        }
+        OIDCUserClaimsCacheKey cacheKey = buildCacheKey(tenantAwareUsername,
+                IdentityUtil.extractDomainFromName(tenantAwareUsername), userTenantDomain);
+        OIDCUserClaimsCacheEntry cacheEntry = super.getValueFromCache(cacheKey, userTenantDomain);
+        if (cacheEntry == null) {
+            cacheEntry = new OIDCUserClaimsCacheEntry();
+        }
+        // Entries are replaced rather than modified. A concurrent update may drop the claims of another service
+        // provider, which are then retrieved again from the user store.
+        super.addToCache(cacheKey, cacheEntry.withClaims(buildApplicationKey(clientId, spTenantDomain), claims),
+                userTenantDomain);
+    }
+
+    /**
+     * Remove the cached claims of a user for all service providers.
+     *
+     * @param username        Username, with or without the user store domain.
+     * @param userStoreDomain User store domain of the user.
+     * @param tenantDomain    Tenant domain of the user.
+     */
+    public void clearUserClaims(String username, String userStoreDomain, String tenantDomain) {
+
+        if (!userClaimsCachingEnabled) {
+            return;
+        }
+        super.clearCacheEntry(buildCacheKey(username, userStoreDomain, tenantDomain), tenantDomain);
+        if (log.isDebugEnabled()) {
+            log.debug("Cleared the cached OIDC claims of user: " + username + " in user store: " + userStoreDomain +
+                    " of tenant: " + tenantDomain);
+        }
+    }
+
+    /**
+     * Remove the cached claims of all the users of a tenant. Entries are kept per user, hence this is used to drop
+     * the claims of a service provider of the tenant, e.g. when its claim or role configuration changes. Claims of
+     * users of other tenants, cached for a SaaS service provider, are dropped when their entries expire.
+     *
+     * @param tenantDomain Tenant domain of the service provider.
+     */
+    public void clearUserClaimsOfTenant(String tenantDomain) {
+
+        if (!userClaimsCachingEnabled) {
+            return;
+        }
+        super.clear(IdentityTenantUtil.getTenantId(tenantDomain));
+        if (log.isDebugEnabled()) {
+            log.debug("Cleared the cached OIDC claims of the users of tenant: " + tenantDomain);
+        }
+    }
+
+    private static OIDCUserClaimsCacheKey buildCacheKey(String username, String userStoreDomain,
+                                                        String tenantDomain) {
+
+        if (StringUtils.isBlank(userStoreDomain)) {
+            userStoreDomain = UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME;
+        }
+        userStoreDomain = userStoreDomain.toUpperCase(Locale.ENGLISH);
+        String userName = UserCoreUtil.removeDomainFromName(username);
+        // The username given when the user is updated may differ in case from the one used to log in.
+        if (!IdentityUtil.isUserStoreCaseSensitive(userStoreDomain, IdentityTenantUtil.getTenantId(tenantDomain))) {
+            userName = userName.toLowerCase(Locale.ENGLISH);
+        }
+        return new OIDCUserClaimsCacheKey(userName, userStoreDomain, tenantDomain);
+    }
+
+    private static String buildApplicationKey(String clientId, String spTenantDomain) {
+
+        return clientId + APPLICATION_KEY_SEPARATOR + spTenantDomain;
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache entry of {@link OIDCUserClaimsCache}. Holds the claims of a user in the OIDC dialect, per service provider.
+ * Entries are not modified once added to the cache.
+ */
+public class OIDCUserClaimsCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = 2216183409764713315L;
+
+    private final HashMap<String, HashMap<String, Object>> claimsByApplication;
+
+    public OIDCUserClaimsCacheEntry() {
+
+        this.claimsByApplication = new HashMap<>();
+    }
+
+    private OIDCUserClaimsCacheEntry(HashMap<String, HashMap<String, Object>> claimsByApplication) {
+
+        this.claimsByApplication = claimsByApplication;
+    }
+
+    /**
+     * Get the claims of the user for the given service provider.
+     *
+     * @param applicationKey Key of the service provider.
+     * @return Copy of the claims in the OIDC dialect, or null if not available.
+     */
+    public Map<String, Object> getClaims(String applicationKey) {
+
+        Map<String, Object> claims = claimsByApplication.get(applicationKey);
+        return claims != null ? new HashMap<>(claims) : null;
+    }
+
+    /**
+     * Create a new entry with the claims of the user for the given service provider added.
+     *
+     * @param applicationKey Key of the service provider.
+     * @param claims         Claims in the OIDC dialect.
+     * @return New cache entry.
+     */
+    public OIDCUserClaimsCacheEntry withClaims(String applicationKey, Map<String, Object> claims) {
+
+        HashMap<String, HashMap<String, Object>> newClaimsByApplication = new HashMap<>(claimsByApplication);
+        newClaimsByApplication.put(applicationKey, new HashMap<>(claims));
+        return new OIDCUserClaimsCacheEntry(newClaimsByApplication);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheKey;
+
+import java.util.Objects;
+
+/**
+ * Cache key of {@link OIDCUserClaimsCache}. Identifies a user by the username, user store domain and tenant domain,
+ * which are the attributes known to user operation listeners when the user is updated.
+ */
+public class OIDCUserClaimsCacheKey extends CacheKey {
+
+    private static final long serialVersionUID = -5382371540295162340L;
+
+    private final String userName;
+    private final String userStoreDomain;
+    private final String tenantDomain;
+
+    public OIDCUserClaimsCacheKey(String userName, String userStoreDomain, String tenantDomain) {
+
+        this.userName = userName;
+        this.userStoreDomain = userStoreDomain;
+        this.tenantDomain = tenantDomain;
+    }
+
+    public String getUserName() {
+
+        return userName;
+    }
+
+    public String getUserStoreDomain() {
+
+        return userStoreDomain;
+    }
+
+    public String getTenantDomain() {
+
+        return tenantDomain;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof OIDCUserClaimsCacheKey)) {
+            return false;
+        }
+        OIDCUserClaimsCacheKey that = (OIDCUserClaimsCacheKey) o;
+        return Objects.equals(userName, that.userName) && Objects.equals(userStoreDomain, that.userStoreDomain) &&
+                Objects.equals(tenantDomain, that.tenantDomain);
+    }
+
+    @Override
+    public int hashCode() {
+
+        return Objects.hash(userName, userStoreDomain, tenantDomain);
+    }
+
+    @Override
+    public String toString() {
+
+        return "OIDCUserClaimsCacheKey{" +
+                "userName='" + userName + '\'' +
+                ", userStoreDomain='" + userStoreDomain + '\'' +
+                ", tenantDomain='" + tenantDomain + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.wso2.carbon.identity.core.cache.BaseCache;
+import org.wso2.carbon.utils.CarbonUtils;
+
+/**
+ * Cache of the requested claims of request objects stored in the compact form. Entries are keyed by the reference
+ * the request object is currently looked up with, i.e. the session data key, the authorization code id or the access
+ * token id.
+ */
+public class RequestObjectClaimsCache extends BaseCache<String, RequestObjectClaimsCacheEntry> {
+
+    public static final String REQUEST_OBJECT_CLAIMS_CACHE = "RequestObjectClaimsCache";
+    private static volatile RequestObjectClaimsCache instance;
+
+    private RequestObjectClaimsCache() {
+
+        super(REQUEST_OBJECT_CLAIMS_CACHE);
+    }
+
+    public static RequestObjectClaimsCache getInstance() {
+
+        CarbonUtils.checkSecurity();
+        if (instance == null) {
+            synchronized (RequestObjectClaimsCache.class) {
+                if (instance == null) {
+                    instance = new RequestObjectClaimsCache();
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void addRequestedClaims(String reference, byte[] requestedClaims) {
+
+        super.addToCache(reference, new RequestObjectClaimsCacheEntry(requestedClaims));
+    }
+
+    public byte[] getRequestedClaims(String reference) {
+
+        RequestObjectClaimsCacheEntry cacheEntry = super.getValueFromCache(reference);
+        return cacheEntry != null ? cacheEntry.getRequestedClaims() : null;
+    }
+
+    public void clearRequestedClaims(String reference) {
+
+        super.clearCacheEntry(reference);
+    }
+
+    /**
+     * Make the cached requested claims available under a new reference, e.g. when the authorization code issued for
+     * a session is exchanged for an access token.
+     *
+     * @param oldReference  Reference the claims are cached with.
+     * @param newReference  New reference of the claims.
+     * @param keepReference true to keep the claims cached with the old reference as well.
+     */
+    public void moveRequestedClaims(String oldReference, String newReference, boolean keepReference) {
+
+        byte[] requestedClaims = getRequestedClaims(oldReference);
+        // The claims of the new reference are reloaded from the database when the old reference is not cached.
+        super.clearCacheEntry(newReference);
+        if (requestedClaims != null) {
+            addRequestedClaims(newReference, requestedClaims);
+            if (!keepReference) {
+                super.clearCacheEntry(oldReference);
+            }
+        }
+    }
+}
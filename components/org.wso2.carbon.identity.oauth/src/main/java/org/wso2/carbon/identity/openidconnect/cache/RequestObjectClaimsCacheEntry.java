@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.wso2.carbon.identity.core.cache.CacheEntry;
+
+/**
+ * Cache entry which will be used in {@link RequestObjectClaimsCache}. Holds the requested claims of a request object
+ * in the encoded form stored in the database, so that every read decodes its own copy of the claims.
+ */
+public class RequestObjectClaimsCacheEntry extends CacheEntry {
+
+    private static final long serialVersionUID = 2764937195870147360L;
+
+    private final byte[] requestedClaims;
+
+    public RequestObjectClaimsCacheEntry(byte[] requestedClaims) {
+
+        this.requestedClaims = requestedClaims.clone();
+    }
+
+    public byte[] getRequestedClaims() {
+
+        return requestedClaims.clone();
+    }
+}
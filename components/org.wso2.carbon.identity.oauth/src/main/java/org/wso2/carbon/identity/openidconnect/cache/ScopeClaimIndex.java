@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.wso2.carbon.identity.oauth.dto.ScopeDTO;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable index of the OIDC scopes of a tenant and the claims mapped to them. Provides hash lookups from a scope to
+ * its claims and from a claim to the scopes it belongs to, instead of scanning the list of scopes.
+ * <p>
+ * An index is never modified. Adding, updating or removing a scope creates a new index from the current one.
+ */
+public class ScopeClaimIndex implements Serializable {
+
+    private static final long serialVersionUID = -1468310583941524412L;
+
+    private static final ScopeClaimIndex EMPTY = new ScopeClaimIndex(Collections.emptyList());
+
+    private final Map<String, ScopeDTO> scopesByName;
+    private final List<ScopeDTO> scopes;
+    private final List<String> scopeNames;
+    private final Map<String, List<String>> claimsByScope;
+    private final Map<String, Set<String>> claimSetsByScope;
+    private final Map<String, Set<String>> scopesByClaim;
+
+    public ScopeClaimIndex(List<ScopeDTO> scopes) {
+
+        this(toScopeMap(scopes));
+    }
+
+    private ScopeClaimIndex(LinkedHashMap<String, ScopeDTO> scopesByName) {
+
+        Map<String, List<String>> claimsByScope = new HashMap<>();
+        Map<String, Set<String>> claimSetsByScope = new HashMap<>();
+        Map<String, Set<String>> scopesByClaim = new HashMap<>();
+        for (ScopeDTO scope : scopesByName.values()) {
+            List<String> claims = scope.getClaim() != null ? Arrays.asList(scope.getClaim()) :
+                    Collections.emptyList();
+            claimsByScope.put(scope.getName(), Collections.unmodifiableList(claims));
+            claimSetsByScope.put(scope.getName(), Collections.unmodifiableSet(new LinkedHashSet<>(claims)));
+            for (String claim : claims) {
+                scopesByClaim.computeIfAbsent(claim, key -> new LinkedHashSet<>()).add(scope.getName());
+            }
+        }
+        scopesByClaim.replaceAll((claim, claimScopes) -> Collections.unmodifiableSet(claimScopes));
+
+        this.scopesByName = Collections.unmodifiableMap(scopesByName);
+        this.scopes = Collections.unmodifiableList(new ArrayList<>(scopesByName.values()));
+        this.scopeNames = Collections.unmodifiableList(new ArrayList<>(scopesByName.keySet()));
+        this.claimsByScope = Collections.unmodifiableMap(claimsByScope);
+        this.claimSetsByScope = Collections.unmodifiableMap(claimSetsByScope);
+        this.scopesByClaim = Collections.unmodifiableMap(scopesByClaim);
+    }
+
+    public static ScopeClaimIndex empty() {
+
+        return EMPTY;
+    }
+
+    public boolean isEmpty() {
+
+        return scopes.isEmpty();
+    }
+
+    /**
+     * Get the scopes in the order they were loaded.
+     *
+     * @return Unmodifiable list of scopes.
+     */
+    public List<ScopeDTO> getScopes() {
+
+        return scopes;
+    }
+
+    public List<String> getScopeNames() {
+
+        return scopeNames;
+    }
+
+    /**
+     * Get a scope by name.
+     *
+     * @param scopeName Name of the scope.
+     * @return Scope, or null if the scope does not exist.
+     */
+    public ScopeDTO getScope(String scopeName) {
+
+        return scopeName != null ? scopesByName.get(scopeName) : null;
+    }
+
+    public boolean containsScope(String scopeName) {
+
+        return scopeName != null && scopesByName.containsKey(scopeName);
+    }
+
+    /**
+     * Get the claims mapped to a scope, in the order they were defined.
+     *
+     * @param scopeName Name of the scope.
+     * @return Unmodifiable list of claims, empty if the scope does not exist.
+     */
+    public List<String> getClaims(String scopeName) {
+
+        List<String> claims = scopeName != null ? claimsByScope.get(scopeName) : null;
+        return claims != null ? claims : Collections.emptyList();
+    }
+
+    /**
+     * Get the claims mapped to a scope as a set, for membership checks.
+     *
+     * @param scopeName Name of the scope.
+     * @return Unmodifiable set of claims, empty if the scope does not exist.
+     */
+    public Set<String> getClaimSet(String scopeName) {
+
+        Set<String> claims = scopeName != null ? claimSetsByScope.get(scopeName) : null;
+        return claims != null ? claims : Collections.emptySet();
+    }
+
+    /**
+     * Get the scopes a claim is mapped to.
+     *
+     * @param claim Claim URI.
+     * @return Unmodifiable set of scope names, empty if the claim is not mapped to any scope.
+     */
+    public Set<String> getScopesOfClaim(String claim) {
+
+        Set<String> claimScopes = claim != null ? scopesByClaim.get(claim) : null;
+        return claimScopes != null ? claimScopes : Collections.emptySet();
+    }
+
+    /**
+     * Get all scopes with the claims mapped to them.
+     *
+     * @return Unmodifiable map of scope names to claims.
+     */
+    public Map<String, List<String>> getClaimsByScope() {
+
+        return claimsByScope;
+    }
+
+    /**
+     * Create an index with the given scope added, replacing any existing scope with the same name.
+     *
+     * @param scope Scope to add.
+     * @return New index.
+     */
+    public ScopeClaimIndex withScope(ScopeDTO scope) {
+
+        return withScopes(Collections.singletonList(scope));
+    }
+
+    /**
+     * Create an index with the given scopes added, replacing any existing scopes with the same names.
+     *
+     * @param scopesToAdd Scopes to add.
+     * @return New index.
+     */
+    public ScopeClaimIndex withScopes(List<ScopeDTO> scopesToAdd) {
+
+        LinkedHashMap<String, ScopeDTO> newScopesByName = new LinkedHashMap<>(scopesByName);
+        newScopesByName.putAll(toScopeMap(scopesToAdd));
+        return new ScopeClaimIndex(newScopesByName);
+    }
+
+    /**
+     * Create an index without the given scope.
+     *
+     * @param scopeName Name of the scope to remove.
+     * @return New index, or this index if the scope does not exist.
+     */
+    public ScopeClaimIndex withoutScope(String scopeName) {
+
+        if (!containsScope(scopeName)) {
+            return this;
+        }
+        LinkedHashMap<String, ScopeDTO> newScopesByName = new LinkedHashMap<>(scopesByName);
+        newScopesByName.remove(scopeName);
+        return new ScopeClaimIndex(newScopesByName);
+    }
+
+    private static LinkedHashMap<String, ScopeDTO> toScopeMap(List<ScopeDTO> scopes) {
+
+        LinkedHashMap<String, ScopeDTO> scopesByName = new LinkedHashMap<>();
+        if (scopes != null) {
+            for (ScopeDTO scope : scopes) {
+                if (scope != null && scope.getName() != null) {
+                    // Copy the scope so that the index is not affected by later changes to the given scope.
+                    String[] claims = scope.getClaim() != null ? scope.getClaim().clone() : null;
+                    scopesByName.put(scope.getName(), new ScopeDTO(scope.getName(), scope.getDisplayName(),
+                            scope.getDescription(), claims));
+                }
+            }
+        }
+        return scopesByName;
+    }
+}
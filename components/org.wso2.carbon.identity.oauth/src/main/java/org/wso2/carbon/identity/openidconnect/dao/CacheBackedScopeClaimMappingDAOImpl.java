@@ -25,15 +25,21 @@ import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.identity.oauth.dto.ScopeDTO;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
+import org.wso2.carbon.identity.openidconnect.cache.OIDCDiscoveryDocumentCache;
 import org.wso2.carbon.identity.openidconnect.cache.OIDCScopeClaimCache;
 import org.wso2.carbon.identity.openidconnect.cache.OIDCScopeClaimCacheEntry;
+import org.wso2.carbon.identity.openidconnect.cache.ScopeClaimIndex;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.UnaryOperator;
 
 /**
  * Default cache backed implementation of {@link ScopeClaimMappingDAO}. This handles {@link OIDCScopeClaimCache}
  * related cache layer operations.
+ * <p>
+ * The scopes of a tenant are cached as a {@link ScopeClaimIndex}. Adding, updating and deleting a scope updates the
+ * cached index with the change instead of clearing it, so that the scopes are not reloaded from the database.
  */
 public class CacheBackedScopeClaimMappingDAOImpl implements ScopeClaimMappingDAO {
 
@@ -49,6 +55,7 @@ public class CacheBackedScopeClaimMappingDAOImpl implements ScopeClaimMappingDAO
         OIDCScopeClaimCacheEntry oidcScopeClaimCacheEntry = new OIDCScopeClaimCacheEntry();
         oidcScopeClaimCacheEntry.setScopeClaimMapping(scopeClaims);
         oidcScopeClaimCache.addScopeClaimMap(tenantId, oidcScopeClaimCacheEntry);
+        OIDCDiscoveryDocumentCache.getInstance().clearDiscoveryDocument(tenantId);
         if (log.isDebugEnabled()) {
             log.debug("The cache oidcScopeClaimCache is initialized for the tenant : " + tenantId);
         }
@@ -58,11 +65,9 @@ public class CacheBackedScopeClaimMappingDAOImpl implements ScopeClaimMappingDAO
     public void addScopes(int tenantId, List<ScopeDTO> scopeClaimsMap) throws IdentityOAuth2Exception {
 
         scopeClaimMappingDAOImpl.addScopes(tenantId, scopeClaimsMap);
-        OIDCScopeClaimCacheEntry oidcScopeClaimCacheEntry = new OIDCScopeClaimCacheEntry();
-        oidcScopeClaimCacheEntry.setScopeClaimMapping(scopeClaimsMap);
-        oidcScopeClaimCache.addScopeClaimMap(tenantId, oidcScopeClaimCacheEntry);
+        updateCachedScopeClaimIndex(tenantId, scopeClaimIndex -> scopeClaimIndex.withScopes(scopeClaimsMap));
         if (log.isDebugEnabled()) {
-            log.debug("The cache oidcScopeClaimCache is added for the tenant : " + tenantId);
+            log.debug("The cache oidcScopeClaimCache is updated with the added scopes for the tenant : " + tenantId);
         }
     }
 
@@ -71,6 +76,7 @@ public class CacheBackedScopeClaimMappingDAOImpl implements ScopeClaimMappingDAO
 
         oidcScopeClaimCache.clearScopeClaimMap(tenantId);
         scopeClaimMappingDAOImpl.addScope(tenantId, scope, claimsList);
+        OIDCDiscoveryDocumentCache.getInstance().clearDiscoveryDocument(tenantId);
         if (log.isDebugEnabled()) {
             log.debug("The cache oidcScopeClaimCache is cleared for the tenant : " + tenantId);
         }
@@ -79,26 +85,32 @@ public class CacheBackedScopeClaimMappingDAOImpl implements ScopeClaimMappingDAO
     @Override
     public void addScope(ScopeDTO scope, int tenantId) throws IdentityOAuth2Exception {
 
-        oidcScopeClaimCache.clearScopeClaimMap(tenantId);
         scopeClaimMappingDAOImpl.addScope(scope, tenantId);
+        updateCachedScopeClaimIndex(tenantId, scopeClaimIndex -> scopeClaimIndex.withScope(scope));
         if (log.isDebugEnabled()) {
-            log.debug("The cache oidcScopeClaimCache is cleared for the tenant : " + tenantId);
+            log.debug("The cache oidcScopeClaimCache is updated with the added scope for the tenant : " + tenantId);
         }
     }
 
     @Override
     public List<ScopeDTO> getScopes(int tenantId) throws IdentityOAuth2Exception {
 
+        return new ArrayList<>(getScopeClaimIndex(tenantId).getScopes());
+    }
+
+    @Override
+    public ScopeClaimIndex getScopeClaimIndex(int tenantId) throws IdentityOAuth2Exception {
+
         OIDCScopeClaimCacheEntry oidcScopeClaimCacheEntry = oidcScopeClaimCache.getScopeClaimMap(tenantId);
         oidcScopeClaimCacheEntry = loadOIDCScopeClaims(tenantId, oidcScopeClaimCacheEntry);
-        return oidcScopeClaimCacheEntry.getScopeClaimMapping();
+        return oidcScopeClaimCacheEntry.getScopeClaimIndex();
     }
 
     @Override
     public void deleteScope(String scope, int tenantId) throws IdentityOAuth2Exception {
 
         scopeClaimMappingDAOImpl.deleteScope(scope, tenantId);
-        oidcScopeClaimCache.clearScopeClaimMap(tenantId);
+        updateCachedScopeClaimIndex(tenantId, scopeClaimIndex -> scopeClaimIndex.withoutScope(scope));
         if (log.isDebugEnabled()) {
             log.debug("OIDC scope claims mapping deleted from the oidcScopeClaimCache for tenant: " + tenantId);
         }
@@ -110,6 +122,7 @@ public class CacheBackedScopeClaimMappingDAOImpl implements ScopeClaimMappingDAO
 
         scopeClaimMappingDAOImpl.updateScope(scope, tenantId, addClaims, deleteClaims);
         oidcScopeClaimCache.clearScopeClaimMap(tenantId);
+        OIDCDiscoveryDocumentCache.getInstance().clearDiscoveryDocument(tenantId);
         if (log.isDebugEnabled()) {
             log.debug("The cache oidcScopeClaimCache is cleared for the tenant : " + tenantId);
         }
@@ -119,34 +132,26 @@ public class CacheBackedScopeClaimMappingDAOImpl implements ScopeClaimMappingDAO
     public void updateScope(ScopeDTO scope, int tenantId) throws IdentityOAuth2Exception {
 
         scopeClaimMappingDAOImpl.updateScope(scope, tenantId);
-        oidcScopeClaimCache.clearScopeClaimMap(tenantId);
+        // Only existing scopes are updated in the database.
+        updateCachedScopeClaimIndex(tenantId, scopeClaimIndex -> scopeClaimIndex.containsScope(scope.getName()) ?
+                scopeClaimIndex.withScope(scope) : scopeClaimIndex);
         if (log.isDebugEnabled()) {
-            log.debug("The cache oidcScopeClaimCache is cleared for the tenant : " + tenantId);
+            log.debug("The cache oidcScopeClaimCache is updated with the updated scope for the tenant : " + tenantId);
         }
     }
 
     @Override
     public List<String> getScopeNames(int tenantId) throws IdentityOAuth2Exception {
 
-        OIDCScopeClaimCacheEntry oidcScopeClaimCacheEntry = oidcScopeClaimCache.getScopeClaimMap(tenantId);
-        oidcScopeClaimCacheEntry = loadOIDCScopeClaims(tenantId, oidcScopeClaimCacheEntry);
-        List<String> scopes = new ArrayList<>();
-        for (ScopeDTO scopeDTO : oidcScopeClaimCacheEntry.getScopeClaimMapping()) {
-            scopes.add(scopeDTO.getName());
-        }
-        return scopes;
+        return new ArrayList<>(getScopeClaimIndex(tenantId).getScopeNames());
     }
 
     @Override
     public ScopeDTO getClaims(String scope, int tenantId) throws IdentityOAuth2Exception {
 
-        OIDCScopeClaimCacheEntry oidcScopeClaimCacheEntry = oidcScopeClaimCache.getScopeClaimMap(tenantId);
-        oidcScopeClaimCacheEntry = loadOIDCScopeClaims(tenantId, oidcScopeClaimCacheEntry);
-        ScopeDTO scopeDTO = new ScopeDTO();
-        for (ScopeDTO scopeObj : oidcScopeClaimCacheEntry.getScopeClaimMapping()) {
-            if (scope.equals(scopeObj.getName()) && scopeObj.getClaim() != null) {
-                scopeDTO = scopeObj;
-            }
+        ScopeDTO scopeDTO = getScopeClaimIndex(tenantId).getScope(scope);
+        if (scopeDTO == null || scopeDTO.getClaim() == null) {
+            return new ScopeDTO();
         }
         return scopeDTO;
     }
@@ -166,7 +171,7 @@ public class CacheBackedScopeClaimMappingDAOImpl implements ScopeClaimMappingDAO
     private OIDCScopeClaimCacheEntry loadOIDCScopeClaims(int tenantId, OIDCScopeClaimCacheEntry
             oidcScopeClaimCacheEntry) throws IdentityOAuth2Exception {
 
-        if (oidcScopeClaimCacheEntry == null || oidcScopeClaimCacheEntry.getScopeClaimMapping().size() == 0) {
+        if (oidcScopeClaimCacheEntry == null || oidcScopeClaimCacheEntry.getScopeClaimIndex().isEmpty()) {
             if (log.isDebugEnabled()) {
                 log.debug("Cache miss for OIDC scopes claims mapping for tenant: " + tenantId);
             }
@@ -183,18 +188,35 @@ public class CacheBackedScopeClaimMappingDAOImpl implements ScopeClaimMappingDAO
         return oidcScopeClaimCacheEntry;
     }
 
+    /**
+     * Apply a change made to the scopes of a tenant in the database to the cached index of the tenant. Nothing is
+     * done if the scopes of the tenant are not cached, since they are loaded from the database on the next read.
+     *
+     * @param tenantId Tenant id.
+     * @param change   Change to apply to the cached index.
+     */
+    private synchronized void updateCachedScopeClaimIndex(int tenantId, UnaryOperator<ScopeClaimIndex> change) {
+
+        // The supported scopes are listed in the discovery document.
+        OIDCDiscoveryDocumentCache.getInstance().clearDiscoveryDocument(tenantId);
+        OIDCScopeClaimCacheEntry oidcScopeClaimCacheEntry = oidcScopeClaimCache.getScopeClaimMap(tenantId);
+        if (oidcScopeClaimCacheEntry == null || oidcScopeClaimCacheEntry.getScopeClaimIndex().isEmpty()) {
+            return;
+        }
+        OIDCScopeClaimCacheEntry updatedCacheEntry = new OIDCScopeClaimCacheEntry();
+        updatedCacheEntry.setScopeClaimIndex(change.apply(oidcScopeClaimCacheEntry.getScopeClaimIndex()));
+        oidcScopeClaimCache.addScopeClaimMap(tenantId, updatedCacheEntry);
+    }
+
     @Override
     public ScopeDTO getScope(String scopeName, int tenantId) throws IdentityOAuth2Exception {
 
         OIDCScopeClaimCacheEntry oidcScopeClaimCacheEntry = oidcScopeClaimCache.getScopeClaimMap(tenantId);
 
         if (oidcScopeClaimCacheEntry != null) {
-            if (oidcScopeClaimCacheEntry.getScopeClaimMapping().size() != 0) {
-                for (ScopeDTO scopeObj : oidcScopeClaimCacheEntry.getScopeClaimMapping()) {
-                    if (scopeName.equals(scopeObj.getName())) {
-                        return scopeObj;
-                    }
-                }
+            ScopeDTO scopeDTO = oidcScopeClaimCacheEntry.getScopeClaimIndex().getScope(scopeName);
+            if (scopeDTO != null) {
+                return scopeDTO;
             }
         }
         return scopeClaimMappingDAOImpl.getScope(scopeName, tenantId);
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.dao;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.IdentityOAuthAdminException;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.OAuthTokenPersistenceFactory;
+import org.wso2.carbon.identity.openidconnect.cache.RequestObjectClaimsCache;
+import org.wso2.carbon.identity.openidconnect.model.RequestedClaim;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request object DAO which stores the requested claims of a request object in a single compact column of the request
+ * object reference, instead of a row per claim and per claim value. Storing a request object costs a single insert
+ * and the requested claims are served from {@link RequestObjectClaimsCache} while the request object moves from the
+ * session to the authorization code and the access token.
+ * <p>
+ * Request objects stored in the normalized tables before the compact storage was enabled are still read from those
+ * tables. The compact storage is disabled by default and can be enabled with
+ * {@code OAuth.RequestObject.CompactClaimStorage.Enable}.
+ */
+public class CompactRequestObjectDAOImpl extends RequestObjectDAOImpl {
+
+    private static final Log log = LogFactory.getLog(CompactRequestObjectDAOImpl.class);
+
+    private static final String COMPACT_CLAIM_STORAGE_ENABLE = "OAuth.RequestObject.CompactClaimStorage.Enable";
+    private static final String SESSION_REFERENCE_PREFIX = "SESSION:";
+    private static final String CODE_REFERENCE_PREFIX = "CODE:";
+    private static final String TOKEN_REFERENCE_PREFIX = "TOKEN:";
+
+    /**
+     * Check whether the requested claims of request objects should be stored in the compact form.
+     *
+     * @return true if the compact storage is enabled.
+     */
+    public static boolean isCompactClaimStorageEnabled() {
+
+        return Boolean.parseBoolean(IdentityUtil.getProperty(COMPACT_CLAIM_STORAGE_ENABLE));
+    }
+
+    @Override
+    public void insertRequestObjectData(String consumerKey, String sessionDataKey, List<List<RequestedClaim>> claims)
+            throws IdentityOAuth2Exception {
+
+        byte[] requestedClaims = RequestedClaimsCodec.encode(claims);
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(true)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(
+                    SQLQueries.STORE_IDN_OIDC_REQ_OBJECT_REFERENCE_WITH_CLAIMS)) {
+                prepStmt.setString(1, consumerKey);
+                prepStmt.setString(2, sessionDataKey);
+                prepStmt.setBytes(3, requestedClaims);
+                prepStmt.executeUpdate();
+                IdentityDatabaseUtil.commitTransaction(connection);
+            } catch (SQLException e) {
+                IdentityDatabaseUtil.rollbackTransaction(connection);
+                throw e;
+            }
+        } catch (SQLException e) {
+            String errorMessage = "Error when storing the request object reference";
+            log.error(errorMessage, e);
+            throw new IdentityOAuth2Exception(errorMessage, e);
+        }
+        RequestObjectClaimsCache.getInstance().addRequestedClaims(SESSION_REFERENCE_PREFIX + sessionDataKey,
+                requestedClaims);
+        if (log.isDebugEnabled()) {
+            log.debug("Successfully stored the Request Object reference with the requested claims for " +
+                    "sessionDataKey: " + sessionDataKey);
+        }
+    }
+
+    @Override
+    public void updateRequestObjectReferencebyCodeId(String sessionDataKey, String codeId)
+            throws IdentityOAuth2Exception {
+
+        super.updateRequestObjectReferencebyCodeId(sessionDataKey, codeId);
+        RequestObjectClaimsCache.getInstance().moveRequestedClaims(SESSION_REFERENCE_PREFIX + sessionDataKey,
+                CODE_REFERENCE_PREFIX + codeId, true);
+    }
+
+    @Override
+    public void updateRequestObjectReferencebyTokenId(String sessionDataKey, String accessTokenId)
+            throws IdentityOAuth2Exception {
+
+        super.updateRequestObjectReferencebyTokenId(sessionDataKey, accessTokenId);
+        RequestObjectClaimsCache.getInstance().moveRequestedClaims(SESSION_REFERENCE_PREFIX + sessionDataKey,
+                TOKEN_REFERENCE_PREFIX + accessTokenId, true);
+    }
+
+    @Override
+    public void updateRequestObjectReferenceCodeToToken(String codeId, String tokenId) throws IdentityOAuth2Exception {
+
+        super.updateRequestObjectReferenceCodeToToken(codeId, tokenId);
+        RequestObjectClaimsCache.getInstance().moveRequestedClaims(CODE_REFERENCE_PREFIX + codeId,
+                TOKEN_REFERENCE_PREFIX + tokenId, false);
+    }
+
+    @Override
+    public void refreshRequestObjectReference(String oldAccessTokenId, String newAccessTokenId)
+            throws IdentityOAuth2Exception {
+
+        super.refreshRequestObjectReference(oldAccessTokenId, newAccessTokenId);
+        RequestObjectClaimsCache.getInstance().moveRequestedClaims(TOKEN_REFERENCE_PREFIX + oldAccessTokenId,
+                TOKEN_REFERENCE_PREFIX + newAccessTokenId, false);
+    }
+
+    @Override
+    public void deleteRequestObjectReferenceByTokenId(String tokenId) throws IdentityOAuthAdminException {
+
+        super.deleteRequestObjectReferenceByTokenId(tokenId);
+        RequestObjectClaimsCache.getInstance().clearRequestedClaims(TOKEN_REFERENCE_PREFIX + tokenId);
+    }
+
+    @Override
+    public void deleteRequestObjectReferenceByCode(String codeId) throws IdentityOAuthAdminException {
+
+        super.deleteRequestObjectReferenceByCode(codeId);
+        RequestObjectClaimsCache.getInstance().clearRequestedClaims(CODE_REFERENCE_PREFIX + codeId);
+    }
+
+    @Override
+    public List<RequestedClaim> getRequestedClaimsbySessionDataKey(String sessionDataKey, boolean isUserInfo)
+            throws IdentityOAuth2Exception {
+
+        List<RequestedClaim> requestedClaims = getCompactRequestedClaims(SESSION_REFERENCE_PREFIX + sessionDataKey,
+                SQLQueries.RETRIEVE_COMPACT_REQUESTED_CLAIMS_BY_SESSION_DATA_KEY, sessionDataKey, isUserInfo);
+        if (requestedClaims == null) {
+            return super.getRequestedClaimsbySessionDataKey(sessionDataKey, isUserInfo);
+        }
+        return requestedClaims;
+    }
+
+    @Override
+    public List<RequestedClaim> getRequestedClaims(String token, boolean isUserInfo) throws IdentityOAuth2Exception {
+
+        String tokenId = OAuthTokenPersistenceFactory.getInstance().getAccessTokenDAO().getTokenIdByAccessToken(token);
+        List<RequestedClaim> requestedClaims = getCompactRequestedClaims(TOKEN_REFERENCE_PREFIX + tokenId,
+                SQLQueries.RETRIEVE_COMPACT_REQUESTED_CLAIMS_BY_TOKEN, tokenId, isUserInfo);
+        if (requestedClaims == null) {
+            return super.getRequestedClaims(token, isUserInfo);
+        }
+        return requestedClaims;
+    }
+
+    /**
+     * Get the requested claims stored in the compact form.
+     *
+     * @param cacheKey   Key of the claims in the cache.
+     * @param sql        Query to retrieve the compact claims by the reference.
+     * @param reference  Session data key or token id of the request object.
+     * @param isUserInfo true if the claims are requested from user info end point.
+     * @return Requested claims, or null if the request object is stored in the normalized tables.
+     * @throws IdentityOAuth2Exception If the claims cannot be retrieved.
+     */
+    private List<RequestedClaim> getCompactRequestedClaims(String cacheKey, String sql, String reference,
+                                                           boolean isUserInfo) throws IdentityOAuth2Exception {
+
+        byte[] requestedClaims = RequestObjectClaimsCache.getInstance().getRequestedClaims(cacheKey);
+        if (requestedClaims != null) {
+            return RequestedClaimsCodec.decode(requestedClaims, isUserInfo);
+        }
+
+        boolean referenceFound = false;
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             PreparedStatement prepStmt = connection.prepareStatement(sql)) {
+            prepStmt.setString(1, reference);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                if (resultSet.next()) {
+                    referenceFound = true;
+                    requestedClaims = resultSet.getBytes(1);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IdentityOAuth2Exception("Error occurred while retrieving the requested claims of the request " +
+                    "object.", e);
+        }
+        if (!referenceFound) {
+            return new ArrayList<>();
+        }
+        if (requestedClaims == null) {
+            return null;
+        }
+        RequestObjectClaimsCache.getInstance().addRequestedClaims(cacheKey, requestedClaims);
+        return RequestedClaimsCodec.decode(requestedClaims, isUserInfo);
+    }
+}
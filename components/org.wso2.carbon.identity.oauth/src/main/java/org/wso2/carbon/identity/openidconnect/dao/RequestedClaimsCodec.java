@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.dao;
+
+import org.apache.commons.collections.CollectionUtils;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.openidconnect.OIDCConstants;
+import org.wso2.carbon.identity.openidconnect.model.RequestedClaim;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts the claims requested through a request object to and from the compact binary form stored in a single
+ * column of the request object reference. The claims requested for the ID token and the userinfo endpoint are kept
+ * together and separated again by their type when reading.
+ */
+public final class RequestedClaimsCodec {
+
+    private static final byte VERSION = 1;
+    private static final int ESSENTIAL = 1;
+
+    private RequestedClaimsCodec() {
+
+    }
+
+    /**
+     * Encode the requested claims.
+     *
+     * @param claims Requested claims, grouped by the ID token and the userinfo endpoint.
+     * @return Encoded claims.
+     * @throws IdentityOAuth2Exception If the claims cannot be encoded.
+     */
+    public static byte[] encode(List<List<RequestedClaim>> claims) throws IdentityOAuth2Exception {
+
+        List<RequestedClaim> requestedClaims = new ArrayList<>();
+        if (claims != null) {
+            for (List<RequestedClaim> list : claims) {
+                if (CollectionUtils.isNotEmpty(list)) {
+                    requestedClaims.addAll(list);
+                }
+            }
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeInt(requestedClaims.size());
+            for (RequestedClaim claim : requestedClaims) {
+                out.writeByte(claim.isEssential() ? ESSENTIAL : 0);
+                writeString(out, claim.getName());
+                writeString(out, claim.getType());
+                writeString(out, claim.getValue());
+                List<String> values = claim.getValues();
+                out.writeInt(values != null ? values.size() : -1);
+                if (values != null) {
+                    for (String value : values) {
+                        writeString(out, value);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new IdentityOAuth2Exception("Error while encoding the requested claims of the request object.", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode the claims requested for the ID token or the userinfo endpoint.
+     *
+     * @param encodedClaims Encoded claims.
+     * @param isUserInfo    true to return the claims requested for the userinfo endpoint, false for the ID token.
+     * @return Requested claims.
+     * @throws IdentityOAuth2Exception If the claims cannot be decoded.
+     */
+    public static List<RequestedClaim> decode(byte[] encodedClaims, boolean isUserInfo)
+            throws IdentityOAuth2Exception {
+
+        List<RequestedClaim> requestedClaims = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(encodedClaims))) {
+            byte version = in.readByte();
+            if (version != VERSION) {
+                throw new IdentityOAuth2Exception("Unsupported version: " + version + " of the encoded requested " +
+                        "claims.");
+            }
+            int claimCount = in.readInt();
+            for (int i = 0; i < claimCount; i++) {
+                RequestedClaim claim = new RequestedClaim();
+                claim.setEssential((in.readByte() & ESSENTIAL) != 0);
+                claim.setName(readString(in));
+                claim.setType(readString(in));
+                claim.setValue(readString(in));
+                int valueCount = in.readInt();
+                if (valueCount >= 0) {
+                    List<String> values = new ArrayList<>(valueCount);
+                    for (int j = 0; j < valueCount; j++) {
+                        values.add(readString(in));
+                    }
+                    claim.setValues(values);
+                }
+                if (OIDCConstants.USERINFO.equals(claim.getType()) == isUserInfo) {
+                    requestedClaims.add(claim);
+                }
+            }
+        } catch (IOException e) {
+            throw new IdentityOAuth2Exception("Error while decoding the requested claims of the request object.", e);
+        }
+        return requestedClaims;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
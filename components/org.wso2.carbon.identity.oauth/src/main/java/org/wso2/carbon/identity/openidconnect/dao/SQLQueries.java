@@ -91,6 +91,19 @@ public class SQLQueries {
     public static final String RETRIEVE_REQUESTED_CLAIMS_ID =
             "SELECT ID, CLAIM_ATTRIBUTE FROM IDN_OIDC_REQ_OBJECT_CLAIMS WHERE REQ_OBJECT_ID=? ";
 
+    /**
+     * OIDC Request Object related queries used when the requested claims are stored in the compact form.
+     */
+    public static final String STORE_IDN_OIDC_REQ_OBJECT_REFERENCE_WITH_CLAIMS = "INSERT INTO " +
+            "IDN_OIDC_REQ_OBJECT_REFERENCE (CONSUMER_KEY_ID, SESSION_DATA_KEY, REQUESTED_CLAIMS) VALUES ((SELECT ID " +
+            "FROM IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY=?),?,?)";
+
+    public static final String RETRIEVE_COMPACT_REQUESTED_CLAIMS_BY_SESSION_DATA_KEY = "SELECT REQUESTED_CLAIMS " +
+            "FROM IDN_OIDC_REQ_OBJECT_REFERENCE WHERE SESSION_DATA_KEY=?";
+
+    public static final String RETRIEVE_COMPACT_REQUESTED_CLAIMS_BY_TOKEN = "SELECT REQUESTED_CLAIMS " +
+            "FROM IDN_OIDC_REQ_OBJECT_REFERENCE WHERE TOKEN_ID=?";
+
     /**
      * OIDC Scope claims mapping related queries.
      */
@@ -22,6 +22,7 @@ package org.wso2.carbon.identity.openidconnect.dao;
 
 import org.wso2.carbon.identity.oauth.dto.ScopeDTO;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.openidconnect.cache.ScopeClaimIndex;
 
 import java.util.List;
 
@@ -80,6 +81,18 @@ public interface ScopeClaimMappingDAO {
      */
     List<ScopeDTO> getScopes(int tenantId) throws IdentityOAuth2Exception;
 
+    /**
+     * To retrieve all persisted oidc scopes with mapped claims, indexed by scope and by claim.
+     *
+     * @param tenantId tenant Id
+     * @return index of the persisted scopes and claims
+     * @throws IdentityOAuth2Exception if an error occurs when loading scopes and claims.
+     */
+    default ScopeClaimIndex getScopeClaimIndex(int tenantId) throws IdentityOAuth2Exception {
+
+        return new ScopeClaimIndex(getScopes(tenantId));
+    }
+
     /**
      * To retrieve all persisted oidc scopes.
      *
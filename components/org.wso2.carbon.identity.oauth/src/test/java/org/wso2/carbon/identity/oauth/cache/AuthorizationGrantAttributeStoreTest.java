@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.cache;
+
+import org.mockito.ArgumentCaptor;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.AuthorizationGrantAttributeDAO;
+import org.wso2.carbon.identity.oauth2.dao.AuthorizationGrantCacheEntryCodec;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Matchers.anyCollection;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class AuthorizationGrantAttributeStoreTest {
+
+    private static final int PARTITION_COUNT = 16;
+    private static final int BATCH_SIZE = 2;
+    private static final long ONE_HOUR = 3600000L;
+
+    private AuthorizationGrantAttributeDAO dao;
+    private AuthorizationGrantAttributeStore store;
+
+    @BeforeMethod
+    public void setUp() {
+
+        dao = mock(AuthorizationGrantAttributeDAO.class);
+        // Long intervals so that only the explicit flushes of the tests reach the DAO.
+        store = new AuthorizationGrantAttributeStore(dao, true, PARTITION_COUNT, BATCH_SIZE * 100, ONE_HOUR,
+                ONE_HOUR);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        store.shutdown();
+    }
+
+    @Test
+    public void testEncodeAndDecode() throws Exception {
+
+        AuthorizationGrantCacheEntry entry = buildEntry();
+        AuthorizationGrantCacheEntry decodedEntry =
+                AuthorizationGrantCacheEntryCodec.decode(AuthorizationGrantCacheEntryCodec.encode(entry));
+
+        assertEquals(decodedEntry.getCodeId(), "codeId");
+        assertEquals(decodedEntry.getTokenId(), "tokenId");
+        assertEquals(decodedEntry.getNonceValue(), "nonce");
+        assertNull(decodedEntry.getPkceCodeChallenge());
+        assertEquals(decodedEntry.getSubjectClaim(), "admin");
+        assertEquals(decodedEntry.getAuthTime(), 1234L);
+        assertEquals(decodedEntry.getMaxAge(), 60L);
+        assertTrue(decodedEntry.isHasNonOIDCClaims());
+        assertFalse(decodedEntry.isRequestObjectFlow());
+        assertEquals(decodedEntry.getAmrList(), Arrays.asList("BasicAuthenticator", "totp"));
+        assertEquals(decodedEntry.getAcrValue(), entry.getAcrValue());
+        assertNull(decodedEntry.getRequestObject());
+
+        Map<ClaimMapping, String> userAttributes = decodedEntry.getUserAttributes();
+        assertEquals(userAttributes.size(), 1);
+        ClaimMapping claimMapping = userAttributes.keySet().iterator().next();
+        assertEquals(claimMapping.getLocalClaim().getClaimUri(), "http://wso2.org/claims/emailaddress");
+        assertEquals(claimMapping.getRemoteClaim().getClaimUri(), "email");
+        assertTrue(claimMapping.isRequested());
+        assertEquals(userAttributes.get(claimMapping), "admin@wso2.com");
+    }
+
+    @Test(expectedExceptions = IdentityOAuth2Exception.class)
+    public void testDecodeInvalidEntry() throws Exception {
+
+        AuthorizationGrantCacheEntryCodec.decode(new byte[]{9, 0});
+    }
+
+    @Test
+    public void testBufferedWritesAreServedBeforeFlush() throws Exception {
+
+        store.store("accessToken", buildEntry(), System.currentTimeMillis() + ONE_HOUR);
+
+        AuthorizationGrantCacheEntry entry = store.get("accessToken");
+        assertNotNull(entry);
+        assertEquals(entry.getTokenId(), "tokenId");
+        verify(dao, never()).getGrantAttributes(anyString(), anyInt(), anyLong());
+
+        store.remove("accessToken");
+        assertNull(store.get("accessToken"));
+        verify(dao, never()).getGrantAttributes(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void testExpiredBufferedWriteIsNotServed() throws Exception {
+
+        store.store("accessToken", buildEntry(), System.currentTimeMillis() - 1);
+        assertNull(store.get("accessToken"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testFlushPersistsInBatches() throws Exception {
+
+        store.shutdown();
+        store = new AuthorizationGrantAttributeStore(dao, true, PARTITION_COUNT, BATCH_SIZE, ONE_HOUR, ONE_HOUR);
+        long expiryTime = System.currentTimeMillis() + ONE_HOUR;
+        store.store("token1", buildEntry(), expiryTime);
+        store.remove("token2");
+        store.store("token3", buildEntry(), expiryTime);
+        store.flush();
+
+        ArgumentCaptor<Collection> stored = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection> removed = ArgumentCaptor.forClass(Collection.class);
+        verify(dao, times(2)).persistGrantAttributes(stored.capture(), removed.capture());
+        int storedCount = 0;
+        int removedCount = 0;
+        for (int i = 0; i < 2; i++) {
+            storedCount += stored.getAllValues().get(i).size();
+            removedCount += removed.getAllValues().get(i).size();
+        }
+        assertEquals(storedCount, 2);
+        assertEquals(removedCount, 1);
+        assertEquals(store.getPendingWriteCount(), 0);
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() throws Exception {
+
+        doThrow(new IdentityOAuth2Exception("Database unavailable.")).when(dao)
+                .persistGrantAttributes(anyCollection(), anyCollection());
+        store.store("accessToken", buildEntry(), System.currentTimeMillis() + ONE_HOUR);
+        try {
+            store.flush();
+        } catch (IdentityOAuth2Exception e) {
+            // Expected, the write stays buffered.
+        }
+        assertEquals(store.getPendingWriteCount(), 1);
+        assertNotNull(store.get("accessToken"));
+    }
+
+    @Test
+    public void testGetFromDAO() throws Exception {
+
+        byte[] attributes = AuthorizationGrantCacheEntryCodec.encode(buildEntry());
+        when(dao.getGrantAttributes(anyString(), anyInt(), anyLong())).thenReturn(attributes);
+
+        AuthorizationGrantCacheEntry entry = store.get("accessToken");
+        assertNotNull(entry);
+        assertEquals(entry.getCodeId(), "codeId");
+    }
+
+    @Test
+    public void testRemoveExpiredAttributesCoversEveryPartition() throws Exception {
+
+        store.removeExpiredAttributes();
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            verify(dao).removeExpiredGrantAttributes(eq(partition), anyLong());
+        }
+    }
+
+    @Test
+    public void testPartitionIsWithinRange() {
+
+        List<String> keyHashes = Arrays.asList("00000000", "ffffffffabc", "0123456789abcdef", "fedcba98");
+        for (String keyHash : keyHashes) {
+            int partition = store.getPartition(keyHash);
+            assertTrue(partition >= 0 && partition < PARTITION_COUNT, "Partition out of range: " + partition);
+        }
+        assertEquals(store.getPartition("00000011"), 17 % PARTITION_COUNT);
+    }
+
+    private AuthorizationGrantCacheEntry buildEntry() {
+
+        ClaimMapping claimMapping = ClaimMapping.build("http://wso2.org/claims/emailaddress", "email", null, true);
+        AuthorizationGrantCacheEntry entry =
+                new AuthorizationGrantCacheEntry(Collections.singletonMap(claimMapping, "admin@wso2.com"));
+        entry.setCodeId("codeId");
+        entry.setTokenId("tokenId");
+        entry.setNonceValue("nonce");
+        entry.setSubjectClaim("admin");
+        entry.setAuthTime(1234L);
+        entry.setMaxAge(60L);
+        entry.setHasNonOIDCClaims(true);
+        entry.setAcrValue(new LinkedHashSet<>(Arrays.asList("acr1", "acr2")));
+        entry.addAmr("BasicAuthenticator");
+        entry.addAmr("totp");
+        return entry;
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.cache;
+
+import org.powermock.reflect.Whitebox;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.application.common.model.ClaimMapping;
+import org.wso2.carbon.identity.oauth.dao.OAuthAppDO;
+import org.wso2.carbon.identity.oauth.util.UserClaims;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.OAuth2Parameters;
+import org.wso2.carbon.identity.oauth2.token.bindings.TokenBinding;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class CompactSerializationUtilTest {
+
+    @AfterMethod
+    public void tearDown() {
+
+        setCompactSerializationEnabled(null);
+    }
+
+    @Test
+    public void testAccessTokenDO() throws Exception {
+
+        AccessTokenDO accessTokenDO = buildAccessTokenDO();
+        byte[] legacyForm = serialize(accessTokenDO, false);
+        byte[] compactForm = serialize(accessTokenDO, true);
+        assertTrue(compactForm.length < legacyForm.length, "Compact form: " + compactForm.length + " bytes, " +
+                "Java serialization: " + legacyForm.length + " bytes.");
+
+        AccessTokenDO copy = (AccessTokenDO) deserialize(compactForm);
+        assertEquals(copy.getClass(), AccessTokenDO.class);
+        assertEquals(copy.getConsumerKey(), accessTokenDO.getConsumerKey());
+        assertEquals(copy.getAuthzUser().getUserName(), "admin");
+        assertEquals(copy.getScope(), accessTokenDO.getScope());
+        assertEquals(copy.getTokenState(), accessTokenDO.getTokenState());
+        assertEquals(copy.getAccessToken(), accessTokenDO.getAccessToken());
+        assertEquals(copy.getRefreshToken(), accessTokenDO.getRefreshToken());
+        assertEquals(copy.getTokenId(), accessTokenDO.getTokenId());
+        assertEquals(copy.getGrantType(), accessTokenDO.getGrantType());
+        assertEquals(copy.getIssuedTime(), accessTokenDO.getIssuedTime());
+        assertNull(copy.getRefreshTokenIssuedTime());
+        assertEquals(copy.getValidityPeriodInMillis(), accessTokenDO.getValidityPeriodInMillis());
+        assertEquals(copy.getRefreshTokenValidityPeriodInMillis(),
+                accessTokenDO.getRefreshTokenValidityPeriodInMillis());
+        assertEquals(copy.getTenantID(), accessTokenDO.getTenantID());
+        assertEquals(copy.getTokenType(), accessTokenDO.getTokenType());
+        assertTrue(copy.isConsentedToken());
+    }
+
+    @Test
+    public void testAccessTokenDOWithTokenBinding() throws Exception {
+
+        AccessTokenDO accessTokenDO = buildAccessTokenDO();
+        accessTokenDO.setTokenBinding(new TokenBinding("tokenId", "cookie", "reference", "value"));
+
+        AccessTokenDO copy = (AccessTokenDO) deserialize(serialize(accessTokenDO, true));
+        assertEquals(copy.getTokenBinding().getTokenId(), "tokenId");
+        assertEquals(copy.getTokenBinding().getBindingType(), "cookie");
+        assertEquals(copy.getTokenBinding().getBindingReference(), "reference");
+        assertEquals(copy.getTokenBinding().getBindingValue(), "value");
+    }
+
+    @Test
+    public void testAuthorizationGrantCacheEntry() throws Exception {
+
+        ClaimMapping email = ClaimMapping.build("http://wso2.org/claims/emailaddress", "email", null, true);
+        AuthorizationGrantCacheEntry entry =
+                new AuthorizationGrantCacheEntry(Collections.singletonMap(email, "admin@wso2.com"));
+        entry.setCodeId("codeId");
+        entry.setNonceValue("nonce");
+        entry.setAuthTime(1000L);
+        entry.setAcrValue(new LinkedHashSet<>(Arrays.asList("acr1", "acr2")));
+        entry.addAmr("pwd");
+
+        AuthorizationGrantCacheEntry copy = (AuthorizationGrantCacheEntry) deserialize(serialize(entry, true));
+        assertEquals(copy.getCodeId(), "codeId");
+        assertEquals(copy.getNonceValue(), "nonce");
+        assertEquals(copy.getAuthTime(), 1000L);
+        Map.Entry<ClaimMapping, String> userAttribute = copy.getUserAttributes().entrySet().iterator().next();
+        assertEquals(userAttribute.getKey().getLocalClaim().getClaimUri(), "http://wso2.org/claims/emailaddress");
+        assertEquals(userAttribute.getKey().getRemoteClaim().getClaimUri(), "email");
+        assertEquals(userAttribute.getValue(), "admin@wso2.com");
+        assertEquals(copy.getAcrValue(), entry.getAcrValue());
+        assertEquals(copy.getAmrList(), Collections.singletonList("pwd"));
+    }
+
+    @Test
+    public void testSessionDataCacheEntry() throws Exception {
+
+        OAuth2Parameters parameters = new OAuth2Parameters();
+        parameters.setClientId("clientId");
+        parameters.setRedirectURI("https://localhost/callback");
+        parameters.setScopes(new LinkedHashSet<>(Arrays.asList("openid", "profile")));
+        parameters.setResponseType("code");
+        parameters.setState("state");
+        parameters.setMaxAge(3600L);
+        parameters.setRequestObjectFlow(true);
+
+        SessionDataCacheEntry entry = new SessionDataCacheEntry();
+        entry.setoAuth2Parameters(parameters);
+        entry.setLoggedInUser(buildUser());
+        entry.setAuthTime(2000L);
+        entry.setQueryString("response_type=code");
+        entry.getParamMap().put("scope", new String[]{"openid", "profile"});
+        entry.getEndpointParams().put("param", "value");
+
+        SessionDataCacheEntry copy = (SessionDataCacheEntry) deserialize(serialize(entry, true));
+        assertEquals(copy.getLoggedInUser().getUserName(), "admin");
+        assertEquals(copy.getAuthTime(), 2000L);
+        assertEquals(copy.getQueryString(), "response_type=code");
+        assertEquals(copy.getParamMap().get("scope"), new String[]{"openid", "profile"});
+        assertEquals(copy.getEndpointParams().get("param"), "value");
+        assertNull(copy.getAuthzReqMsgCtx());
+        OAuth2Parameters parametersCopy = copy.getoAuth2Parameters();
+        assertEquals(parametersCopy.getClientId(), "clientId");
+        assertEquals(parametersCopy.getRedirectURI(), "https://localhost/callback");
+        assertEquals(parametersCopy.getScopes(), parameters.getScopes());
+        assertEquals(parametersCopy.getResponseType(), "code");
+        assertEquals(parametersCopy.getState(), "state");
+        assertEquals(parametersCopy.getMaxAge(), 3600L);
+        assertNull(parametersCopy.getNonce());
+        assertTrue(parametersCopy.isRequestObjectFlow());
+    }
+
+    @Test
+    public void testOAuthAppDO() throws Exception {
+
+        OAuthAppDO app = new OAuthAppDO();
+        app.setId(1);
+        app.setOauthConsumerKey("clientId");
+        app.setOauthConsumerSecret("clientSecret");
+        app.setApplicationName("app");
+        app.setGrantTypes("authorization_code refresh_token");
+        app.setPkceMandatory(true);
+        app.setTokenBindingValidationEnabled(true);
+        app.setUserAccessTokenExpiryTime(3600L);
+        app.setAudiences(new String[]{"audience"});
+        app.setAppOwner(buildUser());
+
+        OAuthAppDO copy = (OAuthAppDO) deserialize(serialize(app, true));
+        assertEquals(copy.getId(), 1);
+        assertEquals(copy.getOauthConsumerKey(), "clientId");
+        assertEquals(copy.getOauthConsumerSecret(), "clientSecret");
+        assertEquals(copy.getApplicationName(), "app");
+        assertEquals(copy.getGrantTypes(), "authorization_code refresh_token");
+        assertTrue(copy.isPkceMandatory());
+        assertTrue(copy.isTokenBindingValidationEnabled());
+        assertEquals(copy.isPkceSupportPlain(), false);
+        assertEquals(copy.getUserAccessTokenExpiryTime(), 3600L);
+        assertEquals(copy.getAudiences(), new String[]{"audience"});
+        assertNull(copy.getScopeValidators());
+        assertEquals(copy.getAppOwner().getUserName(), "admin");
+    }
+
+    @Test
+    public void testUserClaims() throws Exception {
+
+        SortedMap<String, String> claimValues = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        claimValues.put("http://wso2.org/claims/emailaddress", "admin@wso2.com");
+        claimValues.put("http://wso2.org/claims/givenname", "admin");
+
+        UserClaims copy = (UserClaims) deserialize(serialize(new UserClaims(claimValues), true));
+        assertEquals(copy.getClaimValues(), claimValues);
+        assertEquals(copy.getClaimValues().get("HTTP://WSO2.ORG/CLAIMS/GIVENNAME"), "admin");
+    }
+
+    @Test
+    public void testReadJavaSerializedEntry() throws Exception {
+
+        Map<String, String> claims = new HashMap<>();
+        claims.put("email", "admin@wso2.com");
+        UserClaims userClaims = new UserClaims(new TreeMap<>(claims));
+
+        byte[] legacyForm = serialize(userClaims, false);
+        setCompactSerializationEnabled(true);
+        assertEquals(((UserClaims) deserialize(legacyForm)).getClaimValues(), userClaims.getClaimValues());
+    }
+
+    @Test(expectedExceptions = InvalidObjectException.class)
+    public void testReadUnsupportedVersion() throws Exception {
+
+        CompactSerializationUtil.readVersion(new DataInputStream(new ByteArrayInputStream(new byte[]{2})),
+                (byte) 1, AccessTokenDO.class.getName());
+    }
+
+    private AccessTokenDO buildAccessTokenDO() {
+
+        AccessTokenDO accessTokenDO = new AccessTokenDO("clientId", buildUser(), new String[]{"openid", "profile"},
+                new Timestamp(System.currentTimeMillis()), null, 3600000L, 86400000L, "Bearer");
+        accessTokenDO.setTokenState("ACTIVE");
+        accessTokenDO.setAccessToken("6f4b5e43-d7fd-3a66-b4d6-4d5c1b1c9d1b");
+        accessTokenDO.setRefreshToken("b9d1b9d4-4b9e-3c7c-8e2c-2a2d7d2f5b3a");
+        accessTokenDO.setTokenId("8a0e6d5f-2a30-4d59-9f0b-0c39c5b6b1c4");
+        accessTokenDO.setGrantType("authorization_code");
+        accessTokenDO.setIsConsentedToken(true);
+        accessTokenDO.setTenantID(-1234);
+        return accessTokenDO;
+    }
+
+    private AuthenticatedUser buildUser() {
+
+        AuthenticatedUser user = new AuthenticatedUser();
+        user.setUserName("admin");
+        user.setUserStoreDomain("PRIMARY");
+        user.setTenantDomain("carbon.super");
+        return user;
+    }
+
+    private byte[] serialize(Object object, boolean compact) throws Exception {
+
+        setCompactSerializationEnabled(compact);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object deserialize(byte[] bytes) throws Exception {
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    private void setCompactSerializationEnabled(Boolean enabled) {
+
+        Whitebox.setInternalState(CompactSerializationUtil.class, "compactSerializationEnabled", enabled);
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth.cache;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotEquals;
+
+public class RefreshTokenValidationCacheKeyTest {
+
+    private static final String CLIENT_ID = "clientId";
+    private static final String REFRESH_TOKEN = "5a4ac8f7-4e5c-3c0b-8e7f-0e9d2a7c1b6d";
+
+    @Test
+    public void testEquals() {
+
+        RefreshTokenValidationCacheKey cacheKey = new RefreshTokenValidationCacheKey(CLIENT_ID, REFRESH_TOKEN);
+        assertEquals(cacheKey, new RefreshTokenValidationCacheKey(CLIENT_ID, REFRESH_TOKEN));
+        assertEquals(cacheKey.hashCode(), new RefreshTokenValidationCacheKey(CLIENT_ID, REFRESH_TOKEN).hashCode());
+        assertNotEquals(cacheKey, new RefreshTokenValidationCacheKey("otherClientId", REFRESH_TOKEN));
+        assertFalse(cacheKey.equals(new Object()));
+    }
+
+    @Test
+    public void testRefreshTokenIsNotKeptInKey() {
+
+        RefreshTokenValidationCacheKey cacheKey = new RefreshTokenValidationCacheKey(CLIENT_ID, REFRESH_TOKEN);
+        assertFalse(cacheKey.getRefreshTokenHash().contains(REFRESH_TOKEN));
+        assertEquals(cacheKey.getRefreshTokenHash().length(), 64);
+    }
+}
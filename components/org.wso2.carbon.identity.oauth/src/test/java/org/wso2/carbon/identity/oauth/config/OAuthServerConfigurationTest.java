@@ -30,6 +30,10 @@ import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
 
 import java.io.File;
 import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -430,6 +434,58 @@ public class OAuthServerConfigurationTest extends PowerMockIdentityBaseTest {
                 .isAccessTokenPartitioningEnabled());
     }
 
+    @Test
+    public void testReload() throws Exception {
+
+        final OAuthServerConfiguration[] notified = new OAuthServerConfiguration[2];
+        OAuthServerConfigurationListener listener = new OAuthServerConfigurationListener() {
+            @Override
+            public void onReload(OAuthServerConfiguration previousConfiguration,
+                                 OAuthServerConfiguration configuration) {
+
+                notified[0] = previousConfiguration;
+                notified[1] = configuration;
+            }
+        };
+        OAuthServerConfiguration previousConfiguration = OAuthServerConfiguration.getInstance();
+        OAuthServerConfiguration.addListener(listener);
+        try {
+            OAuthServerConfiguration configuration = OAuthServerConfiguration.reload();
+            Assert.assertNotSame(configuration, previousConfiguration, "Reload did not build a new configuration");
+            Assert.assertSame(OAuthServerConfiguration.getInstance(), configuration,
+                    "Reloaded configuration is not in effect");
+            Assert.assertSame(notified[0], previousConfiguration,
+                    "Listener not notified of the previous configuration");
+            Assert.assertSame(notified[1], configuration, "Listener not notified of the reloaded configuration");
+            Assert.assertEquals(configuration.getTimeStampSkewInSeconds(),
+                    previousConfiguration.getTimeStampSkewInSeconds(), "Reloaded configuration differs");
+        } finally {
+            OAuthServerConfiguration.removeListener(listener);
+        }
+    }
+
+    @Test
+    public void testReloadReadsIdentityConfigFile() throws Exception {
+
+        OAuthServerConfiguration previousConfiguration = OAuthServerConfiguration.getInstance();
+        Path configDir = Files.createTempDirectory("identity");
+        Path identityConfig = Paths.get(System.getProperty("user.dir"), "src", "test", "resources", "conf",
+                "identity.xml");
+        String content = new String(Files.readAllBytes(identityConfig), StandardCharsets.UTF_8);
+        Files.write(configDir.resolve("identity.xml"), content.replace("<TimestampSkew>300</TimestampSkew>",
+                "<TimestampSkew>120</TimestampSkew>").getBytes(StandardCharsets.UTF_8));
+        PowerMockito.when(IdentityUtil.getIdentityConfigDirPath()).thenReturn(configDir.toString());
+        try {
+            OAuthServerConfiguration configuration = OAuthServerConfiguration.reload();
+            Assert.assertEquals(previousConfiguration.getTimeStampSkewInSeconds(), 300);
+            Assert.assertEquals(configuration.getTimeStampSkewInSeconds(), 120,
+                    "Reload did not pick up the change made to identity.xml");
+        } finally {
+            Files.delete(configDir.resolve("identity.xml"));
+            Files.delete(configDir);
+        }
+    }
+
     private String fillURLPlaceholdersForTest(String url) {
 
         return url.replace("${carbon.protocol}", "https")
@@ -29,6 +29,8 @@ import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
 
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
 
 import static org.mockito.MockitoAnnotations.initMocks;
 import static org.powermock.api.mockito.PowerMockito.mockStatic;
@@ -107,6 +109,18 @@ public class HashingPersistenceProcessorTest extends PowerMockIdentityBaseTest {
         assertEquals(hashingPersistenceProcessor.getProcessedRefreshToken(CLIENT_ID), hash(CLIENT_ID));
     }
 
+    @Test
+    public void testGetProcessedAccessTokenIdentifiers() throws IdentityOAuth2Exception {
+        setupMocksForTest();
+        Map<String, String> processedTokens = hashingPersistenceProcessor.getProcessedAccessTokenIdentifiers(
+                Arrays.asList("token1", "token2", "token1"));
+        assertEquals(processedTokens.size(), 2);
+        assertEquals(processedTokens.get("token1"),
+                hashingPersistenceProcessor.getProcessedAccessTokenIdentifier("token1"));
+        assertEquals(processedTokens.get("token2"),
+                hashingPersistenceProcessor.getProcessedAccessTokenIdentifier("token2"));
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testHashWithNullValue() throws IdentityOAuth2Exception {
         setupMocksForTest();
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.cache;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class VerifiedClientSecretCacheTest {
+
+    private static final String CLIENT_ID = "client-id";
+    private static final String STORED_SECRET = "processed-secret";
+    private static final String PROVIDED_SECRET = "secret";
+
+    @Test
+    public void testVerifiedSecretWhenDisabled() {
+
+        VerifiedClientSecretCache cache = new VerifiedClientSecretCache(false, 10);
+        cache.addVerifiedSecret(CLIENT_ID, STORED_SECRET, PROVIDED_SECRET);
+        assertFalse(cache.isVerified(CLIENT_ID, STORED_SECRET, PROVIDED_SECRET));
+    }
+
+    @Test
+    public void testVerifiedSecret() {
+
+        VerifiedClientSecretCache cache = new VerifiedClientSecretCache(true, 10);
+        assertFalse(cache.isVerified(CLIENT_ID, STORED_SECRET, PROVIDED_SECRET));
+
+        cache.addVerifiedSecret(CLIENT_ID, STORED_SECRET, PROVIDED_SECRET);
+        assertTrue(cache.isVerified(CLIENT_ID, STORED_SECRET, PROVIDED_SECRET));
+        assertFalse(cache.isVerified(CLIENT_ID, STORED_SECRET, "other-secret"));
+        assertFalse(cache.isVerified("other-client-id", STORED_SECRET, PROVIDED_SECRET));
+
+        // Regenerating the client secret changes the stored secret, which invalidates the verified secret.
+        assertFalse(cache.isVerified(CLIENT_ID, "regenerated-secret", PROVIDED_SECRET));
+
+        cache.clearVerifiedSecret(CLIENT_ID);
+        assertFalse(cache.isVerified(CLIENT_ID, STORED_SECRET, PROVIDED_SECRET));
+    }
+
+    @Test
+    public void testVerifiedSecretsAreBounded() {
+
+        VerifiedClientSecretCache cache = new VerifiedClientSecretCache(true, 2);
+        cache.addVerifiedSecret(CLIENT_ID, STORED_SECRET, PROVIDED_SECRET);
+        cache.addVerifiedSecret("other-client-id", STORED_SECRET, PROVIDED_SECRET);
+        assertTrue(cache.isVerified(CLIENT_ID, STORED_SECRET, PROVIDED_SECRET));
+
+        // The least recently used verified secret is evicted.
+        cache.addVerifiedSecret("new-client-id", STORED_SECRET, PROVIDED_SECRET);
+        assertTrue(cache.isVerified(CLIENT_ID, STORED_SECRET, PROVIDED_SECRET));
+        assertTrue(cache.isVerified("new-client-id", STORED_SECRET, PROVIDED_SECRET));
+        assertFalse(cache.isVerified("other-client-id", STORED_SECRET, PROVIDED_SECRET));
+    }
+}
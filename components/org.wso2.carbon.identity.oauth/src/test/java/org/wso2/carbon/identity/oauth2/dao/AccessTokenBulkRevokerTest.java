@@ -0,0 +1,311 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.reflect.Whitebox;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.dao.SQLQueries;
+import org.wso2.carbon.identity.oauth.tokenprocessor.PlainTextPersistenceProcessor;
+import org.wso2.carbon.identity.oauth2.dao.sharding.AccessTokenShardRouter;
+import org.wso2.carbon.identity.oauth2.dao.util.DAOUtils;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenRevocationResult;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+import org.wso2.carbon.user.core.UserCoreConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OAuthVersions.VERSION_2;
+
+/**
+ * Unit tests for AccessTokenBulkRevoker.
+ */
+@WithCarbonHome
+@PrepareForTest({IdentityDatabaseUtil.class, OAuth2Util.class})
+public class AccessTokenBulkRevokerTest extends PowerMockIdentityBaseTest {
+
+    private static final String DB_NAME = "testAccessTokenBulkRevokerDB";
+    private static final int TENANT_ID = 1234;
+    private static final String CONSUMER_KEY = "bulk-revoke-consumer-key";
+    private static final int BATCH_SIZE = 2;
+    // Tokens with this prefix are stored in the partition table when access token partitioning is enabled.
+    private static final String PARTITIONED_TOKEN_PREFIX = "partitioned-";
+    private static final String PARTITION_TABLE = OAuthConstants.ACCESS_TOKEN_STORE_TABLE + "_A";
+
+    private static final String INSERT_TOKEN = "INSERT INTO %s (TOKEN_ID, ACCESS_TOKEN, CONSUMER_KEY_ID, AUTHZ_USER, " +
+            "TENANT_ID, USER_DOMAIN, USER_TYPE, TOKEN_SCOPE_HASH, ACCESS_TOKEN_HASH) VALUES (?, ?, (SELECT ID FROM " +
+            "IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY = ?), ?, ?, ?, ?, ?, ?)";
+
+    private final List<Connection> connections = new ArrayList<>();
+
+    @BeforeClass
+    public void initTest() throws Exception {
+
+        DAOUtils.initializeDataSource(DB_NAME, DAOUtils.getFilePath("identity.sql"));
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("CREATE TABLE " + PARTITION_TABLE + " AS SELECT * FROM " +
+                    OAuthConstants.ACCESS_TOKEN_STORE_TABLE + " WHERE 1 = 0");
+            createApplication(connection);
+        }
+        Whitebox.setInternalState(AccessTokenShardRouter.class, "instance",
+                (AccessTokenShardRouter) Whitebox.invokeConstructor(AccessTokenShardRouter.class, 1, 1));
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        Whitebox.setInternalState(AccessTokenShardRouter.class, "instance", (AccessTokenShardRouter) null);
+    }
+
+    @BeforeMethod
+    public void setup() throws Exception {
+
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenAnswer(invocation -> openConnection());
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getTokenPartitionedSqlByToken(anyString(), anyString())).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            String token = invocation.getArgument(1);
+            if (token.startsWith(PARTITIONED_TOKEN_PREFIX)) {
+                return sql.replaceAll("\\b" + OAuthConstants.ACCESS_TOKEN_STORE_TABLE + "\\b", PARTITION_TABLE);
+            }
+            return sql;
+        });
+    }
+
+    @AfterMethod
+    public void closeConnections() throws Exception {
+
+        // The connections are not returned to the pool by the mocked IdentityDatabaseUtil.
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        connections.clear();
+    }
+
+    @DataProvider(name = "revokeTokensData")
+    public Object[][] revokeTokensData() {
+
+        return new Object[][]{
+                // Token count, expected number of chunks.
+                {1, 1},
+                {BATCH_SIZE, 1},
+                {BATCH_SIZE + 1, 2},
+                {2 * BATCH_SIZE, 2}
+        };
+    }
+
+    @Test(dataProvider = "revokeTokensData")
+    public void testRevokeTokens(int tokenCount, int expectedChunkCount) throws Exception {
+
+        setPartitioningEnabled(false);
+        List<String> tokens = new ArrayList<>();
+        List<String> tokenIds = new ArrayList<>();
+        for (int i = 0; i < tokenCount; i++) {
+            String token = UUID.randomUUID().toString();
+            tokens.add(token);
+            tokenIds.add(insertToken(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, token));
+        }
+
+        AccessTokenRevocationResult result = new AccessTokenBulkRevoker(new PlainTextPersistenceProcessor(), null,
+                BATCH_SIZE).revoke(tokens.toArray(new String[0]), false);
+        assertEquals(connections.size(), expectedChunkCount, "Each chunk should be revoked with its own connection.");
+        assertEquals(result.getRevokedTokenCount(), tokenCount);
+        for (int i = 0; i < tokenCount; i++) {
+            assertEquals(result.getOutcome(tokens.get(i)), AccessTokenRevocationResult.Outcome.REVOKED);
+            assertEquals(getTokenState(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, tokenIds.get(i)),
+                    OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+        }
+    }
+
+    @Test
+    public void testRevokeTokensWithUnknownTokens() throws Exception {
+
+        setPartitioningEnabled(false);
+        String token = UUID.randomUUID().toString();
+        String tokenId = insertToken(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, token);
+        String unknownToken = UUID.randomUUID().toString();
+
+        // The unknown token shares the chunk of the existing one while the last chunk holds only unknown tokens.
+        AccessTokenRevocationResult result = new AccessTokenBulkRevoker(new PlainTextPersistenceProcessor(), null,
+                BATCH_SIZE).revoke(new String[]{token, unknownToken, "unknown-token", token}, false);
+        assertEquals(connections.size(), 2);
+        assertEquals(result.getRevokedTokenCount(), 1);
+        assertEquals(result.getOutcome(token), AccessTokenRevocationResult.Outcome.REVOKED);
+        assertEquals(result.getOutcome(unknownToken), AccessTokenRevocationResult.Outcome.NOT_FOUND);
+        assertEquals(result.getOutcome("unknown-token"), AccessTokenRevocationResult.Outcome.NOT_FOUND);
+        assertEquals(getTokenState(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, tokenId),
+                OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+    }
+
+    @Test
+    public void testRevokeTokensWithCleanup() throws Exception {
+
+        setPartitioningEnabled(false);
+        List<String> tokens = new ArrayList<>();
+        List<String> tokenIds = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE + 1; i++) {
+            String token = UUID.randomUUID().toString();
+            tokens.add(token);
+            tokenIds.add(insertToken(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, token));
+        }
+        String unknownToken = UUID.randomUUID().toString();
+        tokens.add(unknownToken);
+
+        AccessTokenRevocationResult result = new AccessTokenBulkRevoker(new PlainTextPersistenceProcessor(),
+                new OldTokensCleanDAO(), BATCH_SIZE).revoke(tokens.toArray(new String[0]), false);
+        assertEquals(result.getRevokedTokenCount(), BATCH_SIZE + 1);
+        assertEquals(result.getOutcome(unknownToken), AccessTokenRevocationResult.Outcome.NOT_FOUND);
+        for (int i = 0; i < tokenIds.size(); i++) {
+            assertEquals(result.getOutcome(tokens.get(i)), AccessTokenRevocationResult.Outcome.REVOKED);
+            assertNull(getTokenState(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, tokenIds.get(i)),
+                    "Revoked tokens should be removed from the access token table when cleanup is enabled.");
+        }
+    }
+
+    @Test
+    public void testRevokeTokensInPartitions() throws Exception {
+
+        setPartitioningEnabled(true);
+        String token = UUID.randomUUID().toString();
+        String tokenId = insertToken(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, token);
+        List<String> partitionedTokens = new ArrayList<>();
+        List<String> partitionedTokenIds = new ArrayList<>();
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            String partitionedToken = PARTITIONED_TOKEN_PREFIX + UUID.randomUUID();
+            partitionedTokens.add(partitionedToken);
+            partitionedTokenIds.add(insertToken(PARTITION_TABLE, partitionedToken));
+        }
+        String unknownPartitionedToken = PARTITIONED_TOKEN_PREFIX + UUID.randomUUID();
+
+        AccessTokenRevocationResult result = new AccessTokenBulkRevoker(new PlainTextPersistenceProcessor(), null,
+                BATCH_SIZE).revoke(new String[]{partitionedTokens.get(0), token, partitionedTokens.get(1),
+                unknownPartitionedToken}, false);
+        // The tokens are chunked per table: one chunk for the access token table and two for the partition table.
+        assertEquals(connections.size(), 3);
+        assertEquals(result.getRevokedTokenCount(), BATCH_SIZE + 1);
+        assertEquals(result.getOutcome(token), AccessTokenRevocationResult.Outcome.REVOKED);
+        assertEquals(result.getOutcome(unknownPartitionedToken), AccessTokenRevocationResult.Outcome.NOT_FOUND);
+        assertEquals(getTokenState(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, tokenId),
+                OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            assertEquals(result.getOutcome(partitionedTokens.get(i)), AccessTokenRevocationResult.Outcome.REVOKED);
+            assertEquals(getTokenState(PARTITION_TABLE, partitionedTokenIds.get(i)),
+                    OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+        }
+    }
+
+    @Test
+    public void testRevokeTokensWithoutTokens() throws Exception {
+
+        AccessTokenBulkRevoker revoker = new AccessTokenBulkRevoker(new PlainTextPersistenceProcessor(), null,
+                BATCH_SIZE);
+        assertEquals(revoker.revoke(new String[0], false).getRevokedTokenCount(), 0);
+        assertEquals(revoker.revoke(null, false).getRevokedTokenCount(), 0);
+        assertEquals(connections.size(), 0);
+    }
+
+    private void setPartitioningEnabled(boolean enabled) throws Exception {
+
+        when(OAuth2Util.checkAccessTokenPartitioningEnabled()).thenReturn(enabled);
+        when(OAuth2Util.checkUserNameAssertionEnabled()).thenReturn(enabled);
+    }
+
+    private Connection openConnection() throws Exception {
+
+        Connection connection = DAOUtils.getConnection(DB_NAME);
+        connections.add(connection);
+        return connection;
+    }
+
+    private String insertToken(String table, String token) throws Exception {
+
+        String tokenId = UUID.randomUUID().toString();
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement(String.format(INSERT_TOKEN, table))) {
+            prepStmt.setString(1, tokenId);
+            prepStmt.setString(2, token);
+            prepStmt.setString(3, CONSUMER_KEY);
+            // A user per token keeps the active tokens clear of CON_APP_KEY.
+            prepStmt.setString(4, "user-" + tokenId);
+            prepStmt.setInt(5, TENANT_ID);
+            prepStmt.setString(6, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+            prepStmt.setString(7, OAuthConstants.UserType.APPLICATION_USER);
+            prepStmt.setString(8, "scope-hash");
+            prepStmt.setString(9, token);
+            prepStmt.execute();
+        }
+        return tokenId;
+    }
+
+    private String getTokenState(String table, String tokenId) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement("SELECT TOKEN_STATE FROM " + table +
+                     " WHERE TOKEN_ID = ?")) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getString(1) : null;
+            }
+        }
+    }
+
+    private void createApplication(Connection connection) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.OAuthAppDAOSQLQueries.ADD_OAUTH_APP)) {
+            prepStmt.setString(1, CONSUMER_KEY);
+            prepStmt.setString(2, "secret");
+            prepStmt.setString(3, "admin");
+            prepStmt.setInt(4, TENANT_ID);
+            prepStmt.setString(5, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+            prepStmt.setString(6, "bulkRevokeApp");
+            prepStmt.setString(7, VERSION_2);
+            prepStmt.setString(8, "http://localhost:8080/redirect");
+            prepStmt.setString(9, "authorization_code");
+            prepStmt.setLong(10, 3600L);
+            prepStmt.setLong(11, 3600L);
+            prepStmt.setLong(12, 84600L);
+            prepStmt.setLong(13, 3600L);
+            prepStmt.execute();
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.reflect.Whitebox;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.dao.SQLQueries;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.sharding.AccessTokenShardRouter;
+import org.wso2.carbon.identity.oauth2.dao.util.DAOUtils;
+import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenRevocationResult;
+import org.wso2.carbon.identity.oauth2.token.OauthTokenIssuer;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.oauth2.util.PartitionedSqlTemplateRegistry;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+import org.wso2.carbon.user.core.UserCoreConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OAuthVersions.VERSION_2;
+
+/**
+ * Unit tests for AccessTokenDAOImpl when the access tokens are sharded into two tables.
+ */
+@WithCarbonHome
+@PrepareForTest({IdentityDatabaseUtil.class, IdentityUtil.class, OAuth2Util.class})
+public class AccessTokenDAOImplShardingTest extends PowerMockIdentityBaseTest {
+
+    private static final String DB_NAME = "testAccessTokenShardingDB";
+    private static final int TENANT_ID = 1234;
+    private static final String TENANT_DOMAIN = "wso2.com";
+    private static final String CONSUMER_KEY = "shard-consumer-key";
+    private static final String IDP_NAME = "LOCAL";
+    private static final String SCOPE_HASH = "scope-hash";
+    private static final int SHARD_COUNT = 2;
+    private static final String TOKEN_PERSISTENCE_RETRY_COUNT = "OAuth.TokenPersistence.RetryCount";
+
+    // Same as IDN_OAUTH2_ACCESS_TOKEN in identity.sql. Constraint names are unique per schema in H2.
+    private static final String CREATE_TOKEN_SHARD_TABLE = "CREATE TABLE IDN_OAUTH2_ACCESS_TOKEN_SHARD_1 (" +
+            "TOKEN_ID VARCHAR (255), ACCESS_TOKEN VARCHAR (512), REFRESH_TOKEN VARCHAR (512), " +
+            "CONSUMER_KEY_ID INTEGER, AUTHZ_USER VARCHAR (100), TENANT_ID INTEGER, USER_DOMAIN VARCHAR(50), " +
+            "USER_TYPE VARCHAR (25), GRANT_TYPE VARCHAR (50), TIME_CREATED TIMESTAMP DEFAULT 0, " +
+            "REFRESH_TOKEN_TIME_CREATED TIMESTAMP DEFAULT 0, VALIDITY_PERIOD BIGINT, " +
+            "REFRESH_TOKEN_VALIDITY_PERIOD BIGINT, TOKEN_SCOPE_HASH VARCHAR (32), " +
+            "TOKEN_STATE VARCHAR (25) DEFAULT 'ACTIVE', TOKEN_STATE_ID VARCHAR (128) DEFAULT 'NONE', " +
+            "SUBJECT_IDENTIFIER VARCHAR(255), ACCESS_TOKEN_HASH VARCHAR (255), REFRESH_TOKEN_HASH VARCHAR (255), " +
+            "IDP_ID INTEGER, TOKEN_BINDING_REF VARCHAR (32) DEFAULT 'NONE', PRIMARY KEY (TOKEN_ID), " +
+            "FOREIGN KEY (CONSUMER_KEY_ID) REFERENCES IDN_OAUTH_CONSUMER_APPS(ID) ON DELETE CASCADE, " +
+            "CONSTRAINT CON_APP_KEY_SHARD_1 UNIQUE (CONSUMER_KEY_ID, AUTHZ_USER, TENANT_ID, USER_DOMAIN, " +
+            "USER_TYPE, TOKEN_SCOPE_HASH, TOKEN_STATE, TOKEN_STATE_ID, IDP_ID, TOKEN_BINDING_REF))";
+    private static final String CREATE_SCOPE_SHARD_TABLE = "CREATE TABLE IDN_OAUTH2_ACCESS_TOKEN_SCOPE_SHARD_1 (" +
+            "TOKEN_ID VARCHAR (255), TOKEN_SCOPE VARCHAR (60), TENANT_ID INTEGER DEFAULT -1, " +
+            "PRIMARY KEY (TOKEN_ID, TOKEN_SCOPE), FOREIGN KEY (TOKEN_ID) REFERENCES " +
+            "IDN_OAUTH2_ACCESS_TOKEN_SHARD_1(TOKEN_ID) ON DELETE CASCADE)";
+
+    private AccessTokenDAOImpl accessTokenDAO;
+    private AccessTokenShardRouter shardRouter;
+    private boolean idpIdColumnEnabled;
+    private boolean consentedTokenColumnEnabled;
+    private final List<Connection> connections = new ArrayList<>();
+
+    @BeforeClass
+    public void initTest() throws Exception {
+
+        DAOUtils.initializeDataSource(DB_NAME, DAOUtils.getFilePath("identity.sql"));
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate(CREATE_TOKEN_SHARD_TABLE);
+            statement.executeUpdate(CREATE_SCOPE_SHARD_TABLE);
+            // The IDP_ID column is part of CON_APP_KEY, and H2 does not enforce unique keys holding NULL values.
+            statement.executeUpdate("INSERT INTO IDP (TENANT_ID, NAME, UUID) VALUES (" + TENANT_ID + ", '" +
+                    IDP_NAME + "', '" + UUID.randomUUID() + "')");
+            createApplication(connection);
+        }
+
+        shardRouter = Whitebox.invokeConstructor(AccessTokenShardRouter.class, SHARD_COUNT, SHARD_COUNT);
+        Whitebox.setInternalState(AccessTokenShardRouter.class, "instance", shardRouter);
+        idpIdColumnEnabled = OAuth2ServiceComponentHolder.isIDPIdColumnEnabled();
+        consentedTokenColumnEnabled = OAuth2ServiceComponentHolder.isConsentedTokenColumnEnabled();
+        OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(true);
+        OAuth2ServiceComponentHolder.setConsentedTokenColumnEnabled(false);
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        Whitebox.setInternalState(AccessTokenShardRouter.class, "instance", (AccessTokenShardRouter) null);
+        OAuth2ServiceComponentHolder.setIDPIdColumnEnabled(idpIdColumnEnabled);
+        OAuth2ServiceComponentHolder.setConsentedTokenColumnEnabled(consentedTokenColumnEnabled);
+    }
+
+    @BeforeMethod
+    public void setup() throws Exception {
+
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection()).thenAnswer(invocation -> openConnection());
+        when(IdentityDatabaseUtil.getDBConnection(anyBoolean())).thenAnswer(invocation -> openConnection());
+        mockStatic(IdentityUtil.class);
+        // Fail on the first constraint violation instead of recovering from it.
+        when(IdentityUtil.getProperty(TOKEN_PERSISTENCE_RETRY_COUNT)).thenReturn("0");
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getOAuthTokenIssuerForOAuthApp(anyString())).thenReturn(mock(OauthTokenIssuer.class));
+        when(OAuth2Util.getTenantId(anyString())).thenReturn(TENANT_ID);
+        when(OAuth2Util.getUserStoreDomain(any())).thenReturn(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        when(OAuth2Util.getSanitizedUserStoreDomain(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(OAuth2Util.getAuthenticatedIDP(any())).thenReturn(IDP_NAME);
+        when(OAuth2Util.hashScopes(any(String[].class))).thenReturn(SCOPE_HASH);
+        when(OAuth2Util.getTokenPartitionedSqlByUserStore(anyString(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(OAuth2Util.getTokenPartitionedSqlByToken(anyString(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        accessTokenDAO = new AccessTokenDAOImpl();
+    }
+
+    @AfterMethod
+    public void closeConnections() throws Exception {
+
+        // The connections are not returned to the pool by the mocked IdentityDatabaseUtil.
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        connections.clear();
+    }
+
+    @Test
+    public void testInsertAccessTokenIntoShardOfClientAndUser() throws Exception {
+
+        Set<Integer> usedShards = new HashSet<>();
+        for (int i = 0; i < 20; i++) {
+            AccessTokenDO accessTokenDO = insertAccessToken("insert-user-" + i);
+            int shard = shardRouter.getShard(CONSUMER_KEY, "insert-user-" + i, TENANT_ID);
+            assertEquals(getShardsHoldingToken(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, accessTokenDO.getTokenId()),
+                    Collections.singletonList(shard));
+            assertEquals(getShardsHoldingToken(PartitionedSqlTemplateRegistry.ACCESS_TOKEN_SCOPE_TABLE,
+                    accessTokenDO.getTokenId()), Collections.singletonList(shard),
+                    "The scopes should be stored in the same shard as the token.");
+            usedShards.add(shard);
+        }
+        assertEquals(usedShards, new HashSet<>(Arrays.asList(0, 1)),
+                "The tokens of different users should be spread over the shards.");
+    }
+
+    @Test
+    public void testConAppKeyIsEnforcedInShard() throws Exception {
+
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            String userName = getUserOfShard("duplicate-user-", shard);
+            insertAccessToken(userName);
+            AccessTokenDO duplicateAccessTokenDO = buildAccessToken(userName);
+            try {
+                accessTokenDAO.insertAccessToken(duplicateAccessTokenDO.getAccessToken(), CONSUMER_KEY,
+                        duplicateAccessTokenDO, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+                fail("A second active token with the same scopes should violate CON_APP_KEY.");
+            } catch (IdentityOAuth2Exception e) {
+                assertTrue(e.getMessage().contains("already exists"));
+            }
+            assertTrue(getShardsHoldingToken(OAuthConstants.ACCESS_TOKEN_STORE_TABLE,
+                    duplicateAccessTokenDO.getTokenId()).isEmpty());
+        }
+    }
+
+    @Test
+    public void testGetTokenIdByAccessTokenFromAnyShard() throws Exception {
+
+        for (int shard = 0; shard < SHARD_COUNT; shard++) {
+            AccessTokenDO accessTokenDO = insertAccessToken(getUserOfShard("lookup-user-", shard));
+            assertEquals(accessTokenDAO.getTokenIdByAccessToken(accessTokenDO.getAccessToken()),
+                    accessTokenDO.getTokenId());
+        }
+        assertNull(accessTokenDAO.getTokenIdByAccessToken("unknown-token"));
+    }
+
+    @Test
+    public void testRevokeAccessTokensInBulkAcrossShards() throws Exception {
+
+        AccessTokenDO firstShardToken = insertAccessToken(getUserOfShard("revoke-user-", 0));
+        AccessTokenDO secondShardToken = insertAccessToken(getUserOfShard("revoke-user-", 1));
+
+        AccessTokenRevocationResult result = accessTokenDAO.revokeAccessTokensInBulk(new String[]{
+                firstShardToken.getAccessToken(), secondShardToken.getAccessToken(), "unknown-token"}, false);
+        assertEquals(result.getRevokedTokenCount(), 2);
+        assertEquals(result.getOutcome(firstShardToken.getAccessToken()),
+                AccessTokenRevocationResult.Outcome.REVOKED);
+        assertEquals(result.getOutcome(secondShardToken.getAccessToken()),
+                AccessTokenRevocationResult.Outcome.REVOKED);
+        assertEquals(result.getOutcome("unknown-token"), AccessTokenRevocationResult.Outcome.NOT_FOUND);
+        assertEquals(getTokenState(0, firstShardToken.getTokenId()),
+                OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+        assertEquals(getTokenState(1, secondShardToken.getTokenId()),
+                OAuthConstants.TokenStates.TOKEN_STATE_REVOKED);
+    }
+
+    private Connection openConnection() throws Exception {
+
+        Connection connection = DAOUtils.getConnection(DB_NAME);
+        connections.add(connection);
+        return connection;
+    }
+
+    private String getUserOfShard(String userNamePrefix, int shard) {
+
+        for (int i = 0; ; i++) {
+            if (shardRouter.getShard(CONSUMER_KEY, userNamePrefix + i, TENANT_ID) == shard) {
+                return userNamePrefix + i;
+            }
+        }
+    }
+
+    private AccessTokenDO insertAccessToken(String userName) throws Exception {
+
+        AccessTokenDO accessTokenDO = buildAccessToken(userName);
+        accessTokenDAO.insertAccessToken(accessTokenDO.getAccessToken(), CONSUMER_KEY, accessTokenDO,
+                UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        return accessTokenDO;
+    }
+
+    private AccessTokenDO buildAccessToken(String userName) {
+
+        AuthenticatedUser user = new AuthenticatedUser();
+        user.setUserName(userName);
+        user.setTenantDomain(TENANT_DOMAIN);
+        user.setUserStoreDomain(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        user.setAuthenticatedSubjectIdentifier(userName);
+
+        Timestamp issuedTime = new Timestamp(System.currentTimeMillis());
+        AccessTokenDO accessTokenDO = new AccessTokenDO(CONSUMER_KEY, user, new String[]{"openid", "email"},
+                issuedTime, issuedTime, 3600000L, 86400000L, OAuthConstants.UserType.APPLICATION_USER);
+        accessTokenDO.setTokenId(UUID.randomUUID().toString());
+        accessTokenDO.setAccessToken(UUID.randomUUID().toString());
+        accessTokenDO.setTokenState(OAuthConstants.TokenStates.TOKEN_STATE_ACTIVE);
+        accessTokenDO.setGrantType(OAuthConstants.GrantTypes.AUTHORIZATION_CODE);
+        return accessTokenDO;
+    }
+
+    private List<Integer> getShardsHoldingToken(String table, String tokenId) throws Exception {
+
+        List<Integer> shards = new ArrayList<>();
+        try (Connection connection = DAOUtils.getConnection(DB_NAME)) {
+            for (int shard = 0; shard < SHARD_COUNT; shard++) {
+                try (PreparedStatement prepStmt = connection.prepareStatement("SELECT COUNT(*) FROM " +
+                        PartitionedSqlTemplateRegistry.getShardTable(table, shard) + " WHERE TOKEN_ID = ?")) {
+                    prepStmt.setString(1, tokenId);
+                    try (ResultSet resultSet = prepStmt.executeQuery()) {
+                        resultSet.next();
+                        if (resultSet.getInt(1) > 0) {
+                            shards.add(shard);
+                        }
+                    }
+                }
+            }
+        }
+        return shards;
+    }
+
+    private String getTokenState(int shard, String tokenId) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement("SELECT TOKEN_STATE FROM " +
+                     PartitionedSqlTemplateRegistry.getShardTable(OAuthConstants.ACCESS_TOKEN_STORE_TABLE, shard) +
+                     " WHERE TOKEN_ID = ?")) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    private void createApplication(Connection connection) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.OAuthAppDAOSQLQueries.ADD_OAUTH_APP)) {
+            prepStmt.setString(1, CONSUMER_KEY);
+            prepStmt.setString(2, "secret");
+            prepStmt.setString(3, "admin");
+            prepStmt.setInt(4, TENANT_ID);
+            prepStmt.setString(5, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+            prepStmt.setString(6, "shardApp");
+            prepStmt.setString(7, VERSION_2);
+            prepStmt.setString(8, "http://localhost:8080/redirect");
+            prepStmt.setString(9, "authorization_code");
+            prepStmt.setLong(10, 3600L);
+            prepStmt.setLong(11, 3600L);
+            prepStmt.setLong(12, 84600L);
+            prepStmt.setLong(13, 3600L);
+            prepStmt.execute();
+        }
+    }
+}
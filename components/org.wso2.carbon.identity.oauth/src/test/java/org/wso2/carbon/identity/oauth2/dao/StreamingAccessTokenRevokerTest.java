@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.mockito.ArgumentCaptor;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.oauth.OAuthUtil;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+
+/**
+ * Unit tests for StreamingAccessTokenRevoker.
+ */
+@PrepareForTest({OAuthTokenPersistenceFactory.class, OAuthUtil.class, OAuth2Util.class})
+public class StreamingAccessTokenRevokerTest extends PowerMockIdentityBaseTest {
+
+    @Test
+    public void testTokensAreRevokedInBatches() throws Exception {
+
+        AccessTokenDAO accessTokenDAO = mock(AccessTokenDAO.class);
+        OAuthTokenPersistenceFactory persistenceFactory = mock(OAuthTokenPersistenceFactory.class);
+        when(persistenceFactory.getAccessTokenDAO()).thenReturn(accessTokenDAO);
+        mockStatic(OAuthTokenPersistenceFactory.class);
+        when(OAuthTokenPersistenceFactory.getInstance()).thenReturn(persistenceFactory);
+        mockStatic(OAuthUtil.class);
+        mockStatic(OAuth2Util.class);
+
+        StreamingAccessTokenRevoker tokenRevoker = new StreamingAccessTokenRevoker(2);
+        for (int i = 1; i <= 3; i++) {
+            tokenRevoker.handle(buildAccessToken("token" + i));
+        }
+        // Only full batches are revoked while streaming.
+        ArgumentCaptor<String[]> revokedTokens = ArgumentCaptor.forClass(String[].class);
+        verify(accessTokenDAO).revokeAccessTokens(revokedTokens.capture(), anyBoolean());
+        assertEquals(revokedTokens.getValue(), new String[]{"token1", "token2"});
+
+        tokenRevoker.flush();
+        verify(accessTokenDAO, times(2)).revokeAccessTokens(revokedTokens.capture(), anyBoolean());
+        List<String[]> batches = revokedTokens.getAllValues();
+        assertEquals(batches.get(batches.size() - 1), new String[]{"token3"});
+
+        // Nothing is left to revoke.
+        tokenRevoker.flush();
+        verify(accessTokenDAO, times(2)).revokeAccessTokens(revokedTokens.capture(), anyBoolean());
+    }
+
+    @Test
+    public void testFlushWithoutTokens() throws Exception {
+
+        AccessTokenDAO accessTokenDAO = mock(AccessTokenDAO.class);
+        OAuthTokenPersistenceFactory persistenceFactory = mock(OAuthTokenPersistenceFactory.class);
+        when(persistenceFactory.getAccessTokenDAO()).thenReturn(accessTokenDAO);
+        mockStatic(OAuthTokenPersistenceFactory.class);
+        when(OAuthTokenPersistenceFactory.getInstance()).thenReturn(persistenceFactory);
+
+        new StreamingAccessTokenRevoker(2).flush();
+        verify(accessTokenDAO, never()).revokeAccessTokens(any(), anyBoolean());
+    }
+
+    private AccessTokenDO buildAccessToken(String accessToken) {
+
+        AccessTokenDO accessTokenDO = new AccessTokenDO();
+        accessTokenDO.setConsumerKey("consumer-key");
+        accessTokenDO.setAuthzUser(new AuthenticatedUser());
+        accessTokenDO.setScope(new String[]{"openid"});
+        accessTokenDO.setAccessToken(accessToken);
+        return accessTokenDO;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.dao.SQLQueries;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.dao.util.DAOUtils;
+import org.wso2.carbon.identity.oauth2.model.AuthorizedAppDO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+import org.wso2.carbon.user.core.UserCoreConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OAuthVersions.VERSION_2;
+
+/**
+ * Unit tests for TokenManagementDAOImpl.
+ */
+@WithCarbonHome
+@PrepareForTest({IdentityDatabaseUtil.class, IdentityUtil.class, OAuth2Util.class})
+public class TokenManagementDAOImplTest extends PowerMockIdentityBaseTest {
+
+    private static final String DB_NAME = "testTokenManagementDB";
+    private static final int TENANT_ID = 1234;
+    private static final String USER_NAME = "user1";
+    private static final String OTHER_USER_NAME = "user2";
+    private static final String CONSUMER_KEY_A = "consumer-key-a";
+    private static final String CONSUMER_KEY_B = "consumer-key-b";
+    private static final String CONSUMER_KEY_C = "consumer-key-c";
+    private static final String CONSUMER_KEY_D = "consumer-key-d";
+
+    private TokenManagementDAOImpl tokenManagementDAO;
+    private AuthenticatedUser authenticatedUser;
+
+    @BeforeClass
+    public void initTest() throws Exception {
+
+        DAOUtils.initializeDataSource(DB_NAME, DAOUtils.getFilePath("identity.sql"));
+        tokenManagementDAO = new TokenManagementDAOImpl();
+        authenticatedUser = new AuthenticatedUser();
+        authenticatedUser.setUserName(USER_NAME);
+        authenticatedUser.setTenantDomain("wso2.com");
+        authenticatedUser.setUserStoreDomain(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+
+        long now = System.currentTimeMillis();
+        try (Connection connection = DAOUtils.getConnection(DB_NAME)) {
+            int appA = createApplication(connection, CONSUMER_KEY_A, "appA");
+            int appB = createApplication(connection, CONSUMER_KEY_B, "appB");
+            int appC = createApplication(connection, CONSUMER_KEY_C, "appC");
+            int appD = createApplication(connection, CONSUMER_KEY_D, "appD");
+
+            // Two sets of scopes for app A, with two tokens for the first set.
+            addAccessToken(connection, "token-a1", appA, USER_NAME, "hash1", "ACTIVE", now - 2000, "openid");
+            addAccessToken(connection, "token-a2", appA, USER_NAME, "hash1", "EXPIRED", now - 1000, "openid",
+                    "email");
+            addAccessToken(connection, "token-a3", appA, USER_NAME, "hash2", "ACTIVE", now, "profile");
+            addAccessToken(connection, "token-b1", appB, USER_NAME, "hash1", "ACTIVE", now, "openid");
+            addAccessToken(connection, "token-c1", appC, USER_NAME, "hash1", "ACTIVE", now);
+            // Not authorized apps of the user.
+            addAccessToken(connection, "token-d1", appD, USER_NAME, "hash1", "REVOKED", now, "openid");
+            addAccessToken(connection, "token-d2", appD, OTHER_USER_NAME, "hash1", "ACTIVE", now, "openid");
+            connection.commit();
+        }
+    }
+
+    @BeforeMethod
+    public void setup() throws Exception {
+
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection(false)).thenAnswer(invocation -> DAOUtils.getConnection(DB_NAME));
+        mockStatic(IdentityUtil.class);
+        when(IdentityUtil.isUserStoreCaseSensitive(anyString(), anyInt())).thenReturn(true);
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getTenantId(anyString())).thenReturn(TENANT_ID);
+        when(OAuth2Util.getUserStoreDomain(any())).thenReturn(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        when(OAuth2Util.getSanitizedUserStoreDomain(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(OAuth2Util.getTokenPartitionedSqlByUserStore(anyString(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    public void testGetAppsAuthorizedByUser() throws Exception {
+
+        List<AuthorizedAppDO> firstPage = tokenManagementDAO.getAppsAuthorizedByUser(authenticatedUser, null,
+                null, 2);
+        assertEquals(firstPage.size(), 3, "Each set of scopes of an app should be returned.");
+        assertAuthorizedApp(firstPage.get(0), CONSUMER_KEY_A, "appA", "token-a2", "openid", "email");
+        assertAuthorizedApp(firstPage.get(1), CONSUMER_KEY_A, "appA", "token-a3", "profile");
+        assertAuthorizedApp(firstPage.get(2), CONSUMER_KEY_B, "appB", "token-b1", "openid");
+
+        List<AuthorizedAppDO> secondPage = tokenManagementDAO.getAppsAuthorizedByUser(authenticatedUser, null,
+                CONSUMER_KEY_B, 2);
+        assertEquals(secondPage.size(), 1, "Only the apps after the cursor should be returned.");
+        assertAuthorizedApp(secondPage.get(0), CONSUMER_KEY_C, "appC", "token-c1");
+
+        assertTrue(tokenManagementDAO.getAppsAuthorizedByUser(authenticatedUser, null, CONSUMER_KEY_C, 2)
+                .isEmpty());
+    }
+
+    @Test(expectedExceptions = IdentityOAuth2Exception.class)
+    public void testGetAppsAuthorizedByUserWithInvalidLimit() throws Exception {
+
+        tokenManagementDAO.getAppsAuthorizedByUser(authenticatedUser, null, null, 0);
+    }
+
+    private void assertAuthorizedApp(AuthorizedAppDO authorizedApp, String consumerKey, String applicationName,
+                                     String latestTokenId, String... scopes) {
+
+        assertEquals(authorizedApp.getConsumerKey(), consumerKey);
+        assertEquals(authorizedApp.getApplicationName(), applicationName);
+        assertEquals(authorizedApp.getLatestTokenId(), latestTokenId);
+        String[] authorizedScopes = authorizedApp.getScope();
+        Arrays.sort(authorizedScopes);
+        String[] expectedScopes = scopes.clone();
+        Arrays.sort(expectedScopes);
+        assertEquals(authorizedScopes, expectedScopes);
+    }
+
+    private int createApplication(Connection connection, String consumerKey, String appName) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.OAuthAppDAOSQLQueries.ADD_OAUTH_APP)) {
+            prepStmt.setString(1, consumerKey);
+            prepStmt.setString(2, "secret");
+            prepStmt.setString(3, USER_NAME);
+            prepStmt.setInt(4, TENANT_ID);
+            prepStmt.setString(5, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+            prepStmt.setString(6, appName);
+            prepStmt.setString(7, VERSION_2);
+            prepStmt.setString(8, "http://localhost:8080/redirect");
+            prepStmt.setString(9, "authorization_code");
+            prepStmt.setLong(10, 3600L);
+            prepStmt.setLong(11, 3600L);
+            prepStmt.setLong(12, 84600L);
+            prepStmt.setLong(13, 3600L);
+            prepStmt.execute();
+        }
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                "SELECT ID FROM IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY = ?")) {
+            prepStmt.setString(1, consumerKey);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private void addAccessToken(Connection connection, String tokenId, int appId, String username, String scopeHash,
+                                String tokenState, long timeCreated, String... scopes) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement("INSERT INTO IDN_OAUTH2_ACCESS_TOKEN " +
+                "(TOKEN_ID, ACCESS_TOKEN, CONSUMER_KEY_ID, AUTHZ_USER, TENANT_ID, USER_DOMAIN, USER_TYPE, " +
+                "GRANT_TYPE, TIME_CREATED, VALIDITY_PERIOD, TOKEN_SCOPE_HASH, TOKEN_STATE, TOKEN_STATE_ID) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 'APPLICATION_USER', 'authorization_code', ?, 3600000, ?, ?, ?)")) {
+            prepStmt.setString(1, tokenId);
+            prepStmt.setString(2, "access-" + tokenId);
+            prepStmt.setInt(3, appId);
+            prepStmt.setString(4, username);
+            prepStmt.setInt(5, TENANT_ID);
+            prepStmt.setString(6, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+            prepStmt.setTimestamp(7, new Timestamp(timeCreated));
+            prepStmt.setString(8, scopeHash);
+            prepStmt.setString(9, tokenState);
+            prepStmt.setString(10, tokenId);
+            prepStmt.execute();
+        }
+        for (String scope : scopes) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(
+                    "INSERT INTO IDN_OAUTH2_ACCESS_TOKEN_SCOPE (TOKEN_ID, TOKEN_SCOPE, TENANT_ID) VALUES (?, ?, ?)")) {
+                prepStmt.setString(1, tokenId);
+                prepStmt.setString(2, scope);
+                prepStmt.setInt(3, TENANT_ID);
+                prepStmt.execute();
+            }
+        }
+    }
+}
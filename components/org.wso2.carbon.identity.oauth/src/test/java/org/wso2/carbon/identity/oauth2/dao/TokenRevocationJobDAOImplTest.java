@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao;
+
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.dao.SQLQueries;
+import org.wso2.carbon.identity.oauth2.dao.util.DAOUtils;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.TokenRevocationJobDO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+import org.wso2.carbon.user.core.UserCoreConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OAuthVersions.VERSION_2;
+
+/**
+ * Unit tests for TokenRevocationJobDAOImpl.
+ */
+@WithCarbonHome
+@PrepareForTest({IdentityDatabaseUtil.class, IdentityUtil.class, OAuth2Util.class})
+public class TokenRevocationJobDAOImplTest extends PowerMockIdentityBaseTest {
+
+    private static final String DB_NAME = "testTokenRevocationJobDB";
+    private static final int TENANT_ID = 1234;
+    private static final String USER_NAME = "user1";
+    private static final String OTHER_USER_NAME = "user2";
+    private static final String CONSUMER_KEY_A = "job-consumer-key-a";
+    private static final String CONSUMER_KEY_B = "job-consumer-key-b";
+    private static final String BINDING_REFERENCE = "binding-ref";
+    private static final String NONE = "NONE";
+
+    private TokenRevocationJobDAOImpl tokenRevocationJobDAO;
+
+    @BeforeClass
+    public void initTest() throws Exception {
+
+        DAOUtils.initializeDataSource(DB_NAME, DAOUtils.getFilePath("identity.sql"));
+        tokenRevocationJobDAO = new TokenRevocationJobDAOImpl();
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME)) {
+            int appA = createApplication(connection, CONSUMER_KEY_A, "jobAppA");
+            int appB = createApplication(connection, CONSUMER_KEY_B, "jobAppB");
+
+            addAccessToken(connection, "job-token-a1", appA, USER_NAME, "hash1", "ACTIVE", NONE, NONE, "openid");
+            addAccessToken(connection, "job-token-a2", appA, OTHER_USER_NAME, "hash1", "ACTIVE", NONE,
+                    BINDING_REFERENCE);
+            addAccessToken(connection, "job-token-a3", appA, USER_NAME, "hash2", "ACTIVE", NONE, BINDING_REFERENCE,
+                    "openid", "email");
+            addAccessToken(connection, "job-token-a4", appA, USER_NAME, "hash1", "REVOKED",
+                    UUID.randomUUID().toString(), NONE);
+            addAccessToken(connection, "job-token-b1", appB, USER_NAME, "hash1", "ACTIVE", NONE, NONE);
+            addAccessToken(connection, "job-token-b2", appB, OTHER_USER_NAME, "hash1", "REVOKED",
+                    UUID.randomUUID().toString(), NONE);
+            connection.commit();
+        }
+    }
+
+    @BeforeMethod
+    public void setup() throws Exception {
+
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> DAOUtils.getConnection(DB_NAME));
+        mockStatic(IdentityUtil.class);
+        when(IdentityUtil.isUserStoreCaseSensitive(anyString(), anyInt())).thenReturn(true);
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getTokenPartitionedSqlByUserStore(anyString(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(OAuth2Util.createAuthenticatedUser(any(), any(), any(), any())).thenAnswer(invocation -> {
+            AuthenticatedUser user = new AuthenticatedUser();
+            user.setUserName(invocation.getArgument(0));
+            user.setUserStoreDomain(invocation.getArgument(1));
+            user.setTenantDomain(invocation.getArgument(2));
+            return user;
+        });
+    }
+
+    @Test
+    public void testAddAndGetJob() throws Exception {
+
+        TokenRevocationJobDO job = buildJob(TokenRevocationJobDO.Type.TOKEN_BINDING, CONSUMER_KEY_A, USER_NAME,
+                BINDING_REFERENCE, TokenRevocationJobDO.Status.PENDING, System.currentTimeMillis());
+        tokenRevocationJobDAO.addJob(job);
+
+        TokenRevocationJobDO persistedJob = tokenRevocationJobDAO.getJob(job.getJobId(), TENANT_ID);
+        assertNotNull(persistedJob);
+        assertEquals(persistedJob.getType(), TokenRevocationJobDO.Type.TOKEN_BINDING);
+        assertEquals(persistedJob.getConsumerKey(), CONSUMER_KEY_A);
+        assertEquals(persistedJob.getAuthzUser(), USER_NAME);
+        assertEquals(persistedJob.getUserDomain(), UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        assertEquals(persistedJob.getTokenBindingReference(), BINDING_REFERENCE);
+        assertEquals(persistedJob.getStatus(), TokenRevocationJobDO.Status.PENDING);
+        assertEquals(persistedJob.getRevokedTokenCount(), 0);
+        assertEquals(persistedJob.getTimeCreated(), job.getTimeCreated());
+
+        assertNull(tokenRevocationJobDAO.getJob(job.getJobId(), TENANT_ID + 1),
+                "A job should not be visible to other tenants.");
+    }
+
+    @Test
+    public void testClaimJob() throws Exception {
+
+        long now = System.currentTimeMillis();
+        Timestamp staleBefore = new Timestamp(now - TimeUnit.MINUTES.toMillis(5));
+        TokenRevocationJobDO pendingJob = buildJob(TokenRevocationJobDO.Type.APPLICATION, CONSUMER_KEY_B, null,
+                null, TokenRevocationJobDO.Status.PENDING, now);
+        TokenRevocationJobDO runningJob = buildJob(TokenRevocationJobDO.Type.APPLICATION, CONSUMER_KEY_B, null,
+                null, TokenRevocationJobDO.Status.RUNNING, now);
+        TokenRevocationJobDO staleJob = buildJob(TokenRevocationJobDO.Type.APPLICATION, CONSUMER_KEY_B, null,
+                null, TokenRevocationJobDO.Status.RUNNING, now - TimeUnit.HOURS.toMillis(1));
+        TokenRevocationJobDO completedJob = buildJob(TokenRevocationJobDO.Type.APPLICATION, CONSUMER_KEY_B, null,
+                null, TokenRevocationJobDO.Status.COMPLETED, now - TimeUnit.HOURS.toMillis(1));
+        for (TokenRevocationJobDO job : Arrays.asList(pendingJob, runningJob, staleJob, completedJob)) {
+            tokenRevocationJobDAO.addJob(job);
+        }
+
+        assertTrue(tokenRevocationJobDAO.claimJob(pendingJob.getJobId(), staleBefore));
+        assertEquals(tokenRevocationJobDAO.getJob(pendingJob.getJobId(), TENANT_ID).getStatus(),
+                TokenRevocationJobDO.Status.RUNNING);
+        assertFalse(tokenRevocationJobDAO.claimJob(pendingJob.getJobId(), staleBefore),
+                "A job that has just been claimed should not be claimed again.");
+        assertFalse(tokenRevocationJobDAO.claimJob(runningJob.getJobId(), staleBefore),
+                "A running job that makes progress should not be claimed.");
+        assertTrue(tokenRevocationJobDAO.claimJob(staleJob.getJobId(), staleBefore),
+                "A running job that has not made progress should be claimed.");
+        assertFalse(tokenRevocationJobDAO.claimJob(completedJob.getJobId(), staleBefore));
+    }
+
+    @Test
+    public void testUpdateJobAndGetIncompleteJobs() throws Exception {
+
+        TokenRevocationJobDO job = buildJob(TokenRevocationJobDO.Type.APPLICATION, CONSUMER_KEY_B, null, null,
+                TokenRevocationJobDO.Status.PENDING, System.currentTimeMillis());
+        tokenRevocationJobDAO.addJob(job);
+        assertTrue(getJobIds(tokenRevocationJobDAO.getIncompleteJobs()).contains(job.getJobId()));
+
+        tokenRevocationJobDAO.updateJob(job.getJobId(), TokenRevocationJobDO.Status.RUNNING, 10, null);
+        TokenRevocationJobDO runningJob = tokenRevocationJobDAO.getJob(job.getJobId(), TENANT_ID);
+        assertEquals(runningJob.getStatus(), TokenRevocationJobDO.Status.RUNNING);
+        assertEquals(runningJob.getRevokedTokenCount(), 10);
+        assertTrue(getJobIds(tokenRevocationJobDAO.getIncompleteJobs()).contains(job.getJobId()));
+
+        tokenRevocationJobDAO.updateJob(job.getJobId(), TokenRevocationJobDO.Status.FAILED, 12, "error");
+        TokenRevocationJobDO failedJob = tokenRevocationJobDAO.getJob(job.getJobId(), TENANT_ID);
+        assertEquals(failedJob.getStatus(), TokenRevocationJobDO.Status.FAILED);
+        assertEquals(failedJob.getRevokedTokenCount(), 12);
+        assertEquals(failedJob.getErrorMessage(), "error");
+        assertFalse(getJobIds(tokenRevocationJobDAO.getIncompleteJobs()).contains(job.getJobId()));
+    }
+
+    @Test
+    public void testGetActiveTokensToRevoke() throws Exception {
+
+        String userStoreDomain = UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME;
+        TokenRevocationJobDO applicationJob = buildJob(TokenRevocationJobDO.Type.APPLICATION, CONSUMER_KEY_A, null,
+                null, TokenRevocationJobDO.Status.RUNNING, System.currentTimeMillis());
+        assertEquals(getTokenIds(tokenRevocationJobDAO.getActiveTokensToRevoke(applicationJob, userStoreDomain,
+                10)), new HashSet<>(Arrays.asList("job-token-a1", "job-token-a2", "job-token-a3")));
+        assertEquals(tokenRevocationJobDAO.getActiveTokensToRevoke(applicationJob, userStoreDomain, 2).size(), 2,
+                "The tokens should be limited to the chunk size.");
+
+        TokenRevocationJobDO resourceOwnerJob = buildJob(TokenRevocationJobDO.Type.RESOURCE_OWNER, CONSUMER_KEY_A,
+                USER_NAME, null, TokenRevocationJobDO.Status.RUNNING, System.currentTimeMillis());
+        List<AccessTokenDO> userTokens = tokenRevocationJobDAO.getActiveTokensToRevoke(resourceOwnerJob,
+                userStoreDomain, 10);
+        assertEquals(getTokenIds(userTokens), new HashSet<>(Arrays.asList("job-token-a1", "job-token-a3")));
+        for (AccessTokenDO token : userTokens) {
+            assertEquals(token.getConsumerKey(), CONSUMER_KEY_A);
+            assertEquals(token.getAuthzUser().getUserName(), USER_NAME);
+            assertEquals(token.getAuthzUser().getAuthenticatedSubjectIdentifier(), USER_NAME);
+            if ("job-token-a3".equals(token.getTokenId())) {
+                String[] scopes = token.getScope();
+                Arrays.sort(scopes);
+                assertEquals(scopes, new String[]{"email", "openid"});
+                assertEquals(token.getTokenBinding().getBindingReference(), BINDING_REFERENCE);
+            }
+        }
+
+        TokenRevocationJobDO tokenBindingJob = buildJob(TokenRevocationJobDO.Type.TOKEN_BINDING, CONSUMER_KEY_A,
+                USER_NAME, BINDING_REFERENCE, TokenRevocationJobDO.Status.RUNNING, System.currentTimeMillis());
+        assertEquals(getTokenIds(tokenRevocationJobDAO.getActiveTokensToRevoke(tokenBindingJob, userStoreDomain,
+                10)), Collections.singleton("job-token-a3"));
+    }
+
+    @Test
+    public void testRevokeTokens() throws Exception {
+
+        String userStoreDomain = UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME;
+        List<String> tokenIds = Arrays.asList("job-token-b1", "job-token-b2");
+        assertEquals(tokenRevocationJobDAO.revokeTokens(tokenIds, userStoreDomain),
+                Collections.singletonList("job-token-b1"), "Only the tokens revoked by the call should be returned.");
+        assertEquals(getTokenState("job-token-b1"), "REVOKED");
+        assertTrue(tokenRevocationJobDAO.revokeTokens(tokenIds, userStoreDomain).isEmpty(),
+                "Tokens that are already revoked should not be returned.");
+        assertTrue(tokenRevocationJobDAO.revokeTokens(Collections.emptyList(), userStoreDomain).isEmpty());
+    }
+
+    private TokenRevocationJobDO buildJob(TokenRevocationJobDO.Type type, String consumerKey, String authzUser,
+                                          String tokenBindingReference, TokenRevocationJobDO.Status status,
+                                          long lastUpdated) {
+
+        TokenRevocationJobDO job = new TokenRevocationJobDO();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setTenantId(TENANT_ID);
+        job.setType(type);
+        job.setConsumerKey(consumerKey);
+        job.setAuthzUser(authzUser);
+        if (authzUser != null) {
+            job.setUserDomain(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        }
+        job.setTokenBindingReference(tokenBindingReference);
+        job.setStatus(status);
+        job.setTimeCreated(new Timestamp(lastUpdated));
+        job.setLastUpdated(new Timestamp(lastUpdated));
+        return job;
+    }
+
+    private Set<String> getJobIds(List<TokenRevocationJobDO> jobs) {
+
+        Set<String> jobIds = new HashSet<>();
+        for (TokenRevocationJobDO job : jobs) {
+            jobIds.add(job.getJobId());
+        }
+        return jobIds;
+    }
+
+    private Set<String> getTokenIds(List<AccessTokenDO> tokens) {
+
+        Set<String> tokenIds = new HashSet<>();
+        for (AccessTokenDO token : tokens) {
+            tokenIds.add(token.getTokenId());
+        }
+        return tokenIds;
+    }
+
+    private String getTokenState(String tokenId) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "SELECT TOKEN_STATE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID = ?")) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+
+    private int createApplication(Connection connection, String consumerKey, String appName) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement(SQLQueries.OAuthAppDAOSQLQueries.ADD_OAUTH_APP)) {
+            prepStmt.setString(1, consumerKey);
+            prepStmt.setString(2, "secret");
+            prepStmt.setString(3, USER_NAME);
+            prepStmt.setInt(4, TENANT_ID);
+            prepStmt.setString(5, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+            prepStmt.setString(6, appName);
+            prepStmt.setString(7, VERSION_2);
+            prepStmt.setString(8, "http://localhost:8080/redirect");
+            prepStmt.setString(9, "authorization_code");
+            prepStmt.setLong(10, 3600L);
+            prepStmt.setLong(11, 3600L);
+            prepStmt.setLong(12, 84600L);
+            prepStmt.setLong(13, 3600L);
+            prepStmt.execute();
+        }
+        try (PreparedStatement prepStmt = connection.prepareStatement(
+                "SELECT ID FROM IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY = ?")) {
+            prepStmt.setString(1, consumerKey);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1);
+            }
+        }
+    }
+
+    private void addAccessToken(Connection connection, String tokenId, int appId, String username, String scopeHash,
+                                String tokenState, String tokenStateId, String tokenBindingReference,
+                                String... scopes) throws Exception {
+
+        try (PreparedStatement prepStmt = connection.prepareStatement("INSERT INTO IDN_OAUTH2_ACCESS_TOKEN " +
+                "(TOKEN_ID, ACCESS_TOKEN, CONSUMER_KEY_ID, AUTHZ_USER, TENANT_ID, USER_DOMAIN, USER_TYPE, " +
+                "GRANT_TYPE, TIME_CREATED, VALIDITY_PERIOD, TOKEN_SCOPE_HASH, TOKEN_STATE, TOKEN_STATE_ID, " +
+                "SUBJECT_IDENTIFIER, TOKEN_BINDING_REF) VALUES (?, ?, ?, ?, ?, ?, 'APPLICATION_USER', " +
+                "'authorization_code', ?, 3600000, ?, ?, ?, ?, ?)")) {
+            prepStmt.setString(1, tokenId);
+            prepStmt.setString(2, "access-" + tokenId);
+            prepStmt.setInt(3, appId);
+            prepStmt.setString(4, username);
+            prepStmt.setInt(5, TENANT_ID);
+            prepStmt.setString(6, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+            prepStmt.setTimestamp(7, new Timestamp(System.currentTimeMillis()));
+            prepStmt.setString(8, scopeHash);
+            prepStmt.setString(9, tokenState);
+            prepStmt.setString(10, tokenStateId);
+            prepStmt.setString(11, username);
+            prepStmt.setString(12, tokenBindingReference);
+            prepStmt.execute();
+        }
+        for (String scope : scopes) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(
+                    "INSERT INTO IDN_OAUTH2_ACCESS_TOKEN_SCOPE (TOKEN_ID, TOKEN_SCOPE, TENANT_ID) VALUES (?, ?, ?)")) {
+                prepStmt.setString(1, tokenId);
+                prepStmt.setString(2, scope);
+                prepStmt.setInt(3, TENANT_ID);
+                prepStmt.execute();
+            }
+        }
+    }
+}
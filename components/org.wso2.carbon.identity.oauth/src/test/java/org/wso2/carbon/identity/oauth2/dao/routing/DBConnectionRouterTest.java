@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.dao.routing;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+
+public class DBConnectionRouterTest {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private Connection primaryConnection;
+    private Connection replicaConnection;
+    private DataSource replicaDataSource;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+
+        primaryConnection = mock(Connection.class);
+        replicaConnection = mock(Connection.class);
+        replicaDataSource = mock(DataSource.class);
+        when(replicaDataSource.getConnection()).thenReturn(replicaConnection);
+    }
+
+    @Test
+    public void testReadWithoutReplica() throws Exception {
+
+        DBConnectionRouter router = createRouter(null, 60000);
+        assertFalse(router.isReplicaEnabled());
+        assertEquals(router.executeRead(RoutedDataType.OAUTH_APP, "client-id", this::getDatabase), PRIMARY);
+        assertEquals(router.getMetrics().getReadCount().size(), 0);
+    }
+
+    @Test
+    public void testReadIsRoutedToReplica() throws Exception {
+
+        DBConnectionRouter router = createRouter(replicaDataSource, 60000);
+        assertEquals(router.executeRead(RoutedDataType.OAUTH_APP, "client-id", this::getDatabase), REPLICA);
+        assertEquals(router.getMetrics().getReadCount().get("REPLICA.OAUTH_APP"), Long.valueOf(1));
+    }
+
+    @Test
+    public void testReadFallsBackToPrimaryOnMiss() throws Exception {
+
+        DBConnectionRouter router = createRouter(replicaDataSource, 60000);
+        String result = router.executeRead(RoutedDataType.OAUTH_APP, "client-id",
+                connection -> connection == replicaConnection ? null : PRIMARY);
+        assertEquals(result, PRIMARY);
+        assertEquals(router.getMetrics().getFallbackCount().get("OAUTH_APP.MISS"), Long.valueOf(1));
+    }
+
+    @Test
+    public void testReadFallsBackToPrimaryOnReplicaError() throws Exception {
+
+        when(replicaDataSource.getConnection()).thenThrow(new SQLException("Replica is not reachable."));
+        DBConnectionRouter router = createRouter(replicaDataSource, 60000);
+        assertEquals(router.executeRead(RoutedDataType.SCOPE, null, this::getDatabase), PRIMARY);
+        assertEquals(router.getMetrics().getFallbackCount().get("SCOPE.ERROR"), Long.valueOf(1));
+    }
+
+    @Test
+    public void testReadFallsBackToPrimaryOnReadOperationError() throws Exception {
+
+        DBConnectionRouter router = createRouter(replicaDataSource, 60000);
+        String result = router.executeRead(RoutedDataType.SCOPE, "scope", connection -> {
+            if (connection == replicaConnection) {
+                throw new IllegalStateException("Unexpected data on the replica.");
+            }
+            return PRIMARY;
+        });
+        assertEquals(result, PRIMARY);
+        assertEquals(router.getMetrics().getFallbackCount().get("SCOPE.ERROR"), Long.valueOf(1));
+    }
+
+    @Test
+    public void testReadYourWrites() throws Exception {
+
+        DBConnectionRouter router = createRouter(replicaDataSource, 60000);
+        router.markWrite(RoutedDataType.OAUTH_APP, "client-id");
+        assertEquals(router.executeRead(RoutedDataType.OAUTH_APP, "client-id", this::getDatabase), PRIMARY);
+        // Only the written key and data type are pinned to the primary database.
+        assertEquals(router.executeRead(RoutedDataType.OAUTH_APP, "other-client-id", this::getDatabase), REPLICA);
+        assertEquals(router.executeRead(RoutedDataType.SCOPE, "client-id", this::getDatabase), REPLICA);
+
+        router.markWrite(RoutedDataType.SCOPE, null);
+        assertEquals(router.executeRead(RoutedDataType.SCOPE, "scope", this::getDatabase), PRIMARY);
+        assertEquals(router.getMetrics().getReadYourWritesCount().get("OAUTH_APP"), Long.valueOf(1));
+        assertEquals(router.getMetrics().getWriteCount().get("SCOPE"), Long.valueOf(1));
+    }
+
+    @Test
+    public void testReadYourWritesWindowElapses() throws Exception {
+
+        DBConnectionRouter router = createRouter(replicaDataSource, 1);
+        router.markWrite(RoutedDataType.SCOPE, null);
+        Thread.sleep(10);
+        assertEquals(router.executeRead(RoutedDataType.SCOPE, null, this::getDatabase), REPLICA);
+    }
+
+    @Test
+    public void testPrimaryResultIsReturnedAsIs() throws Exception {
+
+        DBConnectionRouter router = createRouter(replicaDataSource, 60000);
+        assertNull(router.executeRead(RoutedDataType.OAUTH_APP, "client-id", connection -> null));
+        assertEquals(router.getMetrics().getReadCount().get("PRIMARY.OAUTH_APP"), Long.valueOf(1));
+    }
+
+    private DBConnectionRouter createRouter(DataSource dataSource, long readYourWritesWindowInMillis) {
+
+        return new DBConnectionRouter(dataSource, readYourWritesWindowInMillis, 100) {
+
+            @Override
+            Connection getPrimaryConnection() {
+
+                return primaryConnection;
+            }
+        };
+    }
+
+    private String getDatabase(Connection connection) {
+
+        return connection == replicaConnection ? REPLICA : PRIMARY;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.dao.sharding;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class AccessTokenShardRouterTest {
+
+    private static final String TOKEN_HASH = "{\"algorithm\":\"SHA-256\",\"hash\":\"0000000b6f3a\"}";
+    private static final String SQL = "SELECT TOKEN_SCOPE FROM IDN_OAUTH2_ACCESS_TOKEN JOIN " +
+            "IDN_OAUTH2_ACCESS_TOKEN_SCOPE ON IDN_OAUTH2_ACCESS_TOKEN.TOKEN_ID = " +
+            "IDN_OAUTH2_ACCESS_TOKEN_SCOPE.TOKEN_ID";
+
+    @DataProvider(name = "tokenHashes")
+    public Object[][] tokenHashes() {
+
+        return new Object[][]{
+                {TOKEN_HASH, 4, 3},
+                {"0000000b6f3a", 4, 3},
+                {"ffffffff", 3, 0},
+                {TOKEN_HASH, 1, 0},
+                {null, 4, 0}
+        };
+    }
+
+    @Test(dataProvider = "tokenHashes")
+    public void testGetShard(String tokenHash, int shardCount, int expectedShard) {
+
+        assertEquals(AccessTokenShardRouter.getShard(tokenHash, shardCount), expectedShard);
+    }
+
+    @Test
+    public void testGetShardOfNonHexHash() {
+
+        for (String tokenHash : Arrays.asList("not-a-hex-hash", "{\"algorithm\":\"None\",\"hash\":\"-token\"}")) {
+            int shard = AccessTokenShardRouter.getShard(tokenHash, 5);
+            assertTrue(shard >= 0 && shard < 5);
+            assertEquals(AccessTokenShardRouter.getShard(tokenHash, 5), shard);
+        }
+    }
+
+    @Test
+    public void testGetShardOfClientAndUser() {
+
+        AccessTokenShardRouter router = new AccessTokenShardRouter(4, 4);
+        assertTrue(router.isEnabled());
+        assertFalse(router.isResharding());
+        int shard = router.getShard("clientId", "admin", -1234);
+        assertTrue(shard >= 0 && shard < 4);
+        assertEquals(router.getShard("clientId", "admin", -1234), shard);
+        assertEquals(router.getShard("clientId", "ADMIN", -1234), shard, "User name case changed the shard");
+        assertEquals(AccessTokenShardRouter.getShard(AccessTokenShardRouter.getShardKeyHash("clientId", "admin",
+                -1234), 4), shard);
+        assertEquals(router.getAllShards(), Arrays.asList(0, 1, 2, 3));
+    }
+
+    @Test
+    public void testShardsOfUsersAreSpread() {
+
+        AccessTokenShardRouter router = new AccessTokenShardRouter(4, 4);
+        Set<Integer> shards = new HashSet<>();
+        for (int i = 0; i < 100; i++) {
+            shards.add(router.getShard("clientId", "user" + i, -1234));
+        }
+        assertEquals(shards, new HashSet<>(Arrays.asList(0, 1, 2, 3)));
+    }
+
+    @Test
+    public void testAllShardsWhileResharding() {
+
+        AccessTokenShardRouter router = new AccessTokenShardRouter(4, 2);
+        assertTrue(router.isResharding());
+        assertEquals(router.getAllShards(), Arrays.asList(0, 1, 2, 3));
+        assertEquals(new AccessTokenShardRouter(2, 4).getAllShards(), Arrays.asList(0, 1, 2, 3));
+    }
+
+    @Test
+    public void testGetAllShardedSqls() {
+
+        List<String> shardedSqls = new AccessTokenShardRouter(2, 2).getAllShardedSqls(SQL);
+        assertEquals(shardedSqls.size(), 2);
+        assertEquals(shardedSqls.get(0), SQL);
+        assertEquals(shardedSqls.get(1), "SELECT TOKEN_SCOPE FROM IDN_OAUTH2_ACCESS_TOKEN_SHARD_1 JOIN " +
+                "IDN_OAUTH2_ACCESS_TOKEN_SCOPE_SHARD_1 ON IDN_OAUTH2_ACCESS_TOKEN_SHARD_1.TOKEN_ID = " +
+                "IDN_OAUTH2_ACCESS_TOKEN_SCOPE_SHARD_1.TOKEN_ID");
+    }
+
+    @Test
+    public void testGetAllShardedSqlsWhenDisabled() {
+
+        AccessTokenShardRouter router = new AccessTokenShardRouter(1, 1);
+        assertFalse(router.isEnabled());
+        assertEquals(router.getAllShardedSqls(SQL), Collections.singletonList(SQL));
+    }
+}
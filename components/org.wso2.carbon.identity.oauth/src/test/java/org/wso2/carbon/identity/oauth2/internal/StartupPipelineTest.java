@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.internal;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+@WithCarbonHome
+public class StartupPipelineTest {
+
+    @BeforeMethod
+    public void setUp() {
+
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        PrivilegedCarbonContext.getThreadLocalCarbonContext()
+                .setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        PrivilegedCarbonContext.endTenantFlow();
+    }
+
+    @Test
+    public void testSubmittedPhasesRunInParallel() {
+
+        StartupPipeline startup = new StartupPipeline("TestComponent", 2);
+        // Each phase waits for the other one, hence both can only complete if they run concurrently.
+        CountDownLatch latch = new CountDownLatch(2);
+        Runnable phase = () -> {
+            latch.countDown();
+            try {
+                assertTrue(latch.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+        try {
+            startup.submit("first", phase);
+            startup.submit("second", phase);
+            startup.complete();
+        } finally {
+            startup.shutdown();
+        }
+        assertEquals(latch.getCount(), 0);
+        assertTrue(startup.getPhaseTimes().containsKey("first"));
+        assertTrue(startup.getPhaseTimes().containsKey("second"));
+    }
+
+    @Test
+    public void testSubmittedPhasesRunInActivationContext() {
+
+        StartupPipeline startup = new StartupPipeline("TestComponent", 2);
+        AtomicReference<Thread> phaseThread = new AtomicReference<>();
+        AtomicInteger phaseTenantId = new AtomicInteger();
+        AtomicReference<String> phaseTenantDomain = new AtomicReference<>();
+        try {
+            startup.submit("tenant", () -> {
+                phaseThread.set(Thread.currentThread());
+                phaseTenantId.set(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantId());
+                phaseTenantDomain.set(PrivilegedCarbonContext.getThreadLocalCarbonContext().getTenantDomain());
+            });
+            startup.await();
+        } finally {
+            startup.shutdown();
+        }
+        assertNotSame(phaseThread.get(), Thread.currentThread());
+        assertEquals(phaseTenantId.get(), MultitenantConstants.SUPER_TENANT_ID);
+        assertEquals(phaseTenantDomain.get(), MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+    }
+
+    @Test
+    public void testPhasesRunOnActivatingThreadWithoutParallelism() {
+
+        StartupPipeline startup = new StartupPipeline("TestComponent", 1);
+        AtomicReference<Thread> phaseThread = new AtomicReference<>();
+        try {
+            startup.submit("inline", () -> phaseThread.set(Thread.currentThread()));
+            // The phase has completed before await is invoked.
+            assertSame(phaseThread.get(), Thread.currentThread());
+            startup.complete();
+        } finally {
+            startup.shutdown();
+        }
+        assertTrue(startup.getPhaseTimes().containsKey("inline"));
+    }
+
+    @Test
+    public void testFailedPhaseFailsAwait() {
+
+        StartupPipeline startup = new StartupPipeline("TestComponent", 2);
+        AtomicInteger completedPhases = new AtomicInteger();
+        try {
+            startup.submit("failing", () -> {
+                throw new IllegalArgumentException("probe failed");
+            });
+            startup.submit("succeeding", completedPhases::incrementAndGet);
+            startup.await();
+            fail("Failure of a startup phase should fail the startup.");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage().contains("failing"));
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+            assertEquals(completedPhases.get(), 1);
+        } finally {
+            startup.shutdown();
+        }
+    }
+
+    @Test
+    public void testShutdownWaitsForInterruptedPhases() throws Exception {
+
+        StartupPipeline startup = new StartupPipeline("TestComponent", 2);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        startup.submit("blocking", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                stopped.countDown();
+            }
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        startup.shutdown();
+        assertEquals(stopped.getCount(), 0, "Running phases should have stopped when shutdown returns.");
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Counts the statements executed against the identity database using the query statistics of H2. The statistics
+ * are kept by the database, hence statements of every DAO are counted without instrumenting the code under test.
+ */
+public class DatabaseStatementCounter {
+
+    private static final String ENABLE_STATISTICS = "SET QUERY_STATISTICS TRUE";
+    private static final String DISABLE_STATISTICS = "SET QUERY_STATISTICS FALSE";
+    // The load test statements are few but distinct statements beyond the limit would not be counted.
+    private static final String STATISTICS_MAX_ENTRIES = "SET QUERY_STATISTICS_MAX_ENTRIES 10000";
+    private static final String COUNT_STATEMENTS = "SELECT COALESCE(SUM(EXECUTION_COUNT), 0) FROM " +
+            "INFORMATION_SCHEMA.QUERY_STATISTICS WHERE SQL_STATEMENT NOT LIKE '%QUERY_STATISTICS%'";
+
+    /**
+     * Start counting from zero. Statistics collected before are discarded.
+     *
+     * @throws SQLException If the statistics cannot be reset.
+     */
+    public void reset() throws SQLException {
+
+        execute(DISABLE_STATISTICS, STATISTICS_MAX_ENTRIES, ENABLE_STATISTICS);
+    }
+
+    /**
+     * Get the number of statements executed since the last reset.
+     *
+     * @return Number of executed statements.
+     * @throws SQLException If the statistics cannot be read.
+     */
+    public long getCount() throws SQLException {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(COUNT_STATEMENTS)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private void execute(String... sqls) throws SQLException {
+
+        try (Connection connection = IdentityDatabaseUtil.getDBConnection(false);
+             Statement statement = connection.createStatement()) {
+            for (String sql : sqls) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+import org.apache.commons.lang.StringUtils;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted mix of the operations driven by the load test, e.g.
+ * {@code client_credentials:50,authorization_code:20,validate:30}. Each worker draws its next operation at random
+ * according to the weights.
+ */
+public class GrantMix {
+
+    private static final String ENTRY_SEPARATOR = ",";
+    private static final String WEIGHT_SEPARATOR = ":";
+
+    private final Map<LoadTestOperation, Integer> weights;
+    private final LoadTestOperation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private GrantMix(Map<LoadTestOperation, Integer> weights) {
+
+        this.weights = Collections.unmodifiableMap(weights);
+        this.operations = weights.keySet().toArray(new LoadTestOperation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int cumulativeWeight = 0;
+        for (int i = 0; i < operations.length; i++) {
+            cumulativeWeight += weights.get(operations[i]);
+            cumulativeWeights[i] = cumulativeWeight;
+        }
+        this.totalWeight = cumulativeWeight;
+    }
+
+    /**
+     * Parse a grant mix.
+     *
+     * @param mix Comma separated operation names with their weights, e.g. client_credentials:70,validate:30.
+     * @return Grant mix.
+     * @throws IllegalArgumentException If the mix is empty, or an operation or weight is invalid.
+     */
+    public static GrantMix parse(String mix) {
+
+        if (StringUtils.isBlank(mix)) {
+            throw new IllegalArgumentException("Grant mix cannot be empty.");
+        }
+        Map<LoadTestOperation, Integer> weights = new EnumMap<>(LoadTestOperation.class);
+        for (String entry : mix.split(ENTRY_SEPARATOR)) {
+            String[] parts = entry.trim().split(WEIGHT_SEPARATOR);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid grant mix entry: " + entry + ". Expected " +
+                        "<operation>:<weight>.");
+            }
+            LoadTestOperation operation = LoadTestOperation.fromName(parts[0].trim());
+            int weight;
+            try {
+                weight = Integer.parseInt(parts[1].trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Weight of operation: " + parts[0].trim() + " should be a " +
+                        "positive number. Value : " + parts[1].trim(), e);
+            }
+            if (weight <= 0) {
+                throw new IllegalArgumentException("Weight of operation: " + parts[0].trim() + " should be a " +
+                        "positive number. Value : " + weight);
+            }
+            weights.merge(operation, weight, Integer::sum);
+        }
+        return new GrantMix(weights);
+    }
+
+    /**
+     * Draw the next operation.
+     *
+     * @param random Random of the calling worker.
+     * @return Operation.
+     */
+    public LoadTestOperation next(Random random) {
+
+        int value = random.nextInt(totalWeight);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        // Not reachable since the value is always less than the total weight.
+        return operations[operations.length - 1];
+    }
+
+    public Map<LoadTestOperation, Integer> getWeights() {
+
+        return weights;
+    }
+}
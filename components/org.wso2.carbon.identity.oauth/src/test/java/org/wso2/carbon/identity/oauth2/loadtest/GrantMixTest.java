@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class GrantMixTest {
+
+    @Test
+    public void testParse() {
+
+        GrantMix grantMix = GrantMix.parse(" client_credentials:30, validate:70 ,client_credentials:10");
+        assertEquals(grantMix.getWeights().size(), 2);
+        assertEquals(grantMix.getWeights().get(LoadTestOperation.CLIENT_CREDENTIALS), Integer.valueOf(40));
+        assertEquals(grantMix.getWeights().get(LoadTestOperation.VALIDATE), Integer.valueOf(70));
+    }
+
+    @DataProvider(name = "invalidMixes")
+    public Object[][] invalidMixes() {
+
+        return new Object[][]{
+                {""},
+                {"client_credentials"},
+                {"client_credentials:10:20"},
+                {"implicit:10"},
+                {"client_credentials:ten"},
+                {"client_credentials:0"},
+                {"client_credentials:-5"}
+        };
+    }
+
+    @Test(dataProvider = "invalidMixes", expectedExceptions = IllegalArgumentException.class)
+    public void testParseInvalidMix(String mix) {
+
+        GrantMix.parse(mix);
+    }
+
+    @Test
+    public void testNextFollowsWeights() {
+
+        GrantMix grantMix = GrantMix.parse("password:1,refresh_token:3");
+        Random random = new Random(42);
+        Map<LoadTestOperation, Integer> draws = new EnumMap<>(LoadTestOperation.class);
+        for (int i = 0; i < 40000; i++) {
+            draws.merge(grantMix.next(random), 1, Integer::sum);
+        }
+        assertEquals(draws.size(), 2);
+        int passwordDraws = draws.get(LoadTestOperation.PASSWORD);
+        assertTrue(passwordDraws > 9000 && passwordDraws < 11000, "Unexpected number of draws: " + passwordDraws);
+    }
+}
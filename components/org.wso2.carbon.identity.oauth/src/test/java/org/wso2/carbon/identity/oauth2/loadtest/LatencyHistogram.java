@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Records the latencies of an operation. Every latency is kept so that the percentiles are exact. Recording is not
+ * thread safe; each worker records into its own histogram and the histograms are merged once the run completes.
+ */
+public class LatencyHistogram {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final double RANK_TOLERANCE = 1e-9;
+
+    private long[] latencies = new long[INITIAL_CAPACITY];
+    private int count;
+    private boolean sorted = true;
+
+    /**
+     * Record a latency.
+     *
+     * @param latencyInNanos Latency in nanoseconds.
+     */
+    public void record(long latencyInNanos) {
+
+        if (count == latencies.length) {
+            latencies = Arrays.copyOf(latencies, latencies.length * 2);
+        }
+        latencies[count++] = latencyInNanos;
+        sorted = false;
+    }
+
+    /**
+     * Add the latencies recorded by another histogram.
+     *
+     * @param other Histogram to merge.
+     */
+    public void merge(LatencyHistogram other) {
+
+        if (other.count == 0) {
+            return;
+        }
+        if (count + other.count > latencies.length) {
+            latencies = Arrays.copyOf(latencies, Math.max(latencies.length * 2, count + other.count));
+        }
+        System.arraycopy(other.latencies, 0, latencies, count, other.count);
+        count += other.count;
+        sorted = false;
+    }
+
+    public int getCount() {
+
+        return count;
+    }
+
+    /**
+     * Get the latency at the given percentile, using the nearest rank.
+     *
+     * @param percentile Percentile between 0 (exclusive) and 100 (inclusive).
+     * @return Latency in nanoseconds, or 0 if nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile should be in (0, 100]. Value : " + percentile);
+        }
+        if (count == 0) {
+            return 0;
+        }
+        sort();
+        // Percentiles such as 99.9 are not exact in binary, allow for the rounding error before taking the ceiling.
+        int rank = (int) Math.ceil(percentile * count / 100 - RANK_TOLERANCE);
+        return latencies[Math.max(rank, 1) - 1];
+    }
+
+    public long getMax() {
+
+        if (count == 0) {
+            return 0;
+        }
+        sort();
+        return latencies[count - 1];
+    }
+
+    public double getMean() {
+
+        if (count == 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += latencies[i];
+        }
+        return sum / count;
+    }
+
+    private void sort() {
+
+        if (!sorted) {
+            Arrays.sort(latencies, 0, count);
+            sorted = true;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long latency = 1000; latency >= 1; latency--) {
+            histogram.record(latency);
+        }
+        assertEquals(histogram.getCount(), 1000);
+        assertEquals(histogram.getPercentile(50), 500);
+        assertEquals(histogram.getPercentile(99), 990);
+        assertEquals(histogram.getPercentile(99.9), 999);
+        assertEquals(histogram.getPercentile(100), 1000);
+        assertEquals(histogram.getPercentile(0.01), 1);
+        assertEquals(histogram.getMax(), 1000);
+        assertEquals(histogram.getMean(), 500.5, 0.001);
+    }
+
+    @Test
+    public void testMerge() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        LatencyHistogram other = new LatencyHistogram();
+        histogram.record(30);
+        for (int i = 0; i < 2000; i++) {
+            other.record(10);
+        }
+        histogram.merge(other);
+        histogram.merge(new LatencyHistogram());
+        assertEquals(histogram.getCount(), 2001);
+        assertEquals(histogram.getPercentile(50), 10);
+        assertEquals(histogram.getMax(), 30);
+
+        // Recording after reading the percentiles keeps them exact.
+        histogram.record(40);
+        assertEquals(histogram.getMax(), 40);
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(histogram.getPercentile(99), 0);
+        assertEquals(histogram.getMax(), 0);
+        assertEquals(histogram.getMean(), 0.0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidPercentile() {
+
+        new LatencyHistogram().getPercentile(0);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Configuration of a load test run, read from system properties so that a run can be tuned from the Maven command
+ * line, e.g. {@code -Doauth.loadtest.threads=32 -Doauth.loadtest.mix=client_credentials:80,validate:20}.
+ */
+public class LoadTestConfig {
+
+    static final String THREADS = "oauth.loadtest.threads";
+    static final String WARMUP_SECONDS = "oauth.loadtest.warmupSeconds";
+    static final String DURATION_SECONDS = "oauth.loadtest.durationSeconds";
+    static final String MIX = "oauth.loadtest.mix";
+    static final String USERS = "oauth.loadtest.users";
+
+    private static final int DEFAULT_THREADS = 8;
+    private static final int DEFAULT_WARMUP_SECONDS = 5;
+    private static final int DEFAULT_DURATION_SECONDS = 30;
+    private static final int DEFAULT_USERS = 100;
+    private static final String DEFAULT_MIX = "client_credentials:30,password:15,authorization_code:15," +
+            "refresh_token:10,validate:20,introspect:10";
+
+    private final int threads;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int users;
+    private final GrantMix grantMix;
+
+    public LoadTestConfig(int threads, int warmupSeconds, int durationSeconds, int users, GrantMix grantMix) {
+
+        this.threads = threads;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.users = users;
+        this.grantMix = grantMix;
+    }
+
+    /**
+     * Read the configuration from the system properties, falling back to the defaults.
+     *
+     * @return Load test configuration.
+     */
+    public static LoadTestConfig fromSystemProperties() {
+
+        return new LoadTestConfig(readPositiveInt(THREADS, DEFAULT_THREADS),
+                readPositiveInt(WARMUP_SECONDS, DEFAULT_WARMUP_SECONDS),
+                readPositiveInt(DURATION_SECONDS, DEFAULT_DURATION_SECONDS),
+                readPositiveInt(USERS, DEFAULT_USERS),
+                GrantMix.parse(System.getProperty(MIX, DEFAULT_MIX)));
+    }
+
+    public int getThreads() {
+
+        return threads;
+    }
+
+    public int getWarmupSeconds() {
+
+        return warmupSeconds;
+    }
+
+    public int getDurationSeconds() {
+
+        return durationSeconds;
+    }
+
+    /**
+     * Get the number of distinct users the token requests are made for. Each user of the client keeps a single
+     * active token per scope, hence the number of users bounds the number of active tokens.
+     *
+     * @return Number of users.
+     */
+    public int getUsers() {
+
+        return users;
+    }
+
+    public GrantMix getGrantMix() {
+
+        return grantMix;
+    }
+
+    @Override
+    public String toString() {
+
+        return "threads: " + threads + ", warmup: " + warmupSeconds + "s, duration: " + durationSeconds +
+                "s, users: " + users + ", mix: " + grantMix.getWeights();
+    }
+
+    private static int readPositiveInt(String property, int defaultValue) {
+
+        String value = System.getProperty(property);
+        if (StringUtils.isBlank(value)) {
+            return defaultValue;
+        }
+        try {
+            int configValue = Integer.parseInt(value.trim());
+            if (configValue > 0) {
+                return configValue;
+            }
+        } catch (NumberFormatException e) {
+            // Fall through to report the invalid value.
+        }
+        throw new IllegalArgumentException("Provided value for " + property + " should be a positive number. " +
+                "Value : " + value);
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+import org.apache.oltu.oauth2.common.message.types.ResponseType;
+import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.application.common.model.LocalAndOutboundAuthenticationConfig;
+import org.wso2.carbon.identity.application.common.model.ServiceProvider;
+import org.wso2.carbon.identity.application.mgt.ApplicationManagementService;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.oauth.common.OAuthConstants;
+import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
+import org.wso2.carbon.identity.oauth2.OAuth2Service;
+import org.wso2.carbon.identity.oauth2.bean.OAuthClientAuthnContext;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenReqDTO;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AccessTokenRespDTO;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AuthorizeReqDTO;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2AuthorizeRespDTO;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2IntrospectionResponseDTO;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2TokenValidationRequestDTO;
+import org.wso2.carbon.identity.oauth2.dto.OAuth2TokenValidationResponseDTO;
+import org.wso2.carbon.identity.oauth2.internal.OAuth2ServiceComponentHolder;
+import org.wso2.carbon.identity.oauth2.model.HttpRequestHeader;
+import org.wso2.carbon.identity.oauth2.token.AccessTokenIssuer;
+import org.wso2.carbon.identity.oauth2.validators.TokenValidationHandler;
+import org.wso2.carbon.user.api.RealmConfiguration;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.user.core.UserRealm;
+import org.wso2.carbon.user.core.common.AbstractUserStoreManager;
+import org.wso2.carbon.user.core.common.AuthenticationResult;
+import org.wso2.carbon.user.core.common.User;
+import org.wso2.carbon.user.core.constants.UserCoreClaimConstants;
+import org.wso2.carbon.user.core.service.RealmService;
+import org.wso2.carbon.user.core.tenant.TenantManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Wires the OAuth services for the load test and drives the operations against them, the same way the token,
+ * authorization and introspection endpoints do once a request is parsed and the client is authenticated.
+ * <p>
+ * The identity database is the H2 database of the test class. The realm, the user store and the application
+ * management service are in-memory stand-ins that accept every user of the load test. The caches are the caches of
+ * the test Carbon home.
+ * <p>
+ * Each user keeps its latest access and refresh token. Workers operate on disjoint sets of users, hence a refresh
+ * token is never redeemed by two workers at once.
+ */
+public class LoadTestFixture {
+
+    static final String CLIENT_ID = "l0adt3stc1i3nt1d00000000000000a";
+    static final String CLIENT_SECRET = "l0adt3sts3cr3t0000000000000000a";
+    static final String CALLBACK_URL = "https://localhost/callback";
+    static final String APP_NAME = "load-test-app";
+
+    private static final String USER_NAME_PREFIX = "loaduser";
+    private static final String USER_PASSWORD = "loadtest-password";
+    private static final String USER_STORE_DOMAIN = "PRIMARY";
+    private static final String[] SCOPES = {"load_test"};
+    private static final String BEARER = "bearer";
+
+    private final int users;
+    private final AtomicReferenceArray<String> accessTokens;
+    private final AtomicReferenceArray<String> refreshTokens;
+    private final OAuth2Service oAuth2Service = new OAuth2Service();
+
+    public LoadTestFixture(int users) {
+
+        this.users = users;
+        this.accessTokens = new AtomicReferenceArray<>(users);
+        this.refreshTokens = new AtomicReferenceArray<>(users);
+    }
+
+    /**
+     * Register the stand-ins with the service holders and issue an initial token for every user, so that the
+     * validation, introspection and refresh operations have tokens to work on.
+     *
+     * @throws Exception If the services cannot be wired or the initial tokens cannot be issued.
+     */
+    public void initialize() throws Exception {
+
+        startTenantFlow();
+        RealmService realmService = standIn(RealmService.class);
+        TenantManager tenantManager = standIn(TenantManager.class);
+        UserRealm userRealm = standIn(UserRealm.class);
+        AbstractUserStoreManager userStoreManager = standIn(AbstractUserStoreManager.class);
+        when(realmService.getTenantManager()).thenReturn(tenantManager);
+        when(realmService.getTenantUserRealm(MultitenantConstants.SUPER_TENANT_ID)).thenReturn(userRealm);
+        when(realmService.getBootstrapRealmConfiguration()).thenReturn(new RealmConfiguration());
+        when(tenantManager.getTenantId(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME))
+                .thenReturn(MultitenantConstants.SUPER_TENANT_ID);
+        when(tenantManager.getDomain(MultitenantConstants.SUPER_TENANT_ID))
+                .thenReturn(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        when(userRealm.getUserStoreManager()).thenReturn(userStoreManager);
+        when(userStoreManager.authenticateWithID(eq(UserCoreClaimConstants.USERNAME_CLAIM_URI), anyString(), any(),
+                eq(UserCoreConstants.DEFAULT_PROFILE))).thenAnswer(invocation -> {
+            AuthenticationResult authenticationResult =
+                    new AuthenticationResult(AuthenticationResult.AuthenticationStatus.SUCCESS);
+            authenticationResult.setAuthenticatedUser(buildUser(invocation.getArgument(1)));
+            return authenticationResult;
+        });
+        IdentityTenantUtil.setRealmService(realmService);
+        OAuthComponentServiceHolder.getInstance().setRealmService(realmService);
+
+        ServiceProvider serviceProvider = new ServiceProvider();
+        serviceProvider.setApplicationName(APP_NAME);
+        serviceProvider.setLocalAndOutBoundAuthenticationConfig(new LocalAndOutboundAuthenticationConfig());
+        ApplicationManagementService applicationMgtService = standIn(ApplicationManagementService.class);
+        when(applicationMgtService.getServiceProviderNameByClientId(anyString(), anyString(), anyString()))
+                .thenReturn(APP_NAME);
+        when(applicationMgtService.getServiceProviderByClientId(anyString(), anyString(), anyString()))
+                .thenReturn(serviceProvider);
+        OAuth2ServiceComponentHolder.setApplicationMgtService(applicationMgtService);
+
+        for (int user = 0; user < users; user++) {
+            String errorCode = execute(LoadTestOperation.PASSWORD, user);
+            if (errorCode != null) {
+                throw new IllegalStateException("Unable to issue the initial token of user: " + getUserName(user) +
+                        ". Error : " + errorCode);
+            }
+        }
+    }
+
+    /**
+     * Start a super tenant flow on the current thread. Every worker thread starts one before driving operations.
+     */
+    public static void startTenantFlow() {
+
+        PrivilegedCarbonContext.startTenantFlow();
+        PrivilegedCarbonContext carbonContext = PrivilegedCarbonContext.getThreadLocalCarbonContext();
+        carbonContext.setTenantId(MultitenantConstants.SUPER_TENANT_ID);
+        carbonContext.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+    }
+
+    public int getUsers() {
+
+        return users;
+    }
+
+    /**
+     * Drive an operation for a user.
+     *
+     * @param operation Operation.
+     * @param user      Index of the user.
+     * @return null if the operation succeeded, otherwise the error code or message of the failure.
+     * @throws Exception If the operation failed with an exception.
+     */
+    public String execute(LoadTestOperation operation, int user) throws Exception {
+
+        switch (operation) {
+            case CLIENT_CREDENTIALS:
+                return issue(buildTokenRequest(OAuthConstants.GrantTypes.CLIENT_CREDENTIALS), -1);
+            case PASSWORD:
+                OAuth2AccessTokenReqDTO passwordRequest = buildTokenRequest(OAuthConstants.GrantTypes.PASSWORD);
+                passwordRequest.setResourceOwnerUsername(getUserName(user));
+                passwordRequest.setResourceOwnerPassword(USER_PASSWORD);
+                return issue(passwordRequest, user);
+            case AUTHORIZATION_CODE:
+                return authorizeAndExchangeCode(user);
+            case REFRESH_TOKEN:
+                OAuth2AccessTokenReqDTO refreshRequest = buildTokenRequest(OAuthConstants.GrantTypes.REFRESH_TOKEN);
+                refreshRequest.setRefreshToken(refreshTokens.get(user));
+                return issue(refreshRequest, user);
+            case VALIDATE:
+                OAuth2TokenValidationResponseDTO validationResponse =
+                        TokenValidationHandler.getInstance().validate(buildValidationRequest(user));
+                return validationResponse.isValid() ? null : validationResponse.getErrorMsg();
+            case INTROSPECT:
+                OAuth2IntrospectionResponseDTO introspectionResponse =
+                        TokenValidationHandler.getInstance().buildIntrospectionResponse(buildValidationRequest(user));
+                return introspectionResponse.isActive() ? null : introspectionResponse.getError();
+            default:
+                throw new IllegalArgumentException("Unsupported load test operation: " + operation);
+        }
+    }
+
+    private String authorizeAndExchangeCode(int user) throws Exception {
+
+        OAuth2AuthorizeReqDTO authorizeReqDTO = new OAuth2AuthorizeReqDTO();
+        authorizeReqDTO.setConsumerKey(CLIENT_ID);
+        authorizeReqDTO.setCallbackUrl(CALLBACK_URL);
+        authorizeReqDTO.setResponseType(ResponseType.CODE.toString());
+        authorizeReqDTO.setScopes(SCOPES);
+        authorizeReqDTO.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        authorizeReqDTO.setUser(buildAuthenticatedUser(user));
+        OAuth2AuthorizeRespDTO authorizeRespDTO = oAuth2Service.authorize(authorizeReqDTO);
+        if (authorizeRespDTO.getErrorCode() != null) {
+            return authorizeRespDTO.getErrorCode();
+        }
+
+        OAuth2AccessTokenReqDTO tokenReqDTO = buildTokenRequest(OAuthConstants.GrantTypes.AUTHORIZATION_CODE);
+        tokenReqDTO.setAuthorizationCode(authorizeRespDTO.getAuthorizationCode());
+        tokenReqDTO.setCallbackURI(CALLBACK_URL);
+        return issue(tokenReqDTO, user);
+    }
+
+    private String issue(OAuth2AccessTokenReqDTO tokenReqDTO, int user) throws Exception {
+
+        OAuth2AccessTokenRespDTO tokenRespDTO = AccessTokenIssuer.getInstance().issue(tokenReqDTO);
+        if (tokenRespDTO.isError()) {
+            return tokenRespDTO.getErrorCode();
+        }
+        if (user >= 0) {
+            accessTokens.set(user, tokenRespDTO.getAccessToken());
+            if (tokenRespDTO.getRefreshToken() != null) {
+                refreshTokens.set(user, tokenRespDTO.getRefreshToken());
+            }
+        }
+        return null;
+    }
+
+    private OAuth2AccessTokenReqDTO buildTokenRequest(String grantType) {
+
+        OAuthClientAuthnContext clientAuthnContext = new OAuthClientAuthnContext();
+        clientAuthnContext.setClientId(CLIENT_ID);
+        clientAuthnContext.setAuthenticated(true);
+
+        OAuth2AccessTokenReqDTO tokenReqDTO = new OAuth2AccessTokenReqDTO();
+        tokenReqDTO.setClientId(CLIENT_ID);
+        tokenReqDTO.setClientSecret(CLIENT_SECRET);
+        tokenReqDTO.setGrantType(grantType);
+        tokenReqDTO.setScope(SCOPES);
+        tokenReqDTO.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        tokenReqDTO.setHttpRequestHeaders(new HttpRequestHeader[0]);
+        tokenReqDTO.setoAuthClientAuthnContext(clientAuthnContext);
+        return tokenReqDTO;
+    }
+
+    private OAuth2TokenValidationRequestDTO buildValidationRequest(int user) {
+
+        OAuth2TokenValidationRequestDTO validationRequestDTO = new OAuth2TokenValidationRequestDTO();
+        OAuth2TokenValidationRequestDTO.OAuth2AccessToken accessToken = validationRequestDTO.new OAuth2AccessToken();
+        accessToken.setIdentifier(accessTokens.get(user));
+        accessToken.setTokenType(BEARER);
+        validationRequestDTO.setAccessToken(accessToken);
+        validationRequestDTO.setContext(new OAuth2TokenValidationRequestDTO.TokenValidationContextParam[0]);
+        return validationRequestDTO;
+    }
+
+    private AuthenticatedUser buildAuthenticatedUser(int user) {
+
+        AuthenticatedUser authenticatedUser = new AuthenticatedUser(buildUser(getUserName(user)));
+        authenticatedUser.setAuthenticatedSubjectIdentifier(getUserName(user));
+        return authenticatedUser;
+    }
+
+    private static User buildUser(String userName) {
+
+        String userId = UUID.nameUUIDFromBytes(userName.getBytes(StandardCharsets.UTF_8)).toString();
+        User user = new User(userId, userName, userName);
+        user.setTenantDomain(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        user.setUserStoreDomain(USER_STORE_DOMAIN);
+        return user;
+    }
+
+    private static String getUserName(int user) {
+
+        return USER_NAME_PREFIX + user;
+    }
+
+    /**
+     * Create a stand-in of a service. Stand-ins do not record their invocations, which would otherwise accumulate
+     * for the whole run and contend between the workers.
+     */
+    private static <T> T standIn(Class<T> serviceClass) {
+
+        return mock(serviceClass, withSettings().stubOnly());
+    }
+}
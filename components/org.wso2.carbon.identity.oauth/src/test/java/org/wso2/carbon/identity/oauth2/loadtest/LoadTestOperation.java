@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+/**
+ * Operations the load test harness can drive. Each operation is a single request as a client would send it.
+ */
+public enum LoadTestOperation {
+
+    /**
+     * Token request of the client credentials grant.
+     */
+    CLIENT_CREDENTIALS("client_credentials"),
+
+    /**
+     * Token request of the resource owner password grant.
+     */
+    PASSWORD("password"),
+
+    /**
+     * Authorization request of the code response type followed by the token request exchanging the code.
+     */
+    AUTHORIZATION_CODE("authorization_code"),
+
+    /**
+     * Token request of the refresh token grant.
+     */
+    REFRESH_TOKEN("refresh_token"),
+
+    /**
+     * Validation of a previously issued access token.
+     */
+    VALIDATE("validate"),
+
+    /**
+     * Introspection of a previously issued access token.
+     */
+    INTROSPECT("introspect");
+
+    private final String name;
+
+    LoadTestOperation(String name) {
+
+        this.name = name;
+    }
+
+    public String getName() {
+
+        return name;
+    }
+
+    /**
+     * Get the operation of the given name.
+     *
+     * @param name Name of the operation, e.g. client_credentials.
+     * @return Operation.
+     * @throws IllegalArgumentException If there is no operation of the given name.
+     */
+    public static LoadTestOperation fromName(String name) {
+
+        for (LoadTestOperation operation : values()) {
+            if (operation.name.equals(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown load test operation: " + name);
+    }
+}
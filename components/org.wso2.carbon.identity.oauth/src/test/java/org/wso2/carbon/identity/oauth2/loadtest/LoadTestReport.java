@@ -0,0 +1,199 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result of a load test run: throughput and latency percentiles per operation, the statements executed against the
+ * identity database and the memory allocated by the workers.
+ */
+public class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double BYTES_PER_MEGABYTE = 1024 * 1024;
+
+    private final LoadTestConfig config;
+    private final long durationInNanos;
+    private final Map<LoadTestOperation, OperationStatistics> operations;
+    private final long databaseStatements;
+    private final Map<String, Long> databaseCallsByGrantType;
+    private final long allocatedBytes;
+
+    public LoadTestReport(LoadTestConfig config, long durationInNanos,
+                          Map<LoadTestOperation, OperationStatistics> operations, long databaseStatements,
+                          Map<String, Long> databaseCallsByGrantType, long allocatedBytes) {
+
+        this.config = config;
+        this.durationInNanos = durationInNanos;
+        this.operations = new EnumMap<>(operations);
+        this.databaseStatements = databaseStatements;
+        this.databaseCallsByGrantType = new TreeMap<>(databaseCallsByGrantType);
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public Map<LoadTestOperation, OperationStatistics> getOperations() {
+
+        return operations;
+    }
+
+    /**
+     * Get the number of operations completed during the measured phase.
+     *
+     * @return Number of operations, including the failed ones.
+     */
+    public long getOperationCount() {
+
+        long count = 0;
+        for (OperationStatistics statistics : operations.values()) {
+            count += statistics.getLatencies().getCount();
+        }
+        return count;
+    }
+
+    public long getErrorCount() {
+
+        long errors = 0;
+        for (OperationStatistics statistics : operations.values()) {
+            errors += statistics.getErrorCount();
+        }
+        return errors;
+    }
+
+    /**
+     * Get the number of operations completed per second during the measured phase.
+     *
+     * @return Operations per second.
+     */
+    public double getThroughput() {
+
+        return getOperationCount() * (double) TimeUnit.SECONDS.toNanos(1) / durationInNanos;
+    }
+
+    public long getDatabaseStatements() {
+
+        return databaseStatements;
+    }
+
+    public long getAllocatedBytes() {
+
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+
+        StringBuilder report = new StringBuilder();
+        report.append("OAuth load test (").append(config).append(")\n");
+        report.append(String.format(Locale.ENGLISH, "%-20s %10s %8s %10s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "errors", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms",
+                "mean ms"));
+        double seconds = durationInNanos / (double) TimeUnit.SECONDS.toNanos(1);
+        for (Map.Entry<LoadTestOperation, OperationStatistics> entry : operations.entrySet()) {
+            LatencyHistogram latencies = entry.getValue().getLatencies();
+            report.append(String.format(Locale.ENGLISH, "%-20s %10d %8d %10.1f", entry.getKey().getName(),
+                    latencies.getCount(), entry.getValue().getErrorCount(), latencies.getCount() / seconds));
+            for (double percentile : PERCENTILES) {
+                report.append(String.format(Locale.ENGLISH, " %10.3f",
+                        latencies.getPercentile(percentile) / NANOS_PER_MILLI));
+            }
+            report.append(String.format(Locale.ENGLISH, " %10.3f %10.3f%n", latencies.getMax() / NANOS_PER_MILLI,
+                    latencies.getMean() / NANOS_PER_MILLI));
+        }
+        long operationCount = Math.max(getOperationCount(), 1);
+        report.append(String.format(Locale.ENGLISH, "throughput: %.1f ops/s, errors: %d%n", getThroughput(),
+                getErrorCount()));
+        report.append(String.format(Locale.ENGLISH, "database statements: %d (%.2f per operation)%n",
+                databaseStatements, databaseStatements / (double) operationCount));
+        if (!databaseCallsByGrantType.isEmpty()) {
+            report.append("database calls by grant type: ").append(databaseCallsByGrantType).append('\n');
+        }
+        if (allocatedBytes >= 0) {
+            report.append(String.format(Locale.ENGLISH, "allocated: %.1f MB/s (%d bytes per operation)%n",
+                    allocatedBytes / BYTES_PER_MEGABYTE / seconds, allocatedBytes / operationCount));
+        } else {
+            report.append("allocated: not supported by this JVM\n");
+        }
+        for (Map.Entry<LoadTestOperation, OperationStatistics> entry : operations.entrySet()) {
+            if (entry.getValue().getErrorCount() > 0) {
+                report.append("first error of ").append(entry.getKey().getName()).append(": ")
+                        .append(entry.getValue().getFirstError()).append('\n');
+            }
+        }
+        return report.toString();
+    }
+
+    /**
+     * Latencies and errors of an operation. Like the histogram, statistics are recorded by a single worker and merged
+     * once the run completes.
+     */
+    public static class OperationStatistics {
+
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private long errorCount;
+        private String firstError;
+
+        /**
+         * Record a completed operation.
+         *
+         * @param latencyInNanos Latency of the operation in nanoseconds.
+         * @param error          null if the operation succeeded, otherwise a description of the failure.
+         */
+        public void record(long latencyInNanos, String error) {
+
+            latencies.record(latencyInNanos);
+            if (error != null) {
+                errorCount++;
+                if (firstError == null) {
+                    firstError = error;
+                }
+            }
+        }
+
+        public void merge(OperationStatistics other) {
+
+            latencies.merge(other.latencies);
+            errorCount += other.errorCount;
+            if (firstError == null) {
+                firstError = other.firstError;
+            }
+        }
+
+        public LatencyHistogram getLatencies() {
+
+            return latencies;
+        }
+
+        public long getErrorCount() {
+
+            return errorCount;
+        }
+
+        public String getFirstError() {
+
+            return firstError;
+        }
+    }
+}
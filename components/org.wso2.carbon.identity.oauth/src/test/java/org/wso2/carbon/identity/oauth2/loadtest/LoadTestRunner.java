@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetricsPublisher;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceStage;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenRequestMetrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a grant mix against a {@link LoadTestFixture} from a number of worker threads. The run has a warm up phase,
+ * whose results are discarded, followed by the measured phase.
+ * <p>
+ * Each worker operates on its own partition of the users and records into its own statistics, so the workers only
+ * contend on the code under test.
+ */
+public class LoadTestRunner {
+
+    private static final Log log = LogFactory.getLog(LoadTestRunner.class);
+
+    private final LoadTestConfig config;
+    private final LoadTestFixture fixture;
+
+    public LoadTestRunner(LoadTestConfig config, LoadTestFixture fixture) {
+
+        if (fixture.getUsers() < config.getThreads()) {
+            throw new IllegalArgumentException("Number of users: " + fixture.getUsers() + " should not be less " +
+                    "than the number of threads: " + config.getThreads());
+        }
+        this.config = config;
+        this.fixture = fixture;
+    }
+
+    /**
+     * Run the warm up and the measured phases.
+     *
+     * @return Report of the measured phase.
+     * @throws Exception If the database statistics cannot be read or a worker is interrupted.
+     */
+    public LoadTestReport run() throws Exception {
+
+        if (log.isDebugEnabled()) {
+            log.debug("Warming up the load test for " + config.getWarmupSeconds() + " seconds.");
+        }
+        runPhase(TimeUnit.SECONDS.toNanos(config.getWarmupSeconds()));
+
+        DatabaseStatementCounter statementCounter = new DatabaseStatementCounter();
+        DatabaseCallPublisher databaseCallPublisher = new DatabaseCallPublisher();
+        statementCounter.reset();
+        TokenIssuanceMetrics.addPublisher(databaseCallPublisher);
+        try {
+            long startTime = System.nanoTime();
+            List<Worker> workers = runPhase(TimeUnit.SECONDS.toNanos(config.getDurationSeconds()));
+            long durationInNanos = System.nanoTime() - startTime;
+
+            Map<LoadTestOperation, LoadTestReport.OperationStatistics> operations =
+                    new EnumMap<>(LoadTestOperation.class);
+            long allocatedBytes = 0;
+            for (Worker worker : workers) {
+                for (Map.Entry<LoadTestOperation, LoadTestReport.OperationStatistics> entry :
+                        worker.statistics.entrySet()) {
+                    operations.computeIfAbsent(entry.getKey(), operation -> new LoadTestReport.OperationStatistics())
+                            .merge(entry.getValue());
+                }
+                allocatedBytes = worker.allocatedBytes < 0 || allocatedBytes < 0 ? -1 :
+                        allocatedBytes + worker.allocatedBytes;
+            }
+            return new LoadTestReport(config, durationInNanos, operations, statementCounter.getCount(),
+                    databaseCallPublisher.getDatabaseCalls(), allocatedBytes);
+        } finally {
+            TokenIssuanceMetrics.removePublisher(databaseCallPublisher);
+        }
+    }
+
+    private List<Worker> runPhase(long durationInNanos) throws InterruptedException {
+
+        long deadline = System.nanoTime() + durationInNanos;
+        List<Worker> workers = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < config.getThreads(); i++) {
+            Worker worker = new Worker(i, deadline);
+            Thread thread = new Thread(worker, "OAuthLoadTestWorker-" + i);
+            workers.add(worker);
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return workers;
+    }
+
+    /**
+     * Issues operations until the deadline of the phase.
+     */
+    private class Worker implements Runnable {
+
+        private final int index;
+        private final long deadline;
+        private final Random random;
+        private final Map<LoadTestOperation, LoadTestReport.OperationStatistics> statistics =
+                new EnumMap<>(LoadTestOperation.class);
+        private long allocatedBytes = -1;
+
+        Worker(int index, long deadline) {
+
+            this.index = index;
+            this.deadline = deadline;
+            this.random = new Random(index);
+        }
+
+        @Override
+        public void run() {
+
+            ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            long allocatedAtStart = getAllocatedBytes(threadMXBean, threadId);
+            int usersPerWorker = fixture.getUsers() / config.getThreads();
+            LoadTestFixture.startTenantFlow();
+            try {
+                while (System.nanoTime() < deadline) {
+                    LoadTestOperation operation = config.getGrantMix().next(random);
+                    int user = index + config.getThreads() * random.nextInt(usersPerWorker);
+                    long startTime = System.nanoTime();
+                    String error;
+                    try {
+                        error = fixture.execute(operation, user);
+                    } catch (Exception e) {
+                        error = e.getClass().getName() + ": " + e.getMessage();
+                    }
+                    statistics.computeIfAbsent(operation, key -> new LoadTestReport.OperationStatistics())
+                            .record(System.nanoTime() - startTime, error);
+                }
+            } finally {
+                PrivilegedCarbonContext.endTenantFlow();
+            }
+            long allocatedAtEnd = getAllocatedBytes(threadMXBean, threadId);
+            if (allocatedAtStart >= 0 && allocatedAtEnd >= 0) {
+                allocatedBytes = allocatedAtEnd - allocatedAtStart;
+            }
+        }
+    }
+
+    private static long getAllocatedBytes(ThreadMXBean threadMXBean, long threadId) {
+
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            if (allocationMXBean.isThreadAllocatedMemorySupported() &&
+                    allocationMXBean.isThreadAllocatedMemoryEnabled()) {
+                return allocationMXBean.getThreadAllocatedBytes(threadId);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Sums the database calls made by the token requests of each grant type. Only invoked when token issuance metrics
+     * are enabled.
+     */
+    private static class DatabaseCallPublisher implements TokenIssuanceMetricsPublisher {
+
+        private final ConcurrentMap<String, LongAdder> databaseCalls = new ConcurrentHashMap<>();
+
+        @Override
+        public void publishStage(String grantType, TokenIssuanceStage stage, long durationInNanos) {
+
+        }
+
+        @Override
+        public void publishRequest(TokenRequestMetrics requestMetrics) {
+
+            databaseCalls.computeIfAbsent(requestMetrics.getGrantType(), grantType -> new LongAdder())
+                    .add(requestMetrics.getDatabaseCallCount());
+        }
+
+        Map<String, Long> getDatabaseCalls() {
+
+            Map<String, Long> calls = new HashMap<>();
+            for (Map.Entry<String, LongAdder> entry : databaseCalls.entrySet()) {
+                calls.put(entry.getKey(), entry.getValue().sum());
+            }
+            return calls;
+        }
+    }
+}
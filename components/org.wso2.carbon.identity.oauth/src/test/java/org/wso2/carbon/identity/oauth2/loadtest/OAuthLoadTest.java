@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+
+package org.wso2.carbon.identity.oauth2.loadtest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.powermock.reflect.internal.WhiteboxImpl;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.common.testng.WithH2Database;
+import org.wso2.carbon.identity.oauth2.token.metrics.TokenIssuanceMetrics;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * End to end load test of token issuance, token validation, introspection and authorization against an embedded H2
+ * identity database.
+ * <p>
+ * The load test is not part of the test suite. Run it explicitly, optionally overriding the defaults of
+ * {@link LoadTestConfig}:
+ * <pre>
+ * mvn test -Dtest=OAuthLoadTest -Doauth.loadtest.threads=16 -Doauth.loadtest.durationSeconds=60 \
+ *     -Doauth.loadtest.mix=client_credentials:50,validate:50
+ * </pre>
+ * The report is logged once the run completes. The test fails if any operation of the measured phase fails.
+ */
+@WithCarbonHome
+@WithH2Database(files = {"dbScripts/identity.sql", "dbScripts/load_test_data.sql"})
+public class OAuthLoadTest {
+
+    private static final Log log = LogFactory.getLog(OAuthLoadTest.class);
+    private static final String METRICS_ENABLED = "enabled";
+
+    private LoadTestConfig config;
+    private LoadTestFixture fixture;
+
+    @BeforeClass
+    public void setUp() throws Exception {
+
+        config = LoadTestConfig.fromSystemProperties();
+        fixture = new LoadTestFixture(config.getUsers());
+        try {
+            fixture.initialize();
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+        // Token requests report their database calls only while token issuance metrics are enabled.
+        WhiteboxImpl.setInternalState(TokenIssuanceMetrics.class, METRICS_ENABLED, true);
+    }
+
+    @AfterClass
+    public void tearDown() {
+
+        WhiteboxImpl.setInternalState(TokenIssuanceMetrics.class, METRICS_ENABLED, false);
+    }
+
+    @Test
+    public void testLoad() throws Exception {
+
+        LoadTestReport report = new LoadTestRunner(config, fixture).run();
+        log.info(report);
+
+        assertTrue(report.getOperationCount() > 0, "No operation completed during the load test.");
+        assertEquals(report.getErrorCount(), 0, "Operations failed during the load test.\n" + report);
+    }
+}
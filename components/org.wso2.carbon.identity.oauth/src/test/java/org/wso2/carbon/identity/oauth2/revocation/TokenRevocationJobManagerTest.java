@@ -0,0 +1,286 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.revocation;
+
+import org.mockito.ArgumentCaptor;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.application.authentication.framework.model.AuthenticatedUser;
+import org.wso2.carbon.identity.common.testng.WithCarbonHome;
+import org.wso2.carbon.identity.core.util.IdentityDatabaseUtil;
+import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
+import org.wso2.carbon.identity.oauth.OAuthUtil;
+import org.wso2.carbon.identity.oauth.cache.OAuthCache;
+import org.wso2.carbon.identity.oauth.dao.SQLQueries;
+import org.wso2.carbon.identity.oauth.dto.OAuthAppRevocationRequestDTO;
+import org.wso2.carbon.identity.oauth.dto.OAuthRevocationResponseDTO;
+import org.wso2.carbon.identity.oauth.event.OAuthEventInterceptor;
+import org.wso2.carbon.identity.oauth.internal.OAuthComponentServiceHolder;
+import org.wso2.carbon.identity.oauth2.dao.TokenRevocationJobDAO;
+import org.wso2.carbon.identity.oauth2.dao.TokenRevocationJobDAOImpl;
+import org.wso2.carbon.identity.oauth2.dao.util.DAOUtils;
+import org.wso2.carbon.identity.oauth2.model.AccessTokenDO;
+import org.wso2.carbon.identity.oauth2.model.TokenRevocationJobDO;
+import org.wso2.carbon.identity.oauth2.util.OAuth2TokenUtil;
+import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
+import org.wso2.carbon.identity.testutil.powermock.PowerMockIdentityBaseTest;
+import org.wso2.carbon.user.core.UserCoreConstants;
+import org.wso2.carbon.utils.multitenancy.MultitenantConstants;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.powermock.api.mockito.PowerMockito.mockStatic;
+import static org.powermock.api.mockito.PowerMockito.when;
+import static org.testng.Assert.assertEquals;
+import static org.wso2.carbon.identity.oauth.common.OAuthConstants.OAuthVersions.VERSION_2;
+
+/**
+ * Unit tests for TokenRevocationJobManager.
+ */
+@WithCarbonHome
+@PrepareForTest({IdentityDatabaseUtil.class, IdentityUtil.class, IdentityTenantUtil.class, OAuth2Util.class,
+        OAuthUtil.class, OAuthCache.class, OAuth2TokenUtil.class})
+public class TokenRevocationJobManagerTest extends PowerMockIdentityBaseTest {
+
+    private static final String DB_NAME = "testTokenRevocationJobManagerDB";
+    private static final int TENANT_ID = MultitenantConstants.SUPER_TENANT_ID;
+    private static final String USER_NAME = "user1";
+    private static final long STALE_JOB_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
+    private TokenRevocationJobDAO tokenRevocationJobDAO;
+    private TokenRevocationJobManager tokenRevocationJobManager;
+    private OAuthEventInterceptor oAuthEventInterceptor;
+
+    @BeforeClass
+    public void initTest() throws Exception {
+
+        DAOUtils.initializeDataSource(DB_NAME, DAOUtils.getFilePath("identity.sql"));
+        tokenRevocationJobDAO = new TokenRevocationJobDAOImpl();
+        // Jobs are processed on the calling thread, one token at a time.
+        tokenRevocationJobManager = new TokenRevocationJobManager(true, 1, STALE_JOB_TIMEOUT, Runnable::run) {
+
+            @Override
+            TokenRevocationJobDAO getTokenRevocationJobDAO() {
+
+                return tokenRevocationJobDAO;
+            }
+        };
+    }
+
+    @BeforeMethod
+    public void setup() throws Exception {
+
+        mockStatic(IdentityDatabaseUtil.class);
+        when(IdentityDatabaseUtil.getDBConnection(anyBoolean()))
+                .thenAnswer(invocation -> DAOUtils.getConnection(DB_NAME));
+        mockStatic(IdentityUtil.class);
+        when(IdentityUtil.getPrimaryDomainName()).thenReturn(UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+        mockStatic(IdentityTenantUtil.class);
+        when(IdentityTenantUtil.getTenantDomain(anyInt()))
+                .thenReturn(MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
+        mockStatic(OAuth2Util.class);
+        when(OAuth2Util.getTokenPartitionedSqlByUserStore(any(), any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(OAuth2Util.createAuthenticatedUser(any(), any(), any(), any())).thenAnswer(invocation -> {
+            AuthenticatedUser user = new AuthenticatedUser();
+            user.setUserName(invocation.getArgument(0));
+            user.setUserStoreDomain(invocation.getArgument(1));
+            user.setTenantDomain(invocation.getArgument(2));
+            return user;
+        });
+        mockStatic(OAuthUtil.class);
+        mockStatic(OAuthCache.class);
+        when(OAuthCache.getInstance()).thenReturn(mock(OAuthCache.class));
+        mockStatic(OAuth2TokenUtil.class);
+
+        oAuthEventInterceptor = mock(OAuthEventInterceptor.class);
+        when(oAuthEventInterceptor.isEnabled()).thenReturn(true);
+        OAuthComponentServiceHolder.getInstance().addOauthEventInterceptorProxy(oAuthEventInterceptor);
+    }
+
+    @AfterMethod
+    public void tearDown() {
+
+        OAuthComponentServiceHolder.getInstance().addOauthEventInterceptorProxy(null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testPendingJobIsProcessed() throws Exception {
+
+        String consumerKey = "pending-job-consumer-key";
+        addApplicationWithActiveTokens(consumerKey, "pending-job-token-1", "pending-job-token-2");
+        TokenRevocationJobDO job = addJob(consumerKey, TokenRevocationJobDO.Status.PENDING, 0,
+                System.currentTimeMillis());
+
+        tokenRevocationJobManager.resumeIncompleteJobs();
+
+        TokenRevocationJobDO completedJob = tokenRevocationJobDAO.getJob(job.getJobId(), TENANT_ID);
+        assertEquals(completedJob.getStatus(), TokenRevocationJobDO.Status.COMPLETED);
+        assertEquals(completedJob.getRevokedTokenCount(), 2);
+        assertEquals(getTokenState("pending-job-token-1"), "REVOKED");
+        assertEquals(getTokenState("pending-job-token-2"), "REVOKED");
+
+        // The listeners are notified of each chunk of tokens revoked by the job.
+        ArgumentCaptor<List> revokedTokens = ArgumentCaptor.forClass(List.class);
+        verify(oAuthEventInterceptor, times(2)).onPostTokenRevocationByApplication(
+                any(OAuthAppRevocationRequestDTO.class), any(OAuthRevocationResponseDTO.class),
+                revokedTokens.capture(), anyMap());
+        Set<String> notifiedTokenIds = new HashSet<>();
+        for (List<AccessTokenDO> chunk : (List<List<AccessTokenDO>>) (List) revokedTokens.getAllValues()) {
+            assertEquals(chunk.size(), 1);
+            notifiedTokenIds.add(chunk.get(0).getTokenId());
+        }
+        assertEquals(notifiedTokenIds.size(), 2);
+    }
+
+    @Test
+    public void testRunningJobIsNotResumed() throws Exception {
+
+        String consumerKey = "running-job-consumer-key";
+        addApplicationWithActiveTokens(consumerKey, "running-job-token-1");
+        TokenRevocationJobDO job = addJob(consumerKey, TokenRevocationJobDO.Status.RUNNING, 0,
+                System.currentTimeMillis());
+
+        tokenRevocationJobManager.resumeIncompleteJobs();
+
+        // The job is still processed by another node.
+        TokenRevocationJobDO runningJob = tokenRevocationJobDAO.getJob(job.getJobId(), TENANT_ID);
+        assertEquals(runningJob.getStatus(), TokenRevocationJobDO.Status.RUNNING);
+        assertEquals(getTokenState("running-job-token-1"), "ACTIVE");
+        verify(oAuthEventInterceptor, never()).onPostTokenRevocationByApplication(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testStaleJobIsResumed() throws Exception {
+
+        String consumerKey = "stale-job-consumer-key";
+        addApplicationWithActiveTokens(consumerKey, "stale-job-token-1");
+        TokenRevocationJobDO job = addJob(consumerKey, TokenRevocationJobDO.Status.RUNNING, 3,
+                System.currentTimeMillis() - 2 * STALE_JOB_TIMEOUT);
+
+        tokenRevocationJobManager.resumeIncompleteJobs();
+
+        // The job continues counting from the progress recorded before it was abandoned.
+        TokenRevocationJobDO completedJob = tokenRevocationJobDAO.getJob(job.getJobId(), TENANT_ID);
+        assertEquals(completedJob.getStatus(), TokenRevocationJobDO.Status.COMPLETED);
+        assertEquals(completedJob.getRevokedTokenCount(), 4);
+        assertEquals(getTokenState("stale-job-token-1"), "REVOKED");
+    }
+
+    private TokenRevocationJobDO addJob(String consumerKey, TokenRevocationJobDO.Status status,
+                                        int revokedTokenCount, long lastUpdated) throws Exception {
+
+        TokenRevocationJobDO job = new TokenRevocationJobDO();
+        job.setJobId(UUID.randomUUID().toString());
+        job.setTenantId(TENANT_ID);
+        job.setType(TokenRevocationJobDO.Type.APPLICATION);
+        job.setConsumerKey(consumerKey);
+        job.setStatus(status);
+        job.setRevokedTokenCount(revokedTokenCount);
+        job.setTimeCreated(new Timestamp(lastUpdated));
+        job.setLastUpdated(new Timestamp(lastUpdated));
+        tokenRevocationJobDAO.addJob(job);
+        return job;
+    }
+
+    private void addApplicationWithActiveTokens(String consumerKey, String... tokenIds) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME)) {
+            try (PreparedStatement prepStmt = connection.prepareStatement(
+                    SQLQueries.OAuthAppDAOSQLQueries.ADD_OAUTH_APP)) {
+                prepStmt.setString(1, consumerKey);
+                prepStmt.setString(2, "secret");
+                prepStmt.setString(3, USER_NAME);
+                prepStmt.setInt(4, TENANT_ID);
+                prepStmt.setString(5, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+                prepStmt.setString(6, consumerKey);
+                prepStmt.setString(7, VERSION_2);
+                prepStmt.setString(8, "http://localhost:8080/redirect");
+                prepStmt.setString(9, "authorization_code");
+                prepStmt.setLong(10, 3600L);
+                prepStmt.setLong(11, 3600L);
+                prepStmt.setLong(12, 84600L);
+                prepStmt.setLong(13, 3600L);
+                prepStmt.execute();
+            }
+            int appId;
+            try (PreparedStatement prepStmt = connection.prepareStatement(
+                    "SELECT ID FROM IDN_OAUTH_CONSUMER_APPS WHERE CONSUMER_KEY = ?")) {
+                prepStmt.setString(1, consumerKey);
+                try (ResultSet resultSet = prepStmt.executeQuery()) {
+                    resultSet.next();
+                    appId = resultSet.getInt(1);
+                }
+            }
+            for (String tokenId : tokenIds) {
+                try (PreparedStatement prepStmt = connection.prepareStatement("INSERT INTO " +
+                        "IDN_OAUTH2_ACCESS_TOKEN (TOKEN_ID, ACCESS_TOKEN, CONSUMER_KEY_ID, AUTHZ_USER, TENANT_ID, " +
+                        "USER_DOMAIN, USER_TYPE, GRANT_TYPE, TIME_CREATED, VALIDITY_PERIOD, TOKEN_SCOPE_HASH, " +
+                        "TOKEN_STATE, SUBJECT_IDENTIFIER) VALUES (?, ?, ?, ?, ?, ?, 'APPLICATION_USER', " +
+                        "'authorization_code', ?, 3600000, ?, 'ACTIVE', ?)")) {
+                    prepStmt.setString(1, tokenId);
+                    prepStmt.setString(2, "access-" + tokenId);
+                    prepStmt.setInt(3, appId);
+                    prepStmt.setString(4, USER_NAME);
+                    prepStmt.setInt(5, TENANT_ID);
+                    prepStmt.setString(6, UserCoreConstants.PRIMARY_DEFAULT_DOMAIN_NAME);
+                    prepStmt.setTimestamp(7, new Timestamp(System.currentTimeMillis()));
+                    // Each token has its own scopes, as only one active token is allowed per set of scopes.
+                    prepStmt.setString(8, tokenId);
+                    prepStmt.setString(9, USER_NAME);
+                    prepStmt.execute();
+                }
+            }
+        }
+    }
+
+    private String getTokenState(String tokenId) throws Exception {
+
+        try (Connection connection = DAOUtils.getConnection(DB_NAME);
+             PreparedStatement prepStmt = connection.prepareStatement(
+                     "SELECT TOKEN_STATE FROM IDN_OAUTH2_ACCESS_TOKEN WHERE TOKEN_ID = ?")) {
+            prepStmt.setString(1, tokenId);
+            try (ResultSet resultSet = prepStmt.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token;
+
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class ParkedTokenRequestRegistryTest {
+
+    private static final String DEVICE_GRANT = "urn:ietf:params:oauth:grant-type:device_code";
+    private static final String CIBA_GRANT = "urn:openid:params:grant-type:ciba";
+
+    @Test
+    public void testParkWhenDisabled() {
+
+        ParkedTokenRequestRegistry registry = new ParkedTokenRequestRegistry(false, 1000, 10, 1);
+        assertFalse(registry.park(DEVICE_GRANT, "device-code", () -> { }));
+        assertFalse(registry.hasParkedRequests());
+    }
+
+    @Test
+    public void testNotifyCompletionWakesParkedRequests() throws Exception {
+
+        ParkedTokenRequestRegistry registry = new ParkedTokenRequestRegistry(true, 1000, 10, 1);
+        CountDownLatch latch = new CountDownLatch(2);
+        assertTrue(registry.park(DEVICE_GRANT, "device-code", latch::countDown));
+        assertTrue(registry.park(DEVICE_GRANT, "device-code", latch::countDown));
+        assertTrue(registry.hasParkedRequests());
+
+        // Completion of a different grant must not wake up the parked requests.
+        registry.notifyCompletion(CIBA_GRANT, "device-code");
+        assertEquals(latch.getCount(), 2);
+
+        registry.notifyCompletion(DEVICE_GRANT, "device-code");
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertFalse(registry.hasParkedRequests());
+    }
+
+    @Test
+    public void testParkIsBounded() {
+
+        ParkedTokenRequestRegistry registry = new ParkedTokenRequestRegistry(true, 1000, 1, 1);
+        assertTrue(registry.park(CIBA_GRANT, "auth-req-id-1", () -> { }));
+        assertFalse(registry.park(CIBA_GRANT, "auth-req-id-2", () -> { }));
+    }
+
+    @Test
+    public void testUnpark() {
+
+        ParkedTokenRequestRegistry registry = new ParkedTokenRequestRegistry(true, 1000, 1, 1);
+        Runnable onWakeup = () -> { };
+        assertTrue(registry.park(CIBA_GRANT, "auth-req-id", onWakeup));
+        assertTrue(registry.unpark(CIBA_GRANT, "auth-req-id", onWakeup));
+        assertFalse(registry.unpark(CIBA_GRANT, "auth-req-id", onWakeup));
+        assertFalse(registry.hasParkedRequests());
+
+        // The slot released by unparking can be reused.
+        assertTrue(registry.park(CIBA_GRANT, "auth-req-id", onWakeup));
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.oauth2.token.metrics;
+
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class JMXTokenIssuanceMetricsPublisherTest {
+
+    private static final String PASSWORD_GRANT = "password";
+    private static final String REFRESH_GRANT = "refresh_token";
+
+    @Test
+    public void testDisabledRequestMetrics() {
+
+        JMXTokenIssuanceMetricsPublisher publisher = new JMXTokenIssuanceMetricsPublisher();
+        TokenRequestMetrics.DISABLED.endStage(TokenIssuanceStage.ISSUE);
+        TokenRequestMetrics.DISABLED.end(null);
+        assertFalse(TokenRequestMetrics.DISABLED.isEnabled());
+        assertTrue(publisher.getStageCount().isEmpty());
+        assertTrue(publisher.getRequestCount().isEmpty());
+    }
+
+    @Test
+    public void testPublishRequestMetrics() {
+
+        JMXTokenIssuanceMetricsPublisher publisher = new JMXTokenIssuanceMetricsPublisher();
+
+        TokenRequestMetrics passwordRequest = new TokenRequestMetrics(PASSWORD_GRANT,
+                Collections.singletonList(publisher));
+        passwordRequest.endStage(TokenIssuanceStage.VALIDATE_GRANT);
+        passwordRequest.endStage(TokenIssuanceStage.ISSUE);
+        passwordRequest.countDatabaseCall();
+        passwordRequest.countDatabaseCall();
+        passwordRequest.countCacheHit();
+        passwordRequest.countCacheMiss();
+        passwordRequest.end(null);
+
+        TokenRequestMetrics refreshRequest = new TokenRequestMetrics(REFRESH_GRANT,
+                Collections.singletonList(publisher));
+        refreshRequest.endStage(TokenIssuanceStage.VALIDATE_GRANT);
+        refreshRequest.end("invalid_grant");
+
+        assertEquals(publisher.getStageCount().get(PASSWORD_GRANT + ".VALIDATE_GRANT"), Long.valueOf(1));
+        assertEquals(publisher.getStageCount().get(PASSWORD_GRANT + ".ISSUE"), Long.valueOf(1));
+        assertEquals(publisher.getStageCount().get(REFRESH_GRANT + ".VALIDATE_GRANT"), Long.valueOf(1));
+        assertEquals(publisher.getRequestCount().get(PASSWORD_GRANT), Long.valueOf(1));
+        assertEquals(publisher.getRequestCount().get(REFRESH_GRANT), Long.valueOf(1));
+        assertFalse(publisher.getRequestErrorCount().containsKey(PASSWORD_GRANT));
+        assertEquals(publisher.getRequestErrorCount().get(REFRESH_GRANT), Long.valueOf(1));
+        assertEquals(publisher.getDatabaseCallCount().get(PASSWORD_GRANT), Long.valueOf(2));
+        assertEquals(publisher.getCacheHitCount().get(PASSWORD_GRANT), Long.valueOf(1));
+        assertEquals(publisher.getCacheMissCount().get(PASSWORD_GRANT), Long.valueOf(1));
+        assertTrue(publisher.getRequestMaxTimeInMillis().get(PASSWORD_GRANT) <=
+                publisher.getRequestTotalTimeInMillis().get(PASSWORD_GRANT));
+
+        publisher.reset();
+        assertTrue(publisher.getRequestCount().isEmpty());
+        assertTrue(publisher.getStageCount().isEmpty());
+    }
+
+    @Test
+    public void testPublisherFailureDoesNotFailRequest() {
+
+        TokenIssuanceMetricsPublisher failingPublisher = new TokenIssuanceMetricsPublisher() {
+
+            @Override
+            public void publishStage(String grantType, TokenIssuanceStage stage, long durationInNanos) {
+
+                throw new IllegalStateException("Stage publishing failed.");
+            }
+
+            @Override
+            public void publishRequest(TokenRequestMetrics requestMetrics) {
+
+                throw new IllegalStateException("Request publishing failed.");
+            }
+        };
+        TokenRequestMetrics requestMetrics = new TokenRequestMetrics(PASSWORD_GRANT,
+                Collections.singletonList(failingPublisher));
+        requestMetrics.endStage(TokenIssuanceStage.ISSUE);
+        requestMetrics.end(null);
+        assertTrue(requestMetrics.isSuccess());
+    }
+}
@@ -728,6 +728,27 @@ public class OAuth2UtilTest extends PowerMockIdentityBaseTest {
         assertEquals(OAuth2Util.getTokenPartitionedSqlByUserStore(sql, "H2"), partitionedSql);
     }
 
+    @Test
+    public void testGetTokenPartitionedSqlByUserStoreAfterDomainMappingChange() throws Exception {
+
+        String sql = "SELECT TOKEN_ID FROM IDN_OAUTH2_ACCESS_TOKEN, IDN_OAUTH2_ACCESS_TOKEN_SCOPE WHERE " +
+                "ACCESS_TOKEN = ?";
+        when(oauthServerConfigurationMock.isAccessTokenPartitioningEnabled()).thenReturn(true);
+        when(oauthServerConfigurationMock.isUserNameAssertionEnabled()).thenReturn(true);
+        mockStatic(IdentityUtil.class);
+        when(IdentityUtil.getPrimaryDomainName()).thenReturn("PRIMARY");
+
+        when(oauthServerConfigurationMock.getAccessTokenPartitioningDomains()).thenReturn("A:H2, B:AD");
+        assertEquals(OAuth2Util.getTokenPartitionedSqlByUserStore(sql, "H2"), "SELECT TOKEN_ID FROM " +
+                "IDN_OAUTH2_ACCESS_TOKEN_A, IDN_OAUTH2_ACCESS_TOKEN_SCOPE_A WHERE ACCESS_TOKEN = ?");
+        assertEquals(OAuth2Util.getTokenPartitionedSqlByUserStore(sql, "PRIMARY"), sql);
+
+        // The cached statements must not be used once the domain mappings change.
+        when(oauthServerConfigurationMock.getAccessTokenPartitioningDomains()).thenReturn("C:H2");
+        assertEquals(OAuth2Util.getTokenPartitionedSqlByUserStore(sql, "H2"), "SELECT TOKEN_ID FROM " +
+                "IDN_OAUTH2_ACCESS_TOKEN_C, IDN_OAUTH2_ACCESS_TOKEN_SCOPE_C WHERE ACCESS_TOKEN = ?");
+    }
+
     @DataProvider(name = "TokenPartitionedSqlByUserIdData")
     public Object[][] tokenPartitionedSqlByUserIdData() {
         String sql = "SELECT TOKEN_ID FROM IDN_OAUTH2_ACCESS_TOKEN WHERE ACCESS_TOKEN = ?";
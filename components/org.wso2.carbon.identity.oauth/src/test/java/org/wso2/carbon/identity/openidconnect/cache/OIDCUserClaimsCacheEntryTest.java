@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertNull;
+
+public class OIDCUserClaimsCacheEntryTest {
+
+    private static final String APPLICATION_1 = "client1:carbon.super";
+    private static final String APPLICATION_2 = "client2:carbon.super";
+
+    @Test
+    public void testClaimsPerApplication() {
+
+        Map<String, Object> claims1 = new HashMap<>();
+        claims1.put("email", "user@example.com");
+        Map<String, Object> claims2 = new HashMap<>();
+        claims2.put("given_name", "user");
+
+        OIDCUserClaimsCacheEntry emptyEntry = new OIDCUserClaimsCacheEntry();
+        OIDCUserClaimsCacheEntry entry = emptyEntry.withClaims(APPLICATION_1, claims1)
+                .withClaims(APPLICATION_2, claims2);
+
+        assertNull(emptyEntry.getClaims(APPLICATION_1));
+        assertEquals(entry.getClaims(APPLICATION_1), claims1);
+        assertEquals(entry.getClaims(APPLICATION_2), claims2);
+    }
+
+    @Test
+    public void testCachedClaimsAreNotModified() {
+
+        Map<String, Object> claims = new HashMap<>();
+        claims.put("email", "user@example.com");
+        OIDCUserClaimsCacheEntry entry = new OIDCUserClaimsCacheEntry().withClaims(APPLICATION_1, claims);
+
+        // Modifying the added or the returned claims must not modify the cached claims.
+        claims.put("email", "other@example.com");
+        entry.getClaims(APPLICATION_1).put("given_name", "user");
+
+        Map<String, Object> cachedClaims = entry.getClaims(APPLICATION_1);
+        assertEquals(cachedClaims.size(), 1);
+        assertEquals(cachedClaims.get("email"), "user@example.com");
+    }
+
+    @Test
+    public void testCacheKey() {
+
+        assertEquals(new OIDCUserClaimsCacheKey("user", "PRIMARY", "carbon.super"),
+                new OIDCUserClaimsCacheKey("user", "PRIMARY", "carbon.super"));
+        assertEquals(new OIDCUserClaimsCacheKey("user", "PRIMARY", "carbon.super").hashCode(),
+                new OIDCUserClaimsCacheKey("user", "PRIMARY", "carbon.super").hashCode());
+        assertNotEquals(new OIDCUserClaimsCacheKey("user", "PRIMARY", "carbon.super"),
+                new OIDCUserClaimsCacheKey("user", "SECONDARY", "carbon.super"));
+        assertNotEquals(new OIDCUserClaimsCacheKey("user", "PRIMARY", "carbon.super"),
+                new OIDCUserClaimsCacheKey("user", "PRIMARY", "wso2.com"));
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.cache;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth.dto.ScopeDTO;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class ScopeClaimIndexTest {
+
+    private static final String EMAIL_CLAIM = "email";
+    private static final String EMAIL_VERIFIED_CLAIM = "email_verified";
+    private static final String ADDRESS_CLAIM = "address";
+
+    @Test
+    public void testLookups() {
+
+        ScopeClaimIndex index = new ScopeClaimIndex(Arrays.asList(
+                new ScopeDTO("email", "Email", null, new String[]{EMAIL_CLAIM, EMAIL_VERIFIED_CLAIM}),
+                new ScopeDTO("profile", "Profile", null, new String[]{EMAIL_CLAIM, ADDRESS_CLAIM})));
+
+        assertFalse(index.isEmpty());
+        assertEquals(index.getScopeNames(), Arrays.asList("email", "profile"));
+        assertTrue(index.containsScope("profile"));
+        assertFalse(index.containsScope("openid"));
+        assertEquals(index.getClaims("email"), Arrays.asList(EMAIL_CLAIM, EMAIL_VERIFIED_CLAIM));
+        assertTrue(index.getClaimSet("profile").contains(ADDRESS_CLAIM));
+        assertTrue(index.getClaims("openid").isEmpty());
+        assertEquals(index.getScopesOfClaim(EMAIL_CLAIM), new HashSet<>(Arrays.asList("email", "profile")));
+        assertTrue(index.getScopesOfClaim("phone_number").isEmpty());
+        assertTrue(ScopeClaimIndex.empty().isEmpty());
+    }
+
+    @Test
+    public void testWithScopeAndWithoutScope() {
+
+        ScopeClaimIndex index = new ScopeClaimIndex(Collections.singletonList(
+                new ScopeDTO("email", "Email", null, new String[]{EMAIL_CLAIM, EMAIL_VERIFIED_CLAIM})));
+
+        // Replacing a scope must drop the claims that are no longer mapped to it.
+        ScopeClaimIndex updated = index.withScope(new ScopeDTO("email", "Email", null, new String[]{EMAIL_CLAIM}))
+                .withScope(new ScopeDTO("address", "Address", null, new String[]{ADDRESS_CLAIM}));
+        assertEquals(updated.getClaims("email"), Collections.singletonList(EMAIL_CLAIM));
+        assertTrue(updated.getScopesOfClaim(EMAIL_VERIFIED_CLAIM).isEmpty());
+        assertEquals(updated.getScopeNames(), Arrays.asList("email", "address"));
+
+        ScopeClaimIndex removed = updated.withoutScope("email");
+        assertNull(removed.getScope("email"));
+        assertTrue(removed.getScopesOfClaim(EMAIL_CLAIM).isEmpty());
+        assertEquals(removed.getClaims("address"), Collections.singletonList(ADDRESS_CLAIM));
+    }
+
+    @Test
+    public void testIndexIsNotModified() {
+
+        ScopeDTO scope = new ScopeDTO("email", "Email", null, new String[]{EMAIL_CLAIM});
+        ScopeClaimIndex index = new ScopeClaimIndex(Collections.singletonList(scope));
+        index.withScope(new ScopeDTO("address", "Address", null, new String[]{ADDRESS_CLAIM}));
+        index.withoutScope("email");
+
+        // Neither derived indexes nor changes to the source scope must leak into the index.
+        scope.addNewClaimToExistingClaims(EMAIL_VERIFIED_CLAIM);
+        assertEquals(index.getScopeNames(), Collections.singletonList("email"));
+        assertEquals(index.getClaims("email"), Collections.singletonList(EMAIL_CLAIM));
+    }
+}
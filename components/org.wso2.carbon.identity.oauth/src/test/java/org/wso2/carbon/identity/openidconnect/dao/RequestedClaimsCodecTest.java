@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2022, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.carbon.identity.openidconnect.dao;
+
+import org.testng.annotations.Test;
+import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.openidconnect.OIDCConstants;
+import org.wso2.carbon.identity.openidconnect.model.RequestedClaim;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class RequestedClaimsCodecTest {
+
+    @Test
+    public void testEncodeAndDecode() throws Exception {
+
+        RequestedClaim email = buildRequestedClaim("email", OIDCConstants.ID_TOKEN, true, null, null);
+        RequestedClaim acr = buildRequestedClaim("acr", OIDCConstants.ID_TOKEN, false, null,
+                Arrays.asList("urn:mace:incommon:iap:silver", "urn:mace:incommon:iap:bronze"));
+        RequestedClaim nickname = buildRequestedClaim("nickname", OIDCConstants.USERINFO, false, "nick", null);
+        byte[] encodedClaims = RequestedClaimsCodec.encode(Arrays.asList(Arrays.asList(email, acr),
+                Collections.singletonList(nickname)));
+
+        List<RequestedClaim> idTokenClaims = RequestedClaimsCodec.decode(encodedClaims, false);
+        assertEquals(idTokenClaims.size(), 2);
+        assertEquals(idTokenClaims.get(0).getName(), "email");
+        assertTrue(idTokenClaims.get(0).isEssential());
+        assertNull(idTokenClaims.get(0).getValue());
+        assertNull(idTokenClaims.get(0).getValues());
+        assertEquals(idTokenClaims.get(1).getName(), "acr");
+        assertFalse(idTokenClaims.get(1).isEssential());
+        assertEquals(idTokenClaims.get(1).getValues(), acr.getValues());
+
+        List<RequestedClaim> userInfoClaims = RequestedClaimsCodec.decode(encodedClaims, true);
+        assertEquals(userInfoClaims.size(), 1);
+        assertEquals(userInfoClaims.get(0).getName(), "nickname");
+        assertEquals(userInfoClaims.get(0).getValue(), "nick");
+        assertEquals(userInfoClaims.get(0).getType(), OIDCConstants.USERINFO);
+    }
+
+    @Test
+    public void testEncodeEmptyClaims() throws Exception {
+
+        assertTrue(RequestedClaimsCodec.decode(RequestedClaimsCodec.encode(null), false).isEmpty());
+        assertTrue(RequestedClaimsCodec.decode(RequestedClaimsCodec.encode(Collections.singletonList(null)), true)
+                .isEmpty());
+    }
+
+    @Test(expectedExceptions = IdentityOAuth2Exception.class)
+    public void testDecodeInvalidClaims() throws Exception {
+
+        RequestedClaimsCodec.decode(new byte[]{9, 0, 0, 0, 1}, false);
+    }
+
+    private RequestedClaim buildRequestedClaim(String name, String type, boolean essential, String value,
+                                               List<String> values) {
+
+        RequestedClaim requestedClaim = new RequestedClaim();
+        requestedClaim.setName(name);
+        requestedClaim.setType(type);
+        requestedClaim.setEssential(essential);
+        requestedClaim.setValue(value);
+        requestedClaim.setValues(values);
+        return requestedClaim;
+    }
+}
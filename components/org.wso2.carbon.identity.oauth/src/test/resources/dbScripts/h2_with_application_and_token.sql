@@ -174,6 +174,7 @@ CREATE TABLE IF NOT EXISTS IDN_OIDC_REQ_OBJECT_REFERENCE (
   CODE_ID VARCHAR(255) ,
   TOKEN_ID VARCHAR(255) ,
   SESSION_DATA_KEY VARCHAR(255),
+  REQUESTED_CLAIMS BLOB,
   PRIMARY KEY (ID),
   FOREIGN KEY (CONSUMER_KEY_ID) REFERENCES IDN_OAUTH_CONSUMER_APPS(ID) ON DELETE CASCADE,
   FOREIGN KEY (TOKEN_ID) REFERENCES IDN_OAUTH2_ACCESS_TOKEN(TOKEN_ID) ON DELETE CASCADE,
@@ -170,6 +170,34 @@ CREATE TABLE IF NOT EXISTS IDN_OAUTH2_ACCESS_TOKEN_SCOPE (
             FOREIGN KEY (TOKEN_ID) REFERENCES IDN_OAUTH2_ACCESS_TOKEN(TOKEN_ID) ON DELETE CASCADE
 );
 
+CREATE TABLE IF NOT EXISTS IDN_OAUTH2_TOKEN_REVOCATION_JOB (
+            JOB_ID VARCHAR (255) NOT NULL,
+            TENANT_ID INTEGER NOT NULL,
+            TYPE VARCHAR (25) NOT NULL,
+            CONSUMER_KEY VARCHAR (255),
+            AUTHZ_USER VARCHAR (255),
+            USER_DOMAIN VARCHAR (50),
+            TOKEN_BINDING_REF VARCHAR (32),
+            STATUS VARCHAR (25) NOT NULL,
+            REVOKED_TOKEN_COUNT INTEGER DEFAULT 0,
+            ERROR_MESSAGE VARCHAR (1024),
+            TIME_CREATED TIMESTAMP NOT NULL,
+            LAST_UPDATED TIMESTAMP NOT NULL,
+            PRIMARY KEY (JOB_ID)
+);
+
+CREATE INDEX IDX_TRJ_STATUS ON IDN_OAUTH2_TOKEN_REVOCATION_JOB (STATUS);
+
+CREATE TABLE IF NOT EXISTS IDN_OAUTH2_GRANT_ATTRIBUTES (
+            KEY_HASH VARCHAR (64) NOT NULL,
+            KEY_PARTITION INTEGER NOT NULL,
+            ATTRIBUTES BLOB NOT NULL,
+            EXPIRY_TIME BIGINT NOT NULL,
+            PRIMARY KEY (KEY_PARTITION, KEY_HASH)
+);
+
+CREATE INDEX IDX_GA_PARTITION_EXPIRY ON IDN_OAUTH2_GRANT_ATTRIBUTES (KEY_PARTITION, EXPIRY_TIME);
+
 CREATE TABLE IF NOT EXISTS IDN_OAUTH2_SCOPE (
             SCOPE_ID INTEGER NOT NULL AUTO_INCREMENT,
             NAME VARCHAR(255) NOT NULL,
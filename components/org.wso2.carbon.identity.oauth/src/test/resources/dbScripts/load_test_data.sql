@@ -0,0 +1,5 @@
+INSERT INTO IDN_OAUTH_CONSUMER_APPS (CONSUMER_KEY, CONSUMER_SECRET, USERNAME, TENANT_ID, USER_DOMAIN, APP_NAME,
+            OAUTH_VERSION, CALLBACK_URL, GRANT_TYPES, APP_STATE) VALUES
+            ('l0adt3stc1i3nt1d00000000000000a', 'l0adt3sts3cr3t0000000000000000a', 'admin', -1234, 'PRIMARY',
+            'load-test-app', 'OAuth-2.0', 'https://localhost/callback',
+            'refresh_token password client_credentials authorization_code', 'ACTIVE');
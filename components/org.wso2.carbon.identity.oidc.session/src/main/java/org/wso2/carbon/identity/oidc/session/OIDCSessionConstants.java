@@ -38,6 +38,10 @@ public class OIDCSessionConstants {
     public static final String OIDC_SESSION_DATA_KEY_PARAM = "sessionDataKey";
     public static final String OIDC_LOGOUT_CONSENT_DENIAL_REDIRECT_URL = "OAuth.OpenIDConnect" +
             ".RedirectToPostLogoutUriOnConsentDenial";
+    public static final String BACK_CHANNEL_LOGOUT_PARALLEL_TOKEN_SIGNING_ENABLE = "OAuth.OpenIDConnect" +
+            ".BackChannelLogout.ParallelTokenSigning.Enable";
+    public static final String BACK_CHANNEL_LOGOUT_TOKEN_SIGNING_POOL_SIZE = "OAuth.OpenIDConnect" +
+            ".BackChannelLogout.ParallelTokenSigning.PoolSize";
 
     public static final String OIDC_CACHE_CLIENT_ID_PARAM = "client_id";
     public static final String OIDC_CACHE_TENANT_DOMAIN_PARAM = "tenant_domain";
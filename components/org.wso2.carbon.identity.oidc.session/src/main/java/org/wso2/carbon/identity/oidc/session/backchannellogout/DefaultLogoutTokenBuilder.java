@@ -29,15 +29,18 @@ import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.wso2.carbon.base.MultitenantConstants;
+import org.wso2.carbon.context.PrivilegedCarbonContext;
 import org.wso2.carbon.core.util.KeyStoreManager;
 import org.wso2.carbon.identity.application.common.model.IdentityProvider;
 import org.wso2.carbon.identity.core.ServiceURLBuilder;
 import org.wso2.carbon.identity.core.URLBuilderException;
 import org.wso2.carbon.identity.core.util.IdentityTenantUtil;
+import org.wso2.carbon.identity.core.util.IdentityUtil;
 import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientException;
 import org.wso2.carbon.identity.oauth.config.OAuthServerConfiguration;
 import org.wso2.carbon.identity.oauth.dao.OAuthAppDO;
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
+import org.wso2.carbon.identity.oauth2.util.OAuth2ConfigUtil;
 import org.wso2.carbon.identity.oauth2.util.OAuth2Util;
 import org.wso2.carbon.identity.oidc.session.OIDCSessionConstants;
 import org.wso2.carbon.identity.oidc.session.OIDCSessionState;
@@ -55,6 +58,15 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
@@ -76,6 +88,10 @@ public class DefaultLogoutTokenBuilder implements LogoutTokenBuilder {
     private static final String ERROR_GET_RESIDENT_IDP =
             "Error while getting Resident Identity Provider of '%s' tenant.";
     private static final String BACKCHANNEL_LOGOUT_EVENT = "http://schemas.openid.net/event/backchannel-logout";
+    private static final int DEFAULT_SIGNING_POOL_SIZE = 4;
+    private static final int SIGNING_QUEUE_SIZE = 1000;
+
+    private static volatile ExecutorService signingExecutor;
 
     public DefaultLogoutTokenBuilder() throws IdentityOAuth2Exception {
 
@@ -87,35 +103,32 @@ public class DefaultLogoutTokenBuilder implements LogoutTokenBuilder {
     public Map<String, String> buildLogoutToken(HttpServletRequest request)
             throws IdentityOAuth2Exception, InvalidOAuthClientException {
 
-        Map<String, String> logoutTokenList = new HashMap<>();
+        Map<String, String> logoutTokenList = new ConcurrentHashMap<>();
         // Send logout token to all RPs.
         Cookie opbsCookie = OIDCSessionManagementUtil.getOPBrowserStateCookie(request);
         // For backward compatibility, SUPER_TENANT_DOMAIN was added as the cache maintained tenant.
         OIDCSessionState sessionState = getSessionState(opbsCookie != null ? opbsCookie.getValue() : null,
                 MultitenantConstants.SUPER_TENANT_DOMAIN_NAME);
         if (sessionState != null) {
-            Set<String> sessionParticipants = getSessionParticipants(sessionState);
-            if (!sessionParticipants.isEmpty()) {
-                for (String clientID : sessionParticipants) {
-                    OAuthAppDO oAuthAppDO;
-                    try {
-                        oAuthAppDO = getOAuthAppDO(clientID);
-                    } catch (InvalidOAuthClientException e) {
-                        if (log.isDebugEnabled()) {
-                            log.debug("The application with client id: " + clientID
-                                    + " does not exists. This application may be deleted after"
-                                    + " this session is created. So skipping it in logout token list.", e);
-                        }
-                        continue;
-                    }
-                    String tenantDomain = oAuthAppDO.getAppOwner().getTenantDomain();
-                    if (StringUtils.equals(clientID, getClientId(request, tenantDomain))) {
-                        // No need to send logout token if the client id of the RP initiated logout is known.
-                        continue;
-                    }
-                    addToLogoutTokenList(logoutTokenList, sessionState, clientID);
+            List<LogoutTarget> logoutTargets = getLogoutTargets(getSessionParticipants(sessionState));
+            // The client id of the RP initiated logout depends only on the tenant domain of the app.
+            Map<String, String> initiatedClientIds = new HashMap<>();
+            List<LogoutTarget> filteredLogoutTargets = new ArrayList<>();
+            for (LogoutTarget logoutTarget : logoutTargets) {
+                String initiatedClientId;
+                if (initiatedClientIds.containsKey(logoutTarget.tenantDomain)) {
+                    initiatedClientId = initiatedClientIds.get(logoutTarget.tenantDomain);
+                } else {
+                    initiatedClientId = getClientId(request, logoutTarget.tenantDomain);
+                    initiatedClientIds.put(logoutTarget.tenantDomain, initiatedClientId);
                 }
+                if (StringUtils.equals(logoutTarget.clientId, initiatedClientId)) {
+                    // No need to send logout token if the client id of the RP initiated logout is known.
+                    continue;
+                }
+                filteredLogoutTargets.add(logoutTarget);
             }
+            buildLogoutTokens(sessionState, filteredLogoutTargets, logoutTokenList::put);
         }
         return logoutTokenList;
     }
@@ -132,65 +145,192 @@ public class DefaultLogoutTokenBuilder implements LogoutTokenBuilder {
     public Map<String, String> buildLogoutToken(String opbscookie, String tenantDomain) throws IdentityOAuth2Exception,
             InvalidOAuthClientException {
 
-        Map<String, String> logoutTokenList = new HashMap<>();
+        Map<String, String> logoutTokenList = new ConcurrentHashMap<>();
+        buildLogoutTokens(opbscookie, tenantDomain, logoutTokenList::put);
+        return logoutTokenList;
+    }
+
+    @Override
+    public void buildLogoutTokens(String opbsCookie, String tenantDomain,
+                                  BiConsumer<String, String> logoutTokenConsumer) throws IdentityOAuth2Exception {
+
         // Send logout token to all RPs.
-        OIDCSessionState sessionState = getSessionState(opbscookie, tenantDomain);
+        OIDCSessionState sessionState = getSessionState(opbsCookie, tenantDomain);
         if (sessionState != null) {
-            Set<String> sessionParticipants = getSessionParticipants(sessionState);
-            if (!sessionParticipants.isEmpty()) {
-                for (String clientID : sessionParticipants) {
-                    addToLogoutTokenList(logoutTokenList, sessionState, clientID);
+            buildLogoutTokens(sessionState, getLogoutTargets(getSessionParticipants(sessionState)),
+                    logoutTokenConsumer);
+        }
+    }
+
+    /**
+     * Resolves the apps of the session participants which registered a back-channel logout uri.
+     *
+     * @param sessionParticipants Client ids of the session participants.
+     * @return Session participants to send the logout token.
+     * @throws IdentityOAuth2Exception
+     */
+    private List<LogoutTarget> getLogoutTargets(Set<String> sessionParticipants) throws IdentityOAuth2Exception {
+
+        List<LogoutTarget> logoutTargets = new ArrayList<>();
+        for (String clientID : sessionParticipants) {
+            OAuthAppDO oAuthAppDO;
+            try {
+                oAuthAppDO = getOAuthAppDO(clientID);
+            } catch (InvalidOAuthClientException e) {
+                if (log.isDebugEnabled()) {
+                    log.debug("The application with client id: " + clientID
+                            + " does not exists. This application may be deleted after"
+                            + " this session is created. So skipping it in logout token list.", e);
                 }
+                continue;
+            }
+            String backChannelLogoutUrl = oAuthAppDO.getBackChannelLogoutUrl();
+            if (StringUtils.isNotBlank(backChannelLogoutUrl)) {
+                // Send back-channel logout request to all RPs those registered their back-channel logout uri.
+                logoutTargets.add(new LogoutTarget(clientID, backChannelLogoutUrl, getTenanatDomain(oAuthAppDO),
+                        getSigningTenantDomain(oAuthAppDO)));
             }
         }
-        return logoutTokenList;
+        return logoutTargets;
     }
 
-    private void addToLogoutTokenList(Map<String, String> logoutTokenList,
-                                      OIDCSessionState sessionState, String clientID) throws IdentityOAuth2Exception {
+    /**
+     * Builds and signs the logout tokens of the given session participants. The claims are built on the calling
+     * thread, resolving the issuer once per tenant domain. When parallel signing is enabled, the tokens are signed on
+     * a bounded pool and each token is passed to the consumer as soon as it is signed.
+     *
+     * @param sessionState        OIDC session state.
+     * @param logoutTargets       Session participants to send the logout token.
+     * @param logoutTokenConsumer Consumer of the logout token and the back-channel logout url.
+     * @throws IdentityOAuth2Exception If a logout token cannot be built. Logout tokens of the other session
+     *                                 participants are still passed to the consumer.
+     */
+    private void buildLogoutTokens(OIDCSessionState sessionState, List<LogoutTarget> logoutTargets,
+                                   BiConsumer<String, String> logoutTokenConsumer) throws IdentityOAuth2Exception {
 
-        OAuthAppDO oAuthAppDO;
-        try {
-            oAuthAppDO = getOAuthAppDO(clientID);
-        } catch (InvalidOAuthClientException e) {
-            if (log.isDebugEnabled()) {
-                log.debug("The application with client id: " + clientID
-                        + " does not exists. This application may be deleted after"
-                        + " this session is created. So skipping it in logout token list.", e);
+        long logoutTokenValidityInMillis = getLogoutTokenExpiryInMillis();
+        Map<String, String> issuers = new HashMap<>();
+        List<Callable<Void>> signingTasks = new ArrayList<>();
+        for (LogoutTarget logoutTarget : logoutTargets) {
+            String issuer = issuers.get(logoutTarget.tenantDomain);
+            if (issuer == null) {
+                issuer = getIssuer(logoutTarget.tenantDomain);
+                issuers.put(logoutTarget.tenantDomain, issuer);
+            }
+            JWTClaimsSet jwtClaimsSet = buildJwtToken(sessionState, issuer, logoutTarget.clientId,
+                    logoutTokenValidityInMillis);
+            signingTasks.add(() -> {
+                String logoutToken = signLogoutToken(jwtClaimsSet, logoutTarget.signingTenantDomain);
+                logoutTokenConsumer.accept(logoutToken, logoutTarget.backChannelLogoutUrl);
+                if (log.isDebugEnabled()) {
+                    log.debug("Logout token created for the client: " + logoutTarget.clientId);
+                }
+                return null;
+            });
+        }
+
+        IdentityOAuth2Exception signingError = null;
+        ExecutorService signingExecutor = getSigningExecutor();
+        if (signingExecutor == null || signingTasks.size() < 2) {
+            for (Callable<Void> signingTask : signingTasks) {
+                try {
+                    signingTask.call();
+                } catch (Exception e) {
+                    if (signingError == null) {
+                        signingError = toIdentityOAuth2Exception(e);
+                    }
+                }
+            }
+            if (signingError != null) {
+                throw signingError;
             }
             return;
         }
-        String backChannelLogoutUrl = oAuthAppDO.getBackChannelLogoutUrl();
-        if (StringUtils.isNotBlank(backChannelLogoutUrl)) {
-            // Send back-channel logout request to all RPs those registered their back-channel logout uri.
-            JWTClaimsSet jwtClaimsSet = buildJwtToken(sessionState, getTenanatDomain(oAuthAppDO), clientID);
-            String logoutToken = OAuth2Util.signJWT(jwtClaimsSet, signatureAlgorithm,
-                    getSigningTenantDomain(oAuthAppDO)).serialize();
-            logoutTokenList.put(logoutToken, backChannelLogoutUrl);
+        List<Future<Void>> signingResults = new ArrayList<>();
+        for (Callable<Void> signingTask : signingTasks) {
+            signingResults.add(signingExecutor.submit(signingTask));
+        }
+        for (Future<Void> signingResult : signingResults) {
+            try {
+                signingResult.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IdentityOAuth2Exception("Interrupted while signing the logout tokens.", e);
+            } catch (ExecutionException e) {
+                if (signingError == null) {
+                    signingError = toIdentityOAuth2Exception(e.getCause());
+                }
+            }
+        }
+        if (signingError != null) {
+            throw signingError;
+        }
+    }
 
-            if (log.isDebugEnabled()) {
-                log.debug("Logout token created for the client: " + clientID);
+    private String signLogoutToken(JWTClaimsSet jwtClaimsSet, String signingTenantDomain)
+            throws IdentityOAuth2Exception {
+
+        try {
+            PrivilegedCarbonContext.startTenantFlow();
+            PrivilegedCarbonContext.getThreadLocalCarbonContext().setTenantDomain(signingTenantDomain, true);
+            return OAuth2Util.signJWT(jwtClaimsSet, signatureAlgorithm, signingTenantDomain).serialize();
+        } finally {
+            PrivilegedCarbonContext.endTenantFlow();
+        }
+    }
+
+    private IdentityOAuth2Exception toIdentityOAuth2Exception(Throwable e) {
+
+        if (e instanceof IdentityOAuth2Exception) {
+            return (IdentityOAuth2Exception) e;
+        }
+        return new IdentityOAuth2Exception("Error while building the logout token.", e);
+    }
+
+    /**
+     * Returns the pool used to sign logout tokens in parallel, or null if parallel signing is disabled.
+     *
+     * @return Logout token signing pool.
+     */
+    private static ExecutorService getSigningExecutor() {
+
+        if (!Boolean.parseBoolean(IdentityUtil.getProperty(
+                OIDCSessionConstants.BACK_CHANNEL_LOGOUT_PARALLEL_TOKEN_SIGNING_ENABLE))) {
+            return null;
+        }
+        if (signingExecutor == null) {
+            synchronized (DefaultLogoutTokenBuilder.class) {
+                if (signingExecutor == null) {
+                    int poolSize = OAuth2ConfigUtil.readConfigValue(
+                            OIDCSessionConstants.BACK_CHANNEL_LOGOUT_TOKEN_SIGNING_POOL_SIZE, DEFAULT_SIGNING_POOL_SIZE);
+                    // When the pool is saturated the logout request thread signs the token itself.
+                    signingExecutor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                            new ArrayBlockingQueue<>(SIGNING_QUEUE_SIZE), runnable -> {
+                        Thread thread = new Thread(runnable, "LogoutTokenSigner");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+                }
             }
         }
+        return signingExecutor;
     }
 
     /**
      * Builds jwtClaimSet.
      *
      * @param sessionState
-     * @param tenantDomain
+     * @param issuer
      * @param clientID
+     * @param logoutTokenValidityInMillis
      * @return
-     * @throws IdentityOAuth2Exception
      */
-    private JWTClaimsSet buildJwtToken(OIDCSessionState sessionState, String tenantDomain, String clientID)
-            throws IdentityOAuth2Exception {
+    private JWTClaimsSet buildJwtToken(OIDCSessionState sessionState, String issuer, String clientID,
+                                       long logoutTokenValidityInMillis) {
 
         String sub = sessionState.getAuthenticatedUser();
         String jti = UUID.randomUUID().toString();
-        String iss = getIssuer(tenantDomain);
         List<String> audience = getAudience(clientID);
-        long logoutTokenValidityInMillis = getLogoutTokenExpiryInMillis();
         long currentTimeInMillis = Calendar.getInstance().getTimeInMillis();
         Date iat = new Date(currentTimeInMillis);
         String sid = getSidClaim(sessionState);
@@ -199,7 +339,7 @@ public class DefaultLogoutTokenBuilder implements LogoutTokenBuilder {
 
         JWTClaimsSet.Builder jwtClaimsSetBuilder = new JWTClaimsSet.Builder();
         jwtClaimsSetBuilder.subject(sub);
-        jwtClaimsSetBuilder.issuer(iss);
+        jwtClaimsSetBuilder.issuer(issuer);
         jwtClaimsSetBuilder.audience(audience);
         jwtClaimsSetBuilder.claim("jti", jti);
         jwtClaimsSetBuilder.claim("events", event);
@@ -492,4 +632,22 @@ public class DefaultLogoutTokenBuilder implements LogoutTokenBuilder {
         }
     }
 
+    /**
+     * Session participant to which a logout token is sent.
+     */
+    private static class LogoutTarget {
+
+        private final String clientId;
+        private final String backChannelLogoutUrl;
+        private final String tenantDomain;
+        private final String signingTenantDomain;
+
+        LogoutTarget(String clientId, String backChannelLogoutUrl, String tenantDomain, String signingTenantDomain) {
+
+            this.clientId = clientId;
+            this.backChannelLogoutUrl = backChannelLogoutUrl;
+            this.tenantDomain = tenantDomain;
+            this.signingTenantDomain = signingTenantDomain;
+        }
+    }
 }
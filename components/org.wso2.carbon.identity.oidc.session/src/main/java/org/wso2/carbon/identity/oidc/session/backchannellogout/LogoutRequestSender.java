@@ -17,7 +17,6 @@
  */
 package org.wso2.carbon.identity.oidc.session.backchannellogout;
 
-import org.apache.commons.collections.MapUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.apache.http.HttpResponse;
@@ -39,7 +38,6 @@ import java.io.IOException;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -112,42 +110,25 @@ public class LogoutRequestSender {
      */
     public void sendLogoutRequests(String opbsCookieId, String tenantDomain) {
 
-        Map<String, String> logoutTokenList = getLogoutTokenList(opbsCookieId, tenantDomain);
-        if (MapUtils.isNotEmpty(logoutTokenList)) {
-            // For each logoutReq, create a new task and submit it to the thread pool.
-            for (Map.Entry<String, String> logoutTokenMap : logoutTokenList.entrySet()) {
-                String logoutToken = logoutTokenMap.getKey();
-                String bcLogoutUrl = logoutTokenMap.getValue();
-                threadPool.submit(new LogoutReqSenderTask(logoutToken, bcLogoutUrl));
-                if (log.isDebugEnabled()) {
-                    log.debug("A logoutReqSenderTask is assigned to the thread pool");
-
-                }
-            }
-        }
-    }
-
-    /**
-     * Returns a Map with logout tokens and back-channel logut Url of Service providers.
-     *
-     * @param opbsCookie OpbsCookie.
-     * @return Map with logoutToken, back-channel logout Url.
-     */
-    private Map<String, String> getLogoutTokenList(String opbsCookie, String tenantDomain) {
-
-        Map<String, String> logoutTokenList = null;
         try {
-            DefaultLogoutTokenBuilder logoutTokenBuilder = new DefaultLogoutTokenBuilder();
-            logoutTokenList = logoutTokenBuilder.buildLogoutToken(opbsCookie, tenantDomain);
+            // Each logout request is dispatched as soon as its logout token is built.
+            new DefaultLogoutTokenBuilder().buildLogoutTokens(opbsCookieId, tenantDomain, this::submitLogoutRequest);
         } catch (IdentityOAuth2Exception e) {
-            log.error("Error while initializing " + DefaultLogoutTokenBuilder.class, e);
+            log.error("Error while sending logout requests for the tenant domain: " + tenantDomain, e);
         } catch (InvalidOAuthClientException e) {
             if (log.isDebugEnabled()) {
-                log.debug("Error while obtaining logout token list for the obpsCookie: " + opbsCookie +
-                                "& tenant domain: " + tenantDomain, e);
+                log.debug("Error while obtaining logout token list for the obpsCookie: " + opbsCookieId +
+                        "& tenant domain: " + tenantDomain, e);
             }
         }
-        return logoutTokenList;
+    }
+
+    private void submitLogoutRequest(String logoutToken, String bcLogoutUrl) {
+
+        threadPool.submit(new LogoutReqSenderTask(logoutToken, bcLogoutUrl));
+        if (log.isDebugEnabled()) {
+            log.debug("A logoutReqSenderTask is assigned to the thread pool");
+        }
     }
 
     /**
@@ -21,6 +21,7 @@ import org.wso2.carbon.identity.oauth.common.exception.InvalidOAuthClientExcepti
 import org.wso2.carbon.identity.oauth2.IdentityOAuth2Exception;
 
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import javax.servlet.http.HttpServletRequest;
 
@@ -71,4 +72,25 @@ public interface LogoutTokenBuilder {
 
         return buildLogoutToken(opbsCookie);
     }
+
+    /**
+     * Builds the logout tokens of all session participants and passes each token to the consumer as soon as it is
+     * ready, so that back-channel logout requests can be dispatched while the remaining tokens are being built.
+     *
+     * @param opbsCookie          Opbscookie value.
+     * @param tenantDomain        Tenant Domain.
+     * @param logoutTokenConsumer Consumer of the logout token and the corresponding back-channel logout URL. May be
+     *                            invoked concurrently.
+     * @throws IdentityOAuth2Exception
+     * @throws InvalidOAuthClientException
+     */
+    default void buildLogoutTokens(String opbsCookie, String tenantDomain,
+                                   BiConsumer<String, String> logoutTokenConsumer)
+            throws IdentityOAuth2Exception, InvalidOAuthClientException {
+
+        Map<String, String> logoutTokens = buildLogoutToken(opbsCookie, tenantDomain);
+        if (logoutTokens != null) {
+            logoutTokens.forEach(logoutTokenConsumer);
+        }
+    }
 }